@@ -53,12 +53,36 @@ public class GeneratedVolatileWBRBConfig extends WBRBConfig
 	public long getMainQueueMaxTargetSize() {return v_mainQueueMaxTargetSize;}
 	public void setMainQueueMaxTargetSize(long newValue) {v_mainQueueMaxTargetSize = newValue;}
 	
+	/** Default: 1; number of independent main/return queue pairs (shards) with their own processing threads; keys are distributed over shards by hash (so all processing for a given key happens in the same shard) and each shard gets an equal part of mainQueueMaxTargetSize (rounded up); increase if single main queue processing thread becomes a bottleneck */
+	private volatile int v_mainQueueShardCount = super.getMainQueueShardCount();
+	@Override
+	public int getMainQueueShardCount() {return v_mainQueueShardCount;}
+	public void setMainQueueShardCount(int newValue) {v_mainQueueShardCount = newValue;}
+	
+	/** Default: 10ms; main and return queue items are grouped into buckets by the time they were queued, this is the time span of a single bucket; processing threads wake up when the whole bucket is due and process it in one pass; larger values mean fewer wake-ups, but items may be processed up to this much later than their target time */
+	private volatile long v_queueBucketTimeGranularity = super.getQueueBucketTimeGranularity();
+	@Override
+	public long getQueueBucketTimeGranularity() {return v_queueBucketTimeGranularity;}
+	public void setQueueBucketTimeGranularity(long newValue) {v_queueBucketTimeGranularity = newValue;}
+	
 	/** Default value: 2x {@link #dataQueueMaxTargetSize}; if cache size (including data queue and other internal queue(s) such as 'return' queue) exceeds this value then no further elements can be added and attempts to do so fail with {@link CacheFullException}  */
 	private volatile long v_maxCacheElementsHardLimit = super.getMaxCacheElementsHardLimit();
 	@Override
 	public long getMaxCacheElementsHardLimit() {return v_maxCacheElementsHardLimit;}
 	public void setMaxCacheElementsHardLimit(long newValue) {v_maxCacheElementsHardLimit = newValue;}
 	
+	/** Default: 0 (disabled); if positive, cache entries are weighed via spiWriteLockWeigh(..) (default weight is 1 per entry) and if total cache weight exceeds this value then no further elements can be added and attempts to do so fail with {@link CacheFullException}; weighing is enabled at cache creation if this or mainQueueMaxTargetWeight is positive */
+	private volatile long v_maxCacheWeightHardLimit = super.getMaxCacheWeightHardLimit();
+	@Override
+	public long getMaxCacheWeightHardLimit() {return v_maxCacheWeightHardLimit;}
+	public void setMaxCacheWeightHardLimit(long newValue) {v_maxCacheWeightHardLimit = newValue;}
+	
+	/** Default: 0 (disabled); if positive, cache entries are weighed via spiWriteLockWeigh(..) (default weight is 1 per entry) and if total weight of the entries in a queue shard exceeds this value (split evenly between shards, rounded up) then main queue items are processed early (after mainQueueCacheTimeMin) and return queue items are not retained -- same as when main queue size exceeds mainQueueMaxTargetSize; weighing is enabled at cache creation if this or maxCacheWeightHardLimit is positive */
+	private volatile long v_mainQueueMaxTargetWeight = super.getMainQueueMaxTargetWeight();
+	@Override
+	public long getMainQueueMaxTargetWeight() {return v_mainQueueMaxTargetWeight;}
+	public void setMainQueueMaxTargetWeight(long newValue) {v_mainQueueMaxTargetWeight = newValue;}
+	
 	/** How many updates (per cache item) we are allowed to collect */
 	private volatile int v_maxUpdatesToCollect = super.getMaxUpdatesToCollect();
 	@Override
@@ -76,6 +100,36 @@ public class GeneratedVolatileWBRBConfig extends WBRBConfig
 	@Override
 	public long getMainQueueCacheTimeMin() {return v_mainQueueCacheTimeMin;}
 	public void setMainQueueCacheTimeMin(long newValue) {v_mainQueueCacheTimeMin = newValue;}
+	
+	/** Default: false; if enabled, effective main queue cache time is continuously re-tuned by a feedback controller within mainQueueCacheTimeMin..adaptiveMainQueueCacheTimeMax range -- it shrinks smoothly when main queue size/weight go over the target (mainQueueMaxTargetSize / mainQueueMaxTargetWeight) and widens (up to adaptiveMainQueueCacheTimeMax) when there's spare capacity or when storage write rate exceeds adaptiveMainQueueCacheTimeTargetWriteRate; this allows cache time to follow load smoothly rather than flip between mainQueueCacheTime and mainQueueCacheTimeMin (the latter is still used immediately whenever queue shard is over the target) */
+	private volatile boolean v_adaptiveMainQueueCacheTime = super.isAdaptiveMainQueueCacheTime();
+	@Override
+	public boolean isAdaptiveMainQueueCacheTime() {return v_adaptiveMainQueueCacheTime;}
+	public void setAdaptiveMainQueueCacheTime(boolean newValue) {v_adaptiveMainQueueCacheTime = newValue;}
+	
+	/** Default: mainQueueCacheTime; maximum effective main queue cache time that adaptive controller may use (see adaptiveMainQueueCacheTime); may be larger than mainQueueCacheTime in order to allow cache to hold items for longer when there's spare capacity (e.g. during off-peak hours) */
+	private volatile long v_adaptiveMainQueueCacheTimeMax = super.getAdaptiveMainQueueCacheTimeMax();
+	@Override
+	public long getAdaptiveMainQueueCacheTimeMax() {return v_adaptiveMainQueueCacheTimeMax;}
+	public void setAdaptiveMainQueueCacheTimeMax(long newValue) {v_adaptiveMainQueueCacheTimeMax = newValue;}
+	
+	/** Default: 0 (no target); target storage write rate (write attempts per second) for adaptive controller (see adaptiveMainQueueCacheTime); if positive, controller does not widen cache time while write rate is below this target (and shrinks it towards the target, thus keeping storage data fresher), but widens cache time (so that more updates are merged into each write) if write rate is above the target; main queue size/weight targets always take precedence */
+	private volatile long v_adaptiveMainQueueCacheTimeTargetWriteRate = super.getAdaptiveMainQueueCacheTimeTargetWriteRate();
+	@Override
+	public long getAdaptiveMainQueueCacheTimeTargetWriteRate() {return v_adaptiveMainQueueCacheTimeTargetWriteRate;}
+	public void setAdaptiveMainQueueCacheTimeTargetWriteRate(long newValue) {v_adaptiveMainQueueCacheTimeTargetWriteRate = newValue;}
+	
+	/** Default: 1s; how often adaptive controller (see adaptiveMainQueueCacheTime) re-evaluates effective main queue cache time */
+	private volatile long v_adaptiveMainQueueCacheTimeAdjustInterval = super.getAdaptiveMainQueueCacheTimeAdjustInterval();
+	@Override
+	public long getAdaptiveMainQueueCacheTimeAdjustInterval() {return v_adaptiveMainQueueCacheTimeAdjustInterval;}
+	public void setAdaptiveMainQueueCacheTimeAdjustInterval(long newValue) {v_adaptiveMainQueueCacheTimeAdjustInterval = newValue;}
+	
+	/** Default: 25; smoothing for adaptive controller (see adaptiveMainQueueCacheTime) -- on each adjustment effective main queue cache time moves this many percent of the way towards the newly calculated target value (values over 100 are treated as 100); lower values result in smoother but slower adaptation */
+	private volatile int v_adaptiveMainQueueCacheTimeStepPercent = super.getAdaptiveMainQueueCacheTimeStepPercent();
+	@Override
+	public int getAdaptiveMainQueueCacheTimeStepPercent() {return v_adaptiveMainQueueCacheTimeStepPercent;}
+	public void setAdaptiveMainQueueCacheTimeStepPercent(int newValue) {v_adaptiveMainQueueCacheTimeStepPercent = newValue;}
 
 	/** Minimum (also target) time that cache elements spend in the return queue -- this is intended to give time for the write operation to complete before cache eviction is considered */  
 	private volatile long v_returnQueueCacheTimeMin = super.getReturnQueueCacheTimeMin();
@@ -95,12 +149,30 @@ public class GeneratedVolatileWBRBConfig extends WBRBConfig
 	public boolean isCanMergeWrites() {return v_canMergeWrites;}
 	public void setCanMergeWrites(boolean newValue) {v_canMergeWrites = newValue;}
 	
+	/** Default: false; if enabled, at most one not-yet-started write per key is kept in the write queue -- if cache item goes through main queue processing while its previous write is still waiting in the write queue, new write data is merged into the queued write in place (via splitForWrite(..) with queued write data passed as 'previous failed write data') instead of delaying the write until the next full cycle; requires writes merging to be allowed (see canMergeWrites and spiWriteLockIsCanMergeWrites(..)); this keeps storage write volume bounded by the number of distinct dirty keys when storage is slow; can only be set at cache creation */
+	private volatile boolean v_coalesceQueuedWrites = super.isCoalesceQueuedWrites();
+	@Override
+	public boolean isCoalesceQueuedWrites() {return v_coalesceQueuedWrites;}
+	public void setCoalesceQueuedWrites(boolean newValue) {v_coalesceQueuedWrites = newValue;}
+	
 	/** When inital read fails (final fail after possible retries) what action should be taken; options are in WBRBInitialReadFailedFinalDecision: REMOVE_FROM_CACHE, KEEP_AND_THROW_CACHE_READ_EXCEPTIONS */ 
 	private volatile WBRBInitialReadFailedFinalDecision v_initialReadFailedFinalAction = super.getInitialReadFailedFinalAction();
 	@Override
 	public WBRBInitialReadFailedFinalDecision getInitialReadFailedFinalAction() {return v_initialReadFailedFinalAction;}
 	public void setInitialReadFailedFinalAction(WBRBInitialReadFailedFinalDecision newValue) {v_initialReadFailedFinalAction = newValue;}
 	
+	/** Default: false; if enabled, initial storage reads that find no data (see spiWriteLockIsStorageDataAbsent(..), by default this is null read result) are cached as 'absent' entries (negative caching) -- reads and writes of such entries fail with CacheElementAbsentException (subclass of CacheElementFailedLoadingException) without going to the storage; as with any other entry, concurrent lookups of the same key share a single storage read; absent entries are taken out of the main queue (and expire from cache, so they no longer count towards mainQueueMaxTargetSize and other limits) as soon as they are older than negativeCacheTime -- main queue is checked for these at most once per maxSleepTime (and access to an absent entry older than negativeCacheTime re-reads storage right away); initialReadFailedFinalAction does not apply to absent entries */
+	private volatile boolean v_negativeCaching = super.isNegativeCaching();
+	@Override
+	public boolean isNegativeCaching() {return v_negativeCaching;}
+	public void setNegativeCaching(boolean newValue) {v_negativeCaching = newValue;}
+	
+	/** Default: mainQueueCacheTimeMin; how long 'absent' result is kept when negativeCaching is enabled; typically shorter than mainQueueCacheTime so that rows created in the storage by someone else are noticed reasonably quickly */
+	private volatile long v_negativeCacheTime = super.getNegativeCacheTime();
+	@Override
+	public long getNegativeCacheTime() {return v_negativeCacheTime;}
+	public void setNegativeCacheTime(long newValue) {v_negativeCacheTime = newValue;}
+	
 	/** When background resync is too late (not all updates are collected) what action should be taken; options are in WBRBMergeDecision: SET_DIRECTLY (use data from storage, ignore in-memory data), MERGE_DATA (even though updates were not properly tracked, CLEAR_READ_PENDING_STATUS (keep current in-memory data), REMOVE_FROM_CACHE, DO_NOTHING (!!! this is dangerous, should not be used in most cases, see CLEAR_READ_PENDING_STATUS instead) */ 
 	private volatile WBRBMergeDecision v_resyncTooLateAction = super.getResyncTooLateAction();
 	@Override
@@ -131,6 +203,60 @@ public class GeneratedVolatileWBRBConfig extends WBRBConfig
 	public boolean isAllowUpdatesCollectionForMultipleFullCycles() {return v_allowUpdatesCollectionForMultipleFullCycles;}
 	public void setAllowUpdatesCollectionForMultipleFullCycles(boolean newValue) {v_allowUpdatesCollectionForMultipleFullCycles = newValue;}
 	
+	/** Default: false; whether cache reads may be attempted without taking any lock on the cache entry (falling back to the standard locking read if entry is not fully loaded or is modified concurrently); lock-free reads bypass spiReadLockMakeCacheReadDecision(..), so they are not used (and warning is logged on start) if that method is overridden; when enabled, spiSomeLockConvertFromCacheFormat(..) must tolerate concurrently modified data (its result is discarded in this case); only affects entries created after the option is set */
+	private volatile boolean v_optimisticReads = super.isOptimisticReads();
+	@Override
+	public boolean isOptimisticReads() {return v_optimisticReads;}
+	public void setOptimisticReads(boolean newValue) {v_optimisticReads = newValue;}
+	
+	/** Default: false; whether cached values of idle entries are kept in serialized form (via codec provided by createValueCodec(), Kryo-based by default) in order to reduce heap usage; entry is considered idle if it wasn't accessed for at least idleValueSerializationDelay when it is (re-)queued into the return queue or back into the main queue without resync; serialized values are transparently deserialized on the next access; can only be set at cache creation */
+	private volatile boolean v_serializeIdleValues = super.isSerializeIdleValues();
+	@Override
+	public boolean isSerializeIdleValues() {return v_serializeIdleValues;}
+	public void setSerializeIdleValues(boolean newValue) {v_serializeIdleValues = newValue;}
+	
+	/** Default: 0ms; how long cache entry must be untouched (no reads or writes) before its value may be serialized, see serializeIdleValues; zero means that values are serialized whenever entry is moved to the return queue (unless it was accessed in the same millisecond) */
+	private volatile long v_idleValueSerializationDelay = super.getIdleValueSerializationDelay();
+	@Override
+	public long getIdleValueSerializationDelay() {return v_idleValueSerializationDelay;}
+	public void setIdleValueSerializationDelay(long newValue) {v_idleValueSerializationDelay = newValue;}
+	
+	/** Default: true; if serializeIdleValues is enabled, whether serialized values are stored off-heap (in pooled direct memory slabs, see createOffHeapValuePool()); if false, serialized values are stored on heap (which still typically uses less memory and has fewer objects for GC to track) */
+	private volatile boolean v_serializeIdleValuesOffHeap = super.isSerializeIdleValuesOffHeap();
+	@Override
+	public boolean isSerializeIdleValuesOffHeap() {return v_serializeIdleValuesOffHeap;}
+	public void setSerializeIdleValuesOffHeap(boolean newValue) {v_serializeIdleValuesOffHeap = newValue;}
+	
+	/** Default: empty (disabled); path to the file used for cache snapshots (warm restart) -- snapshot contains keys and cached values (encoded via createSnapshotKeyCodec() / createSnapshotValueCodec() codecs, Kryo by default) of all entries that have data ready; snapshot is written as configured by snapshotOnShutdownOrFlush / snapshotInterval (or via explicit writeSnapshot() invocation) and is loaded when cache is started (see snapshotLoadOnStart); can only be set at cache creation */
+	private volatile String v_snapshotFile = super.getSnapshotFile();
+	@Override
+	public String getSnapshotFile() {return v_snapshotFile;}
+	public void setSnapshotFile(String newValue) {v_snapshotFile = newValue;}
+	
+	/** Default: true; only used if snapshotFile is set; whether to write snapshot when shutdownFor(..) / flushFor(..) (and the like) are invoked -- snapshot is written at the start of the operation, before cached data is spooled down */
+	private volatile boolean v_snapshotOnShutdownOrFlush = super.isSnapshotOnShutdownOrFlush();
+	@Override
+	public boolean isSnapshotOnShutdownOrFlush() {return v_snapshotOnShutdownOrFlush;}
+	public void setSnapshotOnShutdownOrFlush(boolean newValue) {v_snapshotOnShutdownOrFlush = newValue;}
+	
+	/** Default: 0 (disabled); only used if snapshotFile is set; if positive, snapshot is also written periodically with this interval while cache is running; can only be set at cache creation */
+	private volatile long v_snapshotInterval = super.getSnapshotInterval();
+	@Override
+	public long getSnapshotInterval() {return v_snapshotInterval;}
+	public void setSnapshotInterval(long newValue) {v_snapshotInterval = newValue;}
+	
+	/** Default: true; only used if snapshotFile is set; whether to load snapshot (if snapshot file exists) when cache is started -- snapshot entries are added to the cache as already-loaded (so they are served immediately without reading storage) up to the cache size/weight limits */
+	private volatile boolean v_snapshotLoadOnStart = super.isSnapshotLoadOnStart();
+	@Override
+	public boolean isSnapshotLoadOnStart() {return v_snapshotLoadOnStart;}
+	public void setSnapshotLoadOnStart(boolean newValue) {v_snapshotLoadOnStart = newValue;}
+	
+	/** Default: true; only used if snapshotFile is set; whether entries loaded from snapshot are scheduled for background resync (refresh read) right away -- these are subject to readQueuePriorityLanes handling (i.e. they are queued in refresh lane and may be dropped); if disabled (or resync is dropped), loaded entries are only resynced as part of the normal cache cycle (i.e. if they are accessed while in cache) */
+	private volatile boolean v_snapshotResyncOnLoad = super.isSnapshotResyncOnLoad();
+	@Override
+	public boolean isSnapshotResyncOnLoad() {return v_snapshotResyncOnLoad;}
+	public void setSnapshotResyncOnLoad(boolean newValue) {v_snapshotResyncOnLoad = newValue;}
+	
 	
 	/** Default: Thread.NORM_PRIORITY + 1; priority to be used for read queue processing thread */ 
 	private volatile int v_readQueueProcessingThreadPriority = super.getReadQueueProcessingThreadPriority();
@@ -144,6 +270,36 @@ public class GeneratedVolatileWBRBConfig extends WBRBConfig
 	public long getReadQueueBatchingDelay() {return v_readQueueBatchingDelay;}
 	public void setReadQueueBatchingDelay(long newValue) {v_readQueueBatchingDelay = newValue;}
 	
+	/** Default: 0; zero value disables batched storage reads; when positive, read queue processor collects up to this many reads (see readQueueBatchingDelay) and reads them all via single readFromStorageBatch(..) invocation */
+	private volatile int v_readBatchMaxSize = super.getReadBatchMaxSize();
+	@Override
+	public int getReadBatchMaxSize() {return v_readBatchMaxSize;}
+	public void setReadBatchMaxSize(int newValue) {v_readBatchMaxSize = newValue;}
+	
+	/** Default: 100ms; zero value disables the limit; only used if readBatchMaxSize is positive; maximum time reads are collected into a single batch, measured from when the first read joined the batch -- once it passes, collected reads are sent to storage even if further reads keep arriving within readQueueBatchingDelay of each other */
+	private volatile long v_readBatchLingerTime = super.getReadBatchLingerTime();
+	@Override
+	public long getReadBatchLingerTime() {return v_readBatchLingerTime;}
+	public void setReadBatchLingerTime(long newValue) {v_readBatchLingerTime = newValue;}
+	
+	/** Default: false; if enabled, read queue is split into two priority lanes -- initial reads (somebody is likely waiting for these) and refresh (resync) reads scheduled by the return queue; read queue processor takes initial reads first (see readQueueRefreshLaneFairness) so that storage slowness / resync backlog doesn't push initial reads into timeouts; can only be set at cache creation */
+	private volatile boolean v_readQueuePriorityLanes = super.isReadQueuePriorityLanes();
+	@Override
+	public boolean isReadQueuePriorityLanes() {return v_readQueuePriorityLanes;}
+	public void setReadQueuePriorityLanes(boolean newValue) {v_readQueuePriorityLanes = newValue;}
+	
+	/** Default: 0 (strict priority); only used if readQueuePriorityLanes is enabled; if positive, after this many consecutive initial reads, read queue processor takes one refresh read (if any are waiting) even if there are more initial reads waiting -- so that refresh reads are not starved indefinitely */
+	private volatile int v_readQueueRefreshLaneFairness = super.getReadQueueRefreshLaneFairness();
+	@Override
+	public int getReadQueueRefreshLaneFairness() {return v_readQueueRefreshLaneFairness;}
+	public void setReadQueueRefreshLaneFairness(int newValue) {v_readQueueRefreshLaneFairness = newValue;}
+	
+	/** Default: 0 (unlimited); only used if readQueuePriorityLanes is enabled; if positive and refresh lane already has this many reads waiting, then new refresh (resync) reads are dropped -- element stays in cache with its current (possibly stale) data as if no resync was requested (see storageReadRefreshDropped in status); read retries are never dropped */
+	private volatile int v_readQueueRefreshLaneMaxSize = super.getReadQueueRefreshLaneMaxSize();
+	@Override
+	public int getReadQueueRefreshLaneMaxSize() {return v_readQueueRefreshLaneMaxSize;}
+	public void setReadQueueRefreshLaneMaxSize(int newValue) {v_readQueueRefreshLaneMaxSize = newValue;}
+	
 	/** Min value and max value for read thread pool size (reads are normally executed in separate threads); -1, -1 indicates that there's no read thread pool and instead reads are performed in the read queue processing thread -- in this case you should typically provide your own async processing to e.g. support batching */
 	private volatile Pair<Integer, Integer> v_readThreadPoolSize = super.getReadThreadPoolSize();
 	@Override
@@ -162,6 +318,18 @@ public class GeneratedVolatileWBRBConfig extends WBRBConfig
 	public long getReadThreadPoolMaxIdleTime() {return v_readThreadPoolMaxIdleTime;}
 	public void setReadThreadPoolMaxIdleTime(long newValue) {v_readThreadPoolMaxIdleTime = newValue;}
 	
+	/** Default: false; if enabled, read thread pool starts a new virtual thread for each storage read instead of using platform threads (requires Java 21+, cache creation fails on older JVMs); max value of readThreadPoolSize then bounds the number of concurrent storage reads via semaphore (excess reads wait for a permit in their virtual threads) and can be set much higher than is practical for platform threads (e.g. hundreds for blocking JDBC/HTTP storage); min value of readThreadPoolSize, readThreadPoolMaxIdleTime and readThreadPoolPriority are ignored in this case; can only be set at cache creation */
+	private volatile boolean v_readThreadPoolVirtualThreads = super.isReadThreadPoolVirtualThreads();
+	@Override
+	public boolean isReadThreadPoolVirtualThreads() {return v_readThreadPoolVirtualThreads;}
+	public void setReadThreadPoolVirtualThreads(boolean newValue) {v_readThreadPoolVirtualThreads = newValue;}
+	
+	/** Default: 1; number of threads used to complete futures returned by readAsync(..) (and to handle their timeouts); threads are only started if async reads are used */
+	private volatile int v_asyncReadThreadPoolSize = super.getAsyncReadThreadPoolSize();
+	@Override
+	public int getAsyncReadThreadPoolSize() {return v_asyncReadThreadPoolSize;}
+	public void setAsyncReadThreadPoolSize(int newValue) {v_asyncReadThreadPoolSize = newValue;}
+	
 	/** Specifies how many times read failures are retried; this only affects standard implementation of retry checking */
 	private volatile int v_readFailureMaxRetryCount = super.getReadFailureMaxRetryCount();
 	@Override
@@ -181,6 +349,30 @@ public class GeneratedVolatileWBRBConfig extends WBRBConfig
 	public long getWriteQueueBatchingDelay() {return v_writeQueueBatchingDelay;}
 	public void setWriteQueueBatchingDelay(long newValue) {v_writeQueueBatchingDelay = newValue;}
 	
+	/** Default: 0; zero value disables batched storage writes; when positive, write queue processor collects up to this many writes (see writeQueueBatchingDelay) and writes them all via single writeToStorageBatch(..) invocation */
+	private volatile int v_writeBatchMaxSize = super.getWriteBatchMaxSize();
+	@Override
+	public int getWriteBatchMaxSize() {return v_writeBatchMaxSize;}
+	public void setWriteBatchMaxSize(int newValue) {v_writeBatchMaxSize = newValue;}
+	
+	/** Default: 100ms; zero value disables the limit; only used if writeBatchMaxSize is positive; maximum time writes are collected into a single batch, measured from when the first write joined the batch -- once it passes, collected writes are sent to storage even if further writes keep arriving within writeQueueBatchingDelay of each other */
+	private volatile long v_writeBatchLingerTime = super.getWriteBatchLingerTime();
+	@Override
+	public long getWriteBatchLingerTime() {return v_writeBatchLingerTime;}
+	public void setWriteBatchLingerTime(long newValue) {v_writeBatchLingerTime = newValue;}
+	
+	/** Default: false; only used by WBRBReadBeforeWriteCache and only if writeBatchMaxSize is positive; if enabled, read-before-write for each write batch is pipelined -- all keys in the batch are read via single readFromStorageBatch(..) invocation, updates are applied and then everything is written via single writeToStorageBatchRBW(..) invocation (instead of read + write for each key separately); with write thread pool, reads for the next batches proceed while writes of the previous batches are still in flight */
+	private volatile boolean v_readBeforeWritePipelining = super.isReadBeforeWritePipelining();
+	@Override
+	public boolean isReadBeforeWritePipelining() {return v_readBeforeWritePipelining;}
+	public void setReadBeforeWritePipelining(boolean newValue) {v_readBeforeWritePipelining = newValue;}
+	
+	/** Default: false; only used by WBRBReadBeforeWriteCache; if enabled, writes are done optimistically -- in-memory value is written via writeToStorageConditionalRBW(..) conditionally on the storage version (see extractStorageVersionRBW(..)) seen at the last read or write, and full read-before-write is only done if conditional write reports a conflict (or if storage version is unknown); batched writes (readBeforeWritePipelining) always do full read-before-write */
+	private volatile boolean v_readBeforeWriteOptimistic = super.isReadBeforeWriteOptimistic();
+	@Override
+	public boolean isReadBeforeWriteOptimistic() {return v_readBeforeWriteOptimistic;}
+	public void setReadBeforeWriteOptimistic(boolean newValue) {v_readBeforeWriteOptimistic = newValue;}
+	
 	/** Min value and max value for write thread pool size (writes are normally executed in separate threads); -1, -1 indicates that there's no write thread pool and instead writes are performed in the write queue processing thread -- in this case you should typically provide your own async processing to e.g. support batching */
 	private volatile Pair<Integer, Integer> v_writeThreadPoolSize = super.getWriteThreadPoolSize();
 	@Override
@@ -199,6 +391,12 @@ public class GeneratedVolatileWBRBConfig extends WBRBConfig
 	public long getWriteThreadPoolMaxIdleTime() {return v_writeThreadPoolMaxIdleTime;}
 	public void setWriteThreadPoolMaxIdleTime(long newValue) {v_writeThreadPoolMaxIdleTime = newValue;}
 	
+	/** Default: false; if enabled, write thread pool starts a new virtual thread for each storage write instead of using platform threads (requires Java 21+, cache creation fails on older JVMs); max value of writeThreadPoolSize then bounds the number of concurrent storage writes via semaphore (excess writes wait for a permit in their virtual threads) and can be set much higher than is practical for platform threads (e.g. hundreds for blocking JDBC/HTTP storage); min value of writeThreadPoolSize, writeThreadPoolMaxIdleTime and writeThreadPoolPriority are ignored in this case; can only be set at cache creation */
+	private volatile boolean v_writeThreadPoolVirtualThreads = super.isWriteThreadPoolVirtualThreads();
+	@Override
+	public boolean isWriteThreadPoolVirtualThreads() {return v_writeThreadPoolVirtualThreads;}
+	public void setWriteThreadPoolVirtualThreads(boolean newValue) {v_writeThreadPoolVirtualThreads = newValue;}
+	
 	/** Specifies how many times write failures are retried; this only affects standard implementation of retry checking */
 	private volatile int v_writeFailureMaxRetryCount = super.getWriteFailureMaxRetryCount();
 	@Override
@@ -282,6 +480,24 @@ public class GeneratedVolatileWBRBConfig extends WBRBConfig
 	@Override
 	public List<Long> getMonitoringTimeSinceAccessThresholds() {return v_monitoringTimeSinceAccessThresholds;}
 	public void setMonitoringTimeSinceAccessThresholds(List<Long> newValue) {v_monitoringTimeSinceAccessThresholds = newValue;}
+	
+	/** Default: false; whether to use striped (LongAdder-based) counters for collecting cache stats; these avoid contention between threads that concurrently update stats (e.g. on every cache read) at the cost of more memory and more expensive status collection; can only be set at cache creation */
+	private volatile boolean v_stripedStats = super.isStripedStats();
+	@Override
+	public boolean isStripedStats() {return v_stripedStats;}
+	public void setStripedStats(boolean newValue) {v_stripedStats = newValue;}
+	
+	/** Default: false; whether to collect latency histograms (log-bucketed, lock-free, ~6% precision) for cache hot-path stages -- waiting reads (readFor & co.), write lock acquisition wait, storage reads, storage writes and time spent in the main queue; percentiles are reported via getStatus(..); when disabled there's no timing overhead; can only be set at cache creation */
+	private volatile boolean v_latencyHistograms = super.isLatencyHistograms();
+	@Override
+	public boolean isLatencyHistograms() {return v_latencyHistograms;}
+	public void setLatencyHistograms(boolean newValue) {v_latencyHistograms = newValue;}
+	
+	/** Default: 0 (never); if positive, latency histograms (see latencyHistograms) are reset after being reported in getStatus(..) once this much time has passed since the previous reset, so that reported percentiles cover (roughly) one reporting interval rather than the entire cache lifetime */
+	private volatile long v_latencyHistogramsResetInterval = super.getLatencyHistogramsResetInterval();
+	@Override
+	public long getLatencyHistogramsResetInterval() {return v_latencyHistogramsResetInterval;}
+	public void setLatencyHistogramsResetInterval(long newValue) {v_latencyHistogramsResetInterval = newValue;}
 		
 
 	/**
@@ -41,172 +41,269 @@ public class WBRBStatusBuilder {
         public WBRBStatus buildWBRBStatus();
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg103 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg120 {
+
+        /**
+         * How many optimistic (conditional) writes reported a conflict (and had
+         * to fall back to read-before-write), see {@link WBRBConfig#isReadBeforeWriteOptimistic()}
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_builder storageWriteOptimisticConflicts(long storageWriteOptimisticConflicts);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg119 {
+
+        /**
+         * How many optimistic (conditional) writes succeeded, see {@link WBRBConfig#isReadBeforeWriteOptimistic()}
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg120 storageWriteOptimisticSuccesses(long storageWriteOptimisticSuccesses);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg118 {
+
+        /**
+         * How many updates were folded into previously collected update (instead of being added to
+         * collected updates list), see WriteBehindResyncInBackgroundCache.combineUpdates(..)
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg119 cacheWriteCombinedUpdates(long cacheWriteCombinedUpdates);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg117 {
+
+        /**
+         * How many refresh (resync) reads were dropped (data kept as-is) because refresh lane of the read queue was
+         * saturated, see WBRBConfig.readQueueRefreshLaneMaxSize
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg118 storageReadRefreshDropped(long storageReadRefreshDropped);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg116 {
+
+        /**
+         * Current number of refresh (resync) reads waiting in the refresh lane of the read queue
+         * (these are NOT included in readQueueSize); always 0 unless WBRBConfig.readQueuePriorityLanes is enabled
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg117 readRefreshQueueSize(long readRefreshQueueSize);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg115 {
+
+        /**
+         * How many reads (initial) succeeded but found no data in the storage (these are
+         * also included in storageReadInitialSuccesses), see WBRBConfig.negativeCaching
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg116 storageReadInitialAbsent(long storageReadInitialAbsent);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg114 {
+
+        /**
+         * Main queue cache time currently in effect -- this is the same as configMainQueueCacheTimeMs
+         * unless adaptive cache time is enabled (see WBRBConfig.adaptiveMainQueueCacheTime)
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg115 currentMainQueueCacheTimeMs(long currentMainQueueCacheTimeMs);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg113 {
+
+        /**
+         * How many writes were merged into already-queued writes (instead of being
+         * sent separately) while processing main processing queue, see
+         * {@link WBRBConfig#isCoalesceQueuedWrites()}
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg114 mainQueueCoalescedWrites(long mainQueueCoalescedWrites);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg112 {
+
+        /**
+         * Current total weight of the cache entries (always zero if weighing is not
+         * enabled), see {@link WBRBConfig#getMaxCacheWeightHardLimit()}
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg113 currentCacheWeight(long currentCacheWeight);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg111 {
+
+        /**
+         * {@link WBRBConfig#getMainQueueMaxTargetWeight()}
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg112 configMainQueueMaxTargetWeight(long configMainQueueMaxTargetWeight);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg110 {
+
+        /**
+         * {@link WBRBConfig#getMaxCacheWeightHardLimit()}
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg111 configMaxCacheWeightHardLimit(long configMaxCacheWeightHardLimit);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg109 {
 
         /**
          * How many items were above all thresholds for
          * {@link WBRBConfig#getMonitoringTimeSinceAccessThresholds()}
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_builder timeSinceAccessThresholdAboveAllThresholds(long timeSinceAccessThresholdAboveAllThresholds);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg110 timeSinceAccessThresholdAboveAllThresholds(long timeSinceAccessThresholdAboveAllThresholds);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg102 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg108 {
 
         /**
          * How many items were at or below threshold 5 for
          * {@link WBRBConfig#getMonitoringTimeSinceAccessThresholds()}
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg103 timeSinceAccessThreshold5(long timeSinceAccessThreshold5);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg109 timeSinceAccessThreshold5(long timeSinceAccessThreshold5);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg101 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg107 {
 
         /**
          * How many items were at or below threshold 4 for
          * {@link WBRBConfig#getMonitoringTimeSinceAccessThresholds()}
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg102 timeSinceAccessThreshold4(long timeSinceAccessThreshold4);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg108 timeSinceAccessThreshold4(long timeSinceAccessThreshold4);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg100 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg106 {
 
         /**
          * How many items were at or below threshold 3 for
          * {@link WBRBConfig#getMonitoringTimeSinceAccessThresholds()}
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg101 timeSinceAccessThreshold3(long timeSinceAccessThreshold3);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg107 timeSinceAccessThreshold3(long timeSinceAccessThreshold3);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg99 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg105 {
 
         /**
          * How many items were at or below threshold 2 for
          * {@link WBRBConfig#getMonitoringTimeSinceAccessThresholds()}
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg100 timeSinceAccessThreshold2(long timeSinceAccessThreshold2);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg106 timeSinceAccessThreshold2(long timeSinceAccessThreshold2);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg98 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg104 {
 
         /**
          * How many items were at or below threshold 1 for
          * {@link WBRBConfig#getMonitoringTimeSinceAccessThresholds()}
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg99 timeSinceAccessThreshold1(long timeSinceAccessThreshold1);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg105 timeSinceAccessThreshold1(long timeSinceAccessThreshold1);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg97 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg103 {
 
         /**
          * How many items were above all thresholds for
          * {@link WBRBConfig#getMonitoringFullCacheCyclesThresholds()}
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg98 fullCycleCountAboveAllThresholds(long fullCycleCountAboveAllThresholds);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg104 fullCycleCountAboveAllThresholds(long fullCycleCountAboveAllThresholds);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg96 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg102 {
 
         /**
          * How many items were at or below threshold 5 for
          * {@link WBRBConfig#getMonitoringFullCacheCyclesThresholds()}
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg97 fullCycleCountThreshold5(long fullCycleCountThreshold5);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg103 fullCycleCountThreshold5(long fullCycleCountThreshold5);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg95 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg101 {
 
         /**
          * How many items were at or below threshold 4 for
          * {@link WBRBConfig#getMonitoringFullCacheCyclesThresholds()}
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg96 fullCycleCountThreshold4(long fullCycleCountThreshold4);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg102 fullCycleCountThreshold4(long fullCycleCountThreshold4);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg94 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg100 {
 
         /**
          * How many items were at or below threshold 3 for
          * {@link WBRBConfig#getMonitoringFullCacheCyclesThresholds()}
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg95 fullCycleCountThreshold3(long fullCycleCountThreshold3);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg101 fullCycleCountThreshold3(long fullCycleCountThreshold3);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg93 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg99 {
 
         /**
          * How many items were at or below threshold 2 for
          * {@link WBRBConfig#getMonitoringFullCacheCyclesThresholds()}
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg94 fullCycleCountThreshold2(long fullCycleCountThreshold2);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg100 fullCycleCountThreshold2(long fullCycleCountThreshold2);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg92 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg98 {
 
         /**
          * How many items were at or below threshold 1 for
          * {@link WBRBConfig#getMonitoringFullCacheCyclesThresholds()}
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg93 fullCycleCountThreshold1(long fullCycleCountThreshold1);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg99 fullCycleCountThreshold1(long fullCycleCountThreshold1);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg91 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg97 {
 
         /**
          * Last logged message text of the FATAL-type severity, null if no
          * such messages were logged (this does not track messages that were not
          * logged due to low severity or throttling).
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg92 lastFatalLoggedMsgText(@Nullable String lastFatalLoggedMsgText);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg98 lastFatalLoggedMsgText(@Nullable String lastFatalLoggedMsgText);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg90 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg96 {
 
         /**
          * Timestamp for the last message (regardless of whether it was logged)
          * of the FATAL-type severity, 0 if no such messages were logged.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg91 lastFatalMsgTimestamp(long lastFatalMsgTimestamp);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg97 lastFatalMsgTimestamp(long lastFatalMsgTimestamp);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg89 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg95 {
 
         /**
          * Last logged message text of the ERROR-type severity, null if no
          * such messages were logged (this does not track messages that were not
          * logged due to low severity or throttling).
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg90 lastErrorLoggedMsgText(@Nullable String lastErrorLoggedMsgText);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg96 lastErrorLoggedMsgText(@Nullable String lastErrorLoggedMsgText);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg88 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg94 {
 
         /**
          * Timestamp for the last message (regardless of whether it was logged)
          * of the ERROR-type severity, 0 if no such messages were logged.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg89 lastErrorMsgTimestamp(long lastErrorMsgTimestamp);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg95 lastErrorMsgTimestamp(long lastErrorMsgTimestamp);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg87 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg93 {
 
         /**
          * Last logged message text of the WARN-type severity, null if no
          * such messages were logged (this does not track messages that were not
          * logged due to low severity or throttling).
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg88 lastWarnLoggedMsgText(@Nullable String lastWarnLoggedMsgText);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg94 lastWarnLoggedMsgText(@Nullable String lastWarnLoggedMsgText);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg86 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg92 {
 
         /**
          * Timestamp for the last message (regardless of whether it was logged)
          * of the WARN-type severity, 0 if no such messages were logged.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg87 lastWarnMsgTimestamp(long lastWarnMsgTimestamp);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg93 lastWarnMsgTimestamp(long lastWarnMsgTimestamp);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg85 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg91 {
 
         /**
          * Collects last message text per each severity in {@link WBRBCacheMessageSeverity}
@@ -219,10 +316,10 @@ public class WBRBStatusBuilder {
          * NOTE2: those are not 'atomic' with {@link #getLastTimestampMsgPerSeverityOrdinal()}
          * there can be discrepancies.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg86 lastLoggedTextMsgPerSeverityOrdinal(@Nullable String[] lastLoggedTextMsgPerSeverityOrdinal);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg92 lastLoggedTextMsgPerSeverityOrdinal(@Nullable String[] lastLoggedTextMsgPerSeverityOrdinal);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg84 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg90 {
 
         /**
          * Collects last message timestamps per each severity in {@link WBRBCacheMessageSeverity}
@@ -235,35 +332,35 @@ public class WBRBStatusBuilder {
          * NOTE2: those are not 'atomic' with {@link #getLastLoggedTextMsgPerSeverityOrdinal()}
          * there can be discrepancies.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg85 lastTimestampMsgPerSeverityOrdinal(long[] lastTimestampMsgPerSeverityOrdinal);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg91 lastTimestampMsgPerSeverityOrdinal(long[] lastTimestampMsgPerSeverityOrdinal);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg83 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg89 {
 
         /**
          * Total count of messages with severity 'error' or higher.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg84 msgTotalErrorOrHigherCount(long msgTotalErrorOrHigherCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg90 msgTotalErrorOrHigherCount(long msgTotalErrorOrHigherCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg82 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg88 {
 
         /**
          * Total count of messages with severity 'warn' or higher.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg83 msgTotalWarnOrHigherCount(long msgTotalWarnOrHigherCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg89 msgTotalWarnOrHigherCount(long msgTotalWarnOrHigherCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg81 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg87 {
 
         /**
          * Indicates a likely fatal error, meaning cache may well become unusable
          * after this happens.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg82 msgFatalCount(long msgFatalCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg88 msgFatalCount(long msgFatalCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg80 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg86 {
 
         /**
          * Indicates an error which is likely to be caused by the
@@ -271,10 +368,10 @@ public class WBRBStatusBuilder {
          * <p>
          * Data loss is likely although this should not be fatal.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg81 msgErrorCount(long msgErrorCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg87 msgErrorCount(long msgErrorCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg79 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg85 {
 
         /**
          * Indicates an error probably caused by external factors, such
@@ -283,10 +380,10 @@ public class WBRBStatusBuilder {
          * This is used when data loss is highly likely, e.g. when cache implementation
          * gives up on writing piece of data to the underlying storage.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg80 msgExternalDataLossCount(long msgExternalDataLossCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg86 msgExternalDataLossCount(long msgExternalDataLossCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg78 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg84 {
 
         /**
          * Indicates an error probably caused by external factors, such
@@ -294,20 +391,20 @@ public class WBRBStatusBuilder {
          * <p>
          * These messages usually indicate that there was no data loss (yet).
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg79 msgExternalErrorCount(long msgExternalErrorCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg85 msgExternalErrorCount(long msgExternalErrorCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg77 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg83 {
 
         /**
          * Indicates an externally-caused warning.
          * <p>
          * These messages usually indicate that there was no data loss (yet).
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg78 msgExternalWarnCount(long msgExternalWarnCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg84 msgExternalWarnCount(long msgExternalWarnCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg76 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg82 {
 
         /**
          * Indicates problem that is probably caused by internal somewhat-known
@@ -316,139 +413,155 @@ public class WBRBStatusBuilder {
          * <p>
          * These usually should not result in data loss.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg77 msgWarnCount(long msgWarnCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg83 msgWarnCount(long msgWarnCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg75 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg81 {
+
+        /**
+         * Latency of waiting for (outermost) cache entry write lock acquisition
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg82 latencyWriteLockWait(WBRBLatencyStatus latencyWriteLockWait);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg80 {
 
         /**
          * How many times did we encounter {@link WBRBCacheMessage#TOO_MANY_CACHE_ELEMENT_UPDATES}
          * issue (which potentially leads to data loss).
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg76 cacheWriteTooManyUpdates(long cacheWriteTooManyUpdates);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg81 cacheWriteTooManyUpdates(long cacheWriteTooManyUpdates);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg74 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg79 {
 
         /**
          * How many errors during cache write occurred.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg75 cacheWriteErrors(long cacheWriteErrors);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg80 cacheWriteErrors(long cacheWriteErrors);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg73 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg78 {
 
         /**
          * How many cache writes failed because relevant cache element was not present.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg74 cacheWriteElementNotPresentCount(long cacheWriteElementNotPresentCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg79 cacheWriteElementNotPresentCount(long cacheWriteElementNotPresentCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg72 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg77 {
 
         /**
          * How many cache write attempts were made.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg73 cacheWriteAttempts(long cacheWriteAttempts);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg78 cacheWriteAttempts(long cacheWriteAttempts);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg71 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg76 {
+
+        /**
+         * Latency of waiting cache reads (readFor(..) & co.), including time spent waiting for the element to be loaded
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg77 latencyReadFor(WBRBLatencyStatus latencyReadFor);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg75 {
 
         /**
          * How many errors during cache read occurred.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg72 cacheReadErrors(long cacheReadErrors);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg76 cacheReadErrors(long cacheReadErrors);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg70 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg74 {
 
         /**
          * How many times cache reads were interrupted (externally).
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg71 cacheReadInterrupts(long cacheReadInterrupts);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg75 cacheReadInterrupts(long cacheReadInterrupts);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg69 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg73 {
 
         /**
          * How many cache reads timed out (haven't got result in allowed time).
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg70 cacheReadTimeouts(long cacheReadTimeouts);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg74 cacheReadTimeouts(long cacheReadTimeouts);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg68 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg72 {
 
         /**
          * How many cache read attempts were made.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg69 cacheReadAttempts(long cacheReadAttempts);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg73 cacheReadAttempts(long cacheReadAttempts);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg67 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg71 {
 
         /**
          * How many check-cache (via read or preload) attempts hit the 'null key' error.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg68 checkCacheNullKeyCount(long checkCacheNullKeyCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg72 checkCacheNullKeyCount(long checkCacheNullKeyCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg66 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg70 {
 
         /**
          * How many check-cache (via read or preload) attempts hit the 'cache full' state.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg67 checkCacheTotalCacheFullExceptionCount(long checkCacheTotalCacheFullExceptionCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg71 checkCacheTotalCacheFullExceptionCount(long checkCacheTotalCacheFullExceptionCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg65 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg69 {
 
         /**
          * How many check-cache (via read) attempts hit the 'cache full' state.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg66 checkCacheReadCacheFullExceptionCount(long checkCacheReadCacheFullExceptionCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg70 checkCacheReadCacheFullExceptionCount(long checkCacheReadCacheFullExceptionCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg64 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg68 {
 
         /**
          * How many check-cache (via read) attempts hit the cache.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg65 checkCacheReadCacheHit(long checkCacheReadCacheHit);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg69 checkCacheReadCacheHit(long checkCacheReadCacheHit);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg63 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg67 {
 
         /**
          * How many check-cache (via read) attempts were made.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg64 checkCacheReadAttempts(long checkCacheReadAttempts);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg68 checkCacheReadAttempts(long checkCacheReadAttempts);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg62 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg66 {
 
         /**
          * How many check-cache (via preload) attempts hit the 'cache full' state.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg63 checkCachePreloadCacheFullExceptionCount(long checkCachePreloadCacheFullExceptionCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg67 checkCachePreloadCacheFullExceptionCount(long checkCachePreloadCacheFullExceptionCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg61 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg65 {
 
         /**
          * How many check-cache (via preload) attempts hit the cache.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg62 checkCachePreloadCacheHit(long checkCachePreloadCacheHit);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg66 checkCachePreloadCacheHit(long checkCachePreloadCacheHit);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg60 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg64 {
 
         /**
          * How many check-cache (via preload) attempts were made.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg61 checkCachePreloadAttempts(long checkCachePreloadAttempts);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg65 checkCachePreloadAttempts(long checkCachePreloadAttempts);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg59 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg63 {
 
         /**
          * How many check-cache attempts were made -- these are not separated
@@ -457,20 +570,20 @@ public class WBRBStatusBuilder {
          * <p>
          * This is basically for debugging/testing purposes.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg60 checkCacheAttemptsNoDedup(long checkCacheAttemptsNoDedup);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg64 checkCacheAttemptsNoDedup(long checkCacheAttemptsNoDedup);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg58 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg62 {
 
         /**
          * In return queue processing there's decision as to whether to keep an
          * element in the cache; this monitors cases when item is ineligible to
          * be retained due to main queue size already being at the limit.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg59 returnQueueItemNotRetainedDueToMainQueueSizeCount(long returnQueueItemNotRetainedDueToMainQueueSizeCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg63 returnQueueItemNotRetainedDueToMainQueueSizeCount(long returnQueueItemNotRetainedDueToMainQueueSizeCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg57 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg61 {
 
         /**
          * In return queue processing we calculate time since last access in
@@ -479,162 +592,196 @@ public class WBRBStatusBuilder {
          * normally happen, but could possibly happen if time is adjusted or
          * some such).
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg58 returnQueueNegativeTimeSinceLastAccessErrorCount(long returnQueueNegativeTimeSinceLastAccessErrorCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg62 returnQueueNegativeTimeSinceLastAccessErrorCount(long returnQueueNegativeTimeSinceLastAccessErrorCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg56 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg60 {
 
         /**
          * How many items were requeued back to the return queue
          * as the result of the return queue processing.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg57 returnQueueRequeueToReturnQueueCount(long returnQueueRequeueToReturnQueueCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg61 returnQueueRequeueToReturnQueueCount(long returnQueueRequeueToReturnQueueCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg55 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg59 {
 
         /**
          * How many items were removed from cache (removal is generally an 'error',
          * non-error is 'expire') as the result of the return queue processing.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg56 returnQueueRemovedFromCacheCount(long returnQueueRemovedFromCacheCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg60 returnQueueRemovedFromCacheCount(long returnQueueRemovedFromCacheCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg54 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg58 {
 
         /**
          * How many items were expired from cache as the result of the return queue processing.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg55 returnQueueExpiredFromCacheCount(long returnQueueExpiredFromCacheCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg59 returnQueueExpiredFromCacheCount(long returnQueueExpiredFromCacheCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg53 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg57 {
 
         /**
          * How many items were processed as 'do nothing' as the result of the return queue processing.
          * <p>
          * This is usually not a normal behavior.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg54 returnQueueDoNothingCount(long returnQueueDoNothingCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg58 returnQueueDoNothingCount(long returnQueueDoNothingCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg52 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg56 {
 
         /**
          * How many resyncs were scheduled while processing return queue.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg53 returnQueueScheduledResyncs(long returnQueueScheduledResyncs);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg57 returnQueueScheduledResyncs(long returnQueueScheduledResyncs);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg51 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg55 {
 
         /**
          * For the last processed item in the return queue -- how long it actually
          * was in the queue (in virtual ms).
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg52 returnQueueLastItemInQueueDurationMs(long returnQueueLastItemInQueueDurationMs);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg56 returnQueueLastItemInQueueDurationMs(long returnQueueLastItemInQueueDurationMs);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg50 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg54 {
 
         /**
          * How many items were processed out of return queue.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg51 returnQueueProcessedItems(long returnQueueProcessedItems);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg55 returnQueueProcessedItems(long returnQueueProcessedItems);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg49 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg53 {
+
+        /**
+         * Latency of time spent by items in the main queue (millisecond precision)
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg54 latencyMainQueueTime(WBRBLatencyStatus latencyMainQueueTime);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg52 {
 
         /**
          * How many items weren't marked as 'all ok' as the result of main queue processing.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg50 mainQueueNotAllOkCount(long mainQueueNotAllOkCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg53 mainQueueNotAllOkCount(long mainQueueNotAllOkCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg48 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg51 {
 
         /**
          * How many items were requeued back to the main processing queue
          * as the result of main queue processing.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg49 mainQueueRequeueToMainQueueCount(long mainQueueRequeueToMainQueueCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg52 mainQueueRequeueToMainQueueCount(long mainQueueRequeueToMainQueueCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg47 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg50 {
 
         /**
          * How many items were removed from cache as the result of main queue processing.
          * <p>
          * 'removed' action indicates abnormal processing, an error is logged
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg48 mainQueueRemovedFromCacheCount(long mainQueueRemovedFromCacheCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg51 mainQueueRemovedFromCacheCount(long mainQueueRemovedFromCacheCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg46 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg49 {
 
         /**
          * How many items were expired from cache as the result of main queue processing.
          * <p>
          * 'expired' action indicates normal processing, no error is logged
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg47 mainQueueExpiredFromCacheCount(long mainQueueExpiredFromCacheCount);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg50 mainQueueExpiredFromCacheCount(long mainQueueExpiredFromCacheCount);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg45 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg48 {
 
         /**
          * How many writes were sent while processing main processing queue.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg46 mainQueueSentWrites(long mainQueueSentWrites);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg49 mainQueueSentWrites(long mainQueueSentWrites);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg44 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg47 {
 
         /**
          * For the last processed item in the main queue -- how long it actually
          * was in the queue (in virtual ms).
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg45 mainQueueLastItemInQueueDurationMs(long mainQueueLastItemInQueueDurationMs);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg48 mainQueueLastItemInQueueDurationMs(long mainQueueLastItemInQueueDurationMs);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg43 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg46 {
 
         /**
          * How many items were processed out of main processing queue.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg44 mainQueueProcessedItems(long mainQueueProcessedItems);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg47 mainQueueProcessedItems(long mainQueueProcessedItems);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg42 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg45 {
+
+        /**
+         * Latency of storage write calls (per single write or per write batch)
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg46 latencyStorageWrite(WBRBLatencyStatus latencyStorageWrite);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg44 {
 
         /**
          * How many writes failed (via {@link WriteBehindResyncInBackgroundCache#apiStorageWriteFail(Throwable, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBWriteQueueEntry)}
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg43 storageWriteFailures(long storageWriteFailures);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg45 storageWriteFailures(long storageWriteFailures);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg41 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg43 {
 
         /**
          * How many writes succeeded (via {@link WriteBehindResyncInBackgroundCache#apiStorageWriteSuccess(io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBWriteQueueEntry)}
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg42 storageWriteSuccesses(long storageWriteSuccesses);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg44 storageWriteSuccesses(long storageWriteSuccesses);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg40 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg42 {
 
         /**
          * How many write attempts were made.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg41 storageWriteAttempts(long storageWriteAttempts);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg43 storageWriteAttempts(long storageWriteAttempts);
     }
 
-    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg39 {
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg41 {
 
         /**
          * How many items were processed out of write queue.
          */
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg40 storageWriteQueueProcessedItems(long storageWriteQueueProcessedItems);
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg42 storageWriteQueueProcessedItems(long storageWriteQueueProcessedItems);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg40 {
+
+        /**
+         * Latency of storage read calls (per single read or per read batch)
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg41 latencyStorageRead(WBRBLatencyStatus latencyStorageRead);
+    }
+
+    public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg39 {
+
+        /**
+         * When latency histograms (latency* fields) were last reset (or cache was started; 0 if not started) --
+         * reported latencies cover period from this timestamp until {@link #getStatusCreatedAt()};
+         * see WBRBConfig.latencyHistograms and WBRBConfig.latencyHistogramsResetInterval
+         */
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg40 latencyHistogramsSince(long latencyHistogramsSince);
     }
 
     public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg38 {
@@ -810,7 +957,7 @@ public class WBRBStatusBuilder {
     public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg17 {
 
         /**
-         * Return queue size.
+         * Return queue size (total for all queue shards).
          */
         public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg18 returnQueueSize(long returnQueueSize);
     }
@@ -818,7 +965,7 @@ public class WBRBStatusBuilder {
     public interface ZBSI_WBRBStatusBuilder_statusCreatedAt_arg16 {
 
         /**
-         * Main processing queue size.
+         * Main processing queue size (total for all queue shards).
          */
         public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg17 mainQueueSize(long mainQueueSize);
     }
@@ -946,7 +1093,40 @@ public class WBRBStatusBuilder {
         public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg2 statusCreatedAt(long statusCreatedAt);
     }
 
-    private static final class ZBSI_WBRBStatusBuilder_statusCreatedAt_builderClass implements ZBSI_WBRBStatusBuilder_statusCreatedAt_builder, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg103, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg102, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg101, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg100, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg99, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg98, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg97, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg96, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg95, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg94, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg93, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg92, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg91, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg90, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg89, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg88, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg87, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg86, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg85, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg84, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg83, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg82, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg81, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg80, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg79, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg78, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg77, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg76, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg75, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg74, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg73, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg72, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg71, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg70, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg69, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg68, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg67, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg66, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg65, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg64, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg63, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg62, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg61, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg60, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg59, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg58, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg57, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg56, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg55, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg54, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg53, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg52, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg51, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg50, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg49, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg48, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg47, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg46, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg45, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg44, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg43, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg42, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg41, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg40, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg39, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg38, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg37, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg36, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg35, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg34, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg33, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg32, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg31, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg30, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg29, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg28, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg27, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg26, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg25, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg24, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg23, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg22, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg21, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg20, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg19, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg18, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg17, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg16, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg15, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg14, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg13, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg12, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg11, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg10, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg9, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg8, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg7, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg6, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg5, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg4, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg3, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg2, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg1 {
+    private static final class ZBSI_WBRBStatusBuilder_statusCreatedAt_builderClass implements ZBSI_WBRBStatusBuilder_statusCreatedAt_builder, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg120, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg119, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg118, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg117, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg116, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg115, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg114, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg113, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg112, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg111, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg110, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg109, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg108, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg107, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg106, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg105, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg104, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg103, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg102, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg101, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg100, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg99, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg98, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg97, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg96, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg95, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg94, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg93, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg92, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg91, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg90, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg89, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg88, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg87, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg86, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg85, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg84, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg83, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg82, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg81, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg80, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg79, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg78, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg77, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg76, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg75, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg74, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg73, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg72, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg71, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg70, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg69, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg68, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg67, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg66, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg65, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg64, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg63, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg62, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg61, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg60, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg59, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg58, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg57, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg56, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg55, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg54, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg53, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg52, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg51, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg50, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg49, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg48, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg47, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg46, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg45, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg44, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg43, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg42, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg41, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg40, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg39, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg38, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg37, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg36, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg35, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg34, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg33, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg32, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg31, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg30, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg29, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg28, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg27, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg26, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg25, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg24, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg23, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg22, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg21, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg20, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg19, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg18, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg17, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg16, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg15, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg14, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg13, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg12, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg11, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg10, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg9, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg8, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg7, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg6, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg5, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg4, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg3, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg2, ZBSI_WBRBStatusBuilder_statusCreatedAt_arg1 {
+
+        @SuppressWarnings("all")
+        private long storageWriteOptimisticConflicts;
+
+        @SuppressWarnings("all")
+        private long storageWriteOptimisticSuccesses;
+
+        @SuppressWarnings("all")
+        private long cacheWriteCombinedUpdates;
+
+        @SuppressWarnings("all")
+        private long storageReadRefreshDropped;
+
+        @SuppressWarnings("all")
+        private long readRefreshQueueSize;
+
+        @SuppressWarnings("all")
+        private long storageReadInitialAbsent;
+
+        @SuppressWarnings("all")
+        private long currentMainQueueCacheTimeMs;
+
+        @SuppressWarnings("all")
+        private long mainQueueCoalescedWrites;
+
+        @SuppressWarnings("all")
+        private long currentCacheWeight;
+
+        @SuppressWarnings("all")
+        private long configMainQueueMaxTargetWeight;
+
+        @SuppressWarnings("all")
+        private long configMaxCacheWeightHardLimit;
 
         @SuppressWarnings("all")
         private long timeSinceAccessThresholdAboveAllThresholds;
@@ -1036,6 +1216,9 @@ public class WBRBStatusBuilder {
         @SuppressWarnings("all")
         private long msgWarnCount;
 
+        @SuppressWarnings("all")
+        private WBRBLatencyStatus latencyWriteLockWait;
+
         @SuppressWarnings("all")
         private long cacheWriteTooManyUpdates;
 
@@ -1048,6 +1231,9 @@ public class WBRBStatusBuilder {
         @SuppressWarnings("all")
         private long cacheWriteAttempts;
 
+        @SuppressWarnings("all")
+        private WBRBLatencyStatus latencyReadFor;
+
         @SuppressWarnings("all")
         private long cacheReadErrors;
 
@@ -1114,6 +1300,9 @@ public class WBRBStatusBuilder {
         @SuppressWarnings("all")
         private long returnQueueProcessedItems;
 
+        @SuppressWarnings("all")
+        private WBRBLatencyStatus latencyMainQueueTime;
+
         @SuppressWarnings("all")
         private long mainQueueNotAllOkCount;
 
@@ -1135,6 +1324,9 @@ public class WBRBStatusBuilder {
         @SuppressWarnings("all")
         private long mainQueueProcessedItems;
 
+        @SuppressWarnings("all")
+        private WBRBLatencyStatus latencyStorageWrite;
+
         @SuppressWarnings("all")
         private long storageWriteFailures;
 
@@ -1147,6 +1339,12 @@ public class WBRBStatusBuilder {
         @SuppressWarnings("all")
         private long storageWriteQueueProcessedItems;
 
+        @SuppressWarnings("all")
+        private WBRBLatencyStatus latencyStorageRead;
+
+        @SuppressWarnings("all")
+        private long latencyHistogramsSince;
+
         @SuppressWarnings("all")
         private long storageReadInitialFailures;
 
@@ -1261,13 +1459,132 @@ public class WBRBStatusBuilder {
         @SuppressWarnings("all")
         private long statusCreatedAt;
 
+        /**
+         * How many optimistic (conditional) writes reported a conflict (and had
+         * to fall back to read-before-write), see {@link WBRBConfig#isReadBeforeWriteOptimistic()}
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_builder storageWriteOptimisticConflicts(long storageWriteOptimisticConflicts) {
+            this.storageWriteOptimisticConflicts = storageWriteOptimisticConflicts;
+            return this;
+        }
+
+        /**
+         * How many optimistic (conditional) writes succeeded, see {@link WBRBConfig#isReadBeforeWriteOptimistic()}
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg120 storageWriteOptimisticSuccesses(long storageWriteOptimisticSuccesses) {
+            this.storageWriteOptimisticSuccesses = storageWriteOptimisticSuccesses;
+            return this;
+        }
+
+        /**
+         * How many updates were folded into previously collected update (instead of being added to
+         * collected updates list), see WriteBehindResyncInBackgroundCache.combineUpdates(..)
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg119 cacheWriteCombinedUpdates(long cacheWriteCombinedUpdates) {
+            this.cacheWriteCombinedUpdates = cacheWriteCombinedUpdates;
+            return this;
+        }
+
+        /**
+         * How many refresh (resync) reads were dropped (data kept as-is) because refresh lane of the read queue was
+         * saturated, see WBRBConfig.readQueueRefreshLaneMaxSize
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg118 storageReadRefreshDropped(long storageReadRefreshDropped) {
+            this.storageReadRefreshDropped = storageReadRefreshDropped;
+            return this;
+        }
+
+        /**
+         * Current number of refresh (resync) reads waiting in the refresh lane of the read queue
+         * (these are NOT included in readQueueSize); always 0 unless WBRBConfig.readQueuePriorityLanes is enabled
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg117 readRefreshQueueSize(long readRefreshQueueSize) {
+            this.readRefreshQueueSize = readRefreshQueueSize;
+            return this;
+        }
+
+        /**
+         * How many reads (initial) succeeded but found no data in the storage (these are
+         * also included in storageReadInitialSuccesses), see WBRBConfig.negativeCaching
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg116 storageReadInitialAbsent(long storageReadInitialAbsent) {
+            this.storageReadInitialAbsent = storageReadInitialAbsent;
+            return this;
+        }
+
+        /**
+         * Main queue cache time currently in effect -- this is the same as configMainQueueCacheTimeMs
+         * unless adaptive cache time is enabled (see WBRBConfig.adaptiveMainQueueCacheTime)
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg115 currentMainQueueCacheTimeMs(long currentMainQueueCacheTimeMs) {
+            this.currentMainQueueCacheTimeMs = currentMainQueueCacheTimeMs;
+            return this;
+        }
+
+        /**
+         * How many writes were merged into already-queued writes (instead of being
+         * sent separately) while processing main processing queue, see
+         * {@link WBRBConfig#isCoalesceQueuedWrites()}
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg114 mainQueueCoalescedWrites(long mainQueueCoalescedWrites) {
+            this.mainQueueCoalescedWrites = mainQueueCoalescedWrites;
+            return this;
+        }
+
+        /**
+         * Current total weight of the cache entries (always zero if weighing is not
+         * enabled), see {@link WBRBConfig#getMaxCacheWeightHardLimit()}
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg113 currentCacheWeight(long currentCacheWeight) {
+            this.currentCacheWeight = currentCacheWeight;
+            return this;
+        }
+
+        /**
+         * {@link WBRBConfig#getMainQueueMaxTargetWeight()}
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg112 configMainQueueMaxTargetWeight(long configMainQueueMaxTargetWeight) {
+            this.configMainQueueMaxTargetWeight = configMainQueueMaxTargetWeight;
+            return this;
+        }
+
+        /**
+         * {@link WBRBConfig#getMaxCacheWeightHardLimit()}
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg111 configMaxCacheWeightHardLimit(long configMaxCacheWeightHardLimit) {
+            this.configMaxCacheWeightHardLimit = configMaxCacheWeightHardLimit;
+            return this;
+        }
+
         /**
          * How many items were above all thresholds for
          * {@link WBRBConfig#getMonitoringTimeSinceAccessThresholds()}
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_builder timeSinceAccessThresholdAboveAllThresholds(long timeSinceAccessThresholdAboveAllThresholds) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg110 timeSinceAccessThresholdAboveAllThresholds(long timeSinceAccessThresholdAboveAllThresholds) {
             this.timeSinceAccessThresholdAboveAllThresholds = timeSinceAccessThresholdAboveAllThresholds;
             return this;
         }
@@ -1278,7 +1595,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg103 timeSinceAccessThreshold5(long timeSinceAccessThreshold5) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg109 timeSinceAccessThreshold5(long timeSinceAccessThreshold5) {
             this.timeSinceAccessThreshold5 = timeSinceAccessThreshold5;
             return this;
         }
@@ -1289,7 +1606,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg102 timeSinceAccessThreshold4(long timeSinceAccessThreshold4) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg108 timeSinceAccessThreshold4(long timeSinceAccessThreshold4) {
             this.timeSinceAccessThreshold4 = timeSinceAccessThreshold4;
             return this;
         }
@@ -1300,7 +1617,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg101 timeSinceAccessThreshold3(long timeSinceAccessThreshold3) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg107 timeSinceAccessThreshold3(long timeSinceAccessThreshold3) {
             this.timeSinceAccessThreshold3 = timeSinceAccessThreshold3;
             return this;
         }
@@ -1311,7 +1628,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg100 timeSinceAccessThreshold2(long timeSinceAccessThreshold2) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg106 timeSinceAccessThreshold2(long timeSinceAccessThreshold2) {
             this.timeSinceAccessThreshold2 = timeSinceAccessThreshold2;
             return this;
         }
@@ -1322,7 +1639,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg99 timeSinceAccessThreshold1(long timeSinceAccessThreshold1) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg105 timeSinceAccessThreshold1(long timeSinceAccessThreshold1) {
             this.timeSinceAccessThreshold1 = timeSinceAccessThreshold1;
             return this;
         }
@@ -1333,7 +1650,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg98 fullCycleCountAboveAllThresholds(long fullCycleCountAboveAllThresholds) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg104 fullCycleCountAboveAllThresholds(long fullCycleCountAboveAllThresholds) {
             this.fullCycleCountAboveAllThresholds = fullCycleCountAboveAllThresholds;
             return this;
         }
@@ -1344,7 +1661,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg97 fullCycleCountThreshold5(long fullCycleCountThreshold5) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg103 fullCycleCountThreshold5(long fullCycleCountThreshold5) {
             this.fullCycleCountThreshold5 = fullCycleCountThreshold5;
             return this;
         }
@@ -1355,7 +1672,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg96 fullCycleCountThreshold4(long fullCycleCountThreshold4) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg102 fullCycleCountThreshold4(long fullCycleCountThreshold4) {
             this.fullCycleCountThreshold4 = fullCycleCountThreshold4;
             return this;
         }
@@ -1366,7 +1683,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg95 fullCycleCountThreshold3(long fullCycleCountThreshold3) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg101 fullCycleCountThreshold3(long fullCycleCountThreshold3) {
             this.fullCycleCountThreshold3 = fullCycleCountThreshold3;
             return this;
         }
@@ -1377,7 +1694,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg94 fullCycleCountThreshold2(long fullCycleCountThreshold2) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg100 fullCycleCountThreshold2(long fullCycleCountThreshold2) {
             this.fullCycleCountThreshold2 = fullCycleCountThreshold2;
             return this;
         }
@@ -1388,7 +1705,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg93 fullCycleCountThreshold1(long fullCycleCountThreshold1) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg99 fullCycleCountThreshold1(long fullCycleCountThreshold1) {
             this.fullCycleCountThreshold1 = fullCycleCountThreshold1;
             return this;
         }
@@ -1400,7 +1717,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg92 lastFatalLoggedMsgText(@Nullable String lastFatalLoggedMsgText) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg98 lastFatalLoggedMsgText(@Nullable String lastFatalLoggedMsgText) {
             this.lastFatalLoggedMsgText = lastFatalLoggedMsgText;
             return this;
         }
@@ -1411,7 +1728,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg91 lastFatalMsgTimestamp(long lastFatalMsgTimestamp) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg97 lastFatalMsgTimestamp(long lastFatalMsgTimestamp) {
             this.lastFatalMsgTimestamp = lastFatalMsgTimestamp;
             return this;
         }
@@ -1423,7 +1740,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg90 lastErrorLoggedMsgText(@Nullable String lastErrorLoggedMsgText) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg96 lastErrorLoggedMsgText(@Nullable String lastErrorLoggedMsgText) {
             this.lastErrorLoggedMsgText = lastErrorLoggedMsgText;
             return this;
         }
@@ -1434,7 +1751,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg89 lastErrorMsgTimestamp(long lastErrorMsgTimestamp) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg95 lastErrorMsgTimestamp(long lastErrorMsgTimestamp) {
             this.lastErrorMsgTimestamp = lastErrorMsgTimestamp;
             return this;
         }
@@ -1446,7 +1763,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg88 lastWarnLoggedMsgText(@Nullable String lastWarnLoggedMsgText) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg94 lastWarnLoggedMsgText(@Nullable String lastWarnLoggedMsgText) {
             this.lastWarnLoggedMsgText = lastWarnLoggedMsgText;
             return this;
         }
@@ -1457,7 +1774,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg87 lastWarnMsgTimestamp(long lastWarnMsgTimestamp) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg93 lastWarnMsgTimestamp(long lastWarnMsgTimestamp) {
             this.lastWarnMsgTimestamp = lastWarnMsgTimestamp;
             return this;
         }
@@ -1475,7 +1792,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg86 lastLoggedTextMsgPerSeverityOrdinal(@Nullable String[] lastLoggedTextMsgPerSeverityOrdinal) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg92 lastLoggedTextMsgPerSeverityOrdinal(@Nullable String[] lastLoggedTextMsgPerSeverityOrdinal) {
             this.lastLoggedTextMsgPerSeverityOrdinal = lastLoggedTextMsgPerSeverityOrdinal;
             return this;
         }
@@ -1493,7 +1810,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg85 lastTimestampMsgPerSeverityOrdinal(long[] lastTimestampMsgPerSeverityOrdinal) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg91 lastTimestampMsgPerSeverityOrdinal(long[] lastTimestampMsgPerSeverityOrdinal) {
             this.lastTimestampMsgPerSeverityOrdinal = lastTimestampMsgPerSeverityOrdinal;
             return this;
         }
@@ -1503,7 +1820,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg84 msgTotalErrorOrHigherCount(long msgTotalErrorOrHigherCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg90 msgTotalErrorOrHigherCount(long msgTotalErrorOrHigherCount) {
             this.msgTotalErrorOrHigherCount = msgTotalErrorOrHigherCount;
             return this;
         }
@@ -1513,7 +1830,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg83 msgTotalWarnOrHigherCount(long msgTotalWarnOrHigherCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg89 msgTotalWarnOrHigherCount(long msgTotalWarnOrHigherCount) {
             this.msgTotalWarnOrHigherCount = msgTotalWarnOrHigherCount;
             return this;
         }
@@ -1524,7 +1841,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg82 msgFatalCount(long msgFatalCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg88 msgFatalCount(long msgFatalCount) {
             this.msgFatalCount = msgFatalCount;
             return this;
         }
@@ -1537,7 +1854,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg81 msgErrorCount(long msgErrorCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg87 msgErrorCount(long msgErrorCount) {
             this.msgErrorCount = msgErrorCount;
             return this;
         }
@@ -1551,7 +1868,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg80 msgExternalDataLossCount(long msgExternalDataLossCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg86 msgExternalDataLossCount(long msgExternalDataLossCount) {
             this.msgExternalDataLossCount = msgExternalDataLossCount;
             return this;
         }
@@ -1564,7 +1881,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg79 msgExternalErrorCount(long msgExternalErrorCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg85 msgExternalErrorCount(long msgExternalErrorCount) {
             this.msgExternalErrorCount = msgExternalErrorCount;
             return this;
         }
@@ -1576,7 +1893,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg78 msgExternalWarnCount(long msgExternalWarnCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg84 msgExternalWarnCount(long msgExternalWarnCount) {
             this.msgExternalWarnCount = msgExternalWarnCount;
             return this;
         }
@@ -1590,18 +1907,28 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg77 msgWarnCount(long msgWarnCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg83 msgWarnCount(long msgWarnCount) {
             this.msgWarnCount = msgWarnCount;
             return this;
         }
 
+        /**
+         * Latency of waiting for (outermost) cache entry write lock acquisition
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg82 latencyWriteLockWait(WBRBLatencyStatus latencyWriteLockWait) {
+            this.latencyWriteLockWait = latencyWriteLockWait;
+            return this;
+        }
+
         /**
          * How many times did we encounter {@link WBRBCacheMessage#TOO_MANY_CACHE_ELEMENT_UPDATES}
          * issue (which potentially leads to data loss).
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg76 cacheWriteTooManyUpdates(long cacheWriteTooManyUpdates) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg81 cacheWriteTooManyUpdates(long cacheWriteTooManyUpdates) {
             this.cacheWriteTooManyUpdates = cacheWriteTooManyUpdates;
             return this;
         }
@@ -1611,7 +1938,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg75 cacheWriteErrors(long cacheWriteErrors) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg80 cacheWriteErrors(long cacheWriteErrors) {
             this.cacheWriteErrors = cacheWriteErrors;
             return this;
         }
@@ -1621,7 +1948,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg74 cacheWriteElementNotPresentCount(long cacheWriteElementNotPresentCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg79 cacheWriteElementNotPresentCount(long cacheWriteElementNotPresentCount) {
             this.cacheWriteElementNotPresentCount = cacheWriteElementNotPresentCount;
             return this;
         }
@@ -1631,17 +1958,27 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg73 cacheWriteAttempts(long cacheWriteAttempts) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg78 cacheWriteAttempts(long cacheWriteAttempts) {
             this.cacheWriteAttempts = cacheWriteAttempts;
             return this;
         }
 
+        /**
+         * Latency of waiting cache reads (readFor(..) & co.), including time spent waiting for the element to be loaded
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg77 latencyReadFor(WBRBLatencyStatus latencyReadFor) {
+            this.latencyReadFor = latencyReadFor;
+            return this;
+        }
+
         /**
          * How many errors during cache read occurred.
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg72 cacheReadErrors(long cacheReadErrors) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg76 cacheReadErrors(long cacheReadErrors) {
             this.cacheReadErrors = cacheReadErrors;
             return this;
         }
@@ -1651,7 +1988,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg71 cacheReadInterrupts(long cacheReadInterrupts) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg75 cacheReadInterrupts(long cacheReadInterrupts) {
             this.cacheReadInterrupts = cacheReadInterrupts;
             return this;
         }
@@ -1661,7 +1998,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg70 cacheReadTimeouts(long cacheReadTimeouts) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg74 cacheReadTimeouts(long cacheReadTimeouts) {
             this.cacheReadTimeouts = cacheReadTimeouts;
             return this;
         }
@@ -1671,7 +2008,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg69 cacheReadAttempts(long cacheReadAttempts) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg73 cacheReadAttempts(long cacheReadAttempts) {
             this.cacheReadAttempts = cacheReadAttempts;
             return this;
         }
@@ -1681,7 +2018,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg68 checkCacheNullKeyCount(long checkCacheNullKeyCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg72 checkCacheNullKeyCount(long checkCacheNullKeyCount) {
             this.checkCacheNullKeyCount = checkCacheNullKeyCount;
             return this;
         }
@@ -1691,7 +2028,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg67 checkCacheTotalCacheFullExceptionCount(long checkCacheTotalCacheFullExceptionCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg71 checkCacheTotalCacheFullExceptionCount(long checkCacheTotalCacheFullExceptionCount) {
             this.checkCacheTotalCacheFullExceptionCount = checkCacheTotalCacheFullExceptionCount;
             return this;
         }
@@ -1701,7 +2038,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg66 checkCacheReadCacheFullExceptionCount(long checkCacheReadCacheFullExceptionCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg70 checkCacheReadCacheFullExceptionCount(long checkCacheReadCacheFullExceptionCount) {
             this.checkCacheReadCacheFullExceptionCount = checkCacheReadCacheFullExceptionCount;
             return this;
         }
@@ -1711,7 +2048,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg65 checkCacheReadCacheHit(long checkCacheReadCacheHit) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg69 checkCacheReadCacheHit(long checkCacheReadCacheHit) {
             this.checkCacheReadCacheHit = checkCacheReadCacheHit;
             return this;
         }
@@ -1721,7 +2058,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg64 checkCacheReadAttempts(long checkCacheReadAttempts) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg68 checkCacheReadAttempts(long checkCacheReadAttempts) {
             this.checkCacheReadAttempts = checkCacheReadAttempts;
             return this;
         }
@@ -1731,7 +2068,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg63 checkCachePreloadCacheFullExceptionCount(long checkCachePreloadCacheFullExceptionCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg67 checkCachePreloadCacheFullExceptionCount(long checkCachePreloadCacheFullExceptionCount) {
             this.checkCachePreloadCacheFullExceptionCount = checkCachePreloadCacheFullExceptionCount;
             return this;
         }
@@ -1741,7 +2078,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg62 checkCachePreloadCacheHit(long checkCachePreloadCacheHit) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg66 checkCachePreloadCacheHit(long checkCachePreloadCacheHit) {
             this.checkCachePreloadCacheHit = checkCachePreloadCacheHit;
             return this;
         }
@@ -1751,7 +2088,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg61 checkCachePreloadAttempts(long checkCachePreloadAttempts) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg65 checkCachePreloadAttempts(long checkCachePreloadAttempts) {
             this.checkCachePreloadAttempts = checkCachePreloadAttempts;
             return this;
         }
@@ -1765,7 +2102,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg60 checkCacheAttemptsNoDedup(long checkCacheAttemptsNoDedup) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg64 checkCacheAttemptsNoDedup(long checkCacheAttemptsNoDedup) {
             this.checkCacheAttemptsNoDedup = checkCacheAttemptsNoDedup;
             return this;
         }
@@ -1777,7 +2114,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg59 returnQueueItemNotRetainedDueToMainQueueSizeCount(long returnQueueItemNotRetainedDueToMainQueueSizeCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg63 returnQueueItemNotRetainedDueToMainQueueSizeCount(long returnQueueItemNotRetainedDueToMainQueueSizeCount) {
             this.returnQueueItemNotRetainedDueToMainQueueSizeCount = returnQueueItemNotRetainedDueToMainQueueSizeCount;
             return this;
         }
@@ -1791,7 +2128,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg58 returnQueueNegativeTimeSinceLastAccessErrorCount(long returnQueueNegativeTimeSinceLastAccessErrorCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg62 returnQueueNegativeTimeSinceLastAccessErrorCount(long returnQueueNegativeTimeSinceLastAccessErrorCount) {
             this.returnQueueNegativeTimeSinceLastAccessErrorCount = returnQueueNegativeTimeSinceLastAccessErrorCount;
             return this;
         }
@@ -1802,7 +2139,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg57 returnQueueRequeueToReturnQueueCount(long returnQueueRequeueToReturnQueueCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg61 returnQueueRequeueToReturnQueueCount(long returnQueueRequeueToReturnQueueCount) {
             this.returnQueueRequeueToReturnQueueCount = returnQueueRequeueToReturnQueueCount;
             return this;
         }
@@ -1813,7 +2150,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg56 returnQueueRemovedFromCacheCount(long returnQueueRemovedFromCacheCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg60 returnQueueRemovedFromCacheCount(long returnQueueRemovedFromCacheCount) {
             this.returnQueueRemovedFromCacheCount = returnQueueRemovedFromCacheCount;
             return this;
         }
@@ -1823,7 +2160,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg55 returnQueueExpiredFromCacheCount(long returnQueueExpiredFromCacheCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg59 returnQueueExpiredFromCacheCount(long returnQueueExpiredFromCacheCount) {
             this.returnQueueExpiredFromCacheCount = returnQueueExpiredFromCacheCount;
             return this;
         }
@@ -1835,7 +2172,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg54 returnQueueDoNothingCount(long returnQueueDoNothingCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg58 returnQueueDoNothingCount(long returnQueueDoNothingCount) {
             this.returnQueueDoNothingCount = returnQueueDoNothingCount;
             return this;
         }
@@ -1845,7 +2182,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg53 returnQueueScheduledResyncs(long returnQueueScheduledResyncs) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg57 returnQueueScheduledResyncs(long returnQueueScheduledResyncs) {
             this.returnQueueScheduledResyncs = returnQueueScheduledResyncs;
             return this;
         }
@@ -1856,7 +2193,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg52 returnQueueLastItemInQueueDurationMs(long returnQueueLastItemInQueueDurationMs) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg56 returnQueueLastItemInQueueDurationMs(long returnQueueLastItemInQueueDurationMs) {
             this.returnQueueLastItemInQueueDurationMs = returnQueueLastItemInQueueDurationMs;
             return this;
         }
@@ -1866,17 +2203,27 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg51 returnQueueProcessedItems(long returnQueueProcessedItems) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg55 returnQueueProcessedItems(long returnQueueProcessedItems) {
             this.returnQueueProcessedItems = returnQueueProcessedItems;
             return this;
         }
 
+        /**
+         * Latency of time spent by items in the main queue (millisecond precision)
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg54 latencyMainQueueTime(WBRBLatencyStatus latencyMainQueueTime) {
+            this.latencyMainQueueTime = latencyMainQueueTime;
+            return this;
+        }
+
         /**
          * How many items weren't marked as 'all ok' as the result of main queue processing.
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg50 mainQueueNotAllOkCount(long mainQueueNotAllOkCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg53 mainQueueNotAllOkCount(long mainQueueNotAllOkCount) {
             this.mainQueueNotAllOkCount = mainQueueNotAllOkCount;
             return this;
         }
@@ -1887,7 +2234,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg49 mainQueueRequeueToMainQueueCount(long mainQueueRequeueToMainQueueCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg52 mainQueueRequeueToMainQueueCount(long mainQueueRequeueToMainQueueCount) {
             this.mainQueueRequeueToMainQueueCount = mainQueueRequeueToMainQueueCount;
             return this;
         }
@@ -1899,7 +2246,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg48 mainQueueRemovedFromCacheCount(long mainQueueRemovedFromCacheCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg51 mainQueueRemovedFromCacheCount(long mainQueueRemovedFromCacheCount) {
             this.mainQueueRemovedFromCacheCount = mainQueueRemovedFromCacheCount;
             return this;
         }
@@ -1911,7 +2258,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg47 mainQueueExpiredFromCacheCount(long mainQueueExpiredFromCacheCount) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg50 mainQueueExpiredFromCacheCount(long mainQueueExpiredFromCacheCount) {
             this.mainQueueExpiredFromCacheCount = mainQueueExpiredFromCacheCount;
             return this;
         }
@@ -1921,7 +2268,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg46 mainQueueSentWrites(long mainQueueSentWrites) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg49 mainQueueSentWrites(long mainQueueSentWrites) {
             this.mainQueueSentWrites = mainQueueSentWrites;
             return this;
         }
@@ -1932,7 +2279,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg45 mainQueueLastItemInQueueDurationMs(long mainQueueLastItemInQueueDurationMs) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg48 mainQueueLastItemInQueueDurationMs(long mainQueueLastItemInQueueDurationMs) {
             this.mainQueueLastItemInQueueDurationMs = mainQueueLastItemInQueueDurationMs;
             return this;
         }
@@ -1942,17 +2289,27 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg44 mainQueueProcessedItems(long mainQueueProcessedItems) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg47 mainQueueProcessedItems(long mainQueueProcessedItems) {
             this.mainQueueProcessedItems = mainQueueProcessedItems;
             return this;
         }
 
+        /**
+         * Latency of storage write calls (per single write or per write batch)
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg46 latencyStorageWrite(WBRBLatencyStatus latencyStorageWrite) {
+            this.latencyStorageWrite = latencyStorageWrite;
+            return this;
+        }
+
         /**
          * How many writes failed (via {@link WriteBehindResyncInBackgroundCache#apiStorageWriteFail(Throwable, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBWriteQueueEntry)}
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg43 storageWriteFailures(long storageWriteFailures) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg45 storageWriteFailures(long storageWriteFailures) {
             this.storageWriteFailures = storageWriteFailures;
             return this;
         }
@@ -1962,7 +2319,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg42 storageWriteSuccesses(long storageWriteSuccesses) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg44 storageWriteSuccesses(long storageWriteSuccesses) {
             this.storageWriteSuccesses = storageWriteSuccesses;
             return this;
         }
@@ -1972,7 +2329,7 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg41 storageWriteAttempts(long storageWriteAttempts) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg43 storageWriteAttempts(long storageWriteAttempts) {
             this.storageWriteAttempts = storageWriteAttempts;
             return this;
         }
@@ -1982,11 +2339,33 @@ public class WBRBStatusBuilder {
          */
         @Override
         @SuppressWarnings("hiding")
-        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg40 storageWriteQueueProcessedItems(long storageWriteQueueProcessedItems) {
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg42 storageWriteQueueProcessedItems(long storageWriteQueueProcessedItems) {
             this.storageWriteQueueProcessedItems = storageWriteQueueProcessedItems;
             return this;
         }
 
+        /**
+         * Latency of storage read calls (per single read or per read batch)
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg41 latencyStorageRead(WBRBLatencyStatus latencyStorageRead) {
+            this.latencyStorageRead = latencyStorageRead;
+            return this;
+        }
+
+        /**
+         * When latency histograms (latency* fields) were last reset (or cache was started; 0 if not started) --
+         * reported latencies cover period from this timestamp until {@link #getStatusCreatedAt()};
+         * see WBRBConfig.latencyHistograms and WBRBConfig.latencyHistogramsResetInterval
+         */
+        @Override
+        @SuppressWarnings("hiding")
+        public ZBSI_WBRBStatusBuilder_statusCreatedAt_arg40 latencyHistogramsSince(long latencyHistogramsSince) {
+            this.latencyHistogramsSince = latencyHistogramsSince;
+            return this;
+        }
+
         /**
          * How many reads (initial) failed (via {@link WriteBehindResyncInBackgroundCache#apiStorageReadFail(Throwable, WBRBCacheEntry)}
          */
@@ -2200,7 +2579,7 @@ public class WBRBStatusBuilder {
         }
 
         /**
-         * Return queue size.
+         * Return queue size (total for all queue shards).
          */
         @Override
         @SuppressWarnings("hiding")
@@ -2210,7 +2589,7 @@ public class WBRBStatusBuilder {
         }
 
         /**
-         * Main processing queue size.
+         * Main processing queue size (total for all queue shards).
          */
         @Override
         @SuppressWarnings("hiding")
@@ -2375,7 +2754,7 @@ public class WBRBStatusBuilder {
         @Override
         @SuppressWarnings("all")
         public WBRBStatus buildWBRBStatus() {
-            return new WBRBStatus(statusCreatedAt, cacheAlive, cacheUsable, cacheControlState, cacheControlStateString, readQueueProcessingThreadAlive, writeQueueProcessingThreadAlive, mainQueueProcessingThreadAlive, returnQueueProcessingThreadAlive, readThreadPoolAlive, writeThreadPoolAlive, readThreadPoolActiveThreads, writeThreadPoolActiveThreads, everythingAlive, currentCacheSize, mainQueueSize, returnQueueSize, readQueueSize, writeQueueSize, configMainQueueCacheTimeMs, configReturnQueueCacheTimeMinMs, configMainQueueMaxTargetSize, configMaxCacheElementsHardLimit, configUntouchedItemCacheExpirationDelay, configMonitoringFullCacheCyclesThresholdMax, configMonitoringTimeSinceAccessThresholdMax, storageReadQueueProcessedItems, storageReadTotalAttempts, storageReadTotalSuccesses, storageReadTotalFailures, storageReadRefreshAttempts, storageReadRefreshSuccesses, storageReadRefreshFailures, storageReadRefreshTooLateCount, storageReadRefreshDataNotUsedCount, storageReadInitialAttempts, storageReadInitialSuccesses, storageReadInitialFailures, storageWriteQueueProcessedItems, storageWriteAttempts, storageWriteSuccesses, storageWriteFailures, mainQueueProcessedItems, mainQueueLastItemInQueueDurationMs, mainQueueSentWrites, mainQueueExpiredFromCacheCount, mainQueueRemovedFromCacheCount, mainQueueRequeueToMainQueueCount, mainQueueNotAllOkCount, returnQueueProcessedItems, returnQueueLastItemInQueueDurationMs, returnQueueScheduledResyncs, returnQueueDoNothingCount, returnQueueExpiredFromCacheCount, returnQueueRemovedFromCacheCount, returnQueueRequeueToReturnQueueCount, returnQueueNegativeTimeSinceLastAccessErrorCount, returnQueueItemNotRetainedDueToMainQueueSizeCount, checkCacheAttemptsNoDedup, checkCachePreloadAttempts, checkCachePreloadCacheHit, checkCachePreloadCacheFullExceptionCount, checkCacheReadAttempts, checkCacheReadCacheHit, checkCacheReadCacheFullExceptionCount, checkCacheTotalCacheFullExceptionCount, checkCacheNullKeyCount, cacheReadAttempts, cacheReadTimeouts, cacheReadInterrupts, cacheReadErrors, cacheWriteAttempts, cacheWriteElementNotPresentCount, cacheWriteErrors, cacheWriteTooManyUpdates, msgWarnCount, msgExternalWarnCount, msgExternalErrorCount, msgExternalDataLossCount, msgErrorCount, msgFatalCount, msgTotalWarnOrHigherCount, msgTotalErrorOrHigherCount, lastTimestampMsgPerSeverityOrdinal, lastLoggedTextMsgPerSeverityOrdinal, lastWarnMsgTimestamp, lastWarnLoggedMsgText, lastErrorMsgTimestamp, lastErrorLoggedMsgText, lastFatalMsgTimestamp, lastFatalLoggedMsgText, fullCycleCountThreshold1, fullCycleCountThreshold2, fullCycleCountThreshold3, fullCycleCountThreshold4, fullCycleCountThreshold5, fullCycleCountAboveAllThresholds, timeSinceAccessThreshold1, timeSinceAccessThreshold2, timeSinceAccessThreshold3, timeSinceAccessThreshold4, timeSinceAccessThreshold5, timeSinceAccessThresholdAboveAllThresholds);
+            return new WBRBStatus(statusCreatedAt, cacheAlive, cacheUsable, cacheControlState, cacheControlStateString, readQueueProcessingThreadAlive, writeQueueProcessingThreadAlive, mainQueueProcessingThreadAlive, returnQueueProcessingThreadAlive, readThreadPoolAlive, writeThreadPoolAlive, readThreadPoolActiveThreads, writeThreadPoolActiveThreads, everythingAlive, currentCacheSize, mainQueueSize, returnQueueSize, readQueueSize, writeQueueSize, configMainQueueCacheTimeMs, configReturnQueueCacheTimeMinMs, configMainQueueMaxTargetSize, configMaxCacheElementsHardLimit, configUntouchedItemCacheExpirationDelay, configMonitoringFullCacheCyclesThresholdMax, configMonitoringTimeSinceAccessThresholdMax, storageReadQueueProcessedItems, storageReadTotalAttempts, storageReadTotalSuccesses, storageReadTotalFailures, storageReadRefreshAttempts, storageReadRefreshSuccesses, storageReadRefreshFailures, storageReadRefreshTooLateCount, storageReadRefreshDataNotUsedCount, storageReadInitialAttempts, storageReadInitialSuccesses, storageReadInitialFailures, latencyHistogramsSince, latencyStorageRead, storageWriteQueueProcessedItems, storageWriteAttempts, storageWriteSuccesses, storageWriteFailures, latencyStorageWrite, mainQueueProcessedItems, mainQueueLastItemInQueueDurationMs, mainQueueSentWrites, mainQueueExpiredFromCacheCount, mainQueueRemovedFromCacheCount, mainQueueRequeueToMainQueueCount, mainQueueNotAllOkCount, latencyMainQueueTime, returnQueueProcessedItems, returnQueueLastItemInQueueDurationMs, returnQueueScheduledResyncs, returnQueueDoNothingCount, returnQueueExpiredFromCacheCount, returnQueueRemovedFromCacheCount, returnQueueRequeueToReturnQueueCount, returnQueueNegativeTimeSinceLastAccessErrorCount, returnQueueItemNotRetainedDueToMainQueueSizeCount, checkCacheAttemptsNoDedup, checkCachePreloadAttempts, checkCachePreloadCacheHit, checkCachePreloadCacheFullExceptionCount, checkCacheReadAttempts, checkCacheReadCacheHit, checkCacheReadCacheFullExceptionCount, checkCacheTotalCacheFullExceptionCount, checkCacheNullKeyCount, cacheReadAttempts, cacheReadTimeouts, cacheReadInterrupts, cacheReadErrors, latencyReadFor, cacheWriteAttempts, cacheWriteElementNotPresentCount, cacheWriteErrors, cacheWriteTooManyUpdates, latencyWriteLockWait, msgWarnCount, msgExternalWarnCount, msgExternalErrorCount, msgExternalDataLossCount, msgErrorCount, msgFatalCount, msgTotalWarnOrHigherCount, msgTotalErrorOrHigherCount, lastTimestampMsgPerSeverityOrdinal, lastLoggedTextMsgPerSeverityOrdinal, lastWarnMsgTimestamp, lastWarnLoggedMsgText, lastErrorMsgTimestamp, lastErrorLoggedMsgText, lastFatalMsgTimestamp, lastFatalLoggedMsgText, fullCycleCountThreshold1, fullCycleCountThreshold2, fullCycleCountThreshold3, fullCycleCountThreshold4, fullCycleCountThreshold5, fullCycleCountAboveAllThresholds, timeSinceAccessThreshold1, timeSinceAccessThreshold2, timeSinceAccessThreshold3, timeSinceAccessThreshold4, timeSinceAccessThreshold5, timeSinceAccessThresholdAboveAllThresholds, configMaxCacheWeightHardLimit, configMainQueueMaxTargetWeight, currentCacheWeight, mainQueueCoalescedWrites, currentMainQueueCacheTimeMs, storageReadInitialAbsent, readRefreshQueueSize, storageReadRefreshDropped, cacheWriteCombinedUpdates, storageWriteOptimisticSuccesses, storageWriteOptimisticConflicts);
         }
     }
 
@@ -81,7 +81,7 @@ public class RRLStatusBuilder {
     public interface ZBSI_RRLStatusBuilder_statusCreatedAt_arg11 {
 
         /**
-         * Main processing queue size.
+         * Main processing queue size (total across all lanes).
          */
         public ZBSI_RRLStatusBuilder_statusCreatedAt_arg12 mainQueueSize(int mainQueueSize);
     }
@@ -131,7 +131,8 @@ public class RRLStatusBuilder {
     public interface ZBSI_RRLStatusBuilder_statusCreatedAt_arg5 {
 
         /**
-         * Whether thread is alive.
+         * Whether thread is alive (threads of all lanes if there are several, see
+         * {@link RRLConfig#getMainQueueLanes()}).
          */
         public ZBSI_RRLStatusBuilder_statusCreatedAt_arg6 mainQueueProcessingThreadAlive(boolean mainQueueProcessingThreadAlive);
     }
@@ -270,7 +271,7 @@ public class RRLStatusBuilder {
         }
 
         /**
-         * Main processing queue size.
+         * Main processing queue size (total across all lanes).
          */
         @Override
         @SuppressWarnings("hiding")
@@ -332,7 +333,8 @@ public class RRLStatusBuilder {
         }
 
         /**
-         * Whether thread is alive.
+         * Whether thread is alive (threads of all lanes if there are several, see
+         * {@link RRLConfig#getMainQueueLanes()}).
          */
         @Override
         @SuppressWarnings("hiding")
@@ -0,0 +1,47 @@
+/**
+ * Copyright Sergey Olefir
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.solf.extra2.cache.exception;
+
+import javax.annotation.Nonnull;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Indicates that cache element with the particular key does not exist in the
+ * underlying storage (i.e. storage read succeeded but found nothing) -- this
+ * is a 'negative cache' result.
+ * <p>
+ * This is a subclass of {@link CacheElementFailedLoadingException} so that
+ * code that doesn't care about the distinction can keep treating it as a
+ * failed load.
+ *
+ * @param K key type
+ *
+ * @author Sergey Olefir
+ */
+@NonNullByDefault
+public class CacheElementAbsentException extends CacheElementFailedLoadingException
+{
+	/**
+	 * Constructor.
+	 * 
+	 * @param key must be non-null
+	 */
+	public <@Nonnull K> CacheElementAbsentException(String cacheName, K key)
+	{
+		super(key, "Cache [" + cacheName + "] element is absent in storage: {{==}}"); // do not toString() key unnecessarily, might be expensive, instead do this in getMessage()
+	}
+}
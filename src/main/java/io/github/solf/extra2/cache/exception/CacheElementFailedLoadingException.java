@@ -46,7 +46,18 @@ public class CacheElementFailedLoadingException extends CacheIllegalExternalStat
 	 */
 	public <@Nonnull K> CacheElementFailedLoadingException(String cacheName, K key)
 	{
-		super("Cache [" + cacheName + "] element failed to load: {{==}}"); // do not toString() key unnecessarily, might be expensive, instead do this in getMessage() 
+		this(key, "Cache [" + cacheName + "] element failed to load: {{==}}"); // do not toString() key unnecessarily, might be expensive, instead do this in getMessage() 
+	}
+	
+	/**
+	 * Constructor for subclasses that need different message.
+	 * 
+	 * @param key must be non-null
+	 * @param message exception message; '{{==}}' in it is replaced with the key
+	 */
+	protected <@Nonnull K> CacheElementFailedLoadingException(K key, String message)
+	{
+		super(message);
 		
 		this.key = key;
 		if (nullable(key) == null)
@@ -0,0 +1,40 @@
+/**
+ * Copyright Sergey Olefir
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.solf.extra2.cache.exception;
+
+import javax.annotation.Nonnull;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Indicates that batched storage read returned no result at all for the
+ * particular key (which is treated as failure to load this key).
+ *
+ * @author Sergey Olefir
+ */
+@NonNullByDefault
+public class CacheElementMissingFromBatchResultException extends CacheElementFailedLoadingException
+{
+	/**
+	 * Constructor.
+	 * 
+	 * @param key must be non-null
+	 */
+	public <@Nonnull K> CacheElementMissingFromBatchResultException(String cacheName, K key)
+	{
+		super(key, "Cache [" + cacheName + "] batched storage read returned no result for element: {{==}}");
+	}
+}
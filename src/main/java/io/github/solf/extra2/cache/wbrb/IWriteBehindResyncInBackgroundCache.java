@@ -15,6 +15,10 @@
  */
 package io.github.solf.extra2.cache.wbrb;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import javax.annotation.Nonnull;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -79,6 +83,25 @@ public interface IWriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W, UEx
 	 */
 	public void preloadCache(K key) throws IllegalArgumentException, CacheFullException,
 		CacheIllegalStateException, CacheInternalException, WAInterruptedException;
+	
+	/**
+	 * Bulk version of {@link #preloadCache(Object)} -- reads for all the
+	 * elements that are not yet in cache are scheduled together (so they
+	 * can be efficiently processed by batched storage reads).
+	 * <p>
+	 * This method returns as fast as possible, doesn't wait for any background
+	 * processing.
+	 * 
+	 * @throws IllegalArgumentException if any key is null
+	 * @throws CacheFullException if some element is not currently cached and cache
+	 * 		is full (so no additional element may be added); elements processed
+	 * 		before that are still preloaded
+	 * @throws CacheIllegalStateException if there's problem with cache state,
+	 * 		such as shutdown
+	 * @throws WAInterruptedException if thread was interrupted
+	 */
+	public void preloadAll(Collection<K> keys) throws IllegalArgumentException, CacheFullException,
+		CacheIllegalStateException, CacheInternalException, WAInterruptedException;
 
 	
 	/**
@@ -137,6 +160,28 @@ public interface IWriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W, UEx
 	public V readForOrException(K key, long limitMillis) 
 		throws CacheElementNotYetLoadedException, CacheIllegalExternalStateException, IllegalArgumentException, CacheFullException, CacheIllegalStateException, CacheInternalException, WAInterruptedException;
 	
+	/**
+	 * Bulk version of {@link #readFor(Object, long)} -- missing elements are
+	 * scheduled for loading together (see {@link #preloadAll(Collection)})
+	 * and then all elements are read; time limit applies to the entire 
+	 * operation (not to each key separately).
+	 * 
+	 * @param limitMillis same as for {@link #readFor(Object, long)}, but
+	 * 		applies to the entire operation
+	 * 
+	 * @return map with result for every given key (in iteration order of
+	 * 		the given collection); each result is the same as from {@link #readFor(Object, long)}
+	 * 		except that if element could not be added because cache is full,
+	 * 		it is empty with {@link CacheFullException}
+	 * 
+	 * @throws IllegalArgumentException if any key is null
+	 * @throws CacheIllegalStateException if there's problem with cache state,
+	 * 		such as shutdown or element failed loading
+	 * @throws WAInterruptedException if thread was interrupted
+	 */
+	public Map<K, NullableOptional<V>> readAllFor(Collection<K> keys, long limitMillis) 
+		throws IllegalArgumentException, CacheIllegalStateException, CacheInternalException, WAInterruptedException;
+	
 	
 	/**
 	 * Reads cache element if it is already cached.
@@ -233,6 +278,36 @@ public interface IWriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W, UEx
 	 */
 	public V readUntilOrException(K key, long limitTimestamp) 
 		throws CacheElementNotYetLoadedException, CacheIllegalExternalStateException, IllegalArgumentException, CacheFullException, CacheIllegalStateException, CacheInternalException, WAInterruptedException;
+	
+	/**
+	 * Asynchronous version of {@link #readForOrException(Object, long)} --
+	 * reads cache element without blocking calling thread while element is
+	 * being loaded from the underlying storage.
+	 * <p>
+	 * Returned future is completed with the value as soon as it is available;
+	 * if element cannot be loaded within the time limit, future is completed
+	 * exceptionally with the same exception that {@link #readForOrException(Object, long)}
+	 * would throw, e.g. {@link CacheElementNotYetLoadedException}
+	 * <p>
+	 * NOTE: future may be completed in the cache's internal thread -- 
+	 * dependent actions that take significant time should be executed
+	 * via *Async methods of {@link CompletableFuture}
+	 * 
+	 * @param limitMillis positive number specifies maximum wait time in milliseconds
+	 * 		[this is affected by {@link #timeFactor()}]; negative value specifies
+	 * 		no waiting (same as using {@link #readIfCached(Object)}); zero 
+	 * 		has special meaning -- there's no waiting, but if element is not 
+	 * 		present in cache, it will be scheduled for loading
+	 * 
+	 * @throws IllegalArgumentException if key is null
+	 * @throws CacheFullException if element is not currently cached and cache
+	 * 		is full (so no additional element may be added)
+	 * @throws CacheIllegalStateException if there's problem with cache state,
+	 * 		such as shutdown
+	 * @throws WAInterruptedException if thread was interrupted
+	 */
+	public CompletableFuture<V> readAsync(K key, long limitMillis) 
+		throws IllegalArgumentException, CacheFullException, CacheIllegalStateException, CacheInternalException, WAInterruptedException;
 
 	/**
 	 * Records given update in the cache value if item is already cached.
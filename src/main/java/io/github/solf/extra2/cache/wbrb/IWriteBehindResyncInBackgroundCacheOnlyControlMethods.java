@@ -15,6 +15,8 @@
  */
 package io.github.solf.extra2.cache.wbrb;
 
+import java.io.IOException;
+
 import javax.annotation.Nonnull;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -132,4 +134,20 @@ public interface IWriteBehindResyncInBackgroundCacheOnlyControlMethods<@Nonnull
 	 */
 	public boolean flushUntil(long limitTimestamp)
 		throws CacheControlStateException, WAInterruptedException;
+	
+	/**
+	 * Writes snapshot of the cached data to the file specified by 
+	 * {@link WBRBConfig#getSnapshotFile()} -- this snapshot can be used
+	 * to warm up cache on restart (see {@link WBRBConfig#isSnapshotLoadOnStart()}).
+	 * <p>
+	 * Normally snapshots are written automatically (on shutdown/flush and/or
+	 * periodically), but this method can be used to request one explicitly.
+	 * 
+	 * @return number of entries written to the snapshot
+	 * 
+	 * @throws IllegalStateException if snapshots are not enabled (snapshot 
+	 * 		file is not set)
+	 */
+	public int writeSnapshot()
+		throws IllegalStateException, IOException, WAInterruptedException;
 }
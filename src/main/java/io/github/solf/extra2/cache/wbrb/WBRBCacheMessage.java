@@ -197,6 +197,13 @@ public enum WBRBCacheMessage
 	 * Arguments: key, cache size
 	 */
 	CACHE_ADD_FAIL_CACHE_SIZE_LIMIT_EXCEEDED(EXTERNAL_DATA_LOSS),
+	/**
+	 * Cache element addition failed due to cache weight exceeding the hard limit
+	 * (see {@link WBRBConfig#getMaxCacheWeightHardLimit()}) 
+	 * <p>
+	 * Arguments: key, cache weight
+	 */
+	CACHE_ADD_FAIL_CACHE_WEIGHT_LIMIT_EXCEEDED(EXTERNAL_DATA_LOSS),
 	
 	
 	/**
@@ -392,6 +399,21 @@ public enum WBRBCacheMessage
 	 * Arguments: exception, key
 	 */
 	APPLY_UPDATE_FAIL(EXTERNAL_DATA_LOSS),
+	/**
+	 * Indicates exception when serializing idle cache value via codec (see
+	 * {@link WBRBConfig#isSerializeIdleValues()}); value is kept in non-serialized
+	 * form in this case
+	 * <p>
+	 * Arguments: exception, key
+	 */
+	VALUE_SERIALIZATION_FAIL(EXTERNAL_ERROR),
+	/**
+	 * Indicates exception when deserializing previously serialized cache value
+	 * via codec (see {@link WBRBConfig#isSerializeIdleValues()})
+	 * <p>
+	 * Arguments: exception, key
+	 */
+	VALUE_DESERIALIZATION_FAIL(EXTERNAL_DATA_LOSS),
 
 	/**
 	 * Main queue processing non-standard outcome
@@ -464,6 +486,15 @@ public enum WBRBCacheMessage
 	 * Arguments: none
 	 */
 	STARTED(INFO),
+	
+	/**
+	 * {@link WBRBConfig#isOptimisticReads()} is enabled, but lock-free reads
+	 * are not used because {@link WriteBehindResyncInBackgroundCache#spiReadLockMakeCacheReadDecision(Object, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBCacheEntry, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBCachePayload)}
+	 * is overridden (and lock-free reads would bypass it)
+	 * <p>
+	 * Arguments: none
+	 */
+	OPTIMISTIC_READS_NOT_SUPPORTED(WARN),
 
 	/**
 	 * Cache shutdown requested
@@ -506,6 +537,39 @@ public enum WBRBCacheMessage
 	 */
 	FLUSH_SUCCESFULLY_COMPLETED(INFO),
 	
+	/**
+	 * Cache snapshot was written, see {@link WBRBConfig#getSnapshotFile()}
+	 * <p>
+	 * Arguments: snapshot file, number of entries written
+	 */
+	SNAPSHOT_WRITTEN(INFO),
+	/**
+	 * Failed to write cache snapshot, see {@link WBRBConfig#getSnapshotFile()}
+	 * <p>
+	 * Arguments: exception, snapshot file
+	 */
+	SNAPSHOT_WRITE_FAIL(EXTERNAL_ERROR),
+	/**
+	 * Cache snapshot was loaded on cache start, see {@link WBRBConfig#isSnapshotLoadOnStart()}
+	 * <p>
+	 * Arguments: snapshot file, number of entries restored
+	 */
+	SNAPSHOT_LOADED(INFO),
+	/**
+	 * Failed to load cache snapshot on cache start (cache is started anyway,
+	 * possibly with some entries loaded), see {@link WBRBConfig#isSnapshotLoadOnStart()}
+	 * <p>
+	 * Arguments: exception, snapshot file
+	 */
+	SNAPSHOT_LOAD_FAIL(EXTERNAL_ERROR),
+	/**
+	 * Cache entry was skipped when writing or loading snapshot because it
+	 * failed to serialize/deserialize
+	 * <p>
+	 * Arguments: exception, key (null if key itself failed to deserialize)
+	 */
+	SNAPSHOT_ENTRY_SKIPPED(EXTERNAL_WARN),
+	
 	/**
 	 * Indicates exception in {@link WriteBehindResyncInBackgroundCache#spiNoLockReadFromStorage(Object, boolean, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBCacheEntry, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBCachePayload)}
 	 * <p>
@@ -682,6 +746,27 @@ public enum WBRBCacheMessage
 	 * Arguments: exception, key
 	 */
 	SPI_EXCEPTION_MakeCacheWriteDecision(EXTERNAL_DATA_LOSS),
+	/**
+	 * Indicates exception in {@link WriteBehindResyncInBackgroundCache#spiWriteLockWeigh(Object, Object, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBCacheEntry, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBCachePayload)}
+	 * (weight of the entry is left unchanged in this case)
+	 * <p>
+	 * Arguments: exception, key
+	 */
+	SPI_EXCEPTION_Weigh(EXTERNAL_ERROR),
+	/**
+	 * Indicates exception in {@link WriteBehindResyncInBackgroundCache#spiWriteLockIsStorageDataAbsent(Object, Object, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBCacheEntry, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBCachePayload)}
+	 * (read data is then processed as usual, i.e. as if it is not 'absent')
+	 * <p>
+	 * Arguments: exception, key
+	 */
+	SPI_EXCEPTION_IsStorageDataAbsent(EXTERNAL_ERROR),
+	/**
+	 * Indicates exception in {@link WriteBehindResyncInBackgroundCache#spiNoLockCalculateAdaptiveMainQueueCacheTimeTarget(long, long, double, double)}
+	 * (effective main queue cache time is left unchanged in this case)
+	 * <p>
+	 * Arguments: exception
+	 */
+	SPI_EXCEPTION_CalculateAdaptiveMainQueueCacheTime(EXTERNAL_ERROR),
 	/**
 	 * Indicates exception in {@link WriteBehindResyncInBackgroundCache#spiUnknownLockLogMessage(WBRBCacheMessage, Throwable, Object...)}
 	 * <p>
@@ -48,10 +48,26 @@ public class WBRBConfig extends BaseDelegatingOptions
 	@Getter
 	private final long mainQueueMaxTargetSize = getRawOptions().getLong("mainQueueMaxTargetSize");
 	
+	/** Default: 1; number of independent main/return queue pairs (shards) with their own processing threads; keys are distributed over shards by hash (so all processing for a given key happens in the same shard) and each shard gets an equal part of mainQueueMaxTargetSize (rounded up); increase if single main queue processing thread becomes a bottleneck */
+	@Getter
+	private final int mainQueueShardCount = getRawOptions().getIntPositive("mainQueueShardCount", 1);
+	
+	/** Default: 10ms; main and return queue items are grouped into buckets by the time they were queued, this is the time span of a single bucket; processing threads wake up when the earliest item in the first bucket is due and take all the items that are due at that point in one pass (each item is checked against its own target time, so items are not held back by the rest of their bucket) */
+	@Getter
+	private final long queueBucketTimeGranularity = getRawOptions().getTimeIntervalPositive("queueBucketTimeGranularity", "10ms");
+	
 	/** Default value: 2x {@link #dataQueueMaxTargetSize}; if cache size (including data queue and other internal queue(s) such as 'return' queue) exceeds this value then no further elements can be added and attempts to do so fail with {@link CacheFullException}  */
 	@Getter
 	private final long maxCacheElementsHardLimit = getRawOptions().getLong("maxCacheElementsHardLimit", mainQueueMaxTargetSize * 2);
 	
+	/** Default: 0 (disabled); if positive, cache entries are weighed via spiWriteLockWeigh(..) (default weight is 1 per entry) and if total cache weight exceeds this value then no further elements can be added and attempts to do so fail with {@link CacheFullException}; weighing is enabled at cache creation if this or mainQueueMaxTargetWeight is positive */
+	@Getter
+	private final long maxCacheWeightHardLimit = getRawOptions().getLongNonNegative("maxCacheWeightHardLimit", 0);
+	
+	/** Default: 0 (disabled); if positive, cache entries are weighed via spiWriteLockWeigh(..) (default weight is 1 per entry) and if total weight of the entries in a queue shard exceeds this value (split evenly between shards, rounded up) then main queue items are processed early (after mainQueueCacheTimeMin) and return queue items are not retained -- same as when main queue size exceeds mainQueueMaxTargetSize; weighing is enabled at cache creation if this or maxCacheWeightHardLimit is positive */
+	@Getter
+	private final long mainQueueMaxTargetWeight = getRawOptions().getLongNonNegative("mainQueueMaxTargetWeight", 0);
+	
 	/** How many updates (per cache item) we are allowed to collect */
 	@Getter
 	private final int maxUpdatesToCollect = getRawOptions().getIntNonNegative("maxUpdatesToCollect");
@@ -63,6 +79,26 @@ public class WBRBConfig extends BaseDelegatingOptions
 	/** Default: 1/10 of mainQueueCacheTime; minimum time for cache elements to stay in the main processing queue; if there's not enough cache size to accommodate this value, new elements will be rejected; used to avoid busy loops and similar problems */  
 	@Getter
 	private final long mainQueueCacheTimeMin = getRawOptions().getTimeIntervalPositive("mainQueueCacheTimeMin", mainQueueCacheTime / 10);
+	
+	/** Default: false; if enabled, effective main queue cache time is continuously re-tuned by a feedback controller within mainQueueCacheTimeMin..adaptiveMainQueueCacheTimeMax range -- it shrinks smoothly when main queue size/weight go over the target (mainQueueMaxTargetSize / mainQueueMaxTargetWeight) and widens (up to adaptiveMainQueueCacheTimeMax) when there's spare capacity or when storage write rate exceeds adaptiveMainQueueCacheTimeTargetWriteRate; this allows cache time to follow load smoothly rather than flip between mainQueueCacheTime and mainQueueCacheTimeMin (the latter is still used immediately whenever queue shard is over the target) */
+	@Getter
+	private final boolean adaptiveMainQueueCacheTime = getRawOptions().getBoolean("adaptiveMainQueueCacheTime", false);
+	
+	/** Default: mainQueueCacheTime; maximum effective main queue cache time that adaptive controller may use (see adaptiveMainQueueCacheTime); may be larger than mainQueueCacheTime in order to allow cache to hold items for longer when there's spare capacity (e.g. during off-peak hours) */
+	@Getter
+	private final long adaptiveMainQueueCacheTimeMax = getRawOptions().getTimeIntervalPositive("adaptiveMainQueueCacheTimeMax", mainQueueCacheTime);
+	
+	/** Default: 0 (no target); target storage write rate (write attempts per second) for adaptive controller (see adaptiveMainQueueCacheTime); if positive, controller does not widen cache time while write rate is below this target (and shrinks it towards the target, thus keeping storage data fresher), but widens cache time (so that more updates are merged into each write) if write rate is above the target; main queue size/weight targets always take precedence */
+	@Getter
+	private final long adaptiveMainQueueCacheTimeTargetWriteRate = getRawOptions().getLongNonNegative("adaptiveMainQueueCacheTimeTargetWriteRate", 0);
+	
+	/** Default: 1s; how often adaptive controller (see adaptiveMainQueueCacheTime) re-evaluates effective main queue cache time */
+	@Getter
+	private final long adaptiveMainQueueCacheTimeAdjustInterval = getRawOptions().getTimeIntervalPositive("adaptiveMainQueueCacheTimeAdjustInterval", 1000);
+	
+	/** Default: 25; smoothing for adaptive controller (see adaptiveMainQueueCacheTime) -- on each adjustment effective main queue cache time moves this many percent of the way towards the newly calculated target value (values over 100 are treated as 100); lower values result in smoother but slower adaptation */
+	@Getter
+	private final int adaptiveMainQueueCacheTimeStepPercent = getRawOptions().getIntPositive("adaptiveMainQueueCacheTimeStepPercent", 25);
 
 	/** Minimum (also target) time that cache elements spend in the return queue -- this is intended to give time for the write operation to complete before cache eviction is considered */  
 	@Getter
@@ -76,10 +112,22 @@ public class WBRBConfig extends BaseDelegatingOptions
 	@Getter
 	private final boolean canMergeWrites = getRawOptions().getBoolean("canMergeWrites");
 	
+	/** Default: false; if enabled, at most one not-yet-started write per key is kept in the write queue -- if cache item goes through main queue processing while its previous write is still waiting in the write queue, new write data is merged into the queued write in place (via splitForWrite(..) with queued write data passed as 'previous failed write data') instead of delaying the write until the next full cycle; requires writes merging to be allowed (see canMergeWrites and spiWriteLockIsCanMergeWrites(..)); this keeps storage write volume bounded by the number of distinct dirty keys when storage is slow; can only be set at cache creation */
+	@Getter
+	private final boolean coalesceQueuedWrites = getRawOptions().getBoolean("coalesceQueuedWrites", false);
+	
 	/** When initial read fails (final fail after possible retries) what action should be taken; options are in WBRBInitialReadFailedFinalDecision: REMOVE_FROM_CACHE, KEEP_AND_THROW_CACHE_READ_EXCEPTIONS */ 
 	@Getter
 	private final WBRBInitialReadFailedFinalDecision initialReadFailedFinalAction = WBRBInitialReadFailedFinalDecision.valueOf(getRawOptions().getString("initialReadFailedFinalAction"));
 	
+	/** Default: false; if enabled, initial storage reads that find no data (see spiWriteLockIsStorageDataAbsent(..), by default this is null read result) are cached as 'absent' entries (negative caching) -- reads and writes of such entries fail with CacheElementAbsentException (subclass of CacheElementFailedLoadingException) without going to the storage; as with any other entry, concurrent lookups of the same key share a single storage read; absent entries are taken out of the main queue (and expire from cache, so they no longer count towards mainQueueMaxTargetSize and other limits) as soon as they are older than negativeCacheTime -- main queue is checked for these at most once per maxSleepTime (and access to an absent entry older than negativeCacheTime re-reads storage right away); initialReadFailedFinalAction does not apply to absent entries */
+	@Getter
+	private final boolean negativeCaching = getRawOptions().getBoolean("negativeCaching", false);
+	
+	/** Default: mainQueueCacheTimeMin; how long 'absent' result is kept when negativeCaching is enabled; typically shorter than mainQueueCacheTime so that rows created in the storage by someone else are noticed reasonably quickly */
+	@Getter
+	private final long negativeCacheTime = getRawOptions().getTimeIntervalPositive("negativeCacheTime", mainQueueCacheTimeMin);
+	
 	/** When background resync is too late (not all updates are collected) what action should be taken; options are in WBRBMergeDecision: SET_DIRECTLY (use data from storage, ignore in-memory data), MERGE_DATA (even though updates were not properly tracked, CLEAR_READ_PENDING_STATUS (keep current in-memory data), REMOVE_FROM_CACHE, DO_NOTHING (!!! this is dangerous, should not be used in most cases, see CLEAR_READ_PENDING_STATUS instead) */ 
 	@Getter
 	private final WBRBMergeDecision resyncTooLateAction = WBRBMergeDecision.valueOf(getRawOptions().getString("resyncTooLateAction"));
@@ -100,6 +148,42 @@ public class WBRBConfig extends BaseDelegatingOptions
 	@Getter
 	private final boolean allowUpdatesCollectionForMultipleFullCycles = getRawOptions().getBoolean("allowUpdatesCollectionForMultipleFullCycles", true);
 	
+	/** Default: false; whether cache reads may be attempted without taking any lock on the cache entry (falling back to the standard locking read if entry is not fully loaded or is modified concurrently); lock-free reads bypass spiReadLockMakeCacheReadDecision(..), so they are not used (and warning is logged on start) if that method is overridden; when enabled, spiSomeLockConvertFromCacheFormat(..) must tolerate concurrently modified data (its result is discarded in this case); only affects entries created after the option is set */
+	@Getter
+	private final boolean optimisticReads = getRawOptions().getBoolean("optimisticReads", false);
+	
+	/** Default: false; whether cached values of idle entries are kept in serialized form (via codec provided by createValueCodec(), Kryo-based by default) in order to reduce heap usage; entry is considered idle if it wasn't accessed for at least idleValueSerializationDelay when it is (re-)queued into the return queue or back into the main queue without resync; serialized values are transparently deserialized on the next access; can only be set at cache creation */
+	@Getter
+	private final boolean serializeIdleValues = getRawOptions().getBoolean("serializeIdleValues", false);
+	
+	/** Default: 0ms; how long cache entry must be untouched (no reads or writes) before its value may be serialized, see serializeIdleValues; zero means that values are serialized whenever entry is moved to the return queue (unless it was accessed in the same millisecond) */
+	@Getter
+	private final long idleValueSerializationDelay = getRawOptions().getTimeInterval("idleValueSerializationDelay", 0);
+	
+	/** Default: true; if serializeIdleValues is enabled, whether serialized values are stored off-heap (in pooled direct memory slabs, see createOffHeapValuePool()); if false, serialized values are stored on heap (which still typically uses less memory and has fewer objects for GC to track) */
+	@Getter
+	private final boolean serializeIdleValuesOffHeap = getRawOptions().getBoolean("serializeIdleValuesOffHeap", true);
+	
+	/** Default: empty (disabled); path to the file used for cache snapshots (warm restart) -- snapshot contains keys and cached values (encoded via createSnapshotKeyCodec() / createSnapshotValueCodec() codecs, Kryo by default) of all entries that have data ready; snapshot is written as configured by snapshotOnShutdownOrFlush / snapshotInterval (or via explicit writeSnapshot() invocation) and is loaded when cache is started (see snapshotLoadOnStart); can only be set at cache creation */
+	@Getter
+	private final String snapshotFile = getRawOptions().getString("snapshotFile", "");
+	
+	/** Default: true; only used if snapshotFile is set; whether to write snapshot when shutdownFor(..) / flushFor(..) (and the like) are invoked -- snapshot is written at the start of the operation, before cached data is spooled down */
+	@Getter
+	private final boolean snapshotOnShutdownOrFlush = getRawOptions().getBoolean("snapshotOnShutdownOrFlush", true);
+	
+	/** Default: 0 (disabled); only used if snapshotFile is set; if positive, snapshot is also written periodically with this interval while cache is running; can only be set at cache creation */
+	@Getter
+	private final long snapshotInterval = getRawOptions().getTimeInterval("snapshotInterval", 0);
+	
+	/** Default: true; only used if snapshotFile is set; whether to load snapshot (if snapshot file exists) when cache is started -- snapshot entries are added to the cache as already-loaded (so they are served immediately without reading storage) up to the cache size/weight limits */
+	@Getter
+	private final boolean snapshotLoadOnStart = getRawOptions().getBoolean("snapshotLoadOnStart", true);
+	
+	/** Default: true; only used if snapshotFile is set; whether entries loaded from snapshot are scheduled for background resync (refresh read) right away -- these are subject to readQueuePriorityLanes handling (i.e. they are queued in refresh lane and may be dropped); if disabled (or resync is dropped), loaded entries are only resynced as part of the normal cache cycle (i.e. if they are accessed while in cache) */
+	@Getter
+	private final boolean snapshotResyncOnLoad = getRawOptions().getBoolean("snapshotResyncOnLoad", true);
+	
 	
 	/** Default: Thread.NORM_PRIORITY + 1; priority to be used for read queue processing thread */ 
 	@Getter
@@ -109,6 +193,26 @@ public class WBRBConfig extends BaseDelegatingOptions
 	@Getter
 	private final long readQueueBatchingDelay = getRawOptions().getTimeInterval("readQueueBatchingDelay", "100ms"); 
 	
+	/** Default: 0; zero value disables batched storage reads; when positive, read queue processor collects up to this many reads (see readQueueBatchingDelay) and reads them all via single readFromStorageBatch(..) invocation */
+	@Getter
+	private final int readBatchMaxSize = getRawOptions().getIntNonNegative("readBatchMaxSize", 0);
+	
+	/** Default: 100ms; zero value disables the limit; only used if readBatchMaxSize is positive; maximum time reads are collected into a single batch, measured from when the first read joined the batch -- once it passes, collected reads are sent to storage even if further reads keep arriving within readQueueBatchingDelay of each other */
+	@Getter
+	private final long readBatchLingerTime = getRawOptions().getTimeInterval("readBatchLingerTime", "100ms");
+	
+	/** Default: false; if enabled, read queue is split into two priority lanes -- initial reads (somebody is likely waiting for these) and refresh (resync) reads scheduled by the return queue; read queue processor takes initial reads first (see readQueueRefreshLaneFairness) so that storage slowness / resync backlog doesn't push initial reads into timeouts; can only be set at cache creation */
+	@Getter
+	private final boolean readQueuePriorityLanes = getRawOptions().getBoolean("readQueuePriorityLanes", false);
+	
+	/** Default: 0 (strict priority); only used if readQueuePriorityLanes is enabled; if positive, after this many consecutive initial reads, read queue processor takes one refresh read (if any are waiting) even if there are more initial reads waiting -- so that refresh reads are not starved indefinitely */
+	@Getter
+	private final int readQueueRefreshLaneFairness = getRawOptions().getIntNonNegative("readQueueRefreshLaneFairness", 0);
+	
+	/** Default: 0 (unlimited); only used if readQueuePriorityLanes is enabled; if positive and refresh lane already has this many reads waiting, then new refresh (resync) reads are dropped -- element stays in cache with its current (possibly stale) data as if no resync was requested (see storageReadRefreshDropped in status); read retries are never dropped */
+	@Getter
+	private final int readQueueRefreshLaneMaxSize = getRawOptions().getIntNonNegative("readQueueRefreshLaneMaxSize", 0);
+	
 	/** Min value and max value for read thread pool size (reads are normally executed in separate threads); -1, -1 indicates that there's no read thread pool and instead reads are performed in the read queue processing thread -- in this case you should typically provide your own async processing to e.g. support batching */
 	@Getter
 	private final Pair<Integer, Integer> readThreadPoolSize = getRawOptions().getIntPairNegOneOrMore("readThreadPoolSize");
@@ -121,6 +225,14 @@ public class WBRBConfig extends BaseDelegatingOptions
 	@Getter
 	private final long readThreadPoolMaxIdleTime = getRawOptions().getTimeInterval("readThreadPoolMaxIdleTime", "60s");
 	
+	/** Default: false; if enabled, read thread pool starts a new virtual thread for each storage read instead of using platform threads (requires Java 21+, cache creation fails on older JVMs); max value of readThreadPoolSize then bounds the number of concurrent storage reads via semaphore (excess reads wait for a permit in their virtual threads) and can be set much higher than is practical for platform threads (e.g. hundreds for blocking JDBC/HTTP storage); min value of readThreadPoolSize, readThreadPoolMaxIdleTime and readThreadPoolPriority are ignored in this case; can only be set at cache creation */
+	@Getter
+	private final boolean readThreadPoolVirtualThreads = getRawOptions().getBoolean("readThreadPoolVirtualThreads", false);
+	
+	/** Default: 1; number of threads used to complete futures returned by readAsync(..) (and to handle their timeouts); threads are only started if async reads are used */
+	@Getter
+	private final int asyncReadThreadPoolSize = getRawOptions().getIntPositive("asyncReadThreadPoolSize", 1);
+	
 	/** Specifies how many times read failures are retried; this only affects standard implementation of retry checking */
 	@Getter
 	private final int readFailureMaxRetryCount = getRawOptions().getIntNonNegative("readFailureMaxRetryCount");
@@ -134,6 +246,22 @@ public class WBRBConfig extends BaseDelegatingOptions
 	@Getter
 	private final long writeQueueBatchingDelay = getRawOptions().getTimeInterval("writeQueueBatchingDelay", "100ms"); 
 	
+	/** Default: 0; zero value disables batched storage writes; when positive, write queue processor collects up to this many writes (see writeQueueBatchingDelay) and writes them all via single writeToStorageBatch(..) invocation */
+	@Getter
+	private final int writeBatchMaxSize = getRawOptions().getIntNonNegative("writeBatchMaxSize", 0);
+	
+	/** Default: 100ms; zero value disables the limit; only used if writeBatchMaxSize is positive; maximum time writes are collected into a single batch, measured from when the first write joined the batch -- once it passes, collected writes are sent to storage even if further writes keep arriving within writeQueueBatchingDelay of each other */
+	@Getter
+	private final long writeBatchLingerTime = getRawOptions().getTimeInterval("writeBatchLingerTime", "100ms");
+	
+	/** Default: false; only used by WBRBReadBeforeWriteCache and only if writeBatchMaxSize is positive; if enabled, read-before-write for each write batch is pipelined -- all keys in the batch are read via single readFromStorageBatch(..) invocation, updates are applied and then everything is written via single writeToStorageBatchRBW(..) invocation (instead of read + write for each key separately); with write thread pool, reads for the next batches proceed while writes of the previous batches are still in flight */
+	@Getter
+	private final boolean readBeforeWritePipelining = getRawOptions().getBoolean("readBeforeWritePipelining", false);
+	
+	/** Default: false; only used by WBRBReadBeforeWriteCache; if enabled, writes are done optimistically -- in-memory value is written via writeToStorageConditionalRBW(..) conditionally on the storage version (see extractStorageVersionRBW(..)) seen at the last read or write, and full read-before-write is only done if conditional write reports a conflict (or if storage version is unknown); batched writes (readBeforeWritePipelining) always do full read-before-write */
+	@Getter
+	private final boolean readBeforeWriteOptimistic = getRawOptions().getBoolean("readBeforeWriteOptimistic", false);
+	
 	/** Min value and max value for write thread pool size (writes are normally executed in separate threads); -1, -1 indicates that there's no write thread pool and instead writes are performed in the write queue processing thread -- in this case you should typically provide your own async processing to e.g. support batching */
 	@Getter
 	private final Pair<Integer, Integer> writeThreadPoolSize = getRawOptions().getIntPairNegOneOrMore("writeThreadPoolSize");
@@ -146,6 +274,10 @@ public class WBRBConfig extends BaseDelegatingOptions
 	@Getter
 	private final long writeThreadPoolMaxIdleTime = getRawOptions().getTimeInterval("writeThreadPoolMaxIdleTime", "60s");
 	
+	/** Default: false; if enabled, write thread pool starts a new virtual thread for each storage write instead of using platform threads (requires Java 21+, cache creation fails on older JVMs); max value of writeThreadPoolSize then bounds the number of concurrent storage writes via semaphore (excess writes wait for a permit in their virtual threads) and can be set much higher than is practical for platform threads (e.g. hundreds for blocking JDBC/HTTP storage); min value of writeThreadPoolSize, writeThreadPoolMaxIdleTime and writeThreadPoolPriority are ignored in this case; can only be set at cache creation */
+	@Getter
+	private final boolean writeThreadPoolVirtualThreads = getRawOptions().getBoolean("writeThreadPoolVirtualThreads", false);
+	
 	/** Specifies how many times write failures are retried; this only affects standard implementation of retry checking */
 	@Getter
 	private final int writeFailureMaxRetryCount = getRawOptions().getIntNonNegative("writeFailureMaxRetryCount");
@@ -214,6 +346,18 @@ public class WBRBConfig extends BaseDelegatingOptions
 		
 		monitoringTimeSinceAccessThresholds = list;
 	}
+	
+	/** Default: false; whether to use striped (LongAdder-based) counters for collecting cache stats; these avoid contention between threads that concurrently update stats (e.g. on every cache read) at the cost of more memory and more expensive status collection; can only be set at cache creation */
+	@Getter
+	private final boolean stripedStats = getRawOptions().getBoolean("stripedStats", false);
+	
+	/** Default: false; whether to collect latency histograms (log-bucketed, lock-free, ~6% precision) for cache hot-path stages -- waiting reads (readFor & co.), write lock acquisition wait, storage reads, storage writes and time spent in the main queue; percentiles are reported via getStatus(..); when disabled there's no timing overhead; can only be set at cache creation */
+	@Getter
+	private final boolean latencyHistograms = getRawOptions().getBoolean("latencyHistograms", false);
+	
+	/** Default: 0 (never); if positive, latency histograms (see latencyHistograms) are reset after being reported in getStatus(..) once this much time has passed since the previous reset, so that reported percentiles cover (roughly) one reporting interval rather than the entire cache lifetime */
+	@Getter
+	private final long latencyHistogramsResetInterval = getRawOptions().getTimeInterval("latencyHistogramsResetInterval", 0);
 
 	/**
 	 * @param initializeFrom
@@ -0,0 +1,78 @@
+/**
+ * Copyright Sergey Olefir
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.solf.extra2.cache.wbrb;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBLatencySnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Latency information for a single {@link WriteBehindResyncInBackgroundCache}
+ * stage as reported in {@link WBRBStatus} (see WBRBConfig.latencyHistograms);
+ * all values are 0 if latency histograms are not enabled.
+ *
+ * @author Sergey Olefir
+ */
+@NonNullByDefault
+@ToString
+@AllArgsConstructor
+public class WBRBLatencyStatus
+{
+	/**
+	 * Number of latency samples collected.
+	 */
+	@Getter
+	private final long count;
+	
+	/**
+	 * 50th percentile latency (in microseconds); 0 if there are no samples
+	 */
+	@Getter
+	private final long p50Micros;
+	
+	/**
+	 * 99th percentile latency (in microseconds); 0 if there are no samples
+	 */
+	@Getter
+	private final long p99Micros;
+	
+	/**
+	 * 99.9th percentile latency (in microseconds); 0 if there are no samples
+	 */
+	@Getter
+	private final long p999Micros;
+	
+	/**
+	 * Maximum latency (in microseconds); 0 if there are no samples
+	 */
+	@Getter
+	private final long maxMicros;
+	
+	/**
+	 * Creates status from the given histogram snapshot.
+	 */
+	public static WBRBLatencyStatus fromSnapshot(WBRBLatencySnapshot snapshot)
+	{
+		return new WBRBLatencyStatus(snapshot.getCount(), 
+			snapshot.getValueAtPercentileMicros(50),
+			snapshot.getValueAtPercentileMicros(99),
+			snapshot.getValueAtPercentileMicros(99.9),
+			snapshot.getMaxMicros());
+	}
+}
@@ -18,8 +18,13 @@ package io.github.solf.extra2.cache.wbrb;
 import static io.github.solf.extra2.util.NullUtil.nnChecked;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -29,11 +34,13 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 
 import io.github.solf.extra2.cache.exception.CacheElementFailedWriteException;
 import io.github.solf.extra2.cache.exception.CacheInternalException;
+import io.github.solf.extra2.lambda.ObjectWrapper;
 import io.github.solf.extra2.nullable.NullableOptional;
 import io.github.solf.extra2.util.TypeUtil;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
 
 /**
@@ -113,6 +120,17 @@ public abstract class WBRBReadBeforeWriteCache<@Nonnull K, V, S, R, W, UExt, UIn
 		@Getter
 		private final List<UInt> collectedUpdatesCopy;
 		
+		/**
+		 * Storage version that {@link #inMemoryStateCopy} is based on -- if
+		 * present, then this is an optimistic write (see {@link WBRBConfig#isReadBeforeWriteOptimistic()}),
+		 * both {@link #inMemoryStateCopy} and {@link #collectedUpdatesCopy} 
+		 * are present and the latter is used if conditional write reports
+		 * a conflict.
+		 */
+		@Nullable
+		@Getter
+		private final RBWStorageVersion expectedStorageVersion;
+		
 		/**
 		 * Constructor for when we are writing the memory state 'as is' (without
 		 * reading first & applying collected updates).
@@ -121,6 +139,7 @@ public abstract class WBRBReadBeforeWriteCache<@Nonnull K, V, S, R, W, UExt, UIn
 		{
 			this.inMemoryStateCopy = inMemoryStateCopy;
 			this.collectedUpdatesCopy = null;
+			this.expectedStorageVersion = null;
 		}
 		
 		/**
@@ -132,6 +151,21 @@ public abstract class WBRBReadBeforeWriteCache<@Nonnull K, V, S, R, W, UExt, UIn
 		{
 			this.inMemoryStateCopy = null;
 			this.collectedUpdatesCopy = collectedUpdatesCopy;
+			this.expectedStorageVersion = null;
+		}
+		
+		/**
+		 * Constructor for optimistic writes (see {@link WBRBConfig#isReadBeforeWriteOptimistic()})
+		 * -- in-memory state is written conditionally on the expected storage
+		 * version and collected updates are used for read-before-write if
+		 * there's a conflict.
+		 */
+		public RBWWriteData(@NonNull W inMemoryStateCopy, @NonNull List<UInt> collectedUpdatesCopy,
+			@NonNull RBWStorageVersion expectedStorageVersion)
+		{
+			this.inMemoryStateCopy = inMemoryStateCopy;
+			this.collectedUpdatesCopy = collectedUpdatesCopy;
+			this.expectedStorageVersion = expectedStorageVersion;
 		}
 		
 		/**
@@ -145,6 +179,52 @@ public abstract class WBRBReadBeforeWriteCache<@Nonnull K, V, S, R, W, UExt, UIn
 			
 			this.inMemoryStateCopy = inMemoryStateCopy;
 			this.collectedUpdatesCopy = collectedUpdatesCopy;
+			this.expectedStorageVersion = null;
+		}
+	}
+	
+	/**
+	 * Holder for the storage version that cached value is based on, see
+	 * {@link WBRBConfig#isReadBeforeWriteOptimistic()}
+	 * <p>
+	 * New instance is created every time version is (re)set, so identity 
+	 * comparison is used to detect whether cached value was resynced 
+	 * concurrently with the write.
+	 */
+	@RequiredArgsConstructor
+	@ToString
+	protected static final class RBWStorageVersion
+	{
+		/**
+		 * Storage version; null if unknown.
+		 */
+		@Nullable
+		@Getter
+		private final Object version;
+	}
+	
+	/**
+	 * Cache entry that additionally keeps storage version (see {@link RBWStorageVersion});
+	 * only used if {@link WBRBConfig#isReadBeforeWriteOptimistic()} was enabled
+	 * when entry was created, so that entries do not pay for it in memory
+	 * otherwise (see {@link #createCacheEntry(Object, long)}).
+	 */
+	protected class RBWVersionedCacheEntry extends WBRBExtendedCacheEntry
+	{
+		/**
+		 * Storage version that cached value is based on; null if unknown.
+		 */
+		@Nullable
+		@Getter
+		@Setter
+		private RBWStorageVersion storageVersion = null;
+		
+		/**
+		 * Constructor.
+		 */
+		public RBWVersionedCacheEntry(@Nonnull K key, long timeNow)
+		{
+			super(key, timeNow);
 		}
 	}
 	
@@ -246,6 +326,13 @@ public abstract class WBRBReadBeforeWriteCache<@Nonnull K, V, S, R, W, UExt, UIn
 		}
 		
 		// If we reach this point, we know that there's data to be written.
+		if (config.isReadBeforeWriteOptimistic())
+		{
+			WriteSplit optimisticSplit = spiWriteLockAttemptOptimisticSplit(key, cacheData, previousFailedWriteData, cacheEntry, payload);
+			if (optimisticSplit != null)
+				return TypeUtil.coerce(optimisticSplit); // something isn't right with Eclipse compiler here, so have to coerce
+		}
+		
 		RBWUpdatesSplit updatesSplit = spiWriteLockAttemptUpdatesSplit(key, cacheData, previousFailedWriteData, cacheEntry, payload);
 		if (updatesSplit != null)
 		{
@@ -302,6 +389,40 @@ public abstract class WBRBReadBeforeWriteCache<@Nonnull K, V, S, R, W, UExt, UIn
 			spiWriteLockMakeCollectedUpdatesCopy(collectedUpdates, key, cacheData, previousFailedWriteData, cacheEntry, payload));
 	}
 	
+	/**
+	 * Attempts to split cache entry for optimistic write (see {@link WBRBConfig#isReadBeforeWriteOptimistic()})
+	 * -- full in-memory value to be written conditionally on the storage 
+	 * version plus (a copy of) collected updates to be used if there's a conflict.
+	 * 
+	 * @return null if not possible (e.g. if storage version is unknown or
+	 * 		collected updates are not available) 
+	 */
+	@Nullable
+	protected WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WriteSplit spiWriteLockAttemptOptimisticSplit(
+		@Nonnull K key, S cacheData,
+		NullableOptional<@Nonnull RBWWriteData<W, UInt>> previousFailedWriteData,
+		WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBCacheEntry cacheEntry,
+		WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBCachePayload payload)
+			throws InterruptedException
+	{
+		RBWStorageVersion expectedVersion = getStorageVersionRBW(payload);
+		if (expectedVersion == null)
+			return null;
+		if (expectedVersion.getVersion() == null)
+			return null; // version is unknown, can't do conditional write
+		
+		List<UInt> collectedUpdates = spiWriteLockUpdates_getCollectedUpdates(key, cacheEntry, payload);
+		if (collectedUpdates == null)
+			return null; // wouldn't be able to do read-before-write in case of conflict
+		
+		RBWWriteSplit writeSplitRBW = spiWriteLockSplitForWriteRBW(key, cacheData, previousFailedWriteData, cacheEntry, payload);
+		WriteSplit result = new WriteSplit(writeSplitRBW.getNewCacheData(), new RBWWriteData<>(
+			writeSplitRBW.getWriteData(),
+			spiWriteLockMakeCollectedUpdatesCopy(collectedUpdates, key, cacheData, previousFailedWriteData, cacheEntry, payload),
+			expectedVersion));
+		return TypeUtil.coerce(result); // something isn't right with Eclipse compiler here, so have to coerce
+	}
+	
 	/**
 	 * New cache data to be stored instead of the old one (may be the same
 	 * instance as the old one) -- this is executed when collected updates are
@@ -373,21 +494,402 @@ public abstract class WBRBReadBeforeWriteCache<@Nonnull K, V, S, R, W, UExt, UIn
 	{
 		RBWWriteData<W, UInt> dataToWrite = writeEntry.getDataToWrite();
 		List<UInt> collectedUpdates = dataToWrite.getCollectedUpdatesCopy();
+		WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>
+			.WBRBCacheEntry cacheEntry = writeEntry.getCacheEntry();
+		
+		RBWStorageVersion expectedVersion = dataToWrite.getExpectedStorageVersion();
+		if (expectedVersion != null)
+		{
+			// Optimistic write -- only succeeds if storage wasn't modified since
+			NullableOptional<@Nullable Object> newVersion = spiNoLockWriteToStorageConditionalRBW(key, 
+				nnChecked(dataToWrite.getInMemoryStateCopy()), nnChecked(expectedVersion.getVersion()), writeEntry);
+			if (newVersion.isPresent())
+			{
+				getStats().storageWriteOptimisticSuccesses.increment();
+				haveNoLock_SetStorageVersionAfterWriteRBW(cacheEntry, expectedVersion, newVersion.get());
+				return;
+			}
+			
+			// Conflict -- fall back to the read-before-write using collected updates.
+			getStats().storageWriteOptimisticConflicts.increment();
+		}
 		
 		if (collectedUpdates == null)
 		{
 			// In this case we just need to perform a full write directly.
 			spiNoLockWriteToStorageRBW(key, nnChecked(dataToWrite.getInMemoryStateCopy()), false, writeEntry);
+			if (config.isReadBeforeWriteOptimistic())
+				haveNoLock_SetStorageVersionAfterWriteRBW(cacheEntry, null, null); // storage version is no longer known
 			return;
 		}
 		
 		// Do the read-before-write logic.
-		WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>
-			.WBRBCacheEntry cacheEntry = writeEntry.getCacheEntry();
 		
 		// read
 		R storageDataBeforeUpdates = spiNoLockReadFromStorageRBW(key, true, writeEntry, cacheEntry); 
 		
+		if (!config.isReadBeforeWriteOptimistic())
+		{
+			// apply updates, split & resync
+			W writeData = haveNoLock_ApplyUpdatesAndResyncRBW(key, storageDataBeforeUpdates, collectedUpdates, cacheEntry, null);
+			
+			// And finally do an actual write.
+			spiNoLockWriteToStorageRBW(key, writeData, true, writeEntry);
+			return;
+		}
+		
+		// In optimistic mode write is also done conditionally on the version
+		// that was just read (if it is known) so that new storage version
+		// can be tracked.
+		Object readVersion = extractStorageVersionRBW(key, storageDataBeforeUpdates);
+		
+		// apply updates, split & resync; resynced version is unknown until write completes
+		ObjectWrapper<@Nullable RBWStorageVersion> resyncVersion = ObjectWrapper.of(null);
+		W writeData = haveNoLock_ApplyUpdatesAndResyncRBW(key, storageDataBeforeUpdates, collectedUpdates, cacheEntry, resyncVersion);
+		
+		if (readVersion == null)
+		{
+			spiNoLockWriteToStorageRBW(key, writeData, true, writeEntry);
+			return;
+		}
+		
+		NullableOptional<@Nullable Object> newVersion = spiNoLockWriteToStorageConditionalRBW(key, writeData, readVersion, writeEntry);
+		if (!newVersion.isPresent())
+		{
+			getStats().storageWriteOptimisticConflicts.increment();
+			throw new CacheElementFailedWriteException(commonNamingPrefix, key, "storage was modified concurrently with read-before-write");
+		}
+		
+		haveNoLock_SetStorageVersionAfterWriteRBW(cacheEntry, resyncVersion.get(), newVersion.get());
+	}
+	
+	/**
+	 * Updates storage version after successful write (see {@link WBRBConfig#isReadBeforeWriteOptimistic()})
+	 * -- new version is only recorded if cached value wasn't resynced since
+	 * the given 'based on' version was set; otherwise storage version is 
+	 * reset to unknown (so that the next write does full read-before-write).
+	 * 
+	 * @param basedOnVersion version that written data was based on; null
+	 * 		to unconditionally reset storage version to unknown
+	 * @param newVersion storage version after the write; null if unknown
+	 */
+	protected void haveNoLock_SetStorageVersionAfterWriteRBW(
+		WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBCacheEntry cacheEntry,
+		@Nullable RBWStorageVersion basedOnVersion, @Nullable Object newVersion)
+		throws InterruptedException
+	{
+		withWriteLock(cacheEntry, () -> {
+			WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBCachePayload payload = cacheEntry.getPayload();
+			
+			if ((basedOnVersion != null) && (getStorageVersionRBW(payload) == basedOnVersion))
+				setStorageVersionRBW(payload, new RBWStorageVersion(newVersion));
+			else
+				setStorageVersionRBW(payload, null);
+		});
+	}
+	
+	/**
+	 * Records storage version of the data that was just read from storage
+	 * and used for the cached value (see {@link WBRBConfig#isReadBeforeWriteOptimistic()}).
+	 * <p>
+	 * NOTE: version must be extracted before storage data is converted/merged
+	 * as those may modify storage data instance.
+	 */
+	protected void haveWriteLock_SetStorageVersionAfterReadRBW(@Nullable Object storageVersion,
+		WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBCachePayload payload)
+	{
+		setStorageVersionRBW(payload, new RBWStorageVersion(storageVersion));
+	}
+	
+	/**
+	 * Gets storage version that cached value is based on (see {@link WBRBConfig#isReadBeforeWriteOptimistic()}).
+	 * 
+	 * @return null if unknown (including the case when entry was created 
+	 * 		while optimistic writes were not enabled)
+	 */
+	@Nullable
+	protected RBWStorageVersion getStorageVersionRBW(
+		WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBCachePayload payload)
+	{
+		if (payload instanceof WBRBReadBeforeWriteCache.RBWVersionedCacheEntry)
+			return ((WBRBReadBeforeWriteCache<?, ?, ?, ?, ?, ?, ?>.RBWVersionedCacheEntry)payload).getStorageVersion();
+		
+		return null;
+	}
+	
+	/**
+	 * Sets storage version that cached value is based on (see {@link WBRBConfig#isReadBeforeWriteOptimistic()}).
+	 * <p>
+	 * Does nothing if entry was created while optimistic writes were not
+	 * enabled (storage version remains unknown, so full read-before-write
+	 * is used for such entries).
+	 */
+	protected void setStorageVersionRBW(
+		WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBCachePayload payload,
+		@Nullable RBWStorageVersion storageVersion)
+	{
+		if (payload instanceof WBRBReadBeforeWriteCache.RBWVersionedCacheEntry)
+			((WBRBReadBeforeWriteCache<?, ?, ?, ?, ?, ?, ?>.RBWVersionedCacheEntry)payload).setStorageVersion(storageVersion);
+	}
+	
+	@Override
+	protected WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBCacheEntry createCacheEntry(
+		@Nonnull K key, long timeNow)
+	{
+		if (!config.isReadBeforeWriteOptimistic())
+			return super.createCacheEntry(key, timeNow);
+		
+		return new RBWVersionedCacheEntry(key, timeNow);
+	}
+	
+	@Override
+	protected S spiWriteLockConvertToCacheFormat(@Nonnull K key, R storageData,
+		WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBCacheEntry cacheEntry,
+		WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBCachePayload payload)
+		throws InterruptedException
+	{
+		if (!config.isReadBeforeWriteOptimistic())
+			return super.spiWriteLockConvertToCacheFormat(key, storageData, cacheEntry, payload);
+		
+		Object storageVersion = extractStorageVersionRBW(key, storageData);
+		S result = super.spiWriteLockConvertToCacheFormat(key, storageData, cacheEntry, payload);
+		haveWriteLock_SetStorageVersionAfterReadRBW(storageVersion, payload);
+		
+		return result;
+	}
+	
+	@Override
+	protected S spiWriteLockMergeCacheAndStorageData(@Nonnull K key, R storageData,
+		WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBCacheEntry cacheEntry,
+		WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBCachePayload payload)
+		throws InterruptedException
+	{
+		if (!config.isReadBeforeWriteOptimistic())
+			return super.spiWriteLockMergeCacheAndStorageData(key, storageData, cacheEntry, payload);
+		
+		Object storageVersion = extractStorageVersionRBW(key, storageData);
+		S result = super.spiWriteLockMergeCacheAndStorageData(key, storageData, cacheEntry, payload);
+		haveWriteLock_SetStorageVersionAfterReadRBW(storageVersion, payload);
+		
+		return result;
+	}
+	
+	/**
+	 * Extracts storage version (e.g. row version or ETag) from the data read
+	 * from the storage -- used for optimistic writes, see {@link WBRBConfig#isReadBeforeWriteOptimistic()}
+	 * <p>
+	 * Default implementation returns null (version is unknown) -- which 
+	 * effectively means that optimistic writes are never done; must be 
+	 * overridden together with {@link #writeToStorageConditionalRBW(Object, Object, Object)}
+	 * if optimistic writes are enabled.
+	 * 
+	 * @return storage version or null if unknown
+	 */
+	@SuppressWarnings("unused")
+	protected @Nullable Object extractStorageVersionRBW(@Nonnull K key, R storageData)
+	{
+		return null;
+	}
+	
+	/**
+	 * Conditional version of {@link #writeToStorageRBW(Object, Object)} used
+	 * for optimistic writes (see {@link WBRBConfig#isReadBeforeWriteOptimistic()})
+	 * -- must only write data if the current storage version is the same as
+	 * expected version.
+	 * <p>
+	 * Default implementation throws {@link UnsupportedOperationException}
+	 * 
+	 * @param expectedVersion storage version as previously provided by
+	 * 		{@link #extractStorageVersionRBW(Object, Object)} or returned by
+	 * 		this method
+	 * 
+	 * @return new storage version if write succeeded (which may be null if 
+	 * 		new version is unknown); empty if write was not done due to
+	 * 		version conflict
+	 */
+	@SuppressWarnings("unused")
+	protected NullableOptional<@Nullable Object> writeToStorageConditionalRBW(@Nonnull K key, W dataToWrite, 
+		Object expectedVersion)
+		throws InterruptedException
+	{
+		throw new UnsupportedOperationException("writeToStorageConditionalRBW(..) must be implemented if readBeforeWriteOptimistic is enabled.");
+	}
+	
+	/**
+	 * A version of {@link #writeToStorageConditionalRBW(Object, Object, Object)} 
+	 * that provides more access to the internal data (so it can be overridden 
+	 * by implementations if needed).
+	 * <p>
+	 * Default implementation simply calls {@link #writeToStorageConditionalRBW(Object, Object, Object)}
+	 */
+	@SuppressWarnings("unused")
+	protected NullableOptional<@Nullable Object> spiNoLockWriteToStorageConditionalRBW(@Nonnull K key, 
+		W dataToWrite, Object expectedVersion,
+		WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBWriteQueueEntry writeEntry)
+		throws InterruptedException
+	{
+		return writeToStorageConditionalRBW(key, dataToWrite, expectedVersion);
+	}
+
+	
+	/**
+	 * If {@link WBRBConfig#isReadBeforeWritePipelining()} is enabled, then
+	 * performs read-before-write for the whole batch via {@link #spiNoLockWriteToStorageBatchRBW(List)};
+	 * otherwise uses default implementation (which passes {@link RBWWriteData}
+	 * as-is to {@link #writeToStorageBatch(Map)}).
+	 */
+	@Override
+	protected @Nullable Map<K, Throwable> spiNoLockWriteToStorageBatch(
+		List<WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBWriteQueueEntry> batch)
+		throws InterruptedException
+	{
+		if (!config.isReadBeforeWritePipelining())
+			return super.spiNoLockWriteToStorageBatch(batch);
+		
+		return spiNoLockWriteToStorageBatchRBW(batch);
+	}
+	
+	/**
+	 * Batched (pipelined) version of {@link #spiNoLockWriteToStorage(Object, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBWriteQueueEntry)}
+	 * -- used when {@link WBRBConfig#isReadBeforeWritePipelining()} is enabled.
+	 * <p>
+	 * All keys that need read-before-write are read via single 
+	 * {@link #spiNoLockReadFromStorageBatchRBW(List, List)} invocation, then
+	 * collected updates are applied (and in-memory data is resynced) and 
+	 * finally everything (including full writes that do not need reading) is 
+	 * written via single {@link #spiNoLockWriteToStorageBatchRBW(Map, List)} invocation.
+	 * <p>
+	 * If the same key is present in the batch several times (which is possible
+	 * if {@link WBRBConfig#isCoalesceQueuedWrites()} is disabled), then the
+	 * repeated writes are split into follow-up read/write rounds (in the
+	 * original order) so that each round contains each key at most once and
+	 * every write reads data written by the previous one. Failures are 
+	 * reported per key, so once key fails, its subsequent writes in the batch
+	 * are not attempted (and are reported with the same failure).
+	 * 
+	 * @return failures for the keys that were not written successfully (or 
+	 * 		null if there were none); exception fails the entire batch
+	 */
+	protected @Nullable Map<K, Throwable> spiNoLockWriteToStorageBatchRBW(
+		List<WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBWriteQueueEntry> batch)
+		throws InterruptedException
+	{
+		Map<K, Throwable> failures = new HashMap<>();
+		
+		List<WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBWriteQueueEntry> remaining = batch;
+		while (!remaining.isEmpty())
+		{
+			List<WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBWriteQueueEntry> round = new ArrayList<>(remaining.size());
+			List<WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBWriteQueueEntry> nextRound = new ArrayList<>();
+			Set<K> roundKeys = new HashSet<>();
+			for (WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBWriteQueueEntry writeEntry : remaining)
+			{
+				K key = writeEntry.getKey();
+				if (failures.containsKey(key))
+					continue; // already failed, don't write out of order
+				
+				if (roundKeys.add(key))
+					round.add(writeEntry);
+				else
+					nextRound.add(writeEntry); // duplicate key, write in the next round
+			}
+			
+			haveNoLock_WriteToStorageBatchRoundRBW(round, failures);
+			
+			remaining = nextRound;
+		}
+		
+		return failures.isEmpty() ? null : failures;
+	}
+	
+	/**
+	 * Executes single read-apply-write round for {@link #spiNoLockWriteToStorageBatchRBW(List)}
+	 * -- given round must not contain duplicate keys.
+	 * 
+	 * @param failures failures for the keys that were not written successfully
+	 * 		are added here
+	 */
+	protected void haveNoLock_WriteToStorageBatchRoundRBW(
+		List<WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBWriteQueueEntry> batch,
+		Map<K, Throwable> failures)
+		throws InterruptedException
+	{
+		List<K> readKeys = new ArrayList<>(batch.size());
+		List<WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBWriteQueueEntry> readEntries = new ArrayList<>(batch.size());
+		for (WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBWriteQueueEntry writeEntry : batch)
+		{
+			if (writeEntry.getDataToWrite().getCollectedUpdatesCopy() != null)
+			{
+				readKeys.add(writeEntry.getKey());
+				readEntries.add(writeEntry);
+			}
+		}
+		
+		// read
+		Map<K, NullableOptional<R>> readResults = readKeys.isEmpty() ? 
+			new HashMap<>() : spiNoLockReadFromStorageBatchRBW(readKeys, readEntries);
+		
+		// apply updates & resync, keep original batch order for writing
+		LinkedHashMap<K, W> dataToWrite = new LinkedHashMap<>(batch.size() * 2);
+		for (WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBWriteQueueEntry writeEntry : batch)
+		{
+			K key = writeEntry.getKey();
+			RBWWriteData<W, UInt> writeData = writeEntry.getDataToWrite();
+			List<UInt> collectedUpdates = writeData.getCollectedUpdatesCopy();
+			
+			if (collectedUpdates == null)
+			{
+				// Full write, no need to read anything
+				dataToWrite.put(key, nnChecked(writeData.getInMemoryStateCopy()));
+				continue;
+			}
+			
+			NullableOptional<R> readResult = readResults.get(key);
+			if ((readResult == null) || !readResult.isPresent())
+			{
+				Throwable e = (readResult == null) ? null : readResult.getExceptionOrNull();
+				failures.put(key, (e != null) ? e : new CacheInternalException("Read-before-write batch read returned no data for key: " + key));
+				continue;
+			}
+			
+			try
+			{
+				dataToWrite.put(key, haveNoLock_ApplyUpdatesAndResyncRBW(key, readResult.get(), collectedUpdates, writeEntry.getCacheEntry(), null));
+			} catch (InterruptedException e)
+			{
+				throw e;
+			} catch (Exception e)
+			{
+				failures.put(key, e);
+			}
+		}
+		
+		// write
+		if (!dataToWrite.isEmpty())
+		{
+			Map<K, Throwable> writeFailures = spiNoLockWriteToStorageBatchRBW(dataToWrite, batch);
+			if (writeFailures != null)
+				failures.putAll(writeFailures);
+		}
+	}
+	
+	/**
+	 * Applies collected updates to the data read from storage (as part of 
+	 * read-before-write), resyncs in-memory data and returns data to be written.
+	 * <p>
+	 * If {@link WBRBConfig#isReadBeforeWriteOptimistic()} is enabled, then
+	 * storage version of the resynced value is set to unknown (as part of
+	 * the same resync) since it is not known until write completes.
+	 * 
+	 * @param resyncVersion if not null, then storage version instance set 
+	 * 		during resync is stored here (null if not in optimistic mode)
+	 */
+	protected W haveNoLock_ApplyUpdatesAndResyncRBW(@Nonnull K key, R storageDataBeforeUpdates, 
+		List<UInt> collectedUpdates,
+		WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBCacheEntry cacheEntry,
+		@Nullable ObjectWrapper<@Nullable RBWStorageVersion> resyncVersion)
+		throws InterruptedException
+	{
 		// apply updates
 		S cacheDataWithUpdates = convertToCacheFormatFromStorageData(key, storageDataBeforeUpdates);
 		for (UInt update : collectedUpdates)
@@ -404,12 +906,79 @@ public abstract class WBRBReadBeforeWriteCache<@Nonnull K, V, S, R, W, UExt, UIn
 		// We can do it before write since we are not resetting collected updates 
 		// on resync anyway (so this just brings in-memory data closer to 'reality'
 		// regardless of whether write will then fail or not).
-		apiStorageReadSuccess(storageDataWithUpdates, cacheEntry);
+		if (!config.isReadBeforeWriteOptimistic())
+			apiStorageReadSuccess(storageDataWithUpdates, cacheEntry);
+		else
+		{
+			// Same write lock so that nothing can see storage version for 
+			// the data with updates (which has nothing to do with actual storage).
+			RBWStorageVersion unknownVersion = withWriteLock(cacheEntry, () -> {
+				apiStorageReadSuccess(storageDataWithUpdates, cacheEntry);
+				
+				RBWStorageVersion version = new RBWStorageVersion(null);
+				setStorageVersionRBW(cacheEntry.getPayload(), version);
+				return version;
+			});
+			if (resyncVersion != null)
+				resyncVersion.set(unknownVersion);
+		}
 		
-		// And finally do an actual write.
-		spiNoLockWriteToStorageRBW(key, splitForWrite.getWriteData(), true, writeEntry);
+		return splitForWrite.getWriteData();
+	}
+	
+	/**
+	 * Reads data for read-before-write in pipelined mode (see {@link WBRBConfig#isReadBeforeWritePipelining()}).
+	 * <p>
+	 * Default implementation simply calls {@link #readFromStorageBatch(List)}
+	 * and returns the result.
+	 * 
+	 * @param writeEntries write entries for the keys, in the same order
+	 */
+	protected Map<K, NullableOptional<R>> spiNoLockReadFromStorageBatchRBW(List<K> keys,
+		@SuppressWarnings("unused") List<WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBWriteQueueEntry> writeEntries)
+		throws InterruptedException
+	{
+		return readFromStorageBatch(keys);
+	}
+	
+	/**
+	 * Batched version of {@link #writeToStorageRBW(Object, Object)} -- used
+	 * in pipelined mode (see {@link WBRBConfig#isReadBeforeWritePipelining()}).
+	 * <p>
+	 * Map iteration order is the order in which writes were queued; if the
+	 * same key was queued several times, then these writes are done via
+	 * separate invocations (see {@link #spiNoLockWriteToStorageBatchRBW(List)}).
+	 * <p>
+	 * Returned map should contain failures for the keys that were NOT written
+	 * successfully (key -> exception); keys not present in the returned map
+	 * (or all keys if null is returned) are treated as successful writes.
+	 * Exception thrown from this method fails the entire batch.
+	 * <p>
+	 * Default implementation throws {@link UnsupportedOperationException}
+	 */
+	@SuppressWarnings("unused")
+	protected @Nullable Map<K, Throwable> writeToStorageBatchRBW(Map<K, W> dataToWrite)
+		throws InterruptedException
+	{
+		throw new UnsupportedOperationException("writeToStorageBatchRBW(..) must be implemented if readBeforeWritePipelining is enabled.");
+	}
+	
+	/**
+	 * A version of {@link #writeToStorageBatchRBW(Map)} that provides more
+	 * access to the internal data (so it can be overridden by implementations
+	 * if needed).
+	 * <p>
+	 * Default implementation simply calls {@link #writeToStorageBatchRBW(Map)}
+	 * 
+	 * @param batch write entries for this invocation (including entries that
+	 * 		may have failed before reaching write stage); keys are unique
+	 */
+	protected @Nullable Map<K, Throwable> spiNoLockWriteToStorageBatchRBW(Map<K, W> dataToWrite,
+		@SuppressWarnings("unused") List<WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, @Nonnull RBWWriteData<W, UInt>, UExt, UInt>.WBRBWriteQueueEntry> batch)
+		throws InterruptedException
+	{
+		return writeToStorageBatchRBW(dataToWrite);
 	}
-
 	
 	/**
 	 * Override default implementation to channel everything through
@@ -590,6 +1159,7 @@ public abstract class WBRBReadBeforeWriteCache<@Nonnull K, V, S, R, W, UExt, UIn
 				return; // Block resetting collected updates
 			case NO_WRITE_LOCK_NEW_CACHE_ENTRY_CREATED: // for new instances we need to immediatelly start collecting updates
 			case FULL_WRITE_SENT: // previous updates were sent to write, reset them
+			case SNAPSHOT_RESTORED: // resync is pending, need to collect updates
 				collectAfter = true;
 				break;
 			case IS_MERGE_POSSIBLE_EXCEPTION:
@@ -133,13 +133,13 @@ public class WBRBStatus
 	private final long currentCacheSize;
 	
 	/**
-	 * Main processing queue size.
+	 * Main processing queue size (total for all queue shards).
 	 */
 	@Getter
 	private final long mainQueueSize;
 	
 	/**
-	 * Return queue size.
+	 * Return queue size (total for all queue shards).
 	 */
 	@Getter
 	private final long returnQueueSize;
@@ -276,6 +276,20 @@ public class WBRBStatus
 	@Getter
 	private final long storageReadInitialFailures;
 	
+	/**
+	 * When latency histograms (latency* fields) were last reset (or cache was started; 0 if not started) --
+	 * reported latencies cover period from this timestamp until {@link #getStatusCreatedAt()};
+	 * see WBRBConfig.latencyHistograms and WBRBConfig.latencyHistogramsResetInterval
+	 */
+	@Getter
+	private final long latencyHistogramsSince;
+	
+	/**
+	 * Latency of storage read calls (per single read or per read batch)
+	 */
+	@Getter
+	private final WBRBLatencyStatus latencyStorageRead;
+	
 	
 	
 	/**
@@ -302,6 +316,12 @@ public class WBRBStatus
 	@Getter
 	private final long storageWriteFailures;
 	
+	/**
+	 * Latency of storage write calls (per single write or per write batch)
+	 */
+	@Getter
+	private final WBRBLatencyStatus latencyStorageWrite;
+	
 
 	
 	/**
@@ -352,6 +372,12 @@ public class WBRBStatus
 	@Getter
 	private final long mainQueueNotAllOkCount;
 	
+	/**
+	 * Latency of time spent by items in the main queue (millisecond precision)
+	 */
+	@Getter
+	private final WBRBLatencyStatus latencyMainQueueTime;
+	
 
 	
 	/**
@@ -504,6 +530,12 @@ public class WBRBStatus
 	@Getter
 	private final long cacheReadErrors;
 	
+	/**
+	 * Latency of waiting cache reads (readFor(..) & co.), including time spent waiting for the element to be loaded
+	 */
+	@Getter
+	private final WBRBLatencyStatus latencyReadFor;
+	
 	
 	/**
 	 * How many cache write attempts were made.
@@ -529,6 +561,12 @@ public class WBRBStatus
 	 */
 	@Getter
 	private final long cacheWriteTooManyUpdates;
+	
+	/**
+	 * Latency of waiting for (outermost) cache entry write lock acquisition
+	 */
+	@Getter
+	private final WBRBLatencyStatus latencyWriteLockWait;
 
 	
 	
@@ -759,4 +797,79 @@ public class WBRBStatus
 	 */
 	@Getter
 	private final long timeSinceAccessThresholdAboveAllThresholds;
+	
+	/**
+	 * {@link WBRBConfig#getMaxCacheWeightHardLimit()}
+	 */
+	@Getter
+	private final long configMaxCacheWeightHardLimit;
+	
+	/**
+	 * {@link WBRBConfig#getMainQueueMaxTargetWeight()}
+	 */
+	@Getter
+	private final long configMainQueueMaxTargetWeight;
+	
+	/**
+	 * Current total weight of the cache entries (always zero if weighing is not
+	 * enabled), see {@link WBRBConfig#getMaxCacheWeightHardLimit()}
+	 */
+	@Getter
+	private final long currentCacheWeight;
+	
+	/**
+	 * How many writes were merged into already-queued writes (instead of being
+	 * sent separately) while processing main processing queue, see
+	 * {@link WBRBConfig#isCoalesceQueuedWrites()}
+	 */
+	@Getter
+	private final long mainQueueCoalescedWrites;
+	
+	/**
+	 * Main queue cache time currently in effect -- this is the same as configMainQueueCacheTimeMs
+	 * unless adaptive cache time is enabled (see WBRBConfig.adaptiveMainQueueCacheTime)
+	 */
+	@Getter
+	private final long currentMainQueueCacheTimeMs;
+	
+	/**
+	 * How many reads (initial) succeeded but found no data in the storage (these are
+	 * also included in storageReadInitialSuccesses), see WBRBConfig.negativeCaching
+	 */
+	@Getter
+	private final long storageReadInitialAbsent;
+	
+	/**
+	 * Current number of refresh (resync) reads waiting in the refresh lane of the read queue
+	 * (these are NOT included in readQueueSize); always 0 unless WBRBConfig.readQueuePriorityLanes is enabled
+	 */
+	@Getter
+	private final long readRefreshQueueSize;
+	
+	/**
+	 * How many refresh (resync) reads were dropped (data kept as-is) because refresh lane of the read queue was
+	 * saturated, see WBRBConfig.readQueueRefreshLaneMaxSize
+	 */
+	@Getter
+	private final long storageReadRefreshDropped;
+	
+	/**
+	 * How many updates were folded into previously collected update (instead of being added to
+	 * collected updates list), see WriteBehindResyncInBackgroundCache.combineUpdates(..)
+	 */
+	@Getter
+	private final long cacheWriteCombinedUpdates;
+	
+	/**
+	 * How many optimistic (conditional) writes succeeded, see {@link WBRBConfig#isReadBeforeWriteOptimistic()}
+	 */
+	@Getter
+	private final long storageWriteOptimisticSuccesses;
+	
+	/**
+	 * How many optimistic (conditional) writes reported a conflict (and had
+	 * to fall back to read-before-write), see {@link WBRBConfig#isReadBeforeWriteOptimistic()}
+	 */
+	@Getter
+	private final long storageWriteOptimisticConflicts;
 }
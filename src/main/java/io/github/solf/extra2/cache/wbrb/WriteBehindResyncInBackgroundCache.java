@@ -20,21 +20,56 @@ import static io.github.solf.extra2.util.NullUtil.nn;
 import static io.github.solf.extra2.util.NullUtil.nnChecked;
 import static io.github.solf.extra2.util.NullUtil.nullable;
 
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.RandomAccess;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.concurrent.locks.StampedLock;
 import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -48,11 +83,17 @@ import org.slf4j.LoggerFactory;
 import org.slf4j.Marker;
 import org.slf4j.MarkerFactory;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
 import io.github.solf.extra2.cache.exception.BaseCacheException;
 import io.github.solf.extra2.cache.exception.CacheControlStateException;
+import io.github.solf.extra2.cache.exception.CacheElementAbsentException;
 import io.github.solf.extra2.cache.exception.CacheElementFailedLoadingException;
 import io.github.solf.extra2.cache.exception.CacheElementFailedResyncException;
 import io.github.solf.extra2.cache.exception.CacheElementHasTooManyUpdates;
+import io.github.solf.extra2.cache.exception.CacheElementMissingFromBatchResultException;
 import io.github.solf.extra2.cache.exception.CacheElementNotYetLoadedException;
 import io.github.solf.extra2.cache.exception.CacheFullException;
 import io.github.solf.extra2.cache.exception.CacheIllegalExternalStateException;
@@ -61,11 +102,12 @@ import io.github.solf.extra2.cache.exception.CacheInternalException;
 import io.github.solf.extra2.concurrent.InterruptableRunnable;
 import io.github.solf.extra2.concurrent.InterruptableSupplier;
 import io.github.solf.extra2.concurrent.Latch;
+import io.github.solf.extra2.concurrent.WAThreadFactory;
+import io.github.solf.extra2.concurrent.WAExecutors;
 import io.github.solf.extra2.concurrent.WAThreadPoolExecutor;
 import io.github.solf.extra2.concurrent.exception.WAInterruptedException;
 import io.github.solf.extra2.lambda.BooleanObjectWrapper;
 import io.github.solf.extra2.lambda.ObjectWrapper;
-import io.github.solf.extra2.lambda.SimpleIntCounter;
 import io.github.solf.extra2.lambda.SimpleLongCounter;
 import io.github.solf.extra2.nullable.NullableOptional;
 import io.github.solf.extra2.thread.ExitableThread;
@@ -173,26 +215,176 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 	protected final ConcurrentHashMap<K, WBRBCacheEntry> inflightMap = new ConcurrentHashMap<>(1024);
 	
 	/**
-	 * Queue for data in the main processing pipeline.
-	 * 
-	 * TO-DO is this the best choice for the queue here?
+	 * Number of main/return queue shards, see {@link WBRBConfig#getMainQueueShardCount()}
+	 * <p>
+	 * Fixed at construction time (changing config value afterwards has no effect).
 	 */
-	protected final LinkedBlockingQueue<WBRBCacheEntry> mainQueue = new LinkedBlockingQueue<>();
+	protected final int queueShardCount;
 	
 	/**
-	 * Queue for data in the main processing pipeline.
-	 * 
-	 * TO-DO is this the best choice for the queue here?
+	 * Queues for data in the main processing pipeline -- one per queue shard;
+	 * each cache entry always stays within the shard given by
+	 * {@link WBRBCacheEntry#getQueueShardIndex()}
+	 */
+	protected final WBRBDeadlineBucketQueue[] mainQueues;
+	
+	/**
+	 * Queue for data in the main processing pipeline -- the first shard, 
+	 * same as mainQueues[0] (this is the only main queue if there's no sharding).
+	 */
+	protected final WBRBDeadlineBucketQueue mainQueue;
+	
+	/**
+	 * Queues for data in the return processing pipeline -- one per queue shard;
+	 * each cache entry always stays within the shard given by
+	 * {@link WBRBCacheEntry#getQueueShardIndex()}
+	 */
+	protected final WBRBDeadlineBucketQueue[] returnQueues;
+	
+	/**
+	 * Queue for data in the return processing pipeline -- the first shard, 
+	 * same as returnQueues[0] (this is the only return queue if there's no sharding).
+	 */
+	protected final WBRBDeadlineBucketQueue returnQueue;
+	
+	/**
+	 * Whether cache entries are weighed (via {@link #spiWriteLockWeigh(Object, Object, WBRBCacheEntry, WBRBCachePayload)}),
+	 * this is the case if either {@link WBRBConfig#getMaxCacheWeightHardLimit()}
+	 * or {@link WBRBConfig#getMainQueueMaxTargetWeight()} is positive.
+	 * <p>
+	 * Fixed at construction time (changing config values afterwards has no 
+	 * effect on whether weighing is done).
+	 */
+	protected final boolean weighingEnabled;
+	
+	/**
+	 * Total weight of the cache entries in each queue shard (only maintained
+	 * if {@link #weighingEnabled}); each cache entry always stays within the 
+	 * shard given by {@link WBRBCacheEntry#getQueueShardIndex()}
+	 */
+	protected final AtomicLong[] queueShardWeights;
+	
+	/**
+	 * Codec used to serialize cached values of idle entries; null if
+	 * {@link WBRBConfig#isSerializeIdleValues()} was not enabled at construction
+	 * time.
+	 */
+	@Nullable
+	protected final WBRBValueCodec<S> valueCodec;
+	
+	/**
+	 * Pool used to allocate off-heap memory for serialized values (see
+	 * {@link WBRBConfig#isSerializeIdleValuesOffHeap()}); null if 
+	 * {@link WBRBConfig#isSerializeIdleValues()} was not enabled at construction
+	 * time.
+	 */
+	@Nullable
+	protected final WBRBOffHeapSlabPool offHeapValuePool;
+	
+	/**
+	 * File used for cache snapshots (warm restart); null if {@link WBRBConfig#getSnapshotFile()}
+	 * was not set at construction time.
+	 */
+	@Nullable
+	protected final Path snapshotFile;
+	
+	/**
+	 * Codec used to serialize keys in cache snapshots; null if {@link #snapshotFile} is null.
+	 */
+	@Nullable
+	protected final WBRBValueCodec<K> snapshotKeyCodec;
+	
+	/**
+	 * Codec used to serialize cached values in cache snapshots; null if {@link #snapshotFile} is null.
+	 */
+	@Nullable
+	protected final WBRBValueCodec<S> snapshotValueCodec;
+	
+	/**
+	 * Single-thread executor used for periodic snapshots (see {@link WBRBConfig#getSnapshotInterval()})
+	 * -- separate from other executors so that writing (potentially large)
+	 * snapshot doesn't delay anything else; null if periodic snapshots are
+	 * not enabled.
+	 */
+	@Nullable
+	protected final ScheduledThreadPoolExecutor snapshotExecutor;
+	
+	/**
+	 * Lock used to make sure that only one snapshot is being written at a time.
+	 */
+	protected final Object snapshotLock = new Object();
+	
+	/**
+	 * Whether queued writes are coalesced, see {@link WBRBConfig#isCoalesceQueuedWrites()}
+	 * <p>
+	 * Fixed at construction time (changing config value afterwards has no effect).
+	 */
+	protected final boolean coalesceQueuedWrites;
+	
+	/**
+	 * Whether lock-free reads (see {@link WBRBConfig#isOptimisticReads()}) may
+	 * be used -- they are not used if {@link #spiReadLockMakeCacheReadDecision(Object, WBRBCacheEntry, WBRBCachePayload)}
+	 * is overridden, because successful lock-free read bypasses that decision.
+	 * <p>
+	 * Fixed at construction time.
+	 */
+	protected final boolean optimisticReadsSupported;
+	
+	/**
+	 * Main queue cache time as currently calculated by the adaptive controller,
+	 * see {@link WBRBConfig#isAdaptiveMainQueueCacheTime()} and
+	 * {@link #getEffectiveMainQueueCacheTime()}
+	 */
+	protected volatile long adaptiveMainQueueCacheTime;
+	
+	/**
+	 * Real world time of the last adaptive main queue cache time adjustment
+	 * (zero if there were none yet); also used to make sure that only one 
+	 * thread performs adjustment at any given time.
+	 */
+	protected final AtomicLong adaptiveMainQueueCacheTimeLastAdjusted = new AtomicLong(0);
+	
+	/**
+	 * Value of {@link WBRBStats#storageWriteAttempts} at the time of the last
+	 * adaptive main queue cache time adjustment (used to calculate storage
+	 * write rate).
 	 */
-	protected final LinkedBlockingQueue<WBRBCacheEntry> returnQueue = new LinkedBlockingQueue<>();
+	protected volatile long adaptiveMainQueueCacheTimeLastWriteAttempts;
 	
 	/**
 	 * Queue for data to be read from the storage.
+	 * <p>
+	 * If {@link WBRBConfig#isReadQueuePriorityLanes()} is enabled, then this
+	 * only contains initial reads (and read retries), refresh reads are
+	 * in {@link #refreshReadQueue}
 	 * 
 	 * TO-DO is this the best choice for the queue here?
 	 */
 	protected final LinkedBlockingQueue<WBRBCacheEntry> readQueue = new LinkedBlockingQueue<>();
 	
+	/**
+	 * Refresh (resync) lane of the read queue -- only used if {@link WBRBConfig#isReadQueuePriorityLanes()}
+	 * is enabled.
+	 */
+	protected final LinkedBlockingQueue<WBRBCacheEntry> refreshReadQueue = new LinkedBlockingQueue<>();
+	
+	/**
+	 * If {@link WBRBConfig#isReadQueuePriorityLanes()} is enabled, then this
+	 * contains one permit per each entry in {@link #readQueue} and {@link #refreshReadQueue}
+	 * (so that read queue processor can wait on both lanes at once); null
+	 * if priority lanes are not enabled.
+	 */
+	@Nullable
+	protected final Semaphore readQueueLanesPermits;
+	
+	/**
+	 * How many initial reads were taken in a row from the read queue lanes
+	 * (for {@link WBRBConfig#getReadQueueRefreshLaneFairness()})
+	 * <p>
+	 * Only accessed by {@link #readQueueProcessingThread}
+	 */
+	protected int readQueueLanesConsecutiveInitialReads = 0;
+	
 	/**
 	 * Queue for data to be read from the storage.
 	 * 
@@ -229,7 +421,13 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 	protected final ExitableThread writeQueueProcessingThread;
 	
 	/**
-	 * Thread for processing return queue.
+	 * Threads for processing return queues -- one per queue shard.
+	 */
+	protected final ExitableThread[] returnQueueProcessingThreads;
+	
+	/**
+	 * Thread for processing return queue -- the first shard, same as 
+	 * returnQueueProcessingThreads[0]
 	 */
 	protected final ExitableThread returnQueueProcessingThread;
 	
@@ -246,7 +444,22 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 	protected final WAThreadPoolExecutor writeThreadPool; 
 	
 	/**
-	 * Thread for processing main queue.
+	 * Executor used by {@link #readAsync(Object, long)} to complete returned
+	 * futures once elements are loaded (and to handle timeouts) -- so that
+	 * no thread is blocked while waiting for the storage read.
+	 * <p>
+	 * Threads are only started when async reads are actually used.
+	 */
+	protected final ScheduledThreadPoolExecutor asyncReadExecutor;
+	
+	/**
+	 * Threads for processing main queues -- one per queue shard.
+	 */
+	protected final ExitableThread[] mainQueueProcessingThreads;
+	
+	/**
+	 * Thread for processing main queue -- the first shard, same as 
+	 * mainQueueProcessingThreads[0]
 	 */
 	protected final ExitableThread mainQueueProcessingThread;
 	
@@ -257,7 +470,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 	 * 		accidental access to the field
 	 */
 	@Deprecated
-	protected final WBRBStats internalStatsField = new WBRBStats();
+	protected final WBRBStats internalStatsField;
 	/**
 	 * Gets stats for this cache instance, separated in a method in case
 	 * subclasses want to use their own implementation.
@@ -335,77 +548,101 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		/**
 		 * How many items were processed out of read queue.
 		 */
-		public AtomicLong storageReadQueueProcessedItems = new AtomicLong(0);
+		public WBRBStatsCounter storageReadQueueProcessedItems = createCounter();
 		
 		/**
 		 * How many read (refresh) attempts were made.
 		 */
-		public AtomicLong storageReadRefreshAttempts = new AtomicLong(0);
+		public WBRBStatsCounter storageReadRefreshAttempts = createCounter();
 		
 		/**
 		 * How many reads (refresh) succeeded (via {@link WriteBehindResyncInBackgroundCache#apiStorageReadSuccess(Object, WBRBCacheEntry)}
 		 */
-		public AtomicLong storageReadRefreshSuccesses = new AtomicLong(0);
+		public WBRBStatsCounter storageReadRefreshSuccesses = createCounter();
 		
 		/**
 		 * How many reads (refresh) failed (via {@link WriteBehindResyncInBackgroundCache#apiStorageReadFail(Throwable, WBRBCacheEntry)}
 		 */
-		public AtomicLong storageReadRefreshFailures = new AtomicLong(0);
+		public WBRBStatsCounter storageReadRefreshFailures = createCounter();
 		
 		/**
 		 * How many reads (refresh) arrived too late for a proper resync.
 		 */
-		public AtomicLong storageReadRefreshTooLateCount = new AtomicLong(0);
+		public WBRBStatsCounter storageReadRefreshTooLateCount = createCounter();
 		
 		/**
 		 * How many reads (refresh) arrived but data was not used (not set/merged) for
 		 * whatever reason./
 		 */
-		public AtomicLong storageReadRefreshDataNotUsedCount = new AtomicLong(0);
+		public WBRBStatsCounter storageReadRefreshDataNotUsedCount = createCounter();
 		
 		/**
 		 * How many read (initial) attempts were made.
 		 */
-		public AtomicLong storageReadInitialAttempts = new AtomicLong(0);
+		public WBRBStatsCounter storageReadInitialAttempts = createCounter();
 		
 		/**
 		 * How many reads (initial) succeeded (via {@link WriteBehindResyncInBackgroundCache#apiStorageReadSuccess(Object, WBRBCacheEntry)}
 		 */
-		public AtomicLong storageReadInitialSuccesses = new AtomicLong(0);
+		public WBRBStatsCounter storageReadInitialSuccesses = createCounter();
 		
 		/**
 		 * How many reads (initial) failed (via {@link WriteBehindResyncInBackgroundCache#apiStorageReadFail(Throwable, WBRBCacheEntry)}
 		 */
-		public AtomicLong storageReadInitialFailures = new AtomicLong(0);
+		public WBRBStatsCounter storageReadInitialFailures = createCounter();
+		
+		/**
+		 * How many reads (initial) succeeded but found no data in the storage
+		 * (these are also included in storageReadInitialSuccesses), see
+		 * {@link WBRBConfig#isNegativeCaching()}
+		 */
+		public WBRBStatsCounter storageReadInitialAbsent = createCounter();
+		
+		/**
+		 * How many refresh (resync) reads were dropped because refresh lane
+		 * of the read queue was saturated, see {@link WBRBConfig#getReadQueueRefreshLaneMaxSize()}
+		 */
+		public WBRBStatsCounter storageReadRefreshDropped = createCounter();
 		
 		
 		
 		/**
 		 * How many items were processed out of write queue.
 		 */
-		public AtomicLong storageWriteQueueProcessedItems = new AtomicLong(0);
+		public WBRBStatsCounter storageWriteQueueProcessedItems = createCounter();
 		
 		/**
 		 * How many write attempts were made.
 		 */
-		public AtomicLong storageWriteAttempts = new AtomicLong(0);
+		public WBRBStatsCounter storageWriteAttempts = createCounter();
 		
 		/**
 		 * How many writes succeeded (via {@link WriteBehindResyncInBackgroundCache#apiStorageWriteSuccess(io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBWriteQueueEntry)}
 		 */
-		public AtomicLong storageWriteSuccesses = new AtomicLong(0);
+		public WBRBStatsCounter storageWriteSuccesses = createCounter();
 		
 		/**
 		 * How many writes failed (via {@link WriteBehindResyncInBackgroundCache#apiStorageWriteFail(Throwable, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBWriteQueueEntry)}
 		 */
-		public AtomicLong storageWriteFailures = new AtomicLong(0);
+		public WBRBStatsCounter storageWriteFailures = createCounter();
+		
+		/**
+		 * How many optimistic (conditional) writes succeeded, see {@link WBRBConfig#isReadBeforeWriteOptimistic()}
+		 */
+		public WBRBStatsCounter storageWriteOptimisticSuccesses = createCounter();
+		
+		/**
+		 * How many optimistic (conditional) writes reported a conflict (and
+		 * had to fall back to read-before-write), see {@link WBRBConfig#isReadBeforeWriteOptimistic()}
+		 */
+		public WBRBStatsCounter storageWriteOptimisticConflicts = createCounter();
 		
 
 		
 		/**
 		 * How many items were processed out of main processing queue.
 		 */
-		public AtomicLong mainQueueProcessedItems = new AtomicLong(0);
+		public WBRBStatsCounter mainQueueProcessedItems = createCounter();
 		
 		/**
 		 * For the last processed item in the main queue -- how long it actually
@@ -419,39 +656,46 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		/**
 		 * How many writes were sent while processing main processing queue.
 		 */
-		public AtomicLong mainQueueSentWrites = new AtomicLong(0);
+		public WBRBStatsCounter mainQueueSentWrites = createCounter();
+		
+		/**
+		 * How many writes were merged into already-queued writes (instead of
+		 * being sent separately) while processing main processing queue, see
+		 * {@link WBRBConfig#isCoalesceQueuedWrites()}
+		 */
+		public WBRBStatsCounter mainQueueCoalescedWrites = createCounter();
 		
 		/**
 		 * How many items were expired from cache as the result of main queue processing.
 		 * <p>
 		 * 'expired' action indicates normal processing, no error is logged
 		 */
-		public AtomicLong mainQueueExpiredFromCacheCount = new AtomicLong(0);
+		public WBRBStatsCounter mainQueueExpiredFromCacheCount = createCounter();
 		
 		/**
 		 * How many items were removed from cache as the result of main queue processing.
 		 * <p>
 		 * 'removed' action indicates abnormal processing, an error is logged
 		 */
-		public AtomicLong mainQueueRemovedFromCacheCount = new AtomicLong(0);
+		public WBRBStatsCounter mainQueueRemovedFromCacheCount = createCounter();
 		
 		/**
 		 * How many items were requeued back to the main processing queue 
 		 * as the result of main queue processing.
 		 */
-		public AtomicLong mainQueueRequeueToMainQueueCount = new AtomicLong(0);
+		public WBRBStatsCounter mainQueueRequeueToMainQueueCount = createCounter();
 		
 		/**
 		 * How many items weren't marked as 'all ok' as the result of main queue processing.
 		 */
-		public AtomicLong mainQueueNotAllOkCount = new AtomicLong(0);
+		public WBRBStatsCounter mainQueueNotAllOkCount = createCounter();
 		
 
 		
 		/**
 		 * How many items were processed out of return queue.
 		 */
-		public AtomicLong returnQueueProcessedItems = new AtomicLong(0);
+		public WBRBStatsCounter returnQueueProcessedItems = createCounter();
 		
 		/**
 		 * For the last processed item in the return queue -- how long it actually
@@ -462,31 +706,31 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		/**
 		 * How many resyncs were scheduled while processing return queue.
 		 */
-		public AtomicLong returnQueueScheduledResyncs = new AtomicLong(0);
+		public WBRBStatsCounter returnQueueScheduledResyncs = createCounter();
 		
 		/**
 		 * How many items were processed as 'do nothing' as the result of the return queue processing.
 		 * <p>
 		 * This is usually not a normal behavior.
 		 */
-		public AtomicLong returnQueueDoNothingCount = new AtomicLong(0);
+		public WBRBStatsCounter returnQueueDoNothingCount = createCounter();
 		
 		/**
 		 * How many items were expired from cache as the result of the return queue processing.
 		 */
-		public AtomicLong returnQueueExpiredFromCacheCount = new AtomicLong(0);
+		public WBRBStatsCounter returnQueueExpiredFromCacheCount = createCounter();
 		
 		/**
 		 * How many items were removed from cache (removal is generally an 'error',
 		 * non-error is 'expire') as the result of the return queue processing.
 		 */
-		public AtomicLong returnQueueRemovedFromCacheCount = new AtomicLong(0);
+		public WBRBStatsCounter returnQueueRemovedFromCacheCount = createCounter();
 		
 		/**
 		 * How many items were requeued back to the return queue 
 		 * as the result of the return queue processing.
 		 */
-		public AtomicLong returnQueueRequeueToReturnQueueCount = new AtomicLong(0);
+		public WBRBStatsCounter returnQueueRequeueToReturnQueueCount = createCounter();
 		
 		/**
 		 * In return queue processing we calculate time since last access in
@@ -495,14 +739,14 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		 * normally happen, but could possibly happen if time is adjusted or
 		 * some such).
 		 */
-		public AtomicLong returnQueueNegativeTimeSinceLastAccessErrorCount = new AtomicLong(0);
+		public WBRBStatsCounter returnQueueNegativeTimeSinceLastAccessErrorCount = createCounter();
 		
 		/**
 		 * In return queue processing there's decision as to whether to keep an
 		 * element in the cache; this monitors cases when item is ineligible to
 		 * be retained due to main queue size already being at the limit.
 		 */
-		public AtomicLong returnQueueItemNotRetainedDueToMainQueueSizeCount = new AtomicLong(0);
+		public WBRBStatsCounter returnQueueItemNotRetainedDueToMainQueueSizeCount = createCounter();
 		
 		
 		
@@ -513,90 +757,97 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		 * <p>
 		 * This is basically for debugging/testing purposes.
 		 */
-		public AtomicLong checkCacheAttemptsNoDedup = new AtomicLong(0);
+		public WBRBStatsCounter checkCacheAttemptsNoDedup = createCounter();
 		
 		/**
 		 * How many check-cache (via preload) attempts were made.
 		 */
-		public AtomicLong checkCachePreloadAttempts = new AtomicLong(0);
+		public WBRBStatsCounter checkCachePreloadAttempts = createCounter();
 
 		/**
 		 * How many check-cache (via preload) attempts hit the cache.
 		 */
-		public AtomicLong checkCachePreloadCacheHit = new AtomicLong(0);
+		public WBRBStatsCounter checkCachePreloadCacheHit = createCounter();
 
 		/**
 		 * How many check-cache (via preload) attempts hit the 'cache full' state.
 		 */
-		public AtomicLong checkCachePreloadCacheFullExceptionCount = new AtomicLong(0);
+		public WBRBStatsCounter checkCachePreloadCacheFullExceptionCount = createCounter();
 		
 		/**
 		 * How many check-cache (via read) attempts were made.
 		 */
-		public AtomicLong checkCacheReadAttempts = new AtomicLong(0);
+		public WBRBStatsCounter checkCacheReadAttempts = createCounter();
 
 		/**
 		 * How many check-cache (via read) attempts hit the cache.
 		 */
-		public AtomicLong checkCacheReadCacheHit = new AtomicLong(0);
+		public WBRBStatsCounter checkCacheReadCacheHit = createCounter();
 
 		/**
 		 * How many check-cache (via read) attempts hit the 'cache full' state.
 		 */
-		public AtomicLong checkCacheReadCacheFullExceptionCount = new AtomicLong(0);
+		public WBRBStatsCounter checkCacheReadCacheFullExceptionCount = createCounter();
 
 		/**
 		 * How many check-cache (via read or preload) attempts hit the 'cache full' state.
 		 */
-		public AtomicLong checkCacheTotalCacheFullExceptionCount = new AtomicLong(0);
+		public WBRBStatsCounter checkCacheTotalCacheFullExceptionCount = createCounter();
 		
 		/**
 		 * How many check-cache (via read or preload) attempts hit the 'null key' error.
 		 */
-		public AtomicLong checkCacheNullKeyCount = new AtomicLong(0);
+		public WBRBStatsCounter checkCacheNullKeyCount = createCounter();
 		
 		
 		/**
 		 * How many cache read attempts were made.
 		 */
-		public AtomicLong cacheReadAttempts = new AtomicLong(0);
+		public WBRBStatsCounter cacheReadAttempts = createCounter();
 		
 		/**
 		 * How many cache reads timed out (haven't got result in allowed time).
 		 */
-		public AtomicLong cacheReadTimeouts = new AtomicLong(0);
+		public WBRBStatsCounter cacheReadTimeouts = createCounter();
 		
 		/**
 		 * How many errors during cache read occurred.
 		 */
-		public AtomicLong cacheReadErrors = new AtomicLong(0);
+		public WBRBStatsCounter cacheReadErrors = createCounter();
 		
 		/**
 		 * How many interrupts (external) during cache read occurred.
 		 */
-		public AtomicLong cacheReadInterrupts = new AtomicLong(0);
+		public WBRBStatsCounter cacheReadInterrupts = createCounter();
 		
 		
 		/**
 		 * How many cache write attempts were made.
 		 */
-		public AtomicLong cacheWriteAttempts = new AtomicLong(0);
+		public WBRBStatsCounter cacheWriteAttempts = createCounter();
 		
 		/**
 		 * How many cache writes failed because relevant cache element was not present.
 		 */
-		public AtomicLong cacheWriteElementNotPresentCount = new AtomicLong(0);
+		public WBRBStatsCounter cacheWriteElementNotPresentCount = createCounter();
 		
 		/**
 		 * How many errors during cache write occurred.
 		 */
-		public AtomicLong cacheWriteErrors = new AtomicLong(0);
+		public WBRBStatsCounter cacheWriteErrors = createCounter();
 		
 		/**
 		 * How many times did we encounter {@link WBRBCacheMessage#TOO_MANY_CACHE_ELEMENT_UPDATES}
 		 * issue (which potentially leads to data loss).
 		 */
-		public AtomicLong cacheWriteTooManyUpdates = new AtomicLong(0);
+		public WBRBStatsCounter cacheWriteTooManyUpdates = createCounter();
+		
+		/**
+		 * How many updates were folded into previously collected update via
+		 * {@link WriteBehindResyncInBackgroundCache#combineUpdates(Object, Object)}
+		 * (instead of being added to collected updates list).
+		 */
+		public WBRBStatsCounter cacheWriteCombinedUpdates = createCounter();
 
 		
 		
@@ -607,14 +858,14 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		 * <p>
 		 * These usually should not result in data loss.
 		 */
-		public AtomicLong msgWarnCount = new AtomicLong(0);
+		public WBRBStatsCounter msgWarnCount = createCounter();
 		
 		/**
 		 * Indicates an externally-caused warning.
 		 * <p>
 		 * These messages usually indicate that there was no data loss (yet).
 		 */
-		public AtomicLong msgExternalWarnCount = new AtomicLong(0);
+		public WBRBStatsCounter msgExternalWarnCount = createCounter();
 		
 		/**
 		 * Indicates an error probably caused by external factors, such
@@ -622,7 +873,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		 * <p>
 		 * These messages usually indicate that there was no data loss (yet).
 		 */
-		public AtomicLong msgExternalErrorCount = new AtomicLong(0);
+		public WBRBStatsCounter msgExternalErrorCount = createCounter();
 		
 		/**
 		 * Indicates an error probably caused by external factors, such
@@ -631,7 +882,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		 * This is used when data loss is highly likely, e.g. when cache implementation
 		 * gives up on writing piece of data to the underlying storage.
 		 */
-		public AtomicLong msgExternalDataLossCount = new AtomicLong(0);
+		public WBRBStatsCounter msgExternalDataLossCount = createCounter();
 		
 		/**
 		 * Indicates an error which is likely to be caused by the 
@@ -639,13 +890,13 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		 * <p>
 		 * Data loss is likely although this should not be fatal.
 		 */
-		public AtomicLong msgErrorCount = new AtomicLong(0);
+		public WBRBStatsCounter msgErrorCount = createCounter();
 		
 		/**
 		 * Indicates a likely fatal error, meaning cache may well become unusable
 		 * after this happens. 
 		 */
-		public AtomicLong msgFatalCount = new AtomicLong(0);
+		public WBRBStatsCounter msgFatalCount = createCounter();
 		
 		/**
 		 * Collects last message timestamps per each severity in {@link WBRBCacheMessageSeverity}
@@ -673,7 +924,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		 * 
 		 * @see WBRBConfig#getMonitoringFullCacheCyclesThresholds()
 		 */
-		public AtomicLong[] fullCycleCountThresholdCounters;
+		public WBRBStatsCounter[] fullCycleCountThresholdCounters;
 		
 		/**
 		 * 6-item list of 5 'equal or less than' counters (per each threshold) and 
@@ -681,13 +932,74 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		 * 
 		 * @see WBRBConfig#getMonitoringTimeSinceAccessThresholds()
 		 */
-		public AtomicLong[] timeSinceLastAccessThresholdCounters;
+		public WBRBStatsCounter[] timeSinceLastAccessThresholdCounters;
+		
+		/**
+		 * Latency of waiting cache reads (readFor(..) & co.), including time
+		 * spent waiting for the element to be loaded.
+		 * <p>
+		 * Only collected if {@link WBRBConfig#isLatencyHistograms()} is enabled
+		 * (otherwise this is {@link WBRBLatencyHistogram#DISABLED}).
+		 */
+		public WBRBLatencyHistogram readForLatency;
+		
+		/**
+		 * Time spent waiting for (outermost) cache entry write lock acquisition.
+		 * <p>
+		 * Only collected if {@link WBRBConfig#isLatencyHistograms()} is enabled
+		 * (otherwise this is {@link WBRBLatencyHistogram#DISABLED}).
+		 */
+		public WBRBLatencyHistogram writeLockWaitLatency;
+		
+		/**
+		 * Duration of storage read calls (per single read or per read batch).
+		 * <p>
+		 * Only collected if {@link WBRBConfig#isLatencyHistograms()} is enabled
+		 * (otherwise this is {@link WBRBLatencyHistogram#DISABLED}).
+		 */
+		public WBRBLatencyHistogram storageReadLatency;
+		
+		/**
+		 * Duration of storage write calls (per single write or per write batch).
+		 * <p>
+		 * Only collected if {@link WBRBConfig#isLatencyHistograms()} is enabled
+		 * (otherwise this is {@link WBRBLatencyHistogram#DISABLED}).
+		 */
+		public WBRBLatencyHistogram storageWriteLatency;
+		
+		/**
+		 * Time spent by items in the main queue (millisecond precision).
+		 * <p>
+		 * Only collected if {@link WBRBConfig#isLatencyHistograms()} is enabled
+		 * (otherwise this is {@link WBRBLatencyHistogram#DISABLED}).
+		 */
+		public WBRBLatencyHistogram mainQueueTimeLatency;
+		
+		/**
+		 * When latency histograms were last reset (or when cache was started)
+		 * -- used for {@link WBRBConfig#getLatencyHistogramsResetInterval()}
+		 * <p>
+		 * Set to 0 until cache is started.
+		 */
+		public AtomicLong latencyHistogramsLastResetAt = new AtomicLong(0);
 		
 		/**
 		 * Constructor.
+		 * 
+		 * @param latencyHistograms whether latency histograms should be
+		 * 		collected, see {@link WBRBConfig#isLatencyHistograms()}
 		 */
-		public WBRBStats()
+		public WBRBStats(boolean latencyHistograms)
 		{
+			{
+				// Histograms are relatively large (several KB each), so they
+				// are only allocated when actually needed
+				readForLatency = latencyHistograms ? createLatencyHistogram() : WBRBLatencyHistogram.DISABLED;
+				writeLockWaitLatency = latencyHistograms ? createLatencyHistogram() : WBRBLatencyHistogram.DISABLED;
+				storageReadLatency = latencyHistograms ? createLatencyHistogram() : WBRBLatencyHistogram.DISABLED;
+				storageWriteLatency = latencyHistograms ? createLatencyHistogram() : WBRBLatencyHistogram.DISABLED;
+				mainQueueTimeLatency = latencyHistograms ? createLatencyHistogram() : WBRBLatencyHistogram.DISABLED;
+			}
 			{
 				lastTimestampMsgPerSeverityOrdinal = TypeUtil.coerce(new AtomicLong[MAX_SEVERITY_ORDINAL + 1]); // must be + 1 for last index to work!
 				for (int i = 0; i < lastTimestampMsgPerSeverityOrdinal.length; i++)
@@ -699,3767 +1011,7394 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 					lastLoggedTextMsgPerSeverityOrdinal[i] = new AtomicReference<>(null);
 			}
 			{
-				fullCycleCountThresholdCounters = TypeUtil.coerce(new AtomicLong[6]);
+				fullCycleCountThresholdCounters = new WBRBStatsCounter[6];
 				for (int i = 0; i < fullCycleCountThresholdCounters.length; i++)
-					fullCycleCountThresholdCounters[i] = new AtomicLong(0);
+					fullCycleCountThresholdCounters[i] = createCounter();
 			}
 			{
-				timeSinceLastAccessThresholdCounters = TypeUtil.coerce(new AtomicLong[6]);
+				timeSinceLastAccessThresholdCounters = new WBRBStatsCounter[6];
 				for (int i = 0; i < timeSinceLastAccessThresholdCounters.length; i++)
-					timeSinceLastAccessThresholdCounters[i] = new AtomicLong(0);
+					timeSinceLastAccessThresholdCounters[i] = createCounter();
 			}
 		}
 		
-	}
-	
-	/**
-	 * Possible cache control statuses (not_started, running, shutdown...)
-	 */
-	public static enum WBRBCacheControlState
-	{
-		/**
-		 * Cache hasn't been started yet.
-		 */
-		NOT_STARTED,
 		/**
-		 * Cache is running (can handle access operations).
-		 */
-		RUNNING,
-		/**
-		 * Cache is flushing -- this is mainly useful for tests, tries to flush
-		 * all data from cache as soon as possible (similar to shutdown) but does
-		 * not shut down cache at the end.
+		 * Creates counter to be used for stats collection; subclasses may
+		 * override this to provide different counter implementation.
 		 * <p>
-		 * Standard cache operations (read/write) are NOT allowed during flushing
-		 * as it will interfere with flushing itself.
+		 * WARNING: this is invoked during construction (from field initializers),
+		 * so it must not rely on any subclass fields.
+		 * <p>
+		 * Default implementation returns {@link AtomicLong}-based counter.
 		 */
-		FLUSHING,
+		protected WBRBStatsCounter createCounter()
+		{
+			return new WBRBAtomicStatsCounter();
+		}
+		
 		/**
-		 * Cache shutdown is in progress.
+		 * Creates latency histogram to be used for stats collection (only
+		 * invoked if {@link WBRBConfig#isLatencyHistograms()} is enabled); 
+		 * subclasses may override this to provide different implementation.
+		 * <p>
+		 * WARNING: this is invoked during construction, so it must not rely 
+		 * on any subclass fields.
 		 */
-		SHUTDOWN_IN_PROGRESS,
+		protected WBRBLatencyHistogram createLatencyHistogram()
+		{
+			return new WBRBLatencyHistogram();
+		}
+	}
+	
+	/**
+	 * Stats collected by this cache -- version that uses striped counters
+	 * (see {@link WBRBStripedStatsCounter}), used when {@link WBRBConfig#isStripedStats()}
+	 * is enabled.
+	 */
+	public static class WBRBStripedStats extends WBRBStats
+	{
 		/**
-		 * Cache has been fully shutdown.
+		 * Constructor.
+		 * 
+		 * @param latencyHistograms whether latency histograms should be
+		 * 		collected, see {@link WBRBConfig#isLatencyHistograms()}
 		 */
-		SHUTDOWN_COMPLETED,
-		;
+		public WBRBStripedStats(boolean latencyHistograms)
+		{
+			super(latencyHistograms);
+		}
+		
+		@Override
+		protected WBRBStatsCounter createCounter()
+		{
+			return new WBRBStripedStatsCounter();
+		}
 	}
 	
 	/**
-	 * Possible statuses for cache entry read state.
-	 *
-	 * @author Sergey Olefir
+	 * Counter used by {@link WBRBStats}
 	 */
-	@NonNullByDefault
-	protected static enum WBRBCacheEntryReadStatus
+	public static abstract class WBRBStatsCounter
 	{
-		NOT_READ_YET,
-		DATA_READY_RESYNC_PENDING,
-		DATA_READY,
 		/**
-		 * Indicates that reading data has failed and no further attempts will
-		 * be made.
+		 * Increments counter by one.
 		 */
-		READ_FAILED_FINAL,
+		public abstract void increment();
+		
 		/**
-		 * Indicates that reading data for resync has failed and no futher attemps
-		 * will be made.
+		 * Gets current counter value.
 		 */
-		DATA_READY_RESYNC_FAILED_FINAL,
+		public abstract long get();
+		
+		@Override
+		public String toString()
+		{
+			return Long.toString(get());
+		}
+	}
+	
+	/**
+	 * {@link AtomicLong}-based counter -- cheap to read, but concurrent
+	 * increments from many threads contend on the same memory location.
+	 */
+	public static class WBRBAtomicStatsCounter extends WBRBStatsCounter
+	{
 		/**
-		 * Element was removed from cache already.
+		 * Actual counter.
 		 */
-		REMOVED_FROM_CACHE,
-		;
+		private final AtomicLong counter = new AtomicLong(0);
+		
+		@Override
+		public void increment()
+		{
+			counter.incrementAndGet();
+		}
+
+		@Override
+		public long get()
+		{
+			return counter.get();
+		}
 	}
 	
 	/**
-	 * Possible statuses for cache entry write state.
-	 *
-	 * @author Sergey Olefir
+	 * {@link LongAdder}-based (striped) counter -- concurrent increments from
+	 * many threads do not contend with each other, but reads are more
+	 * expensive (they need to sum up all the stripes) and use more memory.
+	 * <p>
+	 * Reads are only done when collecting status, so this is a good choice
+	 * for heavily-loaded caches.
 	 */
-	@NonNullByDefault
-	protected static enum WBRBCacheEntryWriteStatus
+	public static class WBRBStripedStatsCounter extends WBRBStatsCounter
 	{
-		NO_WRITE_REQUESTED_YET,
-		WRITE_PENDING,
-		WRITE_SUCCESS,
-		WRITE_FAILED_FINAL,
 		/**
-		 * Element was removed from cache already.
-		 * FIX-ME use it to prevent failed write retries?
+		 * Actual counter.
 		 */
-		REMOVED_FROM_CACHE,
-		;
+		private final LongAdder counter = new LongAdder();
+		
+		@Override
+		public void increment()
+		{
+			counter.increment();
+		}
+
+		@Override
+		public long get()
+		{
+			return counter.sum();
+		}
 	}
 	
 	/**
-	 * Internal class used as entry values in this cache.
+	 * Lock-free latency histogram used by {@link WBRBStats} (see {@link WBRBConfig#isLatencyHistograms()})
 	 * <p>
-	 * NOTE: this is always accessed through the volatile variable to maintain
-	 * access consistency.
+	 * Values are collected into logarithmic buckets (HDR-style) -- each power
+	 * of two range is split into {@link #SUB_BUCKET_COUNT} linear sub-buckets,
+	 * so that precision is within ~6% of the value for the entire range of
+	 * non-negative longs with a fixed (small) memory footprint; recording is
+	 * a single atomic increment (plus max tracking).
+	 * <p>
+	 * Snapshots (with optional reset) are not atomic with regards to concurrent
+	 * recording -- samples recorded concurrently with a snapshot may be
+	 * attributed to either this or the next interval (or, rarely, lost for
+	 * max tracking) which is fine for monitoring purposes.
 	 */
-	@ToString(exclude = "parentCacheEntry") // Exclude parent to avoid infinite loop
-	protected class WBRBCachePayload
+	public static class WBRBLatencyHistogram
 	{
 		/**
-		 * Parent cache entry.
-		 * TO-DO not sure it's a good idea to have it in here, but useful for setStatus unlatching
+		 * Number of bits used for sub-bucket index.
 		 */
-		private final WBRBCacheEntry parentCacheEntry;
+		protected static final int SUB_BUCKET_BITS = 4;
 		
 		/**
-		 * Track when this entry was last successfully synchronized with storage 
-		 * (via initial read or resync read).
+		 * Number of linear sub-buckets per each power of two range.
 		 */
-		@Getter
-		@Setter
-		private long lastSyncedWithStorageTimestamp;
+		protected static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
 		
 		/**
-		 * Tracks timestamp of the last read of the data.
-		 * <p>
-		 * Zero value is not really used; positive values indicate last read
-		 * timestamp; negative values are an inversion of timestamp done
-		 * e.g. at the end of main queue in order to track whether any new
-		 * reads have been made since the inversion. 
-		 * <p>
-		 * volatile because it needs to be modifiable from read locks
+		 * Total bucket count -- enough to cover all non-negative long values.
 		 */
-		@Getter
-		@Setter
-		private volatile long lastReadTimestamp;
+		protected static final int BUCKET_COUNT = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
 		
 		/**
-		 * Tracks timestamp of the last write to the data.
-		 * <p>
-		 * Zero means no writes; positive values indicate last write timestamp
-		 * and that the data 'is dirty'; negative values are an inversion of
-		 * last write timestamp -- set e.g. at the end of main queue processing --
-		 * used to indicate that the data is no longer 'dirty' but to still keep
-		 * track of when the last write was done.
+		 * Shared no-op histogram used in place of actual histograms when
+		 * {@link WBRBConfig#isLatencyHistograms()} is disabled -- ignores all
+		 * recorded values and always reports empty snapshots.
 		 */
-		@Getter
-		@Setter
-		private long lastWriteTimestamp = 0;
-		
-		/**
-		 * Entry read status.
-		 */
-		@Getter
-		@NonNull // required field for Lombok
-		private WBRBCacheEntryReadStatus readStatus;
+		public static final WBRBLatencyHistogram DISABLED = new WBRBLatencyHistogram(0)
+		{
+			@Override
+			public void recordNanos(long nanos)
+			{
+				// nothing
+			}
+
+			@Override
+			public WBRBLatencySnapshot snapshot(boolean reset)
+			{
+				return new WBRBLatencySnapshot(new long[0], 0);
+			}
+		};
 		
 		/**
-		 * Entry write status.
+		 * Per-bucket counts.
 		 */
-		@Getter
-		@NonNull // required field for Lombok
-		private WBRBCacheEntryWriteStatus writeStatus;
+		private final AtomicLongArray buckets;
 		
 		/**
-		 * Actual cached value (may be null if cache supports null values).
+		 * Maximum recorded value.
 		 */
-		@Getter
-		@Setter
-		private S value = fakeNonNull();
+		private final AtomicLong max = new AtomicLong(0);
 		
 		/**
-		 * In current/previous queue since this time.
+		 * Constructor.
 		 */
-		@Getter
-		@Setter
-		// FIX-ME make sure it is updated properly
-		private long inQueueSince;
+		public WBRBLatencyHistogram()
+		{
+			this(BUCKET_COUNT);
+		}
 		
 		/**
-		 * Tracks number of consecutive failures since last successful read
-		 * operation.
+		 * Constructor for subclasses that need different bucket storage size
+		 * (e.g. {@link #DISABLED} that doesn't store anything).
 		 */
-		@Getter
-		private final SimpleIntCounter readFailureCount = new SimpleIntCounter(0);
+		protected WBRBLatencyHistogram(int bucketCount)
+		{
+			this.buckets = new AtomicLongArray(bucketCount);
+		}
 		
 		/**
-		 * Tracks number of consecutive writes since last successful read
-		 * operation.
+		 * Records given latency value (in nanoseconds); negative values are
+		 * recorded as zero.
 		 */
-		@Getter
-		private final SimpleIntCounter writeFailureCount = new SimpleIntCounter(0);
+		public void recordNanos(long nanos)
+		{
+			final long value = Math.max(0, nanos);
+			
+			buckets.incrementAndGet(bucketIndex(value));
+			
+			long currentMax = max.get();
+			while (value > currentMax)
+			{
+				if (max.compareAndSet(currentMax, value))
+					break;
+				currentMax = max.get();
+			}
+		}
 		
 		/**
-		 * Keeps track of however many times full cache cycle completed for the
-		 * item without a full success (e.g. either read or write has failed);
-		 * useful to evict elements that keep failing
-		 * TO-DO check this is reset properly 
+		 * Gets snapshot of the current histogram state, optionally resetting
+		 * the histogram at the same time.
 		 */
-		@Getter
-		private final SimpleIntCounter fullCacheCycleFailureCount = new SimpleIntCounter(0);
+		public WBRBLatencySnapshot snapshot(boolean reset)
+		{
+			long[] counts = new long[BUCKET_COUNT];
+			for (int i = 0; i < counts.length; i++)
+				counts[i] = reset ? buckets.getAndSet(i, 0) : buckets.get(i);
+			
+			return new WBRBLatencySnapshot(counts, reset ? max.getAndSet(0) : max.get());
+		}
 		
 		/**
-		 * Keeps track of however many times item was re-added to the return
-		 * queue to determine when we should give up.
-		 * TO-DO check this is reset properly 
+		 * Calculates bucket index for the given (non-negative) value.
 		 */
-		@Getter
-		private final SimpleIntCounter returnQueueRetryCount = new SimpleIntCounter(0);
+		protected static int bucketIndex(long value)
+		{
+			if (value < SUB_BUCKET_COUNT)
+				return (int)value;
+			
+			int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+			int subBucket = (int)(value >>> shift) & (SUB_BUCKET_COUNT - 1);
+			
+			return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+		}
 		
 		/**
-		 * Keeps track of however many times full cache cycle completed for the
-		 * item while it is still in the cache. This is incremented at the end
-		 * of return queue (unlike failure count which is handled in main queue
-		 * processing).
-		 * <p>
-		 * Mainly for monitoring cache performance.
+		 * Calculates highest value that is recorded into the given bucket.
 		 */
-		@Getter
-		private final SimpleIntCounter fullCacheCycleCountByReturnQueue = new SimpleIntCounter(0);
-		
+		protected static long bucketUpperBound(int index)
+		{
+			if (index < SUB_BUCKET_COUNT)
+				return index;
+			
+			int shift = (index / SUB_BUCKET_COUNT) - 1;
+			long lowerBound = ((long)(SUB_BUCKET_COUNT + (index % SUB_BUCKET_COUNT))) << shift;
+			
+			return lowerBound + ((1L << shift) - 1);
+		}
+	}
+	
+	/**
+	 * Point-in-time snapshot of {@link WBRBLatencyHistogram} data.
+	 */
+	public static class WBRBLatencySnapshot
+	{
 		/**
-		 * Indicates whether updates to this cache entry should be collected;
-		 * updates are typically collected after cache write out until cache
-		 * value is re-read from storage -- they are used to merge data between
-		 * cached value and read-from-storage value.
+		 * Per-bucket counts.
 		 */
-		@Getter
-		@Setter
-		// FIX-ME this shouldn't be used as flag to determine course of operations, because e.g. client code may be doing merge w/o collecting updates
-		//       probably best to implement overridable method 'is merge possible' or some such
-		private boolean collectUpdates = false;
+		private final long[] counts;
 		
 		/**
-		 * List of updates executed on this cached value since last write out
-		 * (this is useful to be able to merge data between cached value and 
-		 * storage-read value).
+		 * Total number of samples.
 		 */
-		@Nullable
 		@Getter
-		@Setter
-		private List<UInt> collectedUpdates = null;
+		private final long count;
 		
 		/**
-		 * Is set when write fails with {@link WBRBCacheEntryWriteStatus#WRITE_FAILED_FINAL} status.
-		 * <p>
-		 * Used in {@link WriteBehindResyncInBackgroundCache#spiWriteLockProcessSplitForWrite(Object, Object, WBRBCacheEntry, WBRBCachePayload)}
-		 * <p>
-		 * ONLY used if write status is {@link WBRBCacheEntryWriteStatus#WRITE_FAILED_FINAL}
+		 * Maximum recorded value (in nanoseconds).
 		 */
 		@Getter
-		@Setter
-		private NullableOptional<W> previousFailedWriteData = NullableOptional.empty();
+		private final long maxNanos;
 		
-		/**
-		 * Field that can be used by custom extending code to store whatever it needs extra.
-		 * <p>
-		 * Field is marked as volatile to provide some cross-threads guarantees.
-		 * TO-DO keep? redo?
-		 * TO-DO needs copying/reset when cycling through cache?
-		 */
-		@Getter
-		@Setter
-		@Nullable
-		private volatile Object customDataField = null;
-
 		/**
 		 * Constructor.
 		 */
-		public WBRBCachePayload(
-			WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W, UExt, UInt>.WBRBCacheEntry parentCacheEntry,
-			@NonNull WBRBCacheEntryReadStatus readStatus,
-			@NonNull WBRBCacheEntryWriteStatus writeStatus,
-			long timeNow)
+		public WBRBLatencySnapshot(long[] counts, long maxNanos)
 		{
-			super();
-			this.parentCacheEntry = parentCacheEntry;
-			this.readStatus = readStatus;
-			this.writeStatus = writeStatus;
-			this.lastReadTimestamp = timeNow;
-			this.inQueueSince = timeNow;
+			this.counts = counts;
+			this.maxNanos = maxNanos;
+			
+			long total = 0;
+			for (long c : counts)
+				total += c;
+			this.count = total;
 		}
 		
 		/**
-		 * Custom setter makes sure to unlock the parent cache entry latch
-		 * if changing from the NOT_READ_YET status.
-		 * <p>
-		 * Therefore this is best called after everything else is ready.
+		 * Gets value (in nanoseconds) at the given percentile (e.g. 99.9) --
+		 * this is the highest value that is equivalent (within histogram 
+		 * precision) to the actual sample value; 0 if there are no samples.
 		 */
-		public void setReadStatus(WBRBCacheEntryReadStatus newReadStatus)
+		public long getValueAtPercentileNanos(double percentile)
 		{
-			WBRBCacheEntryReadStatus oldStatus = readStatus;
+			if (count == 0)
+				return 0;
 			
-			switch (oldStatus)
+			final long target = Math.max(1, (long)Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100));
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++)
 			{
-				case REMOVED_FROM_CACHE:
-					if (newReadStatus != oldStatus)
-					{
-						Exception e = new Exception("Attempt for element [" + parentCacheEntry.getKey() + "] to change read status from REMOVED_FROM_CACHE to " + newReadStatus);
-						logMessage(WBRBCacheMessage.ASSERTION_FAILED, e, e.toString());
-					}
-					return; // 'removed' status is final and should never be changed
-				case NOT_READ_YET:
-				case DATA_READY:
-				case DATA_READY_RESYNC_PENDING:
-				case DATA_READY_RESYNC_FAILED_FINAL:
-				case READ_FAILED_FINAL:
-					break;
+				seen += counts[i];
+				if (seen >= target)
+					return Math.min(WBRBLatencyHistogram.bucketUpperBound(i), maxNanos);
 			}
 			
-			readStatus = newReadStatus;
-			
-			if (oldStatus != newReadStatus)
-			{
-				switch (oldStatus)
-				{
-					case NOT_READ_YET:
-						parentCacheEntry.getAccessLatch().open(); // unlock access latch if initial read result is now known
-						break;
-					case DATA_READY:
-					case DATA_READY_RESYNC_PENDING:
-					case DATA_READY_RESYNC_FAILED_FINAL:
-					case READ_FAILED_FINAL:
-						break;
-					case REMOVED_FROM_CACHE:
-						logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
-						break;
-				}
-			}
+			return maxNanos; // can happen due to concurrent max updates
 		}
 		
 		/**
-		 * Custom setter -- ensures that {@link WBRBCacheEntryWriteStatus#REMOVED_FROM_CACHE}
-		 * is final (never changed to something else).
+		 * Same as {@link #getValueAtPercentileNanos(double)}, but in microseconds.
 		 */
-		public void setWriteStatus(WBRBCacheEntryWriteStatus newWriteStatus)
+		public long getValueAtPercentileMicros(double percentile)
 		{
-			WBRBCacheEntryWriteStatus oldStatus = writeStatus;
-			
-			switch (oldStatus)
-			{
-				case REMOVED_FROM_CACHE:
-					if (newWriteStatus != oldStatus)
-					{
-						Exception e = new Exception("Attempt for element [" + parentCacheEntry.getKey() + "] to change write status from REMOVED_FROM_CACHE to " + newWriteStatus);
-						logMessage(WBRBCacheMessage.ASSERTION_FAILED, e, e.toString());
-					}
-					return; // 'removed' status is final and should never be changed
-				case NO_WRITE_REQUESTED_YET:
-				case WRITE_PENDING:
-				case WRITE_SUCCESS:
-				case WRITE_FAILED_FINAL:
-					break;
-			}
-			
-			writeStatus = newWriteStatus;
+			return TimeUnit.NANOSECONDS.toMicros(getValueAtPercentileNanos(percentile));
+		}
+		
+		/**
+		 * Same as {@link #getMaxNanos()}, but in microseconds.
+		 */
+		public long getMaxMicros()
+		{
+			return TimeUnit.NANOSECONDS.toMicros(maxNanos);
 		}
 	}
 	
 	/**
-	 * Internal class used as entries in this cache.
+	 * Codec used to serialize/deserialize cached values of idle entries, see
+	 * {@link WBRBConfig#isSerializeIdleValues()}
+	 * <p>
+	 * Implementations must be thread-safe; failures are reported via
+	 * (unchecked) exceptions.
 	 */
-	@ToString
-	protected class WBRBCacheEntry
+	public static interface WBRBValueCodec<S>
 	{
 		/**
-		 * Key for this entry.
-		 * TO-DO check if this is actually necessary to keep around
-		 */
-		@Getter
-		private final K key;
-		
-		/**
-		 * Lock used to protect writes to the entry.
-		 * TO-DO consider whether fairness should be configurable?
-		 */
-		@Getter
-		private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
-		
-		/**
-		 * Latch is used to block access to data until the data is actually available
-		 * (since reads are asynchronous).
+		 * Serializes given cached value (which may be null if cache supports
+		 * null values).
 		 */
-		@Getter
-		private final Latch accessLatch = new Latch(false);
+		public byte[] encode(S value);
 		
 		/**
-		 * Entry payload, contains value and various service fields.
-		 * <p>
-		 * This field is volatile to provide some guarantee of access 
-		 * consistency between threads.
-		 */
-		@Getter
-		@Setter
-		private volatile WBRBCachePayload payload;
-	
-		/**
-		 * @param key
+		 * Deserializes value previously serialized via {@link #encode(Object)}
 		 */
-		public WBRBCacheEntry(@Nonnull K key, long timeNow)
-		{
-			super();
-			this.key = key;
-			this.payload = new WBRBCachePayload(this, 
-				WBRBCacheEntryReadStatus.NOT_READ_YET, WBRBCacheEntryWriteStatus.NO_WRITE_REQUESTED_YET, timeNow);
-		}
+		public S decode(byte[] data);
 	}
 	
 	/**
-	 * Entry in the write queue.
+	 * Default {@link WBRBValueCodec} implementation that uses Kryo with
+	 * default settings (thread-local Kryo instances are used, since Kryo is not
+	 * thread-safe).
 	 * <p>
-	 * FINAL everything to make in thread-safe.
+	 * Serialized data is only kept in memory, so there's no need to support
+	 * class changes.
 	 */
-	@RequiredArgsConstructor
-	@ToString
-	protected class WBRBWriteQueueEntry
+	public static class WBRBKryoValueCodec<S> implements WBRBValueCodec<S>
 	{
 		/**
-		 * Key for this entry.
-		 * TO-DO check if this is actually necessary to keep around
+		 * Kryo instances -- one per thread.
 		 */
-		@Getter
-		private final K key;
+		private final ThreadLocal<Kryo> kryo = ThreadLocal.withInitial(() -> createKryo());
 		
 		/**
-		 * Related cache entry.
-		 * <p>
-		 * WARNING -- be careful with access, should always be done under read or
-		 * write locks!
+		 * Creates Kryo instance to be used by a thread -- can be overridden to
+		 * e.g. register custom serializers.
 		 */
-		@Getter
-		private final WBRBCacheEntry cacheEntry;
+		protected Kryo createKryo()
+		{
+			return new Kryo();
+		}
 		
-		/**
-		 * Data to be written out.
-		 */
-		@Getter
-		private final W dataToWrite;
+		@Override
+		public byte[] encode(S value)
+		{
+			Output output = new Output(256, -1);
+			kryo.get().writeClassAndObject(output, value);
+			
+			return output.toBytes();
+		}
+
+		@Override
+		public S decode(byte[] data)
+		{
+			return TypeUtil.coerceUnknown(kryo.get().readClassAndObject(new Input(data)));
+		}
 	}
 	
 	/**
-	 * Indicates a 'merge decision' -- what to do with data that was just read
-	 * from the underlying storage and ought to be set or merged into an exising
-	 * cache entry.
+	 * Primitive-specialized 'list' of collected updates for caches whose
+	 * internal updates are numeric (long) deltas -- all added updates are
+	 * immediately summed up, so this list contains at most one element
+	 * (the total delta) and memory usage stays constant regardless of the 
+	 * number of updates.
+	 * <p>
+	 * To use, override {@link WriteBehindResyncInBackgroundCache#spiWriteLockUpdates_createCollectedUpdatesList(Object, WBRBCacheEntry, WBRBCachePayload)}
+	 * (this is only valid if applying two deltas one after another is the
+	 * same as applying their sum).
+	 * <p>
+	 * Not thread-safe (collected updates are only accessed under entry write lock).
 	 */
-	protected static enum WBRBMergeDecision
+	public static class WBRBLongDeltaCollectedUpdates extends AbstractList<Long> implements RandomAccess
 	{
 		/**
-		 * Set read data directly, no merging required.
+		 * Sum of all collected deltas.
 		 */
-		SET_DIRECTLY,
+		@Getter
+		private long sum = 0;
+		
 		/**
-		 * Merge data (that is try to merge read data with already existing data).
+		 * Whether anything was collected yet (list is empty otherwise).
 		 */
-		MERGE_DATA,
+		private boolean hasUpdates = false;
+		
 		/**
-		 * Do nothing (ignore the data that has been read (typically ought to also
-		 * log a problem)) except clear read pending status (if currently read is
-		 * pending), e.g.: 
-		 * {@link WBRBCacheEntryReadStatus#DATA_READY_RESYNC_PENDING}
-		 * ->
-		 * {@link WBRBCacheEntryReadStatus#DATA_READY_RESYNC_FAILED_FINAL};
-		 * {@link WBRBCacheEntryReadStatus#NOT_READ_YET} ->
-		 * {@link WBRBCacheEntryReadStatus#READ_FAILED_FINAL}
-		 * and similar
-		 */
-		CLEAR_READ_PENDING_STATUS,
-		/**
-		 * Do nothing, ignore the data that has been read (typically ought to also
-		 * log a problem).
-		 * <p>
-		 * WARNING: may cause issues if used improperly, such as not releasing
-		 * access latch.
-		 */
-		DO_NOTHING,
-		/**
-		 * Element must be removed from cache.
+		 * Adds given delta to the sum.
 		 */
-		REMOVE_FROM_CACHE,
-		;
+		public void addDelta(long delta)
+		{
+			sum += delta;
+			hasUpdates = true;
+		}
+		
+		@Override
+		public boolean add(Long delta)
+		{
+			addDelta(delta);
+			return true;
+		}
+		
+		@Override
+		public Long get(int index)
+		{
+			if ((index != 0) || !hasUpdates)
+				throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+			
+			return sum;
+		}
+		
+		@Override
+		public Long set(int index, Long element)
+		{
+			Long previous = get(index);
+			sum = element;
+			
+			return previous;
+		}
+		
+		@Override
+		public int size()
+		{
+			return hasUpdates ? 1 : 0;
+		}
+		
+		@Override
+		public void clear()
+		{
+			sum = 0;
+			hasUpdates = false;
+		}
 	}
 	
 	/**
-	 * Indicates a 'retry decision' -- what to do with failed read.
+	 * Marker at the start of cache snapshot files, see {@link WBRBConfig#getSnapshotFile()}
 	 */
-	protected static enum WBRBRetryDecision
+	protected static final int SNAPSHOT_MAGIC = 0x57425253; // 'WBRS'
+	
+	/**
+	 * Current version of the cache snapshot file format.
+	 */
+	protected static final int SNAPSHOT_VERSION = 1;
+	
+	/**
+	 * Sequential reader for cache snapshot files -- file is memory-mapped
+	 * in windows of limited size (so that huge snapshots do not require
+	 * huge address space), window is re-mapped when the next item doesn't
+	 * fit into the current one.
+	 * <p>
+	 * All numbers are big-endian (as written by {@link DataOutputStream}).
+	 * <p>
+	 * Not thread-safe.
+	 */
+	protected static class WBRBSnapshotFileReader implements Closeable
 	{
 		/**
-		 * Retry the failed operation.
-		 */
-		RETRY,
-		/**
-		 * No retry, set final failed status for the operation.
+		 * Size of the mapped window (can be larger for individual items that
+		 * are larger than this).
 		 */
-		NO_RETRY_SET_FINAL_FAILED_STATUS,
+		protected static final int WINDOW_SIZE = 16 * 1024 * 1024;
+		
 		/**
-		 * Do nothing, ignore the result (typically ought to also log a problem).
-		 * <p>
-		 * WARNING: may cause issues if used improperly, such as not releasing
-		 * access latch.
+		 * Channel for the snapshot file.
 		 */
-		DO_NOTHING,
+		protected final FileChannel channel;
+		
 		/**
-		 * Element must be removed from cache.
+		 * Size of the snapshot file.
 		 */
-		REMOVE_FROM_CACHE,
-		;
-	}
-	
-	/**
-	 * Indicates a decision for read queue item processing.
-	 */
-	protected static enum WBRBReadQueueProcessingDecision
-	{
+		protected final long fileSize;
+		
 		/**
-		 * Execute read flagged as 'non-refresh' one.
+		 * Position in the file where current window starts.
 		 */
-		INITIAL_READ,
+		protected long windowStart = 0;
+		
 		/**
-		 * Execute read marked as 'refresh read'.
+		 * Currently mapped window.
 		 */
-		REFRESH_READ,
+		protected MappedByteBuffer window;
+		
 		/**
-		 * Does nothing (including not changing any status) -- which might be
-		 * dangerous as it wouldn't, e.g., release access latch.
+		 * Constructor.
 		 */
-		DO_NOTHING,
+		public WBRBSnapshotFileReader(Path file) throws IOException
+		{
+			channel = FileChannel.open(file, StandardOpenOption.READ);
+			try
+			{
+				fileSize = channel.size();
+				window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(WINDOW_SIZE, fileSize));
+			} catch (IOException | RuntimeException e)
+			{
+				channel.close();
+				throw e;
+			}
+		}
+		
 		/**
-		 * Indicates that processing code should mark entry as 'read failed (final)'
-		 * and not queue it for read.
+		 * Makes sure that the current window has at least the given number
+		 * of bytes remaining (re-mapping window if necessary).
+		 * 
+		 * @throws EOFException if there's not enough data left in the file
 		 */
-		SET_FINAL_FAILED_READ_STATUS,
-	}
-	
-	/**
-	 * Indicates a decision for write queue item processing.
-	 */
-	protected static enum WBRBWriteQueueProcessingDecision
-	{
+		protected MappedByteBuffer ensureAvailable(int length) throws IOException
+		{
+			if (window.remaining() >= length)
+				return window;
+			
+			long position = windowStart + window.position();
+			if (fileSize - position < length)
+				throw new EOFException("Unexpected end of snapshot file at position " + position + ", needed " + length + " bytes, file size: " + fileSize);
+			
+			windowStart = position;
+			window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(Math.max(WINDOW_SIZE, length), fileSize - position));
+			
+			return window;
+		}
+		
 		/**
-		 * Do the write.
+		 * Reads next int.
 		 */
-		WRITE,
+		public int readInt() throws IOException
+		{
+			return ensureAvailable(Integer.BYTES).getInt();
+		}
+		
 		/**
-		 * Does nothing (including not changing any status) -- which might be
-		 * dangerous as it wouldn't do the 'expected' stuff.
+		 * Reads next long.
 		 */
-		DO_NOTHING,
+		public long readLong() throws IOException
+		{
+			return ensureAvailable(Long.BYTES).getLong();
+		}
+		
 		/**
-		 * Indicates that processing code should mark referenced cache entry 
-		 * as 'write failed (final)' and not queue it for the write.
+		 * Reads next given number of bytes.
 		 */
-		SET_FINAL_FAILED_WRITE_STATUS,
-	}
+		public byte[] readBytes(int length) throws IOException
+		{
+			if (length < 0)
+				throw new IOException("Corrupted snapshot file -- negative data length: " + length);
+			
+			byte[] result = new byte[length];
+			ensureAvailable(length).get(result);
+			
+			return result;
+		}
 
-	
+		@Override
+		public void close() throws IOException
+		{
+			channel.close();
+		}
+	}
 	
 	/**
-	 * Indicates a decision for whether main queue item being processed
-	 * shall be retained in cache.
-	 * FIX-ME probably needs a DO_NOTHING option for e.g. already-removed elements
+	 * Possible cache control statuses (not_started, running, shutdown...)
 	 */
-	@RequiredArgsConstructor
-	protected static enum WBRBMainQueueItemCacheRetainDecision
+	public static enum WBRBCacheControlState
 	{
 		/**
-		 * This is a 'normal' expected behavior -- item is sent to the return
-		 * queue after leaving main queue. 
-		 */
-		RETURN_QUEUE(10),
-		/**
-		 * Do the 'normal' processing as in {@link #RETURN_QUEUE} but keep
-		 * full cycle processing failure count (for failures where we want
-		 * to run standard processing but possibly abort at some point in the
-		 * future if it keeps failing).
+		 * Cache hasn't been started yet.
 		 */
-		RETURN_QUEUE_KEEP_FULL_CYCLE_FAILURE_COUNT(20),
+		NOT_STARTED,
 		/**
-		 * Put item in the return queue (as per normal), but DO NOT send anything
-		 * to write (this can be used to e.g. force new attempt at data resync).
-		 * <p>
-		 * This also 'keeps' (doesn't reset, increments) full cache cycle failure count
+		 * Cache is running (can handle access operations).
 		 */
-		RETURN_QUEUE_NO_WRITE(30),
+		RUNNING,
 		/**
-		 * The item is re-added to the main queue -- this can be useful e.g. if
-		 * previous pending write hasn't completed yet and we do not want to risk
-		 * queueing a new write yet.
+		 * Cache is flushing -- this is mainly useful for tests, tries to flush
+		 * all data from cache as soon as possible (similar to shutdown) but does
+		 * not shut down cache at the end.
 		 * <p>
-		 * WRITE IS NOT PERFORMED.
+		 * Standard cache operations (read/write) are NOT allowed during flushing
+		 * as it will interfere with flushing itself.
 		 */
-		MAIN_QUEUE(40),
+		FLUSHING,
 		/**
-		 * Item is removed from cache, useful e.g. if item is not in an useful
-		 * state, such as initial read has failed.
-		 * <p>
-		 * This is 'normal' item expiration, it is not logged as error.
-		 * <p>
-		 * WRITE IS NOT PERFORMED.
+		 * Cache shutdown is in progress.
 		 */
-		EXPIRE_FROM_CACHE(50),
+		SHUTDOWN_IN_PROGRESS,
 		/**
-		 * Item is removed from cache, useful e.g. if item is not in an useful
-		 * state, such as initial read has failed.
-		 * <p>
-		 * This is 'abnormal' item removal, it is logged as error.
-		 * <p>
-		 * WRITE IS NOT PERFORMED.
+		 * Cache has been fully shutdown.
 		 */
-		REMOVE_FROM_CACHE(60),
+		SHUTDOWN_COMPLETED,
 		;
-		
-		/**
-		 * How high is 'failure rating' for this item; the higher, the 'worse'
-		 * is the failure.
-		 * <p>
-		 * Used to determine between multiple values which one is the 'worst'.
-		 */
-		@Getter
-		private final int failureRating;
 	}
 	
-	
 	/**
-	 * Decision on how to proceed when initial read has failed (final status).
+	 * Possible statuses for cache entry read state.
+	 *
+	 * @author Sergey Olefir
 	 */
-	protected static enum WBRBInitialReadFailedFinalDecision
+	@NonNullByDefault
+	protected static enum WBRBCacheEntryReadStatus
 	{
+		NOT_READ_YET,
+		DATA_READY_RESYNC_PENDING,
+		DATA_READY,
 		/**
-		 * Element is removed from cache (this results in the loss of all
-		 * currently in-memory updates).
+		 * Indicates that reading data has failed and no further attempts will
+		 * be made.
 		 */
-		REMOVE_FROM_CACHE,
+		READ_FAILED_FINAL,
 		/**
-		 * Element is kept in the cache and any read (and maybe write) operations
-		 * will throw exception.
+		 * Indicates that reading data for resync has failed and no futher attemps
+		 * will be made.
 		 */
-		KEEP_AND_THROW_CACHE_READ_EXCEPTIONS,
+		DATA_READY_RESYNC_FAILED_FINAL,
+		/**
+		 * Element was removed from cache already.
+		 */
+		REMOVED_FROM_CACHE,
+		;
 	}
 	
-	
 	/**
-	 * Decision on how to proceed when background resync has failed (final status).
+	 * Possible statuses for cache entry write state.
+	 *
+	 * @author Sergey Olefir
 	 */
-	protected static enum WBRBResyncFailedFinalDecision
+	@NonNullByDefault
+	protected static enum WBRBCacheEntryWriteStatus
 	{
+		NO_WRITE_REQUESTED_YET,
+		WRITE_PENDING,
+		WRITE_SUCCESS,
+		WRITE_FAILED_FINAL,
 		/**
-		 * Element is removed from cache (this results in the loss of all
-		 * currently in-memory updates).
+		 * Element was removed from cache already.
+		 * FIX-ME use it to prevent failed write retries?
 		 */
-		REMOVE_FROM_CACHE,
+		REMOVED_FROM_CACHE,
+		;
+	}
+	
+	/**
+	 * Internal class holding cache entry state -- value and various service 
+	 * fields.
+	 * <p>
+	 * This is the base class of {@link WBRBCacheEntry} -- the state is kept
+	 * in the entry object itself (rather than in a separate payload object)
+	 * to keep per-entry memory footprint small; {@link WBRBCacheEntry#getPayload()}
+	 * simply returns the entry.
+	 * <p>
+	 * Fields that are only needed by optional features (see {@link #getWeight()},
+	 * {@link #isValueSerialized()}, {@link #getStorageDataAbsentSince()},
+	 * {@link #getQueuedWrite()}) are only present in {@link WBRBExtendedCacheEntry};
+	 * regular entries return default values for these.
+	 * <p>
+	 * State must be accessed under entry lock (except for volatile fields).
+	 */
+	@ToString
+	protected abstract class WBRBCachePayload
+	{
 		/**
-		 * Element is retained in cache, but updates are no longed collected
-		 * (this means that element cannot be resynced at a later date).
-		 */
-		STOP_COLLECTING_UPDATES,
-		/**
-		 * Element is retained in cache and updates are still collected -- this
-		 * allows for an option to resync at a later date but at the cost of
-		 * memory usage for collecting all the updates.
+		 * Track when this entry was last successfully synchronized with storage 
+		 * (via initial read or resync read).
 		 */
-		KEEP_COLLECTING_UPDATES,
-	}
-
-	
-	/**
-	 * Indicates a decision for how the item in return queue should be processed.
-	 */
-	@RequiredArgsConstructor
-	protected static enum WBRBReturnQueueItemProcessingDecisionAction
-	{
+		@Getter
+		@Setter
+		private long lastSyncedWithStorageTimestamp;
+		
 		/**
-		 * This is a 'normal' expected behavior -- item is sent to the main queue
-		 * and resync in initiated
+		 * Tracks timestamp of the last read of the data.
+		 * <p>
+		 * Zero value is not really used; positive values indicate last read
+		 * timestamp; negative values are an inversion of timestamp done
+		 * e.g. at the end of main queue in order to track whether any new
+		 * reads have been made since the inversion. 
+		 * <p>
+		 * volatile because it needs to be modifiable from read locks
 		 */
-		MAIN_QUEUE_PLUS_RESYNC(10),
+		@Getter
+		@Setter
+		private volatile long lastReadTimestamp;
+		
 		/**
-		 * Put item back into main queue but do not initiate a resync.
+		 * Tracks timestamp of the last write to the data.
+		 * <p>
+		 * Zero means no writes; positive values indicate last write timestamp
+		 * and that the data 'is dirty'; negative values are an inversion of
+		 * last write timestamp -- set e.g. at the end of main queue processing --
+		 * used to indicate that the data is no longer 'dirty' but to still keep
+		 * track of when the last write was done.
 		 */
-		MAIN_QUEUE_NO_RESYNC(20),
+		@Getter
+		@Setter
+		private long lastWriteTimestamp = 0;
+		
 		/**
-		 * Expire element from the cache (item is no longer needed).
-		 * <p>
-		 * This is 'normal' item expiration, it is not logged as error.
-		 * 
-		 * @see #REMOVE_FROM_CACHE
+		 * Entry read status.
 		 */
-		EXPIRE_FROM_CACHE(30),
+		@Getter
+		@NonNull // required field for Lombok
+		private WBRBCacheEntryReadStatus readStatus;
+		
 		/**
-		 * Item goes back to the return queue (basically a 'wait some more' 
-		 * action).
+		 * Entry write status.
 		 */
-		RETURN_QUEUE(40),
+		@Getter
+		@NonNull // required field for Lombok
+		private WBRBCacheEntryWriteStatus writeStatus;
+		
 		/**
-		 * Item is removed from cache, useful e.g. if item is not in an useful
-		 * state, such as initial read has failed.
+		 * Actual cached value (may be null if cache supports null values).
 		 * <p>
-		 * This is 'abnormal' item removal, it is logged as error.
-		 * 
-		 * @see #EXPIRE_FROM_CACHE
+		 * Use {@link #getValue()} which takes care of deserialization (if 
+		 * value may be serialized).
 		 */
-		REMOVE_FROM_CACHE(50),
+		private S value = fakeNonNull();
+		
 		/**
-		 * Do nothing -- e.g. if element was already removed from cache, then
-		 * it doesn't need to be re-added anywhere.
+		 * In current/previous queue since this time.
 		 */
-		DO_NOTHING(60),
-		;
+		@Getter
+		@Setter
+		// FIX-ME make sure it is updated properly
+		private long inQueueSince;
 		
 		/**
-		 * How high is 'failure rating' for this item; the higher, the 'worse'
-		 * is the failure.
-		 * <p>
-		 * Used to determine between multiple values which one is the 'worst'.
+		 * Tracks number of consecutive failures since last successful read
+		 * operation.
 		 */
 		@Getter
-		//TO-DO probably is not needed
-		private final int failureRating;
-	}
-	// CCC
-	@RequiredArgsConstructor
-	@ToString
-	protected static class WBRBReturnQueueItemProcessingDecision
-	{
+		private int readFailureCount = 0;
+		
 		/**
-		 * Constant for when we want to remove item from cache (so no need to
-		 * create new ones all the time).
+		 * Tracks number of consecutive writes since last successful read
+		 * operation.
 		 */
-		public static final WBRBReturnQueueItemProcessingDecision REMOVE_FROM_CACHE = 
-			new WBRBReturnQueueItemProcessingDecision(WBRBReturnQueueItemProcessingDecisionAction.REMOVE_FROM_CACHE, true);
+		@Getter
+		private int writeFailureCount = 0;
 		
 		/**
-		 * A 'do nothing' option that can be used instead of creating new instances.
+		 * Keeps track of however many times full cache cycle completed for the
+		 * item without a full success (e.g. either read or write has failed);
+		 * useful to evict elements that keep failing
+		 * TO-DO check this is reset properly 
 		 */
-		public static final WBRBReturnQueueItemProcessingDecision DO_NOTHING = 
-			new WBRBReturnQueueItemProcessingDecision(WBRBReturnQueueItemProcessingDecisionAction.DO_NOTHING, false);
+		@Getter
+		private int fullCacheCycleFailureCount = 0;
 		
 		/**
-		 * An 'expire from cache' option that can be used instead of creating new instances.
+		 * Keeps track of however many times item was re-added to the return
+		 * queue to determine when we should give up.
+		 * TO-DO check this is reset properly 
 		 */
-		public static final WBRBReturnQueueItemProcessingDecision EXPIRE_FROM_CACHE = 
-			new WBRBReturnQueueItemProcessingDecision(WBRBReturnQueueItemProcessingDecisionAction.EXPIRE_FROM_CACHE, true);
-		
-		// CCC
 		@Getter
-		@NonNull // force Lombok to do null-check
-		private final WBRBReturnQueueItemProcessingDecisionAction action;
+		private int returnQueueRetryCount = 0;
 		
-		// CCC
-		@Getter
-		private final boolean stopCollectingUpdates;
-	}
-	
-	/**
-	 * Action when deciding whether to access item from cache.
-	 */
-	protected static enum WBRBCacheAccessDecisionAction
-	{
 		/**
-		 * Value successfully read & returned
+		 * Keeps track of however many times full cache cycle completed for the
+		 * item while it is still in the cache. This is incremented at the end
+		 * of return queue (unlike failure count which is handled in main queue
+		 * processing).
+		 * <p>
+		 * Mainly for monitoring cache performance.
 		 */
-		VALUE_RETURNED,
+		@Getter
+		private int fullCacheCycleCountByReturnQueue = 0;
+		
+		// Counters above are plain ints (rather than counter objects) to keep
+		// per-entry memory footprint small; same as before, they are not
+		// thread-safe and must be accessed under the entry's write lock.
+		
+		/** Increments {@link #readFailureCount} and returns new value. */
+		public int incrementReadFailureCount() {return ++readFailureCount;}
+		/** Resets {@link #readFailureCount} to zero. */
+		public void resetReadFailureCount() {readFailureCount = 0;}
+		
+		/** Increments {@link #writeFailureCount} and returns new value. */
+		public int incrementWriteFailureCount() {return ++writeFailureCount;}
+		/** Resets {@link #writeFailureCount} to zero. */
+		public void resetWriteFailureCount() {writeFailureCount = 0;}
+		
+		/** Increments {@link #fullCacheCycleFailureCount} and returns new value. */
+		public int incrementFullCacheCycleFailureCount() {return ++fullCacheCycleFailureCount;}
+		/** Resets {@link #fullCacheCycleFailureCount} to zero. */
+		public void resetFullCacheCycleFailureCount() {fullCacheCycleFailureCount = 0;}
+		
+		/** Increments {@link #returnQueueRetryCount} and returns new value. */
+		public int incrementReturnQueueRetryCount() {return ++returnQueueRetryCount;}
+		/** Resets {@link #returnQueueRetryCount} to zero. */
+		public void resetReturnQueueRetryCount() {returnQueueRetryCount = 0;}
+		
+		/** Increments {@link #fullCacheCycleCountByReturnQueue} and returns new value. */
+		public int incrementFullCacheCycleCountByReturnQueue() {return ++fullCacheCycleCountByReturnQueue;}
+		
 		/**
-		 * Exception returned that needs to be thrown.
-		 * 
-		 * @see #RETURN_EXCEPTION
+		 * Indicates whether updates to this cache entry should be collected;
+		 * updates are typically collected after cache write out until cache
+		 * value is re-read from storage -- they are used to merge data between
+		 * cached value and read-from-storage value.
 		 */
-		THROW_EXCEPTION,
+		@Getter
+		@Setter
+		// FIX-ME this shouldn't be used as flag to determine course of operations, because e.g. client code may be doing merge w/o collecting updates
+		//       probably best to implement overridable method 'is merge possible' or some such
+		private boolean collectUpdates = false;
+		
 		/**
-		 * Exception that indicates a problem, but is not necessarily thrown
-		 * (e.g. can be returned as part of {@link NullableOptional})
-		 * 
-		 * @see #THROW_EXCEPTION
+		 * List of updates executed on this cached value since last write out
+		 * (this is useful to be able to merge data between cached value and 
+		 * storage-read value).
 		 */
-		RETURN_EXCEPTION,
+		@Nullable
+		@Getter
+		@Setter
+		private List<UInt> collectedUpdates = null;
+		
 		/**
-		 * Value is not read from the storage yet, wait for latch.
+		 * Is set when write fails with {@link WBRBCacheEntryWriteStatus#WRITE_FAILED_FINAL} status.
+		 * <p>
+		 * Used in {@link WriteBehindResyncInBackgroundCache#spiWriteLockProcessSplitForWrite(Object, Object, WBRBCacheEntry, WBRBCachePayload)}
+		 * <p>
+		 * ONLY used if write status is {@link WBRBCacheEntryWriteStatus#WRITE_FAILED_FINAL}
 		 */
-		WAIT_FOR_LATCH,
+		@Getter
+		@Setter
+		private NullableOptional<W> previousFailedWriteData = NullableOptional.empty();
+		
 		/**
-		 * This value has been removed from cache, need to attempt a re-read.
+		 * Field that can be used by custom extending code to store whatever it needs extra.
+		 * <p>
+		 * Field is marked as volatile to provide some cross-threads guarantees.
+		 * TO-DO keep? redo?
+		 * TO-DO needs copying/reset when cycling through cache?
 		 */
-		REMOVED_FROM_CACHE,
-		;
-	}
-	
-	/**
-	 * Decision whether to access an item from cache.
-	 * 
-	 * @see WriteBehindResyncInBackgroundCache#WBRBCacheAccessDecision_WAIT_FOR_LATCH
-	 * @see WriteBehindResyncInBackgroundCache#WBRBCacheAccessDecision_REMOVED_FROM_CACHE
-	 * @see WriteBehindResyncInBackgroundCache#WBRBCacheAccessDecision_WRITE_ALLOWED
-	 */
-	@ToString(doNotUseGetters = true)
-	protected class WBRBCacheAccessDecision
-	{
+		@Getter
+		@Setter
+		@Nullable
+		private volatile Object customDataField = null;
+
 		/**
-		 * Action associated with this decision.
+		 * Constructor.
 		 */
-		@Getter
-		private final WBRBCacheAccessDecisionAction action;
+		protected WBRBCachePayload(
+			@NonNull WBRBCacheEntryReadStatus readStatus,
+			@NonNull WBRBCacheEntryWriteStatus writeStatus,
+			long timeNow)
+		{
+			super();
+			this.readStatus = readStatus;
+			this.writeStatus = writeStatus;
+			this.lastReadTimestamp = timeNow;
+			this.inQueueSince = timeNow;
+		}
 		
 		/**
-		 * Value read in this decision (only available for appropriate {@link #action})
+		 * Key of the cache entry.
 		 */
-		private final S readValue;
+		public abstract K getKey();
 		
 		/**
-		 * Exception to be thrown in this decision (only available for appropriate
-		 * {@link #action})
+		 * Opens access latch of the cache entry (when initial read result
+		 * becomes known).
 		 */
-		private final CacheIllegalStateException exception;
+		protected abstract void openAccessLatch();
 		
 		/**
-		 * Constructor.
+		 * Actual cached value (may be null if cache supports null values).
 		 */
-		private WBRBCacheAccessDecision(WBRBCacheAccessDecisionAction action, S readValue, 
-			CacheIllegalStateException exception)
+		public S getValue()
 		{
-			this.action = action;
-			this.readValue = readValue;
-			this.exception = exception;
+			return value;
 		}
 		
 		/**
-		 * Constructor for the case when we return value.
+		 * Sets actual cached value.
 		 */
-		public WBRBCacheAccessDecision(S readValue)
+		public void setValue(S newValue)
 		{
-			this(WBRBCacheAccessDecisionAction.VALUE_RETURNED, readValue, fakeNonNull());
+			value = newValue;
 		}
 		
 		/**
-		 * Constructor for the case when we return exception to be thrown.
-		 * 
-		 * @param throwException true for {@link WBRBCacheAccessDecisionAction#THROW_EXCEPTION}
-		 * 		action, false for {@link WBRBCacheAccessDecisionAction#RETURN_EXCEPTION}
+		 * Weight of the currently cached value as last calculated by
+		 * {@link WriteBehindResyncInBackgroundCache#haveWriteLock_SetCachedValue(Object, WBRBCacheEntry, WBRBCachePayload, Object)};
+		 * this is already included in the corresponding {@link WriteBehindResyncInBackgroundCache#queueShardWeights}
+		 * <p>
+		 * Always zero if weighing is not enabled.
 		 */
-		public WBRBCacheAccessDecision(boolean throwException, CacheIllegalStateException exception)
+		public long getWeight()
 		{
-			this(throwException ? 
-					WBRBCacheAccessDecisionAction.THROW_EXCEPTION
-				:	WBRBCacheAccessDecisionAction.RETURN_EXCEPTION
-				, fakeNonNull(), exception);
+			return 0;
 		}
 		
-		public S getReadValue() throws CacheInternalException
+		/**
+		 * Sets weight, see {@link #getWeight()} -- only supported by {@link WBRBExtendedCacheEntry}
+		 */
+		public void setWeight(long newWeight)
 		{
-			WBRBCacheAccessDecisionAction act = getAction();
-			switch (act)
-			{
-				case REMOVED_FROM_CACHE:
-				case THROW_EXCEPTION:
-				case RETURN_EXCEPTION:
-				case WAIT_FOR_LATCH:
-					logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable (method should not be called in this action)");
-					throw new CacheInternalException("Illegal action for requesting readValue(): " + act);
-				case VALUE_RETURNED:
-					return readValue;
-			}
-			
-			logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
-			throw new CacheInternalException("assertion failed -- code should not be reachable");
+			assertOptionalFieldNotSet("weight", newWeight != 0);
 		}
 		
-		public CacheIllegalStateException getException() throws CacheInternalException
+		/**
+		 * Whether value is currently kept in serialized form, see {@link WBRBConfig#isSerializeIdleValues()}
+		 */
+		public boolean isValueSerialized()
 		{
-			WBRBCacheAccessDecisionAction act = getAction();
-			switch (act)
-			{
-				case REMOVED_FROM_CACHE:
-				case VALUE_RETURNED:
-				case WAIT_FOR_LATCH:
-					logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable (method should not be called in this action)");
-					throw new CacheInternalException("Illegal action for requesting getException(): " + act);
-				case RETURN_EXCEPTION:
-				case THROW_EXCEPTION:
-					return exception;
-			}
-			
-			logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
-			throw new CacheInternalException("assertion failed -- code should not be reachable");
+			return false;
 		}
-
-		// TO-DO remove cuz have annotation?
-//		@Override
-//		public String toString()
-//		{
-//			return getClass().getSimpleName() + "[" + action + ": " + readValue + " / exc: " + exception + "]";
-//		}
-	}
-	/**
-	 * Constant for indicating that read operation should wait for latch
-	 */
-	protected final WBRBCacheAccessDecision WBRBCacheAccessDecision_WAIT_FOR_LATCH = new WBRBCacheAccessDecision(
-		WBRBCacheAccessDecisionAction.WAIT_FOR_LATCH, fakeNonNull(), fakeNonNull());
-	/**
-	 * Constant for indicating that this entry was removed from cache and read 
-	 * operation should retry.
-	 */
-	protected final WBRBCacheAccessDecision WBRBCacheAccessDecision_REMOVED_FROM_CACHE = new WBRBCacheAccessDecision(
-		WBRBCacheAccessDecisionAction.REMOVED_FROM_CACHE, fakeNonNull(), fakeNonNull());
-	/**
-	 * Constant for indicating decision that allows write (write decision doesn't
-	 * require returning any actual value).
-	 */
-	@SuppressWarnings("unchecked")
-	protected final WBRBCacheAccessDecision WBRBCacheAccessDecision_WRITE_ALLOWED =
-		new WBRBCacheAccessDecision((S)new Object());
-	
-	
-	/**
-	 * Split data for when cached value needs to be written out, e.g. in
-	 * {@link #splitForWrite(Object, Object)}
-	 */
-	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
-	@ToString
-	protected class WriteSplit
-	{
+		
 		/**
-		 * New cache data to be stored instead of the old one (may be the same
-		 * instance as the old one).
+		 * Replaces actual cached value with its serialized form (actual value
+		 * reference is dropped so that it can be garbage-collected) -- only
+		 * supported by {@link WBRBExtendedCacheEntry}
 		 */
-		@Getter
-		@NonNull // for Lombok Non-Null checking
-		private final S newCacheData;
+		public void setSerializedValue(@SuppressWarnings("unused") ByteBuffer newSerializedValue)
+		{
+			assertOptionalFieldNotSet("serialized value", true);
+		}
 		
 		/**
-		 * Data to send for writing.
+		 * Discards serialized value (if any) and releases its buffer -- this
+		 * is used when serialized value is no longer needed (e.g. when entry
+		 * is removed from cache).
 		 */
-		@Getter
-		@NonNull // for Lombok Non-Null checking
-		private final NullableOptional<W> writeData;
+		public void discardSerializedValue()
+		{
+			// nothing to discard, regular entries never keep serialized values
+		}
 		
 		/**
-		 * Constructor for the case when there's no write data (i.e. write
-		 * is not required).
+		 * If positive, then this is a negative cache entry (initial read
+		 * found no data in the storage, see {@link WBRBConfig#isNegativeCaching()})
+		 * and this is the time when that was recorded; zero otherwise.
+		 * <p>
+		 * Can be checked without locking.
 		 */
-		public WriteSplit(S newCacheData)
+		public long getStorageDataAbsentSince()
 		{
-			this(newCacheData, NullableOptional.empty());
+			return 0;
 		}
 		
 		/**
-		 * Constructor for when there's both new cache data and write data (i.e.
-		 * write will be executed)
+		 * Sets 'storage data absent since', see {@link #getStorageDataAbsentSince()}
+		 * -- only supported by {@link WBRBExtendedCacheEntry}
 		 */
-		public WriteSplit(S newCacheData, W dataToWrite)
+		public void setStorageDataAbsentSince(long newStorageDataAbsentSince)
 		{
-			this(newCacheData, NullableOptional.of(dataToWrite));
+			assertOptionalFieldNotSet("storage data absent since", newStorageDataAbsentSince != 0);
 		}
-	}
-	
-	/**
-	 * A {@link WriteSplit} instance with additional flags.
-	 */
-	@RequiredArgsConstructor
-	@ToString
-	protected class WBRBWriteSplitWithFlags
-	{
+		
 		/**
-		 * Actual {@link WriteSplit}
+		 * Whether this is a negative cache entry (initial read found no data
+		 * in the storage), see {@link #getStorageDataAbsentSince()}
 		 */
-		@Getter
-		@NonNull // for Lombok Non-Null checking
-		private final WriteSplit writeSplit;
+		public boolean isStorageDataAbsent()
+		{
+			return getStorageDataAbsentSince() > 0;
+		}
 		
 		/**
-		 * Whether write data (in {@link #writeSplit}) contains all pending
-		 * updates (in case write merge is not supported, it is possible that
-		 * we have some write data that needs to be stored plus further updates
-		 * that aren't included in that write data -- in this case this flag
-		 * is false). 
+		 * Write that is currently waiting in the write queue and hasn't been
+		 * picked up by the write queue processor yet -- its data can still be
+		 * replaced.
+		 * <p>
+		 * ONLY used if {@link WriteBehindResyncInBackgroundCache#coalesceQueuedWrites}
+		 * is enabled; both setting and clearing happen under write lock.
 		 */
-		@Getter
-		private final boolean writeDataContainsAllPendingUpdates;
+		@Nullable
+		public WBRBWriteQueueEntry getQueuedWrite()
+		{
+			return null;
+		}
+		
+		/**
+		 * Sets queued write, see {@link #getQueuedWrite()} -- only supported
+		 * by {@link WBRBExtendedCacheEntry}
+		 */
+		public void setQueuedWrite(@Nullable WBRBWriteQueueEntry newQueuedWrite)
+		{
+			assertOptionalFieldNotSet("queued write", newQueuedWrite != null);
+		}
+		
+		/**
+		 * Logs assertion failure if there's an attempt to set optional field 
+		 * (one that only {@link WBRBExtendedCacheEntry} has) to non-default
+		 * value in a regular entry -- this indicates a bug in deciding which
+		 * entry class to use, see {@link WriteBehindResyncInBackgroundCache#isExtendedCacheEntryNeeded()}
+		 */
+		protected void assertOptionalFieldNotSet(String fieldName, boolean nonDefaultValue)
+		{
+			if (!nonDefaultValue)
+				return;
+			
+			Exception e = new Exception("Attempt for element [" + getKey() + "] to set " + fieldName + " which is not supported by " + getClass().getSimpleName());
+			logMessage(WBRBCacheMessage.ASSERTION_FAILED, e, e.toString());
+		}
+		
+		/**
+		 * Custom setter makes sure to unlock the parent cache entry latch
+		 * if changing from the NOT_READ_YET status.
+		 * <p>
+		 * Therefore this is best called after everything else is ready.
+		 */
+		public void setReadStatus(WBRBCacheEntryReadStatus newReadStatus)
+		{
+			WBRBCacheEntryReadStatus oldStatus = readStatus;
+			
+			switch (oldStatus)
+			{
+				case REMOVED_FROM_CACHE:
+					if (newReadStatus != oldStatus)
+					{
+						Exception e = new Exception("Attempt for element [" + getKey() + "] to change read status from REMOVED_FROM_CACHE to " + newReadStatus);
+						logMessage(WBRBCacheMessage.ASSERTION_FAILED, e, e.toString());
+					}
+					return; // 'removed' status is final and should never be changed
+				case NOT_READ_YET:
+				case DATA_READY:
+				case DATA_READY_RESYNC_PENDING:
+				case DATA_READY_RESYNC_FAILED_FINAL:
+				case READ_FAILED_FINAL:
+					break;
+			}
+			
+			readStatus = newReadStatus;
+			
+			if (oldStatus != newReadStatus)
+			{
+				switch (oldStatus)
+				{
+					case NOT_READ_YET:
+						openAccessLatch(); // unlock access latch if initial read result is now known
+						break;
+					case DATA_READY:
+					case DATA_READY_RESYNC_PENDING:
+					case DATA_READY_RESYNC_FAILED_FINAL:
+					case READ_FAILED_FINAL:
+						break;
+					case REMOVED_FROM_CACHE:
+						logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
+						break;
+				}
+			}
+		}
+		
+		/**
+		 * Custom setter -- ensures that {@link WBRBCacheEntryWriteStatus#REMOVED_FROM_CACHE}
+		 * is final (never changed to something else).
+		 */
+		public void setWriteStatus(WBRBCacheEntryWriteStatus newWriteStatus)
+		{
+			WBRBCacheEntryWriteStatus oldStatus = writeStatus;
+			
+			switch (oldStatus)
+			{
+				case REMOVED_FROM_CACHE:
+					if (newWriteStatus != oldStatus)
+					{
+						Exception e = new Exception("Attempt for element [" + getKey() + "] to change write status from REMOVED_FROM_CACHE to " + newWriteStatus);
+						logMessage(WBRBCacheMessage.ASSERTION_FAILED, e, e.toString());
+					}
+					return; // 'removed' status is final and should never be changed
+				case NO_WRITE_REQUESTED_YET:
+				case WRITE_PENDING:
+				case WRITE_SUCCESS:
+				case WRITE_FAILED_FINAL:
+					break;
+			}
+			
+			writeStatus = newWriteStatus;
+		}
 	}
 	
 	/**
-	 * Decision when processing {@link #mainQueue}
+	 * Pool of off-heap memory used to store serialized values of idle entries,
+	 * see {@link WBRBConfig#isSerializeIdleValuesOffHeap()}
+	 * <p>
+	 * Memory is allocated in large direct 'slabs' which are carved into 
+	 * power-of-two-sized chunks; each allocation gets a slice of a chunk
+	 * (the smallest one that fits), released chunks are reused for subsequent
+	 * allocations of the same size class. This avoids the (expensive) direct 
+	 * buffer allocation and cleanup per entry.
+	 * <p>
+	 * Data larger than max chunk size is allocated in a separate (non-pooled)
+	 * direct buffer.
+	 * <p>
+	 * Slabs are never freed -- pool size is determined by the peak usage.
+	 * <p>
+	 * Thread-safe.
 	 */
-	@RequiredArgsConstructor
-	@ToString
-	protected class WBRBMainQueueProcessingDecision
+	public static class WBRBOffHeapSlabPool
 	{
+		/**
+		 * Size of a single slab.
+		 */
 		@Getter
-		@NonNull // for Lombok Non-Null checking
-		private final WBRBMainQueueItemCacheRetainDecision decision;
-
+		private final int slabSize;
+		
+		/**
+		 * Size of the smallest chunk (power of two).
+		 */
 		@Getter
-		@NonNull // for Lombok Non-Null checking
-		private final WBRBWriteSplitWithFlags writeSplitWithFlags;
-	}
-	
-	
-	/**
-	 * Possible event types in {@link WriteBehindResyncInBackgroundCache#spiUnknownLock_Event(WBRBEvent, Object, WBRBCacheEntry, WBRBCachePayload, Throwable, Object...)}
-	 */
-	protected static enum WBRBEvent
-	{
+		private final int minChunkSize;
+		
 		/**
-		 * Internal debug event -- used when necessary to debug something internally
-		 * <p> 
-		 * Arguments: whatever is appropriate, typically description should be 
-		 * included.
+		 * Size of the largest chunk (power of two).
 		 */
-		DEBUG_EVENT_INTERNAL,
+		@Getter
+		private final int maxChunkSize;
 		
 		/**
-		 * Item from the read queue processed
-		 * <p>
-		 * Arguments: {@link WBRBReturnQueueItemProcessingDecision}
+		 * Free chunks for each size class (index 0 is for {@link #minChunkSize}, 
+		 * each next one is twice the size).
 		 */
-		READ_QUEUE_ITEM_PROCESSED,
+		private final ConcurrentLinkedQueue<ByteBuffer>[] freeChunks;
+		
 		/**
-		 * Item from the write queue processed
+		 * Slab currently used for carving new chunks; null if there's none yet.
 		 * <p>
-		 * Arguments: no cache entry, no payload, {@link WBRBWriteQueueProcessingDecision}, {@link WBRBWriteQueueEntry}
+		 * Synchronized on this pool.
 		 */
-		WRITE_QUEUE_ITEM_PROCESSED,
+		@Nullable
+		private ByteBuffer currentSlab = null;
+		
 		/**
-		 * Item from the main queue was processed
-		 * <p>
-		 * Arguments: {@link WBRBMainQueueProcessingDecision}
+		 * Number of slabs allocated so far.
 		 */
-		MAIN_QUEUE_ITEM_PROCESSED,
+		private final AtomicLong slabCount = new AtomicLong(0);
+		
 		/**
-		 * Item from the return queue was processed
-		 * <p>
-		 * Arguments: {@link WBRBReturnQueueItemProcessingDecision}
+		 * Number of (non-pooled) allocations that were too big for any chunk.
 		 */
-		RETURN_QUEUE_ITEM_PROCESSED,
+		private final AtomicLong oversizedAllocationsCount = new AtomicLong(0);
+		
 		/**
-		 * Item was read successfully and merge decision was taken
-		 * <p>
-		 * Arguments: {@link WBRBMergeDecision}
+		 * Constructor.
+		 * 
+		 * @param slabSize size of a single slab, must be at least maxChunkSize
+		 * @param minChunkSize size of the smallest chunk, must be a positive power of two
+		 * @param maxChunkSize size of the largest chunk, must be a power of two
+		 * 		not less than minChunkSize
 		 */
-		READ_SUCCESS_DECISION,
+		public WBRBOffHeapSlabPool(int slabSize, int minChunkSize, int maxChunkSize)
+			throws IllegalArgumentException
+		{
+			if ((minChunkSize < 1) || (Integer.bitCount(minChunkSize) != 1))
+				throw new IllegalArgumentException("minChunkSize must be a positive power of two, got: " + minChunkSize);
+			if ((maxChunkSize < minChunkSize) || (Integer.bitCount(maxChunkSize) != 1))
+				throw new IllegalArgumentException("maxChunkSize must be a power of two not less than minChunkSize (" + minChunkSize + "), got: " + maxChunkSize);
+			if (slabSize < maxChunkSize)
+				throw new IllegalArgumentException("slabSize must not be less than maxChunkSize (" + maxChunkSize + "), got: " + slabSize);
+			
+			this.slabSize = slabSize;
+			this.minChunkSize = minChunkSize;
+			this.maxChunkSize = maxChunkSize;
+			
+			int classCount = Integer.numberOfTrailingZeros(maxChunkSize) - Integer.numberOfTrailingZeros(minChunkSize) + 1;
+			this.freeChunks = TypeUtil.coerce(new ConcurrentLinkedQueue<?>[classCount]);
+			for (int i = 0; i < classCount; i++)
+				freeChunks[i] = new ConcurrentLinkedQueue<>();
+		}
+		
 		/**
-		 * Item failed read, the retry decision and potentially final-fail 
-		 * decision were taken
+		 * Allocates (off-heap) buffer for the data of the given length; 
+		 * returned buffer has position 0 and limit equal to length.
 		 * <p>
-		 * Arguments: {@link WBRBRetryDecision}, {@link NullableOptional} of 
-		 * {@link WBRBInitialReadFailedFinalDecision} or {@link WBRBResyncFailedFinalDecision} 
+		 * Buffer must be returned via {@link #release(ByteBuffer)} once 
+		 * it is no longer needed (and must not be used afterwards).
 		 */
-		READ_FAIL_DECISION,
+		public ByteBuffer allocate(int length)
+		{
+			final ByteBuffer chunk;
+			if (length > maxChunkSize)
+			{
+				oversizedAllocationsCount.incrementAndGet();
+				chunk = ByteBuffer.allocateDirect(length);
+			}
+			else
+			{
+				int sizeClass = sizeClassFor(length);
+				ByteBuffer free = freeChunks[sizeClass].poll();
+				chunk = free != null ? free : carveChunk(minChunkSize << sizeClass);
+			}
+			
+			chunk.clear();
+			chunk.limit(length);
+			
+			return chunk;
+		}
+		
 		/**
-		 * Item was written successfully
-		 * <p>
-		 * Arguments: {@link WBRBWriteQueueEntry}
+		 * Returns buffer previously obtained via {@link #allocate(int)} to the
+		 * pool; buffers that are not pooled (such as heap buffers or oversized
+		 * allocations) are ignored.
 		 */
-		WRITE_SUCCESS,
+		public void release(ByteBuffer buffer)
+		{
+			if (!buffer.isDirect())
+				return;
+			
+			int capacity = buffer.capacity();
+			if ((capacity > maxChunkSize) || (capacity < minChunkSize) || (Integer.bitCount(capacity) != 1))
+				return; // not a pooled chunk
+			
+			freeChunks[sizeClassFor(capacity)].add(buffer);
+		}
+		
 		/**
-		 * Item failed to write, the retry decision was taken
-		 * <p>
-		 * Arguments: {@link WBRBRetryDecision}, {@link WBRBWriteQueueEntry}
+		 * Number of slabs allocated so far.
 		 */
-		WRITE_FAIL_DECISION,
+		public long getSlabCount()
+		{
+			return slabCount.get();
+		}
+		
 		/**
-		 * Item was added to cache
-		 * <p>
-		 * Arguments: no payload
+		 * Number of (non-pooled) allocations that were too big for any chunk.
 		 */
-		CACHE_ADD,
+		public long getOversizedAllocationsCount()
+		{
+			return oversizedAllocationsCount.get();
+		}
+		
 		/**
-		 * Item was removed from cache
-		 * <p>
-		 * Arguments: no payload
+		 * Index of the smallest size class that fits the given length (length
+		 * must not exceed {@link #maxChunkSize}).
 		 */
-		CACHE_REMOVE,
+		protected int sizeClassFor(int length)
+		{
+			if (length <= minChunkSize)
+				return 0;
+			
+			int chunkSize = Integer.highestOneBit(length - 1) << 1; // smallest power of two that is >= length
+			return Integer.numberOfTrailingZeros(chunkSize) - Integer.numberOfTrailingZeros(minChunkSize);
+		}
+		
 		/**
-		 * Successful write event for the cache item (although still can fail
-		 * later on while collecting update)
-		 * <p>
-		 * Arguments: update value (ATTN: can be null if cache accepts those; not
-		 * wrapped into {@link NullableOptional} for performance reasons)
+		 * Carves a new chunk of the given size from the current slab (allocating
+		 * a new slab if needed).
 		 */
-		CACHE_WRITE,
+		protected synchronized ByteBuffer carveChunk(int chunkSize)
+		{
+			ByteBuffer slab = currentSlab;
+			if ((slab == null) || (slab.remaining() < chunkSize))
+			{
+				if (slab != null)
+				{
+					// Don't waste the rest of the old slab -- split it into 
+					// the largest chunks possible
+					for (int size = maxChunkSize; size >= minChunkSize; size >>= 1)
+					{
+						while (slab.remaining() >= size)
+							freeChunks[sizeClassFor(size)].add(sliceChunk(slab, size));
+					}
+				}
+				
+				slab = ByteBuffer.allocateDirect(slabSize);
+				slabCount.incrementAndGet();
+				currentSlab = slab;
+			}
+			
+			return sliceChunk(slab, chunkSize);
+		}
+		
 		/**
-		 * Successful read event for the cache item
-		 * <p>
-		 * Arguments: {@link NullableOptional} of {@link R} (value returned from cache)
+		 * Slices a chunk of the given size at the slab's position and advances
+		 * the position.
 		 */
-		CACHE_READ,
-		;
+		protected ByteBuffer sliceChunk(ByteBuffer slab, int chunkSize)
+		{
+			ByteBuffer view = slab.duplicate();
+			view.limit(view.position() + chunkSize);
+			slab.position(view.limit());
+			
+			return view.slice();
+		}
 	}
-
+	
 	/**
-	 * Indicates reason as to why {@link WriteBehindResyncInBackgroundCache#spiWriteLockUpdates_reset(boolean, Object, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBCacheEntry, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBCachePayload)}
-	 * is called (lets implementations to make their own decisions as to whether
-	 * to collect updates).
-	 *
-	 * @author Sergey Olefir
+	 * Shared (always open) access latch that is assigned to cache entries
+	 * once their initial read result is known, so that entries do not keep
+	 * their own latch instances around for their entire lifetime.
+	 * <p>
+	 * MUST NOT be closed.
 	 */
-	protected enum WBRBUpdatesResetReason
+	protected static final Latch OPEN_ACCESS_LATCH = new Latch(true);
+	
+	/**
+	 * Access latch of a cache entry (see {@link WBRBCacheEntry#getAccessLatch()}),
+	 * it additionally keeps listeners that are to be run when the latch is
+	 * opened (see {@link WBRBCacheEntry#addAccessLatchListener(Runnable)}) --
+	 * so that entries themselves don't need a field for these.
+	 * <p>
+	 * Listeners are accessed while synchronized on the owning entry.
+	 */
+	protected static class WBRBAccessLatch extends Latch
 	{
 		/**
-		 * New entry has been created for the cache.
-		 * <p>
-		 * NOTE: in this case NO LOCK is held, however it is executed in a
-		 * thread-safe manner (e.g. before object reference is shared) so
-		 * the typical implementation should not care about the difference.
-		 * <p>
-		 * NOTE2: it is possible under contention that newly created entry will
-		 * be immediatelly discarded without adding to the cache; implementations
-		 * might want to keep this in mind.
+		 * Listeners to be run when latch is opened; null if there are none.
 		 */
-		NO_WRITE_LOCK_NEW_CACHE_ENTRY_CREATED,
+		@Nullable
+		private List<Runnable> listeners = null;
+		
 		/**
-		 * Entry has been removed from cache, this is memory cleanup.
+		 * Constructor -- creates closed latch.
 		 */
-		REMOVED_FROM_CACHE,
+		public WBRBAccessLatch()
+		{
+			super(false);
+		}
+	}
+	
+	/**
+	 * Internal class used as entries in this cache -- entry state (value
+	 * and various service fields) is inherited from {@link WBRBCachePayload}
+	 * <p>
+	 * Only has the fields that are needed regardless of the enabled features,
+	 * see {@link WBRBExtendedCacheEntry} for the rest.
+	 */
+	@ToString(callSuper = true, doNotUseGetters = true) // getters allocate lock/latch lazily
+	protected class WBRBCacheEntry extends WBRBCachePayload
+	{
 		/**
-		 * Data from storage was just merged successfully (i.e. initial read or
-		 * refresh read were processed). 
+		 * Key for this entry.
+		 * TO-DO check if this is actually necessary to keep around
 		 */
-		STORAGE_DATA_MERGED,
+		@Getter
+		private final K key;
+		
 		/**
-		 * Read failed (final, no more retries) -- either initial or refresh -- and
-		 * handling code decision (e.g. in {@link WriteBehindResyncInBackgroundCache#spiWriteLockMakeResyncFailedFinalDecision(Object, WBRBCacheEntry, WBRBCachePayload)} ) 
-		 * is that reset is needed. 
+		 * Lock used to protect writes to the entry.
+		 * <p>
+		 * Allocated lazily (on the first use), see {@link #getLock()}
+		 * TO-DO consider whether fairness should be configurable?
 		 */
-		READ_FAILED_FINAL_DECISION,
+		@Nullable
+		private volatile ReentrantReadWriteLock lock = null;
+		
 		/**
-		 * Exception in {@link WriteBehindResyncInBackgroundCache#spiWriteLockUpdates_isMergePossible(Object, WBRBCacheEntry, WBRBCachePayload, NullableOptional)}
+		 * Latch is used to block access to data until the data is actually available
+		 * (since reads are asynchronous).
+		 * <p>
+		 * Allocated lazily (only if someone actually needs to wait or listen);
+		 * once opened, it is replaced with the shared {@link WriteBehindResyncInBackgroundCache#OPEN_ACCESS_LATCH}
+		 * so that the entry doesn't hold on to its own instance.
+		 * <p>
+		 * Creation/replacement is synchronized on this entry; see {@link #getAccessLatch()}
 		 */
-		IS_MERGE_POSSIBLE_EXCEPTION,
+		@Nullable
+		private volatile Latch accessLatch = null;
+	
 		/**
-		 * In main queue processing all pending data was sent to write queue.
+		 * @param key
 		 */
-		FULL_WRITE_SENT,
+		public WBRBCacheEntry(@Nonnull K key, long timeNow)
+		{
+			super(WBRBCacheEntryReadStatus.NOT_READ_YET, WBRBCacheEntryWriteStatus.NO_WRITE_REQUESTED_YET, timeNow);
+			this.key = key;
+		}
+		
 		/**
-		 * Decision in return queue processing in {@link WriteBehindResyncInBackgroundCache#spiWriteLockMakeReturnQueueProcessingDecision(Object, WBRBCacheEntry, WBRBCachePayload)}
+		 * Entry payload, contains value and various service fields -- this
+		 * is the entry itself (payload state is merged into the entry).
 		 */
-		RETURN_QUEUE_DECISION,
+		public WBRBCachePayload getPayload()
+		{
+			return this;
+		}
+		
 		/**
-		 * Exception in {@link WriteBehindResyncInBackgroundCache#spiWriteLockUpdates_collect(Object, WBRBCacheEntry, WBRBCachePayload, Object)}
-		 * (such as too many updates already collected).
+		 * Index of the main/return queue shard that this entry belongs to
+		 * (see {@link WriteBehindResyncInBackgroundCache#spiNoLockGetQueueShardIndex(Object)});
+		 * entry must never be moved to a different shard (so that per-key 
+		 * processing order is maintained).
 		 */
-		UPDATE_COLLECT_EXCEPTION,
-		;
-	}
-	
-	
-	/**
-	 * Constructor.
-	 * 
-	 * @throws RuntimeException if something is not right with config
-	 */
-	public WriteBehindResyncInBackgroundCache(WBRBConfig config) 
-		throws IllegalArgumentException, IllegalStateException, MissingResourceException, NumberFormatException
-	{
-		this.config = config;
-		this.commonNamingPrefix = "WBRBCache[" + config.getCacheName() + "]";
+		public int getQueueShardIndex()
+		{
+			return spiNoLockGetQueueShardIndex(key);
+		}
 		
-		// Initialize logging stuff
+		/**
+		 * Lock used to protect writes to the entry -- created on the first
+		 * access.
+		 */
+		public ReentrantReadWriteLock getLock()
 		{
-			int maxOrdinal = 1;
-			for (WBRBCacheMessage entry : WBRBCacheMessage.values())
+			ReentrantReadWriteLock result = lock;
+			if (result != null)
+				return result;
+			
+			synchronized (this)
 			{
-				maxOrdinal = Math.max(maxOrdinal, entry.ordinal());
+				result = lock;
+				if (result == null)
+				{
+					result = new ReentrantReadWriteLock(true);
+					lock = result;
+				}
+				
+				return result;
 			}
-			
-			messageTypeCountersArray = TypeUtil.coerce(new AtomicReference[maxOrdinal + 1]); // must be + 1 for last index to work!
-			for (int i = 0; i < messageTypeCountersArray.length; i++)
-				messageTypeCountersArray[i] = new AtomicReference<>(new WBRBMessageTypeLoggingCounter(0));
 		}
 		
-		this.threadGroup = new ThreadGroup(commonNamingPrefix + " Thread Group");
-		
-		this.readQueueProcessingThread = createReadQueueProcessor();
+		/**
+		 * Lock used for optimistic lock-free reads (see {@link WBRBConfig#isOptimisticReads()});
+		 * only present in {@link WBRBExtendedCacheEntry} (so that entries
+		 * do not pay for it in memory when optimistic reads are not enabled).
+		 * 
+		 * @return null for regular entries
+		 */
+		@Nullable
+		public StampedLock getOptimisticReadLock()
+		{
+			return null;
+		}
 		
-		// readThreadPool
+		/**
+		 * Gets access latch for this entry -- creating it if necessary (if
+		 * entry's initial read result is not yet known).
+		 */
+		public Latch getAccessLatch()
 		{
-			final WAThreadPoolExecutor pool;
-			
-			Pair<@Nonnull Integer, @Nonnull Integer> poolSize = config.getReadThreadPoolSize();
-			int minSize = poolSize.getValue0();
-			int maxSize = poolSize.getValue1();
+			Latch latch = accessLatch;
+			if (latch != null)
+				return latch;
 			
-			if ((minSize == -1) && (maxSize == -1))
-			{
-				pool = null;
-			}
-			else if ((minSize == -1) || (maxSize == -1))
-			{
-				throw new IllegalStateException("min/max pool size for readThreadPoolSize can only be -1 if they both are, got: " + poolSize);
-			}
-			else
+			synchronized (this)
 			{
-				if (maxSize < minSize)
-					throw new IllegalStateException("max pool size is less than min for readThreadPoolSize: " + poolSize);
+				latch = accessLatch;
+				if (latch == null)
+				{
+					latch = new WBRBAccessLatch();
+					accessLatch = latch;
+				}
 				
-				pool = new WAThreadPoolExecutor(maxSize, commonNamingPrefix + "-readPool", true, config.getReadThreadPoolPriority(), threadGroup);
-				pool.setCorePoolSize(minSize);
-				pool.setKeepAliveTime(config.getReadThreadPoolMaxIdleTime(), TimeUnit.MILLISECONDS);
+				return latch;
 			}
-			
-			readThreadPool = pool;
 		}
 		
-		
-		this.writeQueueProcessingThread = createWriteQueueProcessor();
-		
-		// writeThreadPool
+		/**
+		 * Opens {@link #accessLatch} and runs all the listeners that were
+		 * waiting for it.
+		 */
+		@Override
+		public void openAccessLatch()
 		{
-			final WAThreadPoolExecutor pool;
+			final Latch oldLatch;
+			final List<Runnable> listeners;
+			synchronized (this)
+			{
+				oldLatch = accessLatch;
+				accessLatch = OPEN_ACCESS_LATCH;
+				
+				if (oldLatch instanceof WBRBAccessLatch)
+				{
+					WBRBAccessLatch latch = (WBRBAccessLatch)oldLatch;
+					listeners = latch.listeners;
+					latch.listeners = null;
+				}
+				else
+					listeners = null;
+			}
 			
-			Pair<@Nonnull Integer, @Nonnull Integer> poolSize = config.getWriteThreadPoolSize();
-			int minSize = poolSize.getValue0();
-			int maxSize = poolSize.getValue1();
+			if ((oldLatch != null) && (oldLatch != OPEN_ACCESS_LATCH))
+				oldLatch.open(); // release anyone who is already waiting
 			
-			if ((minSize == -1) && (maxSize == -1))
+			if (listeners != null)
 			{
-				pool = null;
+				for (Runnable listener : listeners)
+					listener.run();
 			}
-			else if ((minSize == -1) || (maxSize == -1))
+		}
+		
+		/**
+		 * Runs the given listener when {@link #accessLatch} is opened -- 
+		 * immediately (in the current thread) if it is already open.
+		 * <p>
+		 * Listeners may be run while some lock is being held, so they must
+		 * return VERY QUICKLY (e.g. just hand off work to some executor).
+		 */
+		public void addAccessLatchListener(Runnable listener)
+		{
+			synchronized (this)
 			{
-				throw new IllegalStateException("min/max pool size for writeThreadPoolSize can only be -1 if they both are, got: " + poolSize);
-			}
-			else
-			{
-				if (maxSize < minSize)
-					throw new IllegalStateException("max pool size is less than min for writeThreadPoolSize: " + poolSize);
-				
-				pool = new WAThreadPoolExecutor(maxSize, commonNamingPrefix + "-writePool", true, config.getWriteThreadPoolPriority(), threadGroup);
-				pool.setCorePoolSize(minSize);
-				pool.setKeepAliveTime(config.getWriteThreadPoolMaxIdleTime(), TimeUnit.MILLISECONDS);
+				Latch latch = getAccessLatch(); // creates latch if needed
+				if (latch instanceof WBRBAccessLatch)
+				{
+					WBRBAccessLatch accessLatchWithListeners = (WBRBAccessLatch)latch;
+					List<Runnable> listeners = accessLatchWithListeners.listeners;
+					if (listeners == null)
+					{
+						listeners = new ArrayList<>(2);
+						accessLatchWithListeners.listeners = listeners;
+					}
+					listeners.add(listener);
+					return;
+				}
 			}
 			
-			writeThreadPool = pool;
+			listener.run(); // already open
 		}
-		
-		this.mainQueueProcessingThread = createMainQueueProcessor();
-		this.returnQueueProcessingThread = createReturnQueueProcessor();
 	}
 	
-	// FIX-ME review
-	// FIX-ME update class/constructor javadocs to indicate that it needs to be started
-	@Override
-	public <C extends IWriteBehindResyncInBackgroundCacheWithControlMethods<K, V, S, R, W, UExt, UInt>> C start()
-		throws CacheControlStateException
+	/**
+	 * Cache entry that additionally has the fields needed by optional features 
+	 * -- used if any such feature was enabled when entry was created (see 
+	 * {@link WriteBehindResyncInBackgroundCache#isExtendedCacheEntryNeeded()}),
+	 * so that regular entries do not pay for these in memory.
+	 * <p>
+	 * Features may be enabled in any combination, so a single subclass holds
+	 * all the optional fields (rather than having a subclass per feature).
+	 */
+	@ToString(callSuper = true, exclude = "queuedWrite") // queued write refers back to this entry
+	protected class WBRBExtendedCacheEntry extends WBRBCacheEntry
 	{
-		switch (controlState.get())
+		/**
+		 * This is not used for mutual exclusion (that's what {@link #getLock()} is
+		 * for); instead its write lock is held (non-reentrantly) for the 
+		 * duration of every {@link #getLock()} write lock, which allows optimistic
+		 * lock-free reads to detect concurrent modifications.
+		 * <p>
+		 * Only present if {@link WBRBConfig#isOptimisticReads()} was enabled
+		 * when entry was created.
+		 */
+		@Nullable
+		private final StampedLock optimisticReadLock;
+		
+		/**
+		 * See {@link #getWeight()}; only used if weighing is enabled.
+		 */
+		@Getter
+		@Setter
+		private long weight = 0;
+		
+		/**
+		 * Cached value in serialized form (see {@link WBRBConfig#isSerializeIdleValues()});
+		 * null if value is not currently serialized.
+		 * <p>
+		 * volatile because value can be deserialized under read lock
+		 */
+		@Nullable
+		private volatile ByteBuffer serializedValue = null;
+		
+		/**
+		 * See {@link #getStorageDataAbsentSince()}; only used if {@link WBRBConfig#isNegativeCaching()}
+		 * is enabled.
+		 * <p>
+		 * Volatile so that it can be checked without locking.
+		 */
+		@Getter
+		@Setter
+		private volatile long storageDataAbsentSince = 0;
+		
+		/**
+		 * See {@link #getQueuedWrite()}; only used if {@link WriteBehindResyncInBackgroundCache#coalesceQueuedWrites}
+		 * is enabled.
+		 */
+		@Getter
+		@Setter
+		@Nullable
+		private WBRBWriteQueueEntry queuedWrite = null;
+		
+		/**
+		 * Constructor.
+		 */
+		public WBRBExtendedCacheEntry(@Nonnull K key, long timeNow)
 		{
-			case NOT_STARTED:
-				break;
-			case FLUSHING:
-			case RUNNING:
-				throw new CacheControlStateException(commonNamingPrefix, "cache cannot be started because it has been started already.");
-			case SHUTDOWN_IN_PROGRESS:
-			case SHUTDOWN_COMPLETED:
-				throw new CacheControlStateException(commonNamingPrefix, "cache cannot be started because it has been shutdown already.");
+			super(key, timeNow);
+			this.optimisticReadLock = (config.isOptimisticReads() && optimisticReadsSupported) ? new StampedLock() : null;
 		}
 		
-		// Start all the threads
-		this.readQueueProcessingThread.start();
-		this.writeQueueProcessingThread.start();
-		this.mainQueueProcessingThread.start();
-		this.returnQueueProcessingThread.start();
+		@Override
+		@Nullable
+		public StampedLock getOptimisticReadLock()
+		{
+			return optimisticReadLock;
+		}
 		
-		if (!controlState.compareAndSet(WBRBCacheControlState.NOT_STARTED, WBRBCacheControlState.RUNNING))
-			throw new CacheControlStateException(commonNamingPrefix, "cache cannot be set to running state because its control state was changed concurrently (e.g. via shutdown).");
+		/**
+		 * Actual cached value (may be null if cache supports null values);
+		 * if value is currently serialized, it is deserialized first (and kept
+		 * in deserialized form afterwards).
+		 * <p>
+		 * Deserialization may happen under read lock, so it is synchronized.
+		 */
+		@Override
+		public S getValue()
+		{
+			if (serializedValue != null)
+			{
+				synchronized (this)
+				{
+					ByteBuffer buffer = serializedValue;
+					if (buffer != null)
+					{
+						super.setValue(haveSomeLock_DeserializeValue(getKey(), buffer));
+						serializedValue = null; // volatile write after value is set
+						releaseSerializedValueBuffer(buffer); // nobody else can access it anymore
+					}
+				}
+			}
+			
+			return super.getValue();
+		}
 		
-		logMessage(WBRBCacheMessage.STARTED, null);
+		/**
+		 * Sets actual cached value (discarding serialized value if any).
+		 * <p>
+		 * If value serialization is enabled, this is synchronized with 
+		 * deserialization in {@link #getValue()} -- the latter may run
+		 * concurrently under optimistic (lock-free) reads.
+		 */
+		@Override
+		public void setValue(S newValue)
+		{
+			if (valueCodec == null)
+			{
+				super.setValue(newValue); // values are never serialized, no need to synchronize
+				return;
+			}
+			
+			synchronized (this)
+			{
+				super.setValue(newValue);
+				discardSerializedValue();
+			}
+		}
 		
-		return TypeUtil.coerce(this);
+		@Override
+		public synchronized void discardSerializedValue()
+		{
+			ByteBuffer buffer = serializedValue;
+			if (buffer != null)
+			{
+				serializedValue = null;
+				releaseSerializedValueBuffer(buffer);
+			}
+		}
+		
+		@Override
+		public boolean isValueSerialized()
+		{
+			return serializedValue != null;
+		}
+		
+		@Override
+		public synchronized void setSerializedValue(ByteBuffer newSerializedValue)
+		{
+			discardSerializedValue(); // shouldn't normally happen, but don't lose the buffer if it does
+			serializedValue = newSerializedValue;
+			super.setValue(fakeNonNull());
+		}
 	}
 	
-	
-	/**
-	 * CRITICAL marker -- used in preference to FATAL because FATAL originally
-	 * meant application shutdown (which is not applicable in the case of library).
-	 */
-	protected static final Marker criticalMarker = MarkerFactory.getMarker("CRITICAL");
-	
-	/**
-	 * Returns logger used by this instance for this particular event logging
-	 * <p>
-	 * Default implementation just returns {@link #defaultWBRBlog} which is
-	 * based of our own class name. 
-	 */
-	@SuppressWarnings("unused")
-	protected Logger spiUnknownLockGetLogger(WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
-		throws InterruptedException
-	{
-		return defaultWBRBlog;
-	}
-
 	/**
-	 * Extendable implementation of logging of events.
+	 * Entry in the write queue.
 	 * <p>
-	 * Default implementation simply sends them to throttled logging in 
-	 * {@link #spiUnknownLockLogMessage_Throttled(WBRBCacheMessage, Throwable, Object...)}
+	 * FINAL everything to make in thread-safe -- except for {@link #dataToWrite}
+	 * which may be replaced (under cache entry write lock) while the entry is
+	 * still waiting in the write queue, see {@link WBRBConfig#isCoalesceQueuedWrites()}
 	 */
-	protected void spiUnknownLockLogMessage(WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
-		throws InterruptedException
+	@ToString
+	protected class WBRBWriteQueueEntry
 	{
-		spiUnknownLockLogMessage_Throttled(msg, exception, args);
+		/**
+		 * Key for this entry.
+		 * TO-DO check if this is actually necessary to keep around
+		 */
+		@Getter
+		private final K key;
+		
+		/**
+		 * Related cache entry.
+		 * <p>
+		 * WARNING -- be careful with access, should always be done under read or
+		 * write locks!
+		 */
+		@Getter
+		private final WBRBCacheEntry cacheEntry;
+		
+		/**
+		 * Data to be written out.
+		 * <p>
+		 * Can only be replaced while entry is still in the write queue and 
+		 * hasn't been picked up by the write queue processor, see 
+		 * {@link WBRBConfig#isCoalesceQueuedWrites()}
+		 */
+		@Getter
+		@Setter(AccessLevel.PROTECTED)
+		private volatile W dataToWrite;
+		
+		/**
+		 * Constructor.
+		 */
+		public WBRBWriteQueueEntry(K key, WBRBCacheEntry cacheEntry, W dataToWrite)
+		{
+			this.key = key;
+			this.cacheEntry = cacheEntry;
+			this.dataToWrite = dataToWrite;
+		}
 	}
 	
 	/**
-	 * Implementation of event logging that just logs the event to the logger
-	 * without any additional processing or checking.
+	 * A group of cache entries queued at about the same time, see 
+	 * {@link WBRBDeadlineBucketQueue}
 	 * <p>
-	 * This method uses logger retrieved from {@link #spiUnknownLockGetLogger(WBRBCacheMessage, Throwable, Object...)}
+	 * Not thread-safe, access is protected by the owning queue.
 	 */
-	protected void spiUnknownLockLogMessage_Plain(WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
-		throws InterruptedException
+	protected class WBRBDeadlineBucket
 	{
-		Logger log = spiUnknownLockGetLogger(msg, exception, args);
+		/**
+		 * Start of the time slice covered by this bucket.
+		 */
+		@Getter
+		private final long bucketStart;
 		
-		spiUnknownLockLogMessage_Plain(log, msg, exception, args);
+		/**
+		 * Earliest 'in queue since' value of the entries remaining in this 
+		 * bucket -- bucket is due for processing when this entry is due.
+		 */
+		@Getter
+		private long earliestInQueueSince = Long.MAX_VALUE;
+		
+		/**
+		 * Entries in this bucket (in the order they were added).
+		 */
+		private final ArrayList<WBRBCacheEntry> entries = new ArrayList<>();
+		
+		/**
+		 * 'In queue since' values of the {@link #entries} (captured when
+		 * entries were added, so that they can be checked without entry lock).
+		 */
+		private long[] entriesInQueueSince = new long[16];
+		
+		/**
+		 * Constructor.
+		 */
+		public WBRBDeadlineBucket(long bucketStart)
+		{
+			this.bucketStart = bucketStart;
+		}
+		
+		/**
+		 * Adds entry to this bucket.
+		 */
+		public void add(WBRBCacheEntry entry, long inQueueSince)
+		{
+			final int index = entries.size();
+			if (index == entriesInQueueSince.length)
+				entriesInQueueSince = Arrays.copyOf(entriesInQueueSince, index * 2);
+			
+			entries.add(entry);
+			entriesInQueueSince[index] = inQueueSince;
+			earliestInQueueSince = Math.min(earliestInQueueSince, inQueueSince);
+		}
+		
+		/**
+		 * Moves all the entries that are due (as decided by the given predicates)
+		 * to the given collection; remaining entries keep their order.
+		 * 
+		 * @param isDue tests entry's 'in queue since' value
+		 * @param isDueEarly if not null, tests entries that are not yet due
+		 * 		according to isDue -- these may still need to be processed 
+		 * 		early (e.g. stale negative cache entries)
+		 * 
+		 * @return number of entries moved
+		 */
+		public int drainDueTo(Collection<WBRBCacheEntry> target, LongPredicate isDue, 
+			@Nullable Predicate<WBRBCacheEntry> isDueEarly)
+		{
+			final int size = entries.size();
+			int remaining = 0;
+			long earliest = Long.MAX_VALUE;
+			for (int i = 0; i < size; i++)
+			{
+				final WBRBCacheEntry entry = entries.get(i);
+				final long inQueueSince = entriesInQueueSince[i];
+				if (isDue.test(inQueueSince) || ((isDueEarly != null) && isDueEarly.test(entry)))
+				{
+					target.add(entry);
+					continue;
+				}
+				
+				entries.set(remaining, entry);
+				entriesInQueueSince[remaining] = inQueueSince;
+				remaining++;
+				earliest = Math.min(earliest, inQueueSince);
+			}
+			
+			entries.subList(remaining, size).clear();
+			earliestInQueueSince = earliest;
+			
+			return size - remaining;
+		}
+		
+		/**
+		 * Whether there are no entries left in this bucket.
+		 */
+		public boolean isEmpty()
+		{
+			return entries.isEmpty();
+		}
 	}
 	
 	/**
-	 * Implementation of event logging that just logs the event to the given logger
-	 * without any additional processing or checking.
+	 * Queue used for main and return queues -- entries are grouped into buckets
+	 * by their 'in queue since' time (with {@link WBRBConfig#getQueueBucketTimeGranularity()}
+	 * granularity) so that queue operations are cheap; processing thread waits
+	 * until the earliest entry in the first bucket becomes due and then takes
+	 * all the entries that are due at that time (each entry is checked against
+	 * its own deadline, so entries are never processed before they are due
+	 * and are not held back by the later entries in the same bucket).
+	 * <p>
+	 * Entries are expected to be added in (roughly) the order of their 'in queue since'
+	 * timestamps (which is always the case as these are set to current time
+	 * before adding); out-of-order entries are simply added to the last bucket
+	 * (so they may be processed later than they could be but never earlier 
+	 * than they are due).
+	 * <p>
+	 * Entries taken by the processing thread (see {@link #drainDueEntriesTo(Collection, LongPredicate, LongPredicate, Predicate)})
+	 * are still counted in the queue {@link #size()} until the processing
+	 * thread reports them as handled via {@link #takenEntryHandled()} -- this
+	 * way the size doesn't drop (and e.g. 'queue is over target size' checks
+	 * don't flip) in the middle of processing a batch; entries that were taken
+	 * but couldn't be processed yet are returned to the head of the queue via
+	 * {@link #requeueTakenEntries(Collection)}
+	 * <p>
+	 * Processing thread waits via {@link #awaitWakeUp(long)} so that it can
+	 * be woken up early (e.g. when flush or shutdown starts) via {@link #wakeUp()}
 	 */
-	protected void spiUnknownLockLogMessage_Plain(Logger log, WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
-		throws InterruptedException
+	protected class WBRBDeadlineBucketQueue
 	{
-		final WBRBCacheMessageSeverity severity = msg.getSeverity(); 
+		/**
+		 * Lock protecting all the data in this queue.
+		 */
+		private final ReentrantLock lock = new ReentrantLock();
 		
-		switch(severity)
-		{
-//			case TRACE:
-//				if (!log.isTraceEnabled())
-//					return;
-//				break;
-			case DEBUG:
-				if (!log.isDebugEnabled())
-					return;
-				break;
-			case INFO:
-			case EXTERNAL_INFO:
-				if (!log.isInfoEnabled())
-					return;
-				break;
-			case WARN:
-			case EXTERNAL_WARN:
-				if (!log.isWarnEnabled())
-					return;
-				break;
-			case ERROR:
-			case EXTERNAL_DATA_LOSS:
-			case EXTERNAL_ERROR:
-			case FATAL:
-				if (!log.isErrorEnabled())
-					return;
-				break;
-		}
+		/**
+		 * Signalled when entries are added to the queue.
+		 */
+		private final Condition notEmpty = lock.newCondition();
 		
-		String formattedMsg = spiUnknownLockLogMessage_FormatAndTrackMessage(log, msg, exception, args);
+		/**
+		 * Signalled when processing thread needs to wake up early, see {@link #wakeUp()}
+		 */
+		private final Condition wakeUpRequested = lock.newCondition();
 		
-		switch(severity)
-		{
-//			case TRACE:
-//				if (e != null)
-//					log.trace(formattedMsg, e);
-//				else
-//					log.trace(formattedMsg);
-//				break;
-			case DEBUG:
-				if (exception != null)
-					log.debug(formattedMsg, exception);
-				else
-					log.debug(formattedMsg);
-				break;
-			case INFO:
-			case EXTERNAL_INFO:
-				if (exception != null)
-					log.info(formattedMsg, exception);
-				else
-					log.info(formattedMsg);
-				break;
-			case WARN:
-			case EXTERNAL_WARN:
-				if (exception != null)
-					log.warn(formattedMsg, exception);
-				else
-					log.warn(formattedMsg);
-				break;
-			case ERROR:
-			case EXTERNAL_DATA_LOSS:
-			case EXTERNAL_ERROR:
-				if (exception != null)
-					log.error(formattedMsg, exception);
-				else
-					log.error(formattedMsg);
-				break;
-			case FATAL:
-				if (exception != null)
-					log.error(criticalMarker, formattedMsg, exception);
-				else
-					log.error(criticalMarker, formattedMsg);
-				break;
+		/**
+		 * Whether {@link #wakeUp()} was requested and not yet consumed by 
+		 * {@link #awaitWakeUp(long)} -- so that wake up requested before
+		 * processing thread started waiting is not lost.
+		 */
+		private boolean wakeUpPending = false;
+		
+		/**
+		 * Buckets in the queue.
+		 */
+		private final ArrayDeque<WBRBDeadlineBucket> buckets = new ArrayDeque<>();
+		
+		/**
+		 * Total number of entries in all the buckets plus number of entries
+		 * taken for processing but not yet handled (so that size can be
+		 * checked without locking).
+		 */
+		private final AtomicInteger size = new AtomicInteger(0);
+		
+		/**
+		 * Real-world time when processing thread may next scan the queue for
+		 * the entries that are due early, see {@link WriteBehindResyncInBackgroundCache#haveNoLock_TakeDueBucket(WBRBDeadlineBucketQueue, Collection, InterruptableSupplier, boolean)}
+		 * <p>
+		 * Only accessed by the processing thread.
+		 */
+		@Getter
+		@Setter
+		private long nextEarlyDueScanAt = 0;
+		
+		/**
+		 * Adds entry to the queue using entry's {@link WBRBCachePayload#getInQueueSince()}
+		 * <p>
+		 * Must be invoked either under entry's lock or by the thread that
+		 * has set 'in queue since' value.
+		 */
+		public void add(WBRBCacheEntry entry)
+		{
+			final long inQueueSince = entry.getPayload().getInQueueSince();
+			final long granularity = config.getQueueBucketTimeGranularity();
+			final long bucketStart = inQueueSince - (inQueueSince % granularity);
+			
+			lock.lock();
+			try
+			{
+				WBRBDeadlineBucket bucket = buckets.peekLast();
+				if ((bucket == null) || (bucketStart > bucket.getBucketStart()))
+				{
+					bucket = new WBRBDeadlineBucket(bucketStart);
+					buckets.addLast(bucket);
+				}
+				
+				bucket.add(entry, inQueueSince);
+				size.incrementAndGet();
+				
+				notEmpty.signal();
+			} finally
+			{
+				lock.unlock();
+			}
 		}
-	}
-	
-	/**
-	 * Formats a given message for the output
-	 */
-	@SuppressWarnings("unused")
-	protected String spiUnknownLockLogMessage_FormatMessage(Logger log, WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
-		throws InterruptedException
-	{
-		StringBuilder sb = new StringBuilder(100);
-		sb.append(commonNamingPrefix);
-		sb.append(' ');
-		sb.append(msg.toString());
 		
-		final String formattedMsg;
-		if (args.length > 0)
+		/**
+		 * Adds all the given entries to the queue, see {@link #add(WBRBCacheEntry)}
+		 */
+		public void addAll(Collection<WBRBCacheEntry> entries)
 		{
-			sb.append(' ');
-			sb.append(Arrays.toString(args));
+			for (WBRBCacheEntry entry : entries)
+				add(entry);
 		}
 		
-		return sb.toString();
-	}
-	
-	/**
-	 * Formats a given message for the output & tracks last logged message
-	 */
-	protected String spiUnknownLockLogMessage_FormatAndTrackMessage(Logger log, WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
-		throws InterruptedException
-	{
-		String msgText = spiUnknownLockLogMessage_FormatMessage(log, msg, exception, args);
+		/**
+		 * Waits (as long as necessary) until there's at least one bucket in
+		 * the queue.
+		 * 
+		 * @return earliest 'in queue since' value for the first bucket in the queue
+		 */
+		public long awaitFirstBucket() throws InterruptedException
+		{
+			lock.lockInterruptibly();
+			try
+			{
+				while (true)
+				{
+					WBRBDeadlineBucket bucket = buckets.peekFirst();
+					if (bucket != null)
+						return bucket.getEarliestInQueueSince();
+					
+					notEmpty.await();
+				}
+			} finally
+			{
+				lock.unlock();
+			}
+		}
 		
-		getStats().lastLoggedTextMsgPerSeverityOrdinal[msg.getSeverity().ordinal()].set(msgText);
+		/**
+		 * Moves all the entries that are due (as decided by the given predicate)
+		 * from the head of the queue to the given collection -- buckets are
+		 * checked in order until a bucket with entries that are not yet due
+		 * is encountered.
+		 * <p>
+		 * Taken entries still count towards queue size until reported via
+		 * {@link #takenEntryHandled()}
+		 * 
+		 * @param isDue tests entry's 'in queue since' value
+		 * 
+		 * @return number of entries moved
+		 */
+		public int drainDueEntriesTo(Collection<WBRBCacheEntry> target, LongPredicate isDue)
+		{
+			return drainDueEntriesTo(target, isDue, null, null);
+		}
 		
-		return msgText;
-	}
-	
-	
-	/**
-	 * Helper method to format event information (from {@link #spiUnknownLock_Event(WBRBEvent, Object, WBRBCacheEntry, WBRBCachePayload, Throwable, Object...)}})
-	 * into data ready for sending to slf4j logging (pattern + arguments array).
-	 */
-	protected Pair<@Nonnull String, @Nullable Object @Nonnull[]> debugUnknownLock_FormatEventForSlf4jLogging(
-		WBRBEvent event, @Nonnull K key,
-		@Nullable WBRBCacheEntry cacheEntry, @Nullable WBRBCachePayload payload, 
-		@Nullable Throwable exception, Object... additionalArgs)
-	{
-		String currentCachedValue = null;
+		/**
+		 * Moves all the entries that are due (as decided by the given predicates)
+		 * from the head of the queue to the given collection -- buckets are
+		 * checked in order until a bucket is encountered that has no entries 
+		 * that are due (as decided by the bucket's earliest 'in queue since' 
+		 * value).
+		 * <p>
+		 * Taken entries still count towards queue size until reported via
+		 * {@link #takenEntryHandled()}
+		 * 
+		 * @param isDue tests entry's 'in queue since' value
+		 * @param mayHaveDueEarly if not null, tests bucket's earliest 'in queue since'
+		 * 		value -- if it passes, then bucket entries that are not yet
+		 * 		due are checked via isDueEarly
+		 * @param isDueEarly tests entries that are not yet due according to
+		 * 		isDue; must be non-null if mayHaveDueEarly is non-null
+		 * 
+		 * @return number of entries moved
+		 */
+		public int drainDueEntriesTo(Collection<WBRBCacheEntry> target, LongPredicate isDue,
+			@Nullable LongPredicate mayHaveDueEarly, @Nullable Predicate<WBRBCacheEntry> isDueEarly)
 		{
-			WBRBCachePayload p = payload;
-			if (p == null)
-				if (cacheEntry != null)
-					p = cacheEntry.getPayload();
-			if (p != null)
+			int taken = 0;
+			lock.lock();
+			try
 			{
-				@Nullable S cached = nullable(p.getValue()); // could be null if not read yet or cache contains null values
-				if (cached != null)
-					currentCachedValue = cached.toString();
+				for (Iterator<WBRBDeadlineBucket> iter = buckets.iterator(); iter.hasNext(); )
+				{
+					WBRBDeadlineBucket bucket = iter.next();
+					final long earliest = bucket.getEarliestInQueueSince();
+					if (!isDue.test(earliest) && ((mayHaveDueEarly == null) || !mayHaveDueEarly.test(earliest)))
+						break; // nothing is due in this bucket (and, by extension, in the following buckets)
+					
+					taken += bucket.drainDueTo(target, isDue, isDueEarly);
+					if (bucket.isEmpty())
+						iter.remove();
+					else if (mayHaveDueEarly == null)
+						break; // remaining entries are not due yet
+				}
+			} finally
+			{
+				lock.unlock();
 			}
+			
+			return taken;
 		}
 		
-		String writtenValue = null;
+		/**
+		 * Returns entries previously taken via {@link #drainDueEntriesTo(Collection, LongPredicate, LongPredicate, Predicate)}
+		 * (and not yet reported as handled) to the head of the queue -- these
+		 * are older than anything else in the queue, so they are placed in a
+		 * new first bucket (rather than being mixed in with the newest entries).
+		 * <p>
+		 * Must be invoked by the processing thread that took the entries.
+		 */
+		public void requeueTakenEntries(Collection<WBRBCacheEntry> entries)
 		{
-			WBRBWriteQueueEntry wEntry = null;
-			switch (event)
+			if (entries.isEmpty())
+				return;
+			
+			final long granularity = config.getQueueBucketTimeGranularity();
+			
+			long minBucketStart = Long.MAX_VALUE;
+			for (WBRBCacheEntry entry : entries)
 			{
-				case DEBUG_EVENT_INTERNAL:
-				case MAIN_QUEUE_ITEM_PROCESSED:
-				case READ_FAIL_DECISION:
-				case READ_QUEUE_ITEM_PROCESSED:
-				case READ_SUCCESS_DECISION:
-				case RETURN_QUEUE_ITEM_PROCESSED:
-				case CACHE_ADD:
-				case CACHE_REMOVE:
-				case CACHE_READ:
-				case CACHE_WRITE:
-					break;
-				case WRITE_SUCCESS:
-					wEntry = TypeUtil.coerce(additionalArgs[0]);
-					break;
-				case WRITE_QUEUE_ITEM_PROCESSED:
-					currentCachedValue = "<<UNKNOWN>>"; // this event doesn't provide easy access to payload
-					//$FALL-THROUGH$
-				case WRITE_FAIL_DECISION:
-					wEntry = TypeUtil.coerce(additionalArgs[1]);
-					break;
+				final long inQueueSince = entry.getPayload().getInQueueSince();
+				minBucketStart = Math.min(minBucketStart, inQueueSince - (inQueueSince % granularity));
 			}
-			if (wEntry != null)
+			
+			final WBRBDeadlineBucket bucket = new WBRBDeadlineBucket(minBucketStart);
+			for (WBRBCacheEntry entry : entries)
+				bucket.add(entry, entry.getPayload().getInQueueSince());
+			
+			lock.lock();
+			try
 			{
-				W wData = wEntry.getDataToWrite();
-				if (wData != null)
-					writtenValue = wData.toString();
+				buckets.addFirst(bucket);
+				
+				notEmpty.signal();
+			} finally
+			{
+				lock.unlock();
 			}
 		}
 		
-		if (exception == null)
-			return new Pair<>("[event] {} [{}] cached[{}] written[{}] {} {}", 
-				new @Nullable Object[] {event, key, currentCachedValue, writtenValue, Arrays.toString(additionalArgs), commonNamingPrefix});
-		else
+		/**
+		 * Waits until either the given time passes or {@link #wakeUp()} is
+		 * requested (returns immediately if wake up was requested since the
+		 * last wait).
+		 * <p>
+		 * Must be invoked by the processing thread of this queue.
+		 * 
+		 * @param maxWait maximum real-world time to wait, ms
+		 */
+		public void awaitWakeUp(long maxWait) throws InterruptedException
 		{
-			// last 'unused' exception will be printed out as stack trace by slf4j
-			return new Pair<>("[event] {} [{}] cached[{}] written[{}] {} {}", 
-				new @Nullable Object[] {event, key, currentCachedValue, writtenValue, Arrays.toString(additionalArgs), commonNamingPrefix, exception});
+			lock.lockInterruptibly();
+			try
+			{
+				long nanos = TimeUnit.MILLISECONDS.toNanos(maxWait);
+				while (!wakeUpPending && (nanos > 0))
+					nanos = wakeUpRequested.awaitNanos(nanos);
+				
+				wakeUpPending = false;
+			} finally
+			{
+				lock.unlock();
+			}
 		}
-	}
-	
-	/**
-	 * Used to track how many times specific message type has been logged already
-	 * in order to decide when to throttle.
-	 */
-	@RequiredArgsConstructor
-	@ToString
-	protected static class WBRBMessageTypeLoggingCounter
-	{
+		
 		/**
-		 * Track when this message counting period started.
+		 * Wakes up processing thread if it is waiting in {@link #awaitWakeUp(long)}
+		 * (e.g. because cache started flushing and items should be processed
+		 * without further waiting).
 		 */
-		@Getter
-		private final long periodStartTime;
-
+		public void wakeUp()
+		{
+			lock.lock();
+			try
+			{
+				wakeUpPending = true;
+				wakeUpRequested.signalAll();
+			} finally
+			{
+				lock.unlock();
+			}
+		}
+		
 		/**
-		 * Message counter.
+		 * Reports that an entry taken via {@link #drainDueEntriesTo(Collection, LongPredicate, LongPredicate, Predicate)}
+		 * was handled (processed, re-queued elsewhere or removed) and should
+		 * no longer count towards the queue size.
 		 */
-		@Getter
-		private final AtomicInteger messageCounter = new AtomicInteger(0);
+		public void takenEntryHandled()
+		{
+			size.decrementAndGet();
+		}
+		
+		/**
+		 * Number of entries in the queue.
+		 */
+		public int size()
+		{
+			return size.get();
+		}
 	}
 	
 	/**
-	 * Used to track message stats via {@link WBRBCacheMessage#ordinal()}
-	 */
-	protected final AtomicReference<@Nonnull WBRBMessageTypeLoggingCounter>[] messageTypeCountersArray;
-	
-	/**
-	 * Used to track message stats via classificators in {@link #logNonStandardMessage(WBRBCacheMessageSeverity, String, Throwable, Object...)}
-	 */
-	protected final ConcurrentHashMap<String, AtomicReference<@Nonnull WBRBMessageTypeLoggingCounter>> messageClassificatorCountersMap = 
-		new ConcurrentHashMap<String, AtomicReference<@Nonnull WBRBMessageTypeLoggingCounter>>();
-	
-	/**
-	 * Implementation of event logging that only logs messages so long as there
-	 * weren't 'too many' messages of a particular kind logged already.
-	 * <p>
-	 * If message is not throttled, it is sent to {@link #spiUnknownLockLogMessage_Plain(WBRBCacheMessage, Throwable, Object...)}
-	 * for actual logging.
+	 * Indicates a 'merge decision' -- what to do with data that was just read
+	 * from the underlying storage and ought to be set or merged into an exising
+	 * cache entry.
 	 */
-	protected void spiUnknownLockLogMessage_Throttled(WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
-		throws InterruptedException
+	protected static enum WBRBMergeDecision
 	{
-		boolean logMessage = false;
-		boolean logNextMessagesMayBeSkipped = false;
-		
+		/**
+		 * Set read data directly, no merging required.
+		 */
+		SET_DIRECTLY,
+		/**
+		 * Merge data (that is try to merge read data with already existing data).
+		 */
+		MERGE_DATA,
+		/**
+		 * Do nothing (ignore the data that has been read (typically ought to also
+		 * log a problem)) except clear read pending status (if currently read is
+		 * pending), e.g.: 
+		 * {@link WBRBCacheEntryReadStatus#DATA_READY_RESYNC_PENDING}
+		 * ->
+		 * {@link WBRBCacheEntryReadStatus#DATA_READY_RESYNC_FAILED_FINAL};
+		 * {@link WBRBCacheEntryReadStatus#NOT_READ_YET} ->
+		 * {@link WBRBCacheEntryReadStatus#READ_FAILED_FINAL}
+		 * and similar
+		 */
+		CLEAR_READ_PENDING_STATUS,
+		/**
+		 * Do nothing, ignore the data that has been read (typically ought to also
+		 * log a problem).
+		 * <p>
+		 * WARNING: may cause issues if used improperly, such as not releasing
+		 * access latch.
+		 */
+		DO_NOTHING,
+		/**
+		 * Element must be removed from cache.
+		 */
+		REMOVE_FROM_CACHE,
+		;
+	}
+	
+	/**
+	 * Indicates a 'retry decision' -- what to do with failed read.
+	 */
+	protected static enum WBRBRetryDecision
+	{
+		/**
+		 * Retry the failed operation.
+		 */
+		RETRY,
+		/**
+		 * No retry, set final failed status for the operation.
+		 */
+		NO_RETRY_SET_FINAL_FAILED_STATUS,
+		/**
+		 * Do nothing, ignore the result (typically ought to also log a problem).
+		 * <p>
+		 * WARNING: may cause issues if used improperly, such as not releasing
+		 * access latch.
+		 */
+		DO_NOTHING,
+		/**
+		 * Element must be removed from cache.
+		 */
+		REMOVE_FROM_CACHE,
+		;
+	}
+	
+	/**
+	 * Indicates a decision for read queue item processing.
+	 */
+	protected static enum WBRBReadQueueProcessingDecision
+	{
+		/**
+		 * Execute read flagged as 'non-refresh' one.
+		 */
+		INITIAL_READ,
+		/**
+		 * Execute read marked as 'refresh read'.
+		 */
+		REFRESH_READ,
+		/**
+		 * Does nothing (including not changing any status) -- which might be
+		 * dangerous as it wouldn't, e.g., release access latch.
+		 */
+		DO_NOTHING,
+		/**
+		 * Indicates that processing code should mark entry as 'read failed (final)'
+		 * and not queue it for read.
+		 */
+		SET_FINAL_FAILED_READ_STATUS,
+	}
+	
+	/**
+	 * Indicates a decision for write queue item processing.
+	 */
+	protected static enum WBRBWriteQueueProcessingDecision
+	{
+		/**
+		 * Do the write.
+		 */
+		WRITE,
+		/**
+		 * Does nothing (including not changing any status) -- which might be
+		 * dangerous as it wouldn't do the 'expected' stuff.
+		 */
+		DO_NOTHING,
+		/**
+		 * Indicates that processing code should mark referenced cache entry 
+		 * as 'write failed (final)' and not queue it for the write.
+		 */
+		SET_FINAL_FAILED_WRITE_STATUS,
+	}
+
+	
+	
+	/**
+	 * Indicates a decision for whether main queue item being processed
+	 * shall be retained in cache.
+	 * FIX-ME probably needs a DO_NOTHING option for e.g. already-removed elements
+	 */
+	@RequiredArgsConstructor
+	protected static enum WBRBMainQueueItemCacheRetainDecision
+	{
+		/**
+		 * This is a 'normal' expected behavior -- item is sent to the return
+		 * queue after leaving main queue. 
+		 */
+		RETURN_QUEUE(10),
+		/**
+		 * Do the 'normal' processing as in {@link #RETURN_QUEUE} but keep
+		 * full cycle processing failure count (for failures where we want
+		 * to run standard processing but possibly abort at some point in the
+		 * future if it keeps failing).
+		 */
+		RETURN_QUEUE_KEEP_FULL_CYCLE_FAILURE_COUNT(20),
+		/**
+		 * Put item in the return queue (as per normal), but DO NOT send anything
+		 * to write (this can be used to e.g. force new attempt at data resync).
+		 * <p>
+		 * This also 'keeps' (doesn't reset, increments) full cache cycle failure count
+		 */
+		RETURN_QUEUE_NO_WRITE(30),
+		/**
+		 * The item is re-added to the main queue -- this can be useful e.g. if
+		 * previous pending write hasn't completed yet and we do not want to risk
+		 * queueing a new write yet.
+		 * <p>
+		 * WRITE IS NOT PERFORMED.
+		 */
+		MAIN_QUEUE(40),
+		/**
+		 * Item is removed from cache, useful e.g. if item is not in an useful
+		 * state, such as initial read has failed.
+		 * <p>
+		 * This is 'normal' item expiration, it is not logged as error.
+		 * <p>
+		 * WRITE IS NOT PERFORMED.
+		 */
+		EXPIRE_FROM_CACHE(50),
+		/**
+		 * Item is removed from cache, useful e.g. if item is not in an useful
+		 * state, such as initial read has failed.
+		 * <p>
+		 * This is 'abnormal' item removal, it is logged as error.
+		 * <p>
+		 * WRITE IS NOT PERFORMED.
+		 */
+		REMOVE_FROM_CACHE(60),
+		;
+		
+		/**
+		 * How high is 'failure rating' for this item; the higher, the 'worse'
+		 * is the failure.
+		 * <p>
+		 * Used to determine between multiple values which one is the 'worst'.
+		 */
+		@Getter
+		private final int failureRating;
+	}
+	
+	
+	/**
+	 * Decision on how to proceed when initial read has failed (final status).
+	 */
+	protected static enum WBRBInitialReadFailedFinalDecision
+	{
+		/**
+		 * Element is removed from cache (this results in the loss of all
+		 * currently in-memory updates).
+		 */
+		REMOVE_FROM_CACHE,
+		/**
+		 * Element is kept in the cache and any read (and maybe write) operations
+		 * will throw exception.
+		 */
+		KEEP_AND_THROW_CACHE_READ_EXCEPTIONS,
+	}
+	
+	
+	/**
+	 * Decision on how to proceed when background resync has failed (final status).
+	 */
+	protected static enum WBRBResyncFailedFinalDecision
+	{
+		/**
+		 * Element is removed from cache (this results in the loss of all
+		 * currently in-memory updates).
+		 */
+		REMOVE_FROM_CACHE,
+		/**
+		 * Element is retained in cache, but updates are no longed collected
+		 * (this means that element cannot be resynced at a later date).
+		 */
+		STOP_COLLECTING_UPDATES,
+		/**
+		 * Element is retained in cache and updates are still collected -- this
+		 * allows for an option to resync at a later date but at the cost of
+		 * memory usage for collecting all the updates.
+		 */
+		KEEP_COLLECTING_UPDATES,
+	}
+
+	
+	/**
+	 * Indicates a decision for how the item in return queue should be processed.
+	 */
+	@RequiredArgsConstructor
+	protected static enum WBRBReturnQueueItemProcessingDecisionAction
+	{
+		/**
+		 * This is a 'normal' expected behavior -- item is sent to the main queue
+		 * and resync in initiated
+		 */
+		MAIN_QUEUE_PLUS_RESYNC(10),
+		/**
+		 * Put item back into main queue but do not initiate a resync.
+		 */
+		MAIN_QUEUE_NO_RESYNC(20),
+		/**
+		 * Expire element from the cache (item is no longer needed).
+		 * <p>
+		 * This is 'normal' item expiration, it is not logged as error.
+		 * 
+		 * @see #REMOVE_FROM_CACHE
+		 */
+		EXPIRE_FROM_CACHE(30),
+		/**
+		 * Item goes back to the return queue (basically a 'wait some more' 
+		 * action).
+		 */
+		RETURN_QUEUE(40),
+		/**
+		 * Item is removed from cache, useful e.g. if item is not in an useful
+		 * state, such as initial read has failed.
+		 * <p>
+		 * This is 'abnormal' item removal, it is logged as error.
+		 * 
+		 * @see #EXPIRE_FROM_CACHE
+		 */
+		REMOVE_FROM_CACHE(50),
+		/**
+		 * Do nothing -- e.g. if element was already removed from cache, then
+		 * it doesn't need to be re-added anywhere.
+		 */
+		DO_NOTHING(60),
+		;
+		
+		/**
+		 * How high is 'failure rating' for this item; the higher, the 'worse'
+		 * is the failure.
+		 * <p>
+		 * Used to determine between multiple values which one is the 'worst'.
+		 */
+		@Getter
+		//TO-DO probably is not needed
+		private final int failureRating;
+	}
+	// CCC
+	@RequiredArgsConstructor
+	@ToString
+	protected static class WBRBReturnQueueItemProcessingDecision
+	{
+		/**
+		 * Constant for when we want to remove item from cache (so no need to
+		 * create new ones all the time).
+		 */
+		public static final WBRBReturnQueueItemProcessingDecision REMOVE_FROM_CACHE = 
+			new WBRBReturnQueueItemProcessingDecision(WBRBReturnQueueItemProcessingDecisionAction.REMOVE_FROM_CACHE, true);
+		
+		/**
+		 * A 'do nothing' option that can be used instead of creating new instances.
+		 */
+		public static final WBRBReturnQueueItemProcessingDecision DO_NOTHING = 
+			new WBRBReturnQueueItemProcessingDecision(WBRBReturnQueueItemProcessingDecisionAction.DO_NOTHING, false);
+		
+		/**
+		 * An 'expire from cache' option that can be used instead of creating new instances.
+		 */
+		public static final WBRBReturnQueueItemProcessingDecision EXPIRE_FROM_CACHE = 
+			new WBRBReturnQueueItemProcessingDecision(WBRBReturnQueueItemProcessingDecisionAction.EXPIRE_FROM_CACHE, true);
+		
+		// CCC
+		@Getter
+		@NonNull // force Lombok to do null-check
+		private final WBRBReturnQueueItemProcessingDecisionAction action;
+		
+		// CCC
+		@Getter
+		private final boolean stopCollectingUpdates;
+	}
+	
+	/**
+	 * Action when deciding whether to access item from cache.
+	 */
+	protected static enum WBRBCacheAccessDecisionAction
+	{
+		/**
+		 * Value successfully read & returned
+		 */
+		VALUE_RETURNED,
+		/**
+		 * Exception returned that needs to be thrown.
+		 * 
+		 * @see #RETURN_EXCEPTION
+		 */
+		THROW_EXCEPTION,
+		/**
+		 * Exception that indicates a problem, but is not necessarily thrown
+		 * (e.g. can be returned as part of {@link NullableOptional})
+		 * 
+		 * @see #THROW_EXCEPTION
+		 */
+		RETURN_EXCEPTION,
+		/**
+		 * Value is not read from the storage yet, wait for latch.
+		 */
+		WAIT_FOR_LATCH,
+		/**
+		 * This value has been removed from cache, need to attempt a re-read.
+		 */
+		REMOVED_FROM_CACHE,
+		;
+	}
+	
+	/**
+	 * Decision whether to access an item from cache.
+	 * 
+	 * @see WriteBehindResyncInBackgroundCache#WBRBCacheAccessDecision_WAIT_FOR_LATCH
+	 * @see WriteBehindResyncInBackgroundCache#WBRBCacheAccessDecision_REMOVED_FROM_CACHE
+	 * @see WriteBehindResyncInBackgroundCache#WBRBCacheAccessDecision_WRITE_ALLOWED
+	 */
+	@ToString(doNotUseGetters = true)
+	protected class WBRBCacheAccessDecision
+	{
+		/**
+		 * Action associated with this decision.
+		 */
+		@Getter
+		private final WBRBCacheAccessDecisionAction action;
+		
+		/**
+		 * Value read in this decision (only available for appropriate {@link #action})
+		 */
+		private final S readValue;
+		
+		/**
+		 * Exception to be thrown in this decision (only available for appropriate
+		 * {@link #action})
+		 */
+		private final CacheIllegalStateException exception;
+		
+		/**
+		 * Constructor.
+		 */
+		private WBRBCacheAccessDecision(WBRBCacheAccessDecisionAction action, S readValue, 
+			CacheIllegalStateException exception)
+		{
+			this.action = action;
+			this.readValue = readValue;
+			this.exception = exception;
+		}
+		
+		/**
+		 * Constructor for the case when we return value.
+		 */
+		public WBRBCacheAccessDecision(S readValue)
+		{
+			this(WBRBCacheAccessDecisionAction.VALUE_RETURNED, readValue, fakeNonNull());
+		}
+		
+		/**
+		 * Constructor for the case when we return exception to be thrown.
+		 * 
+		 * @param throwException true for {@link WBRBCacheAccessDecisionAction#THROW_EXCEPTION}
+		 * 		action, false for {@link WBRBCacheAccessDecisionAction#RETURN_EXCEPTION}
+		 */
+		public WBRBCacheAccessDecision(boolean throwException, CacheIllegalStateException exception)
+		{
+			this(throwException ? 
+					WBRBCacheAccessDecisionAction.THROW_EXCEPTION
+				:	WBRBCacheAccessDecisionAction.RETURN_EXCEPTION
+				, fakeNonNull(), exception);
+		}
+		
+		public S getReadValue() throws CacheInternalException
+		{
+			WBRBCacheAccessDecisionAction act = getAction();
+			switch (act)
+			{
+				case REMOVED_FROM_CACHE:
+				case THROW_EXCEPTION:
+				case RETURN_EXCEPTION:
+				case WAIT_FOR_LATCH:
+					logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable (method should not be called in this action)");
+					throw new CacheInternalException("Illegal action for requesting readValue(): " + act);
+				case VALUE_RETURNED:
+					return readValue;
+			}
+			
+			logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
+			throw new CacheInternalException("assertion failed -- code should not be reachable");
+		}
+		
+		public CacheIllegalStateException getException() throws CacheInternalException
+		{
+			WBRBCacheAccessDecisionAction act = getAction();
+			switch (act)
+			{
+				case REMOVED_FROM_CACHE:
+				case VALUE_RETURNED:
+				case WAIT_FOR_LATCH:
+					logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable (method should not be called in this action)");
+					throw new CacheInternalException("Illegal action for requesting getException(): " + act);
+				case RETURN_EXCEPTION:
+				case THROW_EXCEPTION:
+					return exception;
+			}
+			
+			logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
+			throw new CacheInternalException("assertion failed -- code should not be reachable");
+		}
+
+		// TO-DO remove cuz have annotation?
+//		@Override
+//		public String toString()
+//		{
+//			return getClass().getSimpleName() + "[" + action + ": " + readValue + " / exc: " + exception + "]";
+//		}
+	}
+	/**
+	 * Constant for indicating that read operation should wait for latch
+	 */
+	protected final WBRBCacheAccessDecision WBRBCacheAccessDecision_WAIT_FOR_LATCH = new WBRBCacheAccessDecision(
+		WBRBCacheAccessDecisionAction.WAIT_FOR_LATCH, fakeNonNull(), fakeNonNull());
+	/**
+	 * Constant for indicating that this entry was removed from cache and read 
+	 * operation should retry.
+	 */
+	protected final WBRBCacheAccessDecision WBRBCacheAccessDecision_REMOVED_FROM_CACHE = new WBRBCacheAccessDecision(
+		WBRBCacheAccessDecisionAction.REMOVED_FROM_CACHE, fakeNonNull(), fakeNonNull());
+	/**
+	 * Constant for indicating decision that allows write (write decision doesn't
+	 * require returning any actual value).
+	 */
+	@SuppressWarnings("unchecked")
+	protected final WBRBCacheAccessDecision WBRBCacheAccessDecision_WRITE_ALLOWED =
+		new WBRBCacheAccessDecision((S)new Object());
+	
+	
+	/**
+	 * Split data for when cached value needs to be written out, e.g. in
+	 * {@link #splitForWrite(Object, Object)}
+	 */
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+	@ToString
+	protected class WriteSplit
+	{
+		/**
+		 * New cache data to be stored instead of the old one (may be the same
+		 * instance as the old one).
+		 */
+		@Getter
+		@NonNull // for Lombok Non-Null checking
+		private final S newCacheData;
+		
+		/**
+		 * Data to send for writing.
+		 */
+		@Getter
+		@NonNull // for Lombok Non-Null checking
+		private final NullableOptional<W> writeData;
+		
+		/**
+		 * Constructor for the case when there's no write data (i.e. write
+		 * is not required).
+		 */
+		public WriteSplit(S newCacheData)
+		{
+			this(newCacheData, NullableOptional.empty());
+		}
+		
+		/**
+		 * Constructor for when there's both new cache data and write data (i.e.
+		 * write will be executed)
+		 */
+		public WriteSplit(S newCacheData, W dataToWrite)
+		{
+			this(newCacheData, NullableOptional.of(dataToWrite));
+		}
+	}
+	
+	/**
+	 * A {@link WriteSplit} instance with additional flags.
+	 */
+	@RequiredArgsConstructor
+	@ToString
+	protected class WBRBWriteSplitWithFlags
+	{
+		/**
+		 * Actual {@link WriteSplit}
+		 */
+		@Getter
+		@NonNull // for Lombok Non-Null checking
+		private final WriteSplit writeSplit;
+		
+		/**
+		 * Whether write data (in {@link #writeSplit}) contains all pending
+		 * updates (in case write merge is not supported, it is possible that
+		 * we have some write data that needs to be stored plus further updates
+		 * that aren't included in that write data -- in this case this flag
+		 * is false). 
+		 */
+		@Getter
+		private final boolean writeDataContainsAllPendingUpdates;
+	}
+	
+	/**
+	 * Decision when processing {@link #mainQueue}
+	 */
+	@RequiredArgsConstructor
+	@ToString
+	protected class WBRBMainQueueProcessingDecision
+	{
+		@Getter
+		@NonNull // for Lombok Non-Null checking
+		private final WBRBMainQueueItemCacheRetainDecision decision;
+
+		@Getter
+		@NonNull // for Lombok Non-Null checking
+		private final WBRBWriteSplitWithFlags writeSplitWithFlags;
+	}
+	
+	
+	/**
+	 * Possible event types in {@link WriteBehindResyncInBackgroundCache#spiUnknownLock_Event(WBRBEvent, Object, WBRBCacheEntry, WBRBCachePayload, Throwable, Object...)}
+	 */
+	protected static enum WBRBEvent
+	{
+		/**
+		 * Internal debug event -- used when necessary to debug something internally
+		 * <p> 
+		 * Arguments: whatever is appropriate, typically description should be 
+		 * included.
+		 */
+		DEBUG_EVENT_INTERNAL,
+		
+		/**
+		 * Item from the read queue processed
+		 * <p>
+		 * Arguments: {@link WBRBReturnQueueItemProcessingDecision}
+		 */
+		READ_QUEUE_ITEM_PROCESSED,
+		/**
+		 * Item from the write queue processed
+		 * <p>
+		 * Arguments: no cache entry, no payload, {@link WBRBWriteQueueProcessingDecision}, {@link WBRBWriteQueueEntry}
+		 */
+		WRITE_QUEUE_ITEM_PROCESSED,
+		/**
+		 * Item from the main queue was processed
+		 * <p>
+		 * Arguments: {@link WBRBMainQueueProcessingDecision}
+		 */
+		MAIN_QUEUE_ITEM_PROCESSED,
+		/**
+		 * Item from the return queue was processed
+		 * <p>
+		 * Arguments: {@link WBRBReturnQueueItemProcessingDecision}
+		 */
+		RETURN_QUEUE_ITEM_PROCESSED,
+		/**
+		 * Item was read successfully and merge decision was taken
+		 * <p>
+		 * Arguments: {@link WBRBMergeDecision}
+		 */
+		READ_SUCCESS_DECISION,
+		/**
+		 * Item failed read, the retry decision and potentially final-fail 
+		 * decision were taken
+		 * <p>
+		 * Arguments: {@link WBRBRetryDecision}, {@link NullableOptional} of 
+		 * {@link WBRBInitialReadFailedFinalDecision} or {@link WBRBResyncFailedFinalDecision} 
+		 */
+		READ_FAIL_DECISION,
+		/**
+		 * Item was written successfully
+		 * <p>
+		 * Arguments: {@link WBRBWriteQueueEntry}
+		 */
+		WRITE_SUCCESS,
+		/**
+		 * Item failed to write, the retry decision was taken
+		 * <p>
+		 * Arguments: {@link WBRBRetryDecision}, {@link WBRBWriteQueueEntry}
+		 */
+		WRITE_FAIL_DECISION,
+		/**
+		 * Item was added to cache
+		 * <p>
+		 * Arguments: no payload
+		 */
+		CACHE_ADD,
+		/**
+		 * Item was removed from cache
+		 * <p>
+		 * Arguments: no payload
+		 */
+		CACHE_REMOVE,
+		/**
+		 * Successful write event for the cache item (although still can fail
+		 * later on while collecting update)
+		 * <p>
+		 * Arguments: update value (ATTN: can be null if cache accepts those; not
+		 * wrapped into {@link NullableOptional} for performance reasons)
+		 */
+		CACHE_WRITE,
+		/**
+		 * Successful read event for the cache item
+		 * <p>
+		 * Arguments: {@link NullableOptional} of {@link R} (value returned from cache)
+		 */
+		CACHE_READ,
+		;
+	}
+
+	/**
+	 * Indicates reason as to why {@link WriteBehindResyncInBackgroundCache#spiWriteLockUpdates_reset(boolean, Object, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBCacheEntry, io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBCachePayload)}
+	 * is called (lets implementations to make their own decisions as to whether
+	 * to collect updates).
+	 *
+	 * @author Sergey Olefir
+	 */
+	protected enum WBRBUpdatesResetReason
+	{
+		/**
+		 * New entry has been created for the cache.
+		 * <p>
+		 * NOTE: in this case NO LOCK is held, however it is executed in a
+		 * thread-safe manner (e.g. before object reference is shared) so
+		 * the typical implementation should not care about the difference.
+		 * <p>
+		 * NOTE2: it is possible under contention that newly created entry will
+		 * be immediatelly discarded without adding to the cache; implementations
+		 * might want to keep this in mind.
+		 */
+		NO_WRITE_LOCK_NEW_CACHE_ENTRY_CREATED,
+		/**
+		 * Entry has been removed from cache, this is memory cleanup.
+		 */
+		REMOVED_FROM_CACHE,
+		/**
+		 * Data from storage was just merged successfully (i.e. initial read or
+		 * refresh read were processed). 
+		 */
+		STORAGE_DATA_MERGED,
+		/**
+		 * Read failed (final, no more retries) -- either initial or refresh -- and
+		 * handling code decision (e.g. in {@link WriteBehindResyncInBackgroundCache#spiWriteLockMakeResyncFailedFinalDecision(Object, WBRBCacheEntry, WBRBCachePayload)} ) 
+		 * is that reset is needed. 
+		 */
+		READ_FAILED_FINAL_DECISION,
+		/**
+		 * Exception in {@link WriteBehindResyncInBackgroundCache#spiWriteLockUpdates_isMergePossible(Object, WBRBCacheEntry, WBRBCachePayload, NullableOptional)}
+		 */
+		IS_MERGE_POSSIBLE_EXCEPTION,
+		/**
+		 * In main queue processing all pending data was sent to write queue.
+		 */
+		FULL_WRITE_SENT,
+		/**
+		 * Decision in return queue processing in {@link WriteBehindResyncInBackgroundCache#spiWriteLockMakeReturnQueueProcessingDecision(Object, WBRBCacheEntry, WBRBCachePayload)}
+		 */
+		RETURN_QUEUE_DECISION,
+		/**
+		 * Exception in {@link WriteBehindResyncInBackgroundCache#spiWriteLockUpdates_collect(Object, WBRBCacheEntry, WBRBCachePayload, Object)}
+		 * (such as too many updates already collected).
+		 */
+		UPDATE_COLLECT_EXCEPTION,
+		/**
+		 * Entry has been restored from snapshot (see {@link WBRBConfig#getSnapshotFile()})
+		 * and resync is scheduled for it -- collectUpdatesAfter is true in this 
+		 * case so that updates can be merged with the refreshed storage data.
+		 */
+		SNAPSHOT_RESTORED,
+		;
+	}
+	
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @throws RuntimeException if something is not right with config
+	 */
+	public WriteBehindResyncInBackgroundCache(WBRBConfig config) 
+		throws IllegalArgumentException, IllegalStateException, MissingResourceException, NumberFormatException
+	{
+		this.config = config;
+		this.commonNamingPrefix = "WBRBCache[" + config.getCacheName() + "]";
+		
+		this.internalStatsField = config.isStripedStats() ? new WBRBStripedStats(config.isLatencyHistograms()) 
+			: new WBRBStats(config.isLatencyHistograms());
+		
+		// Initialize logging stuff
+		{
+			int maxOrdinal = 1;
+			for (WBRBCacheMessage entry : WBRBCacheMessage.values())
+			{
+				maxOrdinal = Math.max(maxOrdinal, entry.ordinal());
+			}
+			
+			messageTypeCountersArray = TypeUtil.coerce(new AtomicReference[maxOrdinal + 1]); // must be + 1 for last index to work!
+			for (int i = 0; i < messageTypeCountersArray.length; i++)
+				messageTypeCountersArray[i] = new AtomicReference<>(new WBRBMessageTypeLoggingCounter(0));
+		}
+		
+		this.threadGroup = new ThreadGroup(commonNamingPrefix + " Thread Group");
+		
+		// main & return queue shards
+		{
+			queueShardCount = config.getMainQueueShardCount();
+			if (queueShardCount < 1)
+				throw new IllegalStateException("mainQueueShardCount must be positive, got: " + queueShardCount);
+			
+			mainQueues = TypeUtil.coerce(new WriteBehindResyncInBackgroundCache.WBRBDeadlineBucketQueue[queueShardCount]);
+			returnQueues = TypeUtil.coerce(new WriteBehindResyncInBackgroundCache.WBRBDeadlineBucketQueue[queueShardCount]);
+			for (int i = 0; i < queueShardCount; i++)
+			{
+				mainQueues[i] = new WBRBDeadlineBucketQueue();
+				returnQueues[i] = new WBRBDeadlineBucketQueue();
+			}
+			
+			mainQueue = mainQueues[0];
+			returnQueue = returnQueues[0];
+			
+			weighingEnabled = (config.getMaxCacheWeightHardLimit() > 0) || (config.getMainQueueMaxTargetWeight() > 0);
+			valueCodec = config.isSerializeIdleValues() ? createValueCodec() : null;
+			offHeapValuePool = config.isSerializeIdleValues() ? createOffHeapValuePool() : null;
+			{
+				String file = config.getSnapshotFile();
+				if (file.isEmpty())
+				{
+					snapshotFile = null;
+					snapshotKeyCodec = null;
+					snapshotValueCodec = null;
+					snapshotExecutor = null;
+				}
+				else
+				{
+					snapshotFile = Paths.get(file);
+					snapshotKeyCodec = createSnapshotKeyCodec();
+					snapshotValueCodec = createSnapshotValueCodec();
+					snapshotExecutor = (config.getSnapshotInterval() > 0) ? 
+						new ScheduledThreadPoolExecutor(1, new WAThreadFactory(commonNamingPrefix + "-snapshot", true, Thread.NORM_PRIORITY, threadGroup))
+						: null;
+				}
+			}
+			coalesceQueuedWrites = config.isCoalesceQueuedWrites();
+			optimisticReadsSupported = !isMethodOverridden("spiReadLockMakeCacheReadDecision", 
+				Object.class, WBRBCacheEntry.class, WBRBCachePayload.class);
+			adaptiveMainQueueCacheTime = config.getMainQueueCacheTime();
+			readQueueLanesPermits = config.isReadQueuePriorityLanes() ? new Semaphore(0) : null;
+			queueShardWeights = new AtomicLong[queueShardCount];
+			for (int i = 0; i < queueShardCount; i++)
+				queueShardWeights[i] = new AtomicLong(0);
+		}
+		
+		this.readQueueProcessingThread = createReadQueueProcessor();
+		
+		// readThreadPool
+		{
+			final WAThreadPoolExecutor pool;
+			
+			Pair<@Nonnull Integer, @Nonnull Integer> poolSize = config.getReadThreadPoolSize();
+			int minSize = poolSize.getValue0();
+			int maxSize = poolSize.getValue1();
+			
+			if ((minSize == -1) && (maxSize == -1))
+			{
+				pool = null;
+			}
+			else if ((minSize == -1) || (maxSize == -1))
+			{
+				throw new IllegalStateException("min/max pool size for readThreadPoolSize can only be -1 if they both are, got: " + poolSize);
+			}
+			else
+			{
+				if (maxSize < minSize)
+					throw new IllegalStateException("max pool size is less than min for readThreadPoolSize: " + poolSize);
+				
+				if (config.isReadThreadPoolVirtualThreads())
+				{
+					if (!WAExecutors.isVirtualThreadsSupported())
+						throw new IllegalStateException("readThreadPoolVirtualThreads requires Java 21+, virtual threads are not supported by the current JVM: " + System.getProperty("java.version"));
+					
+					pool = WAExecutors.newVirtualThreadPool(maxSize, commonNamingPrefix + "-readPool-");
+				}
+				else
+				{
+					pool = new WAThreadPoolExecutor(maxSize, commonNamingPrefix + "-readPool", true, config.getReadThreadPoolPriority(), threadGroup);
+					pool.setCorePoolSize(minSize);
+					pool.setKeepAliveTime(config.getReadThreadPoolMaxIdleTime(), TimeUnit.MILLISECONDS);
+				}
+			}
+			
+			readThreadPool = pool;
+		}
+		
+		
+		this.writeQueueProcessingThread = createWriteQueueProcessor();
+		
+		// writeThreadPool
+		{
+			final WAThreadPoolExecutor pool;
+			
+			Pair<@Nonnull Integer, @Nonnull Integer> poolSize = config.getWriteThreadPoolSize();
+			int minSize = poolSize.getValue0();
+			int maxSize = poolSize.getValue1();
+			
+			if ((minSize == -1) && (maxSize == -1))
+			{
+				pool = null;
+			}
+			else if ((minSize == -1) || (maxSize == -1))
+			{
+				throw new IllegalStateException("min/max pool size for writeThreadPoolSize can only be -1 if they both are, got: " + poolSize);
+			}
+			else
+			{
+				if (maxSize < minSize)
+					throw new IllegalStateException("max pool size is less than min for writeThreadPoolSize: " + poolSize);
+				
+				if (config.isWriteThreadPoolVirtualThreads())
+				{
+					if (!WAExecutors.isVirtualThreadsSupported())
+						throw new IllegalStateException("writeThreadPoolVirtualThreads requires Java 21+, virtual threads are not supported by the current JVM: " + System.getProperty("java.version"));
+					
+					pool = WAExecutors.newVirtualThreadPool(maxSize, commonNamingPrefix + "-writePool-");
+				}
+				else
+				{
+					pool = new WAThreadPoolExecutor(maxSize, commonNamingPrefix + "-writePool", true, config.getWriteThreadPoolPriority(), threadGroup);
+					pool.setCorePoolSize(minSize);
+					pool.setKeepAliveTime(config.getWriteThreadPoolMaxIdleTime(), TimeUnit.MILLISECONDS);
+				}
+			}
+			
+			writeThreadPool = pool;
+		}
+		
+		// asyncReadExecutor
+		{
+			ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(config.getAsyncReadThreadPoolSize(), 
+				new WAThreadFactory(commonNamingPrefix + "-asyncRead", true, Thread.NORM_PRIORITY, threadGroup));
+			executor.setRemoveOnCancelPolicy(true); // most timeouts are cancelled, don't keep them around
+			
+			asyncReadExecutor = executor;
+		}
+		
+		this.mainQueueProcessingThreads = new ExitableThread[queueShardCount];
+		this.returnQueueProcessingThreads = new ExitableThread[queueShardCount];
+		for (int i = 0; i < queueShardCount; i++)
+		{
+			mainQueueProcessingThreads[i] = createMainQueueProcessor(i);
+			returnQueueProcessingThreads[i] = createReturnQueueProcessor(i);
+		}
+		this.mainQueueProcessingThread = mainQueueProcessingThreads[0];
+		this.returnQueueProcessingThread = returnQueueProcessingThreads[0];
+	}
+	
+	// FIX-ME review
+	// FIX-ME update class/constructor javadocs to indicate that it needs to be started
+	@Override
+	public <C extends IWriteBehindResyncInBackgroundCacheWithControlMethods<K, V, S, R, W, UExt, UInt>> C start()
+		throws CacheControlStateException
+	{
+		switch (controlState.get())
+		{
+			case NOT_STARTED:
+				break;
+			case FLUSHING:
+			case RUNNING:
+				throw new CacheControlStateException(commonNamingPrefix, "cache cannot be started because it has been started already.");
+			case SHUTDOWN_IN_PROGRESS:
+			case SHUTDOWN_COMPLETED:
+				throw new CacheControlStateException(commonNamingPrefix, "cache cannot be started because it has been shutdown already.");
+		}
+		
+		getStats().latencyHistogramsLastResetAt.compareAndSet(0, timeNow());
+		
+		// Load snapshot (if any) before threads are started, so nothing competes with it
+		if ((snapshotFile != null) && config.isSnapshotLoadOnStart())
+		{
+			try
+			{
+				internalLoadSnapshot();
+			} catch (InterruptedException e)
+			{
+				throw new WAInterruptedException("Cache snapshot loading interrupted: " + e, e);
+			} catch (Exception e)
+			{
+				logMessage(WBRBCacheMessage.SNAPSHOT_LOAD_FAIL, e, snapshotFile);
+			}
+		}
+		
+		// Start all the threads
+		this.readQueueProcessingThread.start();
+		this.writeQueueProcessingThread.start();
+		for (ExitableThread thread : mainQueueProcessingThreads)
+			thread.start();
+		for (ExitableThread thread : returnQueueProcessingThreads)
+			thread.start();
+		
+		if (!controlState.compareAndSet(WBRBCacheControlState.NOT_STARTED, WBRBCacheControlState.RUNNING))
+			throw new CacheControlStateException(commonNamingPrefix, "cache cannot be set to running state because its control state was changed concurrently (e.g. via shutdown).");
+		
+		// Periodic snapshots
+		{
+			final long interval = config.getSnapshotInterval();
+			final ScheduledThreadPoolExecutor executor = snapshotExecutor;
+			if (executor != null)
+			{
+				final long realWorldInterval = Math.max(1, timeRealWorldInterval(interval));
+				executor.scheduleWithFixedDelay(() -> {
+					if (controlState.get() != WBRBCacheControlState.RUNNING)
+						return; // e.g. pending tasks are run during shutdown, snapshot is handled separately there
+					
+					try
+					{
+						guardedWriteSnapshot();
+					} catch (InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+					}
+				}, realWorldInterval, realWorldInterval, TimeUnit.MILLISECONDS);
+			}
+		}
+		
+		if (config.isOptimisticReads() && !optimisticReadsSupported)
+			logMessage(WBRBCacheMessage.OPTIMISTIC_READS_NOT_SUPPORTED, null);
+		
+		logMessage(WBRBCacheMessage.STARTED, null);
+		
+		return TypeUtil.coerce(this);
+	}
+	
+	
+	/**
+	 * CRITICAL marker -- used in preference to FATAL because FATAL originally
+	 * meant application shutdown (which is not applicable in the case of library).
+	 */
+	protected static final Marker criticalMarker = MarkerFactory.getMarker("CRITICAL");
+	
+	/**
+	 * Returns logger used by this instance for this particular event logging
+	 * <p>
+	 * Default implementation just returns {@link #defaultWBRBlog} which is
+	 * based of our own class name. 
+	 */
+	@SuppressWarnings("unused")
+	protected Logger spiUnknownLockGetLogger(WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
+		throws InterruptedException
+	{
+		return defaultWBRBlog;
+	}
+
+	/**
+	 * Extendable implementation of logging of events.
+	 * <p>
+	 * Default implementation simply sends them to throttled logging in 
+	 * {@link #spiUnknownLockLogMessage_Throttled(WBRBCacheMessage, Throwable, Object...)}
+	 */
+	protected void spiUnknownLockLogMessage(WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
+		throws InterruptedException
+	{
+		spiUnknownLockLogMessage_Throttled(msg, exception, args);
+	}
+	
+	/**
+	 * Implementation of event logging that just logs the event to the logger
+	 * without any additional processing or checking.
+	 * <p>
+	 * This method uses logger retrieved from {@link #spiUnknownLockGetLogger(WBRBCacheMessage, Throwable, Object...)}
+	 */
+	protected void spiUnknownLockLogMessage_Plain(WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
+		throws InterruptedException
+	{
+		Logger log = spiUnknownLockGetLogger(msg, exception, args);
+		
+		spiUnknownLockLogMessage_Plain(log, msg, exception, args);
+	}
+	
+	/**
+	 * Implementation of event logging that just logs the event to the given logger
+	 * without any additional processing or checking.
+	 */
+	protected void spiUnknownLockLogMessage_Plain(Logger log, WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
+		throws InterruptedException
+	{
+		final WBRBCacheMessageSeverity severity = msg.getSeverity(); 
+		
+		switch(severity)
+		{
+//			case TRACE:
+//				if (!log.isTraceEnabled())
+//					return;
+//				break;
+			case DEBUG:
+				if (!log.isDebugEnabled())
+					return;
+				break;
+			case INFO:
+			case EXTERNAL_INFO:
+				if (!log.isInfoEnabled())
+					return;
+				break;
+			case WARN:
+			case EXTERNAL_WARN:
+				if (!log.isWarnEnabled())
+					return;
+				break;
+			case ERROR:
+			case EXTERNAL_DATA_LOSS:
+			case EXTERNAL_ERROR:
+			case FATAL:
+				if (!log.isErrorEnabled())
+					return;
+				break;
+		}
+		
+		String formattedMsg = spiUnknownLockLogMessage_FormatAndTrackMessage(log, msg, exception, args);
+		
+		switch(severity)
+		{
+//			case TRACE:
+//				if (e != null)
+//					log.trace(formattedMsg, e);
+//				else
+//					log.trace(formattedMsg);
+//				break;
+			case DEBUG:
+				if (exception != null)
+					log.debug(formattedMsg, exception);
+				else
+					log.debug(formattedMsg);
+				break;
+			case INFO:
+			case EXTERNAL_INFO:
+				if (exception != null)
+					log.info(formattedMsg, exception);
+				else
+					log.info(formattedMsg);
+				break;
+			case WARN:
+			case EXTERNAL_WARN:
+				if (exception != null)
+					log.warn(formattedMsg, exception);
+				else
+					log.warn(formattedMsg);
+				break;
+			case ERROR:
+			case EXTERNAL_DATA_LOSS:
+			case EXTERNAL_ERROR:
+				if (exception != null)
+					log.error(formattedMsg, exception);
+				else
+					log.error(formattedMsg);
+				break;
+			case FATAL:
+				if (exception != null)
+					log.error(criticalMarker, formattedMsg, exception);
+				else
+					log.error(criticalMarker, formattedMsg);
+				break;
+		}
+	}
+	
+	/**
+	 * Formats a given message for the output
+	 */
+	@SuppressWarnings("unused")
+	protected String spiUnknownLockLogMessage_FormatMessage(Logger log, WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
+		throws InterruptedException
+	{
+		StringBuilder sb = new StringBuilder(100);
+		sb.append(commonNamingPrefix);
+		sb.append(' ');
+		sb.append(msg.toString());
+		
+		final String formattedMsg;
+		if (args.length > 0)
+		{
+			sb.append(' ');
+			sb.append(Arrays.toString(args));
+		}
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Formats a given message for the output & tracks last logged message
+	 */
+	protected String spiUnknownLockLogMessage_FormatAndTrackMessage(Logger log, WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
+		throws InterruptedException
+	{
+		String msgText = spiUnknownLockLogMessage_FormatMessage(log, msg, exception, args);
+		
+		getStats().lastLoggedTextMsgPerSeverityOrdinal[msg.getSeverity().ordinal()].set(msgText);
+		
+		return msgText;
+	}
+	
+	
+	/**
+	 * Helper method to format event information (from {@link #spiUnknownLock_Event(WBRBEvent, Object, WBRBCacheEntry, WBRBCachePayload, Throwable, Object...)}})
+	 * into data ready for sending to slf4j logging (pattern + arguments array).
+	 */
+	protected Pair<@Nonnull String, @Nullable Object @Nonnull[]> debugUnknownLock_FormatEventForSlf4jLogging(
+		WBRBEvent event, @Nonnull K key,
+		@Nullable WBRBCacheEntry cacheEntry, @Nullable WBRBCachePayload payload, 
+		@Nullable Throwable exception, Object... additionalArgs)
+	{
+		String currentCachedValue = null;
+		{
+			WBRBCachePayload p = payload;
+			if (p == null)
+				if (cacheEntry != null)
+					p = cacheEntry.getPayload();
+			if ((p != null) && p.isValueSerialized())
+				currentCachedValue = "<serialized>"; // don't force deserialization just for logging
+			else if (p != null)
+			{
+				@Nullable S cached = nullable(p.getValue()); // could be null if not read yet or cache contains null values
+				if (cached != null)
+					currentCachedValue = cached.toString();
+			}
+		}
+		
+		String writtenValue = null;
+		{
+			WBRBWriteQueueEntry wEntry = null;
+			switch (event)
+			{
+				case DEBUG_EVENT_INTERNAL:
+				case MAIN_QUEUE_ITEM_PROCESSED:
+				case READ_FAIL_DECISION:
+				case READ_QUEUE_ITEM_PROCESSED:
+				case READ_SUCCESS_DECISION:
+				case RETURN_QUEUE_ITEM_PROCESSED:
+				case CACHE_ADD:
+				case CACHE_REMOVE:
+				case CACHE_READ:
+				case CACHE_WRITE:
+					break;
+				case WRITE_SUCCESS:
+					wEntry = TypeUtil.coerce(additionalArgs[0]);
+					break;
+				case WRITE_QUEUE_ITEM_PROCESSED:
+					currentCachedValue = "<<UNKNOWN>>"; // this event doesn't provide easy access to payload
+					//$FALL-THROUGH$
+				case WRITE_FAIL_DECISION:
+					wEntry = TypeUtil.coerce(additionalArgs[1]);
+					break;
+			}
+			if (wEntry != null)
+			{
+				W wData = wEntry.getDataToWrite();
+				if (wData != null)
+					writtenValue = wData.toString();
+			}
+		}
+		
+		if (exception == null)
+			return new Pair<>("[event] {} [{}] cached[{}] written[{}] {} {}", 
+				new @Nullable Object[] {event, key, currentCachedValue, writtenValue, Arrays.toString(additionalArgs), commonNamingPrefix});
+		else
+		{
+			// last 'unused' exception will be printed out as stack trace by slf4j
+			return new Pair<>("[event] {} [{}] cached[{}] written[{}] {} {}", 
+				new @Nullable Object[] {event, key, currentCachedValue, writtenValue, Arrays.toString(additionalArgs), commonNamingPrefix, exception});
+		}
+	}
+	
+	/**
+	 * Used to track how many times specific message type has been logged already
+	 * in order to decide when to throttle.
+	 */
+	@RequiredArgsConstructor
+	@ToString
+	protected static class WBRBMessageTypeLoggingCounter
+	{
+		/**
+		 * Track when this message counting period started.
+		 */
+		@Getter
+		private final long periodStartTime;
+
+		/**
+		 * Message counter.
+		 */
+		@Getter
+		private final AtomicInteger messageCounter = new AtomicInteger(0);
+	}
+	
+	/**
+	 * Used to track message stats via {@link WBRBCacheMessage#ordinal()}
+	 */
+	protected final AtomicReference<@Nonnull WBRBMessageTypeLoggingCounter>[] messageTypeCountersArray;
+	
+	/**
+	 * Used to track message stats via classificators in {@link #logNonStandardMessage(WBRBCacheMessageSeverity, String, Throwable, Object...)}
+	 */
+	protected final ConcurrentHashMap<String, AtomicReference<@Nonnull WBRBMessageTypeLoggingCounter>> messageClassificatorCountersMap = 
+		new ConcurrentHashMap<String, AtomicReference<@Nonnull WBRBMessageTypeLoggingCounter>>();
+	
+	/**
+	 * Implementation of event logging that only logs messages so long as there
+	 * weren't 'too many' messages of a particular kind logged already.
+	 * <p>
+	 * If message is not throttled, it is sent to {@link #spiUnknownLockLogMessage_Plain(WBRBCacheMessage, Throwable, Object...)}
+	 * for actual logging.
+	 */
+	protected void spiUnknownLockLogMessage_Throttled(WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
+		throws InterruptedException
+	{
+		boolean logMessage = false;
+		boolean logNextMessagesMayBeSkipped = false;
+		
 		final int msgLimit = config.getLogThrottleMaxMessagesOfTypePerTimeInterval();
 		long gap = -1; // this is used to log message below, so 'global' variable
 		long throttleIntervalDuration = -1; // this is used to log message below, so 'global' variable
 		final String msgId;
 		if (msgLimit < 1)
 		{
-			// Always log if throttling value is zero
-			logMessage = true;
-			msgId = msg.toString();
+			// Always log if throttling value is zero
+			logMessage = true;
+			msgId = msg.toString();
+		}
+		else if (spiUnknownLockLogMessage_IsThrottlingMessage(msg, exception, args))
+		{
+			// No throttling for throttling messages to avoid weirdness
+			logMessage = true;
+			msgId = msg.toString();
+		}
+		else
+		{
+			final AtomicReference<@Nonnull WBRBMessageTypeLoggingCounter> reference;
+			if (!msg.isNonStandard())
+			{
+				reference = messageTypeCountersArray[msg.ordinal()];
+				msgId = msg.toString();
+			}
+			else
+			{	
+				String classificator;
+				try
+				{
+					classificator = nnChecked((String)args[0]);
+				} catch (Throwable e)
+				{
+					throw new CacheInternalException("Non-standard message type [" + msg + "] must provide String classificator as first argument, got: " + Arrays.toString(args), e);
+				}
+				
+				msgId = classificator + '_' + msg.getSeverity(); // append severity in case same classificator is used with different severities
+				reference = messageClassificatorCountersMap.computeIfAbsent(msgId, k -> new AtomicReference<>(new WBRBMessageTypeLoggingCounter(0)));
+			}
+			
+			WBRBMessageTypeLoggingCounter throttleData = reference.get();
+			
+			long now = timeNow();
+			
+			gap = timeGapVirtual(throttleData.getPeriodStartTime(), now);
+			
+			throttleIntervalDuration = config.getLogThrottleTimeInterval();
+			
+			if (gap > throttleIntervalDuration)
+			{
+				// Need to create a new counter data.
+				WBRBMessageTypeLoggingCounter newThrottleData = new WBRBMessageTypeLoggingCounter(now);
+				
+				if (reference.compareAndSet(throttleData, newThrottleData))
+				{
+					// using our instance
+					int oldCount = throttleData.getMessageCounter().get();
+					if (oldCount > msgLimit)
+					{
+						// Log approximately how many messages were skipped
+						logMessage(WBRBCacheMessage.LOG_MESSAGE_TYPE_PREVIOUS_MESSAGES_SKIPPED, null, msgId, (oldCount - msgLimit));
+					}
+					throttleData = newThrottleData; 
+				}
+				else
+					throttleData = reference.get(); // someone else set it, use that one
+				
+				gap = timeGapVirtual(throttleData.getPeriodStartTime(), now); // recalculate gap since throttle data was replaced
+			}
+			
+			int messageCount = throttleData.getMessageCounter().incrementAndGet();
+			if (messageCount <= msgLimit)
+			{
+				logMessage = true;
+				if (messageCount == msgLimit)
+					logNextMessagesMayBeSkipped = true;
+					
+			}
+		}
+		
+		if (logMessage)
+		{
+			// Send to actual logging
+			spiUnknownLockLogMessage_Plain(msg, exception, args);
+		}
+		if (logNextMessagesMayBeSkipped)
+		{
+			// Log that further messages may be skipped for X ms
+			logMessage(WBRBCacheMessage.LOG_MESSAGE_TYPE_MESSAGES_MAY_BE_SKIPPED_FOR, null, msgId, (throttleIntervalDuration - gap));
+		}
+	}
+
+	
+	/**
+	 * Determines whether the given message is a 'throttling message'.
+	 * Throttling messages are handled differently, e.g. they don't participate
+	 * in throttling and don't affect message tracking.
+	 */
+	@SuppressWarnings({"deprecation", "unused"})
+	protected boolean spiUnknownLockLogMessage_IsThrottlingMessage(WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
+	{
+		switch (msg)
+		{
+			case LOG_MESSAGE_TYPE_MESSAGES_MAY_BE_SKIPPED_FOR:
+			case LOG_MESSAGE_TYPE_PREVIOUS_MESSAGES_SKIPPED:
+				return true;
+				
+			case APPLY_UPDATE_FAIL:
+			case VALUE_SERIALIZATION_FAIL:
+			case VALUE_DESERIALIZATION_FAIL:
+			case ASSERTION_FAILED:
+			case CONVERT_FROM_CACHE_FORMAT_TO_RETURN_VALUE_FAIL:
+			case CONVERT_TO_CACHE_FORMAT_FROM_STORAGE_DATA_FAIL:
+			case CONVERT_TO_INTERNAL_UPDATE_FORMAT_FROM_EXTERNAL_UPDATE_FAIL:
+			case FLUSH_REQUESTED:
+			case FLUSH_SPOOLDOWN_NOT_ACHIEVED:
+			case FLUSH_SUCCESFULLY_COMPLETED:
+			case SNAPSHOT_WRITTEN:
+			case SNAPSHOT_WRITE_FAIL:
+			case SNAPSHOT_LOADED:
+			case SNAPSHOT_LOAD_FAIL:
+			case SNAPSHOT_ENTRY_SKIPPED:
+			case MAIN_QUEUE_NON_STANDARD_OUTCOME:
+			case MAIN_QUEUE_PROCESSOR_UNEXPECTED_INTERRUPT:
+			case MERGE_CACHE_AND_STORAGE_DATA_FAIL:
+			case NON_STANDARD_DEBUG:
+			case NON_STANDARD_ERROR:
+			case NON_STANDARD_EXTERNAL_DATA_LOSS:
+			case NON_STANDARD_EXTERNAL_ERROR:
+			case NON_STANDARD_EXTERNAL_INFO:
+			case NON_STANDARD_EXTERNAL_WARN:
+			case NON_STANDARD_FATAL:
+			case NON_STANDARD_INFO:
+			case NON_STANDARD_WARN:
+			case NOT_PRESENT_ELEMENT_REMOVAL_ATTEMPT:
+			case READ_QUEUE_PROCESSOR_UNEXPECTED_INTERRUPT:
+			case RESYNC_FAILED_FINAL_DATA_DISCARDED:
+			case RESYNC_FAILED_FINAL_STORAGE_DATA_OVERWRITE:
+			case RESYNC_IS_TOO_LATE:
+			case RETURN_QUEUE_NON_STANDARD_OUTCOME:
+			case RETURN_QUEUE_PROCESSOR_UNEXPECTED_INTERRUPT:
+			case RETURN_QUEUE_ITEM_NOT_RETAINED_DUE_TO_MAIN_QUEUE_SIZE:
+			case RETURN_QUEUE_NEGATIVE_TIME_SINCE_TOUCHED:
+			case SHUTDOWN_COMPLETED:
+			case SHUTDOWN_REQUESTED:
+			case SHUTDOWN_SPOOLDOWN_NOT_ACHIEVED:
+			case SPI_EXCEPTION_Event:
+			case SPI_EXCEPTION_GetReadQueueProcessorLock:
+			case SPI_EXCEPTION_LogMessage:
+			case SPI_EXCEPTION_MakeCacheReadDecision:
+			case SPI_EXCEPTION_MakeCacheWriteDecision:
+			case SPI_EXCEPTION_MakeInitialReadFailedFinalDecision:
+			case SPI_EXCEPTION_MakeMainQueueProcessingDecision:
+			case SPI_EXCEPTION_MakeMainQueueProcessingDecision_ResyncFailedFinal:
+			case SPI_EXCEPTION_MakeMainQueueProcessingDecision_ResyncPending:
+			case SPI_EXCEPTION_MakeMainQueueProcessingDecision_WriteFailedFinal:
+			case SPI_EXCEPTION_MakeMainQueueProcessingDecision_WritePending:
+			case SPI_EXCEPTION_MakeMainQueueProcessingDecision_isResetFailureCounts:
+			case SPI_EXCEPTION_MakeMainQueueProcessingDecision_logNonStandardOutcome:
+			case SPI_EXCEPTION_MakeMergeDecision:
+			case SPI_EXCEPTION_MakeReadQueueProcessingDecision:
+			case SPI_EXCEPTION_MakeReadRetryDecision:
+			case SPI_EXCEPTION_MakeResyncFailedFinalDecision:
+			case SPI_EXCEPTION_MakeReturnQueueProcessingDecision:
+			case SPI_EXCEPTION_MakeReturnQueueProcessingDecision_WriteFailedFinal:
+			case SPI_EXCEPTION_MakeReturnQueueProcessingDecision_WriteOk:
+			case SPI_EXCEPTION_MakeReturnQueueProcessingDecision_WritePending:
+			case SPI_EXCEPTION_MakeReturnQueueProcessingDecision_logNonStandardOutcome:
+			case SPI_EXCEPTION_MakeWriteQueueProcessingDecision:
+			case SPI_EXCEPTION_MakeWriteRetryDecision:
+			case SPI_EXCEPTION_ReadBatchDelayExpired:
+			case SPI_EXCEPTION_ReadFromStorage:
+			case SPI_EXCEPTION_Updates_collect:
+			case SPI_EXCEPTION_Updates_isMergePossible:
+			case SPI_EXCEPTION_Updates_reset:
+			case SPI_EXCEPTION_WriteBatchDelayExpired:
+			case SPI_EXCEPTION_WriteToStorage:
+			case SPI_EXCEPTION_Weigh:
+			case SPI_EXCEPTION_IsStorageDataAbsent:
+			case SPI_EXCEPTION_CalculateAdaptiveMainQueueCacheTime:
+			case SPLIT_FOR_WRITE_FAIL:
+			case STARTED:
+			case STORAGE_READ_FAIL:
+			case STORAGE_READ_FAIL_FINAL:
+			case STORAGE_READ_RETRY_ISSUED:
+			case STORAGE_WRITE_FAIL:
+			case STORAGE_WRITE_FAIL_FINAL:
+			case STORAGE_WRITE_RETRY_ISSUED:
+			case TEST_WARN:
+			case TOO_MANY_CACHE_ELEMENT_UPDATES:
+			case TOO_MANY_REMOVED_FROM_CACHE_STATE_RETRIES:
+			case UNEXPECTED_CACHE_REMOVAL_IN_ADD_ENTRY:
+			case UNEXPECTED_CACHE_REMOVAL_IN_MAIN_QUEUE_PROCESSING:
+			case UNEXPECTED_CACHE_REMOVAL_IN_RETURN_QUEUE_PROCESSING:
+			case CACHE_ADD_MAIN_QUEUE_SIZE_WARNING:
+			case CACHE_ADD_FAIL_CACHE_SIZE_LIMIT_EXCEEDED:
+			case CACHE_ADD_FAIL_CACHE_WEIGHT_LIMIT_EXCEEDED:
+			case UNEXPECTED_CACHE_STATE_FOR_READ_FAIL:
+			case UNEXPECTED_CACHE_STATE_FOR_READ_MERGE:
+			case UNEXPECTED_CACHE_STATE_FOR_READ_QUEUE_PROCESSING:
+			case UNEXPECTED_CACHE_STATE_FOR_WRITE_FAIL:
+			case UNEXPECTED_CACHE_STATE_FOR_WRITE_QUEUE_PROCESSING:
+			case UNEXPECTED_CACHE_STATE_FOR_WRITE_SUCCESS:
+			case WRITE_FAILED_FINAL_DATA_DISCARDED:
+			case WRITE_QUEUE_PROCESSOR_UNEXPECTED_INTERRUPT:
+				return false;
+		}
+		
+		// It ought to be an assertion error, but we'll be lenient here because
+		// it's not very important and there are many message types.
+		return false;
+	}
+	
+	/**
+	 * Invoked when there's message to log by the cache.
+	 * <p>
+	 * This method is used to provide a 'guard' against failures around the
+	 * {@link #spiUnknownLockLogMessage(WBRBCacheMessage, Throwable, Object...)}
+	 * method, so usually SHOULD NOT be overridden.
+	 * <p>
+	 * WARNING: this can (and should be able to) throw {@link InterruptedException},
+	 * however since dealing with it in most places is not required (it should
+	 * just propagate upwards to indicate potential thread termination), it uses
+	 * {@link SneakyThrows}
+	 */
+	@SneakyThrows(InterruptedException.class) // see comment above
+	protected void logMessage(@NonNull WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
+	{
+		try
+		{
+			if (!spiUnknownLockLogMessage_IsThrottlingMessage(msg, exception, args))
+			{
+				// Record message timestamp
+				getStats().lastTimestampMsgPerSeverityOrdinal[msg.getSeverity().ordinal()].set(timeNow());
+				
+				switch (msg.getSeverity())
+				{
+					case DEBUG:
+					case INFO:
+					case EXTERNAL_INFO:
+						break;
+					case WARN:
+						getStats().msgWarnCount.increment();
+						break;
+					case EXTERNAL_WARN:
+						getStats().msgExternalWarnCount.increment();
+						break;
+					case EXTERNAL_ERROR:
+						getStats().msgExternalErrorCount.increment();
+						break;
+					case EXTERNAL_DATA_LOSS:
+						getStats().msgExternalDataLossCount.increment();
+						break;
+					case ERROR:
+						getStats().msgErrorCount.increment();
+						break;
+					case FATAL:
+						getStats().msgFatalCount.increment();
+						break;
+				}
+			}
+			
+			spiUnknownLockLogMessage(msg, exception, args);
+		} catch (Throwable loggingException)
+		{
+			if (loggingException instanceof ThreadDeath)
+				throw loggingException;
+			if (loggingException instanceof InterruptedException) // this may be used to indicate that thread should exit 
+				throw loggingException;
+			
+			getStats().msgErrorCount.increment();
+
+			// Logging failed, try to log that fact, but it may well fail itself
+			// TO-DO monitor
+			try
+			{
+				spiUnknownLockLogMessage(WBRBCacheMessage.SPI_EXCEPTION_LogMessage, loggingException);
+			} catch (Exception e2)
+			{
+				// This is a problem, we can't use standard logging mechanism here because it just failed
+				// so just log it directly
+				getStats().msgErrorCount.increment();
+				try
+				{
+					defaultWBRBlog.error("LOGGING FAILED for: " + msg + ": " + loggingException, loggingException);
+				} catch (Exception e3)
+				{
+					// ignore this
+				}
+			}
+		}
+	}
+	
+	
+	/**
+	 * Invoked when there's message to log by the cache that doesn't fit any
+	 * of the 'standard' message categories -- to be used in e.g. subclasses.
+	 * 
+	 * @param classifier non-null string used for message classification, e.g.
+	 * 		for message throttling
+	 */
+	@SuppressWarnings("deprecation") // deprecated is used to mark WBRBCacheMessage instances that are not supposed to be used directly by clients
+	protected void logNonStandardMessage(WBRBCacheMessageSeverity severity, @NonNull String classifier, @Nullable Throwable exception, Object... args)
+	{
+		WBRBCacheMessage msg = fakeNonNull(); // to make compiler happy
+		switch (severity)
+		{
+			case DEBUG:
+				msg = WBRBCacheMessage.NON_STANDARD_DEBUG;
+				break;
+			case ERROR:
+				msg = WBRBCacheMessage.NON_STANDARD_ERROR;
+				break;
+			case EXTERNAL_DATA_LOSS:
+				msg = WBRBCacheMessage.NON_STANDARD_EXTERNAL_DATA_LOSS;
+				break;
+			case EXTERNAL_ERROR:
+				msg = WBRBCacheMessage.NON_STANDARD_EXTERNAL_ERROR;
+				break;
+			case EXTERNAL_INFO:
+				msg = WBRBCacheMessage.NON_STANDARD_EXTERNAL_INFO;
+				break;
+			case EXTERNAL_WARN:
+				msg = WBRBCacheMessage.NON_STANDARD_EXTERNAL_WARN;
+				break;
+			case FATAL:
+				msg = WBRBCacheMessage.NON_STANDARD_FATAL;
+				break;
+			case INFO:
+				msg = WBRBCacheMessage.NON_STANDARD_INFO;
+				break;
+			case WARN:
+				msg = WBRBCacheMessage.NON_STANDARD_WARN;
+				break;
+		}
+		
+		Object[] newArgs = new @Nonnull Object[args.length + 1];
+		newArgs[0] = classifier;
+		if (args.length > 0)
+			System.arraycopy(args, 0, newArgs, 1, args.length);
+		
+		logMessage(msg, exception, newArgs);
+	}
+	
+	
+	// TO-DO preload tests?
+	@Override
+	public void preloadCache(K key) throws IllegalArgumentException, CacheFullException,
+		CacheIllegalStateException, CacheInternalException, WAInterruptedException
+	{
+		try
+		{
+			haveNoLock_CheckCache(key, true, true, Boolean.TRUE);
+		} catch (InterruptedException e)
+		{
+			throw new WAInterruptedException("Cache preload interrupted for [" + key + "]: " + e, e);
+		}
+	}
+	
+	@Override
+	public void preloadAll(Collection<K> keys) throws IllegalArgumentException, CacheFullException,
+		CacheIllegalStateException, CacheInternalException, WAInterruptedException
+	{
+		try
+		{
+			internalPreloadAll(keys, null, null);
+		} catch (InterruptedException e)
+		{
+			throw new WAInterruptedException("Cache preload interrupted for " + keys.size() + " keys: " + e, e);
+		}
+	}
+	
+	/**
+	 * Pre-loads all the given keys; reads for all the elements that were
+	 * added to the cache are scheduled as a single batch (after all the keys
+	 * are processed) so they are adjacent in the read queue.
+	 * 
+	 * @param failedKeys if not null, {@link CacheFullException}s are not 
+	 * 		thrown, instead corresponding keys & exceptions are stored in this map
+	 * @param entries if not null, cache entries for all the (non-failed) keys
+	 * 		are stored in this map; in this case the keys are not counted as
+	 * 		preloads in the stats (it's the caller's responsibility to count
+	 * 		them as needed)
+	 */
+	protected void internalPreloadAll(Collection<K> keys, @Nullable Map<K, NullableOptional<V>> failedKeys,
+		@Nullable Map<K, WBRBCacheEntry> entries) 
+		throws IllegalArgumentException, CacheFullException, InterruptedException
+	{
+		ArrayList<WBRBCacheEntry> readBatch = new ArrayList<>(keys.size());
+		try
+		{
+			for (K key : keys)
+			{
+				try
+				{
+					if (entries == null)
+						haveNoLock_CheckCache(key, true, true, Boolean.TRUE, readBatch);
+					else
+						entries.put(key, nn(haveNoLock_CheckCache(key, true, false, null/*counted by the caller*/, readBatch)));
+				} catch (CacheFullException e)
+				{
+					if (failedKeys == null)
+						throw e;
+					
+					failedKeys.put(key, NullableOptional.emptyWithException(e));
+				}
+			}
+		} finally
+		{
+			// Whatever was added must be read even if there was a failure
+			for (WBRBCacheEntry entry : readBatch)
+				queueRead(entry, false);
+		}
+	}
+	
+	@Override
+	public Map<K, NullableOptional<V>> readAllFor(Collection<K> keys, long limitMillis) 
+		throws IllegalArgumentException, CacheIllegalStateException, CacheInternalException, WAInterruptedException
+	{
+		// All reads use the same anchor time, so the limit applies to the
+		// whole operation rather than to each key
+		final long realWorldAnchorTime = timeNow();
+		
+		LinkedHashMap<K, NullableOptional<V>> result = new LinkedHashMap<>(keys.size() * 2);
+		LinkedHashMap<K, NullableOptional<V>> failedKeys = new LinkedHashMap<>();
+		
+		if (limitMillis >= 0)
+		{
+			try
+			{
+				// Add all the missing entries & schedule their reads as a batch
+				HashMap<K, WBRBCacheEntry> entries = new HashMap<>(keys.size() * 2);
+				internalPreloadAll(keys, failedKeys, entries);
+				
+				// Wait for all the entries together -- they are loaded concurrently
+				// so total wait is limited by the shared deadline
+				if (limitMillis > 0)
+				{
+					haveNoLock_AwaitEntriesUntil(entries.values(), 
+						timeAddVirtualIntervalToRealWorldTime(realWorldAnchorTime, limitMillis));
+				}
+			} catch (InterruptedException e)
+			{
+				throw new WAInterruptedException("Cache read interrupted for " + keys.size() + " keys: " + e, e);
+			}
+		}
+		
+		// Collect results -- entries that are loaded are returned without
+		// waiting; this is where each key is counted as a read (once)
+		for (K key : keys)
+		{
+			NullableOptional<V> failed = failedKeys.get(key);
+			if (failed != null)
+			{
+				result.put(key, failed);
+				continue;
+			}
+			
+			try
+			{
+				result.put(key, internalRead(key, realWorldAnchorTime, limitMillis));
+			} catch (CacheFullException e)
+			{
+				// This is possible if element was removed from cache concurrently
+				result.put(key, NullableOptional.emptyWithException(e));
+			}
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Waits until access latches of all the given entries are open (i.e.
+	 * initial read results are known) or until the given (real-world) 
+	 * deadline, whichever comes first.
+	 * <p>
+	 * Never sleeps longer than {@link WBRBConfig#getMaxSleepTime()} at a time
+	 * so that changes in cache state (e.g. shutdown) are noticed.
+	 */
+	protected void haveNoLock_AwaitEntriesUntil(Collection<WBRBCacheEntry> entries, long waitUntil)
+		throws InterruptedException
+	{
+		for (WBRBCacheEntry entry : entries)
+		{
+			while (true)
+			{
+				long now = timeNow();
+				if (waitUntil <= now)
+					return; // deadline is shared, so no point checking other entries
+				
+				long maxWaitUntil = timeAddVirtualIntervalToRealWorldTime(
+					now, config.getMaxSleepTime()); // never wait more than max sleep time at a time to avoid issues due to shutdown or changing time factor
+				
+				if (entry.getAccessLatch().await(Math.min(waitUntil, maxWaitUntil) - now, TimeUnit.MILLISECONDS))
+					break; // this entry is done, check the next one
+				
+				checkStandardCacheOperationsAllowed(); // in case cache was moved to 'disallowed' state concurrently, such as shutdown
+			}
+		}
+	}
+	
+	/**
+	 * Checks cache for the element presence; if addIsMissing is set, will add
+	 * an empty cache element if not currently present
+	 * 
+	 * @param addIfMissing if true, element will be added to cache if missing
+	 * @param returnNullIfAdded if true and element was just added by this method,
+	 * 		return null instead of cache entry (otherwise return cache entry)
+	 * @param isPreload whether this is for preloading data; this is currently
+	 * 		used only for monitoring purposes; null means that most counters
+	 * 		should not be incremented (e.g. because this is a retry)
+	 * 
+	 * @return cache element for the key or null if it's not present and addIsMissing
+	 * 		flag is not set
+	 * 
+	 * @throws IllegalArgumentException if key is null
+	 * @throws CacheFullException if element is not currently cached and cache
+	 * 		is full (so no additional element may be added)
+	 */
+	@Nullable
+	protected WBRBCacheEntry haveNoLock_CheckCache(K key, 
+		boolean addIfMissing, boolean returnNullIfAdded, final @Nullable Boolean isPreload) 
+		throws IllegalArgumentException, CacheFullException, InterruptedException
+	{
+		return haveNoLock_CheckCache(key, addIfMissing, returnNullIfAdded, isPreload, null);
+	}
+	
+	/**
+	 * Version of {@link #haveNoLock_CheckCache(Object, boolean, boolean, Boolean)}
+	 * that can collect newly added entries instead of adding them to the
+	 * read queue right away.
+	 * 
+	 * @param readBatch if not null, newly added entry is added to this
+	 * 		collection instead of {@link #readQueue} -- caller is then 
+	 * 		responsible for adding it to the read queue
+	 */
+	@Nullable
+	protected WBRBCacheEntry haveNoLock_CheckCache(K key, 
+		boolean addIfMissing, boolean returnNullIfAdded, final @Nullable Boolean isPreload,
+		@Nullable Collection<WBRBCacheEntry> readBatch) 
+		throws IllegalArgumentException, CacheFullException, InterruptedException
+	{
+		checkStandardCacheOperationsAllowed();
+		
+		getStats().checkCacheAttemptsNoDedup.increment(); // always increment
+		
+		if (nullable(key) == null)
+		{
+			getStats().checkCacheNullKeyCount.increment();
+			throw new IllegalArgumentException("Key must not be null.");
+		}
+		
+		if (isPreload != null)
+		{
+			if (isPreload)
+				getStats().checkCachePreloadAttempts.increment();
+			else
+				getStats().checkCacheReadAttempts.increment();
+		}
+		
+		WBRBCacheEntry value = inflightMap.get(key);
+		if (value != null)
+		{
+			if (isPreload != null)
+			{
+				if (isPreload)
+					getStats().checkCachePreloadCacheHit.increment();
+				else
+					getStats().checkCacheReadCacheHit.increment();
+			}
+			
+			return value; // already have it cache, although it's not guaranteed to be available
+		}
+		
+		if (!addIfMissing)
+			return null;
+		
+		// TO-DO not clear whether concurrent map mappingCount() performance is 'good enough'
+		long cacheSize = inflightMap.mappingCount();
+		
+		if (cacheSize >= config.getMaxCacheElementsHardLimit())
+		{
+			if (isPreload != null)
+			{
+				if (isPreload)
+					getStats().checkCachePreloadCacheFullExceptionCount.increment();
+				else
+					getStats().checkCacheReadCacheFullExceptionCount.increment();
+			}
+			
+			logMessage(WBRBCacheMessage.CACHE_ADD_FAIL_CACHE_SIZE_LIMIT_EXCEEDED, null, key, cacheSize);
+			throw new CacheFullException(config.getCacheName(), cacheSize, config.getMaxCacheElementsHardLimit());
+		}
+		
+		final long maxCacheWeight = config.getMaxCacheWeightHardLimit();
+		if (weighingEnabled && (maxCacheWeight > 0))
+		{
+			long cacheWeight = getCacheWeight();
+			if (cacheWeight >= maxCacheWeight)
+			{
+				if (isPreload != null)
+				{
+					if (isPreload)
+						getStats().checkCachePreloadCacheFullExceptionCount.increment();
+					else
+						getStats().checkCacheReadCacheFullExceptionCount.increment();
+				}
+				
+				logMessage(WBRBCacheMessage.CACHE_ADD_FAIL_CACHE_WEIGHT_LIMIT_EXCEEDED, null, key, cacheWeight);
+				throw new CacheFullException(config.getCacheName(), cacheWeight, maxCacheWeight);
+			}
+		}
+		
+		WBRBCacheEntry entry = createCacheEntry(key, timeNow());
+		WBRBCachePayload payload = entry.getPayload();
+		
+		final WBRBDeadlineBucketQueue shardMainQueue = mainQueues[entry.getQueueShardIndex()];
+		long mainQueueSize = shardMainQueue.size();
+		if (mainQueueSize > getMainQueueShardMaxTargetSize())
+			logMessage(WBRBCacheMessage.CACHE_ADD_MAIN_QUEUE_SIZE_WARNING, null, key, mainQueueSize);
+		wrappedSpiWriteLockUpdates_reset(WBRBUpdatesResetReason.NO_WRITE_LOCK_NEW_CACHE_ENTRY_CREATED, false, key, entry, payload);
+		
+		boolean removeEntry = true; // this is to make sure we don't leave orphans in inflight map
+		WBRBCacheEntry prev = inflightMap.putIfAbsent(key, entry);
+		if (prev != null)
+		{
+			if (isPreload != null)
+			{
+				if (isPreload)
+					getStats().checkCachePreloadCacheHit.increment();
+				else
+					getStats().checkCacheReadCacheHit.increment();
+			}
+			
+			return prev; // someone else added entry before us, return that one
+		}
+		
+		try
+		{
+			// 'in queue since' is already set above
+			shardMainQueue.add(entry);
+			removeEntry = false; // keep inflight map entry
+		} finally
+		{
+			if (removeEntry)
+			{
+				haveNoLock_RemoveFromCache(entry);
+				logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_REMOVAL_IN_ADD_ENTRY, null, key);
+			}
+		}
+		
+		// We added new entry, need to schedule it for reading.
+		if (readBatch != null)
+			readBatch.add(entry);
+		else
+			queueRead(entry, false);
+		
+		// Event notification
+		wrappedSpiUnknownLock_Event(WBRBEvent.CACHE_ADD, key, entry, null, null);								
+		
+		if (returnNullIfAdded)
+			return null;
+		else
+			return entry;
+	}
+	
+	/**
+	 * Removes an element from cache -- more specifically removes it from
+	 * in-flight map and updates status.
+	 * <p>
+	 * This must be called WITHOUT HOLDING A READ LOCK (or better yet -- no lock)
+	 * because READ LOCK CANNOT BE UPGRADED TO WRITE LOCK.
+	 */
+	protected void haveNoLock_RemoveFromCache(WBRBCacheEntry cacheEntry)
+		throws InterruptedException
+	{
+		// Thread we're executing in might have interrupted flag, so do the
+		// critical, non-interruptible stuff first
+		internal_lockDoesntMatter_RemoveEntryFromInflightMap(cacheEntry, true);
+		
+		// Now attempt to get a write lock and mark entry as removed... 
+		withWriteLock(cacheEntry, () -> {
+			internal_haveWriteLock_MarkEntryAsRemovedFromCache(cacheEntry);
+		});
+	}
+	
+	/**
+	 * Removes an element from cache -- more specifically removes it from
+	 * in-flight map and updates status.
+	 * <p>
+	 * This must be called WHILE ALREADY HOLDING THE WRITE LOCK!
+	 */
+	protected void haveWriteLock_RemoveFromCache(WBRBCacheEntry cacheEntry)
+		throws InterruptedException
+	{
+		internal_haveWriteLock_RemoveFromCache(cacheEntry, true);
+	}
+	
+	/**
+	 * Removes an element from cache -- more specifically removes it from
+	 * in-flight map and updates status.
+	 * <p>
+	 * If element is already marked with {@link WBRBCacheEntryReadStatus#REMOVED_FROM_CACHE},
+	 * then warning message will not be produced about 'element already removed'
+	 * when trying to remove from in-flight map.
+	 * <p>
+	 * This must be called WHILE ALREADY HOLDING THE WRITE LOCK!
+	 */
+	protected void haveWriteLock_RemoveFromCache_NoMessageIfAlreadyRemoved(WBRBCacheEntry cacheEntry)
+		throws InterruptedException
+	{
+		internal_haveWriteLock_RemoveFromCache(cacheEntry, 
+			cacheEntry.getPayload().getReadStatus() != WBRBCacheEntryReadStatus.REMOVED_FROM_CACHE);
+	}
+	
+	/**
+	 * Removes an element from cache -- more specifically removes it from
+	 * in-flight map and updates status.
+	 * <p>
+	 * This must be called WHILE ALREADY HOLDING THE WRITE LOCK!
+	 */
+	protected void internal_haveWriteLock_RemoveFromCache(WBRBCacheEntry cacheEntry, boolean logIfElementNotPresent)
+		throws InterruptedException
+	{
+		// Thread we're executing in might have interrupted flag, so do the
+		// critical, non-interruptible stuff first
+		internal_lockDoesntMatter_RemoveEntryFromInflightMap(cacheEntry, logIfElementNotPresent);
+		
+		// Now attempt to get a write lock and mark entry as removed... 
+		internal_haveWriteLock_MarkEntryAsRemovedFromCache(cacheEntry);
+	}
+
+	// CCC
+	protected void internal_lockDoesntMatter_RemoveEntryFromInflightMap(WBRBCacheEntry cacheEntry, boolean logIfElementNotPresent)
+		throws InterruptedException
+	{
+		@Nonnull K key = cacheEntry.getKey();
+
+		if (inflightMap.remove(key, cacheEntry)) // only removes if key maps to the value being removed
+		{
+			// Event notification
+			wrappedSpiUnknownLock_Event(WBRBEvent.CACHE_REMOVE, key, cacheEntry, null, null);								
+		}
+		else
+		{
+			if (logIfElementNotPresent)
+				logMessage(WBRBCacheMessage.NOT_PRESENT_ELEMENT_REMOVAL_ATTEMPT, new Exception(WBRBCacheMessage.NOT_PRESENT_ELEMENT_REMOVAL_ATTEMPT.toString() + " stack trace"), key);
+		}
+	}
+	
+	// CCC
+	protected void internal_haveWriteLock_MarkEntryAsRemovedFromCache(WBRBCacheEntry cacheEntry)
+		throws InterruptedException
+	{
+		@Nonnull K key = cacheEntry.getKey();
+		
+		WBRBCachePayload payload = cacheEntry.getPayload();
+		
+		// TO-DO should it set the write status too?
+		cacheEntry.getPayload().setReadStatus(WBRBCacheEntryReadStatus.REMOVED_FROM_CACHE);
+		
+		// Clear memory used by any collected updates
+		wrappedSpiWriteLockUpdates_reset(WBRBUpdatesResetReason.REMOVED_FROM_CACHE, false, key, cacheEntry, payload);
+		
+		// Return memory used by serialized value (if any) to the pool
+		if (valueCodec != null)
+			payload.discardSerializedValue();
+		
+		// Entry no longer counts towards cache weight
+		long weight = payload.getWeight();
+		if (weight != 0)
+		{
+			queueShardWeights[cacheEntry.getQueueShardIndex()].addAndGet(-weight);
+			payload.setWeight(0);
+		}
+	}
+	
+	/**
+	 * Creates read queue processor thread.
+	 */
+	protected ExitableThread createReadQueueProcessor()
+	{
+		InterruptHandlingExitableThread thread = new InterruptHandlingExitableThread(threadGroup, commonNamingPrefix + " Read Queue Processor")
+		{
+			@Override
+			protected void run1(boolean reentry)
+				throws InterruptedException
+			{
+				runnableReadQueueProcessor();
+			}
+
+			@Override
+			protected boolean handleUnexpectedInterruptedException(
+				InterruptedException e)
+			{
+				logMessage(WBRBCacheMessage.READ_QUEUE_PROCESSOR_UNEXPECTED_INTERRUPT, e);
+				
+				return true; // don't exit, restart processing
+			}
+			
+		};
+		
+		thread.setPriority(config.getReadQueueProcessingThreadPriority());
+		
+		return thread;
+	}
+	
+	/**
+	 * Code executed by {@link #readQueueProcessingThread}
+	 */
+	protected void runnableReadQueueProcessor() throws InterruptedException
+	{
+		WAThreadPoolExecutor pool = readThreadPool;
+		
+		// Reads collected for batched storage read (only used if readBatchMaxSize > 0)
+		LinkedHashMap<K, WBRBCacheEntry> pendingReadBatch = new LinkedHashMap<>();
+		// When the first item joined pendingReadBatch (real-world time)
+		SimpleLongCounter pendingBatchStartedAt = new SimpleLongCounter(0);
+		
+		SimpleLongCounter batchCount = new SimpleLongCounter(0);
+		while(true)
+		{
+			final WBRBCacheEntry cacheEntry;
+			
+			if ((batchCount.get() > 0) && (config.getReadQueueBatchingDelay() > 0))
+			{
+				// Here we are during batch processing (i.e. some elements were already read)
+				long pollTime = config.getReadQueueBatchingDelay();
+				final long lingerTime = config.getReadBatchLingerTime();
+				if ((lingerTime > 0) && !pendingReadBatch.isEmpty())
+				{
+					// collected reads must not wait longer than linger time even if new ones keep arriving
+					long lingerLeft = lingerTime - timeGapVirtual(pendingBatchStartedAt.get(), timeNow());
+					if (lingerLeft <= 0)
+					{
+						haveNoLock_FlushReadBatch(pendingReadBatch, pool); // batch delay continues, only collected reads are sent
+						continue;
+					}
+					pollTime = Math.min(pollTime, lingerLeft);
+				}
+				
+				cacheEntry = pollReadQueue(pollTime);
+				if (cacheEntry == null)
+				{
+					if (pollTime < config.getReadQueueBatchingDelay())
+						continue; // linger time is over (collected reads are sent on the next iteration), but batch delay is not
+					
+					// batch is over.
+					haveNoLock_FlushReadBatch(pendingReadBatch, pool);
+					guardedInvocation(() -> spiNoLockReadBatchDelayExpired(), WBRBCacheMessage.SPI_EXCEPTION_ReadBatchDelayExpired);
+					batchCount.reset();
+					continue;
+				}
+			}
+			else
+			{
+				// no batching or zero elements in current batch
+				haveNoLock_FlushReadBatch(pendingReadBatch, pool); // in case batching delay was changed on the fly
+				batchCount.reset();
+				cacheEntry = takeReadQueue(); // wait indefinitely for the next one
+			}
+			
+			getStats().storageReadQueueProcessedItems.increment();
+			
+			K key = cacheEntry.getKey();
+			
+			BooleanObjectWrapper setFailedStatus = BooleanObjectWrapper.of(false);
+			guardedInvocationNonNull(() -> spiNoLockGetReadQueueProcessorLock(cacheEntry), WBRBCacheMessage.SPI_EXCEPTION_GetReadQueueProcessorLock, key)
+				.ifPresentInterruptibly(lock -> {
+					BooleanObjectWrapper isRefreshRead = BooleanObjectWrapper.of(false);
+					BooleanObjectWrapper doInlineReadOutsideLock = BooleanObjectWrapper.of(false);
+					BooleanObjectWrapper doBatchReadOutsideLock = BooleanObjectWrapper.of(false);
+					withLock(lock, cacheEntry, () -> { // we use lock because we need to read status from the payload
+						// Here we have proper lock and can do standard processing.
+						WBRBCachePayload payload = cacheEntry.getPayload();
+						WBRBCacheEntryReadStatus status = payload.getReadStatus();
+						
+						guardedInvocationNonNull(() -> spiSomeLockMakeReadQueueProcessingDecision(key, status, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_MakeReadQueueProcessingDecision, key)
+							.ifPresentInterruptibly(decision -> {
+								// Here we have decision and can process it
+								switch (decision)
+								{
+									case DO_NOTHING:
+										break;
+									case SET_FINAL_FAILED_READ_STATUS:
+										setFailedStatus.setTrue();
+										break;
+									case REFRESH_READ:
+										isRefreshRead.setTrue();
+										//$FALL-THROUGH$
+									case INITIAL_READ:
+										// ok, execute the read
+										if (isRefreshRead.isTrue())
+											getStats().storageReadRefreshAttempts.increment();
+										else
+											getStats().storageReadInitialAttempts.increment();
+										if (config.getReadBatchMaxSize() > 0)
+										{
+											// Batched read; batch may need to be flushed, so
+											// CANNOT do it here since we hold some lock, do it later!
+											doBatchReadOutsideLock.setTrue();
+										}
+										else if (pool == null)
+										{
+											// Execute in our own thread
+											// CANNOT do it here since we hold some lock, do it later!
+											doInlineReadOutsideLock.setTrue();
+										}
+										else
+										{
+											// Execute in the pool.
+											pool.waExecute(() -> {
+												// can't use guarded invocation as those throw InterruptedException
+												try
+												{
+													spiNoLockProcessReadFromStorage(key, isRefreshRead.isTrue(), cacheEntry);
+												} catch (Exception e)
+												{
+													// This shouldn't happen unless spi method is broken or execution thread is interrupted for w/e reason
+													logMessage(WBRBCacheMessage.SPI_EXCEPTION_ReadFromStorage, e, key);
+													try
+													{
+														withWriteLock(cacheEntry, () -> {
+															payload.setReadStatus(WBRBCacheEntryReadStatus.READ_FAILED_FINAL);
+														});
+													} catch (InterruptedException e2)
+													{
+														// nothing else to do here.
+													}
+												}
+											});
+											batchCount.incrementAndGet();
+										}
+										break;
+								}
+								
+								// Event notification
+								wrappedSpiUnknownLock_Event(WBRBEvent.READ_QUEUE_ITEM_PROCESSED, key, cacheEntry, payload, null, decision);								
+							})
+							// Exception in spiSomeLockMakeReadQueueProcessingDecision
+							.ifExceptionInterruptibly(e -> {
+								setFailedStatus.setTrue();
+							});
+					}); // end lock
+					
+					if (doInlineReadOutsideLock.isTrue())
+					{
+						guardedInvocation(() -> spiNoLockProcessReadFromStorage(key, isRefreshRead.isTrue(), cacheEntry), WBRBCacheMessage.SPI_EXCEPTION_ReadFromStorage, key)
+							.ifPresentInterruptibly(o -> {
+								batchCount.incrementAndGet();
+							})
+							.ifExceptionInterruptibly(e -> {
+								setFailedStatus.setTrue();
+							});
+					}
+					
+					if (doBatchReadOutsideLock.isTrue())
+					{
+						if (pendingReadBatch.containsKey(key))
+							haveNoLock_FlushReadBatch(pendingReadBatch, pool); // the same key cannot be read twice in one batch
+						
+						if (pendingReadBatch.isEmpty())
+							pendingBatchStartedAt.set(timeNow());
+						pendingReadBatch.put(key, cacheEntry);
+						batchCount.incrementAndGet();
+						
+						if ((pendingReadBatch.size() >= config.getReadBatchMaxSize()) || (config.getReadQueueBatchingDelay() <= 0))
+							haveNoLock_FlushReadBatch(pendingReadBatch, pool);
+					}
+					
+				}) // end of spiNoLockGetReadQueueProcessorLock normal processing 
+				// Exception in spiNoLockGetReadQueueProcessorLock
+				.ifExceptionInterruptibly(e -> {
+					setFailedStatus.setTrue();
+				});
+			
+			if (setFailedStatus.isTrue())
+			{
+				// Have to do it in a new lock, since the above lock could've been read and it cannot be upgraded
+				withWriteLock(cacheEntry, () -> {
+					cacheEntry.getPayload().setReadStatus(WBRBCacheEntryReadStatus.READ_FAILED_FINAL);
+				});
+			}
 		}
-		else if (spiUnknownLockLogMessage_IsThrottlingMessage(msg, exception, args))
+	}
+	
+	/**
+	 * This is invoked to 'finish' a read batch when there were some reads and 
+	 * no additional reads queued for config.readQueueBatchingDelay time.
+	 * <p>
+	 * Default implementation does nothing.
+	 * <p>
+	 * This is a useful method if you're implementing batched reads.
+	 * <p>
+	 * WARNING: this is ALWAYS executed in read queue processor thread, so it
+	 * must return VERY QUICKLY.
+	 */
+	@SuppressWarnings("unused")
+	protected void spiNoLockReadBatchDelayExpired()
+		throws InterruptedException
+	{
+		// nothing in default implementation
+	}
+	
+	/**
+	 * Sends reads collected by read queue processor (when {@link WBRBConfig#getReadBatchMaxSize()}
+	 * is positive) to {@link #spiNoLockProcessReadFromStorageBatch(List)} --
+	 * either in the read thread pool or in the current thread (if there's no pool).
+	 * <p>
+	 * Collected batch is cleared; does nothing if there's nothing collected.
+	 */
+	protected void haveNoLock_FlushReadBatch(Map<K, WBRBCacheEntry> pendingBatch, @Nullable WAThreadPoolExecutor pool)
+		throws InterruptedException
+	{
+		if (pendingBatch.isEmpty())
+			return;
+		
+		final List<WBRBCacheEntry> batch = new ArrayList<>(pendingBatch.values());
+		pendingBatch.clear();
+		
+		if (pool == null)
 		{
-			// No throttling for throttling messages to avoid weirdness
-			logMessage = true;
-			msgId = msg.toString();
+			// Execute in our own thread
+			unloggedGuardedInvocation(() -> {spiNoLockProcessReadFromStorageBatch(batch); return batch;})
+				.ifExceptionInterruptibly(e -> {
+					for (WBRBCacheEntry cacheEntry : batch)
+					{
+						logMessage(WBRBCacheMessage.SPI_EXCEPTION_ReadFromStorage, e, cacheEntry.getKey());
+						withWriteLock(cacheEntry, () -> {
+							cacheEntry.getPayload().setReadStatus(WBRBCacheEntryReadStatus.READ_FAILED_FINAL);
+						});
+					}
+				});
 		}
 		else
 		{
-			final AtomicReference<@Nonnull WBRBMessageTypeLoggingCounter> reference;
-			if (!msg.isNonStandard())
-			{
-				reference = messageTypeCountersArray[msg.ordinal()];
-				msgId = msg.toString();
-			}
-			else
-			{	
-				String classificator;
+			// Execute in the pool.
+			pool.waExecute(() -> {
+				// can't use guarded invocation as those throw InterruptedException
 				try
 				{
-					classificator = nnChecked((String)args[0]);
-				} catch (Throwable e)
-				{
-					throw new CacheInternalException("Non-standard message type [" + msg + "] must provide String classificator as first argument, got: " + Arrays.toString(args), e);
-				}
-				
-				msgId = classificator + '_' + msg.getSeverity(); // append severity in case same classificator is used with different severities
-				reference = messageClassificatorCountersMap.computeIfAbsent(msgId, k -> new AtomicReference<>(new WBRBMessageTypeLoggingCounter(0)));
-			}
-			
-			WBRBMessageTypeLoggingCounter throttleData = reference.get();
-			
-			long now = timeNow();
-			
-			gap = timeGapVirtual(throttleData.getPeriodStartTime(), now);
-			
-			throttleIntervalDuration = config.getLogThrottleTimeInterval();
-			
-			if (gap > throttleIntervalDuration)
-			{
-				// Need to create a new counter data.
-				WBRBMessageTypeLoggingCounter newThrottleData = new WBRBMessageTypeLoggingCounter(now);
-				
-				if (reference.compareAndSet(throttleData, newThrottleData))
+					spiNoLockProcessReadFromStorageBatch(batch);
+				} catch (Exception e)
 				{
-					// using our instance
-					int oldCount = throttleData.getMessageCounter().get();
-					if (oldCount > msgLimit)
+					// This shouldn't happen unless spi method is broken or execution thread is interrupted for w/e reason
+					try
 					{
-						// Log approximately how many messages were skipped
-						logMessage(WBRBCacheMessage.LOG_MESSAGE_TYPE_PREVIOUS_MESSAGES_SKIPPED, null, msgId, (oldCount - msgLimit));
+						for (WBRBCacheEntry cacheEntry : batch)
+						{
+							logMessage(WBRBCacheMessage.SPI_EXCEPTION_ReadFromStorage, e, cacheEntry.getKey());
+							withWriteLock(cacheEntry, () -> {
+								cacheEntry.getPayload().setReadStatus(WBRBCacheEntryReadStatus.READ_FAILED_FINAL);
+							});
+						}
+					} catch (InterruptedException e2)
+					{
+						// nothing else to do here.
 					}
-					throttleData = newThrottleData; 
 				}
-				else
-					throttleData = reference.get(); // someone else set it, use that one
-				
-				gap = timeGapVirtual(throttleData.getPeriodStartTime(), now); // recalculate gap since throttle data was replaced
-			}
-			
-			int messageCount = throttleData.getMessageCounter().incrementAndGet();
-			if (messageCount <= msgLimit)
-			{
-				logMessage = true;
-				if (messageCount == msgLimit)
-					logNextMessagesMayBeSkipped = true;
-					
-			}
+			});
+		}
+	}
+	
+	/**
+	 * Returns lock to be used by read queue processor; normally (and by default)
+	 * this is read lock; however if you're doing something special, you can
+	 * change that here.
+	 * TO-DO: reference read queue decision method here
+	 */
+	@SuppressWarnings("unused")
+	protected Lock spiNoLockGetReadQueueProcessorLock(WBRBCacheEntry cacheEntry)
+		throws InterruptedException
+	{
+		return cacheEntry.getLock().readLock();
+	}
+	
+	/**
+	 * This method is executed while holding *some* lock, as defined in
+	 * {@link #spiNoLockGetReadQueueProcessorLock(WBRBCacheEntry)}; by default
+	 * this is a read lock.
+	 * <p>
+	 * It must make a decision as to what read queue processor should do with
+	 * the given item.
+	 * <p>
+	 * Default implementation looks at read status and bases decision on that;
+	 * it will also log message if status is unexpected.
+	 */
+	@SuppressWarnings("unused")
+	protected WBRBReadQueueProcessingDecision spiSomeLockMakeReadQueueProcessingDecision(
+		K key, WBRBCacheEntryReadStatus status, 
+		WBRBCacheEntry cacheEntry, 
+		WBRBCachePayload payload)
+			throws InterruptedException
+	{
+		switch (status)
+		{
+			case DATA_READY:
+			case DATA_READY_RESYNC_FAILED_FINAL:
+			case READ_FAILED_FINAL:
+			case REMOVED_FROM_CACHE: // TO-DO not sure this status should produce message
+				logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_STATE_FOR_READ_QUEUE_PROCESSING, null, key, status);
+				return WBRBReadQueueProcessingDecision.DO_NOTHING;
+			case NOT_READ_YET:
+				return WBRBReadQueueProcessingDecision.INITIAL_READ;
+			case DATA_READY_RESYNC_PENDING:
+				return WBRBReadQueueProcessingDecision.REFRESH_READ;
 		}
 		
-		if (logMessage)
-		{
-			// Send to actual logging
-			spiUnknownLockLogMessage_Plain(msg, exception, args);
-		}
-		if (logNextMessagesMayBeSkipped)
-		{
-			// Log that further messages may be skipped for X ms
-			logMessage(WBRBCacheMessage.LOG_MESSAGE_TYPE_MESSAGES_MAY_BE_SKIPPED_FOR, null, msgId, (throttleIntervalDuration - gap));
-		}
+		logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
+		return WBRBReadQueueProcessingDecision.DO_NOTHING;
+	}
+
+	/**
+	 * Overriding this method allows to change how cache processes time internally.
+	 * <p>
+	 * Time 'passes' at the speed of actual time * this factor (i.e. numbers over
+	 * 1 'speed up' the time, numbers under 1 'slow' it down).
+	 * <p>
+	 * This is probably mostly useful for testing.
+	 * <p>
+	 * Default implementation returns {@link Float#NaN}
+	 * 
+	 * @return time factor or {@link Float#NaN} to indicate that time flow should
+	 * 		be 'standard'
+	 */
+	protected float timeFactor()
+	{
+		return Float.NaN;
+	}
+	
+	/**
+	 * Lets custom implementations override what current time is; this is likely
+	 * to break something unless done very-very carefully.
+	 * <p>
+	 * Default implementation returns {@link System#currentTimeMillis()}
+	 * TO-DO make sure there are no other references to system.currentime
+	 */
+	protected long timeNow()
+	{
+		return System.currentTimeMillis();
+	}
+	
+	/**
+	 * Calculates time gap in virtual milliseconds (taking into account {@link #timeFactor()})
+	 * between two 'real-world' timestamps.
+	 * <p>
+	 * So if e.g. real-world timestamps are 4000 and 5000; and time factor is 2;
+	 * then the result will be (5000-4000) * 2 = 2000 virtual milliseconds
+	 * <p>
+	 * This never returns 0 unless both arguments are exactly equal.
+	 * <p>
+	 * The 'inverse' of this method is {@link #timeAddVirtualIntervalToRealWorldTime(long, long)}
+	 */
+	protected long timeGapVirtual(long realWorldStartTime, long realWorldEndTime)
+	{
+		if (realWorldEndTime == realWorldStartTime)
+			return 0;
+		
+		float timeFactor = timeFactor();
+		if (Float.isNaN(timeFactor))
+			return realWorldEndTime - realWorldStartTime;
+		
+		double result = Math.ceil( (realWorldEndTime - realWorldStartTime) * timeFactor );
+		
+		if (result > 0)
+			return (long)result;
+		
+		// Math.ceil returns 'higher' number for negative values including e.g. negative zero;
+		// so subtract one for proper result
+		return (long)(result - 1);
+	}
+	
+	/**
+	 * Adds a given virtual milliseconds interval (taking into account {@link #timeFactor()})
+	 * to the given real-world timestamp.
+	 * <p>
+	 * So if real-world timestamp is 4000, virtual interval is 2000 and time
+	 * factor is 2, then the result will be 4000 + (2000 / 2) = 5000
+	 * <p>
+	 * It's useful to calculate to e.g. how long to sleep.
+	 * <p>
+	 * This never returns the same real-world timestamp unless interval is zero.
+	 * <p>
+	 * The 'inverse' of this method is {@link #timeGapVirtual(long, long)}	 
+	 */
+	protected long timeAddVirtualIntervalToRealWorldTime(long realWorldTime, long virtualInterval)
+	{
+		float timeFactor = timeFactor();
+		if (Float.isNaN(timeFactor))
+			return realWorldTime + virtualInterval;
+		
+		double delta = Math.ceil(virtualInterval / timeFactor);
+		// Math.ceil returns 'higher' number for negative values including e.g. negative zero;
+		// so subtract one to get non-zero result in all cases
+		if (delta < 1)
+			delta = delta - 1;
+		
+		return realWorldTime + (long)delta;
 	}
-
 	
 	/**
-	 * Determines whether the given message is a 'throttling message'.
-	 * Throttling messages are handled differently, e.g. they don't participate
-	 * in throttling and don't affect message tracking.
+	 * Calculates real-world interval from the given virtual interval (taking 
+	 * into account {@link #timeFactor()})
+	 * <p>
+	 * This never returns zero unless given virtual interval is zero.
 	 */
-	@SuppressWarnings({"deprecation", "unused"})
-	protected boolean spiUnknownLockLogMessage_IsThrottlingMessage(WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
+	protected long timeRealWorldInterval(long virtualInterval)
 	{
-		switch (msg)
+		long now = timeNow();
+		long targetTime = timeAddVirtualIntervalToRealWorldTime(now, virtualInterval);
+		
+		return targetTime - now;
+	}
+	
+	/**
+	 * Polls given BlockingQueue for the specified amount of time; takes care
+	 * of respecting {@link #timeFactor()}
+	 */
+	@Nullable
+	protected <E> E pollQueue(BlockingQueue<E> queue, long timeMillis) throws InterruptedException
+	{
+		return queue.poll(timeRealWorldInterval(timeMillis), TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Adds given entry to the read queue -- if {@link WBRBConfig#isReadQueuePriorityLanes()}
+	 * is enabled, then refresh reads go to the separate (lower priority) lane.
+	 */
+	protected void queueRead(WBRBCacheEntry cacheEntry, boolean isRefreshRead)
+	{
+		final Semaphore permits = readQueueLanesPermits;
+		if (permits == null)
 		{
-			case LOG_MESSAGE_TYPE_MESSAGES_MAY_BE_SKIPPED_FOR:
-			case LOG_MESSAGE_TYPE_PREVIOUS_MESSAGES_SKIPPED:
-				return true;
-				
-			case APPLY_UPDATE_FAIL:
-			case ASSERTION_FAILED:
-			case CONVERT_FROM_CACHE_FORMAT_TO_RETURN_VALUE_FAIL:
-			case CONVERT_TO_CACHE_FORMAT_FROM_STORAGE_DATA_FAIL:
-			case CONVERT_TO_INTERNAL_UPDATE_FORMAT_FROM_EXTERNAL_UPDATE_FAIL:
-			case FLUSH_REQUESTED:
-			case FLUSH_SPOOLDOWN_NOT_ACHIEVED:
-			case FLUSH_SUCCESFULLY_COMPLETED:
-			case MAIN_QUEUE_NON_STANDARD_OUTCOME:
-			case MAIN_QUEUE_PROCESSOR_UNEXPECTED_INTERRUPT:
-			case MERGE_CACHE_AND_STORAGE_DATA_FAIL:
-			case NON_STANDARD_DEBUG:
-			case NON_STANDARD_ERROR:
-			case NON_STANDARD_EXTERNAL_DATA_LOSS:
-			case NON_STANDARD_EXTERNAL_ERROR:
-			case NON_STANDARD_EXTERNAL_INFO:
-			case NON_STANDARD_EXTERNAL_WARN:
-			case NON_STANDARD_FATAL:
-			case NON_STANDARD_INFO:
-			case NON_STANDARD_WARN:
-			case NOT_PRESENT_ELEMENT_REMOVAL_ATTEMPT:
-			case READ_QUEUE_PROCESSOR_UNEXPECTED_INTERRUPT:
-			case RESYNC_FAILED_FINAL_DATA_DISCARDED:
-			case RESYNC_FAILED_FINAL_STORAGE_DATA_OVERWRITE:
-			case RESYNC_IS_TOO_LATE:
-			case RETURN_QUEUE_NON_STANDARD_OUTCOME:
-			case RETURN_QUEUE_PROCESSOR_UNEXPECTED_INTERRUPT:
-			case RETURN_QUEUE_ITEM_NOT_RETAINED_DUE_TO_MAIN_QUEUE_SIZE:
-			case RETURN_QUEUE_NEGATIVE_TIME_SINCE_TOUCHED:
-			case SHUTDOWN_COMPLETED:
-			case SHUTDOWN_REQUESTED:
-			case SHUTDOWN_SPOOLDOWN_NOT_ACHIEVED:
-			case SPI_EXCEPTION_Event:
-			case SPI_EXCEPTION_GetReadQueueProcessorLock:
-			case SPI_EXCEPTION_LogMessage:
-			case SPI_EXCEPTION_MakeCacheReadDecision:
-			case SPI_EXCEPTION_MakeCacheWriteDecision:
-			case SPI_EXCEPTION_MakeInitialReadFailedFinalDecision:
-			case SPI_EXCEPTION_MakeMainQueueProcessingDecision:
-			case SPI_EXCEPTION_MakeMainQueueProcessingDecision_ResyncFailedFinal:
-			case SPI_EXCEPTION_MakeMainQueueProcessingDecision_ResyncPending:
-			case SPI_EXCEPTION_MakeMainQueueProcessingDecision_WriteFailedFinal:
-			case SPI_EXCEPTION_MakeMainQueueProcessingDecision_WritePending:
-			case SPI_EXCEPTION_MakeMainQueueProcessingDecision_isResetFailureCounts:
-			case SPI_EXCEPTION_MakeMainQueueProcessingDecision_logNonStandardOutcome:
-			case SPI_EXCEPTION_MakeMergeDecision:
-			case SPI_EXCEPTION_MakeReadQueueProcessingDecision:
-			case SPI_EXCEPTION_MakeReadRetryDecision:
-			case SPI_EXCEPTION_MakeResyncFailedFinalDecision:
-			case SPI_EXCEPTION_MakeReturnQueueProcessingDecision:
-			case SPI_EXCEPTION_MakeReturnQueueProcessingDecision_WriteFailedFinal:
-			case SPI_EXCEPTION_MakeReturnQueueProcessingDecision_WriteOk:
-			case SPI_EXCEPTION_MakeReturnQueueProcessingDecision_WritePending:
-			case SPI_EXCEPTION_MakeReturnQueueProcessingDecision_logNonStandardOutcome:
-			case SPI_EXCEPTION_MakeWriteQueueProcessingDecision:
-			case SPI_EXCEPTION_MakeWriteRetryDecision:
-			case SPI_EXCEPTION_ReadBatchDelayExpired:
-			case SPI_EXCEPTION_ReadFromStorage:
-			case SPI_EXCEPTION_Updates_collect:
-			case SPI_EXCEPTION_Updates_isMergePossible:
-			case SPI_EXCEPTION_Updates_reset:
-			case SPI_EXCEPTION_WriteBatchDelayExpired:
-			case SPI_EXCEPTION_WriteToStorage:
-			case SPLIT_FOR_WRITE_FAIL:
-			case STARTED:
-			case STORAGE_READ_FAIL:
-			case STORAGE_READ_FAIL_FINAL:
-			case STORAGE_READ_RETRY_ISSUED:
-			case STORAGE_WRITE_FAIL:
-			case STORAGE_WRITE_FAIL_FINAL:
-			case STORAGE_WRITE_RETRY_ISSUED:
-			case TEST_WARN:
-			case TOO_MANY_CACHE_ELEMENT_UPDATES:
-			case TOO_MANY_REMOVED_FROM_CACHE_STATE_RETRIES:
-			case UNEXPECTED_CACHE_REMOVAL_IN_ADD_ENTRY:
-			case UNEXPECTED_CACHE_REMOVAL_IN_MAIN_QUEUE_PROCESSING:
-			case UNEXPECTED_CACHE_REMOVAL_IN_RETURN_QUEUE_PROCESSING:
-			case CACHE_ADD_MAIN_QUEUE_SIZE_WARNING:
-			case CACHE_ADD_FAIL_CACHE_SIZE_LIMIT_EXCEEDED:
-			case UNEXPECTED_CACHE_STATE_FOR_READ_FAIL:
-			case UNEXPECTED_CACHE_STATE_FOR_READ_MERGE:
-			case UNEXPECTED_CACHE_STATE_FOR_READ_QUEUE_PROCESSING:
-			case UNEXPECTED_CACHE_STATE_FOR_WRITE_FAIL:
-			case UNEXPECTED_CACHE_STATE_FOR_WRITE_QUEUE_PROCESSING:
-			case UNEXPECTED_CACHE_STATE_FOR_WRITE_SUCCESS:
-			case WRITE_FAILED_FINAL_DATA_DISCARDED:
-			case WRITE_QUEUE_PROCESSOR_UNEXPECTED_INTERRUPT:
-				return false;
+			readQueue.add(cacheEntry);
+			return;
 		}
 		
-		// It ought to be an assertion error, but we'll be lenient here because
-		// it's not very important and there are many message types.
-		return false;
+		if (isRefreshRead)
+			refreshReadQueue.add(cacheEntry);
+		else
+			readQueue.add(cacheEntry);
+		
+		permits.release(); // must be after the add so that entry is there when permit is acquired
 	}
 	
 	/**
-	 * Invoked when there's message to log by the cache.
+	 * Whether refresh lane of the read queue is saturated and new refresh
+	 * reads should be dropped, see {@link WBRBConfig#getReadQueueRefreshLaneMaxSize()}
+	 */
+	protected boolean isReadQueueRefreshLaneSaturated()
+	{
+		if (readQueueLanesPermits == null)
+			return false;
+		
+		final int maxSize = config.getReadQueueRefreshLaneMaxSize();
+		return (maxSize > 0) && (refreshReadQueue.size() >= maxSize);
+	}
+	
+	/**
+	 * Polls next entry from the read queue (taking into account priority
+	 * lanes if these are enabled) waiting for the specified time if necessary.
 	 * <p>
-	 * This method is used to provide a 'guard' against failures around the
-	 * {@link #spiUnknownLockLogMessage(WBRBCacheMessage, Throwable, Object...)}
-	 * method, so usually SHOULD NOT be overridden.
+	 * Must only be used by {@link #readQueueProcessingThread}
+	 * 
+	 * @return null if there was nothing in the read queue in the given time
+	 */
+	@Nullable
+	protected WBRBCacheEntry pollReadQueue(long timeMillis) throws InterruptedException
+	{
+		final Semaphore permits = readQueueLanesPermits;
+		if (permits == null)
+			return pollQueue(readQueue, timeMillis);
+		
+		if (!permits.tryAcquire(timeRealWorldInterval(timeMillis), TimeUnit.MILLISECONDS))
+			return null;
+		
+		return pollReadQueueLanes();
+	}
+	
+	/**
+	 * Takes next entry from the read queue (taking into account priority
+	 * lanes if these are enabled) waiting indefinitely if necessary.
 	 * <p>
-	 * WARNING: this can (and should be able to) throw {@link InterruptedException},
-	 * however since dealing with it in most places is not required (it should
-	 * just propagate upwards to indicate potential thread termination), it uses
-	 * {@link SneakyThrows}
+	 * Must only be used by {@link #readQueueProcessingThread}
 	 */
-	@SneakyThrows(InterruptedException.class) // see comment above
-	protected void logMessage(@NonNull WBRBCacheMessage msg, @Nullable Throwable exception, Object... args)
+	protected WBRBCacheEntry takeReadQueue() throws InterruptedException
 	{
-		try
+		final Semaphore permits = readQueueLanesPermits;
+		if (permits == null)
+			return readQueue.take();
+		
+		permits.acquire();
+		
+		return pollReadQueueLanes();
+	}
+	
+	/**
+	 * Picks next entry from the read queue lanes -- initial reads first,
+	 * see {@link WBRBConfig#getReadQueueRefreshLaneFairness()}
+	 * <p>
+	 * Must only be invoked after acquiring a permit from {@link #readQueueLanesPermits}
+	 * (which guarantees that at least one of the lanes is not empty).
+	 */
+	protected WBRBCacheEntry pollReadQueueLanes()
+	{
+		final int fairness = config.getReadQueueRefreshLaneFairness();
+		
+		WBRBCacheEntry entry = null;
+		if ((fairness > 0) && (readQueueLanesConsecutiveInitialReads >= fairness))
+			entry = refreshReadQueue.poll(); // refresh lane's turn
+		
+		if (entry == null)
 		{
-			if (!spiUnknownLockLogMessage_IsThrottlingMessage(msg, exception, args))
+			entry = readQueue.poll();
+			if (entry != null)
 			{
-				// Record message timestamp
-				getStats().lastTimestampMsgPerSeverityOrdinal[msg.getSeverity().ordinal()].set(timeNow());
-				
-				switch (msg.getSeverity())
-				{
-					case DEBUG:
-					case INFO:
-					case EXTERNAL_INFO:
-						break;
-					case WARN:
-						getStats().msgWarnCount.incrementAndGet();
-						break;
-					case EXTERNAL_WARN:
-						getStats().msgExternalWarnCount.incrementAndGet();
-						break;
-					case EXTERNAL_ERROR:
-						getStats().msgExternalErrorCount.incrementAndGet();
-						break;
-					case EXTERNAL_DATA_LOSS:
-						getStats().msgExternalDataLossCount.incrementAndGet();
-						break;
-					case ERROR:
-						getStats().msgErrorCount.incrementAndGet();
-						break;
-					case FATAL:
-						getStats().msgFatalCount.incrementAndGet();
-						break;
-				}
+				if (fairness > 0)
+					readQueueLanesConsecutiveInitialReads++;
+				return entry;
 			}
 			
-			spiUnknownLockLogMessage(msg, exception, args);
-		} catch (Throwable loggingException)
+			entry = refreshReadQueue.poll();
+		}
+		
+		readQueueLanesConsecutiveInitialReads = 0;
+		
+		return nnChecked(entry); // permit guarantees that something is there
+	}
+	
+	/**
+	 * Should implement reading from the storage based on the specified key.
+	 * <p>
+	 * These are typically called in the separate read threads, but it is still
+	 * very important to produce results very quickly as updates to cached objects
+	 * are collected while they wait for the background read & writes (and thus memory
+	 * can be consumed significantly).
+	 * <p>
+	 * If your storage works better with batched reads, this can be implemented
+	 * by overriding {@link #spiNoLockProcessReadFromStorage(Object, boolean, WBRBCacheEntry)}
+	 * method (which allows to produce result later instead of 'right now') and
+	 * {@link #spiNoLockReadBatchDelayExpired()} to detect 'batch end' events.
+	 * <p>
+	 * For batched reads you also might want to disable readThreadPool so that
+	 * these methods are not called in separate threads unnecessarily.
+	 * <p>
+	 * Alternatively set {@link WBRBConfig#getReadBatchMaxSize()} to a positive
+	 * value and implement {@link #readFromStorageBatch(List)} -- in this case
+	 * this method is not used by the default implementation (unless 
+	 * {@link #readFromStorageBatch(List)} is not overridden).
+	 * 
+	 * @param key key to read
+	 * @param isRefreshRead true if this read is intended to refresh value
+	 * 		already in memory (i.e. there's expected to be a subsequent merge)
+	 */
+	protected abstract R readFromStorage(K key, boolean isRefreshRead)
+		throws InterruptedException;
+	
+	
+	/**
+	 * A version of {@link #readFromStorage(Object, boolean)} that provides more
+	 * access to the internal data (so the implementations may override this
+	 * to get more access). 
+	 * <p>
+	 * Default implementation simply calls {@link #readFromStorage(Object, boolean)}
+	 * and returns the result.
+	 */
+	protected R spiNoLockReadFromStorage(K key, boolean isRefreshRead, @SuppressWarnings("unused") WBRBCacheEntry cacheEntry) 
+		throws InterruptedException
+	{
+		return readFromStorage(key, isRefreshRead);
+	}
+	
+	/**
+	 * Should implement reading of multiple keys from the storage in a single
+	 * operation (e.g. one multi-row SQL statement).
+	 * <p>
+	 * Only used if {@link WBRBConfig#getReadBatchMaxSize()} is positive; in that
+	 * case read queue processor collects up to that many reads (or until no 
+	 * further reads arrive within {@link WBRBConfig#getReadQueueBatchingDelay()}
+	 * or {@link WBRBConfig#getReadBatchLingerTime()} passes since the first one
+	 * was collected) and then submits them all via this method. Keys in the
+	 * list are unique. Initial and refresh reads may be mixed in the same batch.
+	 * <p>
+	 * Returned map should contain result for every requested key: 
+	 * {@link NullableOptional#of(Object)} for successful read (value may be null
+	 * if your R type allows it) or {@link NullableOptional#emptyWithException(Throwable)}
+	 * for a failed read; keys missing from the map are treated as failed reads.
+	 * Exception thrown from this method fails the entire batch.
+	 * <p>
+	 * Default implementation reads keys one by one via {@link #readFromStorage(Object, boolean)}
+	 * (with isRefreshRead=false as batches do not distinguish between initial
+	 * and refresh reads), so that batching can be enabled (e.g. at runtime via
+	 * {@link GeneratedVolatileWBRBConfig}) without implementing this method;
+	 * override this to actually read the whole batch in a single operation.
+	 */
+	protected Map<K, NullableOptional<R>> readFromStorageBatch(List<K> keys)
+		throws InterruptedException
+	{
+		Map<K, NullableOptional<R>> result = new HashMap<>(keys.size() * 2);
+		for (K key : keys)
 		{
-			if (loggingException instanceof ThreadDeath)
-				throw loggingException;
-			if (loggingException instanceof InterruptedException) // this may be used to indicate that thread should exit 
-				throw loggingException;
-			
-			getStats().msgErrorCount.incrementAndGet();
-
-			// Logging failed, try to log that fact, but it may well fail itself
-			// TO-DO monitor
 			try
 			{
-				spiUnknownLockLogMessage(WBRBCacheMessage.SPI_EXCEPTION_LogMessage, loggingException);
-			} catch (Exception e2)
+				result.put(key, NullableOptional.of(readFromStorage(key, false)));
+			} catch (InterruptedException e)
 			{
-				// This is a problem, we can't use standard logging mechanism here because it just failed
-				// so just log it directly
-				getStats().msgErrorCount.incrementAndGet();
-				try
-				{
-					defaultWBRBlog.error("LOGGING FAILED for: " + msg + ": " + loggingException, loggingException);
-				} catch (Exception e3)
-				{
-					// ignore this
-				}
+				throw e;
+			} catch (Exception e)
+			{
+				result.put(key, NullableOptional.emptyWithException(e));
 			}
 		}
+		
+		return result;
 	}
 	
-	
 	/**
-	 * Invoked when there's message to log by the cache that doesn't fit any
-	 * of the 'standard' message categories -- to be used in e.g. subclasses.
+	 * A version of {@link #readFromStorageBatch(List)} that provides more
+	 * access to the internal data (so the implementations may override this
+	 * to get more access). 
+	 * <p>
+	 * Default implementation simply calls {@link #readFromStorageBatch(List)}
+	 * and returns the result.
 	 * 
-	 * @param classifier non-null string used for message classification, e.g.
-	 * 		for message throttling
+	 * @param batch cache entries for the keys, in the same order
 	 */
-	@SuppressWarnings("deprecation") // deprecated is used to mark WBRBCacheMessage instances that are not supposed to be used directly by clients
-	protected void logNonStandardMessage(WBRBCacheMessageSeverity severity, @NonNull String classifier, @Nullable Throwable exception, Object... args)
+	protected Map<K, NullableOptional<R>> spiNoLockReadFromStorageBatch(List<K> keys, @SuppressWarnings("unused") List<WBRBCacheEntry> batch) 
+		throws InterruptedException
 	{
-		WBRBCacheMessage msg = fakeNonNull(); // to make compiler happy
-		switch (severity)
+		return readFromStorageBatch(keys);
+	}
+	
+	
+	/**
+	 * Converts data from external update format (the update type used in public
+	 * API) to the internal update format (used to store & apply updates internally).
+	 * <p>
+	 * This is executed without holding any locks, but it is executed on each
+	 * write operation, so performance is important.
+	 */
+	protected abstract UInt convertToInternalUpdateFormatFromExternalUpdate(K key, UExt externalUpdate);
+	
+	/**
+	 * Converts data read from the storage into format used by the cache internally;
+	 * this is used in case of initial read, when there's nothing to merge.
+	 * <p>
+	 * WARNING: this is executed while holding write lock on the cache entry,
+	 * therefore it should be VERY FAST.
+	 * TO-DO desc
+	 */
+	protected abstract S convertToCacheFormatFromStorageData(K key, R storageData);
+	
+	/**
+	 * Converts data read from the internal cache format to the return value type.
+	 * This is used to produce results during the reads.
+	 * <p>
+	 * This is executed while holding read lock on the cache entry.
+	 * TO-DO desc
+	 */
+	protected abstract V convertFromCacheFormatToReturnValue(K key, S cachedData);
+	
+	/**
+	 * Applies given update to the cached state and returns updated cached state
+	 * (can be the same updated instance or a new one)
+	 * <p>
+	 * This is done under write lock, so should complete ASAP. 
+	 */
+	protected abstract S applyUpdate(S cacheData, UInt update);
+	
+	/**
+	 * Attempts to fold two consecutive updates into one -- this is used when
+	 * collecting updates (see {@link #spiWriteLockUpdates_collect(Object, WBRBCacheEntry, WBRBCachePayload, Object)})
+	 * so that e.g. counter-style caches do not need to keep every single
+	 * update between resyncs (which also means they do not run into
+	 * {@link WBRBConfig#getMaxUpdatesToCollect()} limit).
+	 * <p>
+	 * If present, the result must be such that applying it is equivalent
+	 * to applying previousUpdate and then update.
+	 * <p>
+	 * Default implementation returns empty optional (updates cannot be combined).
+	 * <p>
+	 * This is done under write lock, so should complete ASAP. 
+	 */
+	@SuppressWarnings("unused")
+	protected NullableOptional<UInt> combineUpdates(UInt previousUpdate, UInt update)
+	{
+		return NullableOptional.empty();
+	}
+	
+	/**
+	 * @param previousFailedWriteData can be non-empty ONLY if {@link WBRBConfig#isCanMergeWrites()}
+	 * 		is true; if it is true and previous write has failed with final status,
+	 * 		then it is passed to the method here -- and it should be used to
+	 * 		produce combined write data (combining previous failed write with
+	 * 		further in-memory updates (if any)); NOTE: if this is non-empty,
+	 * 		then it is possible that there were no further updates to cacheData
+	 * 		(i.e. it may be unmodified since previous split)
+	 */
+	// CCC comment
+	protected abstract WriteSplit splitForWrite(K key, S cacheData, NullableOptional<W> previousFailedWriteData);
+	
+	// CCC
+	// NOTE: is NOT called if there are no pending writes UNLESS 'can merge failed writes' and previous write failed
+	@SuppressWarnings("unused")
+	protected WriteSplit spiWriteLockSplitForWrite(
+		K key, S cacheData, NullableOptional<W> previousFailedWriteData, 
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+			throws InterruptedException
+	{
+		return splitForWrite(key, cacheData, previousFailedWriteData);
+	}
+	
+	// CCC comment
+	protected WBRBWriteSplitWithFlags spiWriteLockProcessSplitForWrite(
+		K key, S cacheData, WBRBCacheEntry cacheEntry, 
+		WBRBCachePayload payload)
+			throws InterruptedException
+	{
+		NullableOptional<W> previousFailedWriteData = null;
+		switch (payload.getWriteStatus())
 		{
-			case DEBUG:
-				msg = WBRBCacheMessage.NON_STANDARD_DEBUG;
-				break;
-			case ERROR:
-				msg = WBRBCacheMessage.NON_STANDARD_ERROR;
-				break;
-			case EXTERNAL_DATA_LOSS:
-				msg = WBRBCacheMessage.NON_STANDARD_EXTERNAL_DATA_LOSS;
-				break;
-			case EXTERNAL_ERROR:
-				msg = WBRBCacheMessage.NON_STANDARD_EXTERNAL_ERROR;
-				break;
-			case EXTERNAL_INFO:
-				msg = WBRBCacheMessage.NON_STANDARD_EXTERNAL_INFO;
-				break;
-			case EXTERNAL_WARN:
-				msg = WBRBCacheMessage.NON_STANDARD_EXTERNAL_WARN;
-				break;
-			case FATAL:
-				msg = WBRBCacheMessage.NON_STANDARD_FATAL;
+			case NO_WRITE_REQUESTED_YET:
+			case REMOVED_FROM_CACHE:
+			case WRITE_SUCCESS:
 				break;
-			case INFO:
-				msg = WBRBCacheMessage.NON_STANDARD_INFO;
+			case WRITE_PENDING:
+			{
+				// If previous write is still in the queue, its data is merged the same way as for failed write
+				WBRBWriteQueueEntry queuedWrite = payload.getQueuedWrite();
+				if (queuedWrite != null)
+					previousFailedWriteData = NullableOptional.of(queuedWrite.getDataToWrite());
 				break;
-			case WARN:
-				msg = WBRBCacheMessage.NON_STANDARD_WARN;
+			}
+			case WRITE_FAILED_FINAL:
+				previousFailedWriteData = payload.getPreviousFailedWriteData();
+				if (!previousFailedWriteData.isPresent())
+				{
+					CacheInternalException exception = new CacheInternalException("When write status is WRITE_FAILED_FINAL, previous failed write data should be present (got empty) in: " + cacheEntry);
+					logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
+					throw exception;
+				}
 				break;
 		}
 		
-		Object[] newArgs = new @Nonnull Object[args.length + 1];
-		newArgs[0] = classifier;
-		if (args.length > 0)
-			System.arraycopy(args, 0, newArgs, 1, args.length);
+		payload.setPreviousFailedWriteData(NullableOptional.empty()); // reset previous failure if any
 		
-		logMessage(msg, exception, newArgs);
+		if (previousFailedWriteData != null)
+		{
+			if (spiWriteLockIsCanMergeWrites(key, cacheData, previousFailedWriteData, cacheEntry, payload))
+			{
+				// Write merges are supported, so create a merged write
+				return new WBRBWriteSplitWithFlags(spiWriteLockSplitForWrite(key, cacheData, previousFailedWriteData, cacheEntry, payload), true/*contains all updates*/);
+			}
+			else
+			{
+				// Write merges are not supported, so have to re-issue previous failed write
+				boolean haveAllUpdates = payload.getLastWriteTimestamp() <= 0;
+				return new WBRBWriteSplitWithFlags(new WriteSplit(payload.getValue(), previousFailedWriteData), haveAllUpdates/*flag: whether contains all updates*/);
+			}
+		}
+		else
+		{
+			// No previous write failure, so normal operation
+			if (payload.getLastWriteTimestamp() > 0)
+				return new WBRBWriteSplitWithFlags(spiWriteLockSplitForWrite(key, cacheData, NullableOptional.empty(), cacheEntry, payload), true/*contains all updates*/);
+			else
+				return new WBRBWriteSplitWithFlags(new WriteSplit(payload.getValue()), true/*contains all updates*/);
+		}
 	}
 	
+	/**
+	 * Determines whether writes can be merged for the given item.
+	 * <p>
+	 * Default implementation simply returns {@link WBRBConfig#isCanMergeWrites()} 
+	 */
+	@SuppressWarnings("unused")
+	protected boolean spiWriteLockIsCanMergeWrites(K key, S cacheData, NullableOptional<W> previousFailedWriteData, 
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+			throws InterruptedException
+	{
+		return config.isCanMergeWrites(); 
+	}
 	
-	// TO-DO preload tests?
-	@Override
-	public void preloadCache(K key) throws IllegalArgumentException, CacheFullException,
-		CacheIllegalStateException, CacheInternalException, WAInterruptedException
+	/**
+	 * Reads data from the underlying storage; does not need to be synchronous,
+	 * completion is indicated at some point by invoking either of {@link #apiStorageReadSuccess(Object, WBRBCacheEntry)}
+	 * or {@link #apiStorageReadFail(WBRBCacheEntry)} methods.
+	 * <p>
+	 * Default implementation is synchronous -- it invokes {@link #spiNoLockReadFromStorage(Object, boolean, WBRBCacheEntry)}
+	 * and records the success result or failure (exception in {@link #spiNoLockReadFromStorage(Object, boolean, WBRBCacheEntry)} 
+	 * indicates failed read).
+	 */
+	protected void spiNoLockProcessReadFromStorage(K key, boolean isRefreshRead, WBRBCacheEntry cacheEntry) 
+			throws InterruptedException
 	{
-		try
-		{
-			haveNoLock_CheckCache(key, true, true, Boolean.TRUE);
-		} catch (InterruptedException e)
-		{
-			throw new WAInterruptedException("Cache preload interrupted for [" + key + "]: " + e, e);
-		}
+		timedStorageInvocation(getStats().storageReadLatency, 
+			() -> guardedInvocation(() -> spiNoLockReadFromStorage(key, isRefreshRead, cacheEntry) , WBRBCacheMessage.STORAGE_READ_FAIL, key))
+			.ifPresentInterruptibly(data -> apiStorageReadSuccess(data, cacheEntry))
+			.ifExceptionInterruptibly(e -> apiStorageReadFail(e, cacheEntry));
 	}
 	
 	/**
-	 * Checks cache for the element presence; if addIsMissing is set, will add
-	 * an empty cache element if not currently present
-	 * 
-	 * @param addIfMissing if true, element will be added to cache if missing
-	 * @param returnNullIfAdded if true and element was just added by this method,
-	 * 		return null instead of cache entry (otherwise return cache entry)
-	 * @param isPreload whether this is for preloading data; this is currently
-	 * 		used only for monitoring purposes; null means that most counters
-	 * 		should not be incremented (e.g. because this is a retry)
-	 * 
-	 * @return cache element for the key or null if it's not present and addIsMissing
-	 * 		flag is not set
-	 * 
-	 * @throws IllegalArgumentException if key is null
-	 * @throws CacheFullException if element is not currently cached and cache
-	 * 		is full (so no additional element may be added)
+	 * Batched version of {@link #spiNoLockProcessReadFromStorage(Object, boolean, WBRBCacheEntry)},
+	 * used when {@link WBRBConfig#getReadBatchMaxSize()} is positive; does not
+	 * need to be synchronous, completion for each entry is indicated at some
+	 * point by invoking either of {@link #apiStorageReadSuccess(Object, WBRBCacheEntry)}
+	 * or {@link #apiStorageReadFail(Throwable, WBRBCacheEntry)} methods.
+	 * <p>
+	 * Default implementation is synchronous -- it invokes {@link #spiNoLockReadFromStorageBatch(List, List)}
+	 * once for the whole batch and then records per-key results (exception
+	 * in {@link #spiNoLockReadFromStorageBatch(List, List)} indicates failed 
+	 * read for every key in the batch).
 	 */
-	@Nullable
-	protected WBRBCacheEntry haveNoLock_CheckCache(K key, 
-		boolean addIfMissing, boolean returnNullIfAdded, final @Nullable Boolean isPreload) 
-		throws IllegalArgumentException, CacheFullException, InterruptedException
+	protected void spiNoLockProcessReadFromStorageBatch(List<WBRBCacheEntry> batch) 
+			throws InterruptedException
 	{
-		checkStandardCacheOperationsAllowed();
-		
-		getStats().checkCacheAttemptsNoDedup.incrementAndGet(); // always increment
-		
-		if (nullable(key) == null)
-		{
-			getStats().checkCacheNullKeyCount.incrementAndGet();
-			throw new IllegalArgumentException("Key must not be null.");
-		}
+		List<K> keys = new ArrayList<>(batch.size());
+		for (WBRBCacheEntry cacheEntry : batch)
+			keys.add(cacheEntry.getKey());
 		
-		if (isPreload != null)
-		{
-			if (isPreload)
-				getStats().checkCachePreloadAttempts.incrementAndGet();
-			else
-				getStats().checkCacheReadAttempts.incrementAndGet();
-		}
+		// Batch-wide failure is logged below separately for each key 
+		NullableOptional<Map<K, NullableOptional<R>>> batchResult = timedStorageInvocation(getStats().storageReadLatency, 
+			() -> unloggedGuardedInvocation(() -> nnChecked(spiNoLockReadFromStorageBatch(keys, batch))));
 		
-		WBRBCacheEntry value = inflightMap.get(key);
-		if (value != null)
+		for (WBRBCacheEntry cacheEntry : batch)
 		{
-			if (isPreload != null)
-			{
-				if (isPreload)
-					getStats().checkCachePreloadCacheHit.incrementAndGet();
-				else
-					getStats().checkCacheReadCacheHit.incrementAndGet();
-			}
+			K key = cacheEntry.getKey();
 			
-			return value; // already have it cache, although it's not guaranteed to be available
-		}
-		
-		if (!addIfMissing)
-			return null;
-		
-		// TO-DO not clear whether concurrent map mappingCount() performance is 'good enough'
-		long cacheSize = inflightMap.mappingCount();
-		
-		if (cacheSize >= config.getMaxCacheElementsHardLimit())
-		{
-			if (isPreload != null)
-			{
-				if (isPreload)
-					getStats().checkCachePreloadCacheFullExceptionCount.incrementAndGet();
+			// Each key is processed separately so that a problem with one doesn't affect the others
+			guardedInvocation(() -> {
+				if (batchResult.hasException())
+				{
+					logMessage(WBRBCacheMessage.STORAGE_READ_FAIL, batchResult.getException(), key);
+					apiStorageReadFail(batchResult.getException(), cacheEntry);
+					return;
+				}
+				
+				NullableOptional<R> result = batchResult.get().get(key);
+				if (result == null)
+					result = NullableOptional.emptyWithException(new CacheElementMissingFromBatchResultException(commonNamingPrefix, key));
+				
+				if (result.isPresent())
+					apiStorageReadSuccess(result.get(), cacheEntry);
 				else
-					getStats().checkCacheReadCacheFullExceptionCount.incrementAndGet();
-			}
-			
-			logMessage(WBRBCacheMessage.CACHE_ADD_FAIL_CACHE_SIZE_LIMIT_EXCEEDED, null, key, cacheSize);
-			throw new CacheFullException(config.getCacheName(), cacheSize, config.getMaxCacheElementsHardLimit());
+				{
+					Throwable e = result.getExceptionOrNull();
+					logMessage(WBRBCacheMessage.STORAGE_READ_FAIL, e, key);
+					apiStorageReadFail(e, cacheEntry);
+				}
+			}, WBRBCacheMessage.SPI_EXCEPTION_ReadFromStorage, key)
+				.ifExceptionInterruptibly(e -> {
+					withWriteLock(cacheEntry, () -> {
+						cacheEntry.getPayload().setReadStatus(WBRBCacheEntryReadStatus.READ_FAILED_FINAL);
+					});
+				});
 		}
+	}
+	
+	/**
+	 * Merges data between currently cached data and just-read storage data.
+	 * <p>
+	 * Default implementation converts data read from storage to cache format and
+	 * then applies collected updates (if any) one by one.
+	 */
+	protected S spiWriteLockMergeCacheAndStorageData(K key, R storageData, 
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+			throws InterruptedException
+	{
+		S newCacheData = convertToCacheFormatFromStorageData(key, storageData);
 		
-		long mainQueueSize = mainQueue.size();
-		if (mainQueueSize > config.getMainQueueMaxTargetSize())
-			logMessage(WBRBCacheMessage.CACHE_ADD_MAIN_QUEUE_SIZE_WARNING, null, key, mainQueueSize);
-		
-		WBRBCacheEntry entry = new WBRBCacheEntry(key, timeNow());
-		WBRBCachePayload payload = entry.getPayload();
-		wrappedSpiWriteLockUpdates_reset(WBRBUpdatesResetReason.NO_WRITE_LOCK_NEW_CACHE_ENTRY_CREATED, false, key, entry, payload);
-		
-		boolean removeEntry = true; // this is to make sure we don't leave orphans in inflight map
-		WBRBCacheEntry prev = inflightMap.putIfAbsent(key, entry);
-		if (prev != null)
+		List<UInt> collectedUpdates = spiWriteLockUpdates_getCollectedUpdates(key, cacheEntry, payload);
+		if (collectedUpdates != null)
 		{
-			if (isPreload != null)
+			for (UInt update : collectedUpdates)
 			{
-				if (isPreload)
-					getStats().checkCachePreloadCacheHit.incrementAndGet();
-				else
-					getStats().checkCacheReadCacheHit.incrementAndGet();
+				newCacheData = applyUpdate(newCacheData, update);
 			}
-			
-			return prev; // someone else added entry before us, return that one
 		}
 		
-		try
-		{
-			// 'in queue since' is already set above
-			mainQueue.add(entry);
-			removeEntry = false; // keep inflight map entry
-		} finally
+		return newCacheData;
+	}
+	
+	/**
+	 * For an incoming successful storage read must make a decision whether to
+	 * set or merge incoming data into the cache entry.
+	 * <p>
+	 * Default implementation sets/merges depending on cache payload status &
+	 * also potentially logs message {@link WBRBCacheMessage#UNEXPECTED_CACHE_STATE_FOR_READ_MERGE}
+	 * if read was unexpected.
+	 * <p>
+	 * Executed under write lock, so must finish ASAP.
+	 * <p>
+	 * NOTE: DO_NOTHING result will NOT release access latch (if it not released
+	 * already), so be careful with that.
+	 */
+	protected WBRBMergeDecision spiWriteLockMakeMergeDecision(
+		K key, R storageData, 
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+			throws InterruptedException
+	{
+		switch (payload.getReadStatus())
 		{
-			if (removeEntry)
-			{
-				haveNoLock_RemoveFromCache(entry);
-				logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_REMOVAL_IN_ADD_ENTRY, null, key);
-			}
+			case NOT_READ_YET:
+				return WBRBMergeDecision.SET_DIRECTLY;
+			case DATA_READY:
+			case DATA_READY_RESYNC_FAILED_FINAL:
+				if (!spiWriteLockIsAcceptOutOfOrderRead(key, storageData, cacheEntry, payload))
+				{
+					logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_STATE_FOR_READ_MERGE, null, key, payload.getReadStatus());
+					return WBRBMergeDecision.DO_NOTHING;
+				}
+				//$FALL-THROUGH$
+			case DATA_READY_RESYNC_PENDING:
+				if (wrappedSpiWriteLockUpdates_isMergePossible(key, cacheEntry, payload, NullableOptional.of(storageData)))
+					return WBRBMergeDecision.MERGE_DATA;
+				else
+				{
+					getStats().storageReadRefreshTooLateCount.increment(); // FUTURE: this is not a great place to do monitoring because it can be overridden 'relatively easily'
+					return spiWriteLockMakeMergeDecision_ResyncTooLate(key, storageData, cacheEntry, payload);
+				}
+			case READ_FAILED_FINAL:
+			case REMOVED_FROM_CACHE: // TO-DO not sure this status should produce message
+				logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_STATE_FOR_READ_MERGE, null, key, payload.getReadStatus());
+				return WBRBMergeDecision.DO_NOTHING;
 		}
 		
-		// We added new entry, need to schedule it for reading.
-		readQueue.add(entry);
-		
-		// Event notification
-		wrappedSpiUnknownLock_Event(WBRBEvent.CACHE_ADD, key, entry, null, null);								
-		
-		if (returnNullIfAdded)
-			return null;
-		else
-			return entry;
+		logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
+		return WBRBMergeDecision.DO_NOTHING;
 	}
-	
+
 	/**
-	 * Removes an element from cache -- more specifically removes it from
-	 * in-flight map and updates status.
+	 * When out-of-order (unexpected) read arrives (e.g. via {@link #apiStorageReadSuccess(Object, WBRBCacheEntry)})
+	 * decides whether to accept this read or reject it.
 	 * <p>
-	 * This must be called WITHOUT HOLDING A READ LOCK (or better yet -- no lock)
-	 * because READ LOCK CANNOT BE UPGRADED TO WRITE LOCK.
+	 * Default implementation returns {@link WBRBConfig#isAcceptOutOfOrderReads()}
 	 */
-	protected void haveNoLock_RemoveFromCache(WBRBCacheEntry cacheEntry)
-		throws InterruptedException
+	@SuppressWarnings("unused")
+	protected boolean spiWriteLockIsAcceptOutOfOrderRead(K key, R storageData, 
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+			throws InterruptedException
 	{
-		// Thread we're executing in might have interrupted flag, so do the
-		// critical, non-interruptible stuff first
-		internal_lockDoesntMatter_RemoveEntryFromInflightMap(cacheEntry, true);
-		
-		// Now attempt to get a write lock and mark entry as removed... 
-		withWriteLock(cacheEntry, () -> {
-			internal_haveWriteLock_MarkEntryAsRemovedFromCache(cacheEntry);
-		});
+		return config.isAcceptOutOfOrderReads();
 	}
 	
+	// CCC
+	@SuppressWarnings("unused")
+	protected WBRBMergeDecision spiWriteLockMakeMergeDecision_ResyncTooLate(
+		K key, R storageData, 
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+			throws InterruptedException
+	{
+		WBRBMergeDecision decision = config.getResyncTooLateAction();
+		logMessage(WBRBCacheMessage.RESYNC_IS_TOO_LATE, null, key, decision);
+		return decision;
+	}
+
 	/**
-	 * Removes an element from cache -- more specifically removes it from
-	 * in-flight map and updates status.
+	 * SPI: default implementation simply invokes {@link #convertToCacheFormatFromStorageData(Object, Object)}
 	 * <p>
-	 * This must be called WHILE ALREADY HOLDING THE WRITE LOCK!
+	 * WARNING: this is executed while holding write lock on the cache entry,
+	 * therefore it should be VERY FAST.
+	 * @param payload 
 	 */
-	protected void haveWriteLock_RemoveFromCache(WBRBCacheEntry cacheEntry)
-		throws InterruptedException
+	@SuppressWarnings("unused")
+	protected S spiWriteLockConvertToCacheFormat(K key, R storageData, 
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+			throws InterruptedException
 	{
-		internal_haveWriteLock_RemoveFromCache(cacheEntry, true);
+		return convertToCacheFormatFromStorageData(key, storageData);
+	}
+
+	/**
+	 * SPI: default implementation simply invokes {@link #convertFromCacheFormatToReturnValue(Object, Object)}
+	 * <p>
+	 * This is executed while holding read OR write lock (depending on usage,
+	 * this can be called e.g. from the write operation to obtain updated
+	 * value) on the cache entry.
+	 * 
+	 * @param payload 
+	 */
+	@SuppressWarnings("unused")
+	protected V spiSomeLockConvertFromCacheFormat(K key, S cachedData, 
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+			throws InterruptedException
+	{
+		return convertFromCacheFormatToReturnValue(key, cachedData);
 	}
 	
 	/**
-	 * Removes an element from cache -- more specifically removes it from
-	 * in-flight map and updates status.
+	 * For an incoming FAILED storage read must make a decision whether to
+	 * go for a read retry ot not.
 	 * <p>
-	 * If element is already marked with {@link WBRBCacheEntryReadStatus#REMOVED_FROM_CACHE},
-	 * then warning message will not be produced about 'element already removed'
-	 * when trying to remove from in-flight map.
+	 * Default implementation first check that payload status is 'as expected'
+	 * (if state is not expected, message is logged and {@link WBRBRetryDecision#DO_NOTHING}
+	 * is returned);
 	 * <p>
-	 * This must be called WHILE ALREADY HOLDING THE WRITE LOCK!
+	 * If state is expeted, then decision depends on the already-failed read
+	 * count and {@link WBRBConfig#getReadFailureMaxRetryCount()}
+	 * <p>
+	 * Executed under write lock, so must finish ASAP.
 	 */
-	protected void haveWriteLock_RemoveFromCache_NoMessageIfAlreadyRemoved(WBRBCacheEntry cacheEntry)
-		throws InterruptedException
+	@SuppressWarnings("unused")
+	protected WBRBRetryDecision spiWriteLockMakeReadRetryDecision(
+		@Nullable Throwable exception, K key, 
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+			throws InterruptedException
 	{
-		internal_haveWriteLock_RemoveFromCache(cacheEntry, 
-			cacheEntry.getPayload().getReadStatus() != WBRBCacheEntryReadStatus.REMOVED_FROM_CACHE);
+		switch (payload.getReadStatus())
+		{
+			case NOT_READ_YET:
+			case DATA_READY_RESYNC_PENDING:
+				// standard processing
+				if (payload.getReadFailureCount() > config.getReadFailureMaxRetryCount())
+					return WBRBRetryDecision.NO_RETRY_SET_FINAL_FAILED_STATUS;
+				else
+					return WBRBRetryDecision.RETRY;
+				
+			case DATA_READY:
+			case DATA_READY_RESYNC_FAILED_FINAL:
+			case READ_FAILED_FINAL:
+				logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_STATE_FOR_READ_FAIL, null, payload.getReadStatus());
+				return WBRBRetryDecision.DO_NOTHING;
+			case REMOVED_FROM_CACHE: // TO-DO not sure this status should produce message
+				return WBRBRetryDecision.DO_NOTHING;
+		}
+		
+		logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
+		return WBRBRetryDecision.DO_NOTHING;
+	}
+	
+	/**
+	 * Checks whether successful initial read has found no data in the storage
+	 * and if so (and if {@link WBRBConfig#isNegativeCaching()} is enabled)
+	 * turns entry into negative cache entry -- it gets {@link WBRBCacheEntryReadStatus#READ_FAILED_FINAL}
+	 * status (which opens access latch) and is marked via {@link WBRBCachePayload#setStorageDataAbsentSince(long)}
+	 * 
+	 * @return true if entry was turned into negative cache entry (and thus
+	 * 		read result should not be processed further)
+	 */
+	protected boolean haveWriteLock_HandleAbsentStorageData(K key, R readResult, 
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+			throws InterruptedException
+	{
+		if (!config.isNegativeCaching())
+			return false;
+		
+		if (!(cacheEntry instanceof WriteBehindResyncInBackgroundCache.WBRBExtendedCacheEntry))
+			return false; // entry was created while negative caching was disabled, it cannot be marked as absent
+		
+		if (payload.getReadStatus() != WBRBCacheEntryReadStatus.NOT_READ_YET)
+			return false; // only initial reads may produce negative cache entries
+		
+		NullableOptional<Boolean> absent = guardedInvocation(() -> 
+			spiWriteLockIsStorageDataAbsent(key, readResult, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_IsStorageDataAbsent, key);
+		if (!absent.isPresent() || !absent.get())
+			return false;
+		
+		getStats().storageReadInitialAbsent.increment();
+		
+		final long now = timeNow();
+		payload.setStorageDataAbsentSince(now);
+		payload.setLastSyncedWithStorageTimestamp(now);
+		payload.resetReadFailureCount();
+		payload.setReadStatus(WBRBCacheEntryReadStatus.READ_FAILED_FINAL); // opens latch, access is handled via 'storage data absent' flag
+		
+		return true;
 	}
 	
 	/**
-	 * Removes an element from cache -- more specifically removes it from
-	 * in-flight map and updates status.
+	 * Determines whether data read from the storage indicates that there's
+	 * no data for the key in the storage (e.g. no row in the database table);
+	 * only used if {@link WBRBConfig#isNegativeCaching()} is enabled and only
+	 * for the initial reads (results of refresh reads are always merged as usual).
 	 * <p>
-	 * This must be called WHILE ALREADY HOLDING THE WRITE LOCK!
+	 * Default implementation returns true if storage data is null.
 	 */
-	protected void internal_haveWriteLock_RemoveFromCache(WBRBCacheEntry cacheEntry, boolean logIfElementNotPresent)
-		throws InterruptedException
-	{
-		// Thread we're executing in might have interrupted flag, so do the
-		// critical, non-interruptible stuff first
-		internal_lockDoesntMatter_RemoveEntryFromInflightMap(cacheEntry, logIfElementNotPresent);
-		
-		// Now attempt to get a write lock and mark entry as removed... 
-		internal_haveWriteLock_MarkEntryAsRemovedFromCache(cacheEntry);
-	}
-
-	// CCC
-	protected void internal_lockDoesntMatter_RemoveEntryFromInflightMap(WBRBCacheEntry cacheEntry, boolean logIfElementNotPresent)
-		throws InterruptedException
+	@SuppressWarnings("unused")
+	protected boolean spiWriteLockIsStorageDataAbsent(K key, R storageData, 
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+			throws InterruptedException
 	{
-		@Nonnull K key = cacheEntry.getKey();
-
-		if (inflightMap.remove(key, cacheEntry)) // only removes if key maps to the value being removed
-		{
-			// Event notification
-			wrappedSpiUnknownLock_Event(WBRBEvent.CACHE_REMOVE, key, cacheEntry, null, null);								
-		}
-		else
-		{
-			if (logIfElementNotPresent)
-				logMessage(WBRBCacheMessage.NOT_PRESENT_ELEMENT_REMOVAL_ATTEMPT, new Exception(WBRBCacheMessage.NOT_PRESENT_ELEMENT_REMOVAL_ATTEMPT.toString() + " stack trace"), key);
-		}
+		return nullable(storageData) == null;
 	}
 	
-	// CCC
-	protected void internal_haveWriteLock_MarkEntryAsRemovedFromCache(WBRBCacheEntry cacheEntry)
+	/**
+	 * Checks whether given cache entry is a negative cache entry (see
+	 * {@link WBRBConfig#isNegativeCaching()}) that is older than 
+	 * {@link WBRBConfig#getNegativeCacheTime()} and if so -- removes it from 
+	 * the cache (so that the next access issues new storage read).
+	 * 
+	 * @return true if entry was removed from the cache
+	 */
+	protected boolean haveNoLock_ExpireNegativeCacheEntryIfStale(WBRBCacheEntry cacheEntry)
 		throws InterruptedException
 	{
-		@Nonnull K key = cacheEntry.getKey();
+		final long absentSince = cacheEntry.getPayload().getStorageDataAbsentSince();
+		if (absentSince <= 0)
+			return false;
 		
-		WBRBCachePayload payload = cacheEntry.getPayload();
+		if (timeGapVirtual(absentSince, timeNow()) < config.getNegativeCacheTime())
+			return false;
 		
-		// TO-DO should it set the write status too?
-		cacheEntry.getPayload().setReadStatus(WBRBCacheEntryReadStatus.REMOVED_FROM_CACHE);
+		withWriteLock(cacheEntry, () -> {
+			haveWriteLock_RemoveFromCache_NoMessageIfAlreadyRemoved(cacheEntry);
+		});
 		
-		// Clear memory used by any collected updates
-		wrappedSpiWriteLockUpdates_reset(WBRBUpdatesResetReason.REMOVED_FROM_CACHE, false, key, cacheEntry, payload);
+		return true;
 	}
 	
-	/**
-	 * Creates read queue processor thread.
-	 */
-	protected ExitableThread createReadQueueProcessor()
+	// TO-DO comment
+	protected void apiStorageReadSuccess(R readResult, WBRBCacheEntry cacheEntry)
+		throws InterruptedException
 	{
-		InterruptHandlingExitableThread thread = new InterruptHandlingExitableThread(threadGroup, commonNamingPrefix + " Read Queue Processor")
-		{
-			@Override
-			protected void run1(boolean reentry)
-				throws InterruptedException
+		withWriteLock(cacheEntry, () -> {
+			WBRBCachePayload payload = cacheEntry.getPayload();
+			
+			switch (payload.getReadStatus())
 			{
-				runnableReadQueueProcessor();
+				case DATA_READY:
+				case DATA_READY_RESYNC_FAILED_FINAL:
+				case DATA_READY_RESYNC_PENDING:
+				case REMOVED_FROM_CACHE: // this is a somewhat random choice
+					getStats().storageReadRefreshSuccesses.increment();
+					break;
+				case NOT_READ_YET:
+				case READ_FAILED_FINAL:
+					getStats().storageReadInitialSuccesses.increment();
+					break;
 			}
-
-			@Override
-			protected boolean handleUnexpectedInterruptedException(
-				InterruptedException e)
+			
+			K key = cacheEntry.getKey();
+			
+			if (haveWriteLock_HandleAbsentStorageData(key, readResult, cacheEntry, payload))
+				return; // negative cache entry, nothing else to do
+			
+			BooleanObjectWrapper doStuff = BooleanObjectWrapper.of(true);
+			ObjectWrapper<@Nonnull NullableOptional<S>> result = ObjectWrapper.of(NullableOptional.empty());
+			guardedInvocationNonNull(() -> spiWriteLockMakeMergeDecision(key, readResult, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_MakeMergeDecision, key)
+				.ifPresentInterruptibly(decision -> {
+					boolean dataUsed = false;
+					switch(decision)
+					{
+						case CLEAR_READ_PENDING_STATUS:
+							doStuff.setFalse(); // no unlatching, etc.
+							switch (payload.getReadStatus())
+							{
+								case DATA_READY:
+								case DATA_READY_RESYNC_FAILED_FINAL:
+								case READ_FAILED_FINAL:
+								case REMOVED_FROM_CACHE:
+									break;
+								case DATA_READY_RESYNC_PENDING:
+									payload.setReadStatus(WBRBCacheEntryReadStatus.DATA_READY_RESYNC_FAILED_FINAL);
+									break;
+								case NOT_READ_YET:
+									payload.setReadStatus(WBRBCacheEntryReadStatus.READ_FAILED_FINAL);
+									break;
+							}
+							break;
+						case DO_NOTHING:
+							doStuff.setFalse(); // no unlatching, etc.
+							break;
+						case SET_DIRECTLY:
+							result.set( guardedInvocation(() -> spiWriteLockConvertToCacheFormat(key, readResult, cacheEntry, payload), 
+								WBRBCacheMessage.CONVERT_TO_CACHE_FORMAT_FROM_STORAGE_DATA_FAIL, key) );
+							dataUsed = true;
+							break;
+						case MERGE_DATA:
+							result.set( guardedInvocation(() -> spiWriteLockMergeCacheAndStorageData(key, readResult, cacheEntry, payload),
+								WBRBCacheMessage.MERGE_CACHE_AND_STORAGE_DATA_FAIL, key) );
+							dataUsed = true;
+							break;
+						case REMOVE_FROM_CACHE:
+							doStuff.setFalse(); // Nothing to do after cache removal
+							haveWriteLock_RemoveFromCache_NoMessageIfAlreadyRemoved(cacheEntry);
+							break;
+					}
+					
+					if (!dataUsed)
+						getStats().storageReadRefreshDataNotUsedCount.increment();
+					
+					// Event notification
+					wrappedSpiUnknownLock_Event(WBRBEvent.READ_SUCCESS_DECISION, key, cacheEntry, payload, null, decision, NullableOptional.of(readResult), result);								
+				})
+				.ifExceptionInterruptibly(e -> {
+					result.set( NullableOptional.emptyWithException(e) );
+				});
+			
+			if (doStuff.isTrue())
 			{
-				logMessage(WBRBCacheMessage.READ_QUEUE_PROCESSOR_UNEXPECTED_INTERRUPT, e);
-				
-				return true; // don't exit, restart processing
+				result.get().ifPresentInterruptibly(data -> {
+					haveWriteLock_SetCachedValue(key, cacheEntry, payload, data);
+					payload.resetReadFailureCount();
+					payload.setLastSyncedWithStorageTimestamp(timeNow());
+					payload.setReadStatus(WBRBCacheEntryReadStatus.DATA_READY); // should also open latch if needed
+					
+					wrappedSpiWriteLockUpdates_reset(WBRBUpdatesResetReason.STORAGE_DATA_MERGED, false, key, cacheEntry, payload);
+				})
+				.ifExceptionInterruptibly(e -> {
+					payload.incrementReadFailureCount();
+					payload.setReadStatus(WBRBCacheEntryReadStatus.READ_FAILED_FINAL); // should also open latch if needed
+				});
 			}
-			
-		};
-		
-		thread.setPriority(config.getReadQueueProcessingThreadPriority());
-		
-		return thread;
+		}); // end write lock
 	}
 	
+	// TO-DO comment
 	/**
-	 * Code executed by {@link #readQueueProcessingThread}
+	 * WARNING: will NOT log error/exception information if going for retry
+	 * because normally it is already logged in {@link #spiNoLockProcessReadFromStorage(Object, boolean, WBRBCacheEntry)}
+	 * If you're doing your own implementation, make sure to log the problem as needed.
+	 * 
 	 */
-	protected void runnableReadQueueProcessor() throws InterruptedException
+	protected void apiStorageReadFail(@Nullable Throwable exception, WBRBCacheEntry cacheEntry)
+		throws InterruptedException
 	{
-		WAThreadPoolExecutor pool = readThreadPool;
-		
-		SimpleLongCounter batchCount = new SimpleLongCounter(0);
-		while(true)
-		{
-			final WBRBCacheEntry cacheEntry;
+		withWriteLock(cacheEntry, () -> {
+			WBRBCachePayload payload = cacheEntry.getPayload();
 			
-			if ((batchCount.get() > 0) && (config.getReadQueueBatchingDelay() > 0))
-			{
-				// Here we are during batch processing (i.e. some elements were already read)
-				cacheEntry = pollQueue(readQueue, config.getReadQueueBatchingDelay());
-				if (cacheEntry == null)
-				{
-					// batch is over.
-					guardedInvocation(() -> spiNoLockReadBatchDelayExpired(), WBRBCacheMessage.SPI_EXCEPTION_ReadBatchDelayExpired);
-					batchCount.reset();
-					continue;
-				}
-			}
-			else
+			switch (payload.getReadStatus())
 			{
-				// no batching or zero elements in current batch
-				batchCount.reset();
-				cacheEntry = readQueue.take(); // wait indefinitely for the next one
+				case DATA_READY:
+				case DATA_READY_RESYNC_FAILED_FINAL:
+				case DATA_READY_RESYNC_PENDING:
+				case REMOVED_FROM_CACHE: // this is a somewhat random choice
+					getStats().storageReadRefreshFailures.increment();
+					break;
+				case NOT_READ_YET:
+				case READ_FAILED_FINAL:
+					getStats().storageReadInitialFailures.increment();
+					break;
 			}
 			
-			getStats().storageReadQueueProcessedItems.incrementAndGet();
-			
 			K key = cacheEntry.getKey();
+
+			payload.incrementReadFailureCount(); // increment fail counter
 			
-			BooleanObjectWrapper setFailedStatus = BooleanObjectWrapper.of(false);
-			guardedInvocationNonNull(() -> spiNoLockGetReadQueueProcessorLock(cacheEntry), WBRBCacheMessage.SPI_EXCEPTION_GetReadQueueProcessorLock, key)
-				.ifPresentInterruptibly(lock -> {
-					BooleanObjectWrapper isRefreshRead = BooleanObjectWrapper.of(false);
-					BooleanObjectWrapper doInlineReadOutsideLock = BooleanObjectWrapper.of(false);
-					withLock(lock, cacheEntry, () -> { // we use lock because we need to read status from the payload
-						// Here we have proper lock and can do standard processing.
-						WBRBCachePayload payload = cacheEntry.getPayload();
-						WBRBCacheEntryReadStatus status = payload.getReadStatus();
+			ObjectWrapper<@Nonnull WBRBRetryDecision> retryDecision = ObjectWrapper.of(fakeNonNull());
+			ObjectWrapper<Object> finalFailDecision = ObjectWrapper.of(null);
+			BooleanObjectWrapper setReadFailedStatus = BooleanObjectWrapper.of(false);
+			guardedInvocationNonNull(() -> spiWriteLockMakeReadRetryDecision(exception, key, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_MakeReadRetryDecision, key)
+				.ifPresentInterruptibly(decision -> {
+					switch(decision)
+					{
+						case DO_NOTHING:
+							break;
+						case REMOVE_FROM_CACHE:
+							haveWriteLock_RemoveFromCache(cacheEntry);
+							break;
+						case NO_RETRY_SET_FINAL_FAILED_STATUS:
+							setReadFailedStatus.setTrue();
+							logMessage(WBRBCacheMessage.STORAGE_READ_FAIL_FINAL, exception, key);
+							break;
+						case RETRY:
+							// Need to re-queue read -- retries are never dropped, so these always go to the main lane
+							queueRead(cacheEntry, false);
+							logMessage(WBRBCacheMessage.STORAGE_READ_RETRY_ISSUED, exception, key);
+							break;
+					}
+					
+					retryDecision.set(decision);
+				})
+				.ifExceptionInterruptibly(e -> {
+					setReadFailedStatus.setTrue();
+				});
+			
+			if (setReadFailedStatus.isTrue())
+			{
+				WBRBCacheEntryReadStatus status = payload.getReadStatus();
+				BooleanObjectWrapper stopCollectUpdates = BooleanObjectWrapper.of(true);
+				switch(status)
+				{
+					case NOT_READ_YET:
+						payload.setReadStatus(WBRBCacheEntryReadStatus.READ_FAILED_FINAL);
+
+						// When initial read fails (final), need to make a decision on what to do now
+						guardedInvocationNonNull(() -> spiWriteLockMakeInitialReadFailedFinalDecision(key, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_MakeInitialReadFailedFinalDecision, key)
+							.ifPresentInterruptibly(decision -> {
+								switch (decision)
+								{
+									case REMOVE_FROM_CACHE:
+										haveWriteLock_RemoveFromCache_NoMessageIfAlreadyRemoved(cacheEntry);
+										break;
+									case KEEP_AND_THROW_CACHE_READ_EXCEPTIONS:
+										break; // Keep it, will throw access exceptions instead
+								}
+								
+								finalFailDecision.set(decision);
+							})
+							.ifExceptionInterruptibly(e -> {
+								haveWriteLock_RemoveFromCache(cacheEntry);
+							});
 						
-						guardedInvocationNonNull(() -> spiSomeLockMakeReadQueueProcessingDecision(key, status, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_MakeReadQueueProcessingDecision, key)
+						break;
+					case DATA_READY_RESYNC_PENDING:
+						payload.setReadStatus(WBRBCacheEntryReadStatus.DATA_READY_RESYNC_FAILED_FINAL);
+						
+						// When resync fails (final), need to make a decision on what to do now
+						guardedInvocationNonNull(() -> spiWriteLockMakeResyncFailedFinalDecision(key, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_MakeResyncFailedFinalDecision, key)
 							.ifPresentInterruptibly(decision -> {
-								// Here we have decision and can process it
 								switch (decision)
 								{
-									case DO_NOTHING:
+									case REMOVE_FROM_CACHE:
+										haveWriteLock_RemoveFromCache_NoMessageIfAlreadyRemoved(cacheEntry);
 										break;
-									case SET_FINAL_FAILED_READ_STATUS:
-										setFailedStatus.setTrue();
+									case KEEP_COLLECTING_UPDATES:
+										stopCollectUpdates.setFalse();
 										break;
-									case REFRESH_READ:
-										isRefreshRead.setTrue();
-										//$FALL-THROUGH$
-									case INITIAL_READ:
-										// ok, execute the read
-										if (isRefreshRead.isTrue())
-											getStats().storageReadRefreshAttempts.incrementAndGet();
-										else
-											getStats().storageReadInitialAttempts.incrementAndGet();
-										if (pool == null)
-										{
-											// Execute in our own thread
-											// CANNOT do it here since we hold some lock, do it later!
-											doInlineReadOutsideLock.setTrue();
-										}
-										else
-										{
-											// Execute in the pool.
-											pool.waExecute(() -> {
-												// can't use guarded invocation as those throw InterruptedException
-												try
-												{
-													spiNoLockProcessReadFromStorage(key, isRefreshRead.isTrue(), cacheEntry);
-												} catch (Exception e)
-												{
-													// This shouldn't happen unless spi method is broken or execution thread is interrupted for w/e reason
-													logMessage(WBRBCacheMessage.SPI_EXCEPTION_ReadFromStorage, e, key);
-													try
-													{
-														withWriteLock(cacheEntry, () -> {
-															payload.setReadStatus(WBRBCacheEntryReadStatus.READ_FAILED_FINAL);
-														});
-													} catch (InterruptedException e2)
-													{
-														// nothing else to do here.
-													}
-												}
-											});
-											batchCount.incrementAndGet();
-										}
+									case STOP_COLLECTING_UPDATES:
 										break;
 								}
 								
-								// Event notification
-								wrappedSpiUnknownLock_Event(WBRBEvent.READ_QUEUE_ITEM_PROCESSED, key, cacheEntry, payload, null, decision);								
-							})
-							// Exception in spiSomeLockMakeReadQueueProcessingDecision
-							.ifExceptionInterruptibly(e -> {
-								setFailedStatus.setTrue();
-							});
-					}); // end lock
-					
-					if (doInlineReadOutsideLock.isTrue())
-					{
-						guardedInvocation(() -> spiNoLockProcessReadFromStorage(key, isRefreshRead.isTrue(), cacheEntry), WBRBCacheMessage.SPI_EXCEPTION_ReadFromStorage, key)
-							.ifPresentInterruptibly(o -> {
-								batchCount.incrementAndGet();
+								finalFailDecision.set(decision);
 							})
 							.ifExceptionInterruptibly(e -> {
-								setFailedStatus.setTrue();
+								haveWriteLock_RemoveFromCache(cacheEntry);
 							});
-					}
-					
-				}) // end of spiNoLockGetReadQueueProcessorLock normal processing 
-				// Exception in spiNoLockGetReadQueueProcessorLock
-				.ifExceptionInterruptibly(e -> {
-					setFailedStatus.setTrue();
-				});
-			
-			if (setFailedStatus.isTrue())
-			{
-				// Have to do it in a new lock, since the above lock could've been read and it cannot be upgraded
-				withWriteLock(cacheEntry, () -> {
-					cacheEntry.getPayload().setReadStatus(WBRBCacheEntryReadStatus.READ_FAILED_FINAL);
-				});
+						
+						break;
+					case DATA_READY:
+					case DATA_READY_RESYNC_FAILED_FINAL:
+					case READ_FAILED_FINAL:
+					case REMOVED_FROM_CACHE:
+						logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
+						break;
+				}
+				
+				if (stopCollectUpdates.isTrue())
+				{
+					// Stop collecting updates if this is the decision
+					wrappedSpiWriteLockUpdates_reset(WBRBUpdatesResetReason.READ_FAILED_FINAL_DECISION, false, key, cacheEntry, payload);
+				}
 			}
-		}
+			
+			// Event notification
+			wrappedSpiUnknownLock_Event(WBRBEvent.READ_FAIL_DECISION, key, cacheEntry, payload, null, 
+				retryDecision.get(), NullableOptional.of(finalFailDecision.get()));
+		});
 	}
+
 	
-	/**
-	 * This is invoked to 'finish' a read batch when there were some reads and 
-	 * no additional reads queued for config.readQueueBatchingDelay time.
-	 * <p>
-	 * Default implementation does nothing.
-	 * <p>
-	 * This is a useful method if you're implementing batched reads.
-	 * <p>
-	 * WARNING: this is ALWAYS executed in read queue processor thread, so it
-	 * must return VERY QUICKLY.
-	 */
+	// CCC comment
 	@SuppressWarnings("unused")
-	protected void spiNoLockReadBatchDelayExpired()
-		throws InterruptedException
+	protected WBRBInitialReadFailedFinalDecision spiWriteLockMakeInitialReadFailedFinalDecision(
+		@Nonnull K key,
+		WBRBCacheEntry cacheEntry,
+		WBRBCachePayload payload)
+			throws InterruptedException
 	{
-		// nothing in default implementation
+		return config.getInitialReadFailedFinalAction();
 	}
 	
-	/**
-	 * Returns lock to be used by read queue processor; normally (and by default)
-	 * this is read lock; however if you're doing something special, you can
-	 * change that here.
-	 * TO-DO: reference read queue decision method here
-	 */
+	// CCC comment
 	@SuppressWarnings("unused")
-	protected Lock spiNoLockGetReadQueueProcessorLock(WBRBCacheEntry cacheEntry)
-		throws InterruptedException
+	protected WBRBResyncFailedFinalDecision spiWriteLockMakeResyncFailedFinalDecision(
+		@Nonnull K key,
+		WBRBCacheEntry cacheEntry,
+		WBRBCachePayload payload)
+			throws InterruptedException
 	{
-		return cacheEntry.getLock().readLock();
+		return config.getResyncFailedFinalAction();
 	}
 	
 	/**
-	 * This method is executed while holding *some* lock, as defined in
-	 * {@link #spiNoLockGetReadQueueProcessorLock(WBRBCacheEntry)}; by default
-	 * this is a read lock.
+	 * Part of the 'collect updates' subsystem.
 	 * <p>
-	 * It must make a decision as to what read queue processor should do with
-	 * the given item.
+	 * 'Collects' an update -- if returned value is non-null, then it is reported
+	 * and {@link #spiWriteLockUpdates_reset(boolean, Object, WBRBCacheEntry, WBRBCachePayload)}
+	 * is invoked with 'false' (i.e. failure to collect an update leads to updates
+	 * reset and no plans to collect further updates).
 	 * <p>
-	 * Default implementation looks at read status and bases decision on that;
-	 * it will also log message if status is unexpected.
+	 * Default implementation checks whether updates collection is enabled (for
+	 * disabled collection it does nothing, just returns null) and if enabled -- 
+	 * attempts to fold update into the last collected one via {@link #combineUpdates(Object, Object)}
+	 * and if that is not possible -- simply adds it to updates list unless 
+	 * capacity is exceeded (in which case an exception is returned).
+	 * 
+	 * @return null if update has been collected and we can continue collecting
+	 * 		updates; exception instance of update could not be collected for some
+	 * 		reason -- such as limit on number of updates (further updates will 
+	 * 		NOT be collected)
 	 */
 	@SuppressWarnings("unused")
-	protected WBRBReadQueueProcessingDecision spiSomeLockMakeReadQueueProcessingDecision(
-		K key, WBRBCacheEntryReadStatus status, 
-		WBRBCacheEntry cacheEntry, 
-		WBRBCachePayload payload)
+	@Nullable
+	protected CacheIllegalStateException spiWriteLockUpdates_collect(@Nonnull K key,
+		WBRBCacheEntry cacheEntry,
+		WBRBCachePayload payload, UInt update)
 			throws InterruptedException
 	{
-		switch (status)
-		{
-			case DATA_READY:
-			case DATA_READY_RESYNC_FAILED_FINAL:
-			case READ_FAILED_FINAL:
-			case REMOVED_FROM_CACHE: // TO-DO not sure this status should produce message
-				logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_STATE_FOR_READ_QUEUE_PROCESSING, null, key, status);
-				return WBRBReadQueueProcessingDecision.DO_NOTHING;
-			case NOT_READ_YET:
-				return WBRBReadQueueProcessingDecision.INITIAL_READ;
-			case DATA_READY_RESYNC_PENDING:
-				return WBRBReadQueueProcessingDecision.REFRESH_READ;
-		}
+		if (!payload.isCollectUpdates())
+			return null;
 		
-		logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
-		return WBRBReadQueueProcessingDecision.DO_NOTHING;
-	}
-
-	/**
-	 * Overriding this method allows to change how cache processes time internally.
-	 * <p>
-	 * Time 'passes' at the speed of actual time * this factor (i.e. numbers over
-	 * 1 'speed up' the time, numbers under 1 'slow' it down).
-	 * <p>
-	 * This is probably mostly useful for testing.
-	 * <p>
-	 * Default implementation returns {@link Float#NaN}
-	 * 
-	 * @return time factor or {@link Float#NaN} to indicate that time flow should
-	 * 		be 'standard'
-	 */
-	protected float timeFactor()
-	{
-		return Float.NaN;
-	}
-	
-	/**
-	 * Lets custom implementations override what current time is; this is likely
-	 * to break something unless done very-very carefully.
-	 * <p>
-	 * Default implementation returns {@link System#currentTimeMillis()}
-	 * TO-DO make sure there are no other references to system.currentime
-	 */
-	protected long timeNow()
-	{
-		return System.currentTimeMillis();
-	}
-	
-	/**
-	 * Calculates time gap in virtual milliseconds (taking into account {@link #timeFactor()})
-	 * between two 'real-world' timestamps.
-	 * <p>
-	 * So if e.g. real-world timestamps are 4000 and 5000; and time factor is 2;
-	 * then the result will be (5000-4000) * 2 = 2000 virtual milliseconds
-	 * <p>
-	 * This never returns 0 unless both arguments are exactly equal.
-	 * <p>
-	 * The 'inverse' of this method is {@link #timeAddVirtualIntervalToRealWorldTime(long, long)}
-	 */
-	protected long timeGapVirtual(long realWorldStartTime, long realWorldEndTime)
-	{
-		if (realWorldEndTime == realWorldStartTime)
-			return 0;
+		int limit = config.getMaxUpdatesToCollect();
+		if (limit < 1)
+			return new CacheElementHasTooManyUpdates(commonNamingPrefix, key, limit);
 		
-		float timeFactor = timeFactor();
-		if (Float.isNaN(timeFactor))
-			return realWorldEndTime - realWorldStartTime;
+		List<UInt> collected = payload.getCollectedUpdates();
+		if (collected == null)
+		{
+			collected = spiWriteLockUpdates_createCollectedUpdatesList(key, cacheEntry, payload);
+			payload.setCollectedUpdates(collected);
+		}
+		else if (!collected.isEmpty())
+		{
+			int lastIndex = collected.size() - 1;
+			NullableOptional<UInt> combined = combineUpdates(collected.get(lastIndex), update);
+			if (combined.isPresent())
+			{
+				collected.set(lastIndex, combined.get());
+				getStats().cacheWriteCombinedUpdates.increment();
+				return null;
+			}
+		}
 		
-		double result = Math.ceil( (realWorldEndTime - realWorldStartTime) * timeFactor );
+		if (collected.size() >= limit)
+			return new CacheElementHasTooManyUpdates(commonNamingPrefix, key, limit);
 		
-		if (result > 0)
-			return (long)result;
+		collected.add(update);
 		
-		// Math.ceil returns 'higher' number for negative values including e.g. negative zero;
-		// so subtract one for proper result
-		return (long)(result - 1);
+		return null;
 	}
 	
 	/**
-	 * Adds a given virtual milliseconds interval (taking into account {@link #timeFactor()})
-	 * to the given real-world timestamp.
-	 * <p>
-	 * So if real-world timestamp is 4000, virtual interval is 2000 and time
-	 * factor is 2, then the result will be 4000 + (2000 / 2) = 5000
-	 * <p>
-	 * It's useful to calculate to e.g. how long to sleep.
+	 * Part of the 'collect updates' subsystem.
 	 * <p>
-	 * This never returns the same real-world timestamp unless interval is zero.
+	 * Creates (empty) list to collect updates into.
 	 * <p>
-	 * The 'inverse' of this method is {@link #timeGapVirtual(long, long)}	 
+	 * Default implementation returns {@link ArrayList}; caches with numeric
+	 * updates may want to use e.g. {@link WBRBLongDeltaCollectedUpdates}
+	 * instead.
 	 */
-	protected long timeAddVirtualIntervalToRealWorldTime(long realWorldTime, long virtualInterval)
+	@SuppressWarnings("unused")
+	protected List<UInt> spiWriteLockUpdates_createCollectedUpdatesList(@Nonnull K key,
+		WBRBCacheEntry cacheEntry,
+		WBRBCachePayload payload)
+			throws InterruptedException
 	{
-		float timeFactor = timeFactor();
-		if (Float.isNaN(timeFactor))
-			return realWorldTime + virtualInterval;
-		
-		double delta = Math.ceil(virtualInterval / timeFactor);
-		// Math.ceil returns 'higher' number for negative values including e.g. negative zero;
-		// so subtract one to get non-zero result in all cases
-		if (delta < 1)
-			delta = delta - 1;
-		
-		return realWorldTime + (long)delta;
+		return new ArrayList<>();
 	}
 	
 	/**
-	 * Calculates real-world interval from the given virtual interval (taking 
-	 * into account {@link #timeFactor()})
+	 * Returns list of collected updates so far (or null if none were collected).
 	 * <p>
-	 * This never returns zero unless given virtual interval is zero.
-	 */
-	protected long timeRealWorldInterval(long virtualInterval)
-	{
-		long now = timeNow();
-		long targetTime = timeAddVirtualIntervalToRealWorldTime(now, virtualInterval);
-		
-		return targetTime - now;
-	}
-	
-	/**
-	 * Polls given BlockingQueue for the specified amount of time; takes care
-	 * of respecting {@link #timeFactor()}
+	 * This is used in {@link #spiWriteLockMergeCacheAndStorageData(Object, Object, WBRBCacheEntry, WBRBCachePayload)};
+	 * if you need more customization on how updates are merged, override that method.
+	 * <p>
+	 * Default implementation simply returns {@link WBRBCachePayload#getCollectedUpdates()}
 	 */
-	@Nullable
-	protected <E> E pollQueue(BlockingQueue<E> queue, long timeMillis) throws InterruptedException
+	@SuppressWarnings("unused")
+	protected @Nullable List<UInt> spiWriteLockUpdates_getCollectedUpdates(@Nonnull K key,
+		WBRBCacheEntry cacheEntry,
+		WBRBCachePayload payload)
+			throws InterruptedException
 	{
-		return queue.poll(timeRealWorldInterval(timeMillis), TimeUnit.MILLISECONDS);
+		return payload.getCollectedUpdates();
 	}
 	
 	/**
-	 * Should implement reading from the storage based on the specified key.
-	 * <p>
-	 * These are typically called in the separate read threads, but it is still
-	 * very important to produce results very quickly as updates to cached objects
-	 * are collected while they wait for the background read & writes (and thus memory
-	 * can be consumed significantly).
-	 * <p>
-	 * If your storage works better with batched reads, this can be implemented
-	 * by overriding {@link #spiNoLockProcessReadFromStorage(Object, boolean, WBRBCacheEntry)}
-	 * method (which allows to produce result later instead of 'right now') and
-	 * {@link #spiNoLockReadBatchDelayExpired()} to detect 'batch end' events.
+	 * Part of the 'collect updates' subsystem.
 	 * <p>
-	 * For batched reads you also might want to disable readThreadPool so that
-	 * these methods are not called in separate threads unnecessarily.
+	 * Determines whether a merge is possible for the given data.
+	 * <p> 
+	 * Default implementation simply returns {@link WBRBCachePayload#isCollectUpdates()}
+	 * which is set according to the {@link #spiWriteLockUpdates_reset(boolean, Object, WBRBCacheEntry, WBRBCachePayload)}
+	 * flag.
 	 * 
-	 * @param key key to read
-	 * @param isRefreshRead true if this read is intended to refresh value
-	 * 		already in memory (i.e. there's expected to be a subsequent merge)
+	 * @param incomingStorageData non-empty if this is a decision for actual
+	 * 		incoming data; empty if it is a decision for a future incoming data
+	 * 		(such as when deciding whether it's reasonable to keep collecting
+	 * 		updates)
 	 */
-	protected abstract R readFromStorage(K key, boolean isRefreshRead)
-		throws InterruptedException;
-	
+	@SuppressWarnings("unused")
+	protected boolean spiWriteLockUpdates_isMergePossible(@Nonnull K key,
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload,
+		NullableOptional<R> incomingStorageData)
+			throws InterruptedException
+	{
+		return payload.isCollectUpdates();
+	}
 	
 	/**
-	 * A version of {@link #readFromStorage(Object, boolean)} that provides more
-	 * access to the internal data (so the implementations may override this
-	 * to get more access). 
+	 * Part of the 'collect updates' subsystem.
 	 * <p>
-	 * Default implementation simply calls {@link #readFromStorage(Object, boolean)}
-	 * and returns the result.
+	 * {@link #spiWriteLockUpdates_isMergePossible(Object, WBRBCacheEntry, WBRBCachePayload)}
+	 * wrapped into error handler; logs message, returns false and resets 
+	 * collected updates (with 'false' further collection flag) in case of an exception.
 	 */
-	protected R spiNoLockReadFromStorage(K key, boolean isRefreshRead, @SuppressWarnings("unused") WBRBCacheEntry cacheEntry) 
-		throws InterruptedException
+	protected boolean wrappedSpiWriteLockUpdates_isMergePossible(@Nonnull K key,
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload,
+		NullableOptional<R> incomingStorageData)
+			throws InterruptedException
 	{
-		return readFromStorage(key, isRefreshRead);
+		NullableOptional<@Nonnull Boolean> result = guardedInvocationNonNull(() -> spiWriteLockUpdates_isMergePossible(key, cacheEntry, payload, incomingStorageData), WBRBCacheMessage.SPI_EXCEPTION_Updates_isMergePossible, key);
+		
+		if (result.hasException())
+		{
+			wrappedSpiWriteLockUpdates_reset(WBRBUpdatesResetReason.IS_MERGE_POSSIBLE_EXCEPTION, false, key, cacheEntry, payload);
+			return false;
+		}
+		
+		return result.get();
 	}
 	
-	
 	/**
-	 * Converts data from external update format (the update type used in public
-	 * API) to the internal update format (used to store & apply updates internally).
+	 * Part of the 'collect updates' subsystem.
 	 * <p>
-	 * This is executed without holding any locks, but it is executed on each
-	 * write operation, so performance is important.
-	 */
-	protected abstract UInt convertToInternalUpdateFormatFromExternalUpdate(K key, UExt externalUpdate);
-	
-	/**
-	 * Converts data read from the storage into format used by the cache internally;
-	 * this is used in case of initial read, when there's nothing to merge.
+	 * NOTE: this method is called when either holding the write lock or when
+	 * it is otherwise thread-safe (such as when new cache entry instance is
+	 * created and is not yet shared among threads).
 	 * <p>
-	 * WARNING: this is executed while holding write lock on the cache entry,
-	 * therefore it should be VERY FAST.
-	 * TO-DO desc
-	 */
-	protected abstract S convertToCacheFormatFromStorageData(K key, R storageData);
-	
-	/**
-	 * Converts data read from the internal cache format to the return value type.
-	 * This is used to produce results during the reads.
+	 * Resets collected updates because the processing code believes they will
+	 * no longer be needed (e.g. because they've been applied or there was some
+	 * error that prevents their usefulness in the future).
 	 * <p>
-	 * This is executed while holding read lock on the cache entry.
-	 * TO-DO desc
-	 */
-	protected abstract V convertFromCacheFormatToReturnValue(K key, S cachedData);
-	
-	/**
-	 * Applies given update to the cached state and returns updated cached state
-	 * (can be the same updated instance or a new one)
+	 * Flag indicates whether subsystem should collect the following updates or
+	 * not (e.g. if we expect valid resync, we should collect updates). 
 	 * <p>
-	 * This is done under write lock, so should complete ASAP. 
-	 */
-	protected abstract S applyUpdate(S cacheData, UInt update);
-	
-	/**
-	 * @param previousFailedWriteData can be non-empty ONLY if {@link WBRBConfig#isCanMergeWrites()}
-	 * 		is true; if it is true and previous write has failed with final status,
-	 * 		then it is passed to the method here -- and it should be used to
-	 * 		produce combined write data (combining previous failed write with
-	 * 		further in-memory updates (if any)); NOTE: if this is non-empty,
-	 * 		then it is possible that there were no further updates to cacheData
-	 * 		(i.e. it may be unmodified since previous split)
+	 * Default implementation simply nulls collected updates list & sets 
+	 * {@link WBRBCachePayload#setCollectUpdates(boolean)} with the given flag.
+	 * 
+	 * @param reason the reason the reset method was called; this lets custom
+	 * 		implementations to make their own decisions as to whether to 
+	 * 		continue collecting updates
+	 * @param collectUpdatesAfter 'opinion' of the calling code as to whether 
+	 * 		to collect updates after the reset; custom implementations may
+	 * 		disregard this value if desired
 	 */
-	// CCC comment
-	protected abstract WriteSplit splitForWrite(K key, S cacheData, NullableOptional<W> previousFailedWriteData);
-	
-	// CCC
-	// NOTE: is NOT called if there are no pending writes UNLESS 'can merge failed writes' and previous write failed
 	@SuppressWarnings("unused")
-	protected WriteSplit spiWriteLockSplitForWrite(
-		K key, S cacheData, NullableOptional<W> previousFailedWriteData, 
-		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
-			throws InterruptedException
-	{
-		return splitForWrite(key, cacheData, previousFailedWriteData);
-	}
-	
-	// CCC comment
-	protected WBRBWriteSplitWithFlags spiWriteLockProcessSplitForWrite(
-		K key, S cacheData, WBRBCacheEntry cacheEntry, 
+	protected void spiWriteLockUpdates_reset(
+		WBRBUpdatesResetReason reason, boolean collectUpdatesAfter,
+		@Nonnull K key,
+		WBRBCacheEntry cacheEntry,
 		WBRBCachePayload payload)
 			throws InterruptedException
 	{
-		NullableOptional<W> previousFailedWriteData = null;
-		switch (payload.getWriteStatus())
-		{
-			case NO_WRITE_REQUESTED_YET:
-			case REMOVED_FROM_CACHE:
-			case WRITE_PENDING:
-			case WRITE_SUCCESS:
-				break;
-			case WRITE_FAILED_FINAL:
-				previousFailedWriteData = payload.getPreviousFailedWriteData();
-				if (!previousFailedWriteData.isPresent())
-				{
-					CacheInternalException exception = new CacheInternalException("When write status is WRITE_FAILED_FINAL, previous failed write data should be present (got empty) in: " + cacheEntry);
-					logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
-					throw exception;
-				}
-				break;
-		}
-		
-		payload.setPreviousFailedWriteData(NullableOptional.empty()); // reset previous failure if any
-		
-		if (previousFailedWriteData != null)
-		{
-			if (spiWriteLockIsCanMergeWrites(key, cacheData, previousFailedWriteData, cacheEntry, payload))
-			{
-				// Write merges are supported, so create a merged write
-				return new WBRBWriteSplitWithFlags(spiWriteLockSplitForWrite(key, cacheData, previousFailedWriteData, cacheEntry, payload), true/*contains all updates*/);
-			}
-			else
-			{
-				// Write merges are not supported, so have to re-issue previous failed write
-				boolean haveAllUpdates = payload.getLastWriteTimestamp() <= 0;
-				return new WBRBWriteSplitWithFlags(new WriteSplit(payload.getValue(), previousFailedWriteData), haveAllUpdates/*flag: whether contains all updates*/);
-			}
-		}
-		else
-		{
-			// No previous write failure, so normal operation
-			if (payload.getLastWriteTimestamp() > 0)
-				return new WBRBWriteSplitWithFlags(spiWriteLockSplitForWrite(key, cacheData, NullableOptional.empty(), cacheEntry, payload), true/*contains all updates*/);
-			else
-				return new WBRBWriteSplitWithFlags(new WriteSplit(payload.getValue()), true/*contains all updates*/);
-		}
+		payload.setCollectedUpdates(null);
+		payload.setCollectUpdates(collectUpdatesAfter);
 	}
-	
+
 	/**
-	 * Determines whether writes can be merged for the given item.
-	 * <p>
-	 * Default implementation simply returns {@link WBRBConfig#isCanMergeWrites()} 
+	 * {@link #spiWriteLockUpdates_reset(Object, WBRBCacheEntry, WBRBCachePayload)}
+	 * wrapped in error handler.
 	 */
-	@SuppressWarnings("unused")
-	protected boolean spiWriteLockIsCanMergeWrites(K key, S cacheData, NullableOptional<W> previousFailedWriteData, 
+	protected void wrappedSpiWriteLockUpdates_reset( 
+		WBRBUpdatesResetReason reason, boolean collectUpdatesAfter,
+		@Nonnull K key,
 		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
 			throws InterruptedException
 	{
-		return config.isCanMergeWrites(); 
+		guardedInvocation(() -> spiWriteLockUpdates_reset(reason, collectUpdatesAfter, key, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_Updates_reset, key);		
 	}
-	
+
 	/**
-	 * Reads data from the underlying storage; does not need to be synchronous,
-	 * completion is indicated at some point by invoking either of {@link #apiStorageReadSuccess(Object, WBRBCacheEntry)}
-	 * or {@link #apiStorageReadFail(WBRBCacheEntry)} methods.
+	 * Invokes given code that produces result and returns {@link NullableOptional}
+	 * with the result.
 	 * <p>
-	 * Default implementation is synchronous -- it invokes {@link #spiNoLockReadFromStorage(Object, boolean, WBRBCacheEntry)}
-	 * and records the success result or failure (exception in {@link #spiNoLockReadFromStorage(Object, boolean, WBRBCacheEntry)} 
-	 * indicates failed read).
+	 * In case of an exception (except note below), returned {@link NullableOptional} has no value,
+	 * but has an exception; also exceptionMessage plus actual exception plus 
+	 * exceptionArgs are passed to {@link #logMessage(WBRBCacheMessage, Throwable, Object...)}
+	 * <p>
+	 * NOTE: {@link InterruptedException} and {@link ThreadDeath} subclasses
+	 * are not logged and are re-thrown as those can be used to stop thread
 	 */
-	protected void spiNoLockProcessReadFromStorage(K key, boolean isRefreshRead, WBRBCacheEntry cacheEntry) 
+	protected <RV> NullableOptional<RV> guardedInvocation(InterruptableSupplier<RV> callable, 
+		WBRBCacheMessage exceptionMessage, Object... exceptionArgs) 
 			throws InterruptedException
 	{
-		guardedInvocation(() -> spiNoLockReadFromStorage(key, isRefreshRead, cacheEntry) , WBRBCacheMessage.STORAGE_READ_FAIL, key)
-			.ifPresentInterruptibly(data -> apiStorageReadSuccess(data, cacheEntry))
-			.ifExceptionInterruptibly(e -> apiStorageReadFail(e, cacheEntry));
+		NullableOptional<RV> result = unloggedGuardedInvocation(callable);
+		if (result.hasException())
+			logMessage(exceptionMessage, result.getException(), exceptionArgs);
+		
+		return result;
 	}
 	
 	/**
-	 * Merges data between currently cached data and just-read storage data.
+	 * Same as {@link #guardedInvocation(InterruptableSupplier, WBRBCacheMessage, Object...)}
+	 * except exceptions are not logged -- this is for the cases where the caller
+	 * needs to log them itself (e.g. once per key for batch operations).
 	 * <p>
-	 * Default implementation converts data read from storage to cache format and
-	 * then applies collected updates (if any) one by one.
+	 * NOTE: {@link InterruptedException} and {@link ThreadDeath} subclasses
+	 * are re-thrown as those can be used to stop thread
 	 */
-	protected S spiWriteLockMergeCacheAndStorageData(K key, R storageData, 
-		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+	protected <RV> NullableOptional<RV> unloggedGuardedInvocation(InterruptableSupplier<RV> callable) 
 			throws InterruptedException
 	{
-		S newCacheData = convertToCacheFormatFromStorageData(key, storageData);
-		
-		List<UInt> collectedUpdates = spiWriteLockUpdates_getCollectedUpdates(key, cacheEntry, payload);
-		if (collectedUpdates != null)
+		try
 		{
-			for (UInt update : collectedUpdates)
-			{
-				newCacheData = applyUpdate(newCacheData, update);
-			}
+			return NullableOptional.of(callable.get());
+		} catch (Throwable e)
+		{
+			if (e instanceof ThreadDeath)
+				throw e;
+			if (e instanceof InterruptedException) // this may be used to indicate that thread should exit 
+				throw e;
+			
+			return NullableOptional.emptyWithException(e);
 		}
-		
-		return newCacheData;
 	}
 	
+	
 	/**
-	 * For an incoming successful storage read must make a decision whether to
-	 * set or merge incoming data into the cache entry.
+	 * Invokes given code that produces result and returns {@link NullableOptional}
+	 * with the result.
 	 * <p>
-	 * Default implementation sets/merges depending on cache payload status &
-	 * also potentially logs message {@link WBRBCacheMessage#UNEXPECTED_CACHE_STATE_FOR_READ_MERGE}
-	 * if read was unexpected.
+	 * If code being invoked returns NULL, then it is treated as NullPointerException
+	 * within the code (and is therefore logged and the resulting {@link NullableOptional}
+	 * is empty).
 	 * <p>
-	 * Executed under write lock, so must finish ASAP.
+	 * In case of an exception (except note below), returned {@link NullableOptional} has no value,
+	 * but has an exception; also exceptionMessage plus actual exception plus 
+	 * exceptionArgs are passed to {@link #logMessage(WBRBCacheMessage, Throwable, Object...)}
 	 * <p>
-	 * NOTE: DO_NOTHING result will NOT release access latch (if it not released
-	 * already), so be careful with that.
+	 * NOTE: {@link InterruptedException} and {@link ThreadDeath} subclasses
+	 * are not logged and are re-thrown as those can be used to stop thread
 	 */
-	protected WBRBMergeDecision spiWriteLockMakeMergeDecision(
-		K key, R storageData, 
-		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+	protected <@Nonnull RV> NullableOptional<RV> guardedInvocationNonNull(InterruptableSupplier<RV> callable, 
+		WBRBCacheMessage exceptionMessage, Object... exceptionArgs) 
 			throws InterruptedException
 	{
-		switch (payload.getReadStatus())
-		{
-			case NOT_READ_YET:
-				return WBRBMergeDecision.SET_DIRECTLY;
-			case DATA_READY:
-			case DATA_READY_RESYNC_FAILED_FINAL:
-				if (!spiWriteLockIsAcceptOutOfOrderRead(key, storageData, cacheEntry, payload))
-				{
-					logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_STATE_FOR_READ_MERGE, null, key, payload.getReadStatus());
-					return WBRBMergeDecision.DO_NOTHING;
-				}
-				//$FALL-THROUGH$
-			case DATA_READY_RESYNC_PENDING:
-				if (wrappedSpiWriteLockUpdates_isMergePossible(key, cacheEntry, payload, NullableOptional.of(storageData)))
-					return WBRBMergeDecision.MERGE_DATA;
-				else
-				{
-					getStats().storageReadRefreshTooLateCount.incrementAndGet(); // FUTURE: this is not a great place to do monitoring because it can be overridden 'relatively easily'
-					return spiWriteLockMakeMergeDecision_ResyncTooLate(key, storageData, cacheEntry, payload);
-				}
-			case READ_FAILED_FINAL:
-			case REMOVED_FROM_CACHE: // TO-DO not sure this status should produce message
-				logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_STATE_FOR_READ_MERGE, null, key, payload.getReadStatus());
-				return WBRBMergeDecision.DO_NOTHING;
-		}
-		
-		logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
-		return WBRBMergeDecision.DO_NOTHING;
+		return TypeUtil.coerce(guardedInvocation(() -> nnChecked(callable.get()), exceptionMessage, exceptionArgs));
 	}
+	
 
+	/** Used in {@link #guardedInvocation(InterruptableRunnable, WBRBCacheMessage, Object...)} */
+	private static final Object someObject = new Object();
+	
 	/**
-	 * When out-of-order (unexpected) read arrives (e.g. via {@link #apiStorageReadSuccess(Object, WBRBCacheEntry)})
-	 * decides whether to accept this read or reject it.
+	 * Invokes given code that produces no result and returns {@link NullableOptional} --
+	 * if there's no exception, this optional contains meaningless value.
 	 * <p>
-	 * Default implementation returns {@link WBRBConfig#isAcceptOutOfOrderReads()}
+	 * In case of an exception (except note below), returned {@link NullableOptional} has no value,
+	 * but has an exception; also exceptionMessage plus actual exception plus 
+	 * exceptionArgs are passed to {@link #logMessage(WBRBCacheMessage, Throwable, Object...)}
+	 * <p>
+	 * NOTE: {@link InterruptedException} and {@link ThreadDeath} subclasses
+	 * are not logged and are re-thrown as those can be used to stop thread
 	 */
-	@SuppressWarnings("unused")
-	protected boolean spiWriteLockIsAcceptOutOfOrderRead(K key, R storageData, 
-		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+	protected NullableOptional<@Nullable Object> guardedInvocation(InterruptableRunnable runnable,
+		WBRBCacheMessage exceptionMessage, Object... exceptionArgs)
 			throws InterruptedException
 	{
-		return config.isAcceptOutOfOrderReads();
+		return guardedInvocation(() -> {runnable.run(); return someObject;}, exceptionMessage, exceptionArgs);
 	}
 	
-	// CCC
-	@SuppressWarnings("unused")
-	protected WBRBMergeDecision spiWriteLockMakeMergeDecision_ResyncTooLate(
-		K key, R storageData, 
-		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
-			throws InterruptedException
+	/**
+	 * Invokes given (storage-accessing) code and records its duration into
+	 * the given histogram if {@link WBRBConfig#isLatencyHistograms()} is enabled.
+	 */
+	protected <RV> RV timedStorageInvocation(WBRBLatencyHistogram histogram, InterruptableSupplier<RV> callable)
+		throws InterruptedException
 	{
-		WBRBMergeDecision decision = config.getResyncTooLateAction();
-		logMessage(WBRBCacheMessage.RESYNC_IS_TOO_LATE, null, key, decision);
-		return decision;
+		if (!config.isLatencyHistograms())
+			return callable.get();
+		
+		final long start = System.nanoTime();
+		try
+		{
+			return callable.get();
+		} finally
+		{
+			histogram.recordNanos(System.nanoTime() - start);
+		}
+	}
+	
+	// CCC comment
+	protected <RV> RV withWriteLock(WBRBCacheEntry cacheEntry, InterruptableSupplier<RV> callable)
+		throws InterruptedException
+	{
+		return withLock(cacheEntry.getLock().writeLock(), cacheEntry, callable);
 	}
 
-	/**
-	 * SPI: default implementation simply invokes {@link #convertToCacheFormatFromStorageData(Object, Object)}
-	 * <p>
-	 * WARNING: this is executed while holding write lock on the cache entry,
-	 * therefore it should be VERY FAST.
-	 * @param payload 
-	 */
-	@SuppressWarnings("unused")
-	protected S spiWriteLockConvertToCacheFormat(K key, R storageData, 
-		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
-			throws InterruptedException
+	// CCC comment
+	protected void withWriteLock(WBRBCacheEntry cacheEntry, InterruptableRunnable runnable)
+		throws InterruptedException
 	{
-		return convertToCacheFormatFromStorageData(key, storageData);
+		withLock(cacheEntry.getLock().writeLock(), cacheEntry, runnable);
+	}
+	
+	// CCC comment
+	protected <RV> RV withReadLock(WBRBCacheEntry cacheEntry, InterruptableSupplier<RV> callable)
+		throws InterruptedException
+	{
+		return withLock(cacheEntry.getLock().readLock(), cacheEntry, callable);
 	}
 
+	// CCC comment
+	protected void withReadLock(WBRBCacheEntry cacheEntry, InterruptableRunnable runnable)
+		throws InterruptedException
+	{
+		withLock(cacheEntry.getLock().readLock(), cacheEntry, runnable);
+	}
+	
+	// CCC comment or remove
 	/**
-	 * SPI: default implementation simply invokes {@link #convertFromCacheFormatToReturnValue(Object, Object)}
-	 * <p>
-	 * This is executed while holding read OR write lock (depending on usage,
-	 * this can be called e.g. from the write operation to obtain updated
-	 * value) on the cache entry.
-	 * 
-	 * @param payload 
+	 * @deprecated use {@link #withLock(Lock, WBRBCacheEntry, InterruptableSupplier)}
 	 */
-	@SuppressWarnings("unused")
-	protected V spiSomeLockConvertFromCacheFormat(K key, S cachedData, 
-		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
-			throws InterruptedException
+	@Deprecated
+	protected <RV> RV withLock(final Lock lock, InterruptableSupplier<RV> callable)
+		throws InterruptedException
 	{
-		return convertFromCacheFormatToReturnValue(key, cachedData);
+		lock.lockInterruptibly(); // need read lock before doing any changes
+		try
+		{
+			return callable.get();
+		} finally
+		{
+			lock.unlock();
+		}
 	}
 	
+	// CCC comment or remove
 	/**
-	 * For an incoming FAILED storage read must make a decision whether to
-	 * go for a read retry ot not.
-	 * <p>
-	 * Default implementation first check that payload status is 'as expected'
-	 * (if state is not expected, message is logged and {@link WBRBRetryDecision#DO_NOTHING}
-	 * is returned);
-	 * <p>
-	 * If state is expeted, then decision depends on the already-failed read
-	 * count and {@link WBRBConfig#getReadFailureMaxRetryCount()}
-	 * <p>
-	 * Executed under write lock, so must finish ASAP.
+	 * @deprecated use {@link #withLock(Lock, WBRBCacheEntry, InterruptableRunnable)}
+	 */
+	@Deprecated
+	protected void withLock(final Lock lock, InterruptableRunnable runnable)
+		throws InterruptedException
+	{
+		withLock(lock, () -> {runnable.run(); return someObject;});
+	}
+	
+	
+	// CCC comment
+	protected void withLock(final Lock lock, WBRBCacheEntry cacheEntry, InterruptableRunnable runnable)
+		throws InterruptedException
+	{
+		withLock(lock, cacheEntry, () -> {runnable.run(); return someObject;});
+	}
+	
+	
+	// CCC comment
+	// CCC note that these throw exceptions that happen inside
+	protected <RV> RV withLock(final Lock lock, WBRBCacheEntry cacheEntry, InterruptableSupplier<RV> callable)
+		throws InterruptedException
+	{
+		final boolean trackLockWait = config.isLatencyHistograms() && (lock instanceof WriteLock);
+		final long lockWaitStart = trackLockWait ? System.nanoTime() : 0;
+		
+		lock.lockInterruptibly(); // need read lock before doing any changes
+		
+		if (trackLockWait && (((WriteLock)lock).getHoldCount() == 1)) // re-entrant acquisitions never wait
+			getStats().writeLockWaitLatency.recordNanos(System.nanoTime() - lockWaitStart);
+		
+		// Optimistic readers must be able to detect modifications; only the
+		// outermost write lock is tracked since stamped lock is not reentrant
+		final StampedLock optimisticReadLock = cacheEntry.getOptimisticReadLock();
+		final long optimisticReadStamp;
+		if ((optimisticReadLock != null) && (lock instanceof WriteLock) && (((WriteLock)lock).getHoldCount() == 1))
+			optimisticReadStamp = optimisticReadLock.writeLock(); // never contended as we already have exclusive lock
+		else
+			optimisticReadStamp = 0;
+		
+		try
+		{
+			return callable.get(); // unlocking provides memory barrier for the entry state
+		} finally
+		{
+			if (optimisticReadStamp != 0)
+				nn(optimisticReadLock).unlockWrite(optimisticReadStamp);
+			lock.unlock();
+		}
+	}
+	
+	
+	/**
+	 * Creates write queue processor thread.
 	 */
-	@SuppressWarnings("unused")
-	protected WBRBRetryDecision spiWriteLockMakeReadRetryDecision(
-		@Nullable Throwable exception, K key, 
-		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
-			throws InterruptedException
+	protected ExitableThread createWriteQueueProcessor()
 	{
-		switch (payload.getReadStatus())
+		InterruptHandlingExitableThread thread = new InterruptHandlingExitableThread(threadGroup, commonNamingPrefix + " Write Queue Processor")
 		{
-			case NOT_READ_YET:
-			case DATA_READY_RESYNC_PENDING:
-				// standard processing
-				if (payload.getReadFailureCount().get() > config.getReadFailureMaxRetryCount())
-					return WBRBRetryDecision.NO_RETRY_SET_FINAL_FAILED_STATUS;
-				else
-					return WBRBRetryDecision.RETRY;
+			@Override
+			protected void run1(boolean reentry)
+				throws InterruptedException
+			{
+				runnableWriteQueueProcessor();
+			}
+
+			@Override
+			protected boolean handleUnexpectedInterruptedException(
+				InterruptedException e)
+			{
+				logMessage(WBRBCacheMessage.WRITE_QUEUE_PROCESSOR_UNEXPECTED_INTERRUPT, e);
 				
-			case DATA_READY:
-			case DATA_READY_RESYNC_FAILED_FINAL:
-			case READ_FAILED_FINAL:
-				logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_STATE_FOR_READ_FAIL, null, payload.getReadStatus());
-				return WBRBRetryDecision.DO_NOTHING;
-			case REMOVED_FROM_CACHE: // TO-DO not sure this status should produce message
-				return WBRBRetryDecision.DO_NOTHING;
-		}
+				return true; // don't exit, restart processing
+			}
+			
+		};
 		
-		logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
-		return WBRBRetryDecision.DO_NOTHING;
+		thread.setPriority(config.getWriteQueueProcessingThreadPriority());
+		
+		return thread;
 	}
 	
-	// TO-DO comment
-	protected void apiStorageReadSuccess(R readResult, WBRBCacheEntry cacheEntry)
-		throws InterruptedException
+	/**
+	 * Code executed by {@link #writeQueueProcessingThread}
+	 */
+	protected void runnableWriteQueueProcessor() throws InterruptedException
 	{
-		withWriteLock(cacheEntry, () -> {
-			WBRBCachePayload payload = cacheEntry.getPayload();
+		WAThreadPoolExecutor pool = writeThreadPool;
+		
+		// Writes collected for batched storage write (only used if writeBatchMaxSize > 0)
+		LinkedHashMap<K, WBRBWriteQueueEntry> pendingWriteBatch = new LinkedHashMap<>();
+		// When the first item joined pendingWriteBatch (real-world time)
+		SimpleLongCounter pendingBatchStartedAt = new SimpleLongCounter(0);
+		
+		SimpleLongCounter batchCount = new SimpleLongCounter(0);
+		while(true)
+		{
+			final WBRBWriteQueueEntry writeEntry;
 			
-			switch (payload.getReadStatus())
+			if ((batchCount.get() > 0) && (config.getWriteQueueBatchingDelay() > 0))
 			{
-				case DATA_READY:
-				case DATA_READY_RESYNC_FAILED_FINAL:
-				case DATA_READY_RESYNC_PENDING:
-				case REMOVED_FROM_CACHE: // this is a somewhat random choice
-					getStats().storageReadRefreshSuccesses.incrementAndGet();
-					break;
-				case NOT_READ_YET:
-				case READ_FAILED_FINAL:
-					getStats().storageReadInitialSuccesses.incrementAndGet();
-					break;
-			}
-			
-			K key = cacheEntry.getKey();
-			
-			BooleanObjectWrapper doStuff = BooleanObjectWrapper.of(true);
-			ObjectWrapper<@Nonnull NullableOptional<S>> result = ObjectWrapper.of(NullableOptional.empty());
-			guardedInvocationNonNull(() -> spiWriteLockMakeMergeDecision(key, readResult, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_MakeMergeDecision, key)
-				.ifPresentInterruptibly(decision -> {
-					boolean dataUsed = false;
-					switch(decision)
+				// Here we are during batch processing (i.e. some elements were already written)
+				long pollTime = config.getWriteQueueBatchingDelay();
+				final long lingerTime = config.getWriteBatchLingerTime();
+				if ((lingerTime > 0) && !pendingWriteBatch.isEmpty())
+				{
+					// collected writes must not wait longer than linger time even if new ones keep arriving
+					long lingerLeft = lingerTime - timeGapVirtual(pendingBatchStartedAt.get(), timeNow());
+					if (lingerLeft <= 0)
 					{
-						case CLEAR_READ_PENDING_STATUS:
-							doStuff.setFalse(); // no unlatching, etc.
-							switch (payload.getReadStatus())
-							{
-								case DATA_READY:
-								case DATA_READY_RESYNC_FAILED_FINAL:
-								case READ_FAILED_FINAL:
-								case REMOVED_FROM_CACHE:
-									break;
-								case DATA_READY_RESYNC_PENDING:
-									payload.setReadStatus(WBRBCacheEntryReadStatus.DATA_READY_RESYNC_FAILED_FINAL);
-									break;
-								case NOT_READ_YET:
-									payload.setReadStatus(WBRBCacheEntryReadStatus.READ_FAILED_FINAL);
-									break;
-							}
-							break;
-						case DO_NOTHING:
-							doStuff.setFalse(); // no unlatching, etc.
-							break;
-						case SET_DIRECTLY:
-							result.set( guardedInvocation(() -> spiWriteLockConvertToCacheFormat(key, readResult, cacheEntry, payload), 
-								WBRBCacheMessage.CONVERT_TO_CACHE_FORMAT_FROM_STORAGE_DATA_FAIL, key) );
-							dataUsed = true;
-							break;
-						case MERGE_DATA:
-							result.set( guardedInvocation(() -> spiWriteLockMergeCacheAndStorageData(key, readResult, cacheEntry, payload),
-								WBRBCacheMessage.MERGE_CACHE_AND_STORAGE_DATA_FAIL, key) );
-							dataUsed = true;
-							break;
-						case REMOVE_FROM_CACHE:
-							doStuff.setFalse(); // Nothing to do after cache removal
-							haveWriteLock_RemoveFromCache_NoMessageIfAlreadyRemoved(cacheEntry);
-							break;
+						haveNoLock_FlushWriteBatch(pendingWriteBatch, pool); // batch delay continues, only collected writes are sent
+						continue;
 					}
+					pollTime = Math.min(pollTime, lingerLeft);
+				}
+				
+				writeEntry = pollQueue(writeQueue, pollTime);
+				if (writeEntry == null)
+				{
+					if (pollTime < config.getWriteQueueBatchingDelay())
+						continue; // linger time is over (collected writes are sent on the next iteration), but batch delay is not
 					
-					if (!dataUsed)
-						getStats().storageReadRefreshDataNotUsedCount.incrementAndGet();
-					
-					// Event notification
-					wrappedSpiUnknownLock_Event(WBRBEvent.READ_SUCCESS_DECISION, key, cacheEntry, payload, null, decision, NullableOptional.of(readResult), result);								
-				})
-				.ifExceptionInterruptibly(e -> {
-					result.set( NullableOptional.emptyWithException(e) );
-				});
-			
-			if (doStuff.isTrue())
+					// batch is over.
+					haveNoLock_FlushWriteBatch(pendingWriteBatch, pool);
+					guardedInvocation(() -> spiNoLockWriteBatchDelayExpired(), WBRBCacheMessage.SPI_EXCEPTION_WriteBatchDelayExpired);
+					batchCount.reset();
+					continue;
+				}
+			}
+			else
 			{
-				result.get().ifPresentInterruptibly(data -> {
-					payload.setValue(data);
-					payload.getReadFailureCount().reset();
-					payload.setLastSyncedWithStorageTimestamp(timeNow());
-					payload.setReadStatus(WBRBCacheEntryReadStatus.DATA_READY); // should also open latch if needed
-					
-					wrappedSpiWriteLockUpdates_reset(WBRBUpdatesResetReason.STORAGE_DATA_MERGED, false, key, cacheEntry, payload);
-				})
-				.ifExceptionInterruptibly(e -> {
-					payload.getReadFailureCount().incrementAndGet();
-					payload.setReadStatus(WBRBCacheEntryReadStatus.READ_FAILED_FINAL); // should also open latch if needed
-				});
+				// no batching or zero elements in current batch
+				haveNoLock_FlushWriteBatch(pendingWriteBatch, pool); // in case batching delay was changed on the fly
+				batchCount.reset();
+				writeEntry = writeQueue.take(); // wait indefinitely for the next one
 			}
-		}); // end write lock
-	}
-	
-	// TO-DO comment
-	/**
-	 * WARNING: will NOT log error/exception information if going for retry
-	 * because normally it is already logged in {@link #spiNoLockProcessReadFromStorage(Object, boolean, WBRBCacheEntry)}
-	 * If you're doing your own implementation, make sure to log the problem as needed.
-	 * 
-	 */
-	protected void apiStorageReadFail(@Nullable Throwable exception, WBRBCacheEntry cacheEntry)
-		throws InterruptedException
-	{
-		withWriteLock(cacheEntry, () -> {
-			WBRBCachePayload payload = cacheEntry.getPayload();
 			
-			switch (payload.getReadStatus())
+			getStats().storageWriteQueueProcessedItems.increment();
+			
+			if (coalesceQueuedWrites)
 			{
-				case DATA_READY:
-				case DATA_READY_RESYNC_FAILED_FINAL:
-				case DATA_READY_RESYNC_PENDING:
-				case REMOVED_FROM_CACHE: // this is a somewhat random choice
-					getStats().storageReadRefreshFailures.incrementAndGet();
-					break;
-				case NOT_READ_YET:
-				case READ_FAILED_FINAL:
-					getStats().storageReadInitialFailures.incrementAndGet();
-					break;
+				// Write is no longer 'queued' -- its data must not be replaced after this point
+				WBRBCacheEntry cacheEntry = writeEntry.getCacheEntry();
+				withWriteLock(cacheEntry, () -> {
+					WBRBCachePayload payload = cacheEntry.getPayload();
+					if (payload.getQueuedWrite() == writeEntry)
+						payload.setQueuedWrite(null);
+				});
 			}
 			
-			K key = cacheEntry.getKey();
-
-			payload.getReadFailureCount().incrementAndGet(); // increment fail counter
+			K key = writeEntry.getKey();
 			
-			ObjectWrapper<@Nonnull WBRBRetryDecision> retryDecision = ObjectWrapper.of(fakeNonNull());
-			ObjectWrapper<Object> finalFailDecision = ObjectWrapper.of(null);
-			BooleanObjectWrapper setReadFailedStatus = BooleanObjectWrapper.of(false);
-			guardedInvocationNonNull(() -> spiWriteLockMakeReadRetryDecision(exception, key, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_MakeReadRetryDecision, key)
+			BooleanObjectWrapper setFailedStatus = BooleanObjectWrapper.of(false);
+			
+			guardedInvocationNonNull(() -> spiNoLockMakeWriteQueueProcessingDecision(key, writeEntry), WBRBCacheMessage.SPI_EXCEPTION_MakeWriteQueueProcessingDecision, key)
 				.ifPresentInterruptibly(decision -> {
-					switch(decision)
+					switch (decision)
 					{
 						case DO_NOTHING:
 							break;
-						case REMOVE_FROM_CACHE:
-							haveWriteLock_RemoveFromCache(cacheEntry);
-							break;
-						case NO_RETRY_SET_FINAL_FAILED_STATUS:
-							setReadFailedStatus.setTrue();
-							logMessage(WBRBCacheMessage.STORAGE_READ_FAIL_FINAL, exception, key);
+						case SET_FINAL_FAILED_WRITE_STATUS:
+							setFailedStatus.setTrue();
 							break;
-						case RETRY:
-							// Need to re-queue read.
-							readQueue.add(cacheEntry);
-							logMessage(WBRBCacheMessage.STORAGE_READ_RETRY_ISSUED, exception, key);
+						case WRITE:
+							// ok, execute write
+							getStats().storageWriteAttempts.increment();
+							if (config.getWriteBatchMaxSize() > 0)
+							{
+								// Batched write
+								if (pendingWriteBatch.containsKey(key))
+									haveNoLock_FlushWriteBatch(pendingWriteBatch, pool); // the same key cannot be written twice in one batch
+								
+								if (pendingWriteBatch.isEmpty())
+									pendingBatchStartedAt.set(timeNow());
+								pendingWriteBatch.put(key, writeEntry);
+								batchCount.incrementAndGet();
+								
+								if ((pendingWriteBatch.size() >= config.getWriteBatchMaxSize()) || (config.getWriteQueueBatchingDelay() <= 0))
+									haveNoLock_FlushWriteBatch(pendingWriteBatch, pool);
+							}
+							else if (pool == null)
+							{
+								// Execute in our own thread
+								guardedInvocation(() -> spiNoLockProcessWriteToStorage(key, writeEntry), WBRBCacheMessage.SPI_EXCEPTION_WriteToStorage, key)
+									.ifPresentInterruptibly(o -> {
+										batchCount.incrementAndGet();
+									})
+									.ifExceptionInterruptibly(e -> {
+										setFailedStatus.setTrue();
+									});
+							}
+							else
+							{
+								// Execute in the pool.
+								pool.waExecute(() -> {
+									// can't use guarded invocation as those throw InterruptedException
+									try
+									{
+										spiNoLockProcessWriteToStorage(key, writeEntry);
+									} catch (Exception e)
+									{
+										// This shouldn't happen unless spi method is broken or execution thread is interrupted for w/e reason
+										logMessage(WBRBCacheMessage.SPI_EXCEPTION_WriteToStorage, e, key);
+										try
+										{
+											WBRBCacheEntry cacheEntry = writeEntry.getCacheEntry();
+											withWriteLock(cacheEntry, () -> { // cache entry access needs lock
+												WBRBCachePayload payload = cacheEntry.getPayload();
+												payload.setWriteStatus(WBRBCacheEntryWriteStatus.WRITE_FAILED_FINAL);
+												payload.setPreviousFailedWriteData(NullableOptional.of(writeEntry.getDataToWrite()));
+											});
+										} catch (InterruptedException e2)
+										{
+											// nothing else to do here.
+										}
+									}
+								});
+								batchCount.incrementAndGet();
+							}
 							break;
 					}
 					
-					retryDecision.set(decision);
+					// Event notification
+					wrappedSpiUnknownLock_Event(WBRBEvent.WRITE_QUEUE_ITEM_PROCESSED, key, null, null, null, decision, writeEntry);								
 				})
+				// Exception in spiNoLockMakeWriteQueueProcessingDecision
 				.ifExceptionInterruptibly(e -> {
-					setReadFailedStatus.setTrue();
+					setFailedStatus.setTrue();
 				});
 			
-			if (setReadFailedStatus.isTrue())
+			if (setFailedStatus.isTrue())
 			{
-				WBRBCacheEntryReadStatus status = payload.getReadStatus();
-				BooleanObjectWrapper stopCollectUpdates = BooleanObjectWrapper.of(true);
-				switch(status)
-				{
-					case NOT_READ_YET:
-						payload.setReadStatus(WBRBCacheEntryReadStatus.READ_FAILED_FINAL);
-
-						// When initial read fails (final), need to make a decision on what to do now
-						guardedInvocationNonNull(() -> spiWriteLockMakeInitialReadFailedFinalDecision(key, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_MakeInitialReadFailedFinalDecision, key)
-							.ifPresentInterruptibly(decision -> {
-								switch (decision)
-								{
-									case REMOVE_FROM_CACHE:
-										haveWriteLock_RemoveFromCache_NoMessageIfAlreadyRemoved(cacheEntry);
-										break;
-									case KEEP_AND_THROW_CACHE_READ_EXCEPTIONS:
-										break; // Keep it, will throw access exceptions instead
-								}
-								
-								finalFailDecision.set(decision);
-							})
-							.ifExceptionInterruptibly(e -> {
-								haveWriteLock_RemoveFromCache(cacheEntry);
-							});
-						
-						break;
-					case DATA_READY_RESYNC_PENDING:
-						payload.setReadStatus(WBRBCacheEntryReadStatus.DATA_READY_RESYNC_FAILED_FINAL);
-						
-						// When resync fails (final), need to make a decision on what to do now
-						guardedInvocationNonNull(() -> spiWriteLockMakeResyncFailedFinalDecision(key, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_MakeResyncFailedFinalDecision, key)
-							.ifPresentInterruptibly(decision -> {
-								switch (decision)
-								{
-									case REMOVE_FROM_CACHE:
-										haveWriteLock_RemoveFromCache_NoMessageIfAlreadyRemoved(cacheEntry);
-										break;
-									case KEEP_COLLECTING_UPDATES:
-										stopCollectUpdates.setFalse();
-										break;
-									case STOP_COLLECTING_UPDATES:
-										break;
-								}
-								
-								finalFailDecision.set(decision);
-							})
-							.ifExceptionInterruptibly(e -> {
-								haveWriteLock_RemoveFromCache(cacheEntry);
-							});
-						
-						break;
-					case DATA_READY:
-					case DATA_READY_RESYNC_FAILED_FINAL:
-					case READ_FAILED_FINAL:
-					case REMOVED_FROM_CACHE:
-						logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
-						break;
-				}
-				
-				if (stopCollectUpdates.isTrue())
-				{
-					// Stop collecting updates if this is the decision
-					wrappedSpiWriteLockUpdates_reset(WBRBUpdatesResetReason.READ_FAILED_FINAL_DECISION, false, key, cacheEntry, payload);
-				}
+				// Need to get write lock on cache entry before can update that
+				WBRBCacheEntry cacheEntry = writeEntry.getCacheEntry();
+				withWriteLock(cacheEntry, () -> {
+					WBRBCachePayload payload = cacheEntry.getPayload();
+					payload.setWriteStatus(WBRBCacheEntryWriteStatus.WRITE_FAILED_FINAL);
+					payload.setPreviousFailedWriteData(NullableOptional.of(writeEntry.getDataToWrite()));
+				});
 			}
-			
-			// Event notification
-			wrappedSpiUnknownLock_Event(WBRBEvent.READ_FAIL_DECISION, key, cacheEntry, payload, null, 
-				retryDecision.get(), NullableOptional.of(finalFailDecision.get()));
-		});
+		}
 	}
 
 	
-	// CCC comment
+	/**
+	 * This is invoked to 'finish' a write batch when there were some writes and 
+	 * no additional writes queued for config.writeQueueBatchingDelay time.
+	 * <p>
+	 * Default implementation does nothing.
+	 * <p>
+	 * This is a useful method if you're implementing batched writes.
+	 * <p>
+	 * WARNING: this is ALWAYS executed in write queue processor thread, so it
+	 * must return VERY QUICKLY.
+	 */
 	@SuppressWarnings("unused")
-	protected WBRBInitialReadFailedFinalDecision spiWriteLockMakeInitialReadFailedFinalDecision(
-		@Nonnull K key,
-		WBRBCacheEntry cacheEntry,
-		WBRBCachePayload payload)
-			throws InterruptedException
+	protected void spiNoLockWriteBatchDelayExpired()
+		throws InterruptedException
 	{
-		return config.getInitialReadFailedFinalAction();
+		// nothing in default implementation
 	}
 	
-	// CCC comment
+	/**
+	 * Sends writes collected by write queue processor (when {@link WBRBConfig#getWriteBatchMaxSize()}
+	 * is positive) to {@link #spiNoLockProcessWriteToStorageBatch(List)} --
+	 * either in the write thread pool or in the current thread (if there's no pool).
+	 * <p>
+	 * Collected batch is cleared; does nothing if there's nothing collected.
+	 */
+	protected void haveNoLock_FlushWriteBatch(Map<K, WBRBWriteQueueEntry> pendingBatch, @Nullable WAThreadPoolExecutor pool)
+		throws InterruptedException
+	{
+		if (pendingBatch.isEmpty())
+			return;
+		
+		final List<WBRBWriteQueueEntry> batch = new ArrayList<>(pendingBatch.values());
+		pendingBatch.clear();
+		
+		if (pool == null)
+		{
+			// Execute in our own thread
+			unloggedGuardedInvocation(() -> {spiNoLockProcessWriteToStorageBatch(batch); return batch;})
+				.ifExceptionInterruptibly(e -> {
+					for (WBRBWriteQueueEntry writeEntry : batch)
+					{
+						logMessage(WBRBCacheMessage.SPI_EXCEPTION_WriteToStorage, e, writeEntry.getKey());
+						haveNoLock_SetFinalWriteFailedStatus(writeEntry);
+					}
+				});
+		}
+		else
+		{
+			// Execute in the pool.
+			pool.waExecute(() -> {
+				// can't use guarded invocation as those throw InterruptedException
+				try
+				{
+					spiNoLockProcessWriteToStorageBatch(batch);
+				} catch (Exception e)
+				{
+					// This shouldn't happen unless spi method is broken or execution thread is interrupted for w/e reason
+					try
+					{
+						for (WBRBWriteQueueEntry writeEntry : batch)
+						{
+							logMessage(WBRBCacheMessage.SPI_EXCEPTION_WriteToStorage, e, writeEntry.getKey());
+							haveNoLock_SetFinalWriteFailedStatus(writeEntry);
+						}
+					} catch (InterruptedException e2)
+					{
+						// nothing else to do here.
+					}
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Sets {@link WBRBCacheEntryWriteStatus#WRITE_FAILED_FINAL} for the cache
+	 * entry of the given write (and stores data that failed to be written).
+	 */
+	protected void haveNoLock_SetFinalWriteFailedStatus(WBRBWriteQueueEntry writeEntry)
+		throws InterruptedException
+	{
+		WBRBCacheEntry cacheEntry = writeEntry.getCacheEntry();
+		withWriteLock(cacheEntry, () -> { // cache entry access needs lock
+			WBRBCachePayload payload = cacheEntry.getPayload();
+			payload.setWriteStatus(WBRBCacheEntryWriteStatus.WRITE_FAILED_FINAL);
+			payload.setPreviousFailedWriteData(NullableOptional.of(writeEntry.getDataToWrite()));
+		});
+	}
+
+	
+	/**
+	 * Must make a decision as to what write queue processor should do with
+	 * the given item.
+	 * <p>
+	 * Default implementation always responds with {@link WBRBWriteQueueProcessingDecision#WRITE}
+	 */
 	@SuppressWarnings("unused")
-	protected WBRBResyncFailedFinalDecision spiWriteLockMakeResyncFailedFinalDecision(
-		@Nonnull K key,
-		WBRBCacheEntry cacheEntry,
-		WBRBCachePayload payload)
+	protected WBRBWriteQueueProcessingDecision spiNoLockMakeWriteQueueProcessingDecision(
+		K key, WBRBWriteQueueEntry writeEntry) 
 			throws InterruptedException
 	{
-		return config.getResyncFailedFinalAction();
+		return WBRBWriteQueueProcessingDecision.WRITE;
 	}
 	
+	
 	/**
-	 * Part of the 'collect updates' subsystem.
+	 * Should implement write to the storage based on the specified key & data.
 	 * <p>
-	 * 'Collects' an update -- if returned value is non-null, then it is reported
-	 * and {@link #spiWriteLockUpdates_reset(boolean, Object, WBRBCacheEntry, WBRBCachePayload)}
-	 * is invoked with 'false' (i.e. failure to collect an update leads to updates
-	 * reset and no plans to collect further updates).
+	 * These are typically called in the separate write threads, but it is still
+	 * very important to produce results very quickly as updates to cached objects
+	 * are collected while they wait for the background read & writes (and thus memory
+	 * can be consumed significantly).
 	 * <p>
-	 * Default implementation checks whether updates collection is enabled (for
-	 * disabled collection it does nothing, just returns null) and if enabled -- simply 
-	 * adds them to updates list unless capacity is exceeded (in which case an
-	 * exception is returned).
+	 * If your storage works better with batched writes, this can be implemented
+	 * by overriding {@link #spiNoLockProcessWriteToStorage(Object, WBRBWriteQueueEntry)}
+	 * method (which allows to produce result later instead of 'right now') and
+	 * {@link #spiNoLockWriteBatchDelayExpired()} to detect 'batch end' events.
+	 * <p>
+	 * For batched writes you also might want to disable writeThreadPool so that
+	 * these methods are not called in separate threads unnecessarily.
+	 * <p>
+	 * Alternatively set {@link WBRBConfig#getWriteBatchMaxSize()} to a positive
+	 * value and implement {@link #writeToStorageBatch(Map)} -- in this case
+	 * this method is not used by the default implementation (unless 
+	 * {@link #writeToStorageBatch(Map)} is not overridden).
 	 * 
-	 * @return null if update has been collected and we can continue collecting
-	 * 		updates; exception instance of update could not be collected for some
-	 * 		reason -- such as limit on number of updates (further updates will 
-	 * 		NOT be collected)
+	 * @param key key to write
+	 * @param dataToWrite data to be written
 	 */
-	@SuppressWarnings("unused")
-	@Nullable
-	protected CacheIllegalStateException spiWriteLockUpdates_collect(@Nonnull K key,
-		WBRBCacheEntry cacheEntry,
-		WBRBCachePayload payload, UInt update)
+	protected abstract void writeToStorage(K key, W dataToWrite)
+		throws InterruptedException;
+
+	
+	/**
+	 * Extension point for subclasses that need more access to the internals
+	 * than {@link #writeToStorage(Object, Object)} but at the same time do
+	 * not want to deal with re-doing logic in {@link #spiNoLockProcessWriteToStorage(Object, WBRBWriteQueueEntry)}
+	 */
+	protected void spiNoLockWriteToStorage(K key, WBRBWriteQueueEntry writeEntry) 
 			throws InterruptedException
 	{
-		if (!payload.isCollectUpdates())
-			return null;
-		
-		int limit = config.getMaxUpdatesToCollect();
-		if (limit < 1)
-			return new CacheElementHasTooManyUpdates(commonNamingPrefix, key, limit);
-		
-		List<UInt> collected = payload.getCollectedUpdates();
-		if (collected == null)
-		{
-			collected = new ArrayList<>();
-			payload.setCollectedUpdates(collected);
-		}
-		
-		if (collected.size() >= limit)
-			return new CacheElementHasTooManyUpdates(commonNamingPrefix, key, limit);
-		
-		collected.add(update);
-		
-		return null;
+		writeToStorage(key, writeEntry.getDataToWrite());
 	}
 	
 	/**
-	 * Returns list of collected updates so far (or null if none were collected).
+	 * Should implement writing of multiple keys to the storage in a single
+	 * operation (e.g. one multi-row SQL statement).
 	 * <p>
-	 * This is used in {@link #spiWriteLockMergeCacheAndStorageData(Object, Object, WBRBCacheEntry, WBRBCachePayload)};
-	 * if you need more customization on how updates are merged, override that method.
+	 * Only used if {@link WBRBConfig#getWriteBatchMaxSize()} is positive; in that
+	 * case write queue processor collects up to that many writes (or until no 
+	 * further writes arrive within {@link WBRBConfig#getWriteQueueBatchingDelay()}
+	 * or {@link WBRBConfig#getWriteBatchLingerTime()} passes since the first one
+	 * was collected) and then submits them all via this method. Map iteration
+	 * order is the order in which writes were queued.
 	 * <p>
-	 * Default implementation simply returns {@link WBRBCachePayload#getCollectedUpdates()}
+	 * Returned map should contain failures for the keys that were NOT written
+	 * successfully (key -> exception); keys not present in the returned map
+	 * (or all keys if null is returned) are treated as successful writes.
+	 * Exception thrown from this method fails the entire batch.
+	 * <p>
+	 * Default implementation writes keys one by one via {@link #writeToStorage(Object, Object)},
+	 * so that batching can be enabled (e.g. at runtime via {@link GeneratedVolatileWBRBConfig})
+	 * without implementing this method; override this to actually write the 
+	 * whole batch in a single operation.
 	 */
-	@SuppressWarnings("unused")
-	protected @Nullable List<UInt> spiWriteLockUpdates_getCollectedUpdates(@Nonnull K key,
-		WBRBCacheEntry cacheEntry,
-		WBRBCachePayload payload)
-			throws InterruptedException
+	protected @Nullable Map<K, Throwable> writeToStorageBatch(Map<K, W> dataToWrite)
+		throws InterruptedException
 	{
-		return payload.getCollectedUpdates();
+		Map<K, Throwable> failures = null;
+		for (Map.Entry<K, W> entry : dataToWrite.entrySet())
+		{
+			try
+			{
+				writeToStorage(entry.getKey(), entry.getValue());
+			} catch (InterruptedException e)
+			{
+				throw e;
+			} catch (Exception e)
+			{
+				if (failures == null)
+					failures = new HashMap<>();
+				failures.put(entry.getKey(), e);
+			}
+		}
+		
+		return failures;
 	}
 	
 	/**
-	 * Part of the 'collect updates' subsystem.
+	 * A version of {@link #writeToStorageBatch(Map)} that provides more
+	 * access to the internal data (so the implementations may override this
+	 * to get more access). 
 	 * <p>
-	 * Determines whether a merge is possible for the given data.
-	 * <p> 
-	 * Default implementation simply returns {@link WBRBCachePayload#isCollectUpdates()}
-	 * which is set according to the {@link #spiWriteLockUpdates_reset(boolean, Object, WBRBCacheEntry, WBRBCachePayload)}
-	 * flag.
-	 * 
-	 * @param incomingStorageData non-empty if this is a decision for actual
-	 * 		incoming data; empty if it is a decision for a future incoming data
-	 * 		(such as when deciding whether it's reasonable to keep collecting
-	 * 		updates)
+	 * Default implementation simply calls {@link #writeToStorageBatch(Map)}
+	 * and returns the result.
+	 */
+	protected @Nullable Map<K, Throwable> spiNoLockWriteToStorageBatch(List<WBRBWriteQueueEntry> batch) 
+			throws InterruptedException
+	{
+		LinkedHashMap<K, W> dataToWrite = new LinkedHashMap<>(batch.size() * 2);
+		for (WBRBWriteQueueEntry writeEntry : batch)
+			dataToWrite.put(writeEntry.getKey(), writeEntry.getDataToWrite());
+		
+		return writeToStorageBatch(dataToWrite);
+	}
+	
+	/**
+	 * Writes data to the underlying storage; does not need to be synchronous,
+	 * completion is indicated at some point by invoking either of {@link #apiStorageWriteSuccess(WBRBWriteQueueEntry)}
+	 * or {@link #apiStorageWriteFail(Throwable, WBRBWriteQueueEntry)}
+	 * <p>
+	 * Default implementation is synchronous -- it invokes {@link #writeToStorage(Object, Object)}
+	 * and records the success result or failure (exception in {@link #writeToStorage(Object, Object)} 
+	 * indicates failed write).
 	 */
-	@SuppressWarnings("unused")
-	protected boolean spiWriteLockUpdates_isMergePossible(@Nonnull K key,
-		WBRBCacheEntry cacheEntry, WBRBCachePayload payload,
-		NullableOptional<R> incomingStorageData)
+	protected void spiNoLockProcessWriteToStorage(K key, WBRBWriteQueueEntry writeEntry) 
 			throws InterruptedException
 	{
-		return payload.isCollectUpdates();
+		timedStorageInvocation(getStats().storageWriteLatency, 
+			() -> guardedInvocation(() -> spiNoLockWriteToStorage(key, writeEntry) , WBRBCacheMessage.STORAGE_WRITE_FAIL, key))
+			.ifPresentInterruptibly(o -> apiStorageWriteSuccess(writeEntry))
+			.ifExceptionInterruptibly(e -> apiStorageWriteFail(e, writeEntry));
 	}
 	
 	/**
-	 * Part of the 'collect updates' subsystem.
+	 * Batched version of {@link #spiNoLockProcessWriteToStorage(Object, WBRBWriteQueueEntry)},
+	 * used when {@link WBRBConfig#getWriteBatchMaxSize()} is positive; does not
+	 * need to be synchronous, completion for each entry is indicated at some
+	 * point by invoking either of {@link #apiStorageWriteSuccess(WBRBWriteQueueEntry)}
+	 * or {@link #apiStorageWriteFail(Throwable, WBRBWriteQueueEntry)} methods.
 	 * <p>
-	 * {@link #spiWriteLockUpdates_isMergePossible(Object, WBRBCacheEntry, WBRBCachePayload)}
-	 * wrapped into error handler; logs message, returns false and resets 
-	 * collected updates (with 'false' further collection flag) in case of an exception.
+	 * Default implementation is synchronous -- it invokes {@link #spiNoLockWriteToStorageBatch(List)}
+	 * once for the whole batch and then records per-key results (exception
+	 * in {@link #spiNoLockWriteToStorageBatch(List)} indicates failed 
+	 * write for every key in the batch).
 	 */
-	protected boolean wrappedSpiWriteLockUpdates_isMergePossible(@Nonnull K key,
-		WBRBCacheEntry cacheEntry, WBRBCachePayload payload,
-		NullableOptional<R> incomingStorageData)
+	protected void spiNoLockProcessWriteToStorageBatch(List<WBRBWriteQueueEntry> batch) 
 			throws InterruptedException
 	{
-		NullableOptional<@Nonnull Boolean> result = guardedInvocationNonNull(() -> spiWriteLockUpdates_isMergePossible(key, cacheEntry, payload, incomingStorageData), WBRBCacheMessage.SPI_EXCEPTION_Updates_isMergePossible, key);
+		List<K> keys = new ArrayList<>(batch.size());
+		for (WBRBWriteQueueEntry writeEntry : batch)
+			keys.add(writeEntry.getKey());
 		
-		if (result.hasException())
+		// Batch-wide failure is logged below separately for each key 
+		NullableOptional<@Nullable Map<K, Throwable>> batchResult = timedStorageInvocation(getStats().storageWriteLatency, 
+			() -> unloggedGuardedInvocation(() -> spiNoLockWriteToStorageBatch(batch)));
+		
+		for (WBRBWriteQueueEntry writeEntry : batch)
 		{
-			wrappedSpiWriteLockUpdates_reset(WBRBUpdatesResetReason.IS_MERGE_POSSIBLE_EXCEPTION, false, key, cacheEntry, payload);
-			return false;
+			K key = writeEntry.getKey();
+			
+			// Each key is processed separately so that a problem with one doesn't affect the others
+			guardedInvocation(() -> {
+				if (batchResult.hasException())
+				{
+					logMessage(WBRBCacheMessage.STORAGE_WRITE_FAIL, batchResult.getException(), key);
+					apiStorageWriteFail(batchResult.getException(), writeEntry);
+					return;
+				}
+				
+				Map<K, Throwable> failures = batchResult.get();
+				Throwable e = (failures == null) ? null : failures.get(key);
+				if (e == null)
+					apiStorageWriteSuccess(writeEntry);
+				else
+				{
+					logMessage(WBRBCacheMessage.STORAGE_WRITE_FAIL, e, key);
+					apiStorageWriteFail(e, writeEntry);
+				}
+			}, WBRBCacheMessage.SPI_EXCEPTION_WriteToStorage, key)
+				.ifExceptionInterruptibly(e -> {
+					haveNoLock_SetFinalWriteFailedStatus(writeEntry);
+				});
 		}
-		
-		return result.get();
 	}
 	
+	
 	/**
-	 * Part of the 'collect updates' subsystem.
-	 * <p>
-	 * NOTE: this method is called when either holding the write lock or when
-	 * it is otherwise thread-safe (such as when new cache entry instance is
-	 * created and is not yet shared among threads).
-	 * <p>
-	 * Resets collected updates because the processing code believes they will
-	 * no longer be needed (e.g. because they've been applied or there was some
-	 * error that prevents their usefulness in the future).
-	 * <p>
-	 * Flag indicates whether subsystem should collect the following updates or
-	 * not (e.g. if we expect valid resync, we should collect updates). 
+	 * Notifies system about successful write.
 	 * <p>
-	 * Default implementation simply nulls collected updates list & sets 
-	 * {@link WBRBCachePayload#setCollectUpdates(boolean)} with the given flag.
-	 * 
-	 * @param reason the reason the reset method was called; this lets custom
-	 * 		implementations to make their own decisions as to whether to 
-	 * 		continue collecting updates
-	 * @param collectUpdatesAfter 'opinion' of the calling code as to whether 
-	 * 		to collect updates after the reset; custom implementations may
-	 * 		disregard this value if desired
+	 * Default implementation basically just checks that the cache entry
+	 * status is as expected and sets write status to 'success'; if status isn't
+	 * as expected, error message is produced and status is not updated. 
 	 */
-	@SuppressWarnings("unused")
-	protected void spiWriteLockUpdates_reset(
-		WBRBUpdatesResetReason reason, boolean collectUpdatesAfter,
-		@Nonnull K key,
-		WBRBCacheEntry cacheEntry,
-		WBRBCachePayload payload)
-			throws InterruptedException
+	protected void apiStorageWriteSuccess(WBRBWriteQueueEntry writeEntry)
+		throws InterruptedException
 	{
-		payload.setCollectedUpdates(null);
-		payload.setCollectUpdates(collectUpdatesAfter);
+		getStats().storageWriteSuccesses.increment();
+		
+		K key = writeEntry.getKey();
+		WBRBCacheEntry cacheEntry = writeEntry.getCacheEntry();
+		
+		withWriteLock(cacheEntry, () -> {
+			WBRBCachePayload payload = cacheEntry.getPayload();
+			
+			switch (payload.getWriteStatus())
+			{
+				case NO_WRITE_REQUESTED_YET:
+				case WRITE_FAILED_FINAL:
+				case WRITE_SUCCESS:
+					logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_STATE_FOR_WRITE_SUCCESS, null, key, payload.getWriteStatus());
+					return; // Not sure what else to do in this case
+				case REMOVED_FROM_CACHE:
+					return; // too late now
+				case WRITE_PENDING:
+					break; // normal processing
+			}
+			
+			cacheEntry.getPayload().setWriteStatus(WBRBCacheEntryWriteStatus.WRITE_SUCCESS);
+			
+			// Event notification
+			wrappedSpiUnknownLock_Event(WBRBEvent.WRITE_SUCCESS, key, cacheEntry, payload, null, writeEntry);								
+		});
 	}
-
+	
+	// CCC comment
 	/**
-	 * {@link #spiWriteLockUpdates_reset(Object, WBRBCacheEntry, WBRBCachePayload)}
-	 * wrapped in error handler.
+	 * WARNING: will NOT log error/exception information if going for retry
+	 * because normally it is already logged in {@link #spiNoLockProcessWriteToStorage(Object, WBRBWriteQueueEntry)}
+	 * If you're doing your own implementation, make sure to log the problem as needed.
+	 * 
 	 */
-	protected void wrappedSpiWriteLockUpdates_reset( 
-		WBRBUpdatesResetReason reason, boolean collectUpdatesAfter,
-		@Nonnull K key,
-		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
-			throws InterruptedException
+	protected void apiStorageWriteFail(@Nullable Throwable exception, WBRBWriteQueueEntry writeEntry)
+		throws InterruptedException
 	{
-		guardedInvocation(() -> spiWriteLockUpdates_reset(reason, collectUpdatesAfter, key, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_Updates_reset, key);		
+		getStats().storageWriteFailures.increment();
+		
+		WBRBCacheEntry cacheEntry = writeEntry.getCacheEntry();
+		withWriteLock(cacheEntry, () -> {
+			WBRBCachePayload payload = cacheEntry.getPayload();
+			
+			K key = writeEntry.getKey();
+			
+			payload.incrementWriteFailureCount(); // increment fail counter
+			
+			BooleanObjectWrapper setFinalWriteFailedStatus = BooleanObjectWrapper.of(false);
+			guardedInvocationNonNull(() -> spiWriteLockMakeWriteRetryDecision(exception, key, writeEntry, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_MakeWriteRetryDecision, key)
+				.ifPresentInterruptibly(decision -> {
+					switch(decision)
+					{
+						case DO_NOTHING:
+							break;
+						case REMOVE_FROM_CACHE:
+							haveWriteLock_RemoveFromCache(cacheEntry);
+							break;
+						case NO_RETRY_SET_FINAL_FAILED_STATUS:
+							setFinalWriteFailedStatus.setTrue();
+							logMessage(WBRBCacheMessage.STORAGE_WRITE_FAIL_FINAL, exception, key);
+							break;
+						case RETRY:
+							// Need to re-queue write.
+							if (coalesceQueuedWrites)
+								payload.setQueuedWrite(writeEntry); // further writes may be merged into retried one
+							writeQueue.add(writeEntry);
+							logMessage(WBRBCacheMessage.STORAGE_WRITE_RETRY_ISSUED, exception, key);
+							break;
+					}
+					
+					// Event notification
+					wrappedSpiUnknownLock_Event(WBRBEvent.WRITE_FAIL_DECISION, key, cacheEntry, payload, null, decision, writeEntry);								
+				})
+				.ifExceptionInterruptibly(e -> {
+					setFinalWriteFailedStatus.setTrue();
+				});
+			
+			if (setFinalWriteFailedStatus.isTrue())
+			{
+				payload.setWriteStatus(WBRBCacheEntryWriteStatus.WRITE_FAILED_FINAL);
+				payload.setPreviousFailedWriteData(NullableOptional.of(writeEntry.getDataToWrite()));
+			}
+		});
 	}
-
+	
 	/**
-	 * Invokes given code that produces result and returns {@link NullableOptional}
-	 * with the result.
+	 * For an incoming FAILED storage write must make a decision whether to
+	 * go for a write retry ot not.
 	 * <p>
-	 * In case of an exception (except note below), returned {@link NullableOptional} has no value,
-	 * but has an exception; also exceptionMessage plus actual exception plus 
-	 * exceptionArgs are passed to {@link #logMessage(WBRBCacheMessage, Throwable, Object...)}
+	 * Default implementation first check that payload status is 'as expected'
+	 * (if state is not expected, message is logged and {@link WBRBRetryDecision#DO_NOTHING}
+	 * is returned);
 	 * <p>
-	 * NOTE: {@link InterruptedException} and {@link ThreadDeath} subclasses
-	 * are not logged and are re-thrown as those can be used to stop thread
+	 * If state is expeted, then decision depends on the already-failed write
+	 * count and {@link WBRBConfig#getWriteFailureMaxRetryCount()}
+	 * <p>
+	 * Executed under write lock, so must finish ASAP.
 	 */
-	protected <RV> NullableOptional<RV> guardedInvocation(InterruptableSupplier<RV> callable, 
-		WBRBCacheMessage exceptionMessage, Object... exceptionArgs) 
+	@SuppressWarnings("unused")
+	protected WBRBRetryDecision spiWriteLockMakeWriteRetryDecision(
+		@Nullable Throwable exception, K key,
+		WBRBWriteQueueEntry writeEntry,
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
 			throws InterruptedException
 	{
-		try
-		{
-			return NullableOptional.of(callable.get());
-		} catch (Throwable e)
+		switch (payload.getWriteStatus())
 		{
-			if (e instanceof ThreadDeath)
-				throw e;
-			if (e instanceof InterruptedException) // this may be used to indicate that thread should exit 
-				throw e;
-			
-			logMessage(exceptionMessage, e, exceptionArgs);
-			
-			return NullableOptional.emptyWithException(e);
+			case NO_WRITE_REQUESTED_YET:
+			case WRITE_FAILED_FINAL:
+			case WRITE_SUCCESS:
+				logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_STATE_FOR_WRITE_FAIL, null, key, payload.getWriteStatus());
+				return WBRBRetryDecision.DO_NOTHING; // Not sure what else to do in this case
+			case REMOVED_FROM_CACHE:
+				return WBRBRetryDecision.DO_NOTHING; // too late now
+			case WRITE_PENDING:
+				// normal processing
+				if (payload.getWriteFailureCount() > config.getWriteFailureMaxRetryCount())
+					return WBRBRetryDecision.NO_RETRY_SET_FINAL_FAILED_STATUS;
+				else
+					return WBRBRetryDecision.RETRY;
 		}
+		
+		logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
+		return WBRBRetryDecision.DO_NOTHING;
 	}
 	
 	
 	/**
-	 * Invokes given code that produces result and returns {@link NullableOptional}
-	 * with the result.
-	 * <p>
-	 * If code being invoked returns NULL, then it is treated as NullPointerException
-	 * within the code (and is therefore logged and the resulting {@link NullableOptional}
-	 * is empty).
+	 * Waits until the earliest entry in the first bucket of the given queue 
+	 * is due for processing and then moves all the entries that are due
+	 * into the given batch (including entries from any following buckets 
+	 * that are already due too -- so that entries re-queued at the head of
+	 * the queue cannot hold up the rest of the queue).
 	 * <p>
-	 * In case of an exception (except note below), returned {@link NullableOptional} has no value,
-	 * but has an exception; also exceptionMessage plus actual exception plus 
-	 * exceptionArgs are passed to {@link #logMessage(WBRBCacheMessage, Throwable, Object...)}
+	 * Processing thread must report each entry in the batch as handled via
+	 * {@link WBRBDeadlineBucketQueue#takenEntryHandled()} or return it via
+	 * {@link WBRBDeadlineBucketQueue#requeueTakenEntries(Collection)}
 	 * <p>
-	 * NOTE: {@link InterruptedException} and {@link ThreadDeath} subclasses
-	 * are not logged and are re-thrown as those can be used to stop thread
-	 */
-	protected <@Nonnull RV> NullableOptional<RV> guardedInvocationNonNull(InterruptableSupplier<RV> callable, 
-		WBRBCacheMessage exceptionMessage, Object... exceptionArgs) 
+	 * Never sleeps longer than {@link WBRBConfig#getMaxSleepTime()} at a time
+	 * so that changes in cache time are noticed; wakes up immediately when
+	 * flush or shutdown starts (see {@link WBRBDeadlineBucketQueue#wakeUp()}).
+	 * 
+	 * @param cacheTime provides (virtual) time that items must spend in the
+	 * 		queue; this is re-evaluated after every sleep as it may change 
+	 * 		(e.g. due to flush or queue size)
+	 * @param releaseStaleAbsentEntries if true (and {@link WBRBConfig#isNegativeCaching()}
+	 * 		is enabled), then negative cache entries (see {@link WBRBCachePayload#isStorageDataAbsent()})
+	 * 		are taken as soon as they are older than {@link WBRBConfig#getNegativeCacheTime()}
+	 * 		regardless of the cacheTime -- so that they do not take up space
+	 * 		in the queue for longer than necessary; queue is scanned for these
+	 * 		at most once per {@link WBRBConfig#getMaxSleepTime()}
+	 */
+	protected void haveNoLock_TakeDueBucket(WBRBDeadlineBucketQueue queue, 
+		Collection<WBRBCacheEntry> batch, InterruptableSupplier<Long> cacheTime,
+		boolean releaseStaleAbsentEntries)
 			throws InterruptedException
 	{
-		return TypeUtil.coerce(guardedInvocation(() -> nnChecked(callable.get()), exceptionMessage, exceptionArgs));
-	}
-	
-
-	/** Used in {@link #guardedInvocation(InterruptableRunnable, WBRBCacheMessage, Object...)} */
-	private static final Object someObject = new Object();
+		while (true)
+		{
+			final long earliestInQueueSince = queue.awaitFirstBucket();
+			
+			final long now = timeNow();
+			final long effectiveCacheTime = cacheTime.get();
+			final long cacheUntil = timeAddVirtualIntervalToRealWorldTime(
+				earliestInQueueSince, effectiveCacheTime);
+			
+			final boolean checkAbsentEntries = releaseStaleAbsentEntries && config.isNegativeCaching();
+			final long negativeCacheTime = config.getNegativeCacheTime();
+			final long absentScanAt = checkAbsentEntries ?
+				Math.max(queue.getNextEarlyDueScanAt(), 
+					timeAddVirtualIntervalToRealWorldTime(earliestInQueueSince, negativeCacheTime))
+				: Long.MAX_VALUE;
+			
+			if ((cacheUntil <= now) || (absentScanAt <= now))
+			{
+				final int taken;
+				if (absentScanAt <= now)
+				{
+					queue.setNextEarlyDueScanAt(timeAddVirtualIntervalToRealWorldTime(
+						now, config.getMaxSleepTime()));
+					
+					taken = queue.drainDueEntriesTo(batch, 
+						inQueueSince -> timeAddVirtualIntervalToRealWorldTime(inQueueSince, effectiveCacheTime) <= now,
+						// storage data is found to be absent only after entry was added to the queue 
+						inQueueSince -> timeAddVirtualIntervalToRealWorldTime(inQueueSince, negativeCacheTime) <= now,
+						entry -> {
+							final long absentSince = entry.getPayload().getStorageDataAbsentSince();
+							return (absentSince > 0) && (timeAddVirtualIntervalToRealWorldTime(absentSince, negativeCacheTime) <= now);
+						});
+				}
+				else
+				{
+					taken = queue.drainDueEntriesTo(batch, 
+						inQueueSince -> timeAddVirtualIntervalToRealWorldTime(inQueueSince, effectiveCacheTime) <= now);
+				}
+				
+				if (taken > 0)
+					return;
+				
+				if (cacheUntil <= now)
+					continue; // shouldn't really happen as there's only one processing thread per queue
+			}
+			
+			long maxWaitUntil = timeAddVirtualIntervalToRealWorldTime(
+				now, config.getMaxSleepTime()); // never wait more than max sleep time at a time to avoid issues due to shutdown or changing time factor
+			
+			long waitUntil = Math.min(maxWaitUntil, cacheUntil);
+			if (checkAbsentEntries)
+				waitUntil = Math.min(waitUntil, Math.max(absentScanAt, queue.getNextEarlyDueScanAt()));
+			
+			queue.awaitWakeUp(waitUntil - now);
+		}
+	}
 	
 	/**
-	 * Invokes given code that produces no result and returns {@link NullableOptional} --
-	 * if there's no exception, this optional contains meaningless value.
+	 * Determines which main/return queue shard the given key belongs to; the
+	 * result MUST be stable for any given key (all processing for the key
+	 * happens in one shard, this is how per-key ordering is maintained).
 	 * <p>
-	 * In case of an exception (except note below), returned {@link NullableOptional} has no value,
-	 * but has an exception; also exceptionMessage plus actual exception plus 
-	 * exceptionArgs are passed to {@link #logMessage(WBRBCacheMessage, Throwable, Object...)}
+	 * Default implementation spreads key's hash code over {@link #queueShardCount}
+	 * shards.
 	 * <p>
-	 * NOTE: {@link InterruptedException} and {@link ThreadDeath} subclasses
-	 * are not logged and are re-thrown as those can be used to stop thread
+	 * WARNING: this is invoked every time entry's shard is needed (shard
+	 * index is not stored in the entry to keep it small), so it must return
+	 * VERY QUICKLY; it must also not throw exceptions.
 	 */
-	protected NullableOptional<@Nullable Object> guardedInvocation(InterruptableRunnable runnable,
-		WBRBCacheMessage exceptionMessage, Object... exceptionArgs)
-			throws InterruptedException
+	protected int spiNoLockGetQueueShardIndex(K key)
 	{
-		return guardedInvocation(() -> {runnable.run(); return someObject;}, exceptionMessage, exceptionArgs);
+		if (queueShardCount == 1)
+			return 0;
+		
+		int h = key.hashCode();
+		h ^= (h >>> 16); // spread higher bits in case hash codes are poorly distributed
+		
+		return (h & 0x7fffffff) % queueShardCount;
 	}
 	
-	// CCC comment
-	protected <RV> RV withWriteLock(WBRBCacheEntry cacheEntry, InterruptableSupplier<RV> callable)
-		throws InterruptedException
-	{
-		return withLock(cacheEntry.getLock().writeLock(), cacheEntry, callable);
-	}
-
-	// CCC comment
-	protected void withWriteLock(WBRBCacheEntry cacheEntry, InterruptableRunnable runnable)
-		throws InterruptedException
+	/**
+	 * Maximum target size for a single main queue shard -- this is
+	 * {@link WBRBConfig#getMainQueueMaxTargetSize()} split evenly between
+	 * all shards (rounded up).
+	 */
+	protected long getMainQueueShardMaxTargetSize()
 	{
-		withLock(cacheEntry.getLock().writeLock(), cacheEntry, runnable);
+		long total = config.getMainQueueMaxTargetSize();
+		if (queueShardCount == 1)
+			return total;
+		
+		return (total + queueShardCount - 1) / queueShardCount;
 	}
 	
-	// CCC comment
-	protected <RV> RV withReadLock(WBRBCacheEntry cacheEntry, InterruptableSupplier<RV> callable)
-		throws InterruptedException
-	{
-		return withLock(cacheEntry.getLock().readLock(), cacheEntry, callable);
-	}
-
-	// CCC comment
-	protected void withReadLock(WBRBCacheEntry cacheEntry, InterruptableRunnable runnable)
-		throws InterruptedException
+	/**
+	 * Maximum target weight for a single queue shard -- this is
+	 * {@link WBRBConfig#getMainQueueMaxTargetWeight()} split evenly between
+	 * all shards (rounded up); non-positive value means there's no limit.
+	 */
+	protected long getQueueShardMaxTargetWeight()
 	{
-		withLock(cacheEntry.getLock().readLock(), cacheEntry, runnable);
+		long total = config.getMainQueueMaxTargetWeight();
+		if ((queueShardCount == 1) || (total <= 0))
+			return total;
+		
+		return (total + queueShardCount - 1) / queueShardCount;
 	}
 	
-	// CCC comment or remove
 	/**
-	 * @deprecated use {@link #withLock(Lock, WBRBCacheEntry, InterruptableSupplier)}
+	 * Whether the given queue shard exceeds its target capacity -- either
+	 * main queue size exceeds {@link #getMainQueueShardMaxTargetSize()} or
+	 * (if weighing is enabled) total weight of the shard's entries exceeds 
+	 * {@link #getQueueShardMaxTargetWeight()}
+	 * <p>
+	 * NOTE: shard weight includes entries in both main and return queues
+	 * (weight is tracked per cache entry, not per queue).
 	 */
-	@Deprecated
-	protected <RV> RV withLock(final Lock lock, InterruptableSupplier<RV> callable)
-		throws InterruptedException
+	protected boolean isQueueShardOverTarget(int shardIndex)
 	{
-		lock.lockInterruptibly(); // need read lock before doing any changes
-		try
-		{
-			return callable.get();
-		} finally
+		if (mainQueues[shardIndex].size() > getMainQueueShardMaxTargetSize())
+			return true;
+		
+		if (weighingEnabled)
 		{
-			lock.unlock();
+			long maxWeight = getQueueShardMaxTargetWeight();
+			if ((maxWeight > 0) && (queueShardWeights[shardIndex].get() > maxWeight))
+				return true;
 		}
+		
+		return false;
 	}
 	
-	// CCC comment or remove
 	/**
-	 * @deprecated use {@link #withLock(Lock, WBRBCacheEntry, InterruptableRunnable)}
+	 * Current total weight of all the cache entries (zero if weighing is not
+	 * enabled), see {@link WBRBConfig#getMaxCacheWeightHardLimit()}
 	 */
-	@Deprecated
-	protected void withLock(final Lock lock, InterruptableRunnable runnable)
-		throws InterruptedException
+	protected long getCacheWeight()
 	{
-		withLock(lock, () -> {runnable.run(); return someObject;});
+		long total = 0;
+		for (AtomicLong shardWeight : queueShardWeights)
+			total += shardWeight.get();
+		
+		return total;
 	}
 	
-	
-	// CCC comment
-	protected void withLock(final Lock lock, WBRBCacheEntry cacheEntry, InterruptableRunnable runnable)
-		throws InterruptedException
+	/**
+	 * Main queue cache time that is currently in effect -- this is
+	 * {@link WBRBConfig#getMainQueueCacheTime()} unless adaptive cache time
+	 * is enabled (see {@link WBRBConfig#isAdaptiveMainQueueCacheTime()}) in
+	 * which case it is the value calculated by the adaptive controller.
+	 */
+	protected long getEffectiveMainQueueCacheTime()
 	{
-		withLock(lock, cacheEntry, () -> {runnable.run(); return someObject;});
+		if (!config.isAdaptiveMainQueueCacheTime())
+			return config.getMainQueueCacheTime();
+		
+		return adaptiveMainQueueCacheTime;
 	}
 	
-	
-	// CCC comment
-	// CCC note that these throw exceptions that happen inside
-	protected <RV> RV withLock(final Lock lock, WBRBCacheEntry cacheEntry, InterruptableSupplier<RV> callable)
+	/**
+	 * Re-tunes adaptive main queue cache time (if it is enabled) when 
+	 * {@link WBRBConfig#getAdaptiveMainQueueCacheTimeAdjustInterval()} has
+	 * passed since the last adjustment.
+	 * <p>
+	 * This is invoked frequently by all main queue processing threads -- only
+	 * one of them actually performs the adjustment.
+	 * <p>
+	 * Controller inputs are: the fullest queue shard fill ratio (main queue size 
+	 * and -- if weighing is enabled -- shard weight relative to the targets), 
+	 * storage write rate (based on {@link WBRBStats#storageWriteAttempts}) and
+	 * the actual time the last item spent in the main queue ({@link WBRBStats#mainQueueLastItemInQueueDurationMs}).
+	 * New target value is calculated by {@link #spiNoLockCalculateAdaptiveMainQueueCacheTimeTarget(long, long, double, double)}
+	 * and then effective value moves towards it by {@link WBRBConfig#getAdaptiveMainQueueCacheTimeStepPercent()}
+	 * percent (per elapsed adjustment interval), so that effective value
+	 * changes smoothly rather than oscillates.
+	 * 
+	 * @throws InterruptedException if interrupted while invoking 
+	 * 		{@link #spiNoLockCalculateAdaptiveMainQueueCacheTimeTarget(long, long, double, double)}
+	 */
+	protected void haveNoLock_AdjustAdaptiveMainQueueCacheTimeIfNeeded()
 		throws InterruptedException
 	{
-		lock.lockInterruptibly(); // need read lock before doing any changes
-		try
+		if (!config.isAdaptiveMainQueueCacheTime())
+			return;
+		
+		final long now = timeNow();
+		final long lastAdjusted = adaptiveMainQueueCacheTimeLastAdjusted.get();
+		if (lastAdjusted == 0)
 		{
-			RV result = callable.get();
-			
-			if (lock instanceof WriteLock)
+			// First invocation -- just record starting point for write rate calculation.
+			if (adaptiveMainQueueCacheTimeLastAdjusted.compareAndSet(0, now))
+				adaptiveMainQueueCacheTimeLastWriteAttempts = getStats().storageWriteAttempts.get();
+			return;
+		}
+		
+		final long interval = config.getAdaptiveMainQueueCacheTimeAdjustInterval();
+		final long elapsed = timeGapVirtual(lastAdjusted, now);
+		if (elapsed < interval)
+			return;
+		
+		if (!adaptiveMainQueueCacheTimeLastAdjusted.compareAndSet(lastAdjusted, now))
+			return; // another thread is doing the adjustment
+		
+		final long writeAttempts = getStats().storageWriteAttempts.get();
+		final double writeRate = (writeAttempts - adaptiveMainQueueCacheTimeLastWriteAttempts) * 1000.0 / elapsed;
+		adaptiveMainQueueCacheTimeLastWriteAttempts = writeAttempts;
+		
+		double fillRatio = 0;
+		{
+			final long maxShardSize = getMainQueueShardMaxTargetSize();
+			final long maxShardWeight = weighingEnabled ? getQueueShardMaxTargetWeight() : 0;
+			for (int i = 0; i < queueShardCount; i++)
 			{
-				// TO-DO is this a proper way to do memory barrier?
-				WBRBCachePayload payload = cacheEntry.getPayload();
-				cacheEntry.setPayload(payload);
+				if (maxShardSize > 0)
+					fillRatio = Math.max(fillRatio, ((double)mainQueues[i].size()) / maxShardSize);
+				if (maxShardWeight > 0)
+					fillRatio = Math.max(fillRatio, ((double)queueShardWeights[i].get()) / maxShardWeight);
 			}
-			
-			return result;
-		} finally
-		{
-			lock.unlock();
 		}
+		
+		final long current = adaptiveMainQueueCacheTime;
+		final long lastInQueueDuration = getStats().mainQueueLastItemInQueueDurationMs.get();
+		final double writeRateFinal = writeRate;
+		final double fillRatioFinal = fillRatio;
+		NullableOptional<Long> targetOptional = guardedInvocation(() ->
+			spiNoLockCalculateAdaptiveMainQueueCacheTimeTarget(current, lastInQueueDuration, fillRatioFinal, writeRateFinal), 
+			WBRBCacheMessage.SPI_EXCEPTION_CalculateAdaptiveMainQueueCacheTime);
+		if (!targetOptional.isPresent())
+			return; // leave value unchanged, exception was already logged
+		
+		final long min = config.getMainQueueCacheTimeMin();
+		final long max = Math.max(min, config.getAdaptiveMainQueueCacheTimeMax());
+		final long target = Math.max(min, Math.min(max, targetOptional.get()));
+		
+		// Move towards target by step percent per each elapsed interval (capped
+		// in case there were no adjustments for a long time, e.g. empty queue).
+		final double step = Math.min(100, config.getAdaptiveMainQueueCacheTimeStepPercent()) / 100.0;
+		final double remaining = Math.pow(1 - step, Math.min(10, elapsed / interval));
+		long newValue = Math.round(target + (current - target) * remaining);
+		if (newValue == current)
+			newValue = target; // avoid getting stuck due to rounding
+		
+		adaptiveMainQueueCacheTime = Math.max(min, Math.min(max, newValue));
 	}
 	
-	
 	/**
-	 * Creates write queue processor thread.
-	 */
-	protected ExitableThread createWriteQueueProcessor()
-	{
-		InterruptHandlingExitableThread thread = new InterruptHandlingExitableThread(threadGroup, commonNamingPrefix + " Write Queue Processor")
+	 * Calculates target value for the adaptive main queue cache time (see
+	 * {@link WBRBConfig#isAdaptiveMainQueueCacheTime()}); returned value is
+	 * clamped to mainQueueCacheTimeMin..adaptiveMainQueueCacheTimeMax range
+	 * and effective value gradually moves towards it.
+	 * <p>
+	 * Default implementation assumes that main queue size is roughly 
+	 * proportional to cache time whereas storage write rate is roughly inversely
+	 * proportional to it; it then selects the largest cache time that keeps
+	 * queue(s) within targets and (if {@link WBRBConfig#getAdaptiveMainQueueCacheTimeTargetWriteRate()}
+	 * is set) does not exceed cache time needed to achieve target write rate.
+	 * 
+	 * @param currentCacheTime currently effective cache time
+	 * @param lastInQueueDuration how long the last processed main queue item
+	 * 		actually spent in the queue (may be less than current cache time
+	 * 		if queue is over the target, zero if nothing was processed yet)
+	 * @param fillRatio ratio of the fullest shard size/weight relative to
+	 * 		the target (1.0 means exactly at target)
+	 * @param writeRate storage write attempts per second since the last
+	 * 		adjustment
+	 */
+	protected long spiNoLockCalculateAdaptiveMainQueueCacheTimeTarget(long currentCacheTime,
+		long lastInQueueDuration, double fillRatio, double writeRate)
+	{
+		// Base on actual in-queue duration if items are currently processed early.
+		final long base = (lastInQueueDuration > 0) ? Math.min(currentCacheTime, lastInQueueDuration) : currentCacheTime;
+		
+		// Factor that would bring queue size to the target (at most double at a time).
+		double factor = (fillRatio > 0.5) ? 1.0 / fillRatio : 2.0;
+		
+		final long targetWriteRate = config.getAdaptiveMainQueueCacheTimeTargetWriteRate();
+		if ((targetWriteRate > 0) && (fillRatio <= 1.0))
 		{
-			@Override
-			protected void run1(boolean reentry)
-				throws InterruptedException
-			{
-				runnableWriteQueueProcessor();
-			}
-
-			@Override
-			protected boolean handleUnexpectedInterruptedException(
-				InterruptedException e)
-			{
-				logMessage(WBRBCacheMessage.WRITE_QUEUE_PROCESSOR_UNEXPECTED_INTERRUPT, e);
-				
-				return true; // don't exit, restart processing
-			}
-			
-		};
-		
-		thread.setPriority(config.getWriteQueueProcessingThreadPriority());
+			// Within the size target -- adjust so that write rate approaches the target.
+			factor = Math.min(factor, Math.max(0.5, writeRate / targetWriteRate));
+		}
 		
-		return thread;
+		return Math.round(((fillRatio > 1.0) ? base : currentCacheTime) * factor);
 	}
 	
 	/**
-	 * Code executed by {@link #writeQueueProcessingThread}
+	 * Sets new cached value for the entry and (if weighing is enabled) updates
+	 * entry weight and the total weight of the corresponding queue shard.
+	 * <p>
+	 * Entries that are already removed from cache do not contribute to weight.
 	 */
-	protected void runnableWriteQueueProcessor() throws InterruptedException
+	protected void haveWriteLock_SetCachedValue(K key, WBRBCacheEntry cacheEntry, WBRBCachePayload payload, S value)
+		throws InterruptedException
 	{
-		WAThreadPoolExecutor pool = writeThreadPool;
+		payload.setValue(value);
 		
-		SimpleLongCounter batchCount = new SimpleLongCounter(0);
-		while(true)
+		if (!weighingEnabled)
+			return;
+		if (payload.getReadStatus() == WBRBCacheEntryReadStatus.REMOVED_FROM_CACHE)
+			return;
+		
+		NullableOptional<Long> weightOptional = guardedInvocation(() -> 
+			spiWriteLockWeigh(key, value, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_Weigh, key);
+		if (!weightOptional.isPresent())
+			return; // leave weight unchanged, exception was already logged
+		
+		long newWeight = weightOptional.get();
+		long delta = newWeight - payload.getWeight();
+		if (delta != 0)
 		{
-			final WBRBWriteQueueEntry writeEntry;
-			
-			if ((batchCount.get() > 0) && (config.getWriteQueueBatchingDelay() > 0))
-			{
-				// Here we are during batch processing (i.e. some elements were already written)
-				writeEntry = pollQueue(writeQueue, config.getWriteQueueBatchingDelay());
-				if (writeEntry == null)
-				{
-					// batch is over.
-					guardedInvocation(() -> spiNoLockWriteBatchDelayExpired(), WBRBCacheMessage.SPI_EXCEPTION_WriteBatchDelayExpired);
-					batchCount.reset();
-					continue;
-				}
-			}
-			else
-			{
-				// no batching or zero elements in current batch
-				batchCount.reset();
-				writeEntry = writeQueue.take(); // wait indefinitely for the next one
-			}
-			
-			getStats().storageWriteQueueProcessedItems.incrementAndGet();
-			
-			K key = writeEntry.getKey();
-			
-			BooleanObjectWrapper setFailedStatus = BooleanObjectWrapper.of(false);
-			
-			guardedInvocationNonNull(() -> spiNoLockMakeWriteQueueProcessingDecision(key, writeEntry), WBRBCacheMessage.SPI_EXCEPTION_MakeWriteQueueProcessingDecision, key)
-				.ifPresentInterruptibly(decision -> {
-					switch (decision)
-					{
-						case DO_NOTHING:
-							break;
-						case SET_FINAL_FAILED_WRITE_STATUS:
-							setFailedStatus.setTrue();
-							break;
-						case WRITE:
-							// ok, execute write
-							getStats().storageWriteAttempts.incrementAndGet();
-							if (pool == null)
-							{
-								// Execute in our own thread
-								guardedInvocation(() -> spiNoLockProcessWriteToStorage(key, writeEntry), WBRBCacheMessage.SPI_EXCEPTION_WriteToStorage, key)
-									.ifPresentInterruptibly(o -> {
-										batchCount.incrementAndGet();
-									})
-									.ifExceptionInterruptibly(e -> {
-										setFailedStatus.setTrue();
-									});
-							}
-							else
-							{
-								// Execute in the pool.
-								pool.waExecute(() -> {
-									// can't use guarded invocation as those throw InterruptedException
-									try
-									{
-										spiNoLockProcessWriteToStorage(key, writeEntry);
-									} catch (Exception e)
-									{
-										// This shouldn't happen unless spi method is broken or execution thread is interrupted for w/e reason
-										logMessage(WBRBCacheMessage.SPI_EXCEPTION_WriteToStorage, e, key);
-										try
-										{
-											WBRBCacheEntry cacheEntry = writeEntry.getCacheEntry();
-											withWriteLock(cacheEntry, () -> { // cache entry access needs lock
-												WBRBCachePayload payload = cacheEntry.getPayload();
-												payload.setWriteStatus(WBRBCacheEntryWriteStatus.WRITE_FAILED_FINAL);
-												payload.setPreviousFailedWriteData(NullableOptional.of(writeEntry.getDataToWrite()));
-											});
-										} catch (InterruptedException e2)
-										{
-											// nothing else to do here.
-										}
-									}
-								});
-								batchCount.incrementAndGet();
-							}
-							break;
-					}
-					
-					// Event notification
-					wrappedSpiUnknownLock_Event(WBRBEvent.WRITE_QUEUE_ITEM_PROCESSED, key, null, null, null, decision, writeEntry);								
-				})
-				// Exception in spiNoLockMakeWriteQueueProcessingDecision
-				.ifExceptionInterruptibly(e -> {
-					setFailedStatus.setTrue();
-				});
-			
-			if (setFailedStatus.isTrue())
-			{
-				// Need to get write lock on cache entry before can update that
-				WBRBCacheEntry cacheEntry = writeEntry.getCacheEntry();
-				withWriteLock(cacheEntry, () -> {
-					WBRBCachePayload payload = cacheEntry.getPayload();
-					payload.setWriteStatus(WBRBCacheEntryWriteStatus.WRITE_FAILED_FINAL);
-					payload.setPreviousFailedWriteData(NullableOptional.of(writeEntry.getDataToWrite()));
-				});
-			}
+			queueShardWeights[cacheEntry.getQueueShardIndex()].addAndGet(delta);
+			payload.setWeight(newWeight);
 		}
 	}
-
 	
 	/**
-	 * This is invoked to 'finish' a write batch when there were some writes and 
-	 * no additional writes queued for config.writeQueueBatchingDelay time.
+	 * SPI: calculates weight of the cached value -- used only if weighing is
+	 * enabled (either {@link WBRBConfig#getMaxCacheWeightHardLimit()} or
+	 * {@link WBRBConfig#getMainQueueMaxTargetWeight()} is positive); typically
+	 * this should be (approximate) memory size of the value.
+	 * <p>
+	 * Default implementation returns 1 for any value (i.e. weight is the same
+	 * as element count).
+	 * <p>
+	 * WARNING: this is executed while holding write lock on the cache entry,
+	 * therefore it should be VERY FAST.
+	 */
+	@SuppressWarnings("unused")
+	protected long spiWriteLockWeigh(K key, S cacheData, 
+		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+			throws InterruptedException
+	{
+		return 1;
+	}
+	
+	/**
+	 * Creates codec used to serialize cached values of idle entries; only
+	 * invoked (during construction) if {@link WBRBConfig#isSerializeIdleValues()}
+	 * is enabled.
 	 * <p>
-	 * Default implementation does nothing.
+	 * Default implementation uses Kryo ({@link WBRBKryoValueCodec}).
+	 */
+	protected WBRBValueCodec<S> createValueCodec()
+	{
+		return new WBRBKryoValueCodec<S>();
+	}
+	
+	/**
+	 * Creates new cache entry for the given key.
 	 * <p>
-	 * This is a useful method if you're implementing batched writes.
+	 * Default implementation creates {@link WBRBExtendedCacheEntry} if
+	 * {@link #isExtendedCacheEntryNeeded()} and plain {@link WBRBCacheEntry} 
+	 * otherwise -- so that entries only carry fields needed by the enabled 
+	 * features.
 	 * <p>
-	 * WARNING: this is ALWAYS executed in write queue processor thread, so it
-	 * must return VERY QUICKLY.
+	 * Subclasses may override this to use entries with additional fields
+	 * (only when the feature that needs them is enabled).
 	 */
-	@SuppressWarnings("unused")
-	protected void spiNoLockWriteBatchDelayExpired()
-		throws InterruptedException
+	protected WBRBCacheEntry createCacheEntry(@Nonnull K key, long timeNow)
 	{
-		// nothing in default implementation
+		return isExtendedCacheEntryNeeded() ? new WBRBExtendedCacheEntry(key, timeNow) : new WBRBCacheEntry(key, timeNow);
 	}
-
 	
 	/**
-	 * Must make a decision as to what write queue processor should do with
-	 * the given item.
-	 * <p>
-	 * Default implementation always responds with {@link WBRBWriteQueueProcessingDecision#WRITE}
+	 * Whether new cache entries must be {@link WBRBExtendedCacheEntry} -- that
+	 * is whether any feature that needs optional per-entry fields is enabled
+	 * (weighing, value serialization, coalescing of queued writes, negative
+	 * caching or optimistic reads).
 	 */
-	@SuppressWarnings("unused")
-	protected WBRBWriteQueueProcessingDecision spiNoLockMakeWriteQueueProcessingDecision(
-		K key, WBRBWriteQueueEntry writeEntry) 
-			throws InterruptedException
+	protected boolean isExtendedCacheEntryNeeded()
 	{
-		return WBRBWriteQueueProcessingDecision.WRITE;
+		return weighingEnabled || (valueCodec != null) || coalesceQueuedWrites
+			|| config.isNegativeCaching() || config.isOptimisticReads();
 	}
 	
+	/**
+	 * Creates pool used to allocate off-heap memory for serialized values
+	 * of idle entries; only invoked (during construction) if {@link WBRBConfig#isSerializeIdleValues()}
+	 * is enabled (no memory is allocated until pool is actually used).
+	 * <p>
+	 * Default implementation uses 1MB slabs with chunks from 64 bytes to 64KB.
+	 */
+	protected WBRBOffHeapSlabPool createOffHeapValuePool()
+	{
+		return new WBRBOffHeapSlabPool(1024 * 1024, 64, 64 * 1024);
+	}
 	
 	/**
-	 * Should implement write to the storage based on the specified key & data.
+	 * Releases buffer previously used to store serialized value (see
+	 * {@link #haveWriteLock_SerializeValueIfIdle(Object, WBRBCacheEntry, WBRBCachePayload)}),
+	 * so that its memory may be reused.
 	 * <p>
-	 * These are typically called in the separate write threads, but it is still
-	 * very important to produce results very quickly as updates to cached objects
-	 * are collected while they wait for the background read & writes (and thus memory
-	 * can be consumed significantly).
+	 * Buffer must no longer be used after this method is invoked.
+	 */
+	protected void releaseSerializedValueBuffer(ByteBuffer buffer)
+	{
+		WBRBOffHeapSlabPool pool = offHeapValuePool;
+		if (pool != null)
+			pool.release(buffer);
+	}
+	
+	/**
+	 * If value serialization is enabled (see {@link WBRBConfig#isSerializeIdleValues()})
+	 * and the entry has been idle (untouched) for at least {@link WBRBConfig#getIdleValueSerializationDelay()},
+	 * then replaces cached value with its serialized form.
 	 * <p>
-	 * If your storage works better with batched writes, this can be implemented
-	 * by overriding {@link #spiNoLockProcessWriteToStorage(Object, WBRBWriteQueueEntry)}
-	 * method (which allows to produce result later instead of 'right now') and
-	 * {@link #spiNoLockWriteBatchDelayExpired()} to detect 'batch end' events.
+	 * Value will be transparently deserialized on the next access via
+	 * {@link WBRBCachePayload#getValue()}
+	 */
+	protected void haveWriteLock_SerializeValueIfIdle(K key, @SuppressWarnings("unused") WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+		throws InterruptedException
+	{
+		final WBRBValueCodec<S> codec = valueCodec;
+		if (codec == null)
+			return;
+		if (payload.isValueSerialized())
+			return;
+		
+		switch (payload.getReadStatus())
+		{
+			case DATA_READY:
+			case DATA_READY_RESYNC_FAILED_FINAL:
+				break;
+			case DATA_READY_RESYNC_PENDING: // value is going to be needed for merge soon
+			case NOT_READ_YET:
+			case READ_FAILED_FINAL:
+			case REMOVED_FROM_CACHE:
+				return; // no valid data to serialize
+		}
+		
+		long lastTouched = Math.max(Math.abs(payload.getLastReadTimestamp()), Math.abs(payload.getLastWriteTimestamp()));
+		if (timeGapVirtual(lastTouched, timeNow()) < config.getIdleValueSerializationDelay())
+			return; // not idle long enough
+		
+		final S value = payload.getValue();
+		NullableOptional<byte[]> encoded = guardedInvocation(() -> codec.encode(value), WBRBCacheMessage.VALUE_SERIALIZATION_FAIL, key);
+		if (!encoded.isPresent())
+			return; // failure is already logged, keep value as is
+		
+		byte[] data = encoded.get();
+		final ByteBuffer buffer;
+		final WBRBOffHeapSlabPool pool = offHeapValuePool;
+		if (config.isSerializeIdleValuesOffHeap() && (pool != null))
+		{
+			buffer = pool.allocate(data.length);
+			buffer.put(data);
+			buffer.flip();
+		}
+		else
+			buffer = ByteBuffer.wrap(data);
+		
+		payload.setSerializedValue(buffer);
+	}
+	
+	/**
+	 * Deserializes value previously serialized by {@link #haveWriteLock_SerializeValueIfIdle(Object, WBRBCacheEntry, WBRBCachePayload)}
 	 * <p>
-	 * For batched writes you also might want to disable writeThreadPool so that
-	 * these methods are not called in separate threads unnecessarily.
+	 * This can be called under read lock (by concurrent threads), so it must
+	 * not modify the buffer.
 	 * 
-	 * @param key key to write
-	 * @param dataToWrite data to be written
+	 * @throws CacheInternalException if deserialization fails
 	 */
-	protected abstract void writeToStorage(K key, W dataToWrite)
-		throws InterruptedException;
-
+	protected S haveSomeLock_DeserializeValue(K key, ByteBuffer buffer)
+		throws CacheInternalException
+	{
+		final WBRBValueCodec<S> codec = nn(valueCodec);
+		
+		final byte[] data;
+		if (buffer.hasArray() && (buffer.arrayOffset() == 0) && (buffer.array().length == buffer.limit()))
+			data = buffer.array();
+		else
+		{
+			ByteBuffer view = buffer.duplicate(); // independent position, so concurrent readers are fine
+			data = new byte[view.remaining()];
+			view.get(data);
+		}
+		
+		try
+		{
+			return codec.decode(data);
+		} catch (Exception e)
+		{
+			logMessage(WBRBCacheMessage.VALUE_DESERIALIZATION_FAIL, e, key);
+			throw new CacheInternalException("Failed to deserialize cached value for key [" + key + "]: " + e, e);
+		}
+	}
 	
 	/**
-	 * Extension point for subclasses that need more access to the internals
-	 * than {@link #writeToStorage(Object, Object)} but at the same time do
-	 * not want to deal with re-doing logic in {@link #spiNoLockProcessWriteToStorage(Object, WBRBWriteQueueEntry)}
+	 * Creates codec used to serialize keys in cache snapshots; only invoked
+	 * (during construction) if {@link WBRBConfig#getSnapshotFile()} is set.
+	 * <p>
+	 * Default implementation uses Kryo ({@link WBRBKryoValueCodec}).
+	 * <p>
+	 * NOTE: unlike idle values serialization, snapshots are persisted, so
+	 * custom codec may be needed if cached classes change between restarts.
 	 */
-	protected void spiNoLockWriteToStorage(K key, WBRBWriteQueueEntry writeEntry) 
-			throws InterruptedException
+	protected WBRBValueCodec<K> createSnapshotKeyCodec()
 	{
-		writeToStorage(key, writeEntry.getDataToWrite());
+		return new WBRBKryoValueCodec<K>();
 	}
 	
 	/**
-	 * Writes data to the underlying storage; does not need to be synchronous,
-	 * completion is indicated at some point by invoking either of {@link #apiStorageWriteSuccess(WBRBWriteQueueEntry)}
-	 * or {@link #apiStorageWriteFail(Throwable, WBRBWriteQueueEntry)}
+	 * Creates codec used to serialize cached values in cache snapshots; only invoked
+	 * (during construction) if {@link WBRBConfig#getSnapshotFile()} is set.
 	 * <p>
-	 * Default implementation is synchronous -- it invokes {@link #writeToStorage(Object, Object)}
-	 * and records the success result or failure (exception in {@link #writeToStorage(Object, Object)} 
-	 * indicates failed write).
+	 * Default implementation uses Kryo ({@link WBRBKryoValueCodec}).
+	 * <p>
+	 * NOTE: unlike idle values serialization, snapshots are persisted, so
+	 * custom codec may be needed if cached classes change between restarts.
 	 */
-	protected void spiNoLockProcessWriteToStorage(K key, WBRBWriteQueueEntry writeEntry) 
-			throws InterruptedException
+	protected WBRBValueCodec<S> createSnapshotValueCodec()
 	{
-		guardedInvocation(() -> spiNoLockWriteToStorage(key, writeEntry) , WBRBCacheMessage.STORAGE_WRITE_FAIL, key)
-			.ifPresentInterruptibly(o -> apiStorageWriteSuccess(writeEntry))
-			.ifExceptionInterruptibly(e -> apiStorageWriteFail(e, writeEntry));
+		return new WBRBKryoValueCodec<S>();
 	}
 	
+	@Override
+	public int writeSnapshot()
+		throws IllegalStateException, IOException, WAInterruptedException
+	{
+		try
+		{
+			return internalWriteSnapshot();
+		} catch (InterruptedException e)
+		{
+			throw new WAInterruptedException("Cache snapshot writing interrupted: " + e, e);
+		}
+	}
 	
 	/**
-	 * Notifies system about successful write.
-	 * <p>
-	 * Default implementation basically just checks that the cache entry
-	 * status is as expected and sets write status to 'success'; if status isn't
-	 * as expected, error message is produced and status is not updated. 
+	 * Writes snapshot if snapshots are enabled (see {@link WBRBConfig#getSnapshotFile()});
+	 * failures are logged (via {@link WBRBCacheMessage#SNAPSHOT_WRITE_FAIL})
+	 * and are otherwise ignored.
 	 */
-	protected void apiStorageWriteSuccess(WBRBWriteQueueEntry writeEntry)
+	protected void guardedWriteSnapshot()
 		throws InterruptedException
 	{
-		getStats().storageWriteSuccesses.incrementAndGet();
+		if (snapshotFile == null)
+			return;
 		
-		K key = writeEntry.getKey();
-		WBRBCacheEntry cacheEntry = writeEntry.getCacheEntry();
+		try
+		{
+			internalWriteSnapshot();
+		} catch (InterruptedException e)
+		{
+			throw e;
+		} catch (Exception e)
+		{
+			logMessage(WBRBCacheMessage.SNAPSHOT_WRITE_FAIL, e, snapshotFile);
+		}
+	}
+	
+	/**
+	 * Writes snapshot of all the cache entries that have data (i.e. their
+	 * status is one of DATA_READY*) to the {@link #snapshotFile}
+	 * <p>
+	 * Snapshot is first written (sequentially via buffered stream) to the
+	 * temporary file which then replaces target file (atomically if
+	 * supported by the file system).
+	 * <p>
+	 * Entries that fail to serialize are skipped (and {@link WBRBCacheMessage#SNAPSHOT_ENTRY_SKIPPED}
+	 * is logged).
+	 * 
+	 * @return number of entries written
+	 * 
+	 * @throws IllegalStateException if snapshots are not enabled
+	 */
+	protected int internalWriteSnapshot()
+		throws IllegalStateException, IOException, InterruptedException
+	{
+		final Path file = snapshotFile;
+		final WBRBValueCodec<K> keyCodec = snapshotKeyCodec;
+		final WBRBValueCodec<S> codec = snapshotValueCodec;
+		if ((file == null) || (keyCodec == null) || (codec == null))
+			throw new IllegalStateException("Snapshots are not enabled (snapshotFile is not set) in cache: " + commonNamingPrefix);
 		
-		withWriteLock(cacheEntry, () -> {
-			WBRBCachePayload payload = cacheEntry.getPayload();
+		synchronized (snapshotLock)
+		{
+			final Path tempFile = file.resolveSibling(nn(file.getFileName()).toString() + ".tmp");
 			
-			switch (payload.getWriteStatus())
+			int count = 0;
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile), 64 * 1024)))
 			{
-				case NO_WRITE_REQUESTED_YET:
-				case WRITE_FAILED_FINAL:
-				case WRITE_SUCCESS:
-					logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_STATE_FOR_WRITE_SUCCESS, null, key, payload.getWriteStatus());
-					return; // Not sure what else to do in this case
-				case REMOVED_FROM_CACHE:
-					return; // too late now
-				case WRITE_PENDING:
-					break; // normal processing
+				out.writeInt(SNAPSHOT_MAGIC);
+				out.writeInt(SNAPSHOT_VERSION);
+				out.writeLong(timeNow());
+				
+				for (WBRBCacheEntry cacheEntry : inflightMap.values())
+				{
+					final K key = cacheEntry.getKey();
+					
+					// Values may be mutable, so encode them under lock
+					NullableOptional<byte[]> valueData = withReadLock(cacheEntry, () -> {
+						WBRBCachePayload payload = cacheEntry.getPayload();
+						switch (payload.getReadStatus())
+						{
+							case DATA_READY:
+							case DATA_READY_RESYNC_PENDING:
+							case DATA_READY_RESYNC_FAILED_FINAL:
+								break;
+							case NOT_READ_YET:
+							case READ_FAILED_FINAL:
+							case REMOVED_FROM_CACHE:
+								return NullableOptional.<byte[]>empty(); // no valid data to write
+						}
+						
+						return guardedInvocation(() -> codec.encode(payload.getValue()), WBRBCacheMessage.SNAPSHOT_ENTRY_SKIPPED, key);
+					});
+					if (!valueData.isPresent())
+						continue;
+					
+					NullableOptional<byte[]> keyData = guardedInvocation(() -> keyCodec.encode(key), WBRBCacheMessage.SNAPSHOT_ENTRY_SKIPPED, key);
+					if (!keyData.isPresent())
+						continue;
+					
+					byte[] keyBytes = keyData.get();
+					byte[] valueBytes = valueData.get();
+					out.writeInt(keyBytes.length);
+					out.write(keyBytes);
+					out.writeInt(valueBytes.length);
+					out.write(valueBytes);
+					count++;
+				}
+				
+				out.writeInt(-1); // end marker
 			}
 			
-			cacheEntry.getPayload().setWriteStatus(WBRBCacheEntryWriteStatus.WRITE_SUCCESS);
+			try
+			{
+				Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e)
+			{
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
 			
-			// Event notification
-			wrappedSpiUnknownLock_Event(WBRBEvent.WRITE_SUCCESS, key, cacheEntry, payload, null, writeEntry);								
-		});
+			logMessage(WBRBCacheMessage.SNAPSHOT_WRITTEN, null, file, count);
+			
+			return count;
+		}
 	}
 	
-	// CCC comment
 	/**
-	 * WARNING: will NOT log error/exception information if going for retry
-	 * because normally it is already logged in {@link #spiNoLockProcessWriteToStorage(Object, WBRBWriteQueueEntry)}
-	 * If you're doing your own implementation, make sure to log the problem as needed.
+	 * Loads snapshot (if snapshot file exists) previously written via {@link #internalWriteSnapshot()}
+	 * -- entries are added to the cache via {@link #haveNoLock_RestoreSnapshotEntry(Object, Object, long, boolean)}
+	 * until the cache size/weight limit is reached.
+	 * <p>
+	 * Snapshot file is read via memory-mapped windows, see {@link WBRBSnapshotFileReader}
+	 * <p>
+	 * Entries that fail to deserialize are skipped (and {@link WBRBCacheMessage#SNAPSHOT_ENTRY_SKIPPED}
+	 * is logged).
 	 * 
+	 * @return number of entries restored
 	 */
-	protected void apiStorageWriteFail(@Nullable Throwable exception, WBRBWriteQueueEntry writeEntry)
-		throws InterruptedException
+	protected int internalLoadSnapshot()
+		throws IOException, InterruptedException
 	{
-		getStats().storageWriteFailures.incrementAndGet();
+		final Path file = nn(snapshotFile);
+		final WBRBValueCodec<K> keyCodec = nn(snapshotKeyCodec);
+		final WBRBValueCodec<S> codec = nn(snapshotValueCodec);
 		
-		WBRBCacheEntry cacheEntry = writeEntry.getCacheEntry();
-		withWriteLock(cacheEntry, () -> {
-			WBRBCachePayload payload = cacheEntry.getPayload();
-			
-			K key = writeEntry.getKey();
-			
-			payload.getWriteFailureCount().incrementAndGet(); // increment fail counter
-			
-			BooleanObjectWrapper setFinalWriteFailedStatus = BooleanObjectWrapper.of(false);
-			guardedInvocationNonNull(() -> spiWriteLockMakeWriteRetryDecision(exception, key, writeEntry, cacheEntry, payload), WBRBCacheMessage.SPI_EXCEPTION_MakeWriteRetryDecision, key)
-				.ifPresentInterruptibly(decision -> {
-					switch(decision)
-					{
-						case DO_NOTHING:
-							break;
-						case REMOVE_FROM_CACHE:
-							haveWriteLock_RemoveFromCache(cacheEntry);
-							break;
-						case NO_RETRY_SET_FINAL_FAILED_STATUS:
-							setFinalWriteFailedStatus.setTrue();
-							logMessage(WBRBCacheMessage.STORAGE_WRITE_FAIL_FINAL, exception, key);
-							break;
-						case RETRY:
-							// Need to re-queue write.
-							writeQueue.add(writeEntry);
-							logMessage(WBRBCacheMessage.STORAGE_WRITE_RETRY_ISSUED, exception, key);
-							break;
-					}
-					
-					// Event notification
-					wrappedSpiUnknownLock_Event(WBRBEvent.WRITE_FAIL_DECISION, key, cacheEntry, payload, null, decision, writeEntry);								
-				})
-				.ifExceptionInterruptibly(e -> {
-					setFinalWriteFailedStatus.setTrue();
-				});
+		if (!Files.exists(file))
+			return 0;
+		
+		final boolean resync = config.isSnapshotResyncOnLoad();
+		final long maxCacheWeight = config.getMaxCacheWeightHardLimit();
+		int count = 0;
+		try (WBRBSnapshotFileReader reader = new WBRBSnapshotFileReader(file))
+		{
+			if (reader.readInt() != SNAPSHOT_MAGIC)
+				throw new IOException("Not a cache snapshot file: " + file);
+			int version = reader.readInt();
+			if (version != SNAPSHOT_VERSION)
+				throw new IOException("Unsupported cache snapshot version [" + version + "] in: " + file);
+			final long snapshotTimestamp = reader.readLong();
 			
-			if (setFinalWriteFailedStatus.isTrue())
+			while (true)
 			{
-				payload.setWriteStatus(WBRBCacheEntryWriteStatus.WRITE_FAILED_FINAL);
-				payload.setPreviousFailedWriteData(NullableOptional.of(writeEntry.getDataToWrite()));
+				int keyLength = reader.readInt();
+				if (keyLength < 0)
+					break; // end marker
+				
+				final byte[] keyBytes = reader.readBytes(keyLength);
+				final byte[] valueBytes = reader.readBytes(reader.readInt());
+				
+				if (inflightMap.mappingCount() >= config.getMaxCacheElementsHardLimit())
+					break; // cache is full
+				if (weighingEnabled && (maxCacheWeight > 0) && (getCacheWeight() >= maxCacheWeight))
+					break; // cache is full
+				
+				NullableOptional<K> key = guardedInvocation(() -> keyCodec.decode(keyBytes), WBRBCacheMessage.SNAPSHOT_ENTRY_SKIPPED, (Object)null);
+				if (!key.isPresent() || (nullable(key.get()) == null))
+					continue;
+				
+				NullableOptional<S> value = guardedInvocation(() -> codec.decode(valueBytes), WBRBCacheMessage.SNAPSHOT_ENTRY_SKIPPED, key.get());
+				if (!value.isPresent())
+					continue;
+				
+				if (haveNoLock_RestoreSnapshotEntry(key.get(), value.get(), snapshotTimestamp, resync))
+					count++;
+			}
+		}
+		
+		logMessage(WBRBCacheMessage.SNAPSHOT_LOADED, null, file, count);
+		
+		return count;
+	}
+	
+	/**
+	 * Adds cache entry restored from snapshot -- entry is added with the
+	 * given value as if it was just read from storage (so it can be served 
+	 * immediately); if resync is requested (and refresh lane of the read queue
+	 * is not saturated, see {@link WBRBConfig#getReadQueueRefreshLaneMaxSize()}),
+	 * then refresh read is scheduled for the entry right away.
+	 * 
+	 * @return true if entry was added; false if entry for this key is already
+	 * 		present in cache
+	 */
+	protected boolean haveNoLock_RestoreSnapshotEntry(K key, S value, long snapshotTimestamp, boolean resync)
+		throws InterruptedException
+	{
+		WBRBCacheEntry entry = createCacheEntry(key, timeNow());
+		WBRBCachePayload payload = entry.getPayload();
+		wrappedSpiWriteLockUpdates_reset(WBRBUpdatesResetReason.NO_WRITE_LOCK_NEW_CACHE_ENTRY_CREATED, false, key, entry, payload);
+		
+		if (inflightMap.putIfAbsent(key, entry) != null)
+			return false;
+		
+		final boolean doResync;
+		if (resync && isReadQueueRefreshLaneSaturated())
+		{
+			getStats().storageReadRefreshDropped.increment();
+			doResync = false;
+		}
+		else
+			doResync = resync;
+		
+		withWriteLock(entry, () -> {
+			haveWriteLock_SetCachedValue(key, entry, payload, value);
+			payload.setLastSyncedWithStorageTimestamp(snapshotTimestamp);
+			if (doResync)
+			{
+				// updates must be collected so that they can be merged with the refreshed storage data
+				wrappedSpiWriteLockUpdates_reset(WBRBUpdatesResetReason.SNAPSHOT_RESTORED, true, key, entry, payload);
+				payload.setReadStatus(WBRBCacheEntryReadStatus.DATA_READY_RESYNC_PENDING); // should also open latch
 			}
+			else
+				payload.setReadStatus(WBRBCacheEntryReadStatus.DATA_READY); // should also open latch
 		});
+		
+		// 'in queue since' is already set above
+		mainQueues[entry.getQueueShardIndex()].add(entry);
+		
+		if (doResync)
+			queueRead(entry, true);
+		
+		// Event notification
+		wrappedSpiUnknownLock_Event(WBRBEvent.CACHE_ADD, key, entry, null, null);
+		
+		return true;
 	}
 	
 	/**
-	 * For an incoming FAILED storage write must make a decision whether to
-	 * go for a write retry ot not.
-	 * <p>
-	 * Default implementation first check that payload status is 'as expected'
-	 * (if state is not expected, message is logged and {@link WBRBRetryDecision#DO_NOTHING}
-	 * is returned);
-	 * <p>
-	 * If state is expeted, then decision depends on the already-failed write
-	 * count and {@link WBRBConfig#getWriteFailureMaxRetryCount()}
-	 * <p>
-	 * Executed under write lock, so must finish ASAP.
+	 * Suffix used in names of per-shard threads (empty if there's only one shard).
 	 */
-	@SuppressWarnings("unused")
-	protected WBRBRetryDecision spiWriteLockMakeWriteRetryDecision(
-		@Nullable Throwable exception, K key,
-		WBRBWriteQueueEntry writeEntry,
-		WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
-			throws InterruptedException
+	protected String getQueueShardNameSuffix(int shardIndex)
 	{
-		switch (payload.getWriteStatus())
-		{
-			case NO_WRITE_REQUESTED_YET:
-			case WRITE_FAILED_FINAL:
-			case WRITE_SUCCESS:
-				logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_STATE_FOR_WRITE_FAIL, null, key, payload.getWriteStatus());
-				return WBRBRetryDecision.DO_NOTHING; // Not sure what else to do in this case
-			case REMOVED_FROM_CACHE:
-				return WBRBRetryDecision.DO_NOTHING; // too late now
-			case WRITE_PENDING:
-				// normal processing
-				if (payload.getWriteFailureCount().get() > config.getWriteFailureMaxRetryCount())
-					return WBRBRetryDecision.NO_RETRY_SET_FINAL_FAILED_STATUS;
-				else
-					return WBRBRetryDecision.RETRY;
-		}
+		if (queueShardCount == 1)
+			return "";
 		
-		logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
-		return WBRBRetryDecision.DO_NOTHING;
+		return "-" + shardIndex;
 	}
 	
-	
 	/**
-	 * Creates main queue processor thread.
+	 * Creates main queue processor thread for the given queue shard.
 	 */
-	protected ExitableThread createMainQueueProcessor()
+	protected ExitableThread createMainQueueProcessor(final int shardIndex)
 	{
-		InterruptHandlingExitableThread thread = new InterruptHandlingExitableThread(threadGroup, commonNamingPrefix + " Main Queue Processor")
+		InterruptHandlingExitableThread thread = new InterruptHandlingExitableThread(threadGroup, commonNamingPrefix + " Main Queue Processor" + getQueueShardNameSuffix(shardIndex))
 		{
 			@Override
 			protected void run1(boolean reentry)
 				throws InterruptedException
 			{
-				runnableMainQueueProcessor();
+				runnableMainQueueProcessor(shardIndex);
 			}
 
 			@Override
@@ -4497,18 +8436,59 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 				false/*does NOT contain all updates*/)); 
 	
 	/**
-	 * Code executed by {@link #mainQueueProcessingThread}
+	 * Code executed by {@link #mainQueueProcessingThreads} -- each thread
+	 * processes its own queue shard.
 	 */
-	protected void runnableMainQueueProcessor() throws InterruptedException
+	protected void runnableMainQueueProcessor(final int shardIndex) throws InterruptedException
 	{
+		final WBRBDeadlineBucketQueue shardMainQueue = mainQueues[shardIndex];
+		final WBRBDeadlineBucketQueue shardReturnQueue = returnQueues[shardIndex];
+		
+		// Bucket is due when all its items are past main queue cache time (min cache time if queue is too large)
+		final InterruptableSupplier<Long> bucketCacheTime = () -> {
+			if (isFlushing())
+				return 0L; // during flush/shutdown we process everything ASAP
+			
+			haveNoLock_AdjustAdaptiveMainQueueCacheTimeIfNeeded();
+			
+			if (isQueueShardOverTarget(shardIndex))
+				return config.getMainQueueCacheTimeMin();
+			
+			return getEffectiveMainQueueCacheTime();
+		};
+		
+		final ArrayDeque<WBRBCacheEntry> batch = new ArrayDeque<>(); // due entries taken from queue, not processed yet
+		final ArrayList<WBRBCacheEntry> deferred = new ArrayList<>(); // entries from the batch that aren't ready to be processed yet
 		WBRBCacheEntry currentCacheEntry = null;
 		try
 		{
 			SimpleLongCounter sleepDelayInsteadOfProcessing = new SimpleLongCounter(-1);
+			boolean processedAnyInBatch = false;
+			long deferredSleep = Long.MAX_VALUE;
 			while(true)
 			{
-				if (currentCacheEntry == null) // We could have element that hasn't finished processing yet
-					currentCacheEntry = mainQueue.take(); // get next element
+				if (batch.isEmpty())
+				{
+					if (!deferred.isEmpty())
+					{
+						// if nothing could be processed, delay before re-trying 
+						// deferred items (avoids busy loop if e.g. flushing
+						// items that still have read/write pending)
+						if (!processedAnyInBatch)
+							shardMainQueue.awaitWakeUp(deferredSleep);
+						
+						shardMainQueue.requeueTakenEntries(deferred);
+						deferred.clear();
+					}
+					processedAnyInBatch = false;
+					deferredSleep = Long.MAX_VALUE;
+					
+					haveNoLock_TakeDueBucket(shardMainQueue, batch, bucketCacheTime, true);
+				}
+				
+				currentCacheEntry = batch.poll(); // get next element
+				if (currentCacheEntry == null)
+					continue; // should not be possible
 				
 				// This is set to positive value in order to delay processing of the current element.
 				sleepDelayInsteadOfProcessing.set(-1); // reset sleep flag
@@ -4523,7 +8503,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 					long sleepFor = -1;
 					{
 						long cacheUntil = timeAddVirtualIntervalToRealWorldTime(
-							payload.getInQueueSince(), config.getMainQueueCacheTime());
+							payload.getInQueueSince(), getEffectiveMainQueueCacheTime());
 						
 						if (isFlushing()) 
 						{
@@ -4559,12 +8539,20 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 								cacheUntil = 0;
 						}
 						
+						if (config.isNegativeCaching())
+						{
+							// negative cache entries are not retained past negative cache time
+							final long absentSince = payload.getStorageDataAbsentSince();
+							if ((absentSince > 0) && (timeAddVirtualIntervalToRealWorldTime(absentSince, config.getNegativeCacheTime()) <= now))
+								cacheUntil = 0;
+						}
+						
 						if (cacheUntil > now)
 						{
 							// maybe need to wait
 							boolean haveToWait = true;
 							// maybe we don't need to wait due to too many items in the queue
-							if (mainQueue.size() > config.getMainQueueMaxTargetSize())
+							if (isQueueShardOverTarget(shardIndex))
 							{
 								long minCacheUntil = timeAddVirtualIntervalToRealWorldTime(
 									payload.getInQueueSince(), config.getMainQueueCacheTimeMin());
@@ -4599,10 +8587,13 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 					else
 					{
 						// Process item.
-						getStats().mainQueueProcessedItems.incrementAndGet();
+						getStats().mainQueueProcessedItems.increment();
 						getStats().mainQueueLastItemInQueueDurationMs.set(
 							timeGapVirtual(payload.getInQueueSince(), now)
 						);
+						if (config.isLatencyHistograms())
+							getStats().mainQueueTimeLatency.recordNanos(
+								TimeUnit.MILLISECONDS.toNanos(timeGapVirtual(payload.getInQueueSince(), now)));
 						
 						// FIX-ME probably needs early bail out if item is already marked as REMOVE_FROM_CACHE because we don't want to try removing something that already WAS removed
 						// FIX-ME redo triplet into real class with null-checking via Lombok
@@ -4624,22 +8615,22 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 						{
 							case EXPIRE_FROM_CACHE:
 								haveWriteLock_RemoveFromCache_NoMessageIfAlreadyRemoved(cacheEntry);
-								getStats().mainQueueExpiredFromCacheCount.incrementAndGet();
+								getStats().mainQueueExpiredFromCacheCount.increment();
 								break;
 							
 							case REMOVE_FROM_CACHE:
 								haveWriteLock_RemoveFromCache_NoMessageIfAlreadyRemoved(cacheEntry);
 								resetFailureCounts = false; // 'expire' is an 'ok' option
 								logNonStandardOutcome = true; // for logging non-standard outcomes
-								getStats().mainQueueRemovedFromCacheCount.incrementAndGet();
+								getStats().mainQueueRemovedFromCacheCount.increment();
 								break;
 								
 							case MAIN_QUEUE:
 								payload.setInQueueSince(timeNow());
-								mainQueue.add(cacheEntry); // re-queue to main queue
+								shardMainQueue.add(cacheEntry); // re-queue to main queue
 								resetFailureCounts = false;
 								logNonStandardOutcome = true; // for logging non-standard outcomes
-								getStats().mainQueueRequeueToMainQueueCount.incrementAndGet();
+								getStats().mainQueueRequeueToMainQueueCount.increment();
 								break;
 								
 							case RETURN_QUEUE_NO_WRITE: // e.g. resync failed (but still have collected updates) or previous write didn't complete yet, so a delaying tactic
@@ -4660,15 +8651,26 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 										// reset 'dirty' flag by forcing timestamp to non-positive value
 										payload.setLastWriteTimestamp(-Math.abs(payload.getLastWriteTimestamp()));
 									}
-									payload.getWriteFailureCount().reset(); // new write, so reset counter
+									payload.resetWriteFailureCount(); // new write, so reset counter
 									
 									NullableOptional<W> writeData = writeSplit.getWriteData();
-									if (writeData.isPresent())
+									WBRBWriteQueueEntry queuedWrite = payload.getQueuedWrite();
+									if (writeData.isPresent() && (queuedWrite != null))
+									{
+										// Previous write is still in the queue (and its data was merged in split) -- replace its data
+										queuedWrite.setDataToWrite(writeData.get());
+										payload.setWriteStatus(WBRBCacheEntryWriteStatus.WRITE_PENDING);
+										getStats().mainQueueCoalescedWrites.increment();
+									}
+									else if (writeData.isPresent())
 									{
 										// Queue actual write
-										writeQueue.add(new WBRBWriteQueueEntry(key, cacheEntry, writeData.get()));
+										WBRBWriteQueueEntry newWrite = new WBRBWriteQueueEntry(key, cacheEntry, writeData.get());
+										if (coalesceQueuedWrites)
+											payload.setQueuedWrite(newWrite);
+										writeQueue.add(newWrite);
 										payload.setWriteStatus(WBRBCacheEntryWriteStatus.WRITE_PENDING);
-										getStats().mainQueueSentWrites.incrementAndGet();
+										getStats().mainQueueSentWrites.increment();
 									}
 									else
 									{
@@ -4684,10 +8686,11 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 								}
 								
 								// Overwrite existing cache value with whatever was the result of the decision.
-								payload.setValue(writeSplit.getNewCacheData());
+								haveWriteLock_SetCachedValue(key, cacheEntry, payload, writeSplit.getNewCacheData());
+								haveWriteLock_SerializeValueIfIdle(key, cacheEntry, payload);
 								
 								payload.setInQueueSince(timeNow());
-								returnQueue.add(cacheEntry);
+								shardReturnQueue.add(cacheEntry);
 								
 								if (decisionOutcome != WBRBMainQueueItemCacheRetainDecision.RETURN_QUEUE)
 									logNonStandardOutcome = true; // for logging non-standard outcomes
@@ -4710,7 +8713,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 							// to keep track if there are any new reads since 'now'
 							// (new reads will have positive timestamp)
 							payload.setLastReadTimestamp(-lastReadTimestamp);
-							payload.getFullCacheCycleFailureCount().reset();
+							payload.resetFullCacheCycleFailureCount();
 						}
 						else
 						{
@@ -4718,8 +8721,8 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 							// (set positive 'last read timestamp' so it 
 							// shouldn't be removed by the return queue processor)
 							payload.setLastReadTimestamp( lastReadTimestamp > 0 ? lastReadTimestamp : timeNow());
-							payload.getFullCacheCycleFailureCount().incrementAndGet();
-							getStats().mainQueueNotAllOkCount.incrementAndGet();
+							payload.incrementFullCacheCycleFailureCount();
+							getStats().mainQueueNotAllOkCount.increment();
 						}
 						
 						// Log non-standard outcome (flag controls whether default implementation will actually log
@@ -4738,9 +8741,19 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 				{
 					long sleep = sleepDelayInsteadOfProcessing.get();
 					if (sleep > 0)
-						Thread.sleep(sleep); // Delay and iterate the same element again
+					{
+						// Element is not ready to be processed yet -- set it aside
+						// and continue with the rest of the batch.
+						deferred.add(currentCacheEntry);
+						deferredSleep = Math.min(deferredSleep, sleep);
+					}
 					else
-						currentCacheEntry = null; // done with the current, may process the next entry
+					{
+						processedAnyInBatch = true;
+						shardMainQueue.takenEntryHandled();
+					}
+					
+					currentCacheEntry = null; // done with the current, may process the next entry
 				}
 				
 			} // end infinite while() loop
@@ -4756,8 +8769,14 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 			if (currentCacheEntry != null)
 			{
 				haveNoLock_RemoveFromCache(currentCacheEntry);
+				shardMainQueue.takenEntryHandled();
 				logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_REMOVAL_IN_MAIN_QUEUE_PROCESSING, null, currentCacheEntry.getKey());
 			}
+			
+			// Entries that were taken from the queue but were not processed
+			// are still valid -- return them to the queue so they are not orphaned
+			deferred.addAll(batch);
+			shardMainQueue.requeueTakenEntries(deferred);
 		}
 	}
 	
@@ -4786,6 +8805,13 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		switch (readStatus)
 		{
 			case READ_FAILED_FINAL:
+				if (payload.isStorageDataAbsent())
+				{
+					// Negative cache entries are simply expired, this is not an error
+					readStatusDecision.set(WBRBMainQueueItemCacheRetainDecision.EXPIRE_FROM_CACHE);
+					break;
+				}
+				//$FALL-THROUGH$
 			case NOT_READ_YET: // if initial read hasn't yet completed, there's no point keeping it around
 				readStatusDecision.set(WBRBMainQueueItemCacheRetainDecision.REMOVE_FROM_CACHE);
 				break;
@@ -4907,7 +8933,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 	{
 		// use >= for cycle count check because increment happens after this check
 		if ((!wrappedSpiWriteLockUpdates_isMergePossible(key, cacheEntry, payload, NullableOptional.empty())) 
-			|| (payload.getFullCacheCycleFailureCount().get() >= config.getFullCacheCycleFailureMaxRetryCount()))
+			|| (payload.getFullCacheCycleFailureCount() >= config.getFullCacheCycleFailureMaxRetryCount()))
 		{
 			// Either merge is not possible (e.g. if updates are not collected) or too many failures -- 
 			// either way no point trying to reschedule this for resync
@@ -4934,7 +8960,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 	{
 		// use >= for cycle count check because increment happens after this check
 		if ((!wrappedSpiWriteLockUpdates_isMergePossible(key, cacheEntry, payload, NullableOptional.empty())) 
-			|| (payload.getFullCacheCycleFailureCount().get() >= config.getFullCacheCycleFailureMaxRetryCount()))
+			|| (payload.getFullCacheCycleFailureCount() >= config.getFullCacheCycleFailureMaxRetryCount()))
 		{
 			// Either merge is not possible (e.g. if updates are not collected) or too many failures -- 
 			// either way no point trying to reschedule this for resync
@@ -4962,7 +8988,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 			throws InterruptedException
 	{
 		// use >= because increment happens after this check
-		if (payload.getFullCacheCycleFailureCount().get() >= config.getFullCacheCycleFailureMaxRetryCount())
+		if (payload.getFullCacheCycleFailureCount() >= config.getFullCacheCycleFailureMaxRetryCount())
 		{
 			// Too many full-cycle failures, give up
 			logMessage(WBRBCacheMessage.WRITE_FAILED_FINAL_DATA_DISCARDED, null, key);
@@ -4979,13 +9005,23 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 			throws InterruptedException
 	{
 		// use >= because increment happens after this check
-		if (payload.getFullCacheCycleFailureCount().get() >= config.getFullCacheCycleFailureMaxRetryCount())
+		if (payload.getFullCacheCycleFailureCount() >= config.getFullCacheCycleFailureMaxRetryCount())
 		{
 			// Too many full-cycle failures, give up
 			logMessage(WBRBCacheMessage.WRITE_FAILED_FINAL_DATA_DISCARDED, null, key);
 			return WBRBMainQueueItemCacheRetainDecision.REMOVE_FROM_CACHE;
 		}
 		
+		// If previous write is still in the queue and there are new updates, 
+		// these can be merged into the queued write (previous write hasn't
+		// completed yet, so keep failure count)
+		WBRBWriteQueueEntry queuedWrite = payload.getQueuedWrite();
+		if ((queuedWrite != null) && (payload.getLastWriteTimestamp() > 0)
+			&& spiWriteLockIsCanMergeWrites(key, payload.getValue(), NullableOptional.of(queuedWrite.getDataToWrite()), cacheEntry, payload))
+		{
+			return WBRBMainQueueItemCacheRetainDecision.RETURN_QUEUE_KEEP_FULL_CYCLE_FAILURE_COUNT;
+		}
+		
 		return WBRBMainQueueItemCacheRetainDecision.RETURN_QUEUE_NO_WRITE;
 	}
 	
@@ -5033,17 +9069,17 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 	}
 	
 	/**
-	 * Creates return queue processor thread.
+	 * Creates return queue processor thread for the given queue shard.
 	 */
-	protected ExitableThread createReturnQueueProcessor()
+	protected ExitableThread createReturnQueueProcessor(final int shardIndex)
 	{
-		InterruptHandlingExitableThread thread = new InterruptHandlingExitableThread(threadGroup, commonNamingPrefix + " Return Queue Processor")
+		InterruptHandlingExitableThread thread = new InterruptHandlingExitableThread(threadGroup, commonNamingPrefix + " Return Queue Processor" + getQueueShardNameSuffix(shardIndex))
 		{
 			@Override
 			protected void run1(boolean reentry)
 				throws InterruptedException
 			{
-				runnableReturnQueueProcessor();
+				runnableReturnQueueProcessor(shardIndex);
 			}
 
 			@Override
@@ -5063,18 +9099,54 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 	}
 	
 	/**
-	 * Code executed by {@link #returnQueueProcessingThread}
+	 * Code executed by {@link #returnQueueProcessingThreads} -- each thread
+	 * processes its own queue shard.
 	 */
-	protected void runnableReturnQueueProcessor() throws InterruptedException
+	protected void runnableReturnQueueProcessor(final int shardIndex) throws InterruptedException
 	{
+		final WBRBDeadlineBucketQueue shardMainQueue = mainQueues[shardIndex];
+		final WBRBDeadlineBucketQueue shardReturnQueue = returnQueues[shardIndex];
+		
+		// Bucket is due when all its items are past return queue minimum cache time
+		final InterruptableSupplier<Long> bucketCacheTime = () -> {
+			if (isFlushing())
+				return 0L; // during flush/shutdown we process everything ASAP
+			
+			return config.getReturnQueueCacheTimeMin();
+		};
+		
+		final ArrayDeque<WBRBCacheEntry> batch = new ArrayDeque<>(); // due entries taken from queue, not processed yet
+		final ArrayList<WBRBCacheEntry> deferred = new ArrayList<>(); // entries from the batch that aren't ready to be processed yet
 		WBRBCacheEntry currentCacheEntry = null;
 		try
 		{
 			SimpleLongCounter sleepDelayInsteadOfProcessing = new SimpleLongCounter(-1);
+			boolean processedAnyInBatch = false;
+			long deferredSleep = Long.MAX_VALUE;
 			while(true)
 			{
-				if (currentCacheEntry == null) // We could have element that hasn't finished processing yet
-					currentCacheEntry = returnQueue.take(); // get next element
+				if (batch.isEmpty())
+				{
+					if (!deferred.isEmpty())
+					{
+						// if nothing could be processed, delay before re-trying 
+						// deferred items (avoids busy loop if e.g. flushing
+						// items that still have write pending)
+						if (!processedAnyInBatch)
+							shardReturnQueue.awaitWakeUp(deferredSleep);
+						
+						shardReturnQueue.requeueTakenEntries(deferred);
+						deferred.clear();
+					}
+					processedAnyInBatch = false;
+					deferredSleep = Long.MAX_VALUE;
+					
+					haveNoLock_TakeDueBucket(shardReturnQueue, batch, bucketCacheTime, false);
+				}
+				
+				currentCacheEntry = batch.poll(); // get next element
+				if (currentCacheEntry == null)
+					continue; // should not be possible
 				
 				// This is set to positive value in order to delay processing of the current element.
 				sleepDelayInsteadOfProcessing.set(-1); // reset sleep flag
@@ -5145,7 +9217,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 					else if (canDoNormalProcessing) // if not, we just do nothing as e.g. element was removed from cache or some such
 					{
 						// Process item.
-						getStats().returnQueueProcessedItems.incrementAndGet();
+						getStats().returnQueueProcessedItems.increment();
 						getStats().returnQueueLastItemInQueueDurationMs.set(
 							timeGapVirtual(payload.getInQueueSince(), now)
 						);
@@ -5164,7 +9236,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 							if (untouchedMs < 0)
 							{
 								// This is basically an error
-								getStats().returnQueueNegativeTimeSinceLastAccessErrorCount.incrementAndGet();
+								getStats().returnQueueNegativeTimeSinceLastAccessErrorCount.increment();
 								logMessage(WBRBCacheMessage.RETURN_QUEUE_NEGATIVE_TIME_SINCE_TOUCHED, null, key, untouchedMs);
 								// if item had negative 'time since touched', replace with max value intending for item to be removed from cache
 								untouchedMs = Long.MAX_VALUE; 
@@ -5196,7 +9268,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 							case REMOVE_FROM_CACHE:
 								{
 									// full cache cycle monitoring
-									int cycleCount = payload.getFullCacheCycleCountByReturnQueue().incrementAndGet();
+									int cycleCount = payload.incrementFullCacheCycleCountByReturnQueue();
 									boolean processed = false;
 									List<@Nonnull Integer> cycleThresholds = config.getMonitoringFullCacheCyclesThresholds();
 									for (int i = 0; i < cycleThresholds.size(); i++)
@@ -5204,12 +9276,12 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 										if (cycleCount <= cycleThresholds.get(i))
 										{
 											processed = true;
-											getStats().fullCycleCountThresholdCounters[i].incrementAndGet();
+											getStats().fullCycleCountThresholdCounters[i].increment();
 											break;
 										}
 									}
 									if (!processed) // process 'more than all thresholds'
-										getStats().fullCycleCountThresholdCounters[cycleThresholds.size()].incrementAndGet();
+										getStats().fullCycleCountThresholdCounters[cycleThresholds.size()].increment();
 								}
 								
 								{
@@ -5221,12 +9293,12 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 										if (itemUntouchedMs <= untouchedThresholds.get(i))
 										{
 											processed = true;
-											getStats().timeSinceLastAccessThresholdCounters[i].incrementAndGet();
+											getStats().timeSinceLastAccessThresholdCounters[i].increment();
 											break;
 										}
 									}
 									if (!processed) // process 'more than all thresholds'
-										getStats().timeSinceLastAccessThresholdCounters[untouchedThresholds.size()].incrementAndGet();
+										getStats().timeSinceLastAccessThresholdCounters[untouchedThresholds.size()].increment();
 								}
 								
 								break;
@@ -5239,31 +9311,34 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 						switch (decision.getAction())
 						{
 							case DO_NOTHING:
-								getStats().returnQueueDoNothingCount.incrementAndGet();
+								getStats().returnQueueDoNothingCount.increment();
 								logNonStandardOutcome = true;
 								break;
 							case EXPIRE_FROM_CACHE:
-								getStats().returnQueueExpiredFromCacheCount.incrementAndGet();
+								getStats().returnQueueExpiredFromCacheCount.increment();
 								haveWriteLock_RemoveFromCache_NoMessageIfAlreadyRemoved(cacheEntry);
 								break;
 							case REMOVE_FROM_CACHE:
-								getStats().returnQueueRemovedFromCacheCount.incrementAndGet();
+								getStats().returnQueueRemovedFromCacheCount.increment();
 								haveWriteLock_RemoveFromCache_NoMessageIfAlreadyRemoved(cacheEntry);
 								logNonStandardOutcome = true;
 								break;
 							case RETURN_QUEUE:
-								getStats().returnQueueRequeueToReturnQueueCount.incrementAndGet();
+								getStats().returnQueueRequeueToReturnQueueCount.increment();
+								haveWriteLock_SerializeValueIfIdle(key, cacheEntry, payload);
 								payload.setInQueueSince(timeNow());
-								returnQueue.add(cacheEntry);
+								shardReturnQueue.add(cacheEntry);
 								logNonStandardOutcome = true;
 								break;
 							case MAIN_QUEUE_NO_RESYNC:
+								haveWriteLock_SerializeValueIfIdle(key, cacheEntry, payload);
 								payload.setInQueueSince(timeNow());
-								mainQueue.add(cacheEntry);
+								shardMainQueue.add(cacheEntry);
 								logNonStandardOutcome = true; // not 100% positive this is good, but it can be overridden
 								break;
 							case MAIN_QUEUE_PLUS_RESYNC:
 								boolean proceed = true;
+								boolean isRefreshRead = false;
 								switch (payload.getReadStatus())
 								{
 									case REMOVED_FROM_CACHE:
@@ -5278,16 +9353,29 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 									case DATA_READY_RESYNC_PENDING:
 									case DATA_READY:
 									case DATA_READY_RESYNC_FAILED_FINAL:
-										payload.setReadStatus(WBRBCacheEntryReadStatus.DATA_READY_RESYNC_PENDING); // indicate resync
+										isRefreshRead = true; // status is updated below unless refresh is dropped
 										break;
 								}
 								
+								if (proceed && isRefreshRead && isReadQueueRefreshLaneSaturated())
+								{
+									// Refresh lane is saturated -- drop the refresh and keep current (possibly stale) data; same as MAIN_QUEUE_NO_RESYNC
+									getStats().storageReadRefreshDropped.increment();
+									haveWriteLock_SerializeValueIfIdle(key, cacheEntry, payload);
+									payload.setInQueueSince(timeNow());
+									shardMainQueue.add(cacheEntry);
+									break;
+								}
+								
 								if (proceed)
 								{
+									if (isRefreshRead)
+										payload.setReadStatus(WBRBCacheEntryReadStatus.DATA_READY_RESYNC_PENDING); // indicate resync
+									
 									payload.setInQueueSince(timeNow());
-									mainQueue.add(cacheEntry);
-									readQueue.add(cacheEntry);
-									getStats().returnQueueScheduledResyncs.incrementAndGet();
+									shardMainQueue.add(cacheEntry);
+									queueRead(cacheEntry, isRefreshRead);
+									getStats().returnQueueScheduledResyncs.increment();
 								}
 								break;
 						}
@@ -5308,9 +9396,19 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 				{
 					long sleep = sleepDelayInsteadOfProcessing.get();
 					if (sleep > 0)
-						Thread.sleep(sleep); // Delay and iterate the same element again
+					{
+						// Element is not ready to be processed yet -- set it aside
+						// and continue with the rest of the batch.
+						deferred.add(currentCacheEntry);
+						deferredSleep = Math.min(deferredSleep, sleep);
+					}
 					else
-						currentCacheEntry = null; // done with the current, may process the next entry
+					{
+						processedAnyInBatch = true;
+						shardReturnQueue.takenEntryHandled();
+					}
+					
+					currentCacheEntry = null; // done with the current, may process the next entry
 				}
 				
 			} // end infinite while() loop
@@ -5326,8 +9424,14 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 			if (currentCacheEntry != null)
 			{
 				haveNoLock_RemoveFromCache(currentCacheEntry);
+				shardReturnQueue.takenEntryHandled();
 				logMessage(WBRBCacheMessage.UNEXPECTED_CACHE_REMOVAL_IN_RETURN_QUEUE_PROCESSING, null, currentCacheEntry.getKey());
 			}
+			
+			// Entries that were taken from the queue but were not processed
+			// are still valid -- return them to the queue so they are not orphaned
+			deferred.addAll(batch);
+			shardReturnQueue.requeueTakenEntries(deferred);
 		}
 	}
 
@@ -5396,7 +9500,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		K key, WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
 			throws InterruptedException
 	{
-		if (payload.getReturnQueueRetryCount().incrementAndGet() > config.getReturnQueueMaxRequeueCount())
+		if (payload.incrementReturnQueueRetryCount() > config.getReturnQueueMaxRequeueCount())
 		{
 			// Too many retries, handle the same as write failure
 			return spiWriteLockMakeReturnQueueProcessingDecision_WriteFailedFinal(key, cacheEntry, payload);
@@ -5436,11 +9540,12 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 			if (itemUntouchedMs >= config.getUntouchedItemCacheExpirationDelay())
 				return WBRBReturnQueueItemProcessingDecision.EXPIRE_FROM_CACHE;
 
-			long mainQueueSize = mainQueue.size();
-			if (mainQueueSize >= config.getMainQueueMaxTargetSize())
+			final int shardIndex = cacheEntry.getQueueShardIndex();
+			long mainQueueSize = mainQueues[shardIndex].size();
+			if ((mainQueueSize >= getMainQueueShardMaxTargetSize()) || isQueueShardOverTarget(shardIndex))
 			{
-				// If cache is too full, expire item anyway
-				getStats().returnQueueItemNotRetainedDueToMainQueueSizeCount.incrementAndGet();
+				// If cache is too full (by size or by weight), expire item anyway
+				getStats().returnQueueItemNotRetainedDueToMainQueueSizeCount.increment();
 				logMessage(WBRBCacheMessage.RETURN_QUEUE_ITEM_NOT_RETAINED_DUE_TO_MAIN_QUEUE_SIZE, null, key, mainQueueSize);
 				return WBRBReturnQueueItemProcessingDecision.EXPIRE_FROM_CACHE;
 			}
@@ -5530,16 +9635,18 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		
 		boolean success = false;
 		boolean interrupted = false;
+		final boolean trackLatency = config.isLatencyHistograms() && (maxWaitVirtualMsec > 0);
+		final long latencyStart = trackLatency ? System.nanoTime() : 0;
 		try
 		{
-			getStats().cacheReadAttempts.incrementAndGet();
+			getStats().cacheReadAttempts.increment();
 			
 			NullableOptional<V> result = internalRead0(key, realWorldAnchorTime, maxWaitVirtualMsec);
 			
 			if (result.isEmpty())
 			{
 				if (maxWaitVirtualMsec > 0) // no-wait stuff probably shouldn't count as timeout
-					getStats().cacheReadTimeouts.incrementAndGet();
+					getStats().cacheReadTimeouts.increment();
 			}
 			
 			success = true;
@@ -5553,12 +9660,15 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		}
 		finally
 		{
+			if (trackLatency)
+				getStats().readForLatency.recordNanos(System.nanoTime() - latencyStart);
+			
 			if (!success)
 			{
 				if (interrupted)
-					getStats().cacheReadInterrupts.incrementAndGet();
+					getStats().cacheReadInterrupts.increment();
 				else
-					getStats().cacheReadErrors.incrementAndGet();
+					getStats().cacheReadErrors.increment();
 			}
 		}
 	}
@@ -5583,7 +9693,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		// Check key here to avoid wrapping exception from haveNoLock_checkCache later on
 		if (nullable(key) == null)
 		{
-			getStats().checkCacheNullKeyCount.incrementAndGet();
+			getStats().checkCacheNullKeyCount.increment();
 			throw new IllegalArgumentException("Key must not be null.");
 		}
 		
@@ -5604,6 +9714,16 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 				if (cacheEntry == null)
 					return NullableOptional.empty(); // If no wait and no pre-existing entry, indicate no result immediately
 				
+				if (haveNoLock_ExpireNegativeCacheEntryIfStale(cacheEntry))
+					continue; // stale negative cache entry was removed, another attempt will re-read the storage
+				
+				{
+					// Lock-free attempt if enabled and entry is in the appropriate state
+					NullableOptional<V> optimisticResult = haveNoLock_TryOptimisticRead(key, cacheEntry);
+					if (optimisticResult != null)
+						return optimisticResult;
+				}
+				
 				boolean anotherDecisionAttempt = true;
 				while (anotherDecisionAttempt)
 				{
@@ -5877,6 +9997,225 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		throw generateAccessOrExceptionException(key, result); 
 	}
 	
+	@Override
+	public CompletableFuture<V> readAsync(K key, long limitMillis) 
+		throws IllegalArgumentException, CacheFullException, CacheIllegalStateException, CacheInternalException, WAInterruptedException
+	{
+		CompletableFuture<V> future = new CompletableFuture<>();
+		
+		// First attempt is done in the calling thread, so problems such as
+		// shutdown or full cache are thrown right away (same as for readFor)
+		internalReadAsync(key, timeNow(), limitMillis, future, 0);
+		
+		return future;
+	}
+	
+	/**
+	 * Performs one attempt of async read for {@link #readAsync(Object, long)}:
+	 * completes the future if value is available (or if element cannot be
+	 * loaded in time); otherwise makes sure that the next attempt is made 
+	 * when cache entry's access latch is opened (and schedules timeout on
+	 * the first attempt).
+	 * <p>
+	 * Never blocks waiting for the storage.
+	 * 
+	 * @param attempt zero for the first attempt; every subsequent attempt 
+	 * 		(e.g. because element was removed from cache in the meantime)
+	 * 		increments this
+	 */
+	protected void internalReadAsync(final K key, final long realWorldAnchorTime, final long maxWaitVirtualMsec, 
+		final CompletableFuture<V> future, final int attempt)
+			throws IllegalArgumentException, CacheFullException, CacheIllegalStateException, CacheInternalException, WAInterruptedException
+	{
+		if (future.isDone())
+			return; // e.g. timed out already
+		
+		NullableOptional<V> result = internalRead(key, realWorldAnchorTime, (maxWaitVirtualMsec < 0) ? -1 : 0);
+		if (result.isPresent())
+		{
+			future.complete(result.get());
+			return;
+		}
+		
+		if (result.hasException() || (maxWaitVirtualMsec < 1))
+		{
+			future.completeExceptionally(generateAccessOrExceptionException(key, result));
+			return;
+		}
+		
+		long now = timeNow();
+		long waitUntil = timeAddVirtualIntervalToRealWorldTime(realWorldAnchorTime, maxWaitVirtualMsec);
+		if (waitUntil <= now)
+		{
+			getStats().cacheReadTimeouts.increment();
+			future.completeExceptionally(generateAccessOrExceptionException(key, result));
+			return;
+		}
+		
+		final int retries = config.getMaxCacheRemovedRetries();
+		if (attempt > retries)
+		{
+			CacheInternalException attemptsException = new CacheInternalException("Too many attempts [" + retries +"] encountered REMOVED_FROM_CACHE state while reading: " + key);
+			logMessage(WBRBCacheMessage.TOO_MANY_REMOVED_FROM_CACHE_STATE_RETRIES, attemptsException, key, retries);
+			future.completeExceptionally(generateAccessOrExceptionException(key, NullableOptional.emptyWithException(attemptsException)));
+			return;
+		}
+		
+		WBRBCacheEntry cacheEntry = inflightMap.get(key);
+		if (cacheEntry == null)
+		{
+			// Entry was removed concurrently, try again
+			internalReadAsync(key, realWorldAnchorTime, maxWaitVirtualMsec, future, attempt + 1);
+			return;
+		}
+		
+		if (attempt == 0)
+		{
+			// Schedule timeout (only on the first attempt, subsequent ones share the deadline)
+			try
+			{
+				ScheduledFuture<?> timeoutTask = asyncReadExecutor.schedule(() -> {
+					if (future.isDone())
+						return;
+					
+					try
+					{
+						NullableOptional<V> lastResult = internalRead(key, realWorldAnchorTime, -1);
+						if (lastResult.isPresent())
+							future.complete(lastResult.get());
+						else
+						{
+							getStats().cacheReadTimeouts.increment();
+							future.completeExceptionally(generateAccessOrExceptionException(key, lastResult));
+						}
+					} catch (Throwable e)
+					{
+						future.completeExceptionally(e);
+					}
+				}, waitUntil - now, TimeUnit.MILLISECONDS);
+				
+				future.whenComplete((v, e) -> timeoutTask.cancel(false));
+			} catch (RejectedExecutionException e)
+			{
+				future.completeExceptionally(new CacheControlStateException(commonNamingPrefix, "cache was shutdown already, operation cannot be performed"));
+				return;
+			}
+		}
+		
+		// Next attempt when initial read result is known
+		cacheEntry.addAccessLatchListener(() -> 
+			executeAsyncRead(future, () -> internalReadAsync(key, realWorldAnchorTime, maxWaitVirtualMsec, future, attempt + 1)));
+	}
+	
+	/**
+	 * Executes given async read code in {@link #asyncReadExecutor}; any 
+	 * exception thrown by the code (or failure to execute it) is used to 
+	 * complete the given future exceptionally.
+	 */
+	protected void executeAsyncRead(CompletableFuture<V> future, Runnable code)
+	{
+		try
+		{
+			asyncReadExecutor.execute(() -> {
+				try
+				{
+					code.run();
+				} catch (Throwable e)
+				{
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e)
+		{
+			future.completeExceptionally(new CacheControlStateException(commonNamingPrefix, "cache was shutdown already, operation cannot be performed"));
+		}
+	}
+	
+	/**
+	 * Checks whether given method (declared in this class) is overridden 
+	 * by the actual (sub)class of this cache instance.
+	 * 
+	 * @param parameterTypes method parameter types (as erased in this class)
+	 */
+	protected boolean isMethodOverridden(String methodName, Class<?>... parameterTypes)
+	{
+		for (Class<?> clazz = getClass(); clazz != WriteBehindResyncInBackgroundCache.class; clazz = clazz.getSuperclass())
+		{
+			try
+			{
+				nn(clazz).getDeclaredMethod(methodName, parameterTypes);
+				return true; // declared in subclass, so it is overridden (for generic parameters subclass also gets a bridge method with erased types)
+			} catch (NoSuchMethodException e)
+			{
+				// not declared in this class, check parent
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Attempts to read cached value without taking any lock (if {@link WBRBConfig#isOptimisticReads()}
+	 * was enabled when entry was created).
+	 * <p>
+	 * This only succeeds if entry is in {@link WBRBCacheEntryReadStatus#DATA_READY}
+	 * state and no write lock was taken on the entry during the read; in this
+	 * case {@link #spiReadLockMakeCacheReadDecision(Object, WBRBCacheEntry, WBRBCachePayload)}
+	 * is NOT invoked (therefore lock-free reads are not used at all if that
+	 * method is overridden, see {@link #optimisticReadsSupported}).
+	 * <p>
+	 * NOTE: {@link #spiSomeLockConvertFromCacheFormat(Object, Object, WBRBCacheEntry, WBRBCachePayload)}
+	 * may be invoked while cached data is being modified concurrently -- result
+	 * (or exception) is discarded in this case, but conversion must not have
+	 * side effects.
+	 * 
+	 * @return null if lock-free read is not possible (caller must use the
+	 * 		standard locking path), otherwise optional with the value
+	 */
+	@Nullable
+	protected NullableOptional<V> haveNoLock_TryOptimisticRead(K key, WBRBCacheEntry cacheEntry)
+		throws InterruptedException
+	{
+		StampedLock optimisticReadLock = cacheEntry.getOptimisticReadLock();
+		if (optimisticReadLock == null)
+			return null;
+		
+		long stamp = optimisticReadLock.tryOptimisticRead();
+		if (stamp == 0)
+			return null; // write is in progress
+		
+		final WBRBCachePayload payload;
+		final V result;
+		try
+		{
+			payload = cacheEntry.getPayload();
+			if (payload.getReadStatus() != WBRBCacheEntryReadStatus.DATA_READY)
+				return null;
+			
+			result = spiSomeLockConvertFromCacheFormat(key, payload.getValue(), cacheEntry, payload);
+		} catch (Exception e)
+		{
+			if (e instanceof InterruptedException)
+				throw (InterruptedException)e;
+			
+			// Most likely due to concurrent modification; in any case standard
+			// locking path will process (and log) this properly
+			return null; 
+		}
+		
+		if (!optimisticReadLock.validate(stamp))
+			return null; // data was (possibly) modified concurrently
+		
+		payload.setLastReadTimestamp(timeNow()); // this is volatile
+		
+		NullableOptional<V> resultOptional = NullableOptional.of(result);
+		
+		// Event notification
+		wrappedSpiUnknownLock_Event(WBRBEvent.CACHE_READ, key, cacheEntry, payload, null, resultOptional);								
+		
+		return resultOptional;
+	}
+	
 	// CCC comment
 	protected WBRBCacheAccessDecision spiReadLockMakeCacheReadDecision(K key, WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
 		throws InterruptedException
@@ -5889,6 +10228,8 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 			case REMOVED_FROM_CACHE:
 				return WBRBCacheAccessDecision_REMOVED_FROM_CACHE;
 			case READ_FAILED_FINAL:
+				if (payload.isStorageDataAbsent())
+					return new WBRBCacheAccessDecision(false, new CacheElementAbsentException(commonNamingPrefix, key));
 				return new WBRBCacheAccessDecision(false, new CacheElementFailedLoadingException(commonNamingPrefix, key));
 			case DATA_READY_RESYNC_FAILED_FINAL:
 				// Do this without guarding the invocation because there isn't much we can do about exception
@@ -5963,12 +10304,12 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		boolean success = false;
 		try
 		{
-			getStats().cacheWriteAttempts.incrementAndGet();
+			getStats().cacheWriteAttempts.increment();
 			
 			NullableOptional<V> result = internalWriteIfCached0(key, update, produceReadResult);
 			
 			if (!result.isPresent())
-				getStats().cacheWriteElementNotPresentCount.incrementAndGet();
+				getStats().cacheWriteElementNotPresentCount.increment();
 			
 			success = true;
 			return result;
@@ -5976,7 +10317,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		finally
 		{
 			if (!success)
-				getStats().cacheWriteErrors.incrementAndGet();
+				getStats().cacheWriteErrors.increment();
 		}
 	}
 	
@@ -6011,7 +10352,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		
 		if (nullable(key) == null)
 		{
-			getStats().checkCacheNullKeyCount.incrementAndGet();
+			getStats().checkCacheNullKeyCount.increment();
 			throw new IllegalArgumentException("Key must not be null.");
 		}
 		
@@ -6047,6 +10388,9 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 				if (cacheEntry == null)
 					return NullableOptional.empty();
 				
+				if (haveNoLock_ExpireNegativeCacheEntryIfStale(cacheEntry))
+					continue; // stale negative cache entry was removed, so element is no longer cached
+				
 				// return values:
 				// null -- element was removed from cache
 				// exception is set -- write failed, re-throw the exception
@@ -6094,7 +10438,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 							}
 							
 							S newCachedData = resultOptional.get();
-							payload.setValue(newCachedData); // update cached value
+							haveWriteLock_SetCachedValue(key, cacheEntry, payload, newCachedData); // update cached value
 							
 							// Event notification
 							wrappedSpiUnknownLock_Event(WBRBEvent.CACHE_WRITE, key, cacheEntry, payload, null, fakeNonNull(update));								
@@ -6114,7 +10458,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 									CacheIllegalStateException collectException = collectResult.get();
 									if (collectException != null)
 									{
-										getStats().cacheWriteTooManyUpdates.incrementAndGet();
+										getStats().cacheWriteTooManyUpdates.increment();
 										logMessage(WBRBCacheMessage.TOO_MANY_CACHE_ELEMENT_UPDATES, collectException, key);
 										wrappedSpiWriteLockUpdates_reset(WBRBUpdatesResetReason.UPDATE_COLLECT_EXCEPTION, false, key, cacheEntry, payload);
 									}
@@ -6253,6 +10597,8 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 			case REMOVED_FROM_CACHE:
 				return WBRBCacheAccessDecision_REMOVED_FROM_CACHE;
 			case READ_FAILED_FINAL:
+				if (payload.isStorageDataAbsent())
+					return new WBRBCacheAccessDecision(false, new CacheElementAbsentException(commonNamingPrefix, key));
 				return new WBRBCacheAccessDecision(false, new CacheElementFailedLoadingException(commonNamingPrefix, key));
 			case DATA_READY_RESYNC_FAILED_FINAL:
 				// Do this without guarding the invocation and handle it on a higher level
@@ -6359,6 +10705,19 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 	}
 	
 	
+	/**
+	 * Wakes up all main and return queue processing threads that are waiting
+	 * for queue items to become due (so that e.g. change to flushing mode
+	 * is noticed immediately).
+	 */
+	protected void wakeUpQueueProcessingThreads()
+	{
+		for (WBRBDeadlineBucketQueue queue : mainQueues)
+			queue.wakeUp();
+		for (WBRBDeadlineBucketQueue queue : returnQueues)
+			queue.wakeUp();
+	}
+	
 	/**
 	 * Checks whether the cache is currently flushing -- this can be caused by
 	 * e.g. shutdown or flush operations.
@@ -6478,11 +10837,29 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 				throw new CacheControlStateException(commonNamingPrefix, "cache cannot be shutdown because it has been shutdown already.");
 		}
 		
+		final WBRBCacheControlState previousControlState = controlState.get();
+		
+		// Snapshot must be written before data starts spooling down -- which
+		// may start as soon as queue processors notice shutdown flag (never-started 
+		// cache has nothing worth saving)
+		if ((previousControlState != WBRBCacheControlState.NOT_STARTED) && config.isSnapshotOnShutdownOrFlush())
+		{
+			try
+			{
+				guardedWriteSnapshot();
+			} catch (InterruptedException e)
+			{
+				throw new WAInterruptedException(e);
+			}
+		}
+		
 		// shutdown flag is one-way street, so we do not care if someone managed to change the value concurrently
 		controlState.set(WBRBCacheControlState.SHUTDOWN_IN_PROGRESS); // set shutdown flag, everything should start spooling down ASAP
 		
 		logMessage(WBRBCacheMessage.SHUTDOWN_REQUESTED, null);
 		
+		wakeUpQueueProcessingThreads(); // so that queued items are processed without further waiting
+		
 		try
 		{
 			// Initial delay after shutdown flag is set to ensure all further operations are prevented
@@ -6525,14 +10902,26 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 			// Shutdown all the threads
 			this.readQueueProcessingThread.exitAsap();
 			this.writeQueueProcessingThread.exitAsap();
-			this.mainQueueProcessingThread.exitAsap();
-			this.returnQueueProcessingThread.exitAsap();
+			for (ExitableThread thread : mainQueueProcessingThreads)
+				thread.exitAsap();
+			for (ExitableThread thread : returnQueueProcessingThreads)
+				thread.exitAsap();
 			
 			if (writeThreadPool != null)
 				writeThreadPool.shutdown();
 			if (readThreadPool != null)
 				readThreadPool.shutdown();
 			
+			// Run whatever async reads tasks are pending (mostly timeouts) so
+			// that async readers are not left hanging -- these will fail 
+			// because cache is being shutdown
+			for (Runnable task : asyncReadExecutor.shutdownNow())
+				task.run();
+			
+			// Periodic snapshots are no longer needed (final snapshot is written during spooldown)
+			if (snapshotExecutor != null)
+				snapshotExecutor.shutdownNow();
+			
 			logMessage(WBRBCacheMessage.SHUTDOWN_COMPLETED, null, inflightMap.size());
 			
 			return fullSpooldown;
@@ -6600,6 +10989,19 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 				throw new CacheControlStateException(commonNamingPrefix, "cache cannot be flushed because it has been shutdown already.");
 		}
 		
+		// Snapshot must be written before data starts spooling down -- which
+		// may start as soon as queue processors notice flush flag
+		if (config.isSnapshotOnShutdownOrFlush())
+		{
+			try
+			{
+				guardedWriteSnapshot();
+			} catch (InterruptedException e)
+			{
+				throw new WAInterruptedException(e);
+			}
+		}
+		
 		if (!controlState.compareAndSet(WBRBCacheControlState.RUNNING, WBRBCacheControlState.FLUSHING))
 			throw new CacheControlStateException(commonNamingPrefix, "cache cannot be flushed because its control state was changed concurrently.");
 
@@ -6608,6 +11010,8 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 		{
 			logMessage(WBRBCacheMessage.FLUSH_REQUESTED, null);
 			
+			wakeUpQueueProcessingThreads(); // so that queued items are processed without further waiting
+			
 			// Initial delay after flush flag is set to ensure all further operations are prevented
 			Thread.sleep(timeRealWorldInterval(
 				Math.min(Math.max(maxWaitVirtualMsec, 10), // minimum 10 ms 
@@ -6745,6 +11149,21 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 						return Boolean.TRUE;
 				}
 			};
+			Function<@Nonnull ExitableThread @Nonnull[], @Nonnull Boolean> allThreadsAlive = new Function<@Nonnull ExitableThread @Nonnull[], @Nonnull Boolean>()
+			{
+				@Override
+				public Boolean apply(@Nonnull ExitableThread @Nonnull[] threads)
+				{
+					boolean alive = true;
+					for (ExitableThread t : threads)
+					{
+						if (!resetEverythingAliveIfThreadIsDead.apply(t)) // always check all threads
+							alive = false;
+					}
+					
+					return alive;
+				}
+			};
 			Function<@Nullable WAThreadPoolExecutor, @Nonnull Boolean> resetEverythingAliveIfPoolIsDead = new Function<@Nullable WAThreadPoolExecutor, @Nonnull Boolean>()
 			{
 				@Override
@@ -6795,6 +11214,22 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 			
 			WBRBCacheControlState currentControlState = getControlState();
 			
+			// Latency histograms are reset after reporting if reset interval has passed
+			final long latencyHistogramsSince = cacheStats.latencyHistogramsLastResetAt.get();
+			final boolean resetLatencyHistograms;
+			{
+				long resetInterval = config.getLatencyHistogramsResetInterval();
+				resetLatencyHistograms = (resetInterval > 0) && (latencyHistogramsSince > 0) 
+					&& (timeGapVirtual(latencyHistogramsSince, now) >= resetInterval);
+				if (resetLatencyHistograms)
+					cacheStats.latencyHistogramsLastResetAt.set(now);
+			}
+			WBRBLatencySnapshot readForLatency = cacheStats.readForLatency.snapshot(resetLatencyHistograms);
+			WBRBLatencySnapshot writeLockWaitLatency = cacheStats.writeLockWaitLatency.snapshot(resetLatencyHistograms);
+			WBRBLatencySnapshot storageReadLatency = cacheStats.storageReadLatency.snapshot(resetLatencyHistograms);
+			WBRBLatencySnapshot storageWriteLatency = cacheStats.storageWriteLatency.snapshot(resetLatencyHistograms);
+			WBRBLatencySnapshot mainQueueTimeLatency = cacheStats.mainQueueTimeLatency.snapshot(resetLatencyHistograms);
+			
 			long[] lastTimestampMsgPerSeverityOrdinal = new long[cacheStats.lastTimestampMsgPerSeverityOrdinal.length];
 			@Nullable String[] lastLoggedTextMsgPerSeverityOrdinal = new @Nullable String[lastTimestampMsgPerSeverityOrdinal.length];
 			for (int i = 0; i < lastTimestampMsgPerSeverityOrdinal.length; i++)
@@ -6856,8 +11291,15 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 				logMessage(WBRBCacheMessage.ASSERTION_FAILED, new Exception("stack trace"), "code should not be reachable");
 			}
 			
-			AtomicLong[] fullCyclesMonitor = cacheStats.fullCycleCountThresholdCounters;
-			AtomicLong[] timeSinceLastAccessMonitor = cacheStats.timeSinceLastAccessThresholdCounters;
+			long mainQueueSize = 0;
+			for (WBRBDeadlineBucketQueue queue : mainQueues)
+				mainQueueSize += queue.size();
+			long returnQueueSize = 0;
+			for (WBRBDeadlineBucketQueue queue : returnQueues)
+				returnQueueSize += queue.size();
+			
+			WBRBStatsCounter[] fullCyclesMonitor = cacheStats.fullCycleCountThresholdCounters;
+			WBRBStatsCounter[] timeSinceLastAccessMonitor = cacheStats.timeSinceLastAccessThresholdCounters;
 			
 			WBRBStatus status = WBRBStatusBuilder
 				.statusCreatedAt(now)
@@ -6868,8 +11310,8 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 				
 				.readQueueProcessingThreadAlive(resetEverythingAliveIfThreadIsDead.apply(   readQueueProcessingThread))
 				.writeQueueProcessingThreadAlive(resetEverythingAliveIfThreadIsDead.apply(  writeQueueProcessingThread))
-				.mainQueueProcessingThreadAlive(resetEverythingAliveIfThreadIsDead.apply(   mainQueueProcessingThread))
-				.returnQueueProcessingThreadAlive(resetEverythingAliveIfThreadIsDead.apply( returnQueueProcessingThread))
+				.mainQueueProcessingThreadAlive(allThreadsAlive.apply(   mainQueueProcessingThreads))
+				.returnQueueProcessingThreadAlive(allThreadsAlive.apply( returnQueueProcessingThreads))
 				.readThreadPoolAlive(resetEverythingAliveIfPoolIsDead.apply(  readThreadPool))
 				.writeThreadPoolAlive(resetEverythingAliveIfPoolIsDead.apply( writeThreadPool))
 				.readThreadPoolActiveThreads( readThreadPool == null  ? -1 : nn(readThreadPool).getActiveCount())
@@ -6877,8 +11319,8 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 				.everythingAlive(everythingAlive.isTrue())
 				
 				.currentCacheSize(inflightMap.mappingCount())
-				.mainQueueSize(mainQueue.size())
-				.returnQueueSize(returnQueue.size())
+				.mainQueueSize(mainQueueSize)
+				.returnQueueSize(returnQueueSize)
 				.readQueueSize(readQueue.size())
 				.writeQueueSize(writeQueue.size())
 				
@@ -6902,11 +11344,14 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 				.storageReadInitialAttempts(storageReadInitialAttempts)
 				.storageReadInitialSuccesses(storageReadInitialSuccesses)
 				.storageReadInitialFailures(storageReadInitialFailures)
+				.latencyHistogramsSince(latencyHistogramsSince)
+				.latencyStorageRead(WBRBLatencyStatus.fromSnapshot(storageReadLatency))
 				
 				.storageWriteQueueProcessedItems(cacheStats.storageWriteQueueProcessedItems.get())
 				.storageWriteAttempts(cacheStats.storageWriteAttempts.get())
 				.storageWriteSuccesses(cacheStats.storageWriteSuccesses.get())
 				.storageWriteFailures(cacheStats.storageWriteFailures.get())
+				.latencyStorageWrite(WBRBLatencyStatus.fromSnapshot(storageWriteLatency))
 				
 				.mainQueueProcessedItems(cacheStats.mainQueueProcessedItems.get())
 				.mainQueueLastItemInQueueDurationMs(cacheStats.mainQueueLastItemInQueueDurationMs.get())
@@ -6915,6 +11360,7 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 				.mainQueueRemovedFromCacheCount(cacheStats.mainQueueRemovedFromCacheCount.get())
 				.mainQueueRequeueToMainQueueCount(cacheStats.mainQueueRequeueToMainQueueCount.get())
 				.mainQueueNotAllOkCount(cacheStats.mainQueueNotAllOkCount.get())
+				.latencyMainQueueTime(WBRBLatencyStatus.fromSnapshot(mainQueueTimeLatency))
 				
 				.returnQueueProcessedItems(cacheStats.returnQueueProcessedItems.get())
 				.returnQueueLastItemInQueueDurationMs(cacheStats.returnQueueLastItemInQueueDurationMs.get())
@@ -6940,11 +11386,13 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 				.cacheReadTimeouts(cacheStats.cacheReadTimeouts.get())
 				.cacheReadInterrupts(cacheStats.cacheReadInterrupts.get())
 				.cacheReadErrors(cacheStats.cacheReadErrors.get())
+				.latencyReadFor(WBRBLatencyStatus.fromSnapshot(readForLatency))
 				
 				.cacheWriteAttempts(cacheStats.cacheWriteAttempts.get())
 				.cacheWriteElementNotPresentCount(cacheStats.cacheWriteElementNotPresentCount.get())
 				.cacheWriteErrors(cacheStats.cacheWriteErrors.get())
 				.cacheWriteTooManyUpdates(cacheStats.cacheWriteTooManyUpdates.get())
+				.latencyWriteLockWait(WBRBLatencyStatus.fromSnapshot(writeLockWaitLatency))
 				
 				.msgWarnCount(msgWarnCount)
 				.msgExternalWarnCount(msgExternalWarnCount)
@@ -6978,6 +11426,20 @@ public abstract class WriteBehindResyncInBackgroundCache<@Nonnull K, V, S, R, W,
 				.timeSinceAccessThreshold5(timeSinceLastAccessMonitor[4].get())
 				.timeSinceAccessThresholdAboveAllThresholds(timeSinceLastAccessMonitor[5].get())
 				
+				.configMaxCacheWeightHardLimit(config.getMaxCacheWeightHardLimit())
+				.configMainQueueMaxTargetWeight(config.getMainQueueMaxTargetWeight())
+				.currentCacheWeight(getCacheWeight())
+				
+				.mainQueueCoalescedWrites(cacheStats.mainQueueCoalescedWrites.get())
+				.currentMainQueueCacheTimeMs(getEffectiveMainQueueCacheTime())
+				.storageReadInitialAbsent(cacheStats.storageReadInitialAbsent.get())
+				
+				.readRefreshQueueSize(refreshReadQueue.size())
+				.storageReadRefreshDropped(cacheStats.storageReadRefreshDropped.get())
+				.cacheWriteCombinedUpdates(cacheStats.cacheWriteCombinedUpdates.get())
+				.storageWriteOptimisticSuccesses(cacheStats.storageWriteOptimisticSuccesses.get())
+				.storageWriteOptimisticConflicts(cacheStats.storageWriteOptimisticConflicts.get())
+				
 				.buildWBRBStatus();
 			
 			cachedStatus = status; // cache status
@@ -17,18 +17,23 @@ package io.github.solf.extra2.concurrent;
 
 import static io.github.solf.extra2.util.NullUtil.nn;
 
+import java.lang.reflect.Method;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 
+import io.github.solf.extra2.concurrent.exception.WAInterruptedException;
+
 /**
  * A 'better' version of {@link Executors}.
  * 
@@ -48,6 +53,30 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 @NonNullByDefault
 public class WAExecutors
 {
+    /**
+     * Methods needed to create virtual thread factory: Thread.ofVirtual(),
+     * Thread.Builder.name(String, long), Thread.Builder.factory(); null if
+     * virtual threads are not supported by the current JVM.
+     */
+    @Nullable
+    private static final Method[] virtualThreadBuilderMethods;
+    static
+    {
+        Method[] methods;
+        try
+        {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            methods = new Method[] {
+                Thread.class.getMethod("ofVirtual"),
+                builderClass.getMethod("name", String.class, long.class),
+                builderClass.getMethod("factory"),
+            };
+        } catch (Exception e)
+        {
+            methods = null; // not supported
+        }
+        virtualThreadBuilderMethods = methods;
+    }
 
     static class FinalizableWAThreadPoolExecutor
         extends WAThreadPoolExecutor {
@@ -72,6 +101,75 @@ public class WAExecutors
         }
     }
 
+    /**
+     * Executor that starts a new thread for every task (threads are not
+     * kept around after task completes) and uses {@link Semaphore} to bound
+     * the number of tasks that can execute concurrently -- tasks submitted
+     * when the limit is reached wait for the permit in their own threads
+     * (this only makes sense for cheap threads, i.e. virtual threads).
+     * <p>
+     * {@link #getActiveCount()} reports the number of tasks that are actually
+     * executing (i.e. hold a permit).
+     */
+    static class SemaphoreBoundedWAThreadPoolExecutor
+        extends WAThreadPoolExecutor {
+        /**
+         * Maximum number of tasks that can execute concurrently.
+         */
+        private final int maxConcurrency;
+        
+        /**
+         * Permits for executing tasks.
+         */
+        private final Semaphore permits;
+        
+		/**
+		 * @param maxConcurrency
+		 * @param threadFactory
+		 */
+		public SemaphoreBoundedWAThreadPoolExecutor(int maxConcurrency,
+			@Nonnull ThreadFactory threadFactory)
+		{
+			super(0, Integer.MAX_VALUE, 0L, TimeUnit.MILLISECONDS, threadFactory);
+			
+			if (maxConcurrency <= 0)
+				throw new IllegalArgumentException("maxConcurrency must be positive, got: " + maxConcurrency);
+			
+			this.maxConcurrency = maxConcurrency;
+			this.permits = new Semaphore(maxConcurrency, true/*fair so that tasks are started in order of arrival*/);
+		}
+
+		@Override
+		protected void beforeExecute(@SuppressWarnings("null") Thread t, @SuppressWarnings("null") Runnable r)
+		{
+			super.beforeExecute(t, r);
+			
+			try
+			{
+				permits.acquire();
+			} catch (InterruptedException e)
+			{
+				// Only happens on shutdownNow() -- task is not executed (and
+				// afterExecute(..) is not invoked, so permit is not released).
+				throw new WAInterruptedException(e);
+			}
+		}
+
+		@Override
+		protected void afterExecute(@SuppressWarnings("null") Runnable r, @SuppressWarnings("null") Throwable t)
+		{
+			permits.release();
+			
+			super.afterExecute(r, t);
+		}
+
+		@Override
+		public int getActiveCount()
+		{
+			return maxConcurrency - permits.availablePermits();
+		}
+    }
+
     /**
      * Creates a thread pool that creates new threads as needed, but
      * will reuse previously constructed threads when they are
@@ -272,4 +370,80 @@ public class WAExecutors
         return nn(Executors.newSingleThreadScheduledExecutor(threadFactory));
     }
 
+    /**
+     * Whether current JVM supports virtual threads (Java 21+), see
+     * {@link #newVirtualThreadFactory(String)}
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return virtualThreadBuilderMethods != null;
+    }
+
+    /**
+     * Creates thread factory that produces virtual threads (requires Java 21+);
+     * threads are named with the given prefix followed by a sequence number.
+     * <p>
+     * This library is compiled for Java 8, so virtual threads are accessed
+     * via reflection.
+     * 
+     * @param namePrefix prefix for thread names
+     * @return the newly created thread factory
+     * @throws UnsupportedOperationException if current JVM does not support
+     * 		virtual threads, see {@link #isVirtualThreadsSupported()}
+     */
+    public static ThreadFactory newVirtualThreadFactory(String namePrefix) throws UnsupportedOperationException {
+        final Method[] methods = virtualThreadBuilderMethods;
+        if (methods == null)
+            throw new UnsupportedOperationException("Virtual threads are not supported by the current JVM (Java 21+ is required): " + System.getProperty("java.version"));
+        
+        try
+        {
+            Object builder = methods[0].invoke(null);
+            builder = methods[1].invoke(builder, namePrefix, 0L);
+            return (ThreadFactory)nn(methods[2].invoke(builder));
+        } catch (Exception e)
+        {
+            throw new UnsupportedOperationException("Failed to create virtual thread factory: " + e, e);
+        }
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for every task
+     * (requires Java 21+) and that runs at most {@code maxConcurrency} tasks 
+     * at any given time -- if additional tasks are submitted when limit is 
+     * reached, they wait for a {@link Semaphore} permit in their own virtual
+     * threads (e.g. for bounding concurrency of blocking I/O calls).
+     * <p>
+     * {@link WAThreadPoolExecutor#getActiveCount()} of the returned executor
+     * reports the number of tasks holding a permit.
+     *
+     * @param maxConcurrency maximum number of tasks that can execute concurrently
+     * @param namePrefix prefix for thread names
+     * @return the newly created executor
+     * @throws UnsupportedOperationException if current JVM does not support
+     * 		virtual threads, see {@link #isVirtualThreadsSupported()}
+     * @throws IllegalArgumentException if {@code maxConcurrency <= 0}
+     */
+    public static WAThreadPoolExecutor newVirtualThreadPool(int maxConcurrency, String namePrefix) 
+        throws UnsupportedOperationException, IllegalArgumentException {
+        return newThreadPerTaskExecutor(maxConcurrency, newVirtualThreadFactory(namePrefix));
+    }
+
+    /**
+     * Creates an executor that starts a new thread (using the provided
+     * ThreadFactory) for every task and that runs at most {@code maxConcurrency}
+     * tasks at any given time -- if additional tasks are submitted when limit 
+     * is reached, they wait for a {@link Semaphore} permit in their own threads.
+     * <p>
+     * This is intended for cheap threads, see {@link #newVirtualThreadPool(int, String)}
+     *
+     * @param maxConcurrency maximum number of tasks that can execute concurrently
+     * @param threadFactory the factory to use when creating new threads
+     * @return the newly created executor
+     * @throws IllegalArgumentException if {@code maxConcurrency <= 0}
+     */
+    public static WAThreadPoolExecutor newThreadPerTaskExecutor(int maxConcurrency, 
+        ThreadFactory threadFactory) throws IllegalArgumentException {
+        return new SemaphoreBoundedWAThreadPoolExecutor(maxConcurrency, threadFactory);
+    }
+
 }
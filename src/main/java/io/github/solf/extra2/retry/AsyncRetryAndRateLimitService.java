@@ -0,0 +1,135 @@
+/**
+ * Copyright Sergey Olefir
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.solf.extra2.retry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.Nonnull;
+
+import org.eclipse.jdt.annotation.DefaultLocation;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Version of {@link RetryAndRateLimitService} that processes requests
+ * asynchronously -- implementations provide {@link #processRequestAsync(Object, int)}
+ * instead of {@link #processRequest(Object, int)}
+ * <p>
+ * Request processing thread is not held while asynchronous attempt is in
+ * progress (e.g. while waiting for I/O), thus allowing many more concurrent
+ * requests than there are threads in {@link RRLConfig#getRequestProcessingThreadPoolConfig()};
+ * the attempt outcome is handled by whichever thread completes the returned
+ * stage.
+ * <p>
+ * Each attempt is limited by {@link RRLConfig#getAsyncRequestAttemptTimeout()}
+ * (if configured) -- attempt that doesn't complete in time is cancelled and
+ * is considered failed (with {@link TimeoutException}), so it may be retried.
+ *
+ * @author Sergey Olefir
+ */
+//Exclude TYPE_ARGUMENT as we will allow null return values.
+@NonNullByDefault({DefaultLocation.PARAMETER, DefaultLocation.RETURN_TYPE, DefaultLocation.FIELD, DefaultLocation.TYPE_BOUND, DefaultLocation.ARRAY_CONTENTS})
+public abstract class AsyncRetryAndRateLimitService<@Nonnull Input, Output> extends RetryAndRateLimitService<Input, Output>
+{
+	/**
+	 * Constructor.
+	 */
+	public AsyncRetryAndRateLimitService(RRLConfig config)
+	{
+		super(config);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param eventListener event listener to use; {@link #spiCreateEventListener(RRLConfig, String, ThreadGroup)}
+	 * 		is not used in this case
+	 */
+	public AsyncRetryAndRateLimitService(RRLConfig config, RRLEventListener<Input, Output> eventListener)
+	{
+		super(config, eventListener);
+	}
+	
+	/**
+	 * Delegates to {@link #processRequestAsync(Object, int)}
+	 */
+	@Override
+	protected CompletionStage<Output> spiProcessRequestAsync(
+		RRLEntry<Input, Output> entry, int attemptNumber)
+		throws InterruptedException, Exception
+	{
+		return processRequestAsync(entry.getInput(), attemptNumber);
+	}
+	
+	/**
+	 * Synchronous processing is only used where asynchronous processing is
+	 * not supported (e.g. if {@link #spiProcessRequestAsync(RRLEntry, int)}
+	 * is overridden to return null for some requests) -- delegates to 
+	 * {@link #processRequestAsync(Object, int)} and waits for the result (no longer than {@link RRLConfig#getAsyncRequestAttemptTimeout()}
+	 * if it is configured).
+	 */
+	@Override
+	protected Output processRequest(Input input, int attemptNumber)
+		throws InterruptedException, Exception
+	{
+		CompletableFuture<Output> future = processRequestAsync(input, attemptNumber).toCompletableFuture();
+		
+		try
+		{
+			long timeout = config.getAsyncRequestAttemptTimeout();
+			if (timeout > 0)
+				return future.get(timeRealWorldInterval(timeout), TimeUnit.MILLISECONDS);
+			
+			return future.get();
+		} catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception)
+				throw (Exception)cause; // same as if thrown by the synchronous implementation
+			
+			throw e;
+		} catch (TimeoutException | InterruptedException e)
+		{
+			future.cancel(true);
+			throw e;
+		}
+	}
+	
+	/**
+	 * The actual method that makes an asynchronous request processing attempt.
+	 * <p>
+	 * Returned stage completing exceptionally is treated the same way as
+	 * {@link #processRequest(Object, int)} throwing exception (i.e. it's 
+	 * a failed attempt that may be retried); the same applies to exceptions
+	 * thrown by this method itself.
+	 * <p>
+	 * If returned stage doesn't complete within {@link RRLConfig#getAsyncRequestAttemptTimeout()}
+	 * (if configured), then it is cancelled and attempt is considered failed.
+	 * If timeout is not configured, then implementations must make sure 
+	 * returned stage is eventually completed.
+	 * <p>
+	 * If cancellation is requested ({@link RRLFuture#requestCancellation()})
+	 * while asynchronous attempt is in progress, then it is cancelled via
+	 * {@link CompletableFuture#cancel(boolean)} (if the stage supports 
+	 * {@link CompletionStage#toCompletableFuture()}).
+	 * 
+	 * @param attemptNumber starts at 1
+	 */
+	protected abstract CompletionStage<Output> processRequestAsync(Input input, int attemptNumber) throws InterruptedException, Exception;
+}
@@ -16,6 +16,8 @@
 package io.github.solf.extra2.retry;
 
 import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
 
 import javax.annotation.Nullable;
 
@@ -74,6 +76,18 @@ public class RRLBucket4jFlatRateLimiter implements RRLRateLimiter<Object>
 			return null;
 	}
 
+	@Override
+	public List<Object> obtainTicketsImmediately(int maxCount)
+		throws InterruptedException
+	{
+		if (maxCount <= 0)
+			return Collections.emptyList();
+		
+		long obtained = bucket.tryConsumeAsMuchAsPossible(maxCount);
+		
+		return Collections.nCopies((int)obtained, TICKET_INSTANCE);
+	}
+
 	@Override
 	public void returnUnusedTicket(Object ticket) throws IllegalArgumentException
 	{
@@ -71,6 +71,7 @@ import lombok.Setter;
 	public void requestCancellation()
 	{
 		entry.setCancelRequested(true);
+		entry.cancelInflightAsyncAttempt();
 	}
 
 	@Override
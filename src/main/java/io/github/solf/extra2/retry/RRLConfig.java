@@ -81,6 +81,10 @@ public class RRLConfig extends BaseDelegatingOptions
 	/** Default: 1s; Grace period that allows a 'too long' delay queue to still be used (this accounts for processing delays when delay queue duration is equal to intended delay after an attempt) */
 	@Getter
 	private final long delayQueueTooLongGracePeriod = getRawOptions().getTimeInterval("delayQueueTooLongGracePeriod", "1s");
+	
+	/** Default: false; if enabled, delays are handled by a single delay scheduler thread (backed by java.util.concurrent.DelayQueue ordered by the time when each request is due) instead of the delay queues -- requests are moved to the main queue exactly when due, without being repeatedly re-queued; delayQueues must still be specified (and are validated), but are not used for delaying */
+	@Getter
+	private final boolean useDelayScheduler = getRawOptions().getBoolean("useDelayScheduler", false);
 
 	
 	/** Rate limiter's bucket size [starts empty] (maximum number of available tokens that can be stored); setting this to zero disables rate limiter -- requests are sent for execution asap */
@@ -135,6 +139,34 @@ public class RRLConfig extends BaseDelegatingOptions
 	@Getter
 	private final long mainQueueMaxRequestHandoverWaitTime = getRawOptions().getTimeIntervalPositive("mainQueueMaxRequestHandoverWaitTime", 2000);
 	
+	/** Default: 0; if positive, enables high-throughput dispatch mode: instead of handing over each request to a freshly obtained thread (waiting up to mainQueueMaxRequestHandoverWaitTime for it to become ready), main queue processing places ready-to-execute requests (with tickets already obtained) into a bounded work queue of this size which is consumed by long-lived worker threads (their number is the max size in requestProcessingThreadPoolConfig); with several mainQueueLanes each lane has its own dispatch queue of this size and workers are split between lanes; 0 disables this mode */
+	@Getter
+	private final int requestDispatchQueueSize = getRawOptions().getIntNonNegative("requestDispatchQueueSize", 0);
+	
+	/** Default: 10; in dispatch mode (see requestDispatchQueueSize) up to this many immediately-available tickets are obtained from the rate limiter at once and then used for the subsequent requests; unused tickets are returned when main queue becomes empty or when they were kept for rateLimiterRefillInterval (so that reserved tickets can not be used on top of the refilled rate limiter capacity); 1 disables batching */
+	@Getter
+	private final int requestDispatchTicketBatchSize = getRawOptions().getIntPositive("requestDispatchTicketBatchSize", 10);
+	
+	/** Default: 0 (disabled); time limit for a single asynchronous request processing attempt (see AsyncRetryAndRateLimitService) -- if attempt doesn't complete in time, it is cancelled and treated as a failed attempt (with java.util.concurrent.TimeoutException), so it may be retried; timeouts are tracked by the delay scheduler thread (which is created for this purpose even if useDelayScheduler is disabled) */
+	@Getter
+	private final long asyncRequestAttemptTimeout = getRawOptions().getTimeInterval("asyncRequestAttemptTimeout", 0);
+	
+	/** Default: 1; if over 1, enables batch mode: main queue processing hands over up to this many ready requests (each with its own ticket) to a single processing thread which processes them together via processRequestBatch(..); results and failures are handled (and retried) for each request individually; 1 disables batching; cannot be used together with requestDispatchQueueSize */
+	@Getter
+	private final int requestBatchSize = getRawOptions().getIntPositive("requestBatchSize", 1);
+	
+	/** Default: 10ms; in batch mode (see requestBatchSize) how long at most the batch processing thread waits for more requests before processing incomplete batch (measured from when first request is added to the batch); main queue processing itself does not wait for this */
+	@Getter
+	private final long requestBatchLingerTime = getRawOptions().getTimeInterval("requestBatchLingerTime", "10ms");
+	
+	/** Default: 1; number of main queue lanes -- each lane has its own main queue and main queue processing thread, so that slow ticket waits or thread acquisition in one lane do not delay requests in other lanes; requests are assigned to lanes using key returned by extractMainQueueLaneKey(..) */
+	@Getter
+	private final int mainQueueLanes = getRawOptions().getIntPositive("mainQueueLanes", 1);
+	
+	/** Default: false; if enabled (and there are multiple mainQueueLanes), then each lane uses its own rate limiter (each one created with the rateLimiter* settings), so rate limits apply per lane rather than to the entire service */
+	@Getter
+	private final boolean mainQueueLaneSeparateRateLimiters = getRawOptions().getBoolean("mainQueueLaneSeparateRateLimiters", false);
+	
 	/** Default: 6 (Thread.NORM_PRIORITY + 1); priority to be used for threads processing delay queues */ 
 	@Getter
 	private final int delayQueueProcessingThreadPriority = getRawOptions().getIntPositive("delayQueueProcessingThreadPriority", Thread.NORM_PRIORITY + 1);
@@ -15,6 +15,9 @@
  */
 package io.github.solf.extra2.retry;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.annotation.Nullable;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -40,6 +43,34 @@ public interface RRLRateLimiter<Ticket>
 	@Nullable
 	public Ticket obtainTicket(long maxWaitRealMs) throws InterruptedException;
 	
+	/**
+	 * Obtains up to the given number of processing tickets that are immediately
+	 * available (does not wait).
+	 * <p>
+	 * This is used to obtain tickets in batches (see {@link RRLConfig#getRequestDispatchQueueSize()});
+	 * default implementation simply invokes {@link #obtainTicket(long)} with
+	 * zero wait until either enough tickets are obtained or no more tickets
+	 * are available; implementations are encouraged to override this if they
+	 * can do it more efficiently.
+	 * 
+	 * @return obtained tickets (each can be passed to {@link #returnUnusedTicket(Object)}); 
+	 * 		empty list if no tickets are immediately available
+	 */
+	public default List<Ticket> obtainTicketsImmediately(int maxCount) throws InterruptedException
+	{
+		ArrayList<Ticket> result = new ArrayList<>(Math.min(maxCount, 16));
+		while (result.size() < maxCount)
+		{
+			Ticket ticket = obtainTicket(0);
+			if (ticket == null)
+				break;
+			
+			result.add(ticket);
+		}
+		
+		return result;
+	}
+	
 	/**
 	 * Returns processing ticket if that was not used (e.g. after ticket was
 	 * obtained the decision was still not to proceed with request).
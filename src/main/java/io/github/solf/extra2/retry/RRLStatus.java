@@ -59,7 +59,8 @@ public class RRLStatus
 	private final String serviceControlStateDescription;
 	
 	/**
-	 * Whether thread is alive.
+	 * Whether thread is alive (threads of all lanes if there are several, see
+	 * {@link RRLConfig#getMainQueueLanes()}).
 	 */
 	@Getter
 	private final boolean mainQueueProcessingThreadAlive;
@@ -99,7 +100,7 @@ public class RRLStatus
 	private final int currentProcessingRequestsCount;
 	
 	/**
-	 * Main processing queue size.
+	 * Main processing queue size (total across all lanes).
 	 */
 	@Getter
 	private final int mainQueueSize;
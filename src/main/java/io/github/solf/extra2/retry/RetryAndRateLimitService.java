@@ -20,9 +20,18 @@ import static io.github.solf.extra2.util.NullUtil.nn;
 import static io.github.solf.extra2.util.NullUtil.nnChecked;
 import static io.github.solf.extra2.util.NullUtil.nullable;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -30,6 +39,8 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -155,12 +166,20 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 	
 	
 	/**
-	 * Main requests processing queue.
+	 * Main requests processing queue (of the first lane if there are several
+	 * lanes, see {@link #mainQueueLanes}).
 	 * 
 	 * TO-DO is this the best choice for the queue here?
 	 */
 	protected final LinkedBlockingQueue<RRLEntry<Input, Output>> mainQueue = new LinkedBlockingQueue<>();
 	
+	/**
+	 * Main queue lanes (see {@link RRLConfig#getMainQueueLanes()}); always
+	 * contains at least one lane (the first lane uses {@link #mainQueue}, 
+	 * {@link #mainQueueProcessingThread}, {@link #rateLimiter} and {@link #dispatchQueue}).
+	 */
+	protected final List<RRLMainQueueLane> mainQueueLanes;
+	
 	/**
 	 * Delay queue(s).
 	 * <p>
@@ -170,6 +189,20 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 	 */
 	protected final List<RRLDelayQueueData> delayQueues;
 	
+	/**
+	 * Delay scheduler (see {@link RRLConfig#isUseDelayScheduler()} and
+	 * {@link RRLConfig#getAsyncRequestAttemptTimeout()}) -- this is one of
+	 * the {@link #delayQueues}; null if there's no delay scheduler.
+	 */
+	@Nullable
+	protected final RRLDelayQueueData delayScheduler;
+	
+	/**
+	 * Number of asynchronous attempt timeouts currently scheduled in the
+	 * {@link #delayScheduler} (these are not counted as delayed requests).
+	 */
+	protected final AtomicInteger pendingAsyncAttemptTimeoutsCount = new AtomicInteger(0);
+	
 	
 
 	/**
@@ -178,7 +211,8 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 	protected final ThreadGroup threadGroup;
 	
 	/**
-	 * Thread for processing main queue.
+	 * Thread for processing main queue (of the first lane if there are several
+	 * lanes, see {@link #mainQueueLanes}).
 	 */
 	protected final ExitableThread mainQueueProcessingThread;
 	
@@ -190,7 +224,26 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 	protected final ExecutorService requestsExecutorService;
 	
 	/**
-	 * Rate limiter used by this instance.
+	 * Bounded work queue used in dispatch mode (see {@link RRLConfig#getRequestDispatchQueueSize()})
+	 * (of the first lane if there are several lanes, see {@link #mainQueueLanes});
+	 * requests placed here already have tickets and are consumed by long-lived
+	 * worker threads; null if dispatch mode is not enabled.
+	 */
+	@Nullable
+	protected final BlockingQueue<RRLEntry<Input, Output>> dispatchQueue;
+	
+	/**
+	 * Number of dispatch workers (see {@link #runnableDispatchWorker(BlockingQueue)})
+	 * that are currently idle (waiting for requests in {@link #dispatchQueue});
+	 * these occupy threads in {@link #requestsExecutorService} but are not
+	 * reported as active threads.
+	 */
+	protected final AtomicInteger idleDispatchWorkersCount = new AtomicInteger(0);
+	
+	/**
+	 * Rate limiter used by this instance (by the first lane if there are 
+	 * several lanes and they use separate rate limiters, see 
+	 * {@link RRLConfig#isMainQueueLaneSeparateRateLimiters()}).
 	 */
 	protected final RRLRateLimiter<?> rateLimiter;
 	
@@ -301,6 +354,40 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 		@Getter @Setter
 		private volatile boolean cancelRequested;
 		
+		/**
+		 * Index of the main queue lane this entry belongs to (see
+		 * {@link RRLConfig#getMainQueueLanes()}).
+		 */
+		@Getter @Setter
+		private int lane = 0;
+		
+		/**
+		 * Asynchronous request processing attempt that is currently in progress
+		 * (see {@link RetryAndRateLimitService#spiProcessRequestAsync(RRLEntry, int)});
+		 * null if there's none.
+		 */
+		@Getter @Setter
+		@Nullable
+		private volatile CompletionStage<?> inflightAsyncAttempt;
+		
+		/**
+		 * Attempts to cancel {@link #getInflightAsyncAttempt()} (if any).
+		 */
+		public void cancelInflightAsyncAttempt()
+		{
+			CompletionStage<?> attempt = inflightAsyncAttempt;
+			if (attempt == null)
+				return;
+			
+			try
+			{
+				attempt.toCompletableFuture().cancel(true);
+			} catch (UnsupportedOperationException e)
+			{
+				// stage doesn't support cancelling, nothing to do
+			}
+		}
+		
 		/**
 		 * Time when entry was placed in delay queue, negative values indicate
 		 * it's not in the delay queue.
@@ -417,11 +504,12 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 	/**
 	 * Data for a single delay queue.
 	 */
-	@RequiredArgsConstructor
 	protected class RRLDelayQueueData
 	{
 		/**
-		 * Delay provided by this queue.
+		 * Delay provided by this queue; zero for the delay scheduler (see
+		 * {@link RRLConfig#isUseDelayScheduler()}) as it delays each entry
+		 * exactly as needed.
 		 */
 		@Getter
 		private final long delayMs;
@@ -433,10 +521,42 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 		private final ExitableThread processingThread;
 		
 		/**
-		 * Queue itself.
+		 * Queue itself; null if this is the delay scheduler.
 		 */
+		@Nullable
 		private final LinkedBlockingQueue<RRLEntry<Input, Output>> queue;
 		
+		/**
+		 * Delay scheduler queue (see {@link RRLConfig#isUseDelayScheduler()});
+		 * null for the regular delay queues.
+		 */
+		@Nullable
+		private final DelayQueue<RRLScheduledEntry> scheduledQueue;
+		
+		/**
+		 * Constructor for the regular delay queue.
+		 */
+		public RRLDelayQueueData(long delayMs, ExitableThread processingThread,
+			LinkedBlockingQueue<RRLEntry<Input, Output>> queue)
+		{
+			this.delayMs = delayMs;
+			this.processingThread = processingThread;
+			this.queue = queue;
+			this.scheduledQueue = null;
+		}
+		
+		/**
+		 * Constructor for the delay scheduler (see {@link RRLConfig#isUseDelayScheduler()}).
+		 */
+		public RRLDelayQueueData(ExitableThread processingThread,
+			DelayQueue<RRLScheduledEntry> scheduledQueue)
+		{
+			this.delayMs = 0;
+			this.processingThread = processingThread;
+			this.queue = null;
+			this.scheduledQueue = scheduledQueue;
+		}
+		
 		/**
 		 * Adds item to this delay queue (to be delayed).
 		 * <p>
@@ -448,15 +568,258 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 			
 			entry.setInDelayQueueSince(now);
 			
-			queue.add(entry);
+			DelayQueue<RRLScheduledEntry> sq = scheduledQueue;
+			if (sq != null)
+			{
+				long dueAt = ((entry.getDelayAnchor() < 0) || (entry.getDelayFor() < 0)) ? 
+					now : timeAddVirtualIntervalToRealWorldTime(entry.getDelayAnchor(), entry.getDelayFor());
+				sq.add(new RRLScheduledEntry(entry, dueAt, null));
+			}
+			else
+				nn(queue).add(entry);
+		}
+		
+		/**
+		 * Schedules given action to be executed at the given (real-world)
+		 * timestamp -- only supported by the delay scheduler, used for 
+		 * asynchronous attempt timeouts (see {@link RRLConfig#getAsyncRequestAttemptTimeout()}).
+		 */
+		public void scheduleAsyncAttemptTimeout(RRLEntry<Input, Output> entry, long dueAt, Runnable timeoutAction)
+		{
+			pendingAsyncAttemptTimeoutsCount.incrementAndGet();
+			nn(scheduledQueue).add(new RRLScheduledEntry(entry, dueAt, timeoutAction));
+		}
+		
+		/**
+		 * Whether this is the delay scheduler (see {@link RRLConfig#isUseDelayScheduler()}).
+		 */
+		public boolean isDelayScheduler()
+		{
+			return scheduledQueue != null;
 		}
 		
 		/**
-		 * Gets queue size.
+		 * Gets queue size (not including scheduled asynchronous attempt timeouts).
 		 */
 		public int size()
 		{
-			return queue.size();
+			DelayQueue<RRLScheduledEntry> sq = scheduledQueue;
+			if (sq != null)
+				return Math.max(0, sq.size() - pendingAsyncAttemptTimeoutsCount.get());
+			
+			return nn(queue).size();
+		}
+	}
+	
+	/**
+	 * Data for a single main queue lane (see {@link RRLConfig#getMainQueueLanes()}).
+	 */
+	@RequiredArgsConstructor
+	protected class RRLMainQueueLane
+	{
+		/**
+		 * Lane index (starting with 0).
+		 */
+		@Getter
+		private final int index;
+		
+		/**
+		 * Main queue of this lane.
+		 */
+		@Getter
+		private final LinkedBlockingQueue<RRLEntry<Input, Output>> queue;
+		
+		/**
+		 * Processing thread.
+		 */
+		@Getter
+		private final ExitableThread processingThread;
+		
+		/**
+		 * Rate limiter used by this lane.
+		 */
+		@Getter
+		private final RRLRateLimiter<?> rateLimiter;
+		
+		/**
+		 * Dispatch queue of this lane (see {@link RRLConfig#getRequestDispatchQueueSize()})
+		 * -- each lane has its own dispatch queue and its own dispatch workers,
+		 * so that a full dispatch queue in one lane doesn't block request
+		 * handover in other lanes; null if dispatch mode is not enabled.
+		 */
+		@Getter
+		@Nullable
+		private final BlockingQueue<RRLEntry<Input, Output>> dispatchQueue;
+		
+		/**
+		 * Tickets that were obtained in a batch (in dispatch mode) but were not
+		 * yet used (in the order they were obtained in); only accessed by this 
+		 * lane's processing thread.
+		 */
+		@Getter
+		private final ArrayDeque<RRLReservedTicket> dispatchTicketReserve = new ArrayDeque<>();
+	}
+	
+	/**
+	 * Ticket in {@link RRLMainQueueLane#getDispatchTicketReserve()}
+	 */
+	@RequiredArgsConstructor
+	@ToString
+	protected class RRLReservedTicket
+	{
+		/**
+		 * Actual ticket (as obtained from the rate limiter).
+		 */
+		@Getter
+		private final Object ticket;
+		
+		/**
+		 * Real-world timestamp when ticket was obtained, used to expire
+		 * tickets that were kept in reserve for too long, see
+		 * {@link RetryAndRateLimitService#expireDispatchTicketReserve(RRLMainQueueLane)}
+		 */
+		@Getter
+		private final long obtainedAt;
+	}
+	
+	/**
+	 * Batch of requests in batch mode (see {@link RRLConfig#getRequestBatchSize()})
+	 * -- main queue processing adds entries to the batch without waiting and
+	 * the thread that processes the batch waits for the batch to be completed
+	 * (either filled up or linger time expired, see {@link RRLConfig#getRequestBatchLingerTime()}).
+	 */
+	protected class RRLRequestBatch
+	{
+		/**
+		 * Entries in this batch.
+		 */
+		private final ArrayList<RRLEntry<Input, Output>> entries = new ArrayList<>(config.getRequestBatchSize());
+		
+		/**
+		 * Real-world timestamp until which batch accepts more entries; -1 until
+		 * the first entry is added.
+		 */
+		private long lingerUntil = -1;
+		
+		/**
+		 * Whether batch is complete (no more entries can be added).
+		 */
+		private boolean closed = false;
+		
+		/**
+		 * Adds entry to this batch (closing it if batch becomes full).
+		 * 
+		 * @return true if entry was added; false if batch is already closed
+		 */
+		public synchronized boolean add(RRLEntry<Input, Output> entry)
+		{
+			if (closed)
+				return false;
+			
+			if (entries.isEmpty())
+				lingerUntil = timeAddVirtualIntervalToRealWorldTime(timeNow(), config.getRequestBatchLingerTime());
+			
+			entries.add(entry);
+			if (entries.size() >= config.getRequestBatchSize())
+				closed = true;
+			
+			notifyAll();
+			return true;
+		}
+		
+		/**
+		 * Whether batch is complete (no more entries can be added).
+		 */
+		public synchronized boolean isClosed()
+		{
+			return closed;
+		}
+		
+		/**
+		 * Closes batch (if it wasn't already closed) so that no more entries
+		 * can be added.
+		 * 
+		 * @return entries in the batch
+		 */
+		public synchronized List<RRLEntry<Input, Output>> close()
+		{
+			closed = true;
+			notifyAll();
+			
+			return entries;
+		}
+		
+		/**
+		 * Waits until batch is complete -- it is either filled up, closed 
+		 * explicitly, or linger time has expired since the first entry was
+		 * added (in which case batch is closed by this method).
+		 */
+		public synchronized void awaitCompletion()
+			throws InterruptedException
+		{
+			while (!closed)
+			{
+				if (lingerUntil < 0)
+				{
+					wait(); // no entries yet
+					continue;
+				}
+				
+				long remaining = lingerUntil - timeNow();
+				if (remaining <= 0)
+				{
+					closed = true;
+					break;
+				}
+				
+				wait(remaining);
+			}
+		}
+	}
+	
+	/**
+	 * Entry in the delay scheduler (see {@link RRLConfig#isUseDelayScheduler()})
+	 * -- ordered by the (real-world) timestamp when it is due for processing.
+	 */
+	@RequiredArgsConstructor
+	@ToString
+	protected class RRLScheduledEntry implements Delayed
+	{
+		/**
+		 * Delayed entry.
+		 */
+		@Getter
+		private final RRLEntry<Input, Output> entry;
+		
+		/**
+		 * Real-world timestamp when entry is due for processing.
+		 */
+		@Getter
+		private final long dueAt;
+		
+		/**
+		 * If not null, then this is not a delayed entry, but rather a timeout
+		 * for the entry's asynchronous attempt (see {@link RRLConfig#getAsyncRequestAttemptTimeout()})
+		 * -- this action is executed when due (instead of moving the entry to
+		 * the main queue).
+		 */
+		@Getter
+		@Nullable
+		private final Runnable asyncAttemptTimeoutAction;
+
+		@Override
+		public long getDelay(TimeUnit unit)
+		{
+			return unit.convert(dueAt - timeNow(), TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed o)
+		{
+			if (o instanceof RetryAndRateLimitService.RRLScheduledEntry)
+				return Long.compare(dueAt, ((RetryAndRateLimitService<?, ?>.RRLScheduledEntry)o).getDueAt());
+			
+			return Long.compare(getDelay(TimeUnit.MILLISECONDS), o.getDelay(TimeUnit.MILLISECONDS));
 		}
 	}
 	
@@ -496,12 +859,30 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 		this.eventListener = eventListener != null ? eventListener : 
 			spiCreateEventListener(config, commonNamingPrefix, threadGroup);
 		
-		this.mainQueueProcessingThread = createMainQueueProcessor(config, commonNamingPrefix, threadGroup);
+		this.rateLimiter = spiCreateRateLimiter(config, commonNamingPrefix, threadGroup);
+		
+		this.mainQueueLanes = createMainQueueLanes(config, commonNamingPrefix, threadGroup);
+		this.mainQueueProcessingThread = mainQueueLanes.get(0).getProcessingThread();
 		this.delayQueues = createDelayQueues(config, commonNamingPrefix, threadGroup);
+		{
+			RRLDelayQueueData scheduler = null;
+			for (RRLDelayQueueData dq : delayQueues)
+			{
+				if (dq.isDelayScheduler())
+					scheduler = dq;
+			}
+			this.delayScheduler = scheduler;
+		}
+		if ((this.delayScheduler == null) && (config.getAsyncRequestAttemptTimeout() > 0))
+			throw new IllegalStateException("asyncRequestAttemptTimeout requires delay scheduler, but createDelayQueues(..) didn't create one.");
 		
 		this.requestsExecutorService = spiCreateRequestProcessingExecutorService(config, commonNamingPrefix, threadGroup);
 		
-		this.rateLimiter = spiCreateRateLimiter(config, commonNamingPrefix, threadGroup);
+		this.dispatchQueue = mainQueueLanes.get(0).getDispatchQueue();
+		if ((this.dispatchQueue != null) && (config.getRequestBatchSize() > 1))
+			throw new IllegalStateException("requestDispatchQueueSize and requestBatchSize (over 1) cannot be used together, got: " + config.getRequestDispatchQueueSize() + " and " + config.getRequestBatchSize());
+		if ((this.dispatchQueue != null) && (config.getRequestProcessingThreadPoolConfig().get(1) < mainQueueLanes.size()))
+			throw new IllegalStateException("In dispatch mode each main queue lane needs at least one dispatch worker, so max size in requestProcessingThreadPoolConfig must not be less than mainQueueLanes, got: " + config.getRequestProcessingThreadPoolConfig() + " and " + mainQueueLanes.size());
 	}
 	
 	
@@ -772,19 +1153,52 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 	}
 	
 	/**
-	 * Creates main queue processor thread.
+	 * Creates main queue lanes (see {@link RRLConfig#getMainQueueLanes()}).
+	 * <p>
+	 * The first lane always uses {@link #mainQueue} and {@link #rateLimiter};
+	 * other lanes use the same {@link #rateLimiter} unless 
+	 * {@link RRLConfig#isMainQueueLaneSeparateRateLimiters()} is set.
+	 */
+	@SuppressWarnings("hiding")
+	protected List<RRLMainQueueLane> createMainQueueLanes(RRLConfig config, String commonNamingPrefix, ThreadGroup threadGroup)
+	{
+		int laneCount = config.getMainQueueLanes();
+		
+		ArrayList<RRLMainQueueLane> lanes = new ArrayList<>(laneCount);
+		for (int i = 0; i < laneCount; i++)
+		{
+			LinkedBlockingQueue<RRLEntry<Input, Output>> queue = (i == 0) ? mainQueue : new LinkedBlockingQueue<>();
+			
+			RRLRateLimiter<?> laneRateLimiter = ((i == 0) || !config.isMainQueueLaneSeparateRateLimiters()) ?
+				rateLimiter : spiCreateRateLimiter(config, commonNamingPrefix + " Lane " + i, threadGroup);
+			
+			ExitableThread thread = createMainQueueProcessor(config, commonNamingPrefix, threadGroup, i);
+			
+			BlockingQueue<RRLEntry<Input, Output>> laneDispatchQueue = config.getRequestDispatchQueueSize() > 0 ?
+				new ArrayBlockingQueue<>(config.getRequestDispatchQueueSize()) : null;
+			
+			lanes.add(new RRLMainQueueLane(i, queue, thread, laneRateLimiter, laneDispatchQueue));
+		}
+		
+		return lanes;
+	}
+	
+	/**
+	 * Creates main queue processor thread for the given lane (see
+	 * {@link RRLConfig#getMainQueueLanes()}).
 	 */
 	@SuppressWarnings("hiding")
-	protected ExitableThread createMainQueueProcessor(RRLConfig config, String commonNamingPrefix, ThreadGroup threadGroup)
+	protected ExitableThread createMainQueueProcessor(RRLConfig config, String commonNamingPrefix, ThreadGroup threadGroup,
+		final int laneIndex)
 	{
 		InterruptHandlingExitableThread thread = new InterruptHandlingExitableThread(
-			threadGroup, commonNamingPrefix + " Main Queue Processor")
+			threadGroup, commonNamingPrefix + " Main Queue Processor" + (laneIndex == 0 ? "" : " (lane " + laneIndex + ")"))
 		{
 			@Override
 			protected void run1(boolean reentry)
 				throws InterruptedException
 			{
-				runnableMainQueueProcessor();
+				runnableMainQueueProcessor(laneIndex);
 			}
 
 			@Override
@@ -836,12 +1250,26 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 	protected final RRLEntry<Input, Output> READY_TO_WORK_OBJECT = new RRLEntry<>(this, fakeNonNull(), -1, -1); 
 	
 	/**
-	 * Code executed by {@link #mainQueueProcessingThread}
+	 * Code executed by {@link #mainQueueProcessingThread} (and by processing
+	 * threads of the other lanes if there are several, see {@link RRLConfig#getMainQueueLanes()})
 	 */
-	protected void runnableMainQueueProcessor() throws InterruptedException
+	protected void runnableMainQueueProcessor(final int laneIndex) throws InterruptedException
 	{
+		final RRLMainQueueLane lane = mainQueueLanes.get(laneIndex);
+		final LinkedBlockingQueue<RRLEntry<Input, Output>> laneQueue = lane.getQueue();
+		
 		RRLEntry<Input, Output> inflightEntry = null;
 		long inflightEntrySince = -1;
+		/**
+		 * Batch mode only: batch that is currently being collected by its
+		 * processing thread; null if there's no batch in progress.
+		 */
+		RRLRequestBatch currentBatch = null;
+		/**
+		 * Batch mode only: batch of the thread in readyForProcessingThreadFuture
+		 * (the batch doesn't have any entries yet).
+		 */
+		RRLRequestBatch readyBatch = null;
 		/** 
 		 * Used to store future representing thread that will be used to process request;
 		 * must be cleared if thread is actually processing the request, otherwise
@@ -865,6 +1293,7 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 					// clean up thread that was obtained for processing 
 					readyForProcessingThreadFuture.cancel(true);
 					readyForProcessingThreadFuture = null;
+					readyBatch = null;
 				}
 				if (inflightEntry != null)
 				{
@@ -885,7 +1314,14 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 				}
 				
 				inflightEntry = null; // if we are here, then previous in-flight entry has been processed
-				inflightEntry = mainQueue.take(); // in-flight entry externally available in exception handling etc
+				if (!lane.getDispatchTicketReserve().isEmpty())
+				{
+					if (laneQueue.isEmpty())
+						returnDispatchTicketReserve(lane); // don't hold on to batch-obtained tickets while idle
+					else
+						expireDispatchTicketReserve(lane); // or for too long while busy
+				}
+				inflightEntry = laneQueue.take(); // in-flight entry externally available in exception handling etc
 				final long itemProcessingSince = timeNow();
 				final RRLEntry<@Nonnull Input, Output> entry = inflightEntry;
 				inflightEntrySince = itemProcessingSince;
@@ -939,14 +1375,21 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 					
 					
 					// Need to ensure we have all the appropriate resources for request
+					// (in dispatch mode thread is not needed, instead request is
+					// placed into dispatch queue after ticket is obtained)
+					final BlockingQueue<RRLEntry<Input, Output>> dQueue = lane.getDispatchQueue();
 					boolean resourceObtained;
-					if (readyForProcessingThreadFuture == null)
+					if ((dQueue == null) && (readyForProcessingThreadFuture == null) && (currentBatch == null))
 					{
 						final long before = timeNow();
 						
+						// in batch mode, thread is started with an (empty) batch that it will be processing 
+						final RRLRequestBatch batch = config.getRequestBatchSize() > 1 ? new RRLRequestBatch() : null;
 						NonNullOptional<@Nonnull Future<Void>> result = guardedSpiInvocationAsOptional(
 							() -> spiStartRequestProcessingThread(entry,
-								() -> runnableRequestProcessor(commQueue)), 
+								() -> batch != null ?
+									runnableBatchRequestProcessor(commQueue, batch) :
+									runnableRequestProcessor(commQueue)), 
 							entry);
 						
 						if (result.isEmpty())
@@ -957,6 +1400,7 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 						}
 						
 						readyForProcessingThreadFuture = result.get();
+						readyBatch = batch;
 						
 						// Wait for thread to be ready.
 						RRLEntry<@Nonnull Input, Output> ready = spiMainQueueWaitForThreadToBeReady(
@@ -967,6 +1411,7 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 							// Thread wait expired, clear it, will need to try again.
 							readyForProcessingThreadFuture.cancel(true);
 							readyForProcessingThreadFuture = null;
+							readyBatch = null;
 						}
 						else
 						{
@@ -994,12 +1439,15 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 						final long before = timeNow();
 						
 						NullableOptional<@Nullable Object> result = guardedSpiInvocationAsNullableOptional(
-							() -> spiObtainTicketHandleMaxSleepAndControlState(entry, remainingValidityRealMs), entry);
+							() -> dQueue == null ? 
+								spiObtainTicketHandleMaxSleepAndControlState(entry, remainingValidityRealMs) :
+								spiObtainTicketForDispatch(entry, remainingValidityRealMs), 
+							entry);
 						
 						if (result.isEmpty())
 						{
 							// must be an error -- and it should've been logged already in guarded* method
-							spiMainQueueRequeueItem(entry, true, false); // try again later
+							spiMainQueueRequeueItem(entry, readyForProcessingThreadFuture != null, false); // try again later
 							continue mainLoop; // go to next element
 						}
 						
@@ -1016,6 +1464,59 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 						
 						resourceObtained = ticketObtained;
 					}
+					else if (dQueue != null)
+					{
+						// Dispatch mode & we have a ticket -- place request into dispatch queue
+						final long before = timeNow();
+						
+						final boolean dispatched = spiMainQueueDispatchRequest(dQueue, entry, remainingValidityRealMs);
+						
+						final long after = timeNow();
+						final long duration = timeGapVirtual(before, after);
+						
+						// dispatch queue slot is the equivalent of the processing thread in this mode
+						guardedEventListenerInvocation(evListener -> 
+							evListener.mainQueueThreadObtainAttempt(entry, itemProcessingSince, dispatched, duration));
+						
+						if (dispatched)
+						{
+							readyToUseTicket = null; // clear ticket reference so it is not returned
+							
+							guardedEventListenerInvocation(evListener -> 
+								evListener.requestExecuting(entry, entry.getNumberOfFailedAttempts() + 1, millisFromDecision));
+							
+							continue mainLoop; // go to next element in the queue
+						}
+						
+						resourceObtained = false;
+					}
+					else if (readyBatch != null || currentBatch != null)
+					{
+						// Batch mode & we have a ticket and a batch (collected by
+						// the processing thread) -- add request to the batch; this
+						// doesn't wait for the batch to fill up, processing thread
+						// waits for that (up to the batch linger time)
+						final RRLRequestBatch batch = currentBatch != null ? currentBatch : nn(readyBatch);
+						if (!batch.add(entry))
+						{
+							// batch is already complete (linger time expired), need to start a new one
+							currentBatch = null;
+							continue; // obtain thread for a new batch (keeping the ticket)
+						}
+						
+						if (batch == readyBatch)
+						{
+							readyForProcessingThreadFuture = null; // clear thread reference so it is not cancelled
+							readyBatch = null;
+						}
+						readyToUseTicket = null; // clear ticket reference so it is not returned
+						currentBatch = batch.isClosed() ? null : batch;
+						
+						guardedEventListenerInvocation(evListener -> 
+							evListener.requestExecuting(entry, entry.getNumberOfFailedAttempts() + 1, millisFromDecision));
+						
+						continue mainLoop; // go to next element in the queue 
+					}
 					else
 					{
 						// Here we have both thread and a ticket -- should proceed with request
@@ -1066,6 +1567,10 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 				readyForProcessingThreadFuture.cancel(true);
 			}
 			
+			returnDispatchTicketReserve(lane);
+			
+			if (currentBatch != null)
+				currentBatch.close(); // let the thread process whatever entries it has already collected
 		}
 		
 	}
@@ -1122,16 +1627,72 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 		}
 	}
 	
-	
 	/**
-	 * Creates delay queue processors.
+	 * Places request (that already has a ticket) into the dispatch queue (see
+	 * {@link RRLConfig#getRequestDispatchQueueSize()}) waiting for space to
+	 * become available if necessary.
 	 * <p>
-	 * Note that custom implementations may decide to override this and they
-	 * are allowed to return empty list if they need special handling; however
-	 * they then MUST properly override {@link #delayEntry(RRLEntry, long)}
-	 * AND {@link #isAllDelayQueuesAlive()} method to be compatible!
-	 */
-	@SuppressWarnings("hiding")
+	 * This takes care of handling max sleep and control state stuff (the same
+	 * way as {@link #spiMainQueueWaitForThreadToBeReady(SynchronousQueue, long)}).
+	 * <p>
+	 * <b>NOTE: unexpected exceptions throw by this method will trigger
+	 * 'unexpected exception in main queue processing' handling which counts
+	 * against {@link RRLConfig#getMainQueueRuntimeExceptionLimit()} and will
+	 * potentially crash the service very quickly.</b>
+	 * 
+	 * @return true if request was placed into the dispatch queue; false if
+	 * 		waiting for space has timed out
+	 */
+	protected boolean spiMainQueueDispatchRequest(
+		final BlockingQueue<RRLEntry<Input, Output>> dQueue,
+		final RRLEntry<Input, Output> entry,
+		final long remainingValidityRealMs)
+		throws InterruptedException
+	{
+		final long maxWaitTimestamp = timeNow() + remainingValidityRealMs;
+		long maxWaitSpooldownLimit = Long.MAX_VALUE; // limit on how long we can wait based on spooldown
+		
+		while (true) 
+		{
+			RRLControlState cState = getControlState();
+			if (cState.isTimeoutAllPendingRequests())
+				return false; // we are time-outing everything in-flight
+			
+			long spoolTargetTimestamp = cState.getSpooldownTargetTimestamp();
+			final long now = timeNow();
+			long remainingWait = maxWaitTimestamp - now;
+			if ((maxWaitSpooldownLimit == Long.MAX_VALUE) && cState.isLimitWaitingForProcessingThread() && (spoolTargetTimestamp > 0))
+			{
+				// If spooldown target is set and waiting is limited, we calculate target time ONCE
+				// (otherwise it'll keep adjusting to use however little time is remaining)
+				long remainingTime = spoolTargetTimestamp - now;
+				long remainingTimePerItem = remainingTime / (estimateSizeOfAllQueues() + 1 /*inflight entry*/);
+				
+				maxWaitSpooldownLimit = timeNow() + remainingTimePerItem;
+			}
+			if (maxWaitSpooldownLimit != Long.MAX_VALUE)
+				remainingWait = Math.min(remainingWait, maxWaitSpooldownLimit - now);
+			
+			if (remainingWait <= 0)
+				return false; // done waiting, timeout
+			
+			long maxWait = Math.min(remainingWait, config.getMaxSleepTime());
+			
+			if (dQueue.offer(entry, maxWait, TimeUnit.MILLISECONDS))
+				return true;
+		}
+	}
+	
+	
+	/**
+	 * Creates delay queue processors.
+	 * <p>
+	 * Note that custom implementations may decide to override this and they
+	 * are allowed to return empty list if they need special handling; however
+	 * they then MUST properly override {@link #delayEntry(RRLEntry, long)}
+	 * AND {@link #isAllDelayQueuesAlive()} method to be compatible!
+	 */
+	@SuppressWarnings("hiding")
 	protected List<RRLDelayQueueData> createDelayQueues(RRLConfig config, String commonNamingPrefix, ThreadGroup threadGroup)
 	{
 		List<@Nonnull Long> delaysList = config.getDelayQueues();
@@ -1143,6 +1704,9 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 			if (delay <= maxDelay)
 				throw new IllegalArgumentException("delayQueues are not specified in ascending order: " + delaysList);
 			
+			if (config.isUseDelayScheduler())
+				continue; // only validate
+			
 			LinkedBlockingQueue<RRLEntry<Input, Output>> delayQueue = new LinkedBlockingQueue<>();
 			
 			ExitableThread thread = createDelayQueueProcessor(config, commonNamingPrefix, threadGroup, delay, delayQueue);
@@ -1150,10 +1714,167 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 			queues.add(new RRLDelayQueueData(delay, thread, delayQueue));
 		}
 		
+		if (config.isUseDelayScheduler() || (config.getAsyncRequestAttemptTimeout() > 0)) // scheduler also tracks async attempt timeouts
+		{
+			DelayQueue<RRLScheduledEntry> scheduledQueue = new DelayQueue<>();
+			
+			ExitableThread thread = createDelaySchedulerProcessor(config, commonNamingPrefix, threadGroup, scheduledQueue);
+			
+			queues.add(new RRLDelayQueueData(thread, scheduledQueue));
+		}
+		
 		return queues;
 	}
 	
 	
+	/**
+	 * Creates delay scheduler processor thread (see {@link RRLConfig#isUseDelayScheduler()}).
+	 */
+	@SuppressWarnings("hiding")
+	protected ExitableThread createDelaySchedulerProcessor(
+		RRLConfig config, String commonNamingPrefix, ThreadGroup threadGroup,
+		final DelayQueue<RRLScheduledEntry> scheduledQueue)
+	{
+		InterruptHandlingExitableThread thread = new InterruptHandlingExitableThread(
+			threadGroup, commonNamingPrefix + " Delay Scheduler")
+		{
+			@Override
+			protected void run1(boolean reentry)
+				throws InterruptedException
+			{
+				runnableDelaySchedulerProcessor(scheduledQueue);
+			}
+
+			@Override
+			protected boolean handleUnexpectedInterruptedException(
+				InterruptedException e) throws InterruptedException
+			{
+				guardedEventListenerInvocation(evListener -> 
+					evListener.errorUnexpectedInterruptedException(e, "Unexpected InterruptedException in delay scheduler"));
+				
+				// Decision via SPI method
+				return guardedSpiInvocation(() -> spiDelaySchedulerUnexpectedInterruptedExceptionDecision(
+					scheduledQueue, e, 
+					getUnexpectedInterruptedExceptionsCount(), getRuntimeExceptionsCount()), 
+					false/*exit in case of spi exception*/, null);
+			}
+
+			@Override
+			protected boolean handleRuntimeException(RuntimeException e)
+				throws InterruptedException
+			{
+				guardedEventListenerInvocation(evListener -> 
+					evListener.errorUnexpectedRuntimeException(e, "RuntimeException in delay scheduler"));
+			
+				// Decision via SPI method
+				return guardedSpiInvocation(() -> spiDelaySchedulerRuntimeExceptionDecision(
+					scheduledQueue, e, 
+					getUnexpectedInterruptedExceptionsCount(), getRuntimeExceptionsCount()), 
+					false/*exit in case of spi exception*/, null);
+			}
+		};
+		
+		thread.setDaemon(config.isUseDaemonThreads());
+		thread.setPriority(config.getDelayQueueProcessingThreadPriority());
+		
+		return thread;
+	}
+	
+	
+	/**
+	 * Code executed by the delay scheduler thread (see {@link RRLConfig#isUseDelayScheduler()})
+	 * -- waits for the next due entry and moves it to the main queue.
+	 * <p>
+	 * Reports only {@link RRLEventListener#delayQueueDecisionAfterDelayStep(RRLEntry, long, RRLDelayQueueProcessingDecision, long, long)}
+	 * event (with zero queueDelayMs) as there are no separate delay steps.
+	 */
+	protected void runnableDelaySchedulerProcessor(final DelayQueue<RRLScheduledEntry> scheduledQueue) 
+		throws InterruptedException
+	{
+		if (getControlState().isIgnoreDelays())
+		{
+			// Delays are not respected -- move everything to the main queue right away.
+			for (RRLScheduledEntry scheduled : scheduledQueue)
+			{
+				if (scheduled.getAsyncAttemptTimeoutAction() != null)
+					continue; // timeouts are still executed when due
+				if (scheduledQueue.remove(scheduled))
+					addToMainQueue(scheduled.getEntry());
+			}
+		}
+		
+		RRLEntry<Input, Output> inflightEntry = null;
+		try
+		{
+			{
+				// Limit waiting so that e.g. changes in control state are noticed.
+				RRLScheduledEntry scheduled = scheduledQueue.poll(config.getMaxSleepTime(), TimeUnit.MILLISECONDS);
+				if (scheduled == null)
+					return; // nothing is due yet
+				
+				Runnable timeoutAction = scheduled.getAsyncAttemptTimeoutAction();
+				if (timeoutAction != null)
+				{
+					pendingAsyncAttemptTimeoutsCount.decrementAndGet();
+					try
+					{
+						timeoutAction.run();
+					} catch (RuntimeException e)
+					{
+						// scheduler must keep going, it's not the scheduler's fault
+						guardedEventListenerInvocation(evListener -> 
+							evListener.errorUnexpectedRuntimeException(e, "RuntimeException in asynchronous attempt timeout handling"));
+					}
+					return;
+				}
+				
+				inflightEntry = scheduled.getEntry(); // in-flight entry externally available in exception handling etc 
+			}
+			final RRLEntry<@Nonnull Input, Output> entry = inflightEntry;
+			
+			long now = timeNow();
+			
+			long inDelayQueueSince = entry.getInDelayQueueSince();
+			long delayAnchor = entry.getDelayAnchor();
+			long delayFor = entry.getDelayFor();
+			
+			final long remainingDelay;
+			final long sleptFor;
+			if (inDelayQueueSince < 0)
+			{
+				logAssertionError(entry, "Delay scheduler processing encountered item with non-specified inDelayQueueSince.");
+				remainingDelay = -1;
+				sleptFor = 0;
+			}
+			else if ((delayAnchor < 0) || (delayFor < 0))
+			{
+				logAssertionError(entry, "Delay scheduler processing encountered item with non-specified delay.");
+				remainingDelay = -1;
+				sleptFor = timeGapVirtual(inDelayQueueSince, now);
+			}
+			else
+			{
+				remainingDelay = delayFor - timeGapVirtual(delayAnchor, now);
+				sleptFor = timeGapVirtual(inDelayQueueSince, now);
+			}
+			
+			// log decision event
+			guardedEventListenerInvocation(evListener -> 
+				evListener.delayQueueDecisionAfterDelayStep(entry, 0, RRLDelayQueueProcessingDecision.MAIN_QUEUE, sleptFor, remainingDelay));
+			
+			addToMainQueue(entry);
+			inflightEntry = null; // clear 'in-flight' entry RIGHT AFTER it is re-queued! IMPORTANT FOR CONSISTENCY!
+		} finally
+		{
+			if (inflightEntry != null)
+			{
+				// Put entry back into main queue to avoid data loss.
+				addToMainQueue(inflightEntry);
+			}
+		}
+	}
+	
+	
 	/**
 	 * Creates delay queue processor thread.
 	 */
@@ -1293,7 +2014,7 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 					delayQueue.add(entry);
 					break;
 				case MAIN_QUEUE:
-					mainQueue.add(entry);
+					addToMainQueue(entry);
 					break;
 			}
 			inflightEntry = null; // clear 'in-flight' entry RIGHT AFTER it is re-queued! IMPORTANT FOR CONSISTENCY!
@@ -1303,7 +2024,7 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 			if (inflightEntry != null)
 			{
 				// Put entry back into main queue to avoid data loss.
-				mainQueue.add(inflightEntry);
+				addToMainQueue(inflightEntry);
 			}
 		}
 	}
@@ -1311,16 +2032,26 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 	/**
 	 * Delays given entry via putting it into appropriate delay queue; note
 	 * that the minimal resolution here is the delay of the shortest delay 
-	 * queue.
+	 * queue (unless {@link RRLConfig#isUseDelayScheduler()} is enabled, in
+	 * which case entry is scheduled for exactly when it is due).
 	 */
 	protected void delayEntry(RRLEntry<Input, Output> entry, long delayFor)
 	{
 		entry.setDelayAnchor(timeNow());
 		entry.setDelayFor(delayFor);
 		
+		if (config.isUseDelayScheduler())
+		{
+			nn(delayScheduler).addToQueue(entry); // scheduler is the only 'queue'
+			return;
+		}
+		
 		RRLDelayQueueData queue = delayQueues.get(0); // always has at least one item
 		for (RRLDelayQueueData dq : delayQueues)
 		{
+			if (dq.isDelayScheduler())
+				continue; // only used for async attempt timeouts
+			
 			// insert some grace here so that when e.g. intended delay after
 			// failure is exactly equal to delay queue size, the processing
 			// delays won't cause it to 'fall down' to the shorter queue
@@ -1340,59 +2071,350 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 	{
 		for (RRLDelayQueueData dq : delayQueues)
 		{
-			if (!dq.getProcessingThread().isAlive())
-				return false;
+			if (!dq.getProcessingThread().isAlive())
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Checks that processing threads of all main queue lanes are alive.
+	 */
+	protected boolean isAllMainQueueLanesAlive()
+	{
+		for (RRLMainQueueLane lane : mainQueueLanes)
+		{
+			if (!lane.getProcessingThread().isAlive())
+				return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Total size of the main queue(s) across all lanes.
+	 */
+	protected int mainQueueSize()
+	{
+		int total = 0;
+		for (RRLMainQueueLane lane : mainQueueLanes)
+			total += lane.getQueue().size();
+		
+		return total;
+	}
+	
+	/**
+	 * Adds entry to the main queue of its lane (see {@link #mainQueueLaneFor(RRLEntry)}).
+	 */
+	protected void addToMainQueue(RRLEntry<Input, Output> entry)
+	{
+		mainQueueLaneFor(entry).getQueue().add(entry);
+	}
+	
+	/**
+	 * Gets main queue lane for the given entry (see {@link RRLEntry#getLane()}).
+	 */
+	protected RRLMainQueueLane mainQueueLaneFor(RRLEntry<Input, Output> entry)
+	{
+		return mainQueueLanes.get(entry.getLane());
+	}
+	
+	/**
+	 * Code executed by individual request processing threads (those are typically
+	 * from a thread pool).
+	 */
+	protected Void runnableRequestProcessor(SynchronousQueue<RRLEntry<Input, Output>> commQueue)
+		throws InterruptedException
+	{
+		commQueue.put(READY_TO_WORK_OBJECT);
+
+		// Retrieve entry-to-process outside try-catch as this place can be
+		// interrupted and it is not really 'unexpected'
+		return processRequestAttempt(commQueue.take());
+	}
+	
+	/**
+	 * Code executed by request processing threads in batch mode (see 
+	 * {@link RRLConfig#getRequestBatchSize()}) -- waits until the given batch
+	 * (that main queue processing adds entries to) is complete and then 
+	 * processes all its entries together.
+	 */
+	protected Void runnableBatchRequestProcessor(SynchronousQueue<RRLEntry<Input, Output>> commQueue, 
+		RRLRequestBatch requestBatch)
+		throws InterruptedException
+	{
+		commQueue.put(READY_TO_WORK_OBJECT);
+		
+		boolean collected = false;
+		try
+		{
+			requestBatch.awaitCompletion();
+			
+			collected = true;
+		} finally
+		{
+			if (!collected)
+			{
+				for (RRLEntry<Input, Output> entry : requestBatch.close())
+					addToMainQueue(entry); // re-add already collected items so they are not lost
+			}
+		}
+		
+		final List<RRLEntry<Input, Output>> batch = requestBatch.close();
+		if (batch.isEmpty())
+			return fakeNonNull(); // Void cannot be instantiated
+		
+		return processRequestBatchAttempt(batch);
+	}
+	
+	/**
+	 * Executes single batch processing attempt (see {@link RRLConfig#getRequestBatchSize()})
+	 * and handles the outcome (success, failure, re-try) for each entry in
+	 * the batch individually.
+	 */
+	protected Void processRequestBatchAttempt(final List<RRLEntry<Input, Output>> batch)
+		throws InterruptedException
+	{
+		final long start = timeNow();
+		
+		List<NullableOptional<Output>> results = null;
+		Exception batchException = null;
+		try
+		{
+			results = spiProcessRequestBatch(batch);
+			if (results.size() != batch.size())
+				throw new IllegalStateException("Batch processing returned " + results.size() + " results for batch of size: " + batch.size());
+		} catch (Exception e)
+		{
+			batchException = e; // whole batch has failed
+		}
+		
+		InterruptedException interrupted = null;
+		for (int i = 0; i < batch.size(); i++)
+		{
+			final RRLEntry<Input, Output> entry = batch.get(i);
+			final int attemptNumber = entry.getNumberOfFailedAttempts() + 1;
+			
+			Output result = fakeNonNull(); // to make compiler happy, this value is overwritten by actual value or is never used
+			Exception exception = batchException;
+			if (exception == null)
+			{
+				NullableOptional<Output> itemResult = nullable(nn(results).get(i));
+				if ((itemResult != null) && itemResult.isPresent())
+					result = itemResult.get();
+				else
+				{
+					Throwable t = itemResult == null ? null : itemResult.getExceptionOrNull();
+					exception = (t instanceof Exception) ? (Exception)t : 
+						new ExecutionException("No result for batch item #" + i, t);
+				}
+			}
+			
+			try
+			{
+				handleRequestAttemptOutcome(entry, attemptNumber, start, result, exception);
+			} catch (InterruptedException e)
+			{
+				interrupted = e; // still process remaining entries so they are not lost
+			}
+		}
+		
+		if (interrupted != null)
+			throw interrupted;
+		
+		return fakeNonNull(); // Void cannot be instantiated
+	}
+	
+	/**
+	 * Code executed by long-lived worker threads in dispatch mode (see
+	 * {@link RRLConfig#getRequestDispatchQueueSize()}) -- takes requests
+	 * from the dispatch queue and processes them until interrupted. 
+	 */
+	protected Void runnableDispatchWorker(BlockingQueue<RRLEntry<Input, Output>> dQueue)
+		throws InterruptedException
+	{
+		while (true)
+		{
+			// Retrieve entry-to-process outside try-catch as this place can be
+			// interrupted and it is not really 'unexpected' (e.g. on shutdown)
+			final RRLEntry<Input, Output> entry;
+			idleDispatchWorkersCount.incrementAndGet();
+			try
+			{
+				entry = dQueue.take();
+			} finally
+			{
+				idleDispatchWorkersCount.decrementAndGet();
+			}
+			
+			try
+			{
+				processRequestAttempt(entry);
+			} catch (RuntimeException e)
+			{
+				// worker must survive so that dispatch capacity is not reduced
+				guardedEventListenerInvocation(evListener -> 
+					evListener.errorUnexpectedRuntimeException(e, "RuntimeException in request dispatch worker"));
+			}
+		}
+	}
+	
+	/**
+	 * Executes single request processing attempt for the given entry and
+	 * handles the outcome (success, failure, re-try).
+	 * <p>
+	 * This is used by both regular request processing threads ({@link #runnableRequestProcessor(SynchronousQueue)})
+	 * and dispatch workers ({@link #runnableDispatchWorker(BlockingQueue)}).
+	 * <p>
+	 * If request is processed asynchronously (see {@link #spiProcessRequestAsync(RRLEntry, int)}),
+	 * then this method returns as soon as asynchronous processing is started
+	 * and the outcome is handled when it completes (or times out, see
+	 * {@link RRLConfig#getAsyncRequestAttemptTimeout()}).
+	 */
+	protected Void processRequestAttempt(final RRLEntry<Input, Output> entry)
+		throws InterruptedException
+	{
+		final long start = timeNow();
+		final int attemptNumber = entry.getNumberOfFailedAttempts() + 1;
+		
+		Exception exception; // used to indicate whether request completed correctly
+		final Output result;
+		final CompletionStage<Output> asyncResult;
+		{
+			Output tmpResult = fakeNonNull(); // to make compiler happy, this value is overwritten by actual value or is never used
+			Exception tmpException = null;
+			CompletionStage<Output> tmpAsyncResult = null;
+			try
+			{
+				tmpAsyncResult = spiProcessRequestAsync(entry, attemptNumber);
+				if (tmpAsyncResult == null)
+					tmpResult = spiProcessRequest(entry, attemptNumber);
+			} catch (Exception e)
+			{
+				tmpException = e;
+			}
+			result = tmpResult;
+			exception = tmpException;
+			asyncResult = tmpAsyncResult;
+		}
+		
+		if ((exception == null) && (asyncResult != null))
+		{
+			// No thread is held while asynchronous attempt is in progress --
+			// outcome is handled by whichever thread completes it (or by the
+			// delay scheduler if attempt times out, whichever happens first).
+			final AtomicBoolean outcomeHandled = new AtomicBoolean(false);
+			entry.setInflightAsyncAttempt(asyncResult);
+			
+			final long timeout = config.getAsyncRequestAttemptTimeout();
+			if (timeout > 0)
+			{
+				nn(delayScheduler).scheduleAsyncAttemptTimeout(entry, 
+					timeAddVirtualIntervalToRealWorldTime(start, timeout), 
+					() -> handleAsyncRequestAttemptTimeout(entry, attemptNumber, start, timeout, outcomeHandled));
+			}
+			
+			if (entry.isCancelRequested())
+				entry.cancelInflightAsyncAttempt(); // cancel might've been requested before attempt was registered
+			
+			asyncResult.whenComplete((asyncOutput, asyncThrowable) -> {
+				if (outcomeHandled.compareAndSet(false, true))
+					handleAsyncRequestAttemptCompletion(entry, attemptNumber, start, asyncOutput, asyncThrowable);
+			});
+			
+			return fakeNonNull(); // Void cannot be instantiated
+		}
+		
+		return handleRequestAttemptOutcome(entry, attemptNumber, start, result, exception);
+	}
+	
+	/**
+	 * Handles timeout of asynchronous request processing attempt (see
+	 * {@link RRLConfig#getAsyncRequestAttemptTimeout()}) -- if attempt
+	 * hasn't completed yet, then it is cancelled and handled as failed
+	 * attempt (with {@link TimeoutException}), i.e. it may be retried.
+	 * <p>
+	 * This is executed in the delay scheduler thread.
+	 */
+	protected void handleAsyncRequestAttemptTimeout(final RRLEntry<Input, Output> entry,
+		final int attemptNumber, final long start, final long timeout, 
+		final AtomicBoolean outcomeHandled)
+	{
+		if (!outcomeHandled.compareAndSet(false, true))
+			return; // attempt has already completed
+		
+		entry.cancelInflightAsyncAttempt(); // completion of the cancelled attempt is ignored as outcome is already 'handled'
+		
+		handleAsyncRequestAttemptCompletion(entry, attemptNumber, start, null, 
+			new TimeoutException("Asynchronous request processing attempt #" + attemptNumber + " timed out after: " + timeout + "ms"));
+	}
+	
+	/**
+	 * Handles completion of asynchronous request processing attempt (see
+	 * {@link #spiProcessRequestAsync(RRLEntry, int)}).
+	 * <p>
+	 * This is executed in whatever thread completes the asynchronous processing
+	 * (or in the delay scheduler thread if attempt timed out).
+	 */
+	protected void handleAsyncRequestAttemptCompletion(final RRLEntry<Input, Output> entry,
+		final int attemptNumber, final long start, 
+		@Nullable Output asyncOutput, @Nullable Throwable asyncThrowable)
+	{
+		entry.setInflightAsyncAttempt(null);
+		
+		Exception exception = null;
+		if (asyncThrowable != null)
+		{
+			Throwable cause = asyncThrowable;
+			if ((cause instanceof CompletionException) && (cause.getCause() != null))
+				cause = nn(cause.getCause());
+			
+			exception = (cause instanceof Exception) ? (Exception)cause : new ExecutionException(cause);
 		}
 		
-		return true;
+		try
+		{
+			handleRequestAttemptOutcome(entry, attemptNumber, start, 
+				exception == null ? TypeUtil.coerceUnknown(asyncOutput) : fakeNonNull(), exception);
+		} catch (InterruptedException e)
+		{
+			// already logged by handleRequestAttemptOutcome(..), just restore the flag
+			Thread.currentThread().interrupt();
+		}
 	}
 	
 	/**
-	 * Code executed by individual request processing threads (those are typically
-	 * from a thread pool).
+	 * Handles the outcome (success, failure, re-try) of a single request 
+	 * processing attempt.
+	 * 
+	 * @param exceptionOrNull exception if attempt failed; null if attempt
+	 * 		was successful (in which case result is in result argument)
 	 */
-	protected Void runnableRequestProcessor(SynchronousQueue<RRLEntry<Input, Output>> commQueue)
+	protected Void handleRequestAttemptOutcome(final RRLEntry<Input, Output> requestEntry,
+		final int attemptNumber, final long start, 
+		final Output result, @Nullable Exception exceptionOrNull)
 		throws InterruptedException
 	{
-		commQueue.put(READY_TO_WORK_OBJECT);
-
 		boolean finished = false;
 		
-		// Retrieve entry-to-process outside try-catch as this place can be
-		// interrupted and it is not really 'unexpected'
-		RRLEntry<Input, Output> inflightEntry = commQueue.take();
+		RRLEntry<Input, Output> inflightEntry = requestEntry;
 		
 		try
 		{
 			final RRLEntry<@Nonnull Input, Output> entry = inflightEntry;
-			final long start = timeNow();
-			final int attemptNumber = entry.getNumberOfFailedAttempts() + 1;
-			
-			Exception exception; // used to indicate whether request completed correctly
-			final Output result;
-			{
-				Output tmpResult = fakeNonNull(); // to make compiler happy, this value is overwritten by actual value or is never used
-				Exception tmpException = null;
-				try
-				{
-					tmpResult = spiProcessRequest(entry, attemptNumber);
-				} catch (Exception e)
-				{
-					tmpException = e;
-				}
-				result = tmpResult;
-				exception = tmpException;
-			}
 			
 			final long requestAttemptDuration = timeGapVirtual(start, timeNow());
 			
-			if (exception == null)
+			if (exceptionOrNull == null)
 			{
 				inflightEntry = null; // request was successful, make sure item is not re-added
 				handleSuccess(entry, result, attemptNumber, requestAttemptDuration);
 			}
 			else
 			{
+				final Exception exception = exceptionOrNull;
+				
 				entry.setNumberOfFailedAttempts(attemptNumber);
 				
 				guardedEventListenerInvocation(evListener -> evListener.requestAttemptFailed(entry, exception, attemptNumber, requestAttemptDuration));
@@ -1444,7 +2466,7 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 		} finally
 		{
 			if (inflightEntry != null)
-				mainQueue.add(inflightEntry); // re-add item unless it was cleared
+				addToMainQueue(inflightEntry); // re-add item unless it was cleared
 			
 			if (!finished)
 				logAssertionError(inflightEntry, "Request processing thread didn't finish correctly!");
@@ -1692,11 +2714,16 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 	 * in a special way need to take care of this method too!
 	 * <p>
 	 * Default implementation assumes that executor is actually {@link ThreadPoolExecutor}
-	 * and returns {@link ThreadPoolExecutor#getActiveCount()}
+	 * and returns {@link ThreadPoolExecutor#getActiveCount()} minus the number
+	 * of idle dispatch workers (see {@link #idleDispatchWorkersCount}) -- so that 
+	 * in dispatch mode only workers that are actually processing requests
+	 * are counted.
 	 */
 	protected int spiStatusRequestProcessingExecutorServiceActiveThreads()
 	{
-		return ((ThreadPoolExecutor)nnChecked(requestsExecutorService)).getActiveCount();
+		int active = ((ThreadPoolExecutor)nnChecked(requestsExecutorService)).getActiveCount();
+		
+		return Math.max(0, active - idleDispatchWorkersCount.get()); // values are not read atomically, so guard against going negative
 	}
 	
 	
@@ -1783,6 +2810,52 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 		return unexpectedInterruptedExceptionsCount <= config.getDelayQueueUnexpectedInterruptedExceptionLimit();
 	}
 	
+	/**
+	 * Makes decision in case unexpected {@link InterruptedException} happens
+	 * in the delay scheduler thread (see {@link RRLConfig#isUseDelayScheduler()}).
+	 * <p>
+	 * Default implementation returns true (continue/restart processing)
+	 * until number of exceptions exceeds {@link RRLConfig#getDelayQueueUnexpectedInterruptedExceptionLimit()}
+	 * <p>
+	 * Throwing exception in this method will abort processing (same-ish
+	 * as returning false), thus making service inoperable.
+	 * 
+	 * @return true if delay scheduler processing should restart/continue; 
+	 * 		false to abort thread (thus rendering service inoperable)
+	 */
+	@SuppressWarnings("unused")
+	protected boolean spiDelaySchedulerUnexpectedInterruptedExceptionDecision(
+		final DelayQueue<RRLScheduledEntry> scheduledQueue,
+		InterruptedException e, 
+		int unexpectedInterruptedExceptionsCount, int runtimeExceptionsCount)
+			throws InterruptedException
+	{
+		return unexpectedInterruptedExceptionsCount <= config.getDelayQueueUnexpectedInterruptedExceptionLimit();
+	}
+	
+	/**
+	 * Makes decision in case unhandled {@link RuntimeException} happens
+	 * in the delay scheduler thread (see {@link RRLConfig#isUseDelayScheduler()}).
+	 * <p>
+	 * Default implementation returns true (continue/restart processing)
+	 * until number of exceptions exceeds {@link RRLConfig#getDelayQueueRuntimeExceptionLimit()}
+	 * <p>
+	 * Throwing exception in this method will abort processing (same-ish
+	 * as returning false), thus making service inoperable.
+	 * 
+	 * @return true if delay scheduler processing should restart/continue; 
+	 * 		false to abort thread (thus rendering service inoperable)
+	 */
+	@SuppressWarnings("unused")
+	protected boolean spiDelaySchedulerRuntimeExceptionDecision(
+		final DelayQueue<RRLScheduledEntry> scheduledQueue,
+		RuntimeException e, 
+		int unexpectedInterruptedExceptionsCount, int runtimeExceptionsCount)
+			throws InterruptedException
+	{
+		return runtimeExceptionsCount <= config.getDelayQueueRuntimeExceptionLimit();
+	}
+	
 	/**
 	 * Makes decision in case unhandled {@link RuntimeException} happens
 	 * in any of the delay queue processing threads.
@@ -1824,7 +2897,7 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 		if (getControlState().isTimeoutRequestsAfterFailedAttempt())
 			handleTimeout(entry, Integer.MIN_VALUE); // use big negative so they stand out
 		else
-			mainQueue.add(entry);
+			addToMainQueue(entry);
 	}
 	
 	/**
@@ -2116,11 +3189,155 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 		return nn(requestsExecutorService).submit(task);
 	}
 	
+	/**
+	 * Starts long-lived worker threads that process requests from the dispatch
+	 * queue (see {@link RRLConfig#getRequestDispatchQueueSize()}) of a single
+	 * main queue lane; this is invoked once per lane and max size specified in 
+	 * {@link RRLConfig#getRequestProcessingThreadPoolConfig()} is split
+	 * between lanes to determine worker count.
+	 * <p>
+	 * Default implementation submits workerCount {@link #runnableDispatchWorker(BlockingQueue)}
+	 * tasks to {@link #requestsExecutorService}; workers
+	 * are interrupted (and thus stopped) when executor service is shutdown
+	 * during service shutdown.
+	 * <p>
+	 * NOTE: custom implementations that don't use {@link #requestsExecutorService}
+	 * (see {@link #spiCreateRequestProcessingExecutorService(RRLConfig, String, ThreadGroup)})
+	 * must override this method in order to use dispatch mode.
+	 * 
+	 * @throws IllegalStateException if {@link #requestsExecutorService} is null
+	 */
+	protected void spiStartDispatchWorkers(final BlockingQueue<RRLEntry<Input, Output>> dQueue, int workerCount)
+		throws IllegalStateException
+	{
+		ExecutorService res = requestsExecutorService;
+		if (res == null)
+			throw new IllegalStateException("Dispatch mode (requestDispatchQueueSize=" + config.getRequestDispatchQueueSize() + ") requires request processing executor service, but spiCreateRequestProcessingExecutorService(..) returned null and spiStartDispatchWorkers(..) is not overridden; in service: " + commonNamingPrefix);
+		
+		for (int i = 0; i < workerCount; i++)
+			res.submit(() -> runnableDispatchWorker(dQueue));
+	}
+	
 	/**
 	 * Fake ticket that can be used when tickets are not needed (as per control
 	 * state).
 	 */
 	private final static Object FAKE_TICKET = new Object();
+	
+	/**
+	 * Wrapper over {@link #spiObtainTicketHandleMaxSleepAndControlState(RRLEntry, long)}
+	 * that is used in dispatch mode (see {@link RRLConfig#getRequestDispatchQueueSize()}).
+	 * <p>
+	 * If tickets are needed, then this first uses any (non-expired, see 
+	 * {@link #expireDispatchTicketReserve(RRLMainQueueLane)}) tickets from 
+	 * {@link RRLMainQueueLane#getDispatchTicketReserve()}; if there are none, then tries to obtain up to {@link RRLConfig#getRequestDispatchTicketBatchSize()}
+	 * immediately available tickets (extra tickets are placed into reserve);
+	 * if that fails too, then it falls back to regular (waiting) ticket
+	 * obtaining.
+	 * 
+	 * @return object representing a ticket if ticket was obtained; null if
+	 * 		ticket was not obtained in the time allotted; {@link #FAKE_TICKET}
+	 * 		if tickets are disabled
+	 */
+	@Nullable
+	protected Object spiObtainTicketForDispatch(RRLEntry<Input, Output> entry, final long maxWaitRealMs)
+		throws InterruptedException
+	{
+		final RRLMainQueueLane lane = mainQueueLaneFor(entry);
+		RRLControlState cState = getControlState();
+		if ((cState.getWaitForTickets() == null) || cState.isTimeoutAllPendingRequests())
+			returnDispatchTicketReserve(lane); // tickets are ignored or not used, no point in keeping these
+		else
+		{
+			expireDispatchTicketReserve(lane);
+			
+			RRLReservedTicket reserved = lane.getDispatchTicketReserve().poll();
+			if (reserved != null)
+				return reserved.getTicket();
+			
+			int batchSize = config.getRequestDispatchTicketBatchSize();
+			if (batchSize > 1)
+			{
+				List<?> tickets = spiObtainTicketsImmediately(entry, batchSize);
+				if (!tickets.isEmpty())
+				{
+					final long now = timeNow();
+					for (int i = 1; i < tickets.size(); i++)
+						lane.getDispatchTicketReserve().add(new RRLReservedTicket(nn(tickets.get(i)), now));
+					
+					return tickets.get(0);
+				}
+			}
+		}
+		
+		return spiObtainTicketHandleMaxSleepAndControlState(entry, maxWaitRealMs);
+	}
+	
+	/**
+	 * Used to obtain a batch of immediately available tickets (in dispatch mode).
+	 * <p>
+	 * Default implementation uses {@link RRLRateLimiter#obtainTicketsImmediately(int)}
+	 * on the rate limiter of the entry's lane (see {@link #mainQueueLaneFor(RRLEntry)})
+	 * 
+	 * @return obtained tickets; empty list if none were immediately available
+	 */
+	protected List<?> spiObtainTicketsImmediately(RRLEntry<Input, Output> entry, int maxCount)
+		throws InterruptedException
+	{
+		return mainQueueLaneFor(entry).getRateLimiter().obtainTicketsImmediately(maxCount);
+	}
+	
+	/**
+	 * Returns all tickets in {@link RRLMainQueueLane#getDispatchTicketReserve()} 
+	 * (if any) via {@link #spiReturnUnusedReservedTicket(RRLMainQueueLane, Object)}
+	 */
+	protected void returnDispatchTicketReserve(final RRLMainQueueLane lane)
+		throws InterruptedException
+	{
+		while (true)
+		{
+			final RRLReservedTicket reserved = lane.getDispatchTicketReserve().poll();
+			if (reserved == null)
+				break;
+			
+			guardedSpiInvocationNoResult(() -> spiReturnUnusedReservedTicket(lane, reserved.getTicket()), null);
+		}
+	}
+	
+	/**
+	 * Returns tickets in {@link RRLMainQueueLane#getDispatchTicketReserve()} 
+	 * that were obtained at least {@link RRLConfig#getRateLimiterRefillInterval()}
+	 * ago (via {@link #spiReturnUnusedReservedTicket(RRLMainQueueLane, Object)})
+	 * <p>
+	 * Rate limiter keeps refilling while tickets sit in reserve, so without
+	 * this old reserved tickets could be used on top of the refilled capacity
+	 * and exceed the configured rate.
+	 */
+	protected void expireDispatchTicketReserve(final RRLMainQueueLane lane)
+		throws InterruptedException
+	{
+		final long now = timeNow();
+		while (true)
+		{
+			final RRLReservedTicket reserved = lane.getDispatchTicketReserve().peek();
+			if ((reserved == null) || (now - reserved.getObtainedAt() < config.getRateLimiterRefillInterval()))
+				break; // tickets are in the order they were obtained in, so the rest are not expired either
+			
+			lane.getDispatchTicketReserve().poll();
+			guardedSpiInvocationNoResult(() -> spiReturnUnusedReservedTicket(lane, reserved.getTicket()), null);
+		}
+	}
+	
+	/**
+	 * Used to return unused ticket that was obtained in a batch (in dispatch
+	 * mode) and was not yet associated with any request.
+	 * <p>
+	 * Default implementation returns ticket to the lane's rate limiter
+	 */
+	protected void spiReturnUnusedReservedTicket(RRLMainQueueLane lane, Object unusedTicket)
+	{
+		lane.getRateLimiter().returnUnusedTicket(TypeUtil.coerce(unusedTicket));
+	}
 	/**
 	 * Wrapper over 'obtain ticket' ({@link #spiObtainTicket(RRLEntry, long)}) 
 	 * implementation that handles max sleep and potentially disabled tickets 
@@ -2213,7 +3430,9 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 	/**
 	 * Used to obtain ticked needed for request processing.
 	 * <p>
-	 * Default implementation tries to obtain ticket from {@link #rateLimiter}
+	 * Default implementation tries to obtain ticket from the rate limiter of
+	 * the entry's lane (see {@link #mainQueueLaneFor(RRLEntry)}), which is 
+	 * {@link #rateLimiter} unless lanes use separate rate limiters
 	 * <p>
 	 * NOTE: this method may return immediately with 'not enough tickets'
 	 * (without respecting wait time); see {@link #spiObtainTicketWithWait(RRLEntry, long)}
@@ -2226,10 +3445,10 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 	 * 		ticket was not obtained in the time allotted
 	 */
 	@Nullable
-	protected Object spiObtainTicket(@SuppressWarnings("unused") RRLEntry<Input, Output> entry, long maxWaitRealMs)
+	protected Object spiObtainTicket(RRLEntry<Input, Output> entry, long maxWaitRealMs)
 		throws InterruptedException
 	{
-		return rateLimiter.obtainTicket(maxWaitRealMs);
+		return mainQueueLaneFor(entry).getRateLimiter().obtainTicket(maxWaitRealMs);
 	}
 	
 	/**
@@ -2248,11 +3467,74 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 	/**
 	 * Used to return unused ticked.
 	 * <p>
-	 * Default implementation returns ticket to {@link #rateLimiter}
+	 * Default implementation returns ticket to the rate limiter of the entry's
+	 * lane (see {@link #mainQueueLaneFor(RRLEntry)})
+	 */
+	protected void spiReturnUnusedTicket(RRLEntry<Input, Output> entry, Object unusedTicket)
+	{
+		mainQueueLaneFor(entry).getRateLimiter().returnUnusedTicket(TypeUtil.coerce(unusedTicket));
+	}
+	
+	/**
+	 * Selects main queue lane for the incoming request (see {@link RRLConfig#getMainQueueLanes()}).
+	 * <p>
+	 * Default implementation uses {@link #extractMainQueueLaneKey(Object)}:
+	 * null key selects the first lane (index 0), otherwise lane is selected
+	 * based on the key's hash code (so that all requests with the same key
+	 * go to the same lane).
+	 * 
+	 * @return lane index, must be between 0 (inclusive) and the number of lanes (exclusive)
+	 */
+	protected int spiSelectMainQueueLane(Input incomingInput)
+	{
+		int laneCount = mainQueueLanes.size();
+		if (laneCount <= 1)
+			return 0;
+		
+		Object key = extractMainQueueLaneKey(incomingInput);
+		if (key == null)
+			return 0;
+		
+		return Math.floorMod(key.hashCode(), laneCount);
+	}
+	
+	/**
+	 * Extracts key (such as tenant or endpoint) that is used to select main
+	 * queue lane for the request (see {@link RRLConfig#getMainQueueLanes()}).
+	 * <p>
+	 * Requests with the same key are always processed in the same lane, so
+	 * e.g. slow ticket waits for one key do not delay requests in other lanes.
+	 * <p>
+	 * Default implementation returns null (all requests use the first lane).
+	 * 
+	 * @return lane key or null to use the first lane
+	 */
+	@SuppressWarnings("unused")
+	@Nullable
+	protected Object extractMainQueueLaneKey(Input incomingInput)
+	{
+		return null;
+	}
+	
+	/**
+	 * Estimates number of available tickets across all the rate limiters used
+	 * by main queue lanes (shared rate limiters are counted once).
 	 */
-	protected void spiReturnUnusedTicket(@SuppressWarnings("unused") RRLEntry<Input, Output> entry, Object unusedTicket)
+	protected long estimateAvailableRateLimiterTickets()
 	{
-		rateLimiter.returnUnusedTicket(TypeUtil.coerce(unusedTicket));
+		long total = 0;
+		ArrayList<RRLRateLimiter<?>> counted = new ArrayList<>(mainQueueLanes.size());
+		for (RRLMainQueueLane lane : mainQueueLanes)
+		{
+			RRLRateLimiter<?> limiter = lane.getRateLimiter();
+			if (counted.stream().anyMatch(l -> l == limiter))
+				continue; // shared limiter, already counted
+			
+			counted.add(limiter);
+			total += limiter.getAvailableTicketsEstimation();
+		}
+		
+		return total;
 	}
 	
 	/**
@@ -2387,6 +3669,87 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 		return processRequest(entry.getInput(), attemptNumber);
 	}
 	
+	/**
+	 * A wrapper/extension point over {@link #processRequestBatch(List)}
+	 */
+	protected List<NullableOptional<Output>> spiProcessRequestBatch(List<RRLEntry<Input, Output>> batch) throws InterruptedException, Exception
+	{
+		return processRequestBatch(batch);
+	}
+	
+	/**
+	 * Makes a processing attempt for a batch of requests; this is only used
+	 * in batch mode (see {@link RRLConfig#getRequestBatchSize()}).
+	 * <p>
+	 * Attempt number for each entry is {@link RRLEntry#getNumberOfFailedAttempts()} + 1
+	 * <p>
+	 * Results must be returned in the same order as entries in the batch:
+	 * {@link NullableOptional#of(Object)} for successful items and 
+	 * {@link NullableOptional#emptyWithException(Throwable)} for failed items
+	 * (these are handled the same way as {@link #processRequest(Object, int)}
+	 * throwing exception, i.e. they may be retried individually). If this 
+	 * method throws exception, then all items in the batch are considered failed.
+	 * <p>
+	 * Default implementation processes each entry individually (one after
+	 * another) via {@link #spiProcessRequest(RRLEntry, int)}; note that 
+	 * {@link #spiProcessRequestAsync(RRLEntry, int)} is not used in batch mode.
+	 */
+	protected List<NullableOptional<Output>> processRequestBatch(List<RRLEntry<Input, Output>> batch) throws InterruptedException, Exception
+	{
+		ArrayList<NullableOptional<Output>> results = new ArrayList<>(batch.size());
+		for (RRLEntry<Input, Output> entry : batch)
+		{
+			try
+			{
+				results.add(NullableOptional.of(spiProcessRequest(entry, entry.getNumberOfFailedAttempts() + 1)));
+			} catch (Exception e)
+			{
+				results.add(NullableOptional.emptyWithException(e));
+			}
+		}
+		
+		return results;
+	}
+	
+	/**
+	 * Extension point for asynchronous request processing -- makes a request
+	 * processing attempt without holding the request processing thread while
+	 * it is in progress (e.g. while waiting for I/O), thus allowing many more
+	 * concurrent requests than there are threads in {@link RRLConfig#getRequestProcessingThreadPoolConfig()}
+	 * <p>
+	 * Implementations that want to process requests asynchronously should
+	 * normally extend {@link AsyncRetryAndRateLimitService} rather than 
+	 * override this method directly.
+	 * <p>
+	 * Returned stage completing exceptionally is treated the same way as
+	 * {@link #processRequest(Object, int)} throwing exception (i.e. it's 
+	 * a failed attempt that may be retried); the same applies to exceptions
+	 * thrown by this method itself.
+	 * <p>
+	 * Attempt is limited by {@link RRLConfig#getAsyncRequestAttemptTimeout()}
+	 * (if configured) -- if returned stage doesn't complete in time, it is
+	 * cancelled and attempt is considered failed.
+	 * <p>
+	 * If cancellation is requested ({@link RRLFuture#requestCancellation()})
+	 * while asynchronous attempt is in progress, then it is cancelled via
+	 * {@link java.util.concurrent.CompletableFuture#cancel(boolean)} (if the stage supports 
+	 * {@link CompletionStage#toCompletableFuture()}).
+	 * <p>
+	 * Default implementation returns null, which means that request is
+	 * processed synchronously via {@link #spiProcessRequest(RRLEntry, int)}
+	 * 
+	 * @param attemptNumber starts at 1
+	 * 
+	 * @return null if request should be processed synchronously via
+	 * 		{@link #spiProcessRequest(RRLEntry, int)}
+	 */
+	@SuppressWarnings("unused")
+	@Nullable
+	protected CompletionStage<Output> spiProcessRequestAsync(RRLEntry<Input, Output> entry, int attemptNumber) throws InterruptedException, Exception
+	{
+		return null;
+	}
+	
 	/**
 	 * The actual method that makes a request processing attempt.
 	 * <p>
@@ -2410,7 +3773,14 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 	{
 		int total = 0;
 		
-		total += mainQueue.size();
+		total += mainQueueSize();
+		
+		for (RRLMainQueueLane lane : mainQueueLanes)
+		{
+			BlockingQueue<RRLEntry<Input, Output>> dQueue = lane.getDispatchQueue();
+			if (dQueue != null)
+				total += dQueue.size();
+		}
 		
 		for (RRLDelayQueueData dq : delayQueues)
 			total += dq.size();
@@ -2432,7 +3802,23 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 		if (cState != RRLControlState.NOT_STARTED)
 			throw new IllegalStateException("Unable to start service which is not in NON_STARTED state: " + cState);
 		
-		mainQueueProcessingThread.start();
+		// Start dispatch workers first so that misconfiguration (e.g. no 
+		// executor service for dispatch mode) fails before any threads are started;
+		// workers are split between lanes as evenly as possible
+		{
+			int totalWorkers = config.getRequestProcessingThreadPoolConfig().get(1);
+			int laneCount = mainQueueLanes.size();
+			for (RRLMainQueueLane lane : mainQueueLanes)
+			{
+				BlockingQueue<RRLEntry<Input, Output>> dQueue = lane.getDispatchQueue();
+				if (dQueue != null)
+					spiStartDispatchWorkers(dQueue, 
+						totalWorkers / laneCount + (lane.getIndex() < totalWorkers % laneCount ? 1 : 0));
+			}
+		}
+		
+		for (RRLMainQueueLane lane : mainQueueLanes)
+			lane.getProcessingThread().start();
 		
 		for (RRLDelayQueueData dq : delayQueues)
 			dq.getProcessingThread().start();
@@ -2498,7 +3884,29 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 			entry.setEarliestProcessingTimeDelay(now, delayBeforeFirstAttempMs);
 		}
 		
-		mainQueue.add(entry);
+		{
+			int lane;
+			try
+			{
+				lane = spiSelectMainQueueLane(request);
+				if ((lane < 0) || (lane >= mainQueueLanes.size()))
+					throw new IllegalStateException("spiSelectMainQueueLane(..) returned invalid lane index [" + lane + "], must be between 0 and " + (mainQueueLanes.size() - 1) + " (inclusive) for request: " + request);
+			} catch (RuntimeException e)
+			{
+				try
+				{
+					// log error in spi method
+					logSpiMethodException(null, e);
+				} catch (InterruptedException e2)
+				{
+					throw new InterruptedRuntimeException(e2);
+				}
+				throw e;
+			}
+			entry.setLane(lane);
+		}
+		
+		addToMainQueue(entry);
 		processingRequestsCount.incrementAndGet();
 		
 		sneakyGuardedEventListenerInvocation(evListener -> evListener.requestAdded(entry));
@@ -2531,6 +3939,48 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 		return internalSubmit(request, timeLimitMs, -1).getFuture();
 	}
 	
+	/**
+	 * Submits all the given requests for execution and sets limit for how 
+	 * long these requests may be processed until timing out (in [virtual] ms).
+	 * <p>
+	 * Each request is processed (and retried) individually, but they can be
+	 * processed together if batch mode is enabled (see {@link RRLConfig#getRequestBatchSize()}).
+	 * <p>
+	 * If any request is rejected (e.g. due to {@link RRLConfig#getMaxPendingRequests()}),
+	 * then cancellation is requested for requests that were already submitted
+	 * in this call and the exception is re-thrown.
+	 * 
+	 * @param requests none of the requests may be null
+	 * @param timeLimitMs must be positive value
+	 * 
+	 * @return futures that can be used to interact with the requests and obtain
+	 * 		the results (in the same order as requests)
+	 */
+	public List<RRLFuture<Input, Output>> submitAllFor(Collection<Input> requests, long timeLimitMs)
+		throws IllegalArgumentException, RejectedExecutionException
+	{
+		for (Input request : requests)
+		{
+			if (nullable(request) == null)
+				throw new IllegalArgumentException("requests contain null");
+		}
+		
+		ArrayList<RRLFuture<Input, Output>> result = new ArrayList<>(requests.size());
+		try
+		{
+			for (Input request : requests)
+				result.add(internalSubmit(request, timeLimitMs, -1).getFuture());
+		} catch (RuntimeException e)
+		{
+			for (RRLFuture<Input, Output> future : result)
+				future.requestCancellation();
+			
+			throw e;
+		}
+		
+		return result;
+	}
+	
 	/**
 	 * Submits request for execution and sets limit for how long this request
 	 * may be processed until timing out (in [virtual] ms).
@@ -2697,7 +4147,8 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 		{
 			// the above spooldown can throw InterruptedException;
 			// so use finally block to try to terminate all the threads regardless
-			mainQueueProcessingThread.exitAsap();
+			for (RRLMainQueueLane lane : mainQueueLanes)
+				lane.getProcessingThread().exitAsap();
 			
 			for (RRLDelayQueueData dq : delayQueues)
 				dq.getProcessingThread().exitAsap();
@@ -2939,22 +4390,6 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 			// Need to build a new status
 			
 			BooleanObjectWrapper everythingAlive = BooleanObjectWrapper.of(true);
-			Function<@Nonnull Thread, @Nonnull Boolean> resetEverythingAliveIfThreadIsDead = new Function<@Nonnull Thread, @Nonnull Boolean>()
-			{
-				@Override
-				public Boolean apply(Thread t)
-				{
-					boolean alive = t.isAlive();
-					
-					if (!alive)
-					{
-						everythingAlive.setFalse();
-						return Boolean.FALSE;
-					}
-					else
-						return Boolean.TRUE;
-				}
-			};
 			Function<@Nonnull Boolean, @Nonnull Boolean> resetEverythingAliveIfFalse = new Function<@Nonnull Boolean, @Nonnull Boolean>()
 			{
 				@Override
@@ -2974,7 +4409,7 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 				.acceptingRequests(isAcceptingRequests())
 				.serviceControlState(cState)
 				.serviceControlStateDescription(cState.getDescription())
-				.mainQueueProcessingThreadAlive(       resetEverythingAliveIfThreadIsDead.apply(mainQueueProcessingThread))
+				.mainQueueProcessingThreadAlive(       resetEverythingAliveIfFalse.apply(isAllMainQueueLanesAlive()))
 				.delayQueueProcessingThreadsAreAlive(  resetEverythingAliveIfFalse.apply(isAllDelayQueuesAlive()))
 				.requestsExecutorServiceAlive(         resetEverythingAliveIfFalse.apply(
 					guardedSpiInvocationNoInterrupt(() -> spiStatusIsRequestProcessingExecutorServiceAlive(), 
@@ -2986,9 +4421,9 @@ public abstract class RetryAndRateLimitService<@Nonnull Input, Output>
 				.everythingAlive(everythingAlive.isTrue())
 				
 				.currentProcessingRequestsCount(processingRequestsCount.get())
-				.mainQueueSize(mainQueue.size())
+				.mainQueueSize(mainQueueSize())
 				
-				.estimatedAvailableRateLimiterTickets(rateLimiter.getAvailableTicketsEstimation())
+				.estimatedAvailableRateLimiterTickets(estimateAvailableRateLimiterTickets())
 				
 				.configMaxAttempts(config.getMaxAttempts())
 				.configDelaysAfterFailure(config.getDelaysAfterFailure())
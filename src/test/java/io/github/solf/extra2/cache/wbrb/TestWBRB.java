@@ -34,11 +34,14 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.io.File;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -51,6 +54,7 @@ import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -59,7 +63,10 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiConsumer;
+import java.util.function.LongFunction;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -74,9 +81,16 @@ import org.slf4j.LoggerFactory;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import io.github.solf.extra2.cache.exception.CacheElementNotYetLoadedException;
+import io.github.solf.extra2.cache.exception.CacheIllegalStateException;
 import io.github.solf.extra2.cache.wbrb.TestAbstractWBRBStringCache.TestCacheStorageEntry;
 import io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBCacheControlState;
+import io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBOffHeapSlabPool;
+import io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBStripedStats;
+import io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBStatsCounter;
+import io.github.solf.extra2.cache.wbrb.WriteBehindResyncInBackgroundCache.WBRBStripedStatsCounter;
 import io.github.solf.extra2.concurrent.Latch;
+import io.github.solf.extra2.concurrent.WAExecutors;
 import io.github.solf.extra2.concurrent.WAThreadPoolExecutor;
 import io.github.solf.extra2.concurrent.exception.WAInterruptedException;
 import io.github.solf.extra2.config.Configuration;
@@ -940,7 +954,7 @@ public class TestWBRB
 					withReadLock(cacheEntry, () -> {
 						WBRBCachePayload payload = cacheEntry.getPayload();
 						Pair<Integer, Integer> failuresData = withReadLock(cacheEntry, () -> 
-							new Pair<>(payload.getReadFailureCount().get(), payload.getFullCacheCycleFailureCount().get()));
+							new Pair<>(payload.getReadFailureCount(), payload.getFullCacheCycleFailureCount()));
 						int readFailures = failuresData.getValue0();
 						int fullCycleFailures = failuresData.getValue1();
 						int potentialReadFailures = readFailures + 1;
@@ -992,7 +1006,7 @@ public class TestWBRB
 				{
 					WBRBCacheEntry cacheEntry = writeEntry.getCacheEntry();
 					Pair<Integer, Integer> failuresData = withReadLock(cacheEntry, () -> 
-						new Pair<>(cacheEntry.getPayload().getWriteFailureCount().get(), cacheEntry.getPayload().getFullCacheCycleFailureCount().get()));
+						new Pair<>(cacheEntry.getPayload().getWriteFailureCount(), cacheEntry.getPayload().getFullCacheCycleFailureCount()));
 					int writeFailures = failuresData.getValue0();
 					int fullCycleFailures = failuresData.getValue1();
 					int potentialWriteFailures = writeFailures + 1;
@@ -2176,6 +2190,1910 @@ public class TestWBRB
 		
 	}
 	
+	/**
+	 * Tests main/return queue sharding (multiple queue processing threads).
+	 */
+	@Test
+	public void testQueueSharding() throws InterruptedException
+	{
+		final String name = "testQueueSharding";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("mainQueueShardCount", "4");
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0 /*read delay*/, 0)
+			.start();
+		
+		assertEquals(cache.mainQueues.length, 4);
+		assertEquals(cache.returnQueues.length, 4);
+		assertEquals(cache.mainQueueProcessingThreads.length, 4);
+		assertEquals(cache.returnQueueProcessingThreads.length, 4);
+		
+		Map<String, String> expected = new HashMap<>();
+		for (int i = 0; i < 20; i++)
+		{
+			String key = "key" + i;
+			cache.readForOrException(key, 1000);
+			cache.writeIfCachedOrException(key, 'u');
+			expected.put(key, "u");
+			
+			int shard = cache.spiNoLockGetQueueShardIndex(key);
+			assertBetweenInclusive(shard, 0, 3);
+			assertEquals(cache.spiNoLockGetQueueShardIndex(key), shard); // must be stable
+		}
+		
+		{
+			WBRBStatus status = cache.getStatus(0);
+			assertTrue(status.isEverythingAlive());
+			assertEquals(status.getCurrentCacheSize(), 20);
+			assertEquals(status.getMainQueueSize() + status.getReturnQueueSize(), 20);
+			
+			int usedShards = 0;
+			for (int i = 0; i < cache.mainQueues.length; i++)
+			{
+				if (cache.mainQueues[i].size() > 0)
+					usedShards++;
+			}
+			assertGreater(usedShards, 1);
+		}
+		
+		assertTrue(cache.flushFor(2000)); // must wait for all the shards
+		{
+			WBRBStatus status = cache.getStatus(0);
+			assertEquals(status.getCurrentCacheSize(), 0);
+			assertEquals(status.getMainQueueSize(), 0);
+			assertEquals(status.getReturnQueueSize(), 0);
+		}
+		assertStorageMapContentsExactlyEquals(cache.getStorageDataMap(), expected);
+		
+		assertTrue(cache.shutdownFor(2000));
+		
+		for (ExitableThread thread : cache.mainQueueProcessingThreads)
+			thread.join(1000);
+		for (ExitableThread thread : cache.returnQueueProcessingThreads)
+			thread.join(1000);
+		assertFalse(cache.getStatus(0).isMainQueueProcessingThreadAlive());
+		assertFalse(cache.getStatus(0).isReturnQueueProcessingThreadAlive());
+	}
+	
+	/**
+	 * Tests main/return queue implementation -- bucket ordering, due time
+	 * handling, re-queueing of deferred entries and waking up processing thread.
+	 */
+	@Test
+	public void testDeadlineBucketQueue() throws InterruptedException
+	{
+		final String name = "testDeadlineBucketQueue";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("queueBucketTimeGranularity", "100ms");
+		
+		// cache is not started, queue is used directly
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0, 0);
+		final TestWBRBStringOverwriteCache.WBRBDeadlineBucketQueue queue = cache.new WBRBDeadlineBucketQueue();
+		
+		final Map<String, TestWBRBStringOverwriteCache.WBRBCacheEntry> entries = new HashMap<>();
+		final BiConsumer<String, Long> add = (key, inQueueSince) -> {
+			TestWBRBStringOverwriteCache.WBRBCacheEntry entry = cache.new WBRBCacheEntry(key, inQueueSince);
+			entries.put(key, entry);
+			queue.add(entry);
+		};
+		final List<TestWBRBStringOverwriteCache.WBRBCacheEntry> taken = new ArrayList<>();
+		final List<String> takenKeys = new ArrayList<>();
+		final LongFunction<List<String>> drainDueAt = dueAt -> {
+			taken.clear();
+			int count = queue.drainDueEntriesTo(taken, inQueueSince -> inQueueSince <= dueAt);
+			assertEquals(count, taken.size());
+			takenKeys.clear();
+			for (TestWBRBStringOverwriteCache.WBRBCacheEntry entry : taken)
+				takenKeys.add(entry.getKey());
+			return takenKeys;
+		};
+		
+		add.accept("a", 1000L);
+		add.accept("b", 1050L);
+		add.accept("c", 1099L);
+		add.accept("d", 1100L); // next bucket
+		add.accept("e", 1210L);
+		assertEquals(queue.size(), 5);
+		
+		// first bucket is due when its EARLIEST entry is due
+		assertEquals(queue.awaitFirstBucket(), 1000L);
+		assertEquals(drainDueAt.apply(999), Arrays.asList());
+		
+		// entries are released by their own due time, not held back by the rest of the bucket
+		assertEquals(drainDueAt.apply(1050), Arrays.asList("a", "b"));
+		assertEquals(queue.size(), 5); // taken entries count until handled
+		assertEquals(queue.awaitFirstBucket(), 1099L);
+		
+		// all due entries are taken across buckets
+		assertEquals(drainDueAt.apply(1150), Arrays.asList("c", "d"));
+		assertEquals(queue.awaitFirstBucket(), 1210L);
+		
+		// out-of-order entry goes into the last bucket, but still makes it due earlier
+		add.accept("f", 1005L);
+		assertEquals(queue.awaitFirstBucket(), 1005L);
+		assertEquals(drainDueAt.apply(1100), Arrays.asList("f"));
+		assertEquals(queue.awaitFirstBucket(), 1210L);
+		
+		// deferred entries are re-queued at the head of the queue
+		queue.requeueTakenEntries(Arrays.asList(nn(entries.get("c")), nn(entries.get("a"))));
+		assertEquals(queue.awaitFirstBucket(), 1000L);
+		assertEquals(drainDueAt.apply(1099), Arrays.asList("c", "a"));
+		assertEquals(drainDueAt.apply(5000), Arrays.asList("e"));
+		assertEquals(drainDueAt.apply(5000), Arrays.asList());
+		
+		for (int i = 0; i < 6; i++)
+			queue.takenEntryHandled();
+		assertEquals(queue.size(), 0);
+		
+		// wake up requested before waiting is not lost
+		{
+			queue.wakeUp();
+			long start = System.currentTimeMillis();
+			queue.awaitWakeUp(10000);
+			assertLess(System.currentTimeMillis() - start, 5000L);
+		}
+		// wake up is consumed by the wait
+		{
+			long start = System.currentTimeMillis();
+			queue.awaitWakeUp(50);
+			assertGreaterOrEqual(System.currentTimeMillis() - start, 45L);
+		}
+		// waiting thread is woken up
+		{
+			new Thread(() -> {
+				try
+				{
+					Thread.sleep(100);
+				} catch (InterruptedException e)
+				{
+					// ignore
+				}
+				queue.wakeUp();
+			}).start();
+			long start = System.currentTimeMillis();
+			queue.awaitWakeUp(10000);
+			assertLess(System.currentTimeMillis() - start, 5000L);
+		}
+	}
+	
+	/**
+	 * Tests batched storage reads & writes ({@link WriteBehindResyncInBackgroundCache#readFromStorageBatch(List)}
+	 * and {@link WriteBehindResyncInBackgroundCache#writeToStorageBatch(Map)}).
+	 */
+	@Test
+	public void testBatchedStorageAccess() throws InterruptedException
+	{
+		final String name = "testBatchedStorageAccess";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("readBatchMaxSize", "5");
+		config.override("writeBatchMaxSize", "5");
+		config.override("readQueueBatchingDelay", "50ms");
+		config.override("writeQueueBatchingDelay", "50ms");
+		
+		final String failKey = "failKey";
+		
+		final List<Integer> readBatchSizes = Collections.synchronizedList(new ArrayList<>());
+		final List<Integer> writeBatchSizes = Collections.synchronizedList(new ArrayList<>());
+		final AtomicInteger singleStorageAccessCounter = new AtomicInteger(0);
+		final AtomicInteger failedReadCounter = new AtomicInteger(0);
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0, 0)
+			{
+				@Override
+				protected String readFromStorage(String key, boolean isRefreshRead)
+					throws InterruptedException
+				{
+					singleStorageAccessCounter.incrementAndGet();
+					return super.readFromStorage(key, isRefreshRead);
+				}
+				
+				@Override
+				protected void writeToStorage(String key, String dataToWrite)
+					throws InterruptedException
+				{
+					singleStorageAccessCounter.incrementAndGet();
+					super.writeToStorage(key, dataToWrite);
+				}
+
+				@Override
+				protected Map<String, NullableOptional<String>> readFromStorageBatch(List<String> keys)
+					throws InterruptedException
+				{
+					readBatchSizes.add(keys.size());
+					
+					Map<String, NullableOptional<String>> result = new HashMap<>();
+					for (String key : keys)
+					{
+						if (failKey.equals(key))
+						{
+							failedReadCounter.incrementAndGet();
+							result.put(key, NullableOptional.emptyWithException(new IllegalStateException("test read failure")));
+						}
+						else
+							result.put(key, NullableOptional.of(getOrCreateStorageEntry(key).getValue()));
+					}
+					
+					return result;
+				}
+
+				@Override
+				protected @Nullable Map<String, Throwable> writeToStorageBatch(Map<String, String> dataToWrite)
+					throws InterruptedException
+				{
+					writeBatchSizes.add(dataToWrite.size());
+					
+					for (Entry<String, String> entry : dataToWrite.entrySet())
+					{
+						TestCacheStorageEntry storageEntry = getOrCreateStorageEntry(entry.getKey());
+						synchronized(storageEntry)
+						{
+							spiSynchronized_applyWrite(entry.getValue(), storageEntry);
+						}
+					}
+					
+					return null;
+				}
+			}
+			.start();
+		
+		Map<String, String> expected = new HashMap<>();
+		for (int i = 0; i < 12; i++)
+			cache.preloadCache("key" + i);
+		cache.preloadCache(failKey);
+		
+		for (int i = 0; i < 12; i++)
+		{
+			String key = "key" + i;
+			assertEquals(cache.readForOrException(key, 1000), "");
+			cache.writeIfCachedOrException(key, 'b');
+			expected.put(key, "b");
+		}
+		assertFails(() -> cache.readForOrException(failKey, 2000));
+		assertGreater(failedReadCounter.get(), 0);
+		
+		assertTrue(cache.flushFor(2000));
+		assertStorageMapContentsExactlyEquals(cache.getStorageDataMap(), expected);
+		
+		assertEquals(singleStorageAccessCounter.get(), 0);
+		
+		int readCount = 0;
+		for (int size : readBatchSizes)
+		{
+			assertBetweenInclusive(size, 1, 5);
+			readCount += size;
+		}
+		assertGreaterOrEqual(readCount, 13);
+		assertLess(readBatchSizes.size(), readCount); // some reads must've been batched
+		
+		int writeCount = 0;
+		for (int size : writeBatchSizes)
+		{
+			assertBetweenInclusive(size, 1, 5);
+			writeCount += size;
+		}
+		assertGreaterOrEqual(writeCount, 12);
+		
+		assertTrue(cache.shutdownFor(2000));
+	}
+	
+	/**
+	 * Tests default implementations of {@link WriteBehindResyncInBackgroundCache#readFromStorageBatch(List)}
+	 * and {@link WriteBehindResyncInBackgroundCache#writeToStorageBatch(Map)} --
+	 * these must fall back to per-key storage access (with per-key failures).
+	 */
+	@Test
+	public void testBatchedStorageAccessDefaults() throws InterruptedException
+	{
+		final String name = "testBatchedStorageAccessDefaults";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("readBatchMaxSize", "5");
+		config.override("writeBatchMaxSize", "5");
+		config.override("readQueueBatchingDelay", "50ms");
+		config.override("writeQueueBatchingDelay", "50ms");
+		
+		final String failReadKey = "failReadKey";
+		final String failWriteKey = "failWriteKey";
+		
+		final List<Integer> readBatchSizes = Collections.synchronizedList(new ArrayList<>());
+		final List<Integer> writeBatchSizes = Collections.synchronizedList(new ArrayList<>());
+		final AtomicInteger failedWriteCounter = new AtomicInteger(0);
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0, 0)
+			{
+				@Override
+				protected String readFromStorage(String key, boolean isRefreshRead)
+					throws InterruptedException
+				{
+					if (failReadKey.equals(key))
+						throw new IllegalStateException("test read failure");
+					
+					return super.readFromStorage(key, isRefreshRead);
+				}
+				
+				@Override
+				protected void writeToStorage(String key, String dataToWrite)
+					throws InterruptedException
+				{
+					if (failWriteKey.equals(key) && (failedWriteCounter.incrementAndGet() == 1))
+						throw new IllegalStateException("test write failure"); // first write fails
+					
+					super.writeToStorage(key, dataToWrite);
+				}
+
+				@Override
+				protected Map<String, NullableOptional<String>> spiNoLockReadFromStorageBatch(List<String> keys,
+					List<WBRBCacheEntry> batch)
+					throws InterruptedException
+				{
+					readBatchSizes.add(keys.size());
+					return super.spiNoLockReadFromStorageBatch(keys, batch);
+				}
+
+				@Override
+				protected @Nullable Map<String, Throwable> spiNoLockWriteToStorageBatch(List<WBRBWriteQueueEntry> batch)
+					throws InterruptedException
+				{
+					writeBatchSizes.add(batch.size());
+					return super.spiNoLockWriteToStorageBatch(batch);
+				}
+			}
+			.start();
+		
+		Map<String, String> expected = new HashMap<>();
+		for (int i = 0; i < 4; i++)
+			cache.preloadCache("key" + i);
+		cache.preloadCache(failReadKey);
+		cache.preloadCache(failWriteKey);
+		
+		for (int i = 0; i < 4; i++)
+		{
+			String key = "key" + i;
+			assertEquals(cache.readForOrException(key, 1000), "");
+			cache.writeIfCachedOrException(key, 'c');
+			expected.put(key, "c");
+		}
+		assertEquals(cache.readForOrException(failWriteKey, 1000), "");
+		cache.writeIfCachedOrException(failWriteKey, 'c');
+		expected.put(failWriteKey, "c");
+		
+		assertFails(() -> cache.readForOrException(failReadKey, 2000));
+		
+		assertTrue(cache.flushFor(4000));
+		assertStorageMapContentsExactlyEquals(cache.getStorageDataMap(), expected);
+		
+		assertGreaterOrEqual(failedWriteCounter.get(), 2); // failed write must've been retried
+		assertGreater(cache.getStatus(0).getStorageWriteFailures(), 0L);
+		
+		int readCount = 0;
+		for (int size : readBatchSizes)
+			readCount += size;
+		assertGreaterOrEqual(readCount, 6);
+		assertLess(readBatchSizes.size(), readCount); // some reads must've been batched
+		
+		int writeCount = 0;
+		for (int size : writeBatchSizes)
+			writeCount += size;
+		assertGreaterOrEqual(writeCount, 6);
+		
+		assertTrue(cache.shutdownFor(2000));
+	}
+	
+	/**
+	 * Tests that batched reads & writes are not held back indefinitely while
+	 * new items keep arriving ({@link WBRBConfig#getReadBatchLingerTime()} and
+	 * {@link WBRBConfig#getWriteBatchLingerTime()}).
+	 */
+	@Test
+	public void testBatchLingerTime() throws InterruptedException
+	{
+		final String name = "testBatchLingerTime";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("readBatchMaxSize", "1000");
+		config.override("writeBatchMaxSize", "1000");
+		config.override("readQueueBatchingDelay", "200ms");
+		config.override("writeQueueBatchingDelay", "200ms");
+		config.override("readBatchLingerTime", "100ms");
+		config.override("writeBatchLingerTime", "100ms");
+		
+		final List<Integer> readBatchSizes = Collections.synchronizedList(new ArrayList<>());
+		final List<Integer> writeBatchSizes = Collections.synchronizedList(new ArrayList<>());
+		final AtomicLong firstReadBatchAt = new AtomicLong(0);
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0, 0)
+			{
+				@Override
+				protected Map<String, NullableOptional<String>> readFromStorageBatch(List<String> keys)
+					throws InterruptedException
+				{
+					firstReadBatchAt.compareAndSet(0, System.currentTimeMillis());
+					readBatchSizes.add(keys.size());
+					
+					Map<String, NullableOptional<String>> result = new HashMap<>();
+					for (String key : keys)
+						result.put(key, NullableOptional.of(getOrCreateStorageEntry(key).getValue()));
+					
+					return result;
+				}
+
+				@Override
+				protected @Nullable Map<String, Throwable> writeToStorageBatch(Map<String, String> dataToWrite)
+					throws InterruptedException
+				{
+					writeBatchSizes.add(dataToWrite.size());
+					
+					for (Entry<String, String> entry : dataToWrite.entrySet())
+					{
+						TestCacheStorageEntry storageEntry = getOrCreateStorageEntry(entry.getKey());
+						synchronized(storageEntry)
+						{
+							spiSynchronized_applyWrite(entry.getValue(), storageEntry);
+						}
+					}
+					
+					return null;
+				}
+			}
+			.start();
+		
+		// New items keep arriving well within batching delay, so without
+		// linger time everything would be collected into a single batch
+		final long start = System.currentTimeMillis();
+		Map<String, String> expected = new HashMap<>();
+		for (int i = 0; i < 30; i++)
+		{
+			String key = "key" + i;
+			cache.preloadCache(key);
+			Thread.sleep(30);
+		}
+		Thread.sleep(500); // last batch is only read after batching delay expires
+		for (int i = 0; i < 30; i++)
+		{
+			String key = "key" + i;
+			cache.writeIfCachedOrException(key, 'l');
+			expected.put(key, "l");
+		}
+		
+		assertTrue(cache.flushFor(4000));
+		assertStorageMapContentsExactlyEquals(cache.getStorageDataMap(), expected);
+		
+		assertLess(firstReadBatchAt.get() - start, 600L); // must not wait for reads to stop arriving
+		assertGreaterOrEqual(readBatchSizes.size(), 3);
+		
+		int readCount = 0;
+		for (int size : readBatchSizes)
+			readCount += size;
+		assertGreaterOrEqual(readCount, 30);
+		
+		int writeCount = 0;
+		for (int size : writeBatchSizes)
+			writeCount += size;
+		assertGreaterOrEqual(writeCount, 30);
+		
+		assertTrue(cache.shutdownFor(2000));
+	}
+	
+	/**
+	 * Tests pipelined read-before-write ({@link WBRBConfig#isReadBeforeWritePipelining()}) --
+	 * reads for the whole write batch must go via {@link WriteBehindResyncInBackgroundCache#readFromStorageBatch(List)}
+	 * and writes via {@link WBRBReadBeforeWriteCache#writeToStorageBatchRBW(Map)}
+	 */
+	@Test
+	public void testReadBeforeWritePipelining() throws InterruptedException
+	{
+		final String name = "testReadBeforeWritePipelining";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("writeBatchMaxSize", "5");
+		config.override("writeQueueBatchingDelay", "50ms");
+		config.override("readBeforeWritePipelining", "true");
+		
+		final List<Integer> readBatchSizes = Collections.synchronizedList(new ArrayList<>());
+		final List<Integer> writeBatchSizes = Collections.synchronizedList(new ArrayList<>());
+		final AtomicInteger singleWriteCounter = new AtomicInteger(0);
+		
+		final TestWBRBReadBeforeWriteCache cache = new TestWBRBReadBeforeWriteCache(name, config, false, 0, 0)
+			{
+				@Override
+				protected void writeToStorageRBW(String key, String dataToWrite)
+					throws InterruptedException
+				{
+					singleWriteCounter.incrementAndGet();
+					super.writeToStorageRBW(key, dataToWrite);
+				}
+
+				@Override
+				protected Map<String, NullableOptional<StringBuilder>> readFromStorageBatch(List<String> keys)
+					throws InterruptedException
+				{
+					readBatchSizes.add(keys.size());
+					
+					Map<String, NullableOptional<StringBuilder>> result = new HashMap<>();
+					for (String key : keys)
+						result.put(key, NullableOptional.of(new StringBuilder(getOrCreateStorageEntry(key).getValue())));
+					
+					return result;
+				}
+
+				@Override
+				protected @Nullable Map<String, Throwable> writeToStorageBatchRBW(Map<String, String> dataToWrite)
+					throws InterruptedException
+				{
+					writeBatchSizes.add(dataToWrite.size());
+					
+					for (Entry<String, String> entry : dataToWrite.entrySet())
+					{
+						TestCacheStorageEntry storageEntry = getOrCreateStorageEntry(entry.getKey());
+						synchronized(storageEntry)
+						{
+							storageEntry.setValue(entry.getValue());
+						}
+					}
+					
+					return null;
+				}
+			}
+			.start();
+		
+		Map<String, String> expected = new HashMap<>();
+		for (int i = 0; i < 12; i++)
+		{
+			String key = "key" + i;
+			assertEquals(cache.readForOrException(key, 1000), "");
+			cache.writeIfCachedOrException(key, 'a');
+			cache.writeIfCachedOrException(key, 'b');
+			expected.put(key, "ab");
+		}
+		
+		assertTrue(cache.flushFor(2000));
+		assertStorageMapContentsExactlyEquals(cache.getStorageDataMap(), expected);
+		
+		for (int i = 0; i < 12; i++)
+			assertEquals(cache.readForOrException("key" + i, 1000), "ab");
+		
+		assertEquals(singleWriteCounter.get(), 0);
+		
+		int readCount = 0;
+		for (int size : readBatchSizes)
+		{
+			assertBetweenInclusive(size, 1, 5);
+			readCount += size;
+		}
+		assertGreaterOrEqual(readCount, 12);
+		assertLess(readBatchSizes.size(), readCount); // some reads must've been batched
+		
+		int writeCount = 0;
+		for (int size : writeBatchSizes)
+		{
+			assertBetweenInclusive(size, 1, 5);
+			writeCount += size;
+		}
+		assertGreaterOrEqual(writeCount, 12);
+		
+		assertTrue(cache.shutdownFor(2000));
+	}
+	
+	/**
+	 * Tests pipelined read-before-write ({@link WBRBConfig#isReadBeforeWritePipelining()})
+	 * with the same key present several times in one write batch (possible
+	 * if {@link WBRBConfig#isCoalesceQueuedWrites()} is disabled) -- repeated
+	 * writes must be done in a follow-up round so that none of them are lost.
+	 */
+	@Test
+	public void testReadBeforeWritePipeliningDuplicateKeys() throws InterruptedException
+	{
+		final String name = "testReadBeforeWritePipeliningDuplicateKeys";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("writeBatchMaxSize", "5");
+		config.override("readBeforeWritePipelining", "true");
+		
+		final List<List<String>> readBatches = Collections.synchronizedList(new ArrayList<>());
+		final List<List<String>> writeBatches = Collections.synchronizedList(new ArrayList<>());
+		
+		class DuplicateKeysCache extends TestWBRBReadBeforeWriteCache
+		{
+			public DuplicateKeysCache(OverrideFlatConfiguration cacheConfig)
+			{
+				super(name, cacheConfig, false, 0, 0);
+			}
+			
+			@Override
+			protected Map<String, NullableOptional<StringBuilder>> readFromStorageBatch(List<String> keys)
+				throws InterruptedException
+			{
+				readBatches.add(new ArrayList<>(keys));
+				
+				Map<String, NullableOptional<StringBuilder>> result = new HashMap<>();
+				for (String key : keys)
+					result.put(key, NullableOptional.of(new StringBuilder(getOrCreateStorageEntry(key).getValue())));
+				
+				return result;
+			}
+
+			@Override
+			protected @Nullable Map<String, Throwable> writeToStorageBatchRBW(Map<String, String> dataToWrite)
+				throws InterruptedException
+			{
+				writeBatches.add(new ArrayList<>(dataToWrite.keySet()));
+				
+				for (Entry<String, String> entry : dataToWrite.entrySet())
+					getOrCreateStorageEntry(entry.getKey()).setValue(entry.getValue());
+				
+				return null;
+			}
+			
+			/**
+			 * Writes given updates (key followed by update character) as
+			 * a single write batch.
+			 */
+			public @Nullable Map<String, Throwable> writeBatch(String... keysAndUpdates) 
+				throws InterruptedException
+			{
+				List<WBRBWriteQueueEntry> batch = new ArrayList<>();
+				for (int i = 0; i < keysAndUpdates.length; i += 2)
+				{
+					String key = keysAndUpdates[i];
+					batch.add(new WBRBWriteQueueEntry(key, nn(inflightMap.get(key)), 
+						new RBWWriteData<String, Character>(Collections.singletonList(keysAndUpdates[i + 1].charAt(0)))));
+				}
+				
+				return spiNoLockWriteToStorageBatchRBW(batch);
+			}
+		}
+		
+		final DuplicateKeysCache cache = new DuplicateKeysCache(config).start();
+		
+		assertEquals(cache.readForOrException("dup", 1000), "");
+		assertEquals(cache.readForOrException("other", 1000), "");
+		readBatches.clear();
+		
+		assertNull(cache.writeBatch("dup", "a", "other", "c", "dup", "b"));
+		
+		assertEquals(readBatches.toString(), "[[dup, other], [dup]]");
+		assertEquals(writeBatches.toString(), "[[dup, other], [dup]]");
+		
+		assertEquals(nn(cache.getStorageDataMap().get("dup")).getValue(), "ab");
+		assertEquals(nn(cache.getStorageDataMap().get("other")).getValue(), "c");
+		
+		assertTrue(cache.shutdownFor(2000));
+	}
+	
+	/**
+	 * Tests optimistic writes in {@link WBRBReadBeforeWriteCache} 
+	 * ({@link WBRBConfig#isReadBeforeWriteOptimistic()}) -- read-before-write
+	 * must only be done on storage version conflict.
+	 */
+	@Test
+	public void testReadBeforeWriteOptimistic() throws InterruptedException
+	{
+		final String name = "testReadBeforeWriteOptimistic";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("readBeforeWriteOptimistic", "true");
+		// Entry must stay in cache between writes (so that storage version is retained) -- flush would expire it
+		config.override("mainQueueCacheTime", "50ms");
+		config.override("returnQueueCacheTimeMin", "50ms");
+		config.override("untouchedItemCacheExpirationDelay", "10s");
+		
+		final AtomicInteger readBeforeWriteCounter = new AtomicInteger(0);
+		final AtomicInteger conditionalWriteCounter = new AtomicInteger(0);
+		
+		final TestWBRBReadBeforeWriteCache cache = new TestWBRBReadBeforeWriteCache(name, config, false, 0, 0)
+			{
+				@Override
+				protected StringBuilder spiNoLockReadFromStorageRBW(String key, boolean isRefreshRead,
+					@Nullable WBRBWriteQueueEntry writeEntry, WBRBCacheEntry cacheEntry)
+					throws InterruptedException
+				{
+					if (writeEntry != null)
+						readBeforeWriteCounter.incrementAndGet();
+					return super.spiNoLockReadFromStorageRBW(key, isRefreshRead, writeEntry, cacheEntry);
+				}
+
+				@Override
+				protected @Nullable Object extractStorageVersionRBW(String key, StringBuilder storageData)
+				{
+					return storageData.toString(); // content is used as version for testing
+				}
+
+				@Override
+				protected NullableOptional<@Nullable Object> writeToStorageConditionalRBW(String key,
+					String dataToWrite, Object expectedVersion)
+					throws InterruptedException
+				{
+					conditionalWriteCounter.incrementAndGet();
+					
+					TestCacheStorageEntry storageEntry = getOrCreateStorageEntry(key);
+					synchronized(storageEntry)
+					{
+						if (!storageEntry.getValue().equals(expectedVersion))
+							return NullableOptional.empty(); // conflict
+						
+						storageEntry.setValue(dataToWrite);
+						return NullableOptional.of(dataToWrite);
+					}
+				}
+			}
+			.start();
+		
+		final String key = "key1";
+		assertEquals(cache.readForOrException(key, 1000), "");
+		
+		// Storage version is kept in an entry subclass only when optimistic writes are enabled
+		assertEquals(nn(cache.inflightMap.get(key)).getClass().getSimpleName(), "RBWVersionedCacheEntry");
+		
+		// Optimistic writes, no reads
+		cache.writeIfCachedOrException(key, 'a');
+		Thread.sleep(300);
+		cache.writeIfCachedOrException(key, 'b');
+		Thread.sleep(300);
+		
+		assertEquals(nn(cache.getStorageDataMap().get(key)).getValue(), "ab");
+		assertEquals(readBeforeWriteCounter.get(), 0);
+		assertEquals(cache.getStatus(0).getStorageWriteOptimisticSuccesses(), 2);
+		assertEquals(cache.getStatus(0).getStorageWriteOptimisticConflicts(), 0);
+		
+		// Concurrent storage modification -- conflict & read-before-write
+		nn(cache.getStorageDataMap().get(key)).setValue("abX");
+		cache.writeIfCachedOrException(key, 'c');
+		Thread.sleep(300);
+		
+		assertEquals(nn(cache.getStorageDataMap().get(key)).getValue(), "abXc");
+		assertEquals(cache.readForOrException(key, 1000), "abXc");
+		assertEquals(readBeforeWriteCounter.get(), 1);
+		assertEquals(cache.getStatus(0).getStorageWriteOptimisticSuccesses(), 2);
+		assertEquals(cache.getStatus(0).getStorageWriteOptimisticConflicts(), 1);
+		
+		// Storage version must be known again after read-before-write
+		cache.writeIfCachedOrException(key, 'd');
+		Thread.sleep(300);
+		
+		assertEquals(nn(cache.getStorageDataMap().get(key)).getValue(), "abXcd");
+		assertEquals(readBeforeWriteCounter.get(), 1);
+		assertEquals(cache.getStatus(0).getStorageWriteOptimisticSuccesses(), 3);
+		assertEquals(conditionalWriteCounter.get(), 5);
+		
+		assertTrue(cache.shutdownFor(2000));
+	}
+	
+	/**
+	 * Tests {@link WriteBehindResyncInBackgroundCache#readAsync(Object, long)}
+	 */
+	@Test
+	public void testReadAsync() throws InterruptedException, ExecutionException, TimeoutException
+	{
+		final String name = "testReadAsync";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 200 /*read delay*/, 0)
+			.start();
+		
+		{
+			// Normal async read, must not block
+			long start = System.currentTimeMillis();
+			CompletableFuture<String> future = cache.readAsync("key1", 2000);
+			assertLess(System.currentTimeMillis() - start, 150L);
+			assertFalse(future.isDone());
+			
+			assertEquals(future.get(1000, TimeUnit.MILLISECONDS), "");
+			
+			// Already loaded -- must be completed right away
+			cache.writeIfCachedOrException("key1", 'a');
+			CompletableFuture<String> future2 = cache.readAsync("key1", 2000);
+			assertTrue(future2.isDone());
+			assertEquals(future2.get(), "a");
+		}
+		
+		{
+			// Time limit is shorter than read time
+			CompletableFuture<String> future = cache.readAsync("key2", 50);
+			assertFalse(future.isDone());
+			
+			try
+			{
+				future.get(1000, TimeUnit.MILLISECONDS);
+				fail("should not be reached");
+			} catch (ExecutionException e)
+			{
+				assertTrue(e.getCause() instanceof CacheElementNotYetLoadedException, e.toString());
+			}
+			
+			// Element must still be loaded eventually
+			assertEquals(cache.readAsync("key2", 1000).get(1000, TimeUnit.MILLISECONDS), "");
+		}
+		
+		{
+			// Zero limit -- schedules loading but fails right away
+			CompletableFuture<String> future = cache.readAsync("key3", 0);
+			assertTrue(future.isCompletedExceptionally());
+			
+			assertEquals(cache.readForOrException("key3", 1000), "");
+		}
+		
+		{
+			// Pending async reads must be failed on shutdown
+			CompletableFuture<String> future = cache.readAsync("key4", 5000);
+			assertFalse(future.isDone());
+			
+			assertTrue(cache.shutdownFor(2000));
+			assertTrue(future.isDone());
+		}
+	}
+	
+	/**
+	 * Tests lock-free (optimistic) reads.
+	 */
+	@Test
+	public void testOptimisticReads() throws InterruptedException
+	{
+		final String name = "testOptimisticReads";
+		
+		{
+			// Default config -- no optimistic reads
+			OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+			final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name + "-default", config, 0, 0)
+				.start();
+			
+			cache.readForOrException("key", 1000);
+			assertNull(nn(cache.inflightMap.get("key")).getOptimisticReadLock());
+			
+			// Entries must not carry fields for disabled features
+			assertEquals(nn(cache.inflightMap.get("key")).getClass().getSimpleName(), "WBRBCacheEntry");
+			
+			assertTrue(cache.shutdownFor(2000));
+		}
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("optimisticReads", "true");
+		config.override("maxUpdatesToCollect", "5000");
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0, 0)
+			.start();
+		
+		final String key = "key";
+		assertEquals(cache.readForOrException(key, 1000), "");
+		assertNotNull(nn(cache.inflightMap.get(key)).getOptimisticReadLock());
+		assertEquals(nn(cache.inflightMap.get(key)).getClass().getSimpleName(), "WBRBExtendedCacheEntry");
+		
+		cache.writeIfCachedOrException(key, 'a');
+		assertEquals(cache.readIfCachedOrException(key), "a");
+		
+		// Concurrent reads & writes -- readers must only ever see consistent values
+		final int writeCount = 2000;
+		final AtomicInteger badReads = new AtomicInteger(0);
+		final AtomicBoolean writesDone = new AtomicBoolean(false);
+		WAThreadPoolExecutor pool = new WAThreadPoolExecutor(name + "-readers", true);
+		for (int i = 0; i < 4; i++)
+		{
+			pool.waSubmit(() -> {
+				int lastLength = 0;
+				while (!writesDone.get())
+				{
+					String value = cache.readIfCachedOrException(key);
+					if ((value.length() < lastLength) || !value.replace("a", "").isEmpty())
+						badReads.incrementAndGet();
+					lastLength = value.length();
+				}
+				return null;
+			});
+		}
+		
+		for (int i = 1; i < writeCount; i++)
+			cache.writeIfCachedOrException(key, 'a');
+		writesDone.set(true);
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(2000, TimeUnit.MILLISECONDS));
+		
+		assertEquals(badReads.get(), 0);
+		assertEquals(cache.readIfCachedOrException(key).length(), writeCount);
+		
+		assertTrue(cache.flushFor(2000));
+		assertEquals(nn(cache.getStorageDataMap().get(key)).getValue().length(), writeCount);
+		
+		assertTrue(cache.shutdownFor(2000));
+	}
+	
+	
+	/**
+	 * Tests that lock-free (optimistic) reads are not used when read decision
+	 * SPI is overridden (as they would bypass it).
+	 */
+	@Test
+	public void testOptimisticReadsOverriddenReadDecision() throws InterruptedException
+	{
+		final String name = "testOptimisticReadsOverriddenReadDecision";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("optimisticReads", "true");
+		
+		final AtomicInteger decisionCount = new AtomicInteger(0);
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0, 0)
+			{
+				@Override
+				protected WBRBCacheAccessDecision spiReadLockMakeCacheReadDecision(
+					String key, WBRBCacheEntry cacheEntry,
+					WBRBCachePayload payload)
+						throws InterruptedException
+				{
+					decisionCount.incrementAndGet();
+					
+					if (key.startsWith("override") && (payload.getReadStatus() == WBRBCacheEntryReadStatus.DATA_READY))
+						return new WBRBCacheAccessDecision(new StringBuilder("overridden"));
+					
+					return super.spiReadLockMakeCacheReadDecision(key, cacheEntry, payload);
+				}
+			}
+			.start();
+		
+		assertFalse(cache.optimisticReadsSupported);
+		assertEquals(cache.getStatus(0).getMsgWarnCount(), 1); // warning about optimistic reads not being used
+		
+		assertEquals(cache.readForOrException("key", 1000), "");
+		assertEquals(cache.readForOrException("override-key", 1000), "overridden");
+		assertNull(nn(cache.inflightMap.get("key")).getOptimisticReadLock());
+		
+		cache.writeIfCachedOrException("key", 'a');
+		cache.writeIfCachedOrException("override-key", 'a');
+		
+		int decisionsBefore = decisionCount.get();
+		for (int i = 0; i < 10; i++)
+		{
+			assertEquals(cache.readIfCachedOrException("key"), "a");
+			assertEquals(cache.readIfCachedOrException("override-key"), "overridden");
+		}
+		assertEquals(decisionCount.get(), decisionsBefore + 20); // every read must go through the decision
+		
+		assertTrue(cache.shutdownFor(2000));
+		
+		{
+			// Sanity check -- without override lock-free reads are supported 
+			final TestWBRBStringOverwriteCache cache2 = new TestWBRBStringOverwriteCache(name + "-default", config, 0, 0);
+			assertTrue(cache2.optimisticReadsSupported);
+		}
+	}
+	/**
+	 * Tests bulk reads -- {@link WriteBehindResyncInBackgroundCache#preloadAll(java.util.Collection)}
+	 * and {@link WriteBehindResyncInBackgroundCache#readAllFor(java.util.Collection, long)}
+	 */
+	@Test
+	public void testBulkReads() throws InterruptedException
+	{
+		final String name = "testBulkReads";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("readBatchMaxSize", "1000");
+		config.override("readQueueBatchingDelay", "50ms");
+		
+		final List<Integer> readBatchSizes = Collections.synchronizedList(new ArrayList<>());
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0, 0)
+			{
+				@Override
+				protected Map<String, NullableOptional<String>> readFromStorageBatch(List<String> keys)
+					throws InterruptedException
+				{
+					readBatchSizes.add(keys.size());
+					Thread.sleep(100); // emulate storage round-trip
+					
+					Map<String, NullableOptional<String>> result = new HashMap<>();
+					for (String key : keys)
+						result.put(key, NullableOptional.of(getOrCreateStorageEntry(key).getValue()));
+					
+					return result;
+				}
+			}
+			.start();
+		
+		List<String> keys = new ArrayList<>();
+		for (int i = 0; i < 50; i++)
+			keys.add("key" + i);
+		
+		{
+			// Negative limit -- nothing is loaded
+			Map<String, NullableOptional<String>> result = cache.readAllFor(keys, -1);
+			assertEquals(result.size(), keys.size());
+			for (NullableOptional<String> value : result.values())
+				assertFalse(value.isPresent());
+			assertEquals(cache.getStatus(0).getCurrentCacheSize(), 0);
+		}
+		
+		{
+			WBRBStatus statusBefore = cache.getStatus(0);
+			
+			long start = System.currentTimeMillis();
+			Map<String, NullableOptional<String>> result = cache.readAllFor(keys, 2000);
+			long duration = System.currentTimeMillis() - start;
+			
+			assertEquals(new ArrayList<>(result.keySet()), keys); // order must be preserved
+			for (NullableOptional<String> value : result.values())
+				assertEquals(value.get(), "");
+			assertLess(duration, 1000L); // must not wait on each key separately
+			assertLess(readBatchSizes.size(), keys.size()); // reads must've been batched
+			
+			// each key is counted once (as a read, not as a preload)
+			WBRBStatus statusAfter = cache.getStatus(0);
+			assertEquals(statusAfter.getCheckCacheReadAttempts() - statusBefore.getCheckCacheReadAttempts(), keys.size());
+			assertEquals(statusAfter.getCacheReadAttempts() - statusBefore.getCacheReadAttempts(), keys.size());
+			assertEquals(statusAfter.getCheckCachePreloadAttempts(), statusBefore.getCheckCachePreloadAttempts());
+		}
+		
+		{
+			List<String> moreKeys = new ArrayList<>();
+			for (int i = 100; i < 110; i++)
+				moreKeys.add("key" + i);
+			
+			cache.preloadAll(moreKeys);
+			for (String key : moreKeys)
+				assertEquals(cache.readForOrException(key, 1000), "");
+		}
+		
+		assertTrue(cache.shutdownFor(2000));
+	}
+	
+	/**
+	 * Tests striped (LongAdder-based) stats counters.
+	 */
+	@Test
+	public void testStripedStats() throws InterruptedException
+	{
+		final String name = "testStripedStats";
+		
+		{
+			// Default config -- plain atomic counters
+			OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+			final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name + "-default", config, 0, 0)
+				.start();
+			
+			assertFalse(cache.getStats() instanceof WBRBStripedStats);
+			
+			assertTrue(cache.shutdownFor(2000));
+		}
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("stripedStats", "true");
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0, 0)
+			.start();
+		
+		assertTrue(cache.getStats() instanceof WBRBStripedStats);
+		
+		final int readCount = 1000;
+		WAThreadPoolExecutor pool = new WAThreadPoolExecutor(name + "-readers", true);
+		for (int i = 0; i < 4; i++)
+		{
+			pool.waSubmit(() -> {
+				for (int j = 0; j < readCount; j++)
+					cache.readForOrException("key", 1000);
+				return null;
+			});
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+		
+		WBRBStatus status = cache.getStatus(0);
+		assertEquals(status.getCacheReadAttempts(), 4 * readCount);
+		
+		{
+			WBRBStatsCounter counter = cache.getStats().cacheReadAttempts;
+			assertTrue(counter instanceof WBRBStripedStatsCounter);
+			assertEquals(counter.get(), 4 * readCount);
+			counter.increment();
+			assertEquals(counter.get(), 4 * readCount + 1);
+			assertEquals(counter.toString(), "" + (4 * readCount + 1));
+		}
+		
+		assertTrue(cache.shutdownFor(2000));
+	}
+	
+	/**
+	 * Tests weight-based cache limits.
+	 */
+	@Test
+	public void testWeightLimits() throws InterruptedException
+	{
+		final String name = "testWeightLimits";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("maxCacheWeightHardLimit", "20");
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0, 0)
+			{
+				@Override
+				protected long spiWriteLockWeigh(String key, StringBuilder cacheData,
+					WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+						throws InterruptedException
+				{
+					return 1 + cacheData.length();
+				}
+			}
+			.start();
+		
+		for (int i = 0; i < 10; i++)
+			assertEquals(cache.readForOrException("key" + i, 1000), "");
+		
+		assertEquals(cache.getStatus(0).getCurrentCacheWeight(), 10);
+		
+		// Updates change the weight too
+		for (int i = 0; i < 10; i++)
+			cache.writeIfCachedOrException("key0", 'a');
+		assertEquals(cache.readIfCachedOrException("key0"), "aaaaaaaaaa");
+		
+		{
+			WBRBStatus status = cache.getStatus(0);
+			assertEquals(status.getCurrentCacheWeight(), 20);
+			assertEquals(status.getCurrentCacheSize(), 10);
+		}
+		
+		assertFails(() -> cache.readForOrException("wont fit", 1000), "exceeded capacity");
+		
+		assertTrue(cache.shutdownFor(2000));
+		
+		assertEquals(cache.getCacheWeight(), 0L);
+	}
+	
+	/**
+	 * Tests serialization of idle cache values.
+	 */
+	@Test
+	public void testIdleValueSerialization() throws InterruptedException
+	{
+		final String name = "testIdleValueSerialization";
+		
+		for (boolean offHeap : new boolean[] {true, false})
+		{
+			OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+			config.override("serializeIdleValues", "true");
+			config.override("serializeIdleValuesOffHeap", "" + offHeap);
+			config.override("mainQueueCacheTime", "200ms");
+			config.override("returnQueueCacheTimeMin", "3s");
+			config.override("untouchedItemCacheExpirationDelay", "10s");
+			
+			final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name + "-" + offHeap, config, 0, 0)
+				.start();
+			
+			final String key = "key";
+			assertEquals(cache.readForOrException(key, 1000), "");
+			cache.writeIfCachedOrException(key, 'a');
+			cache.writeIfCachedOrException(key, 'b');
+			
+			assertFalse(nn(cache.inflightMap.get(key)).getPayload().isValueSerialized());
+			
+			Thread.sleep(600); // item should be in return queue by now
+			
+			assertTrue(nn(cache.inflightMap.get(key)).getPayload().isValueSerialized());
+			assertEquals(nn(cache.offHeapValuePool).getSlabCount(), offHeap ? 1L : 0L); // off-heap values are stored in pooled slabs
+			
+			// Value is deserialized on access
+			assertEquals(cache.readIfCachedOrException(key), "ab");
+			assertFalse(nn(cache.inflightMap.get(key)).getPayload().isValueSerialized());
+			
+			cache.writeIfCachedOrException(key, 'c');
+			assertEquals(cache.readIfCachedOrException(key), "abc");
+			
+			assertTrue(cache.shutdownFor(2000));
+			
+			assertStorageMapContentsExactlyEquals(cache.getStorageDataMap(), key, "abc");
+		}
+	}
+	
+	/**
+	 * Tests off-heap slab pool used for serialized idle values.
+	 */
+	@Test
+	public void testOffHeapSlabPool()
+	{
+		WBRBOffHeapSlabPool pool = new WBRBOffHeapSlabPool(1024, 64, 256);
+		
+		ByteBuffer small = pool.allocate(10);
+		assertTrue(small.isDirect());
+		assertEquals(small.position(), 0);
+		assertEquals(small.limit(), 10);
+		assertEquals(small.capacity(), 64);
+		assertEquals(pool.getSlabCount(), 1L);
+		
+		ByteBuffer medium = pool.allocate(65);
+		assertEquals(medium.limit(), 65);
+		assertEquals(medium.capacity(), 128);
+		
+		// chunks are independent slices of the same slab
+		small.put((byte)1);
+		medium.put((byte)2);
+		assertEquals(small.get(0), (byte)1);
+		assertEquals(medium.get(0), (byte)2);
+		
+		// released chunks are reused
+		pool.release(small);
+		ByteBuffer reused = pool.allocate(64);
+		assertSame(reused, small);
+		assertEquals(reused.limit(), 64);
+		
+		// 1024 slab: 64 + 128 used, remaining 832 fits 3 x 256
+		for (int i = 0; i < 3; i++)
+			pool.allocate(256);
+		assertEquals(pool.getSlabCount(), 1L);
+		
+		// rest of the first slab (64) must be reused rather than wasted
+		pool.allocate(256);
+		assertEquals(pool.getSlabCount(), 2L);
+		pool.allocate(33);
+		assertEquals(pool.getSlabCount(), 2L);
+		
+		// oversized allocations are not pooled
+		ByteBuffer big = pool.allocate(1000);
+		assertTrue(big.isDirect());
+		assertEquals(big.capacity(), 1000);
+		assertEquals(pool.getOversizedAllocationsCount(), 1L);
+		pool.release(big); // ignored
+		pool.release(ByteBuffer.allocate(64)); // heap buffers are ignored too
+		assertEquals(pool.getSlabCount(), 2L);
+		
+		assertFails(() -> new WBRBOffHeapSlabPool(1024, 48, 256));
+		assertFails(() -> new WBRBOffHeapSlabPool(128, 64, 256));
+	}
+	
+	/**
+	 * Checks per-entry memory footprint -- entries must not carry fields (or
+	 * eagerly allocated helper objects such as locks, latches or separate
+	 * payload objects) for the features that are not enabled.
+	 */
+	@Test
+	public void testCacheEntryFootprint()
+		throws Exception
+	{
+		final String name = "testCacheEntryFootprint";
+		
+		// Checked structurally rather than via allocated bytes, as the latter
+		// depend on JVM specifics (e.g. compressed oops)
+		Field lockField = WriteBehindResyncInBackgroundCache.WBRBCacheEntry.class.getDeclaredField("lock");
+		lockField.setAccessible(true);
+		Field latchField = WriteBehindResyncInBackgroundCache.WBRBCacheEntry.class.getDeclaredField("accessLatch");
+		latchField.setAccessible(true);
+		
+		{
+			OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+			final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0, 0);
+			
+			TestWBRBStringOverwriteCache.WBRBCacheEntry entry = cache.createCacheEntry("key", 0);
+			assertEquals(entry.getClass(), WriteBehindResyncInBackgroundCache.WBRBCacheEntry.class);
+			assertSame(entry.getPayload(), entry); // payload state is kept in the entry itself
+			assertNull(entry.getOptimisticReadLock());
+			
+			// lock & latch are only allocated when they are actually needed
+			assertNull(lockField.get(entry));
+			assertNull(latchField.get(entry));
+			
+			assertNotNull(entry.getLock());
+			assertSame(lockField.get(entry), entry.getLock());
+			assertNull(latchField.get(entry));
+			
+			assertNotNull(entry.getAccessLatch());
+			assertSame(latchField.get(entry), entry.getAccessLatch());
+			
+			// opened latch is replaced with the shared instance
+			entry.openAccessLatch();
+			assertSame(latchField.get(entry), WriteBehindResyncInBackgroundCache.OPEN_ACCESS_LATCH);
+		}
+		
+		{
+			OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+			config.override("negativeCaching", "true");
+			final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name + "-extended", config, 0, 0);
+			
+			TestWBRBStringOverwriteCache.WBRBCacheEntry entry = cache.createCacheEntry("key", 0);
+			assertEquals(entry.getClass(), WriteBehindResyncInBackgroundCache.WBRBExtendedCacheEntry.class);
+			assertSame(entry.getPayload(), entry);
+			assertNull(entry.getOptimisticReadLock()); // optimistic reads are not enabled
+			assertNull(lockField.get(entry));
+			assertNull(latchField.get(entry));
+		}
+		
+		{
+			OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+			config.override("optimisticReads", "true");
+			final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name + "-optimistic", config, 0, 0);
+			
+			TestWBRBStringOverwriteCache.WBRBCacheEntry entry = cache.createCacheEntry("key", 0);
+			assertEquals(entry.getClass(), WriteBehindResyncInBackgroundCache.WBRBExtendedCacheEntry.class);
+			assertNotNull(entry.getOptimisticReadLock());
+		}
+	}
+	
+	/**
+	 * Tests coalescing of new writes into writes that are still waiting in
+	 * the write queue.
+	 */
+	@Test
+	public void testCoalesceQueuedWrites() throws InterruptedException
+	{
+		final String name = "testCoalesceQueuedWrites";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("coalesceQueuedWrites", "true");
+		config.override("writeThreadPoolSize", "-1,-1"); // writes are executed one by one in write queue processor
+		config.override("mainQueueCacheTime", "50ms");
+		config.override("returnQueueCacheTimeMin", "50ms");
+		config.override("returnQueueMaxRequeueCount", "0"); // items with pending writes go back to main queue ASAP
+		config.override("fullCacheCycleFailureMaxRetryCount", "100");
+		config.override("untouchedItemCacheExpirationDelay", "10s");
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0, 400 /*write delay*/)
+			.start();
+		
+		final String blocker = "blocker";
+		final String key = "key";
+		
+		assertEquals(cache.readForOrException(blocker, 1000), "");
+		assertEquals(cache.readForOrException(key, 1000), "");
+		
+		cache.writeIfCachedOrException(blocker, 'x'); // this write will keep write queue processor busy
+		cache.writeIfCachedOrException(key, 'a'); // this write will be waiting in the write queue
+		
+		Thread.sleep(100);
+		cache.writeIfCachedOrException(key, 'b'); // this should be merged into the queued write
+		
+		Thread.sleep(1200);
+		
+		{
+			WBRBStatus status = cache.getStatus(0);
+			assertEquals(status.getMainQueueCoalescedWrites(), 1);
+			assertEquals(status.getStorageWriteAttempts(), 2);
+		}
+		
+		assertTrue(cache.shutdownFor(2000));
+		
+		assertStorageMapContentsExactlyEquals(cache.getStorageDataMap(), blocker, "x", key, "ab");
+	}
+	
+	/**
+	 * Tests adaptive main queue cache time -- it should widen when there's
+	 * spare capacity and shrink when main queue is over the target size.
+	 */
+	@Test
+	public void testAdaptiveMainQueueCacheTime() throws InterruptedException
+	{
+		final String name = "testAdaptiveMainQueueCacheTime";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("adaptiveMainQueueCacheTime", "true");
+		config.override("adaptiveMainQueueCacheTimeMax", "4s");
+		config.override("adaptiveMainQueueCacheTimeAdjustInterval", "100ms");
+		config.override("adaptiveMainQueueCacheTimeStepPercent", "100");
+		config.override("mainQueueCacheTime", "2s");
+		config.override("mainQueueCacheTimeMin", "1s");
+		config.override("mainQueueMaxTargetSize", "10");
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0, 0)
+			.start();
+		
+		assertEquals(cache.getStatus(0).getCurrentMainQueueCacheTimeMs(), 2000);
+		
+		// Spare capacity -- should widen up to the max
+		for (int i = 0; i < 2; i++)
+			assertEquals(cache.readForOrException("key" + i, 1000), "");
+		Thread.sleep(500);
+		assertEquals(cache.getStatus(0).getCurrentMainQueueCacheTimeMs(), 4000);
+		
+		// Over the target size -- should shrink
+		for (int i = 2; i < 17; i++)
+			assertEquals(cache.readForOrException("key" + i, 1000), "");
+		Thread.sleep(500);
+		{
+			long cacheTime = cache.getStatus(0).getCurrentMainQueueCacheTimeMs();
+			assertTrue(cacheTime < 3000, "" + cacheTime);
+			assertTrue(cacheTime >= 1000, "" + cacheTime);
+		}
+		
+		// Wait for the main queue to drain, then spare capacity again -- should widen
+		Thread.sleep(1500);
+		assertEquals(cache.readForOrException("late", 1000), "");
+		Thread.sleep(500);
+		assertEquals(cache.getStatus(0).getCurrentMainQueueCacheTimeMs(), 4000);
+		
+		assertTrue(cache.shutdownFor(2000));
+	}
+	
+	/**
+	 * Tests read/write thread pools backed by virtual threads (only if JVM
+	 * supports them, otherwise checks that cache creation fails).
+	 */
+	@Test
+	public void testVirtualThreadPools() throws InterruptedException
+	{
+		final String name = "testVirtualThreadPools";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("readThreadPoolVirtualThreads", "true");
+		config.override("writeThreadPoolVirtualThreads", "true");
+		config.override("readThreadPoolSize", "0,500");
+		config.override("writeThreadPoolSize", "0,500");
+		config.override("mainQueueCacheTime", "100ms");
+		
+		if (!WAExecutors.isVirtualThreadsSupported())
+		{
+			assertFailsWithSubstring(() -> new TestWBRBStringOverwriteCache(name, config, 0, 0), "requires Java 21+");
+			return;
+		}
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 50, 50)
+			.start();
+		
+		Map<String, String> expected = new HashMap<>();
+		for (int i = 0; i < 100; i++)
+			cache.preloadCache("key" + i);
+		for (int i = 0; i < 100; i++)
+		{
+			assertEquals(cache.readForOrException("key" + i, 1000), "");
+			cache.writeIfCachedOrException("key" + i, 'a');
+			expected.put("key" + i, "a");
+		}
+		
+		assertTrue(cache.shutdownFor(2000));
+		
+		assertStorageMapContentsExactlyEquals(cache.getStorageDataMap(), expected);
+	}
+	
+	/**
+	 * Tests negative caching (caching of 'absent' storage read results).
+	 */
+	@Test
+	public void testNegativeCaching() throws InterruptedException
+	{
+		final String name = "testNegativeCaching";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("negativeCaching", "true");
+		config.override("negativeCacheTime", "300ms");
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 50 /*read delay*/, 0)
+			{
+				@Override
+				protected boolean spiWriteLockIsStorageDataAbsent(String key,
+					String storageData, WBRBCacheEntry cacheEntry,
+					WBRBCachePayload payload)
+						throws InterruptedException
+				{
+					return key.startsWith("missing");
+				}
+			}
+			.start();
+		
+		final String missing = "missing";
+		
+		// Concurrent lookups are collapsed into a single storage read
+		cache.preloadCache(missing);
+		cache.preloadCache(missing);
+		assertFailsWithSubstring(() -> cache.readForOrException(missing, 1000), "absent in storage");
+		assertFailsWithSubstring(() -> cache.readForOrException(missing, 1000), "absent in storage");
+		assertFailsWithSubstring(() -> cache.writeIfCachedOrException(missing, 'a'), "absent in storage");
+		
+		{
+			WBRBStatus status = cache.getStatus(0);
+			assertEquals(status.getStorageReadInitialAttempts(), 1);
+			assertEquals(status.getStorageReadInitialAbsent(), 1);
+		}
+		
+		// Negative entry becomes stale -- next access re-reads storage
+		Thread.sleep(400);
+		assertFailsWithSubstring(() -> cache.readForOrException(missing, 1000), "absent in storage");
+		
+		{
+			WBRBStatus status = cache.getStatus(0);
+			assertEquals(status.getStorageReadInitialAttempts(), 2);
+			assertEquals(status.getStorageReadInitialAbsent(), 2);
+		}
+		
+		// Other keys are unaffected
+		assertEquals(cache.readForOrException("key", 1000), "");
+		cache.writeIfCachedOrException("key", 'a');
+		
+		assertTrue(cache.shutdownFor(2000));
+		
+		assertStorageMapContentsExactlyEquals(cache.getStorageDataMap(), "key", "a", missing, "" /*test storage creates entries on read*/);
+	}
+	
+	/**
+	 * Tests that negative cache entries are released from the main queue
+	 * after {@link WBRBConfig#getNegativeCacheTime()} (rather than staying
+	 * there for the full {@link WBRBConfig#getMainQueueCacheTime()}).
+	 */
+	@Test
+	public void testNegativeCacheMainQueueRelease() throws InterruptedException
+	{
+		final String name = "testNegativeCacheMainQueueRelease";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("negativeCaching", "true");
+		config.override("negativeCacheTime", "300ms");
+		config.override("mainQueueCacheTime", "4s");
+		config.override("maxSleepTime", "100ms");
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0, 0)
+			{
+				@Override
+				protected boolean spiWriteLockIsStorageDataAbsent(String key,
+					String storageData, WBRBCacheEntry cacheEntry,
+					WBRBCachePayload payload)
+						throws InterruptedException
+				{
+					return key.startsWith("missing");
+				}
+			}
+			.start();
+		
+		final long start = System.currentTimeMillis();
+		for (int i = 0; i < 20; i++)
+		{
+			final String missing = "missing" + i;
+			assertFailsWithSubstring(() -> cache.readForOrException(missing, 1000), "absent in storage");
+		}
+		assertEquals(cache.readForOrException("key", 1000), "");
+		cache.writeIfCachedOrException("key", 'a');
+		
+		{
+			WBRBStatus status = cache.getStatus(0);
+			assertEquals(status.getMainQueueSize(), 21);
+			assertEquals(status.getCurrentCacheSize(), 21);
+		}
+		
+		Thread.sleep(800);
+		
+		{
+			WBRBStatus status = cache.getStatus(0);
+			assertEquals(status.getMainQueueSize(), 1);
+			assertEquals(status.getCurrentCacheSize(), 1);
+			assertEquals(status.getMainQueueExpiredFromCacheCount(), 20);
+			assertEquals(status.getStorageWriteAttempts(), 0); // regular entry is still waiting in the main queue
+		}
+		assertLess(System.currentTimeMillis() - start, 2000L); // well before mainQueueCacheTime
+		
+		// Released entry is read from storage again
+		assertFailsWithSubstring(() -> cache.readForOrException("missing0", 1000), "absent in storage");
+		assertEquals(cache.getStatus(0).getStorageReadInitialAttempts(), 22);
+		
+		assertTrue(cache.shutdownFor(2000));
+		
+		assertEquals(nn(cache.getStorageDataMap().get("key")).getValue(), "a");
+	}
+	
+	/**
+	 * Tests that cache entries release their own access latches once the
+	 * initial read is complete (compact entry representation).
+	 */
+	@Test
+	public void testAccessLatchRelease() throws InterruptedException
+	{
+		final String name = "testAccessLatchRelease";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		
+		final AtomicReference<@Nullable Object> capturedEntry = new AtomicReference<>(null);
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 100 /*read delay*/, 0)
+			{
+				@Override
+				protected void spiNoLockProcessReadFromStorage(@Nonnull String key,
+					boolean isRefreshRead,
+					@Nonnull WBRBCacheEntry cacheEntry)
+					throws InterruptedException
+				{
+					capturedEntry.set(cacheEntry);
+					super.spiNoLockProcessReadFromStorage(key, isRefreshRead, cacheEntry);
+				}
+			}
+			.start();
+		
+		final String key = "key";
+		
+		cache.preloadCache(key);
+		
+		// Waiting for the read to complete allocates (and then releases) entry's own latch
+		assertEquals(cache.readForOrException(key, 1000), "");
+		
+		WriteBehindResyncInBackgroundCache<?, ?, ?, ?, ?, ?, ?>.WBRBCacheEntry entry = 
+			(WriteBehindResyncInBackgroundCache<?, ?, ?, ?, ?, ?, ?>.WBRBCacheEntry)nn(capturedEntry.get());
+		assertTrue(entry.getAccessLatch() == WriteBehindResyncInBackgroundCache.OPEN_ACCESS_LATCH);
+		assertTrue(entry.getAccessLatch().isOpen());
+		assertEquals(entry.getPayload().getReadFailureCount(), 0);
+		assertEquals(entry.getPayload().getFullCacheCycleFailureCount(), 0);
+		
+		cache.writeIfCachedOrException(key, 'a');
+		
+		assertTrue(cache.shutdownFor(2000));
+		
+		assertStorageMapContentsExactlyEquals(cache.getStorageDataMap(), key, "a");
+	}
+	
+	/**
+	 * Tests latency histograms collection & reporting.
+	 */
+	@Test
+	public void testLatencyHistograms() throws InterruptedException
+	{
+		final String name = "testLatencyHistograms";
+		
+		// Bucketing must always cover the value with the expected precision
+		{
+			Random random = new Random(123);
+			for (int i = 0; i < 10000; i++)
+			{
+				long value = (random.nextLong() >>> 1) >>> random.nextInt(63); // non-negative
+				long upperBound = WriteBehindResyncInBackgroundCache.WBRBLatencyHistogram.bucketUpperBound(
+					WriteBehindResyncInBackgroundCache.WBRBLatencyHistogram.bucketIndex(value));
+				assertGreaterOrEqual(upperBound, value);
+				assertLessOrEqual(upperBound - value, value / 16, "" + value);
+			}
+			
+			WriteBehindResyncInBackgroundCache.WBRBLatencyHistogram histogram = new WriteBehindResyncInBackgroundCache.WBRBLatencyHistogram();
+			for (int i = 1; i <= 1000; i++)
+				histogram.recordNanos(i * 1000L);
+			
+			WriteBehindResyncInBackgroundCache.WBRBLatencySnapshot snapshot = histogram.snapshot(true);
+			assertEquals(snapshot.getCount(), 1000);
+			assertEquals(snapshot.getMaxMicros(), 1000);
+			assertBetweenInclusive(snapshot.getValueAtPercentileMicros(50), 500L, 532L);
+			assertBetweenInclusive(snapshot.getValueAtPercentileMicros(99), 990L, 1000L);
+			assertEquals(histogram.snapshot(false).getCount(), 0);
+			assertEquals(histogram.snapshot(false).getValueAtPercentileNanos(50), 0);
+		}
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("latencyHistograms", "true");
+		config.override("latencyHistogramsResetInterval", "1s");
+		config.override("mainQueueCacheTime", "1s"); // reads take 250ms+ in total, nothing must be written before the first check
+		
+		final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 50 /*read delay*/, 0)
+			.start();
+		
+		for (int i = 0; i < 5; i++)
+		{
+			String key = "key" + i;
+			assertEquals(cache.readForOrException(key, 1000), "");
+			cache.writeIfCachedOrException(key, 'a');
+		}
+		
+		{
+			WBRBStatus status = cache.getStatus(0);
+			assertGreater(status.getLatencyHistogramsSince(), 0L);
+			
+			assertEquals(status.getLatencyReadFor().getCount(), 5);
+			assertGreaterOrEqual(status.getLatencyReadFor().getP50Micros(), 45000L);
+			assertGreaterOrEqual(status.getLatencyReadFor().getMaxMicros(), status.getLatencyReadFor().getP99Micros());
+			
+			assertEquals(status.getLatencyStorageRead().getCount(), 5);
+			assertGreaterOrEqual(status.getLatencyStorageRead().getP50Micros(), 45000L);
+			
+			assertGreater(status.getLatencyWriteLockWait().getCount(), 0L);
+			
+			assertEquals(status.getLatencyStorageWrite().getCount(), 0); // not yet written
+			assertEquals(status.getLatencyStorageWrite().getP999Micros(), 0);
+		}
+		
+		// Wait for main queue processing & writes; histograms are reset after reporting
+		Thread.sleep(2000);
+		{
+			WBRBStatus status = cache.getStatus(0);
+			assertEquals(status.getLatencyStorageWrite().getCount(), 5);
+			assertGreaterOrEqual(status.getLatencyMainQueueTime().getCount(), 5L);
+			assertGreater(status.getLatencyMainQueueTime().getP50Micros(), 0L);
+		}
+		{
+			WBRBStatus status = cache.getStatus(0);
+			assertEquals(status.getLatencyReadFor().getCount(), 0);
+			assertEquals(status.getLatencyStorageWrite().getCount(), 0);
+		}
+		
+		assertTrue(cache.shutdownFor(2000));
+		
+		assertStorageMapContentsExactlyEquals(cache.getStorageDataMap(), "key0", "a", "key1", "a", "key2", "a", "key3", "a", "key4", "a");
+		
+		{
+			// Histograms are not allocated at all when disabled
+			final TestWBRBStringOverwriteCache disabledCache = new TestWBRBStringOverwriteCache(name + "-disabled", 
+				new OverrideFlatConfiguration("wbrb/wbrb-default.properties"), 0, 0);
+			
+			assertSame(disabledCache.getStats().readForLatency, WriteBehindResyncInBackgroundCache.WBRBLatencyHistogram.DISABLED);
+			assertSame(disabledCache.getStats().writeLockWaitLatency, WriteBehindResyncInBackgroundCache.WBRBLatencyHistogram.DISABLED);
+			assertSame(disabledCache.getStats().storageReadLatency, WriteBehindResyncInBackgroundCache.WBRBLatencyHistogram.DISABLED);
+			assertSame(disabledCache.getStats().storageWriteLatency, WriteBehindResyncInBackgroundCache.WBRBLatencyHistogram.DISABLED);
+			assertSame(disabledCache.getStats().mainQueueTimeLatency, WriteBehindResyncInBackgroundCache.WBRBLatencyHistogram.DISABLED);
+			
+			WriteBehindResyncInBackgroundCache.WBRBLatencyHistogram.DISABLED.recordNanos(1000);
+			assertEquals(disabledCache.getStatus(0).getLatencyReadFor().getCount(), 0);
+		}
+	}
+	
+	/**
+	 * Tests read queue priority lanes (initial reads before refresh reads).
+	 */
+	@Test
+	public void testReadQueuePriorityLanes() throws InterruptedException
+	{
+		final String name = "testReadQueuePriorityLanes";
+		
+		{
+			// Lane selection logic (cache is not started, so nothing is processed)
+			OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+			config.override("readQueuePriorityLanes", "true");
+			config.override("readQueueRefreshLaneFairness", "2");
+			config.override("readQueueRefreshLaneMaxSize", "3");
+			
+			final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name + "-lanes", config, 0, 0);
+			
+			cache.queueRead(cache.new WBRBCacheEntry("r1", 0), true);
+			cache.queueRead(cache.new WBRBCacheEntry("r2", 0), true);
+			assertFalse(cache.isReadQueueRefreshLaneSaturated());
+			cache.queueRead(cache.new WBRBCacheEntry("r3", 0), true);
+			assertTrue(cache.isReadQueueRefreshLaneSaturated());
+			for (int i = 1; i <= 5; i++)
+				cache.queueRead(cache.new WBRBCacheEntry("i" + i, 0), false);
+			
+			{
+				WBRBStatus status = cache.getStatus(0);
+				assertEquals(status.getReadQueueSize(), 5);
+				assertEquals(status.getReadRefreshQueueSize(), 3);
+			}
+			
+			// Initial reads first, but every 3rd read is a refresh due to fairness setting
+			List<String> order = new ArrayList<>();
+			for (int i = 0; i < 8; i++)
+				order.add(nn(cache.pollReadQueue(0)).getKey());
+			assertEquals(order, Arrays.asList("i1", "i2", "r1", "i3", "i4", "r2", "i5", "r3"));
+			
+			assertNull(cache.pollReadQueue(0));
+			assertFalse(cache.isReadQueueRefreshLaneSaturated());
+		}
+		
+		{
+			// Normal operation with lanes enabled
+			OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+			config.override("readQueuePriorityLanes", "true");
+			
+			final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name, config, 0, 0)
+				.start();
+			
+			cache.preloadCache("key1");
+			assertEquals(cache.readForOrException("key1", 1000), "");
+			assertEquals(cache.readForOrException("key2", 1000), "");
+			cache.writeIfCachedOrException("key1", 'a');
+			cache.writeIfCachedOrException("key2", 'b');
+			
+			{
+				WBRBStatus status = cache.getStatus(0);
+				assertEquals(status.getStorageReadInitialAttempts(), 2);
+				assertEquals(status.getStorageReadRefreshDropped(), 0);
+			}
+			
+			assertTrue(cache.shutdownFor(2000));
+			
+			assertStorageMapContentsExactlyEquals(cache.getStorageDataMap(), "key1", "a", "key2", "b");
+		}
+	}
+	
+	/**
+	 * Tests cache snapshot & warm restart.
+	 */
+	@Test
+	public void testSnapshotWarmRestart() throws Exception
+	{
+		final String name = "testSnapshotWarmRestart";
+		
+		File file = File.createTempFile("wbrb-snapshot", ".bin");
+		assertTrue(file.delete());
+		file.deleteOnExit();
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("snapshotFile", file.getAbsolutePath());
+		
+		{
+			final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name + "-1", config, 0, 0)
+				.start();
+			
+			assertEquals(cache.readForOrException("key1", 1000), "");
+			assertEquals(cache.readForOrException("key2", 1000), "");
+			cache.writeIfCachedOrException("key1", 'a');
+			cache.writeIfCachedOrException("key2", 'b');
+			
+			assertTrue(cache.shutdownFor(2000)); // snapshot is written at the start of shutdown
+			
+			assertStorageMapContentsExactlyEquals(cache.getStorageDataMap(), "key1", "a", "key2", "b");
+		}
+		assertTrue(file.exists());
+		
+		{
+			// Slow reads so that it is visible whether data came from snapshot
+			final TestWBRBStringOverwriteCache cache = new TestWBRBStringOverwriteCache(name + "-2", config, 300, 0);
+			cache.getStorageDataMap().put("key1", new TestCacheStorageEntry("a"));
+			cache.getStorageDataMap().put("key2", new TestCacheStorageEntry("b2")); // changed externally
+			cache.start();
+			
+			assertEquals(cache.readForOrException("key1", 50), "a");
+			assertEquals(cache.readForOrException("key2", 50), "b"); // stale until resync
+			{
+				WBRBStatus status = cache.getStatus(0);
+				assertEquals(status.getStorageReadInitialAttempts(), 0);
+				assertEquals(status.getCurrentCacheSize(), 2);
+			}
+			
+			Thread.sleep(1500); // resync
+			assertEquals(cache.readForOrException("key2", 50), "b2");
+			assertEquals(cache.getStatus(0).getStorageReadRefreshAttempts(), 2);
+			assertEquals(cache.getStatus(0).getStorageReadInitialAttempts(), 0);
+			
+			assertEquals(cache.writeSnapshot(), 2);
+			
+			assertTrue(cache.shutdownFor(2000));
+			
+			assertStorageMapContentsExactlyEquals(cache.getStorageDataMap(), "key1", "a", "key2", "b2");
+		}
+	}
+	
+	/**
+	 * Tests folding of collected updates (combineUpdates(..) and {@link WriteBehindResyncInBackgroundCache.WBRBLongDeltaCollectedUpdates}).
+	 */
+	@Test
+	public void testCombineCollectedUpdates() throws InterruptedException
+	{
+		final String name = "testCombineCollectedUpdates";
+		
+		OverrideFlatConfiguration config = new OverrideFlatConfiguration("wbrb/wbrb-default.properties");
+		config.override("maxUpdatesToCollect", "3");
+		
+		// Mode 0 -- no folding, 1 -- combineUpdates(..), 2 -- delta collector
+		for (int mode = 0; mode < 3; mode++)
+		{
+			final TestWBRBLongCounterCache cache = new TestWBRBLongCounterCache(name + "-" + mode, config, mode == 1, mode == 2);
+			
+			TestWBRBLongCounterCache.WBRBCacheEntry entry = cache.new WBRBCacheEntry("k", 0);
+			TestWBRBLongCounterCache.WBRBCachePayload payload = entry.getPayload();
+			payload.setCollectUpdates(true);
+			
+			for (long i = 1; i <= 100; i++)
+			{
+				CacheIllegalStateException result = cache.spiWriteLockUpdates_collect("k", entry, payload, i);
+				if ((mode == 0) && (i > 3))
+				{
+					assertNotNull(result);
+					break;
+				}
+				assertNull(result, "" + i);
+			}
+			
+			if (mode == 0)
+			{
+				assertEquals(nn(payload.getCollectedUpdates()).size(), 3);
+				assertEquals(cache.spiWriteLockMergeCacheAndStorageData("k", 10L, entry, payload).longValue(), 16L);
+				assertEquals(cache.getStatus(0).getCacheWriteCombinedUpdates(), 0);
+			}
+			else
+			{
+				assertEquals(nn(payload.getCollectedUpdates()).size(), 1);
+				assertEquals(cache.spiWriteLockMergeCacheAndStorageData("k", 10L, entry, payload).longValue(), 5060L);
+				assertEquals(cache.getStatus(0).getCacheWriteCombinedUpdates(), (mode == 1) ? 99 : 0);
+			}
+		}
+		
+		{
+			// Basic operation
+			final TestWBRBLongCounterCache cache = new TestWBRBLongCounterCache(name, config, true, false)
+				.start();
+			
+			assertEquals(cache.readForOrException("k", 1000).longValue(), 0L);
+			for (int i = 0; i < 1000; i++)
+				cache.writeIfCachedOrException("k", 1L);
+			assertEquals(cache.readForOrException("k", 1000).longValue(), 1000L);
+			
+			assertTrue(cache.shutdownFor(2000));
+			
+			assertEquals(cache.getStorageDataMap().get("k"), (Long)1000L);
+			assertEquals(cache.getStatus(0).getCacheWriteTooManyUpdates(), 0);
+		}
+	}
+	
 	/**
 	 * Tests some read-fail scenarios.
 	 */
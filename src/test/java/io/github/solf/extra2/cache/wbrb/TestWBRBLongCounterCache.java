@@ -0,0 +1,132 @@
+/**
+ * Copyright Sergey Olefir
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.solf.extra2.cache.wbrb;
+
+import java.util.List;
+import java.util.MissingResourceException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import io.github.solf.extra2.config.FlatConfiguration;
+import io.github.solf.extra2.config.OverrideFlatConfiguration;
+import io.github.solf.extra2.nullable.NullableOptional;
+import lombok.Getter;
+
+/**
+ * Counter cache for testing -- cached values are longs and updates are
+ * deltas added to those.
+ *
+ * @author Sergey Olefir
+ */
+@NonNullByDefault
+public class TestWBRBLongCounterCache extends WriteBehindResyncInBackgroundCache<String, Long, Long, Long, Long, Long, Long>
+{
+	/**
+	 * Keep data here.
+	 */
+	@Getter
+	protected final ConcurrentHashMap<String, Long> storageDataMap = new ConcurrentHashMap<>();
+	
+	/**
+	 * Whether to combine updates via {@link #combineUpdates(Long, Long)}
+	 */
+	protected final boolean combineUpdates;
+	
+	/**
+	 * Whether to collect updates via {@link WBRBLongDeltaCollectedUpdates}
+	 */
+	protected final boolean useDeltaCollector;
+
+	/**
+	 * Constructor.
+	 */
+	public TestWBRBLongCounterCache(String cacheName, FlatConfiguration fConfig,
+		boolean combineUpdates, boolean useDeltaCollector)
+		throws IllegalArgumentException,
+		IllegalStateException,
+		MissingResourceException,
+		NumberFormatException
+	{
+		super(new WBRBConfig(new OverrideFlatConfiguration(fConfig).override("cacheName", cacheName)));
+		
+		this.combineUpdates = combineUpdates;
+		this.useDeltaCollector = useDeltaCollector;
+	}
+
+	@Override
+	protected Long readFromStorage(String key, boolean isRefreshRead)
+	{
+		return storageDataMap.getOrDefault(key, 0L);
+	}
+
+	@Override
+	protected Long convertToInternalUpdateFormatFromExternalUpdate(String key, Long externalUpdate)
+	{
+		return externalUpdate;
+	}
+
+	@Override
+	protected Long convertToCacheFormatFromStorageData(String key, Long storageData)
+	{
+		return storageData;
+	}
+
+	@Override
+	protected Long convertFromCacheFormatToReturnValue(String key, Long cachedData)
+	{
+		return cachedData;
+	}
+
+	@Override
+	protected Long applyUpdate(Long cacheData, Long update)
+	{
+		return cacheData + update;
+	}
+
+	@Override
+	protected NullableOptional<Long> combineUpdates(Long previousUpdate, Long update)
+	{
+		if (!combineUpdates)
+			return super.combineUpdates(previousUpdate, update);
+		
+		return NullableOptional.of(previousUpdate + update);
+	}
+
+	@Override
+	protected List<Long> spiWriteLockUpdates_createCollectedUpdatesList(
+		String key, WBRBCacheEntry cacheEntry, WBRBCachePayload payload)
+		throws InterruptedException
+	{
+		if (!useDeltaCollector)
+			return super.spiWriteLockUpdates_createCollectedUpdatesList(key, cacheEntry, payload);
+		
+		return new WBRBLongDeltaCollectedUpdates();
+	}
+
+	@Override
+	protected WriteSplit splitForWrite(String key, Long cacheData,
+		NullableOptional<Long> previousFailedWriteData)
+	{
+		return new WriteSplit(cacheData, cacheData);
+	}
+
+	@Override
+	protected void writeToStorage(String key, Long dataToWrite)
+	{
+		storageDataMap.put(key, dataToWrite);
+	}
+}
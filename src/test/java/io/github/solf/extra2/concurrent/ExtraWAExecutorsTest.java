@@ -0,0 +1,121 @@
+/**
+ * Copyright Sergey Olefir
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.solf.extra2.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.testng.annotations.Test;
+
+/**
+ * Test(s) for {@link WAExecutors}
+ *
+ * @author Sergey Olefir
+ */
+@NonNullByDefault
+public class ExtraWAExecutorsTest
+{
+	/**
+	 * Tests that thread-per-task executor starts a thread for each task and
+	 * never runs more than maxConcurrency tasks at once.
+	 */
+	@Test
+	public void testThreadPerTaskExecutorConcurrencyBound() throws InterruptedException
+	{
+		testThreadPerTaskExecutorConcurrencyBound(new WAThreadFactory("testThreadPerTaskExecutor", true));
+
+		if (WAExecutors.isVirtualThreadsSupported())
+			testThreadPerTaskExecutorConcurrencyBound(WAExecutors.newVirtualThreadFactory("testVirtualThreadPool-"));
+		else
+		{
+			try
+			{
+				WAExecutors.newVirtualThreadPool(3, "testVirtualThreadPool-");
+				fail("Should not be able to create virtual thread pool");
+			} catch (UnsupportedOperationException e)
+			{
+				// expected
+			}
+		}
+
+		try
+		{
+			WAExecutors.newThreadPerTaskExecutor(0, new WAThreadFactory("testThreadPerTaskExecutor", true));
+			fail("Should not be able to create executor with zero concurrency");
+		} catch (IllegalArgumentException e)
+		{
+			// expected
+		}
+	}
+
+	/**
+	 * Implementation for {@link #testThreadPerTaskExecutorConcurrencyBound()}
+	 */
+	private void testThreadPerTaskExecutorConcurrencyBound(ThreadFactory threadFactory) throws InterruptedException
+	{
+		final int maxConcurrency = 3;
+		final int taskCount = 20;
+
+		final WAThreadPoolExecutor executor = WAExecutors.newThreadPerTaskExecutor(maxConcurrency, threadFactory);
+
+		final AtomicInteger running = new AtomicInteger(0);
+		final AtomicInteger maxRunning = new AtomicInteger(0);
+		final AtomicInteger maxActiveCount = new AtomicInteger(0);
+		final AtomicInteger completed = new AtomicInteger(0);
+		final Set<Thread> threads = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
+		for (int i = 0; i < taskCount; i++)
+		{
+			executor.waExecute(() -> {
+				threads.add(Thread.currentThread());
+				int current = running.incrementAndGet();
+				maxRunning.accumulateAndGet(current, Math::max);
+				maxActiveCount.accumulateAndGet(executor.getActiveCount(), Math::max);
+				try
+				{
+					Thread.sleep(50);
+				} catch (InterruptedException e)
+				{
+					throw new IllegalStateException(e);
+				}
+				running.decrementAndGet();
+				completed.incrementAndGet();
+			});
+		}
+
+		Thread.sleep(20);
+		assertEquals(executor.getActiveCount(), maxConcurrency);
+		assertEquals(executor.getPoolSize(), taskCount); // every task has its own thread already
+
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+		assertEquals(completed.get(), taskCount);
+		assertEquals(maxRunning.get(), maxConcurrency);
+		assertTrue(maxActiveCount.get() <= maxConcurrency, "" + maxActiveCount.get());
+		assertEquals(threads.size(), taskCount);
+		assertEquals(executor.getActiveCount(), 0);
+	}
+}
@@ -20,6 +20,7 @@ import static io.github.solf.extra2.testutil.AssertExtra.assertContains;
 import static io.github.solf.extra2.testutil.AssertExtra.assertFails;
 import static io.github.solf.extra2.testutil.AssertExtra.assertFailsWithSubstring;
 import static io.github.solf.extra2.util.NullUtil.fakeNonNull;
+import static io.github.solf.extra2.util.NullUtil.nn;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
@@ -35,8 +36,13 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -57,6 +63,7 @@ import io.github.solf.extra2.config.Configuration;
 import io.github.solf.extra2.config.FlatConfiguration;
 import io.github.solf.extra2.config.OverrideFlatConfiguration;
 import io.github.solf.extra2.lambda.TriConsumer;
+import io.github.solf.extra2.nullable.NullableOptional;
 import io.github.solf.extra2.testutil.TestUtil;
 import io.github.solf.extra2.testutil.TestUtil.AsyncTestRunner;
 import io.github.solf.extra2.util.TypeUtil;
@@ -538,6 +545,490 @@ public class TestRRL
 		}
 	}
 	
+	/**
+	 * Tests delay scheduler ({@link RRLConfig#isUseDelayScheduler()}) -- 
+	 * delays must not be limited by the delay queues' precision.
+	 */
+	@Test
+	public void testDelayScheduler() throws InterruptedException
+	{
+		final LinkedBlockingQueue<AttemptRecord<String, String>> attempts = new LinkedBlockingQueue<>();
+		final LinkedBlockingQueue<EventListenerEvent> events = new LinkedBlockingQueue<>();
+		
+		final AtomicInteger failUntilAttempt = new AtomicInteger(3);
+		
+		OverrideFlatConfiguration overrideConfig = new OverrideFlatConfiguration("retry/simpleCasesTest");
+		overrideConfig.override("serviceName", "testDelayScheduler");
+		overrideConfig.override("useDelayScheduler", "true");
+		overrideConfig.override("delaysAfterFailure", "130ms,470ms"); // delay queues are 100ms,300ms
+		
+		RRLConfig config = new RRLConfig(overrideConfig);
+		RetryAndRateLimitService<String, String> service = createBasicService(
+			config, 0, failUntilAttempt, attempts, events);
+		service.start();
+		
+		{
+			// Retries
+			final long start = System.currentTimeMillis();
+			
+			RRLFuture<String, String> f1 = service.submitFor("request", 5000);
+			assertEquals(f1.getOrNull(2000, TimeUnit.MILLISECONDS), "success: request");
+			
+			AttemptRecord<String, String> a1 = nn(attempts.poll());
+			AttemptRecord<String, String> a2 = nn(attempts.poll());
+			checkAttempt(a1, 1, "request", null, start, start + 100);
+			checkAttempt(a2, 2, "request", null, a1.getTimestamp() + 130, a1.getTimestamp() + 190);
+			checkAttempt(nn(attempts.poll()), 3, "request", "success: request", a2.getTimestamp() + 470, a2.getTimestamp() + 530);
+			assertNull(attempts.poll());
+		}
+		
+		{
+			// Initial delays, must be processed in due order regardless of submission order
+			failUntilAttempt.set(0);
+			
+			final long start = System.currentTimeMillis();
+			
+			RRLFuture<String, String> fDelay170 = service.submitForWithDelayFor("delay170", 2000, 170);
+			RRLFuture<String, String> fDelay60 = service.submitForWithDelayFor("delay60", 2000, 60);
+			
+			assertEquals(fDelay60.getOrNull(500, TimeUnit.MILLISECONDS), "success: delay60");
+			assertEquals(fDelay170.getOrNull(500, TimeUnit.MILLISECONDS), "success: delay170");
+			
+			checkAttempt(attempts.poll(), 1, "delay60", "success: delay60", start + 60, start + 120);
+			checkAttempt(attempts.poll(), 1, "delay170", "success: delay170", start + 170, start + 230);
+			assertNull(attempts.poll());
+		}
+		
+		assertEquals(service.shutdownFor(1000, false, false), 0);
+	}
+	
+	/**
+	 * Tests high-throughput dispatch mode (bounded dispatch queue + long-lived
+	 * workers + batched tickets).
+	 */
+	@Test
+	public void testDispatchQueue() throws InterruptedException
+	{
+		final LinkedBlockingQueue<AttemptRecord<String, String>> attempts = new LinkedBlockingQueue<>();
+		final LinkedBlockingQueue<EventListenerEvent> events = new LinkedBlockingQueue<>();
+		
+		final AtomicInteger failUntilAttempt = new AtomicInteger(2);
+		
+		OverrideFlatConfiguration overrideConfig = new OverrideFlatConfiguration("retry/simpleCasesTest");
+		overrideConfig.override("serviceName", "testDispatchQueue");
+		overrideConfig.override("requestDispatchQueueSize", "3");
+		overrideConfig.override("requestDispatchTicketBatchSize", "5");
+		overrideConfig.override("requestProcessingThreadPoolConfig", "1,4");
+		
+		RRLConfig config = new RRLConfig(overrideConfig);
+		RetryAndRateLimitService<String, String> service = createBasicService(
+			config, 20, failUntilAttempt, attempts, events);
+		service.start();
+		
+		Thread.sleep(50); // let workers start
+		
+		// Idle long-lived workers are not reported as 'active'
+		assertEquals(service.getStatus(0).getRequestsExecutorServiceActiveThreads(), 0);
+		
+		ArrayList<RRLFuture<String, String>> futures = new ArrayList<>();
+		for (int i = 0; i < 20; i++)
+			futures.add(service.submitFor("request" + i, 5000));
+		
+		for (int i = 0; i < 20; i++)
+			assertEquals(futures.get(i).getOrNull(3000, TimeUnit.MILLISECONDS), "success: request" + i);
+		
+		// every request fails first attempt and succeeds on the second (via delay)
+		assertEquals(attempts.size(), 40);
+		for (AttemptRecord<String, String> attempt : attempts)
+		{
+			if (attempt.getAttemptNumber() == 1)
+				assertNull(attempt.getOutput());
+			else
+				assertEquals(attempt.getOutput(), "success: " + attempt.getInput());
+		}
+		
+		Thread.sleep(50); // let workers go back to waiting
+		assertEquals(service.getStatus(0).getRequestsExecutorServiceActiveThreads(), 0);
+		
+		assertEquals(service.shutdownFor(1000, false, false), 0);
+		
+		// Dispatch mode without executor service must fail on start
+		RetryAndRateLimitService<String, String> noExecutorService = new RetryAndRateLimitService<String, String>(config)
+		{
+			@Override
+			protected String processRequest(String input, int attemptNumber)
+			{
+				return input;
+			}
+			
+			@SuppressWarnings("hiding")
+			@Override
+			protected @Nullable ExecutorService spiCreateRequestProcessingExecutorService(
+				RRLConfig config, String commonNamingPrefix, ThreadGroup threadGroup)
+			{
+				return null;
+			}
+		};
+		assertFailsWithSubstring(() -> noExecutorService.start(), 
+			"java.lang.IllegalStateException: Dispatch mode (requestDispatchQueueSize=3) requires request processing executor service");
+		assertEquals(noExecutorService.getControlState(), RRLControlState.NOT_STARTED);
+	}
+	
+	/**
+	 * Tests that tickets kept in dispatch ticket reserve expire after rate
+	 * limiter refill interval (so that they can't be used on top of the
+	 * refilled capacity).
+	 */
+	@Test
+	public void testDispatchTicketReserveExpiry() throws InterruptedException
+	{
+		OverrideFlatConfiguration overrideConfig = new OverrideFlatConfiguration("retry/simpleCasesTest");
+		overrideConfig.override("serviceName", "testDispatchTicketReserveExpiry");
+		overrideConfig.override("requestDispatchQueueSize", "3");
+		overrideConfig.override("requestDispatchTicketBatchSize", "5");
+		overrideConfig.override("rateLimiterRefillInterval", "200ms");
+		
+		final List<Object> returnedTickets = Collections.synchronizedList(new ArrayList<>());
+		
+		RRLConfig config = new RRLConfig(overrideConfig);
+		RetryAndRateLimitService<String, String> service = new RetryAndRateLimitService<String, String>(config)
+		{
+			@Override
+			protected String processRequest(String input, int attemptNumber)
+			{
+				return input;
+			}
+
+			@Override
+			protected void spiReturnUnusedReservedTicket(RetryAndRateLimitService<String, String>.RRLMainQueueLane lane,
+				Object unusedTicket)
+			{
+				returnedTickets.add(unusedTicket);
+			}
+		};
+		
+		final RetryAndRateLimitService<String, String>.RRLMainQueueLane lane = service.mainQueueLanes.get(0);
+		final long now = System.currentTimeMillis();
+		lane.getDispatchTicketReserve().add(service.new RRLReservedTicket("old1", now - 300));
+		lane.getDispatchTicketReserve().add(service.new RRLReservedTicket("old2", now - 200));
+		lane.getDispatchTicketReserve().add(service.new RRLReservedTicket("new1", now - 100));
+		lane.getDispatchTicketReserve().add(service.new RRLReservedTicket("new2", now + 10000));
+		
+		service.expireDispatchTicketReserve(lane);
+		assertEquals(returnedTickets, Arrays.asList("old1", "old2"));
+		assertEquals(lane.getDispatchTicketReserve().size(), 2);
+		assertEquals(nn(lane.getDispatchTicketReserve().peek()).getTicket(), "new1");
+		
+		service.returnDispatchTicketReserve(lane);
+		assertEquals(returnedTickets, Arrays.asList("old1", "old2", "new1", "new2"));
+		assertTrue(lane.getDispatchTicketReserve().isEmpty());
+	}
+	
+	/**
+	 * Tests asynchronous request processing ({@link AsyncRetryAndRateLimitService#processRequestAsync(Object, int)}).
+	 */
+	@Test
+	public void testAsyncProcessing() throws InterruptedException
+	{
+		final ScheduledExecutorService ioExecutor = Executors.newSingleThreadScheduledExecutor();
+		try
+		{
+			final AtomicInteger concurrentAttempts = new AtomicInteger(0);
+			final AtomicInteger maxConcurrentAttempts = new AtomicInteger(0);
+			final AtomicInteger cancelledAttempts = new AtomicInteger(0);
+			
+			OverrideFlatConfiguration overrideConfig = new OverrideFlatConfiguration("retry/simpleCasesTest");
+			overrideConfig.override("serviceName", "testAsyncProcessing");
+			overrideConfig.override("requestProcessingThreadPoolConfig", "1,2");
+			overrideConfig.override("asyncRequestAttemptTimeout", "500ms");
+			
+			RRLConfig config = new RRLConfig(overrideConfig);
+			RetryAndRateLimitService<String, String> service = new AsyncRetryAndRateLimitService<String, String>(config)
+			{
+				@Override
+				protected CompletionStage<String> processRequestAsync(String input, int attemptNumber)
+				{
+					CompletableFuture<String> result = new CompletableFuture<>();
+					if ("hang".equals(input))
+						return result; // never completes unless cancelled (or times out)
+					if ("hangOnce".equals(input) && (attemptNumber == 1))
+					{
+						ioExecutor.schedule(() -> {
+							if (result.isCancelled())
+								cancelledAttempts.incrementAndGet();
+						}, 1000, TimeUnit.MILLISECONDS);
+						return result; // first attempt never completes -- must time out
+					}
+					
+					maxConcurrentAttempts.accumulateAndGet(concurrentAttempts.incrementAndGet(), Math::max);
+					ioExecutor.schedule(() -> {
+						concurrentAttempts.decrementAndGet();
+						if (input.startsWith("retry") && (attemptNumber == 1))
+							result.completeExceptionally(new IllegalStateException("attempt: " + attemptNumber));
+						else
+							result.complete("success: " + input + " @" + attemptNumber);
+					}, 200, TimeUnit.MILLISECONDS);
+					
+					return result;
+				}
+			};
+			service.start();
+			
+			ArrayList<RRLFuture<String, String>> futures = new ArrayList<>();
+			for (int i = 0; i < 30; i++)
+				futures.add(service.submitFor((i % 3 == 0 ? "retry" : "request") + i, 5000));
+			
+			// 30 requests * 200ms would take 3s+ if each attempt held one of the 2 threads
+			for (int i = 0; i < 30; i++)
+			{
+				if (i % 3 == 0)
+					assertEquals(futures.get(i).getOrNull(1500, TimeUnit.MILLISECONDS), "success: retry" + i + " @2");
+				else
+					assertEquals(futures.get(i).getOrNull(1500, TimeUnit.MILLISECONDS), "success: request" + i + " @1");
+			}
+			assertTrue(maxConcurrentAttempts.get() > 2, "" + maxConcurrentAttempts.get());
+			
+			{
+				// Cancellation while asynchronous attempt is in progress
+				RRLFuture<String, String> hang = service.submitFor("hang", 5000);
+				Thread.sleep(100);
+				hang.requestCancellation();
+				
+				CancellationException e = assertFails(() -> hang.get(1000, TimeUnit.MILLISECONDS));
+				assertContains(e.toString(), "java.util.concurrent.CancellationException");
+				assertTrue(hang.isCancelled());
+			}
+			
+			{
+				// Attempt that doesn't complete in time is cancelled and retried
+				RRLFuture<String, String> hangOnce = service.submitFor("hangOnce", 5000);
+				assertEquals(hangOnce.getOrNull(3000, TimeUnit.MILLISECONDS), "success: hangOnce @2");
+				
+				Thread.sleep(1000);
+				assertEquals(cancelledAttempts.get(), 1);
+			}
+			
+			assertEquals(service.shutdownFor(1000, false, false), 0);
+		} finally
+		{
+			ioExecutor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Tests batch submission & batch processing mode.
+	 */
+	@Test
+	public void testBatchProcessing() throws InterruptedException
+	{
+		final LinkedBlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+		
+		OverrideFlatConfiguration overrideConfig = new OverrideFlatConfiguration("retry/simpleCasesTest");
+		overrideConfig.override("serviceName", "testBatchProcessing");
+		overrideConfig.override("requestBatchSize", "5");
+		overrideConfig.override("requestBatchLingerTime", "50ms");
+		
+		RRLConfig config = new RRLConfig(overrideConfig);
+		RetryAndRateLimitService<String, String> service = new RetryAndRateLimitService<String, String>(config)
+		{
+			@Override
+			protected String processRequest(String input, int attemptNumber)
+			{
+				throw new IllegalStateException("Only batch processing is expected.");
+			}
+			
+			@Override
+			protected List<NullableOptional<String>> processRequestBatch(List<RRLEntry<String, String>> batch)
+			{
+				ArrayList<String> inputs = new ArrayList<>();
+				ArrayList<NullableOptional<String>> results = new ArrayList<>();
+				for (RRLEntry<String, String> entry : batch)
+				{
+					int attemptNumber = entry.getNumberOfFailedAttempts() + 1;
+					inputs.add(entry.getInput() + "@" + attemptNumber);
+					
+					if (entry.getInput().startsWith("fail") && (attemptNumber == 1))
+						results.add(NullableOptional.emptyWithException(new IllegalStateException("attempt: " + attemptNumber)));
+					else
+						results.add(NullableOptional.of("success: " + entry.getInput() + " @" + attemptNumber));
+				}
+				batches.add(inputs);
+				
+				return results;
+			}
+		};
+		service.start();
+		
+		ArrayList<String> requests = new ArrayList<>();
+		for (int i = 0; i < 12; i++)
+			requests.add((i == 3 ? "fail" : "request") + i);
+		
+		List<RRLFuture<String, String>> futures = service.submitAllFor(requests, 5000);
+		assertEquals(futures.size(), 12);
+		
+		for (int i = 0; i < 12; i++)
+		{
+			if (i == 3)
+				assertEquals(futures.get(i).getOrNull(2000, TimeUnit.MILLISECONDS), "success: fail3 @2");
+			else
+				assertEquals(futures.get(i).getOrNull(2000, TimeUnit.MILLISECONDS), "success: request" + i + " @1");
+		}
+		
+		int totalItems = 0;
+		int maxBatch = 0;
+		for (List<String> batch : batches)
+		{
+			assertBetweenInclusive(batch.size(), 1, 5);
+			totalItems += batch.size();
+			maxBatch = Math.max(maxBatch, batch.size());
+		}
+		assertEquals(totalItems, 13); // 12 + 1 retry
+		assertTrue(maxBatch > 1, "" + batches);
+		
+		// retried item is processed in a separate (later) batch
+		assertEquals(batches.stream().filter(b -> b.contains("fail3@1")).count(), 1L);
+		assertEquals(batches.stream().filter(b -> b.contains("fail3@2")).count(), 1L);
+		
+		assertEquals(service.shutdownFor(1000, false, false), 0);
+	}
+	
+	/**
+	 * Tests that incomplete batch is processed when batch linger time expires
+	 * even if main queue processing is busy (here -- waiting for ticket for 
+	 * the next request).
+	 */
+	@Test
+	public void testBatchLingerWhileMainQueueIsBusy() throws InterruptedException
+	{
+		final LinkedBlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+		
+		OverrideFlatConfiguration overrideConfig = new OverrideFlatConfiguration("retry/simpleCasesTest");
+		overrideConfig.override("serviceName", "testBatchLingerWhileMainQueueIsBusy");
+		overrideConfig.override("requestBatchSize", "5");
+		overrideConfig.override("requestBatchLingerTime", "100ms");
+		overrideConfig.override("rateLimiterBucketSize", "1");
+		overrideConfig.override("rateLimiterRefillRate", "2"); // one ticket per 500ms
+		
+		RRLConfig config = new RRLConfig(overrideConfig);
+		RetryAndRateLimitService<String, String> service = new RetryAndRateLimitService<String, String>(config)
+		{
+			@Override
+			protected String processRequest(String input, int attemptNumber)
+			{
+				throw new IllegalStateException("Only batch processing is expected.");
+			}
+			
+			@Override
+			protected List<NullableOptional<String>> processRequestBatch(List<RRLEntry<String, String>> batch)
+			{
+				ArrayList<String> inputs = new ArrayList<>();
+				ArrayList<NullableOptional<String>> results = new ArrayList<>();
+				for (RRLEntry<String, String> entry : batch)
+				{
+					inputs.add(entry.getInput());
+					results.add(NullableOptional.of("success: " + entry.getInput()));
+				}
+				batches.add(inputs);
+				
+				return results;
+			}
+		};
+		service.start();
+		
+		RRLFuture<String, String> first = service.submitFor("first", 5000);
+		RRLFuture<String, String> second = service.submitFor("second", 5000);
+		
+		// first request gets its ticket at ~500ms, second one at ~1000ms;
+		// first batch must not wait for the second ticket
+		assertEquals(first.getOrNull(2000, TimeUnit.MILLISECONDS), "success: first");
+		assertFalse(second.isDone());
+		assertEquals(second.getOrNull(2000, TimeUnit.MILLISECONDS), "success: second");
+		
+		assertEquals(new ArrayList<>(batches), Arrays.asList(Arrays.asList("first"), Arrays.asList("second")));
+		
+		assertEquals(service.shutdownFor(1000, false, false), 0);
+	}
+	
+	/**
+	 * Tests main queue lanes (with separate rate limiters) -- slow lane must
+	 * not delay requests in another lane.
+	 */
+	@Test
+	public void testMainQueueLanes() throws InterruptedException
+	{
+		OverrideFlatConfiguration overrideConfig = new OverrideFlatConfiguration("retry/simpleCasesTest");
+		overrideConfig.override("serviceName", "testMainQueueLanes");
+		overrideConfig.override("mainQueueLanes", "2");
+		overrideConfig.override("mainQueueLaneSeparateRateLimiters", "true");
+		overrideConfig.override("rateLimiterBucketSize", "1");
+		overrideConfig.override("rateLimiterRefillRate", "2"); // one ticket per 500ms in each lane
+		
+		RRLConfig config = new RRLConfig(overrideConfig);
+		RetryAndRateLimitService<String, String> service = new RetryAndRateLimitService<String, String>(config)
+		{
+			@Override
+			protected String processRequest(String input, int attemptNumber)
+			{
+				return "success: " + input;
+			}
+
+			@Override
+			protected @Nullable Object extractMainQueueLaneKey(String incomingInput)
+			{
+				// 'lane0:...' & 'lane1:...'
+				return Integer.valueOf(incomingInput.charAt(4) - '0');
+			}
+		};
+		service.start();
+		
+		final long start = System.currentTimeMillis();
+		
+		ArrayList<RRLFuture<String, String>> lane0 = new ArrayList<>();
+		for (int i = 0; i < 4; i++)
+			lane0.add(service.submitFor("lane0:" + i, 5000));
+		RRLFuture<String, String> lane1 = service.submitFor("lane1:0", 5000);
+		
+		// With a single queue & rate limiter this would have to wait for all lane0 requests
+		assertEquals(lane1.getOrNull(1200, TimeUnit.MILLISECONDS), "success: lane1:0");
+		assertBetweenInclusive(System.currentTimeMillis() - start, 400L, 1200L);
+		assertFalse(lane0.get(3).isDone());
+		
+		for (int i = 0; i < 4; i++)
+			assertEquals(lane0.get(i).getOrNull(3000, TimeUnit.MILLISECONDS), "success: lane0:" + i);
+		assertBetweenInclusive(System.currentTimeMillis() - start, 1800L, 2800L);
+		
+		{
+			RRLStatus status = service.getStatus(0);
+			assertTrue(status.isMainQueueProcessingThreadAlive());
+			assertEquals(status.getMainQueueSize(), 0);
+		}
+		
+		assertEquals(service.shutdownFor(1000, false, false), 0);
+		
+		// Invalid lane index must be rejected with a descriptive exception
+		RetryAndRateLimitService<String, String> invalidLaneService = new RetryAndRateLimitService<String, String>(config)
+		{
+			@Override
+			protected String processRequest(String input, int attemptNumber)
+			{
+				return "success: " + input;
+			}
+
+			@Override
+			protected int spiSelectMainQueueLane(String incomingInput)
+			{
+				return 2;
+			}
+		};
+		invalidLaneService.start();
+		
+		assertFailsWithSubstring(() -> invalidLaneService.submitFor("lane2:0", 5000), 
+			"java.lang.IllegalStateException: spiSelectMainQueueLane(..) returned invalid lane index [2], must be between 0 and 1 (inclusive)");
+		assertEquals(invalidLaneService.getStatus(0).getMainQueueSize(), 0);
+		
+		assertEquals(invalidLaneService.shutdownFor(1000, false, false), 0);
+	}
+	
 	@Test
 	public void testThreadLimit() throws InterruptedException
 	{